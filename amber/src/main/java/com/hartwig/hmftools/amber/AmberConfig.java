@@ -92,6 +92,10 @@ public class AmberConfig
                description = "Number of threads")
     public int ThreadCount = DEFAULT_THREADS;
 
+    @Parameter(names = "-native_pcf",
+               description = "Segment in Java rather than with R's copynumber package")
+    public boolean NativePcf = false;
+
     @Parameter(names = "-" + RefGenomeVersion.REF_GENOME_VERSION,
                required = true,
                description = RefGenomeVersion.REF_GENOME_VERSION_CFG_DESC,
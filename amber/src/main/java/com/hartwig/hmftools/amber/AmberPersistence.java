@@ -43,7 +43,12 @@ class AmberPersistence
         if (mConfig.TumorId != null)
         {
             AMB_LOGGER.info("Applying pcf segmentation");
-            new BAFSegmentation(mConfig.OutputDir).applySegmentation(mConfig.TumorId, filename);
+            final BAFSegmentation segmentation = new BAFSegmentation(mConfig.OutputDir, mConfig.ThreadCount);
+
+            if(mConfig.NativePcf)
+                segmentation.applyNativeSegmentation(mConfig.TumorId, result);
+            else
+                segmentation.applySegmentation(mConfig.TumorId, filename);
         }
     }
 
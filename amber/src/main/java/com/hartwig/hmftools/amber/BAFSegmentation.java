@@ -1,17 +1,28 @@
 package com.hartwig.hmftools.amber;
 
 import java.io.IOException;
+import java.util.List;
 
+import com.hartwig.hmftools.common.amber.AmberBAF;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.common.utils.pcf.PCFFile;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter;
 import com.hartwig.hmftools.common.utils.r.RExecutor;
 
 public class BAFSegmentation
 {
     private final String mOutputDir;
+    private final int mThreads;
 
-    public BAFSegmentation(final String outputDir)
+    // as per bafSegmentation.R
+    private static final String PCF_SAMPLE_ID = "tumorModifiedBAF";
+    private static final double PCF_GAMMA = 100;
+    private static final int PCF_KMIN = 1;
+
+    public BAFSegmentation(final String outputDir, int threads)
     {
         mOutputDir = outputDir;
+        mThreads = threads;
     }
 
     public void applySegmentation(final String tumor, final String ratioFile) throws InterruptedException, IOException
@@ -23,4 +34,21 @@ public class BAFSegmentation
             throw new IOException("R execution failed. Unable to complete segmentation.");
         }
     }
+
+    public void applyNativeSegmentation(final String tumor, final List<AmberBAF> bafs) throws IOException
+    {
+        final PCFSegmenter segmenter = new PCFSegmenter(PCF_SAMPLE_ID, PCF_GAMMA, PCF_KMIN);
+
+        for(AmberBAF baf : bafs)
+        {
+            // segment the tumor modified BAF as persisted
+            double tumorModifiedBAF = Math.round(baf.tumorModifiedBAF() * 10000) / 10000.0;
+            segmenter.addValue(baf.chromosome(), baf.position(), tumorModifiedBAF);
+        }
+
+        if(!TaskExecutor.executeTasks(segmenter.createTasks(), mThreads))
+            throw new IOException("BAF segmentation failed");
+
+        segmenter.write(PCFFile.generateBAFFilename(mOutputDir, tumor));
+    }
 }
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.cobalt;
 
 import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 import static com.hartwig.hmftools.cobalt.CobaltConstants.WINDOW_SIZE;
+import static com.hartwig.hmftools.cobalt.RatioSegmentation.applyNativeRatioSegmentation;
 import static com.hartwig.hmftools.cobalt.RatioSegmentation.applyRatioSegmentation;
 
 import java.io.File;
@@ -27,8 +28,7 @@ import com.hartwig.hmftools.common.cobalt.CobaltRatio;
 import com.hartwig.hmftools.common.cobalt.CobaltRatioFile;
 import com.hartwig.hmftools.common.genome.chromosome.ChromosomeLength;
 import com.hartwig.hmftools.common.genome.chromosome.ChromosomeLengthFactory;
-import com.hartwig.hmftools.common.genome.gc.GCProfile;
-import com.hartwig.hmftools.common.genome.gc.GCProfileFactory;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore;
 import com.hartwig.hmftools.common.utils.config.DeclaredOrderParameterComparator;
 import com.hartwig.hmftools.common.utils.config.LoggingOptions;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
@@ -95,7 +95,7 @@ public class CobaltApplication implements AutoCloseable
 
             final Collection<Chromosome> chromosomes = loadChromosomes(readerFactory);
 
-            final Multimap<Chromosome, GCProfile> gcProfiles = loadGCContent(chromosomes);
+            final GCProfileStore gcProfiles = GCProfileStore.load(WINDOW_SIZE, mConfig.GcProfilePath);
 
             final CountSupplier countSupplier = new CountSupplier(
                     WINDOW_SIZE, mConfig.MinMappingQuality,
@@ -132,7 +132,15 @@ public class CobaltApplication implements AutoCloseable
             mVersionInfo.write(mConfig.OutputDir);
             CobaltRatioFile.write(outputFilename, ratios.values());
 
-            applyRatioSegmentation(executorService, mConfig.OutputDir, outputFilename, mConfig.ReferenceId, mConfig.TumorId, mConfig.PcfGamma);
+            if(mConfig.NativePcf)
+            {
+                applyNativeRatioSegmentation(
+                        executorService, mConfig.OutputDir, ratios.values(), mConfig.ReferenceId, mConfig.TumorId, mConfig.PcfGamma);
+            }
+            else
+            {
+                applyRatioSegmentation(executorService, mConfig.OutputDir, outputFilename, mConfig.ReferenceId, mConfig.TumorId, mConfig.PcfGamma);
+            }
         }
         finally
         {
@@ -173,11 +181,4 @@ public class CobaltApplication implements AutoCloseable
 
         return chromosomes;
     }
-
-    @NotNull
-    public Multimap<Chromosome, GCProfile> loadGCContent(Collection<Chromosome> chromosomes) throws IOException
-    {
-        Collection<GCProfile> gcProfileList = GCProfileFactory.loadGCContent(WINDOW_SIZE, mConfig.GcProfilePath).values();
-        return CobaltUtils.toChromosomeMultiMap(gcProfileList, chromosomes, GCProfile::chromosome);
-    }
 }
@@ -83,9 +83,13 @@ public class CobaltConfig
     public String TargetRegionPath;
 
     @Parameter(names = "-pcf_gamma",
-               description = "Gamma value we pass to copynumber PCF")
+               description = "Gamma value for PCF segmentation")
     public int PcfGamma = CobaltConstants.DEFAULT_PCF_GAMMA;
 
+    @Parameter(names = "-native_pcf",
+               description = "Segment in Java rather than with R's copynumber package")
+    public boolean NativePcf = false;
+
     public static final Logger CB_LOGGER = LogManager.getLogger(CobaltConfig.class);
 
     public CobaltConfig()
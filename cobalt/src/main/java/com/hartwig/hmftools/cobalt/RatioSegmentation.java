@@ -3,17 +3,27 @@ package com.hartwig.hmftools.cobalt;
 import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
 
 import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.cobalt.CobaltRatio;
 import com.hartwig.hmftools.common.utils.pcf.PCFFile;
+import com.hartwig.hmftools.common.utils.pcf.PCFSegmenter;
 import com.hartwig.hmftools.common.utils.r.RExecutor;
 
 public class RatioSegmentation
 {
+    // as per ratioSegmentation.R
+    private static final String PCF_SAMPLE_ID = "S1";
+    private static final int PCF_KMIN = 1;
+    private static final double MIN_RATIO = 0.001;
+
     public static void applyRatioSegmentation(
             final ExecutorService executorService, final String outputDir, final String ratioFile,
             final String reference, final String tumor, int gamma) throws ExecutionException, InterruptedException
@@ -50,4 +60,65 @@ public class RatioSegmentation
 
         return null;
     }
+
+    public static void applyNativeRatioSegmentation(
+            final ExecutorService executorService, final String outputDir, final Collection<CobaltRatio> ratios,
+            final String reference, final String tumor, int gamma) throws ExecutionException, InterruptedException, IOException
+    {
+        final List<PCFSegmenter> segmenters = Lists.newArrayList();
+        final List<String> pcfFiles = Lists.newArrayList();
+
+        if (reference != null)
+        {
+            segmenters.add(createSegmenter(ratios, CobaltRatio::referenceGCDiploidRatio, gamma));
+            pcfFiles.add(PCFFile.generateRatioFilename(outputDir, reference));
+        }
+        if (tumor != null)
+        {
+            segmenters.add(createSegmenter(ratios, CobaltRatio::tumorGCRatio, gamma));
+            pcfFiles.add(PCFFile.generateRatioFilename(outputDir, tumor));
+        }
+
+        // all chromosome arms of both samples are segmented concurrently
+        final List<Future<Object>> futures = Lists.newArrayList();
+
+        for(PCFSegmenter segmenter : segmenters)
+        {
+            for(Callable task : segmenter.createTasks())
+            {
+                futures.add(executorService.submit((Callable<Object>)task));
+            }
+        }
+
+        for(Future<Object> future : futures)
+        {
+            future.get();
+        }
+
+        for(int i = 0; i < segmenters.size(); ++i)
+        {
+            segmenters.get(i).write(pcfFiles.get(i));
+        }
+
+        CB_LOGGER.info("Segmentation Complete");
+    }
+
+    private static PCFSegmenter createSegmenter(
+            final Collection<CobaltRatio> ratios, final ToDoubleFunction<CobaltRatio> ratioFunction, int gamma)
+    {
+        final PCFSegmenter segmenter = new PCFSegmenter(PCF_SAMPLE_ID, gamma, PCF_KMIN);
+
+        for(CobaltRatio ratio : ratios)
+        {
+            // segment the log2 of the ratios as persisted, excluding those which are unknown
+            double value = Math.round(ratioFunction.applyAsDouble(ratio) * 10000) / 10000.0;
+
+            if(value < 0)
+                continue;
+
+            segmenter.addValue(ratio.chromosome(), ratio.position(), Math.log(Math.max(value, MIN_RATIO)) / Math.log(2));
+        }
+
+        return segmenter;
+    }
 }
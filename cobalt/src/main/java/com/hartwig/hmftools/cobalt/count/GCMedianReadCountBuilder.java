@@ -30,7 +30,11 @@ public class GCMedianReadCountBuilder {
     }
 
     public void add(@NotNull final GCProfile profile, int readCount) {
-        final GCBucket gcBucket = GCBucket.create(profile);
+        add(profile.gcContent(), readCount);
+    }
+
+    public void add(double gcContent, int readCount) {
+        final GCBucket gcBucket = GCBucket.create(gcContent);
 
         if (gcBucket.bucket() >= MIN_BUCKET && gcBucket.bucket() <= MAX_BUCKET) {
             medianSample.addRead(readCount);
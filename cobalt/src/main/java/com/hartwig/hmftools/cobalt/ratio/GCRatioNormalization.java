@@ -10,9 +10,9 @@ import com.hartwig.hmftools.cobalt.Chromosome;
 import com.hartwig.hmftools.common.cobalt.ImmutableReadRatio;
 import com.hartwig.hmftools.common.cobalt.ReadRatio;
 import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.gc.GCBucket;
 import com.hartwig.hmftools.common.genome.gc.GCMedianReadCount;
 import com.hartwig.hmftools.cobalt.count.GCMedianReadCountBuilder;
-import com.hartwig.hmftools.common.genome.gc.GCProfile;
 import com.hartwig.hmftools.common.genome.position.GenomePosition;
 
 import org.jetbrains.annotations.NotNull;
@@ -29,15 +29,18 @@ public class GCRatioNormalization
         mEntries = ArrayListMultimap.create();
     }
 
-    void addPosition(@NotNull final Chromosome chromosome, @NotNull final GCProfile gcProfile, final int readCount)
+    void addPosition(
+            @NotNull final Chromosome chromosome, int windowStart, double gcContent, boolean isMappable, final int readCount)
     {
-        final ReadCountWithGCContent readCountWithGCContent = new ReadCountWithGCContent(readCount, gcProfile);
+        final ReadCountWithGCContent readCountWithGCContent = new ReadCountWithGCContent(
+                chromosome.contig, windowStart, readCount, gcContent, isMappable);
+
         mEntries.put(chromosome, readCountWithGCContent);
 
         // TODO: TEST With/without isMappable
         if(HumanChromosome.fromString(chromosome.contig).isAutosome() && readCountWithGCContent.isMappable() && readCount > 0)
         {
-            mMedianReadCountBuilder.add(gcProfile, readCount);
+            mMedianReadCountBuilder.add(gcContent, readCount);
         }
     }
 
@@ -64,7 +67,7 @@ public class GCRatioNormalization
     @Nullable
     private static ReadRatio create(@NotNull final GCMedianReadCount medians, @NotNull final ReadCountWithGCContent readCount)
     {
-        double gcMedianCount = medians.medianReadCount(readCount.gcProfile());
+        double gcMedianCount = medians.medianReadCount(GCBucket.create(readCount.GcContent));
         final double ratio;
 
         double medianNormalisation = medians.medianReadCount() / medians.meanReadCount();
@@ -83,26 +86,33 @@ public class GCRatioNormalization
 
     private static class ReadCountWithGCContent implements GenomePosition
     {
-        public final GCProfile GcProfile;
+        public final String Contig;
+        public final int Position; // start of the GC profile window
         public final int ReadCount;
+        public final double GcContent;
+        public final boolean IsMappable;
 
-        private ReadCountWithGCContent(final int readCount, @NotNull final GCProfile gcProfile)
+        private ReadCountWithGCContent(
+                final String chromosome, int position, final int readCount, double gcContent, boolean isMappable)
         {
+            Contig = chromosome;
+            Position = position;
             ReadCount = readCount;
-            GcProfile = gcProfile;
+            GcContent = gcContent;
+            IsMappable = isMappable;
         }
 
         @NotNull
         @Override
         public String chromosome()
         {
-            return GcProfile.chromosome();
+            return Contig;
         }
 
         @Override
         public int position()
         {
-            return GcProfile.start();
+            return Position;
         }
 
         private int readCount()
@@ -110,14 +120,9 @@ public class GCRatioNormalization
             return ReadCount;
         }
 
-        GCProfile gcProfile()
-        {
-            return GcProfile;
-        }
-
         private boolean isMappable()
         {
-            return GcProfile.isMappable();
+            return IsMappable;
         }
     }
 }
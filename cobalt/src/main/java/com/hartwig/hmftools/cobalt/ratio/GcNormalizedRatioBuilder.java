@@ -2,17 +2,14 @@ package com.hartwig.hmftools.cobalt.ratio;
 
 import static com.hartwig.hmftools.cobalt.CobaltConfig.CB_LOGGER;
 
-import java.util.Optional;
-
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.hartwig.hmftools.cobalt.Chromosome;
 import com.hartwig.hmftools.cobalt.count.ReadCount;
 import com.hartwig.hmftools.common.cobalt.ReadRatio;
 import com.hartwig.hmftools.common.genome.gc.GCMedianReadCount;
-import com.hartwig.hmftools.common.genome.gc.GCProfile;
-import com.hartwig.hmftools.common.genome.region.GenomeRegionSelector;
-import com.hartwig.hmftools.common.genome.region.GenomeRegionSelectorFactory;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore.ChromosomeGCProfile;
 
 public class GcNormalizedRatioBuilder implements RatioBuilder
 {
@@ -20,23 +17,29 @@ public class GcNormalizedRatioBuilder implements RatioBuilder
     private final ArrayListMultimap<Chromosome, ReadRatio> mGcRatios;
 
     public GcNormalizedRatioBuilder(
-            final Multimap<Chromosome, GCProfile> gcProfiles, final Multimap<Chromosome, ReadCount> counts)
+            final GCProfileStore gcProfiles, final Multimap<Chromosome, ReadCount> counts)
     {
         CB_LOGGER.info("Applying ratio gc normalization");
 
-        final GenomeRegionSelector<GCProfile> gcProfileSelector = GenomeRegionSelectorFactory.create(gcProfiles.values());
-
         final GCRatioNormalization gcRatioNormalization = new GCRatioNormalization();
 
         for(Chromosome chromosome : counts.keySet())
         {
+            final ChromosomeGCProfile chrGcProfile = gcProfiles.chromosome(chromosome.contig);
+
+            if(chrGcProfile == null)
+                continue;
+
             for(ReadCount readCount : counts.get(chromosome))
             {
-                final Optional<GCProfile> optionalGCProfile = gcProfileSelector.select(readCount);
-                if(optionalGCProfile.isPresent())
+                // each read count is looked up directly in its GC profile window
+                int windowIndex = chrGcProfile.windowIndex(readCount.position());
+
+                if(chrGcProfile.hasWindow(windowIndex))
                 {
-                    final GCProfile gcProfile = optionalGCProfile.get();
-                    gcRatioNormalization.addPosition(chromosome, gcProfile, readCount.readCount());
+                    gcRatioNormalization.addPosition(
+                            chromosome, chrGcProfile.windowStart(windowIndex), chrGcProfile.gcContent(windowIndex),
+                            chrGcProfile.isMappable(windowIndex), readCount.readCount());
                 }
             }
         }
@@ -28,7 +28,7 @@ import com.hartwig.hmftools.common.cobalt.MedianRatioFactory;
 import com.hartwig.hmftools.common.cobalt.MedianRatioFile;
 import com.hartwig.hmftools.common.cobalt.ReadRatio;
 import com.hartwig.hmftools.common.genome.gc.GCMedianReadCountFile;
-import com.hartwig.hmftools.common.genome.gc.GCProfile;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore;
 import com.hartwig.hmftools.common.genome.position.GenomePosition;
 
 import org.jetbrains.annotations.NotNull;
@@ -41,7 +41,7 @@ public class RatioSupplier
     private final String mOutputDir;
 
     private final Collection<Chromosome> mChromosomes;
-    private final Multimap<Chromosome, GCProfile> mGcProfiles;
+    private final GCProfileStore mGcProfiles;
     @Nullable private final Multimap<Chromosome, ReadCount> mReferenceCounts;
     @Nullable private final Multimap<Chromosome, ReadCount> mTumorCounts;
 
@@ -58,7 +58,7 @@ public class RatioSupplier
         SampleRatios(
                 final String sampleId,
                 final Multimap<Chromosome, ReadCount> readCounts,
-                final Multimap<Chromosome, GCProfile> gcProfiles,
+                final GCProfileStore gcProfiles,
                 @Nullable TargetRegionEnrichment targetRegionEnrichment,
                 final String outputDir) throws IOException
         {
@@ -88,7 +88,7 @@ public class RatioSupplier
 
         GermlineRatios(final String referenceId,
                 final Multimap<Chromosome, ReadCount> readCounts,
-                final Multimap<Chromosome, GCProfile> gcProfiles,
+                final GCProfileStore gcProfiles,
                 @Nullable TargetRegionEnrichment targetRegionEnrichment,
                 final Collection<Chromosome> chromosomes,
                 final String outputDir) throws IOException
@@ -108,7 +108,7 @@ public class RatioSupplier
     }
 
     public RatioSupplier(final String reference, final String tumor, final String outputDirectory,
-            final Multimap<Chromosome, GCProfile> gcProfiles,
+            final GCProfileStore gcProfiles,
             final Collection<Chromosome> chromosomes,
             @Nullable final Multimap<Chromosome, ReadCount> referenceCounts,
             @Nullable final Multimap<Chromosome, ReadCount> tumorCounts)
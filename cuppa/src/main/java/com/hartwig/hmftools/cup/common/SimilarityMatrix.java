@@ -0,0 +1,127 @@
+package com.hartwig.hmftools.cup.common;
+
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import com.hartwig.hmftools.common.utils.Matrix;
+
+/* holds a set of profiles (eg reference samples or cancer types) as unit-length rows in a dense row-major array, so that
+   a sample's cosine similarity with every profile is a single matrix-vector product - results match CosineSimilarity.calcCosineSim
+   without skipping zeros
+*/
+public class SimilarityMatrix
+{
+    public final int Rows;
+    public final int Cols;
+
+    private final double[] mData; // normalised rows, all zeros for a row with no counts
+
+    public SimilarityMatrix(int rows, int cols)
+    {
+        Rows = rows;
+        Cols = cols;
+        mData = new double[rows * cols];
+    }
+
+    public SimilarityMatrix(final Matrix matrix)
+    {
+        this(matrix.Rows, matrix.Cols);
+
+        for(int r = 0; r < Rows; ++r)
+        {
+            setRow(r, matrix.getRow(r));
+        }
+    }
+
+    public void setRow(int rowIndex, final double[] data)
+    {
+        normalise(data, mData, rowIndex * Cols, Cols);
+    }
+
+    public double[] calcSimilarities(final double[] sample)
+    {
+        final double[] similarities = new double[Rows];
+
+        if(sample.length != Cols || Cols < 2)
+            return similarities;
+
+        final double[] normSample = new double[Cols];
+
+        if(!normalise(sample, normSample, 0, Cols))
+            return similarities;
+
+        for(int r = 0; r < Rows; ++r)
+        {
+            int rowOffset = r * Cols;
+            double dotProduct = 0;
+
+            for(int c = 0; c < Cols; ++c)
+            {
+                dotProduct += normSample[c] * mData[rowOffset + c];
+            }
+
+            similarities[r] = min(dotProduct, 1.0);
+        }
+
+        return similarities;
+    }
+
+    public static int[] topMatches(final double[] similarities, int maxMatches, double minSimilarity)
+    {
+        // returns the indices of the highest similarities, in descending order
+        PriorityQueue<Integer> topIndices = new PriorityQueue<>(maxMatches + 1, (a, b) -> Double.compare(similarities[a], similarities[b]));
+
+        for(int i = 0; i < similarities.length; ++i)
+        {
+            if(similarities[i] < minSimilarity)
+                continue;
+
+            if(topIndices.size() < maxMatches)
+            {
+                topIndices.add(i);
+            }
+            else if(maxMatches > 0 && similarities[i] > similarities[topIndices.peek()])
+            {
+                topIndices.poll();
+                topIndices.add(i);
+            }
+        }
+
+        final int[] indices = new int[topIndices.size()];
+
+        for(int i = indices.length - 1; i >= 0; --i)
+        {
+            indices[i] = topIndices.poll();
+        }
+
+        return indices;
+    }
+
+    private static boolean normalise(final double[] data, final double[] dest, int destOffset, int length)
+    {
+        double total = 0;
+
+        for(int i = 0; i < length; ++i)
+        {
+            total += data[i] * data[i];
+        }
+
+        if(total <= 0)
+        {
+            Arrays.fill(dest, destOffset, destOffset + length, 0);
+            return false;
+        }
+
+        double norm = sqrt(total);
+
+        for(int i = 0; i < length; ++i)
+        {
+            dest[destOffset + i] = data[i] / norm;
+        }
+
+        return true;
+    }
+}
@@ -3,6 +3,7 @@ package com.hartwig.hmftools.cup.rna;
 import static java.lang.Math.exp;
 import static java.lang.Math.log;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.pow;
 import static java.lang.Math.sqrt;
 
@@ -72,6 +73,8 @@ public class AltSjClassifier implements CuppaClassifier
     // per sample raw fragment counts per site
     private short[][] mSampleFragCounts;
     private final Map<String,Integer> mSampleIndexMap; // map from sampleId into the sample counts matrix
+    private double[] mFragCountConversions; // converted value for each raw fragment count, zero below the min sample fragments
+    private double[] mSampleFragCountNorms; // length of each sample's converted counts for pairwise CSS
 
     private final Map<String,RnaCohortData> mCancerDataMap; // number of samples with specific read length in each cancer type
 
@@ -103,6 +106,8 @@ public class AltSjClassifier implements CuppaClassifier
 
         mSampleIndexMap = Maps.newHashMap();
         mSampleFragCounts = null;
+        mFragCountConversions = null;
+        mSampleFragCountNorms = null;
         mCssWriter = null;
 
         mWeightExponent = Double.parseDouble(cmd.getOptionValue(WEIGHT_EXPONENT, String.valueOf(ALT_SJ_DIFF_EXPONENT)));
@@ -195,6 +200,31 @@ public class AltSjClassifier implements CuppaClassifier
                     mRefCancerTypeMatrix.Cols, mSampleFragCounts[0].length);
         }
 
+        if(mRunPairwise)
+        {
+            // pairwise CSS reads each sample's converted counts from the raw counts via a lookup rather than keeping a converted copy
+            mFragCountConversions = new double[Short.MAX_VALUE + 1];
+
+            for(int fragCount = mMinSampleFragments; fragCount < mFragCountConversions.length; ++fragCount)
+            {
+                mFragCountConversions[fragCount] = convertFragCount(fragCount);
+            }
+
+            mSampleFragCountNorms = new double[mSampleFragCounts.length];
+
+            for(int i = 0; i < mSampleFragCounts.length; ++i)
+            {
+                double total = 0;
+
+                for(short fragCount : mSampleFragCounts[i])
+                {
+                    total += mFragCountConversions[fragCount] * mFragCountConversions[fragCount];
+                }
+
+                mSampleFragCountNorms[i] = sqrt(total);
+            }
+        }
+
         return true;
     }
 
@@ -353,6 +383,8 @@ public class AltSjClassifier implements CuppaClassifier
 
         int readLength = sample.rnaReadLength();
 
+        final double[] sampleSimilarities = calcSampleSimilarities(sampleFragCounts);
+
         for(Map.Entry<String,Integer> entry : mSampleIndexMap.entrySet())
         {
             final String refSampleId = entry.getKey();
@@ -371,13 +403,7 @@ public class AltSjClassifier implements CuppaClassifier
             if(!checkIsValidCancerType(sample, refCancerType, cancerCssTotals))
                 continue;
 
-            int refSampleCountsIndex = entry.getValue();
-
-            // TODO: cache the converted ref counts to avoid repeating this step?
-            final short[] refRawSampleFragCounts = mSampleFragCounts[refSampleCountsIndex];
-            final double[] refSampleFragCounts = convertSampleFragCounts(refRawSampleFragCounts);
-
-            double css = calcCosineSim(sampleFragCounts, refSampleFragCounts);
+            double css = sampleSimilarities[entry.getValue()];
 
             if(css < GENE_EXP_CSS_THRESHOLD)
                 continue;
@@ -419,6 +445,42 @@ public class AltSjClassifier implements CuppaClassifier
         similarities.addAll(topMatches);
     }
 
+    private double[] calcSampleSimilarities(final double[] sampleFragCounts)
+    {
+        // matches CosineSimilarity.calcCosineSim without skipping zeros against each sample's converted counts
+        final double[] similarities = new double[mSampleFragCounts.length];
+
+        double total = 0;
+
+        for(double fragCount : sampleFragCounts)
+        {
+            total += fragCount * fragCount;
+        }
+
+        double sampleNorm = sqrt(total);
+
+        if(sampleNorm <= 0 || sampleFragCounts.length < 2)
+            return similarities;
+
+        for(int i = 0; i < mSampleFragCounts.length; ++i)
+        {
+            if(mSampleFragCountNorms[i] <= 0)
+                continue;
+
+            final short[] refFragCounts = mSampleFragCounts[i];
+            double dotProduct = 0;
+
+            for(int j = 0; j < sampleFragCounts.length; ++j)
+            {
+                dotProduct += sampleFragCounts[j] * mFragCountConversions[refFragCounts[j]];
+            }
+
+            similarities[i] = min(dotProduct / (sampleNorm * mSampleFragCountNorms[i]), 1.0);
+        }
+
+        return similarities;
+    }
+
     private double[] adjustRefCounts(final double[] refCounts, final short[] sampleCounts, int cancerSampleCount)
     {
         // remove the sample's counts - which since now keep raw counts does not need to be de-logged
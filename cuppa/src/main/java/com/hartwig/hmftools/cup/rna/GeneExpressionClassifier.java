@@ -45,6 +45,7 @@ import com.hartwig.hmftools.cup.common.SampleData;
 import com.hartwig.hmftools.cup.common.SampleDataCache;
 import com.hartwig.hmftools.cup.common.SampleResult;
 import com.hartwig.hmftools.cup.common.SampleSimilarity;
+import com.hartwig.hmftools.cup.common.SimilarityMatrix;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -66,6 +67,9 @@ public class GeneExpressionClassifier implements CuppaClassifier
     private Matrix mSampleGeneExpression;
     private final Map<String,Integer> mSampleIndexMap;
 
+    private SimilarityMatrix mRefSampleSimilarity;
+    private SimilarityMatrix mRefCancerTypeSimilarity;
+
     private final boolean mRunPairwiseCss;
     private final boolean mRunCancerCss;
     private final double mCssExponent;
@@ -94,6 +98,9 @@ public class GeneExpressionClassifier implements CuppaClassifier
         mSampleGeneExpression = null;
         mSampleIndexMap = Maps.newHashMap();
 
+        mRefSampleSimilarity = null;
+        mRefCancerTypeSimilarity = null;
+
         final String rnaMethods = cmd.getOptionValue(RNA_METHODS);
 
         mRunPairwiseCss = rnaMethods == null || rnaMethods.contains(CSS_METHOD_PAIRWISE);
@@ -195,6 +202,13 @@ public class GeneExpressionClassifier implements CuppaClassifier
                 NoiseRefCache.applyNoise(mSampleGeneExpression, noiseAdjustments, noiseAllocation);
         }
 
+        // normalise each reference profile once rather than for every sample comparison
+        if(mRunPairwiseCss)
+            mRefSampleSimilarity = new SimilarityMatrix(mRefSampleGeneExpression);
+
+        if(mRunCancerCss)
+            mRefCancerTypeSimilarity = new SimilarityMatrix(mRefCancerTypeGeneExpression);
+
         return true;
     }
 
@@ -259,6 +273,8 @@ public class GeneExpressionClassifier implements CuppaClassifier
 
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
 
+        final double[] refSimilarities = mRefSampleSimilarity.calcSimilarities(sampleTPMs);
+
         for(Map.Entry<String,List<SampleData>> refCancerEntry : mSampleDataCache.RefCancerSampleData.entrySet())
         {
             final String refCancerType = refCancerEntry.getKey();
@@ -281,9 +297,7 @@ public class GeneExpressionClassifier implements CuppaClassifier
                 if(refSampleIndex == null)
                     continue;
 
-                final double[] otherSampleTPMs = mRefSampleGeneExpression.getRow(refSampleIndex);
-
-                double css = calcCosineSim(sampleTPMs, otherSampleTPMs);
+                double css = refSimilarities[refSampleIndex];
 
                 if(css < GENE_EXP_CSS_THRESHOLD)
                     continue;
@@ -326,6 +340,8 @@ public class GeneExpressionClassifier implements CuppaClassifier
 
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
 
+        final double[] refCancerSimilarities = mRefCancerTypeSimilarity.calcSimilarities(sampleGeneTPMs);
+
         for(int i = 0; i < refCancerCount; ++i)
         {
             final String refCancerType = mRefCancerTypes.get(i);
@@ -338,10 +354,17 @@ public class GeneExpressionClassifier implements CuppaClassifier
 
             boolean matchesCancerType = sample.cancerType().equals(refCancerType);
 
-            final double[] refPosFreqs = sample.isRefSample() && matchesCancerType ?
-                    adjustRefCounts(mRefCancerTypeGeneExpression.getRow(i), sampleGeneTPMs, 1) : mRefCancerTypeGeneExpression.getRow(i);
+            double css;
 
-            double css = calcCosineSim(sampleGeneTPMs, refPosFreqs);
+            if(sample.isRefSample() && matchesCancerType)
+            {
+                final double[] refPosFreqs = adjustRefCounts(mRefCancerTypeGeneExpression.getRow(i), sampleGeneTPMs, 1);
+                css = calcCosineSim(sampleGeneTPMs, refPosFreqs);
+            }
+            else
+            {
+                css = refCancerSimilarities[i];
+            }
 
             if(css < GENE_EXP_CSS_THRESHOLD)
                 continue;
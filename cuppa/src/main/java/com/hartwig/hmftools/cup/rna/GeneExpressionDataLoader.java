@@ -2,6 +2,7 @@ package com.hartwig.hmftools.cup.rna;
 
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_ID;
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_NAME;
+import static com.hartwig.hmftools.common.utils.BinaryMatrixFile.isBinaryMatrixFile;
 import static com.hartwig.hmftools.common.utils.FileReaderUtils.createFieldsIndexMap;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedReader;
 import static com.hartwig.hmftools.common.utils.MatrixFile.loadMatrixDataFile;
@@ -17,6 +18,7 @@ import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.utils.BinaryMatrixFile;
 import com.hartwig.hmftools.common.utils.Matrix;
 
 public class GeneExpressionDataLoader
@@ -30,6 +32,9 @@ public class GeneExpressionDataLoader
         if(filename == null || filename.isEmpty())
             return null;
 
+        if(isBinaryMatrixFile(filename))
+            return loadBinaryGeneExpressionMatrix(filename, sampleTpmIndex, sampleNames, geneIds, geneNames);
+
         try
         {
             // populate the gene info and sample names
@@ -95,6 +100,46 @@ public class GeneExpressionDataLoader
         return null;
     }
 
+    private static Matrix loadBinaryGeneExpressionMatrix(
+            final String filename, final Map<String,Integer> sampleTpmIndex, final List<String> sampleNames,
+            final List<String> geneIds, final List<String> geneNames)
+    {
+        final BinaryMatrixFile matrixFile = loadBinaryGeneExpressionFile(filename, sampleTpmIndex, sampleNames, geneIds, geneNames);
+
+        if(matrixFile == null)
+            return null;
+
+        // each sample's genes are stored contiguously so form the rows of the sample-by-gene matrix, copied for callers which
+        // modify it - others can read samples from the mapped file directly
+        return matrixFile.toMatrix(true);
+    }
+
+    public static BinaryMatrixFile loadBinaryGeneExpressionFile(
+            final String filename, final Map<String,Integer> sampleTpmIndex, final List<String> sampleNames,
+            final List<String> geneIds, final List<String> geneNames)
+    {
+        final BinaryMatrixFile matrixFile = BinaryMatrixFile.load(filename);
+
+        if(matrixFile == null)
+            return null;
+
+        final List<String> fileGeneIds = matrixFile.rowLabels(FLD_GENE_ID);
+        final List<String> fileGeneNames = matrixFile.rowLabels(FLD_GENE_NAME);
+
+        if(fileGeneIds == null || fileGeneNames == null)
+        {
+            CUP_LOGGER.error("invalid gene expression file({}) row labels", filename);
+            return null;
+        }
+
+        geneIds.addAll(fileGeneIds);
+        geneNames.addAll(fileGeneNames);
+        sampleNames.addAll(matrixFile.columnNames());
+        sampleTpmIndex.putAll(matrixFile.columnIndexMap());
+
+        return matrixFile;
+    }
+
     public static boolean loadGeneIdIndices(final String filename, final Map<String,Integer> geneIdIndices)
     {
         try
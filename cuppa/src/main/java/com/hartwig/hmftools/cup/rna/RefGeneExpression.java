@@ -6,6 +6,7 @@ import static java.lang.String.format;
 
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_ID;
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_NAME;
+import static com.hartwig.hmftools.common.utils.BinaryMatrixFile.isBinaryMatrixFile;
 import static com.hartwig.hmftools.common.utils.MatrixFile.loadMatrixDataFile;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.closeBufferedWriter;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
@@ -17,6 +18,7 @@ import static com.hartwig.hmftools.cup.CuppaRefFiles.REF_FILE_GENE_EXP_SAMPLE;
 import static com.hartwig.hmftools.common.cuppa.CategoryType.GENE_EXP;
 import static com.hartwig.hmftools.common.cuppa.ClassifierType.EXPRESSION_PAIRWISE;
 import static com.hartwig.hmftools.cup.rna.GeneExpressionDataLoader.GENE_EXP_IGNORE_FIELDS;
+import static com.hartwig.hmftools.cup.rna.GeneExpressionDataLoader.loadBinaryGeneExpressionFile;
 import static com.hartwig.hmftools.cup.rna.GeneExpressionDataLoader.loadGeneExpressionMatrix;
 
 import java.io.BufferedReader;
@@ -28,6 +30,7 @@ import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.utils.BinaryMatrixFile;
 import com.hartwig.hmftools.common.utils.Matrix;
 import com.hartwig.hmftools.common.cuppa.CategoryType;
 import com.hartwig.hmftools.cup.common.NoiseRefCache;
@@ -91,8 +94,20 @@ public class RefGeneExpression implements RefClassifier
 
         // loadRefRnaGeneExpression(mConfig.GeneExpMatrixFile);
 
-        Matrix sampleGeneExpression = loadGeneExpressionMatrix(
-                mConfig.GeneExpMatrixFile, mSampleTpmIndex, mSampleNames, mGeneIds, mGeneNames);
+        // a binary matrix is read a sample at a time from the mapped file rather than copied onto the heap
+        BinaryMatrixFile sampleGeneExpressionFile = null;
+        Matrix sampleGeneExpression = null;
+
+        if(isBinaryMatrixFile(mConfig.GeneExpMatrixFile))
+        {
+            sampleGeneExpressionFile = loadBinaryGeneExpressionFile(
+                    mConfig.GeneExpMatrixFile, mSampleTpmIndex, mSampleNames, mGeneIds, mGeneNames);
+        }
+        else
+        {
+            sampleGeneExpression = loadGeneExpressionMatrix(
+                    mConfig.GeneExpMatrixFile, mSampleTpmIndex, mSampleNames, mGeneIds, mGeneNames);
+        }
 
         // CUP_LOGGER.debug("loaded {} gene for expression ref data", geneIds.size());
 
@@ -106,6 +121,7 @@ public class RefGeneExpression implements RefClassifier
         }
 
         double[][] sampleData = mSampleGeneExpression.getData();
+        double[] fileSampleTPMs = sampleGeneExpressionFile != null ? new double[mGeneIds.size()] : null;
 
         for(int i = 0; i < mSampleDataCache.RefSampleDataList.size(); ++i)
         {
@@ -118,7 +134,17 @@ public class RefGeneExpression implements RefClassifier
             }
 
             int countsIndex = mSampleTpmIndex.get(refSample.Id);
-            double[] sampleTPMs = sampleGeneExpression.getRow(countsIndex);
+            double[] sampleTPMs;
+
+            if(sampleGeneExpressionFile != null)
+            {
+                sampleGeneExpressionFile.getColumn(countsIndex, fileSampleTPMs);
+                sampleTPMs = fileSampleTPMs;
+            }
+            else
+            {
+                sampleTPMs = sampleGeneExpression.getRow(countsIndex);
+            }
 
             for(int b = 0; b < sampleTPMs.length; ++b)
             {
@@ -70,6 +70,7 @@ import com.hartwig.hmftools.cup.common.SampleData;
 import com.hartwig.hmftools.cup.common.SampleDataCache;
 import com.hartwig.hmftools.cup.common.SampleResult;
 import com.hartwig.hmftools.cup.common.SampleSimilarity;
+import com.hartwig.hmftools.cup.common.SimilarityMatrix;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -96,6 +97,13 @@ public class SomaticClassifier implements CuppaClassifier
     private Matrix mSampleGenPosCounts;
     private final Map<String,Integer> mSampleGenPosCountsIndex;
 
+    // pre-normalised copies of the reference matrices for cosine similarity
+    private SimilarityMatrix mRefSnv96Similarity;
+    private SimilarityMatrix mRefGenPosSimilarity;
+    private SimilarityMatrix mRefCancerGenPosSimilarity;
+    private SimilarityMatrix mSampleSnv96Similarity;
+    private String[] mSampleSnv96Ids; // sample IDs by row in the sample SNV counts matrix
+
     private final SigContributions mSigContributions;
     private final PositionFrequencies mPosFrequencies;
 
@@ -147,6 +155,12 @@ public class SomaticClassifier implements CuppaClassifier
         mRefGenPosCancerTypes = Lists.newArrayList();
         mRefSampleGenPosCountsIndex = Maps.newHashMap();
 
+        mRefSnv96Similarity = null;
+        mRefGenPosSimilarity = null;
+        mRefCancerGenPosSimilarity = null;
+        mSampleSnv96Similarity = null;
+        mSampleSnv96Ids = null;
+
         if(cmd != null)
         {
             mIncludeAidApobecGenPos = cmd.hasOption(INCLUDE_AID_APOBEC);
@@ -305,9 +319,28 @@ public class SomaticClassifier implements CuppaClassifier
             NoiseRefCache.applyNoise(mRefSampleGenPosCounts, noiseAdjustments, noiseAllocation);
         }
 
+        buildSimilarityMatrices();
+
         return true;
     }
 
+    private void buildSimilarityMatrices()
+    {
+        // normalise each reference profile once rather than for every sample comparison
+        mRefSnv96Similarity = new SimilarityMatrix(mRefSampleSnv96Counts);
+        mRefCancerGenPosSimilarity = new SimilarityMatrix(mRefCancerGenPosCounts);
+
+        if(mRunPairwiseGenPos && mRefSampleGenPosCounts != null)
+            mRefGenPosSimilarity = new SimilarityMatrix(mRefSampleGenPosCounts);
+
+        if(mWriteSnvSims && mConfig.WriteSimilarities && mSampleDataCache.isMultiSampleNonRef())
+        {
+            mSampleSnv96Similarity = new SimilarityMatrix(mSampleSnv96Counts);
+            mSampleSnv96Ids = new String[mSampleSnv96Counts.Rows];
+            mSampleSnv96CountsIndex.forEach((sampleId, index) -> mSampleSnv96Ids[index] = sampleId);
+        }
+    }
+
     private boolean loadSampleCounts()
     {
         int sampleCount = mSampleDataCache.SampleDataList.size();
@@ -449,6 +482,7 @@ public class SomaticClassifier implements CuppaClassifier
         }
 
         final double[] sampleCounts = mSampleSnv96Counts.getRow(sampleCountsIndex);
+        final double[] refSimilarities = mRefSnv96Similarity.calcSimilarities(sampleCounts);
 
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
@@ -474,9 +508,7 @@ public class SomaticClassifier implements CuppaClassifier
                 if(refSampleIndex == null)
                     continue;
 
-                final double[] otherSampleCounts = mRefSampleSnv96Counts.getRow(refSampleIndex);
-
-                double css = calcCosineSim(sampleCounts, otherSampleCounts);
+                double css = refSimilarities[refSampleIndex];
 
                 if(css < SNV_96_CSS_THRESHOLD)
                     continue;
@@ -516,25 +548,20 @@ public class SomaticClassifier implements CuppaClassifier
                 sample.Id, SNV, CLASSIFIER, SNV_96_PAIRWISE.toString(), String.format("%.4g", totalCss), cancerCssTotals));
 
         // for non-ref cohorts, also report closest matches from amongst these
-        if(mWriteSnvSims && mConfig.WriteSimilarities && mSampleDataCache.isMultiSampleNonRef())
+        if(mSampleSnv96Similarity != null)
         {
-            for(Map.Entry<String,Integer> entry : mSampleSnv96CountsIndex.entrySet())
-            {
-                final String nonRefSampleId = entry.getKey();
+            final double[] sampleSimilarities = mSampleSnv96Similarity.calcSimilarities(sampleCounts);
+            sampleSimilarities[sampleCountsIndex] = -1; // exclude the sample itself
 
-                if(nonRefSampleId.equals(sample.Id))
+            // only the closest matches can enter the top matches
+            for(int index : SimilarityMatrix.topMatches(sampleSimilarities, CSS_SIMILARITY_MAX_MATCHES, CSS_SIMILARITY_CUTOFF))
+            {
+                if(mSampleSnv96Ids[index] == null)
                     continue;
 
-                final double[] otherSampleCounts = mSampleSnv96Counts.getRow(entry.getValue());
-
-                double css = calcCosineSim(sampleCounts, otherSampleCounts);
-
-                if(mConfig.WriteSimilarities)
-                {
-                    recordCssSimilarity(
-                            topMatches, sample.Id, nonRefSampleId, css, SNV_96_PAIRWISE.toString(),
-                            CSS_SIMILARITY_MAX_MATCHES, CSS_SIMILARITY_CUTOFF);
-                }
+                recordCssSimilarity(
+                        topMatches, sample.Id, mSampleSnv96Ids[index], sampleSimilarities[index], SNV_96_PAIRWISE.toString(),
+                        CSS_SIMILARITY_MAX_MATCHES, CSS_SIMILARITY_CUTOFF);
             }
         }
 
@@ -575,6 +602,8 @@ public class SomaticClassifier implements CuppaClassifier
 
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
 
+        final double[] refCancerSimilarities = mRefCancerGenPosSimilarity.calcSimilarities(sampleCounts);
+
         for(int i = 0; i < refCancerCount; ++i)
         {
             final String refCancerType = mRefGenPosCancerTypes.get(i);
@@ -587,12 +616,19 @@ public class SomaticClassifier implements CuppaClassifier
 
             boolean matchesCancerType = sample.cancerType().equals(refCancerType);
 
-            double adjustMultiplier = snvTotal > GEN_POS_MAX_SAMPLE_COUNT ? GEN_POS_MAX_SAMPLE_COUNT / snvTotal : 1;
+            double css;
 
-            final double[] refPosFreqs = sample.isRefSample() && matchesCancerType ?
-                    adjustRefCounts(mRefCancerGenPosCounts.getRow(i), sampleCounts, adjustMultiplier) : mRefCancerGenPosCounts.getRow(i);
-
-            double css = calcCosineSim(sampleCounts, refPosFreqs);
+            if(sample.isRefSample() && matchesCancerType)
+            {
+                // the sample's own counts are first removed from its cancer type's profile
+                double adjustMultiplier = snvTotal > GEN_POS_MAX_SAMPLE_COUNT ? GEN_POS_MAX_SAMPLE_COUNT / snvTotal : 1;
+                final double[] refPosFreqs = adjustRefCounts(mRefCancerGenPosCounts.getRow(i), sampleCounts, adjustMultiplier);
+                css = calcCosineSim(sampleCounts, refPosFreqs);
+            }
+            else
+            {
+                css = refCancerSimilarities[i];
+            }
 
             maxCssScore = max(css, maxCssScore);
 
@@ -642,6 +678,8 @@ public class SomaticClassifier implements CuppaClassifier
         final List<SampleSimilarity> topMatches = Lists.newArrayList();
         final Map<String,Double> cancerCssTotals = Maps.newHashMap();
 
+        final double[] refSimilarities = mRefGenPosSimilarity.calcSimilarities(sampleCounts);
+
         double maxCssScore = 0;
 
         for(Map.Entry<String,List<SampleData>> refCancerEntry : mSampleDataCache.RefCancerSampleData.entrySet())
@@ -663,9 +701,7 @@ public class SomaticClassifier implements CuppaClassifier
                 if(refSampleIndex == null)
                     continue;
 
-                final double[] otherSampleCounts = mRefSampleGenPosCounts.getRow(refSampleIndex);
-
-                double css = calcCosineSim(sampleCounts, otherSampleCounts);
+                double css = refSimilarities[refSampleIndex];
 
                 if(css < GEN_POS_CSS_THRESHOLD)
                     continue;
@@ -691,7 +727,7 @@ public class SomaticClassifier implements CuppaClassifier
 
                 double cssWeight = pow(mGenPosCssExponent, -100 * (1 - css));
 
-                double otherSnvTotal = sumVector(otherSampleCounts);
+                double otherSnvTotal = sumVector(mRefSampleGenPosCounts.getRow(refSampleIndex));
                 double mutLoadWeight = min(otherSnvTotal, snvTotal) / max(otherSnvTotal, snvTotal);
 
                 int cancerTypeCount = mSampleDataCache.getCancerSampleCount(refCancerType);
@@ -831,6 +867,8 @@ public class SomaticClassifier implements CuppaClassifier
             mSampleGenPosCounts.setRow(i, posFreqCounts.get(i));
             mSampleGenPosCountsIndex.put(sampleIds.get(i), i);
         }
+
+        buildSimilarityMatrices();
     }
 
 }
@@ -20,7 +20,6 @@ public class SomaticSigs
 {
     private final List<String> mSignatureNames;
     private final Matrix mSignatures; // trinucleotide buckerts in rows, signatures in columns
-    private final LeastSquaresFit mLeastSquaresFitter;
 
     public static final String SIG_NAME_2 = "Sig2";
     public static final String SIG_NAME_13 = "Sig13";
@@ -57,8 +56,6 @@ public class SomaticSigs
 
             mSignatures = loadMatrixDataFile(sigDefinitionLines, mSignatureNames, Lists.newArrayList(), false);
         }
-
-        mLeastSquaresFitter = mSignatures != null ? new LeastSquaresFit(mSignatures.Rows, mSignatures.Cols) : null;
     }
 
     public boolean hasValidData() { return mSignatures != null && !mSignatureNames.isEmpty(); }
@@ -83,8 +80,10 @@ public class SomaticSigs
         if(sampleTotal == 0)
             return new double[mSignatureNames.size()];
 
-        mLeastSquaresFitter.initialise(mSignatures.getData(), sampleCounts);
-        mLeastSquaresFitter.solve();
-        return mLeastSquaresFitter.getContribs();
+        // samples are fitted concurrently against the shared signatures, so each thread uses its own fitter
+        LeastSquaresFit leastSquaresFitter = LeastSquaresFit.forThread(mSignatures.Rows, mSignatures.Cols);
+        leastSquaresFitter.initialise(mSignatures.getData(), sampleCounts);
+        leastSquaresFitter.solve();
+        return leastSquaresFitter.getContribs();
     }
 }
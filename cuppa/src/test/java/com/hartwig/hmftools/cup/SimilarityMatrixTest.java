@@ -0,0 +1,58 @@
+package com.hartwig.hmftools.cup;
+
+import static com.hartwig.hmftools.common.stats.CosineSimilarity.calcCosineSim;
+
+import static junit.framework.TestCase.assertEquals;
+
+import com.hartwig.hmftools.common.utils.Matrix;
+import com.hartwig.hmftools.cup.common.SimilarityMatrix;
+
+import org.junit.Test;
+
+public class SimilarityMatrixTest
+{
+    @Test
+    public void testSimilarities()
+    {
+        Matrix refCounts = new Matrix(4, 5);
+        refCounts.setRow(0, new double[] {20, 30, 40, 50, 0});
+        refCounts.setRow(1, new double[] {1, 0, 0, 0, 100});
+        refCounts.setRow(2, new double[] {0, 0, 0, 0, 0});
+        refCounts.setRow(3, new double[] {5, 5, 5, 5, 5});
+
+        SimilarityMatrix similarityMatrix = new SimilarityMatrix(refCounts);
+
+        double[] sample1 = new double[] {2, 3, 4, 5, 0};
+        double[] sample2 = new double[] {10, 1, 3, 0, 7};
+        double[] sample3 = new double[] {0, 0, 0, 0, 0};
+
+        double[] sims = similarityMatrix.calcSimilarities(sample1);
+        assertEquals(1.0, sims[0], 1e-10);
+
+        for(int r = 0; r < refCounts.Rows; ++r)
+        {
+            assertEquals(calcCosineSim(sample1, refCounts.getRow(r)), sims[r], 1e-10);
+        }
+
+        double[][] samples = new double[][] { sample1, sample2, sample3 };
+        double[][] sampleSims = new double[samples.length][];
+
+        for(int s = 0; s < samples.length; ++s)
+        {
+            sampleSims[s] = similarityMatrix.calcSimilarities(samples[s]);
+
+            for(int r = 0; r < refCounts.Rows; ++r)
+            {
+                assertEquals(calcCosineSim(samples[s], refCounts.getRow(r)), sampleSims[s][r], 1e-10);
+            }
+        }
+
+        int[] topIndices = SimilarityMatrix.topMatches(sampleSims[1], 2, 0.1);
+        assertEquals(2, topIndices.length);
+        assertEquals(3, topIndices[0]);
+        assertEquals(1, topIndices[1]);
+
+        topIndices = SimilarityMatrix.topMatches(sampleSims[2], 2, 0.1);
+        assertEquals(0, topIndices.length);
+    }
+}
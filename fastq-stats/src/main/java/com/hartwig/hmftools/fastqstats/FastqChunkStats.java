@@ -0,0 +1,93 @@
+package com.hartwig.hmftools.fastqstats;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Yield and q30 tallies for a chunk of a fastq file, which can be parsed without knowing which line of a record the chunk
+ * starts on. Bases are tallied by their line's offset from the start of the chunk modulo 4, so once the chunks before
+ * it are known the quality lines can be picked out, and consecutive chunks can be appended in order.
+ */
+class FastqChunkStats {
+
+    private static final int LINES_PER_RECORD = 4;
+    private static final int QUALITY_LINE = 3;
+    private static final byte Q30_THRESHOLD = 63;
+
+    private final long[] yields = new long[LINES_PER_RECORD];
+    private final long[] q30s = new long[LINES_PER_RECORD];
+    private long lineBreaks;
+    private boolean isEmpty = true;
+    private boolean startsWithLineFeed;
+    private boolean endsWithCarriageReturn;
+
+    @NotNull
+    static FastqChunkStats parse(@NotNull final byte[] buf, final int offset, final int length) {
+        final FastqChunkStats stats = new FastqChunkStats();
+        if (length <= 0) {
+            return stats;
+        }
+
+        final long[] yields = stats.yields;
+        final long[] q30s = stats.q30s;
+        long lineBreaks = 0;
+        int line = 0;
+        byte lastRead = 0;
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            final byte b = buf[i];
+            if (b == '\n' || b == '\r') {
+                if (!(b == '\n' && lastRead == '\r')) {
+                    lineBreaks++;
+                    line = (line + 1) & (LINES_PER_RECORD - 1);
+                }
+            } else {
+                yields[line]++;
+                if (b >= Q30_THRESHOLD) {
+                    q30s[line]++;
+                }
+            }
+            lastRead = b;
+        }
+
+        stats.lineBreaks = lineBreaks;
+        stats.isEmpty = false;
+        stats.startsWithLineFeed = buf[offset] == '\n';
+        stats.endsWithCarriageReturn = lastRead == '\r';
+        return stats;
+    }
+
+    /**
+     * Appends the tallies of the chunk which immediately follows this one.
+     */
+    void append(@NotNull final FastqChunkStats next) {
+        if (next.isEmpty) {
+            return;
+        }
+
+        long shift = lineBreaks;
+        long nextLineBreaks = next.lineBreaks;
+        if (endsWithCarriageReturn && next.startsWithLineFeed) {
+            // a CRLF split across the chunks, so the next chunk's leading line feed isn't a new line
+            shift--;
+            nextLineBreaks--;
+        }
+
+        for (int line = 0; line < LINES_PER_RECORD; line++) {
+            final int index = (int) ((shift + line) % LINES_PER_RECORD);
+            yields[index] += next.yields[line];
+            q30s[index] += next.q30s[line];
+        }
+
+        if (isEmpty) {
+            startsWithLineFeed = next.startsWithLineFeed;
+            isEmpty = false;
+        }
+        lineBreaks += nextLineBreaks;
+        endsWithCarriageReturn = next.endsWithCarriageReturn;
+    }
+
+    @NotNull
+    FastqData toFastqData() {
+        return new FastqData(yields[QUALITY_LINE], q30s[QUALITY_LINE]);
+    }
+}
@@ -1,14 +1,12 @@
 package com.hartwig.hmftools.fastqstats;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Collection;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.zip.GZIPInputStream;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
@@ -29,7 +27,9 @@ class FastqStats {
     private static final Logger LOGGER = LogManager.getLogger(FastqStats.class);
 
     /**
-     * Counts yield and q30 of fastqs in the fastqsPerSample multimap, using 1 thread per file.
+     * Counts yield and q30 of fastqs in the fastqsPerSample multimap, reading up to threadCount files at once with each file's
+     * chunks parsed (and decompressed, for BGZF files) by a shared pool of threadCount workers. At most 2 * threadCount chunks
+     * are held at once across all files.
      * The yield and q30 of the Undetermined sample will count towards the total yield and q30 of the flowcell.
      *
      * @param fastqsPerSample multimap of sampleName and fastqs to process
@@ -43,18 +43,27 @@ class FastqStats {
         LOGGER.info("Using {} threads. Processing {} fastQ files.", threadCount, fastqsPerSample.size());
         final FastqTrackerWrapper tracker = new FastqTrackerWrapper();
         final ListeningExecutorService threadPool = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(threadCount));
-
-        for (final String sampleName : fastqsPerSample.keySet()) {
-            final Collection<File> fastqs = fastqsPerSample.get(sampleName);
-            for (final File fastq : fastqs) {
-                final String laneName = getLaneName(fastq);
-                final ListenableFuture<FastqData> futureResult = threadPool.submit(() -> processFile(fastq));
-                addCallback(futureResult, (data) -> tracker.addDataFromSampleFile(sampleName, laneName, data),
-                        (error) -> LOGGER.error("Failed to process file: {}", fastq.getName(), error));
+        final ExecutorService chunkWorkers = Executors.newFixedThreadPool(threadCount);
+        // the reader is shared so that the chunks held in memory are bounded across all the files being read
+        final ParallelFastqReader fastqReader = new ParallelFastqReader(chunkWorkers, threadCount);
+
+        try {
+            for (final String sampleName : fastqsPerSample.keySet()) {
+                final Collection<File> fastqs = fastqsPerSample.get(sampleName);
+                for (final File fastq : fastqs) {
+                    final String laneName = getLaneName(fastq);
+                    final ListenableFuture<FastqData> futureResult = threadPool.submit(() -> processFile(fastqReader, fastq));
+                    addCallback(futureResult, (data) -> tracker.addDataFromSampleFile(sampleName, laneName, data),
+                            (error) -> LOGGER.error("Failed to process file: {}", fastq.getName(), error));
+                }
             }
+            threadPool.shutdown();
+            threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            // stops any work left running if submitting or waiting failed, so the pools' threads don't keep the JVM alive
+            threadPool.shutdownNow();
+            chunkWorkers.shutdownNow();
         }
-        threadPool.shutdown();
-        threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
         return tracker.tracker();
     }
 
@@ -122,22 +131,14 @@ class FastqStats {
     }
 
     @NotNull
-    private static FastqData processFile(@NotNull final File file) throws IOException {
-        final int size = 1048576;
-        final InputStream inputStream;
-        if (file.getName().endsWith(".fastq.gz")) {
-            inputStream = new GZIPInputStream(new FileInputStream(new File(file.getCanonicalPath())), size);
-        } else if (file.getName().endsWith(".fastq")) {
-            inputStream = new FileInputStream(new File(file.getCanonicalPath()));
-        } else {
+    private static FastqData processFile(@NotNull final ParallelFastqReader fastqReader, @NotNull final File file) throws IOException {
+        if (!file.getName().endsWith(".fastq.gz") && !file.getName().endsWith(".fastq")) {
             throw new IOException("Unrecognized file format.");
         }
         LOGGER.info("Processing file: {}", file.getName());
-        final FastqReader fastqReader = new FastqReader(inputStream, size);
         final long startTime = System.currentTimeMillis();
-        final FastqData data = fastqReader.read();
+        final FastqData data = fastqReader.read(new File(file.getCanonicalPath()));
         final long endTime = System.currentTimeMillis();
-        fastqReader.close();
 
         LOGGER.info("Finished processing file: {} in {}ms.", file.getName(), endTime - startTime);
         return data;
@@ -54,7 +54,7 @@ public final class FastqStatsRunner {
             formatter.printHelp("Fastq-Stats", options);
         } else if (filePath != null) {
             final Multimap<String, File> fastqsPerSample = getSingleFastq(filePath);
-            final FastqTracker tracker = FastqStats.processFastqs(fastqsPerSample, 1);
+            final FastqTracker tracker = FastqStats.processFastqs(fastqsPerSample, getThreadCount(threadCountArg));
             writeOutputToCSV("", tracker, csvOutPath);
         } else if (flowcellDirPath != null) {
             final int threadCount = getThreadCount(threadCountArg);
@@ -82,7 +82,7 @@ public final class FastqStatsRunner {
         options.addOption(FASTQ_FILE, true, "Path towards the original fastq file.");
         options.addOption(FLOWCELL_ROOT_DIR, true, "Path towards the flowcell dir.");
         options.addOption(CSV_OUT_DIR, true, "Path towards the csv output file.");
-        options.addOption(THREAD_COUNT, true, "Number of max threads to use (only used when running on a directory).");
+        options.addOption(THREAD_COUNT, true, "Number of max threads to use.");
         options.addOption(FASTQ_DIR, true, "Path towards the fastq dir.");
         return options;
     }
@@ -0,0 +1,316 @@
+package com.hartwig.hmftools.fastqstats;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import com.google.common.collect.Lists;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads a fastq file on the calling thread and hands chunks of it to a pool of workers to parse, merging their tallies in
+ * file order. BGZF files are split on their block boundaries and the workers also decompress the blocks, while other gzip
+ * files are decompressed on the calling thread since a plain deflate stream can't be split.
+ * One reader can be shared by threads reading different files, and bounds the chunks held across all of them.
+ */
+class ParallelFastqReader {
+
+    static final int DEFAULT_CHUNK_SIZE = 4 * 1048576;
+
+    private static final int GZIP_ID1 = 31;
+    private static final int GZIP_ID2 = 139;
+    private static final int GZIP_FLAG_EXTRA = 4;
+    private static final int GZIP_HEADER_SIZE = 12; // up to and including the extra field's length
+    private static final int GZIP_FOOTER_SIZE = 8;
+    private static final int BGZF_HEADER_SIZE = 18;
+
+    @NotNull
+    private final ExecutorService workers;
+    private final int chunkSize;
+    @NotNull
+    private final Semaphore chunkPermits;
+
+    ParallelFastqReader(@NotNull final ExecutorService workers, final int workerCount) {
+        this(workers, workerCount, DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelFastqReader(@NotNull final ExecutorService workers, final int workerCount, final int chunkSize) {
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        // enough to keep the workers busy while bounding the memory held in chunks, however many files are read at once
+        this.chunkPermits = new Semaphore(Math.max(workerCount, 1) * 2);
+    }
+
+    @NotNull
+    FastqData read(@NotNull final File file) throws IOException {
+        try (final BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file), chunkSize)) {
+            if (!file.getName().endsWith(".gz")) {
+                return readChunks(inputStream);
+            } else if (isBgzf(inputStream)) {
+                return readBgzfBlocks(inputStream);
+            } else {
+                return readChunks(new GZIPInputStream(inputStream, chunkSize));
+            }
+        }
+    }
+
+    @NotNull
+    private FastqData readChunks(@NotNull final InputStream inputStream) throws IOException {
+        final ChunkMerger merger = new ChunkMerger();
+        while (true) {
+            acquireChunk();
+            boolean submitted = false;
+            try {
+                final byte[] chunk = new byte[chunkSize];
+                final int length = readFully(inputStream, chunk, 0, chunkSize);
+                if (length <= 0) {
+                    break;
+                }
+                final Future<FastqChunkStats> future = submitChunk(() -> FastqChunkStats.parse(chunk, 0, length));
+                submitted = true;
+                merger.add(future);
+                if (length < chunkSize) {
+                    break;
+                }
+            } finally {
+                if (!submitted) {
+                    chunkPermits.release();
+                }
+            }
+        }
+        return merger.finish();
+    }
+
+    @NotNull
+    private FastqData readBgzfBlocks(@NotNull final InputStream inputStream) throws IOException {
+        final ChunkMerger merger = new ChunkMerger();
+        while (true) {
+            acquireChunk();
+            boolean submitted = false;
+            try {
+                final List<byte[]> blocks = Lists.newArrayList();
+                long uncompressedSize = 0;
+                byte[] block;
+                while (uncompressedSize < chunkSize && (block = readBgzfBlock(inputStream)) != null) {
+                    blocks.add(block);
+                    uncompressedSize += blockUncompressedSize(block);
+                }
+                if (blocks.isEmpty()) {
+                    break;
+                }
+                final Future<FastqChunkStats> future = submitChunk(() -> parseBgzfBlocks(blocks));
+                submitted = true;
+                merger.add(future);
+                if (uncompressedSize < chunkSize) {
+                    break;
+                }
+            } finally {
+                if (!submitted) {
+                    chunkPermits.release();
+                }
+            }
+        }
+        return merger.finish();
+    }
+
+    /**
+     * Waits until fewer chunks than the limit are being read, queued or parsed, across all files.
+     */
+    private void acquireChunk() throws IOException {
+        try {
+            chunkPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to read a fastq chunk");
+        }
+    }
+
+    /**
+     * Parses a chunk on the workers, freeing its place once parsed rather than once merged so that a thread waiting for a
+     * place never holds up the chunks which would free one.
+     */
+    @NotNull
+    private Future<FastqChunkStats> submitChunk(@NotNull final Callable<FastqChunkStats> parser) {
+        return workers.submit(() -> {
+            try {
+                return parser.call();
+            } finally {
+                chunkPermits.release();
+            }
+        });
+    }
+
+    private static boolean isBgzf(@NotNull final InputStream inputStream) throws IOException {
+        final byte[] header = new byte[BGZF_HEADER_SIZE];
+        inputStream.mark(BGZF_HEADER_SIZE);
+        final int length = readFully(inputStream, header, 0, BGZF_HEADER_SIZE);
+        inputStream.reset();
+        return length == BGZF_HEADER_SIZE && isGzipBlockHeader(header) && unsignedShort(header, 10) >= 6 && header[12] == 'B'
+                && header[13] == 'C';
+    }
+
+    private static boolean isGzipBlockHeader(@NotNull final byte[] header) {
+        return (header[0] & 0xFF) == GZIP_ID1 && (header[1] & 0xFF) == GZIP_ID2 && (header[3] & GZIP_FLAG_EXTRA) != 0;
+    }
+
+    /**
+     * Reads a whole BGZF block, or returns null at the end of the file.
+     */
+    private static byte[] readBgzfBlock(@NotNull final InputStream inputStream) throws IOException {
+        final byte[] header = new byte[GZIP_HEADER_SIZE];
+        final int headerLength = readFully(inputStream, header, 0, GZIP_HEADER_SIZE);
+        if (headerLength == 0) {
+            return null;
+        } else if (headerLength < GZIP_HEADER_SIZE || !isGzipBlockHeader(header)) {
+            throw new ZipException("Invalid BGZF block header");
+        }
+
+        final int extraLength = unsignedShort(header, 10);
+        final byte[] extra = new byte[extraLength];
+        readExactly(inputStream, extra, 0, extraLength);
+
+        int blockSize = -1;
+        for (int i = 0; i + 4 <= extraLength; i += 4 + unsignedShort(extra, i + 2)) {
+            if (extra[i] == 'B' && extra[i + 1] == 'C' && unsignedShort(extra, i + 2) == 2 && i + 6 <= extraLength) {
+                blockSize = unsignedShort(extra, i + 4) + 1;
+                break;
+            }
+        }
+        if (blockSize < GZIP_HEADER_SIZE + extraLength + GZIP_FOOTER_SIZE) {
+            throw new ZipException("Invalid BGZF block size");
+        }
+
+        final byte[] block = new byte[blockSize];
+        System.arraycopy(header, 0, block, 0, GZIP_HEADER_SIZE);
+        System.arraycopy(extra, 0, block, GZIP_HEADER_SIZE, extraLength);
+        readExactly(inputStream, block, GZIP_HEADER_SIZE + extraLength, blockSize - GZIP_HEADER_SIZE - extraLength);
+        return block;
+    }
+
+    private static int blockUncompressedSize(@NotNull final byte[] block) {
+        return (int) unsignedInt(block, block.length - 4);
+    }
+
+    @NotNull
+    private static FastqChunkStats parseBgzfBlocks(@NotNull final List<byte[]> blocks) throws IOException {
+        final FastqChunkStats stats = new FastqChunkStats();
+        final Inflater inflater = new Inflater(true);
+        final CRC32 crc = new CRC32();
+        try {
+            for (final byte[] block : blocks) {
+                final int dataStart = GZIP_HEADER_SIZE + unsignedShort(block, 10);
+                final int dataLength = block.length - dataStart - GZIP_FOOTER_SIZE;
+                final int uncompressedSize = blockUncompressedSize(block);
+                final byte[] data = new byte[uncompressedSize];
+
+                inflater.reset();
+                inflater.setInput(block, dataStart, dataLength);
+                int inflated = 0;
+                while (inflated < uncompressedSize && !inflater.finished()) {
+                    final int count = inflater.inflate(data, inflated, uncompressedSize - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+
+                crc.reset();
+                crc.update(data, 0, inflated);
+                if (inflated != uncompressedSize || crc.getValue() != unsignedInt(block, block.length - GZIP_FOOTER_SIZE)) {
+                    throw new ZipException("Corrupt BGZF block");
+                }
+                stats.append(FastqChunkStats.parse(data, 0, inflated));
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt BGZF block: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return stats;
+    }
+
+    private static int readFully(@NotNull final InputStream inputStream, @NotNull final byte[] buf, final int offset, final int length)
+            throws IOException {
+        int total = 0;
+        while (total < length) {
+            final int read = inputStream.read(buf, offset + total, length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void readExactly(@NotNull final InputStream inputStream, @NotNull final byte[] buf, final int offset,
+            final int length) throws IOException {
+        if (readFully(inputStream, buf, offset, length) < length) {
+            throw new EOFException("Truncated BGZF block");
+        }
+    }
+
+    private static int unsignedShort(@NotNull final byte[] buf, final int offset) {
+        return (buf[offset] & 0xFF) | ((buf[offset + 1] & 0xFF) << 8);
+    }
+
+    private static long unsignedInt(@NotNull final byte[] buf, final int offset) {
+        return ((long) unsignedShort(buf, offset + 2) << 16) | unsignedShort(buf, offset);
+    }
+
+    /**
+     * Appends the workers' chunk tallies in submission order, merging those at the front as they complete.
+     * Chunks left pending after a failure are not cancelled, so they still run and free their places.
+     */
+    private class ChunkMerger {
+
+        private final Deque<Future<FastqChunkStats>> pending = new ArrayDeque<>();
+        private final FastqChunkStats stats = new FastqChunkStats();
+
+        void add(@NotNull final Future<FastqChunkStats> chunk) throws IOException {
+            pending.addLast(chunk);
+            while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+                mergeOldest();
+            }
+        }
+
+        @NotNull
+        FastqData finish() throws IOException {
+            while (!pending.isEmpty()) {
+                mergeOldest();
+            }
+            return stats.toFastqData();
+        }
+
+        private void mergeOldest() throws IOException {
+            try {
+                stats.append(pending.removeFirst().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while parsing fastq chunks");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Failed to parse fastq chunk", e.getCause());
+            }
+        }
+    }
+}
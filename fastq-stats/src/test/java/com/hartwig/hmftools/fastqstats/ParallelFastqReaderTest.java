@@ -0,0 +1,160 @@
+package com.hartwig.hmftools.fastqstats;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelFastqReaderTest {
+
+    private static final String BASE_PATH = Resources.getResource("fastq").getPath();
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(3);
+
+    @After
+    public void tearDown() {
+        workers.shutdown();
+    }
+
+    @Test
+    public void mergesChunksSplitAtAnyPosition() throws IOException {
+        final byte[] fastq = Files.readAllBytes(new File(BASE_PATH + File.separator + "q30-10.fastq").toPath());
+        final byte[] crlfFastq = new String(fastq, StandardCharsets.US_ASCII).replace("\n", "\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        for (final byte[] data : new byte[][] { fastq, crlfFastq }) {
+            for (int split = 0; split <= data.length; split += 7) {
+                final FastqChunkStats stats = FastqChunkStats.parse(data, 0, split);
+                stats.append(FastqChunkStats.parse(data, split, data.length - split));
+                final FastqData fastqData = stats.toFastqData();
+                assertEquals(100, fastqData.yield());
+                assertEquals(10, fastqData.q30());
+            }
+        }
+    }
+
+    @Test
+    public void readsPlainFileInChunks() throws IOException {
+        final FastqData data = new ParallelFastqReader(workers, 3, 100).read(new File(BASE_PATH + File.separator + "q30-10.fastq"));
+        assertEquals(100, data.yield());
+        assertEquals(10, data.q30());
+    }
+
+    @Test
+    public void readsGzipFileInChunks() throws IOException {
+        final File file = new File(BASE_PATH + File.separator + "q30-10_Flowcell_S1_L001_R1_001.fastq.gz");
+        final FastqData data = new ParallelFastqReader(workers, 3, 100).read(file);
+        assertEquals(100, data.yield());
+        assertEquals(10, data.q30());
+    }
+
+    @Test
+    public void readsBgzfFileInBlocks() throws IOException {
+        final byte[] fastq = Files.readAllBytes(new File(BASE_PATH + File.separator + "q30-10.fastq").toPath());
+        final File file = File.createTempFile("q30-10", ".fastq.gz");
+        file.deleteOnExit();
+        writeBgzf(fastq, 64, file);
+
+        for (final int chunkSize : new int[] { 1, 100, ParallelFastqReader.DEFAULT_CHUNK_SIZE }) {
+            final FastqData data = new ParallelFastqReader(workers, 3, chunkSize).read(file);
+            assertEquals(100, data.yield());
+            assertEquals(10, data.q30());
+        }
+    }
+
+    @Test
+    public void boundsChunksAcrossFilesReadAtOnce() throws Exception {
+        final File file = new File(BASE_PATH + File.separator + "q30-10.fastq");
+        final ThreadPoolExecutor worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        final ParallelFastqReader reader = new ParallelFastqReader(worker, 1, 10);
+
+        // with the only worker held up, the readers of 3 files can queue no more than 2 chunks between them
+        final CountDownLatch release = new CountDownLatch(1);
+        worker.submit(() -> {
+            release.await();
+            return null;
+        });
+
+        final ExecutorService fileThreads = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<FastqData>> results = Lists.newArrayList();
+            for (int i = 0; i < 3; i++) {
+                results.add(fileThreads.submit(() -> reader.read(file)));
+            }
+
+            final long waitEnd = System.currentTimeMillis() + 5000;
+            while (worker.getQueue().size() < 2 && System.currentTimeMillis() < waitEnd) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            assertEquals(2, worker.getQueue().size());
+
+            release.countDown();
+            for (final Future<FastqData> result : results) {
+                assertEquals(100, result.get(30, TimeUnit.SECONDS).yield());
+            }
+        } finally {
+            fileThreads.shutdownNow();
+            worker.shutdownNow();
+        }
+    }
+
+    private static void writeBgzf(@NotNull final byte[] data, final int blockSize, @NotNull final File file) throws IOException {
+        try (final FileOutputStream outputStream = new FileOutputStream(file)) {
+            for (int offset = 0; ; offset = Math.min(offset + blockSize, data.length)) {
+                // finishes with an empty block as the end-of-file marker
+                final int length = Math.min(blockSize, data.length - offset);
+                final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                deflater.setInput(data, offset, length);
+                deflater.finish();
+                final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                final byte[] buf = new byte[1024];
+                while (!deflater.finished()) {
+                    compressed.write(buf, 0, deflater.deflate(buf));
+                }
+                deflater.end();
+
+                final CRC32 crc = new CRC32();
+                crc.update(data, offset, length);
+                final int totalSize = 18 + compressed.size() + 8;
+
+                outputStream.write(new byte[] { 31, (byte) 139, 8, 4, 0, 0, 0, 0, 0, (byte) 255, 6, 0, 'B', 'C', 2, 0 });
+                writeLittleEndian(outputStream, totalSize - 1, 2);
+                compressed.writeTo(outputStream);
+                writeLittleEndian(outputStream, crc.getValue(), 4);
+                writeLittleEndian(outputStream, length, 4);
+
+                if (length == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void writeLittleEndian(@NotNull final FileOutputStream outputStream, final long value, final int bytes)
+            throws IOException {
+        for (int i = 0; i < bytes; i++) {
+            outputStream.write((int) (value >> (8 * i)) & 0xFF);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.common.doid;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.immutables.value.Value;
@@ -9,7 +10,7 @@ import org.jetbrains.annotations.Nullable;
 @Value.Immutable
 @Value.Style(allParameters = true,
              passAnnotations = { NotNull.class, Nullable.class })
-public abstract class DoidGraphMetaData {
+public abstract class DoidGraphMetaData implements Serializable {
 
     @Nullable
     public abstract List<String> subsets();
@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.common.doid;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -11,7 +12,7 @@ import org.jetbrains.annotations.Nullable;
 @Value.Immutable
 @Value.Style(allParameters = true,
              passAnnotations = { NotNull.class, Nullable.class })
-public abstract class DoidMetadata {
+public abstract class DoidMetadata implements Serializable {
 
     private static final Logger LOGGER = LogManager.getLogger(DoidMetadata.class);
 
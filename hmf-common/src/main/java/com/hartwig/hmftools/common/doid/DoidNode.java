@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.common.doid;
 
+import java.io.Serializable;
+
 import org.immutables.value.Value;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -7,7 +9,7 @@ import org.jetbrains.annotations.Nullable;
 @Value.Immutable
 @Value.Style(allParameters = true,
              passAnnotations = { NotNull.class, Nullable.class })
-public abstract class DoidNode {
+public abstract class DoidNode implements Serializable {
 
     @NotNull
     public abstract String doid();
@@ -0,0 +1,310 @@
+package com.hartwig.hmftools.common.genome.gc;
+
+import static com.hartwig.hmftools.common.genome.gc.GCProfile.MIN_MAPPABLE_PERCENTAGE;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.utils.Doubles;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// the GC profile held as per-chromosome arrays of GC content, non-N and mappable percentages indexed by window, in place of a
+// GCProfile object per window, so a window is found by its position alone
+// loaded from the text profile, or from a binary copy alongside it (<profile>.bin) when one exists, which skips parsing entirely
+public class GCProfileStore
+{
+    public final int WindowSize;
+
+    private final Map<String,ChromosomeGCProfile> mChromosomeProfiles;
+
+    public static final String BINARY_FILE_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x48474350; // HGCP
+    private static final int VERSION = 1;
+
+    private static final String DELIMITER = "\t";
+    private static final int CHROMOSOME_COLUMN = 0;
+    private static final int START_FIELD_COLUMN = 1;
+    private static final int GC_CONTENT_COLUMN = 2;
+    private static final int NON_N_PERCENTAGE_COLUMN = 3;
+    private static final int MAPPABLE_PERCENTAGE_COLUMN = 4;
+
+    private static final Logger LOGGER = LogManager.getLogger(GCProfileStore.class);
+
+    public static class ChromosomeGCProfile
+    {
+        public final int WindowSize;
+
+        // windows absent from the profile have NaN values
+        private double[] mGcContent;
+        private double[] mNonNPercentage;
+        private double[] mMappablePercentage;
+        private int mWindowCount;
+
+        public ChromosomeGCProfile(int windowSize, int capacity)
+        {
+            WindowSize = windowSize;
+            mGcContent = emptyValues(capacity);
+            mNonNPercentage = emptyValues(capacity);
+            mMappablePercentage = emptyValues(capacity);
+            mWindowCount = 0;
+        }
+
+        private ChromosomeGCProfile(int windowSize, final double[] gcContent, final double[] nonNPercentage, final double[] mappablePercentage)
+        {
+            WindowSize = windowSize;
+            mGcContent = gcContent;
+            mNonNPercentage = nonNPercentage;
+            mMappablePercentage = mappablePercentage;
+            mWindowCount = gcContent.length;
+        }
+
+        private static double[] emptyValues(int size)
+        {
+            double[] values = new double[size];
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+
+        public int windowCount() { return mWindowCount; }
+
+        // positions are 1-based, with window N covering positions N * window size + 1 to (N + 1) * window size
+        public int windowIndex(int position) { return (position - 1) / WindowSize; }
+        public int windowStart(int windowIndex) { return windowIndex * WindowSize + 1; }
+        public int windowEnd(int windowIndex) { return (windowIndex + 1) * WindowSize; }
+
+        public boolean hasWindow(int windowIndex)
+        {
+            return windowIndex >= 0 && windowIndex < mWindowCount && !Double.isNaN(mGcContent[windowIndex]);
+        }
+
+        public double gcContent(int windowIndex) { return mGcContent[windowIndex]; }
+        public double nonNPercentage(int windowIndex) { return mNonNPercentage[windowIndex]; }
+        public double mappablePercentage(int windowIndex) { return mMappablePercentage[windowIndex]; }
+
+        public boolean isMappable(int windowIndex)
+        {
+            return Doubles.greaterOrEqual(mMappablePercentage[windowIndex], MIN_MAPPABLE_PERCENTAGE);
+        }
+
+        public void setWindow(int windowIndex, double gcContent, double nonNPercentage, double mappablePercentage)
+        {
+            if(windowIndex >= mGcContent.length)
+            {
+                int newCapacity = Math.max(windowIndex + 1, mGcContent.length * 2);
+                mGcContent = extend(mGcContent, newCapacity);
+                mNonNPercentage = extend(mNonNPercentage, newCapacity);
+                mMappablePercentage = extend(mMappablePercentage, newCapacity);
+            }
+
+            mGcContent[windowIndex] = gcContent;
+            mNonNPercentage[windowIndex] = nonNPercentage;
+            mMappablePercentage[windowIndex] = mappablePercentage;
+            mWindowCount = Math.max(mWindowCount, windowIndex + 1);
+        }
+
+        private static double[] extend(final double[] values, int newCapacity)
+        {
+            double[] newValues = Arrays.copyOf(values, newCapacity);
+            Arrays.fill(newValues, values.length, newCapacity, Double.NaN);
+            return newValues;
+        }
+    }
+
+    public GCProfileStore(int windowSize)
+    {
+        WindowSize = windowSize;
+        mChromosomeProfiles = Maps.newLinkedHashMap();
+    }
+
+    public Set<String> chromosomes() { return mChromosomeProfiles.keySet(); }
+
+    public ChromosomeGCProfile chromosome(final String chromosome) { return mChromosomeProfiles.get(chromosome); }
+
+    public ChromosomeGCProfile getOrCreateChromosome(final String chromosome)
+    {
+        return mChromosomeProfiles.computeIfAbsent(chromosome, x -> new ChromosomeGCProfile(WindowSize, 0));
+    }
+
+    public int windowCount()
+    {
+        // the number of windows present in the profile
+        int count = 0;
+
+        for(ChromosomeGCProfile chrProfile : mChromosomeProfiles.values())
+        {
+            for(int i = 0; i < chrProfile.windowCount(); ++i)
+            {
+                if(chrProfile.hasWindow(i))
+                    ++count;
+            }
+        }
+
+        return count;
+    }
+
+    public static GCProfileStore load(int windowSize, final String filename) throws IOException
+    {
+        File binaryFile = new File(filename + BINARY_FILE_EXTENSION);
+
+        if(binaryFile.exists() && binaryFile.lastModified() >= new File(filename).lastModified())
+        {
+            GCProfileStore store = loadBinary(binaryFile.getPath());
+
+            if(store.WindowSize == windowSize)
+                return store;
+
+            LOGGER.warn("GC profile binary file({}) window size({}) differs from required({}), reading text file",
+                    binaryFile.getPath(), store.WindowSize, windowSize);
+        }
+
+        return loadText(windowSize, filename);
+    }
+
+    public static GCProfileStore loadText(int windowSize, final String filename) throws IOException
+    {
+        GCProfileStore store = new GCProfileStore(windowSize);
+
+        ChromosomeGCProfile chrProfile = null;
+        String currentChromosome = "";
+
+        try(BufferedReader fileReader = new BufferedReader(new FileReader(filename), 1 << 16))
+        {
+            String line;
+
+            while((line = fileReader.readLine()) != null)
+            {
+                final String[] values = line.split(DELIMITER);
+
+                final String chromosome = values[CHROMOSOME_COLUMN].trim();
+
+                if(!chromosome.equals(currentChromosome))
+                {
+                    currentChromosome = chromosome;
+
+                    chrProfile = HumanChromosome.contains(chromosome) ? store.getOrCreateChromosome(chromosome) : null;
+                }
+
+                if(chrProfile == null)
+                    continue;
+
+                // the profile's positions are the zero-based start of each window
+                final int position = Integer.parseInt(values[START_FIELD_COLUMN].trim());
+
+                if((position % windowSize) != 0)
+                    throw new IOException(String.format("GC profile position(%s:%d) not aligned to window size(%d)", chromosome, position, windowSize));
+
+                chrProfile.setWindow(
+                        position / windowSize,
+                        Double.parseDouble(values[GC_CONTENT_COLUMN].trim()),
+                        Double.parseDouble(values[NON_N_PERCENTAGE_COLUMN].trim()),
+                        Double.parseDouble(values[MAPPABLE_PERCENTAGE_COLUMN].trim()));
+            }
+        }
+
+        return store;
+    }
+
+    public static GCProfileStore loadBinary(final String filename) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(new File(filename).toPath()));
+
+        if(buffer.getInt() != MAGIC)
+            throw new IOException(String.format("file(%s) is not a binary GC profile", filename));
+
+        int version = buffer.getInt();
+
+        if(version != VERSION)
+            throw new IOException(String.format("binary GC profile(%s) has unsupported version(%d)", filename, version));
+
+        int windowSize = buffer.getInt();
+        int chromosomeCount = buffer.getInt();
+
+        GCProfileStore store = new GCProfileStore(windowSize);
+
+        for(int c = 0; c < chromosomeCount; ++c)
+        {
+            byte[] nameBytes = new byte[buffer.getShort()];
+            buffer.get(nameBytes);
+            String chromosome = new String(nameBytes);
+
+            int windowCount = buffer.getInt();
+
+            double[] gcContent = new double[windowCount];
+            double[] nonNPercentage = new double[windowCount];
+            double[] mappablePercentage = new double[windowCount];
+
+            for(double[] values : new double[][] { gcContent, nonNPercentage, mappablePercentage })
+            {
+                buffer.asDoubleBuffer().get(values);
+                buffer.position(buffer.position() + windowCount * Double.BYTES);
+            }
+
+            store.mChromosomeProfiles.put(chromosome, new ChromosomeGCProfile(windowSize, gcContent, nonNPercentage, mappablePercentage));
+        }
+
+        return store;
+    }
+
+    public void writeBinary(final String filename) throws IOException
+    {
+        try(DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 20)))
+        {
+            writer.writeInt(MAGIC);
+            writer.writeInt(VERSION);
+            writer.writeInt(WindowSize);
+            writer.writeInt(mChromosomeProfiles.size());
+
+            for(Map.Entry<String,ChromosomeGCProfile> entry : mChromosomeProfiles.entrySet())
+            {
+                byte[] nameBytes = entry.getKey().getBytes();
+                writer.writeShort(nameBytes.length);
+                writer.write(nameBytes);
+
+                ChromosomeGCProfile chrProfile = entry.getValue();
+                int windowCount = chrProfile.windowCount();
+                writer.writeInt(windowCount);
+
+                for(double[] values : new double[][] { chrProfile.mGcContent, chrProfile.mNonNPercentage, chrProfile.mMappablePercentage })
+                {
+                    for(int i = 0; i < windowCount; ++i)
+                    {
+                        writer.writeDouble(values[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws IOException
+    {
+        // writes the binary copy of a GC profile alongside it
+        if(args.length != 2)
+        {
+            LOGGER.error("usage: GCProfileStore <window size> <GC profile file>");
+            System.exit(1);
+        }
+
+        int windowSize = Integer.parseInt(args[0]);
+        String filename = args[1];
+
+        GCProfileStore store = loadText(windowSize, filename);
+        store.writeBinary(filename + BINARY_FILE_EXTENSION);
+
+        LOGGER.info("wrote {} GC profile windows to {}", store.windowCount(), filename + BINARY_FILE_EXTENSION);
+    }
+}
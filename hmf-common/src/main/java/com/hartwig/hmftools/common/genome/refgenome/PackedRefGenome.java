@@ -0,0 +1,525 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.REF_GENOME;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import htsjdk.samtools.reference.FastaSequenceIndexEntry;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+import htsjdk.samtools.reference.ReferenceSequence;
+
+// a ref genome held in the UCSC 2bit format - 2 bits per base plus runs of Ns and soft-masked (lower-case) bases - and memory-mapped,
+// so a single instance can be shared by all threads and every process on a machine shares the same pages
+// converted once from an indexed fasta, with any IUPAC ambiguity codes other than N stored as N, as per UCSC's faToTwoBit
+public class PackedRefGenome implements RefGenomeInterface
+{
+    private final String mFilename;
+    private final Map<String,PackedSequence> mSequences;
+
+    public static final String PACKED_REF_GENOME_EXTENSION = ".2bit";
+
+    private static final int SIGNATURE = 0x1A412743;
+    private static final int VERSION_32BIT_OFFSETS = 0;
+    private static final int VERSION_64BIT_OFFSETS = 1;
+    private static final long MAX_32BIT_OFFSET = 0xFFFFFFFFL;
+
+    // packed base codes, with the first base of each byte in its two highest bits
+    private static final byte[] CODE_BASES = { 'T', 'C', 'A', 'G' };
+    private static final byte[] PACKED_BYTE_BASES = new byte[256 * 4];
+
+    private static final byte LOWER_CASE_BIT = 0x20;
+
+    private static final Map<String,PackedRefGenome> LOADED_GENOMES = new ConcurrentHashMap<>();
+
+    private static final Logger LOGGER = LogManager.getLogger(PackedRefGenome.class);
+
+    static
+    {
+        for(int b = 0; b < 256; ++b)
+        {
+            for(int i = 0; i < 4; ++i)
+            {
+                PACKED_BYTE_BASES[b * 4 + i] = CODE_BASES[(b >> (6 - 2 * i)) & 3];
+            }
+        }
+    }
+
+    private static class PackedSequence
+    {
+        public final String Name;
+        public final int Length;
+        public final int[] NBlockStarts; // zero-based
+        public final int[] NBlockSizes;
+        public final int[] MaskBlockStarts;
+        public final int[] MaskBlockSizes;
+
+        // only read with absolute gets, which leave the buffer's state untouched and so are safe across threads
+        public final MappedByteBuffer PackedBases;
+
+        public PackedSequence(
+                final String name, int length, final int[] nBlockStarts, final int[] nBlockSizes, final int[] maskBlockStarts,
+                final int[] maskBlockSizes, final MappedByteBuffer packedBases)
+        {
+            Name = name;
+            Length = length;
+            NBlockStarts = nBlockStarts;
+            NBlockSizes = nBlockSizes;
+            MaskBlockStarts = maskBlockStarts;
+            MaskBlockSizes = maskBlockSizes;
+            PackedBases = packedBases;
+        }
+    }
+
+    private PackedRefGenome(final String filename, final Map<String,PackedSequence> sequences)
+    {
+        mFilename = filename;
+        mSequences = sequences;
+    }
+
+    public static boolean isPackedRefGenome(final String filename)
+    {
+        return filename != null && filename.endsWith(PACKED_REF_GENOME_EXTENSION);
+    }
+
+    public String filename() { return mFilename; }
+
+    public boolean hasChromosome(final String chromosome) { return mSequences.containsKey(chromosome); }
+
+    private PackedSequence getSequence(final String chromosome)
+    {
+        PackedSequence sequence = mSequences.get(chromosome);
+
+        if(sequence == null)
+            throw new IllegalArgumentException(String.format("chromosome(%s) not in ref genome(%s)", chromosome, mFilename));
+
+        return sequence;
+    }
+
+    @Override
+    public int getChromosomeLength(final String chromosome)
+    {
+        return getSequence(chromosome).Length;
+    }
+
+    @Override
+    public byte[] getBases(final String chromosome, int posStart, int posEnd)
+    {
+        byte[] bases = new byte[Math.max(posEnd - posStart + 1, 0)];
+        getBases(chromosome, posStart, posEnd, bases, 0);
+        return bases;
+    }
+
+    @Override
+    public String getBaseString(final String chromosome, int posStart, int posEnd)
+    {
+        return new String(getBases(chromosome, posStart, posEnd), StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String getBaseString(final String chromosome, final List<int[]> baseRanges)
+    {
+        int totalLength = baseRanges.stream().mapToInt(x -> Math.max(x[1] - x[0] + 1, 0)).sum();
+        byte[] bases = new byte[totalLength];
+
+        int offset = 0;
+
+        for(int[] baseRange : baseRanges)
+        {
+            offset += getBases(chromosome, baseRange[0], baseRange[1], bases, offset);
+        }
+
+        return new String(bases, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int getBases(final String chromosome, int posStart, int posEnd, final byte[] dest, int destOffset)
+    {
+        // positions are 1-based and inclusive, and the bases are returned in the case they had in the fasta
+        PackedSequence sequence = getSequence(chromosome);
+
+        if(posStart < 1 || posEnd > sequence.Length || posEnd < posStart - 1)
+        {
+            throw new IllegalArgumentException(String.format("invalid range %s:%d-%d for chromosome length(%d)",
+                    chromosome, posStart, posEnd, sequence.Length));
+        }
+
+        int start = posStart - 1;
+        int end = posEnd; // exclusive
+        int count = end - start;
+
+        final MappedByteBuffer packedBases = sequence.PackedBases;
+
+        for(int i = 0; i < count; ++i)
+        {
+            int position = start + i;
+            int packedByte = packedBases.get(position >>> 2) & 0xFF;
+            dest[destOffset + i] = PACKED_BYTE_BASES[(packedByte << 2) + (position & 3)];
+        }
+
+        int nBlockIndex = firstOverlappingBlock(sequence.NBlockStarts, sequence.NBlockSizes, start);
+
+        for(; nBlockIndex < sequence.NBlockStarts.length && sequence.NBlockStarts[nBlockIndex] < end; ++nBlockIndex)
+        {
+            int blockStart = Math.max(sequence.NBlockStarts[nBlockIndex], start);
+            int blockEnd = Math.min(sequence.NBlockStarts[nBlockIndex] + sequence.NBlockSizes[nBlockIndex], end);
+            Arrays.fill(dest, destOffset + blockStart - start, destOffset + blockEnd - start, (byte)'N');
+        }
+
+        int maskBlockIndex = firstOverlappingBlock(sequence.MaskBlockStarts, sequence.MaskBlockSizes, start);
+
+        for(; maskBlockIndex < sequence.MaskBlockStarts.length && sequence.MaskBlockStarts[maskBlockIndex] < end; ++maskBlockIndex)
+        {
+            int blockStart = Math.max(sequence.MaskBlockStarts[maskBlockIndex], start);
+            int blockEnd = Math.min(sequence.MaskBlockStarts[maskBlockIndex] + sequence.MaskBlockSizes[maskBlockIndex], end);
+
+            for(int i = blockStart - start; i < blockEnd - start; ++i)
+            {
+                dest[destOffset + i] |= LOWER_CASE_BIT;
+            }
+        }
+
+        return count;
+    }
+
+    private static int firstOverlappingBlock(final int[] blockStarts, final int[] blockSizes, int position)
+    {
+        // blocks are sorted and don't overlap, so only the last block starting at or before the position can cover it
+        int index = Arrays.binarySearch(blockStarts, position);
+
+        if(index >= 0)
+            return index;
+
+        int insertIndex = -(index + 1);
+
+        if(insertIndex > 0 && blockStarts[insertIndex - 1] + blockSizes[insertIndex - 1] > position)
+            return insertIndex - 1;
+
+        return insertIndex;
+    }
+
+    public static PackedRefGenome loadRefGenome(final String filename)
+    {
+        // each file is only mapped once per process
+        return LOADED_GENOMES.computeIfAbsent(new File(filename).getAbsolutePath(), x -> load(filename));
+    }
+
+    private static PackedRefGenome load(final String filename)
+    {
+        try(RandomAccessFile file = new RandomAccessFile(filename, "r"); FileChannel channel = file.getChannel())
+        {
+            ByteBuffer header = readBuffer(channel, 0, 16, ByteOrder.BIG_ENDIAN);
+            int signature = header.getInt();
+
+            // the file's byte order is whichever makes the signature read correctly
+            ByteOrder byteOrder;
+
+            if(signature == SIGNATURE)
+                byteOrder = ByteOrder.BIG_ENDIAN;
+            else if(Integer.reverseBytes(signature) == SIGNATURE)
+                byteOrder = ByteOrder.LITTLE_ENDIAN;
+            else
+                throw new IOException("invalid 2bit signature");
+
+            header.order(byteOrder);
+            int version = header.getInt();
+            int sequenceCount = header.getInt();
+
+            if(version != VERSION_32BIT_OFFSETS && version != VERSION_64BIT_OFFSETS)
+                throw new IOException(String.format("unsupported 2bit version(%d)", version));
+
+            Map<String,PackedSequence> sequences = Maps.newLinkedHashMap();
+            long indexPosition = 16;
+
+            for(int i = 0; i < sequenceCount; ++i)
+            {
+                int nameLength = readBuffer(channel, indexPosition, 1, byteOrder).get() & 0xFF;
+                ByteBuffer indexEntry = readBuffer(channel, indexPosition + 1, nameLength + 8, byteOrder);
+
+                byte[] nameBytes = new byte[nameLength];
+                indexEntry.get(nameBytes);
+                String name = new String(nameBytes, StandardCharsets.US_ASCII);
+
+                long recordOffset = version == VERSION_64BIT_OFFSETS ? indexEntry.getLong() : indexEntry.getInt() & MAX_32BIT_OFFSET;
+                indexPosition += 1 + nameLength + (version == VERSION_64BIT_OFFSETS ? 8 : 4);
+
+                sequences.put(name, loadSequence(channel, name, recordOffset, byteOrder));
+            }
+
+            LOGGER.info("mapped {} sequences from packed ref genome({})", sequences.size(), filename);
+
+            return new PackedRefGenome(filename, sequences);
+        }
+        catch(IOException e)
+        {
+            LOGGER.error("failed to load packed ref genome({}): {}", filename, e.toString());
+            return null;
+        }
+    }
+
+    private static PackedSequence loadSequence(final FileChannel channel, final String name, long offset, final ByteOrder byteOrder)
+            throws IOException
+    {
+        ByteBuffer counts = readBuffer(channel, offset, 8, byteOrder);
+        int length = counts.getInt();
+        int nBlockCount = counts.getInt();
+        offset += 8;
+
+        int[] nBlockStarts = readInts(channel, offset, nBlockCount, byteOrder);
+        offset += nBlockCount * 4L;
+        int[] nBlockSizes = readInts(channel, offset, nBlockCount, byteOrder);
+        offset += nBlockCount * 4L;
+
+        int maskBlockCount = readBuffer(channel, offset, 4, byteOrder).getInt();
+        offset += 4;
+
+        int[] maskBlockStarts = readInts(channel, offset, maskBlockCount, byteOrder);
+        offset += maskBlockCount * 4L;
+        int[] maskBlockSizes = readInts(channel, offset, maskBlockCount, byteOrder);
+        offset += maskBlockCount * 4L;
+
+        offset += 4; // reserved
+
+        MappedByteBuffer packedBases = channel.map(FileChannel.MapMode.READ_ONLY, offset, packedSize(length));
+
+        return new PackedSequence(name, length, nBlockStarts, nBlockSizes, maskBlockStarts, maskBlockSizes, packedBases);
+    }
+
+    private static ByteBuffer readBuffer(final FileChannel channel, long position, int size, final ByteOrder byteOrder)
+            throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(byteOrder);
+
+        while(buffer.hasRemaining())
+        {
+            if(channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("unexpected end of 2bit file");
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int[] readInts(final FileChannel channel, long position, int count, final ByteOrder byteOrder) throws IOException
+    {
+        int[] values = new int[count];
+
+        if(count > 0)
+            readBuffer(channel, position, count * 4, byteOrder).asIntBuffer().get(values);
+
+        return values;
+    }
+
+    private static long packedSize(int length) { return (length + 3L) / 4; }
+
+    public static boolean convertFasta(final String fastaFile, final String outputFile)
+    {
+        // writes the sequences in fasta index order, with the record offsets in the index filled in once each record is written
+        try(IndexedFastaSequenceFile refGenome = new IndexedFastaSequenceFile(new File(fastaFile)))
+        {
+            List<String> names = Lists.newArrayList();
+            long totalPackedSize = 0;
+
+            for(FastaSequenceIndexEntry entry : refGenome.getIndex())
+            {
+                names.add(entry.getContig());
+                totalPackedSize += packedSize((int)entry.getSize());
+            }
+
+            // the original format's 32-bit record offsets cover any current human assembly
+            boolean longOffsets = totalPackedSize > MAX_32BIT_OFFSET / 2;
+            int offsetSize = longOffsets ? 8 : 4;
+
+            long[] recordOffsets = new long[names.size()];
+            long position = 0;
+
+            try(DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 20)))
+            {
+                writer.writeInt(SIGNATURE);
+                writer.writeInt(longOffsets ? VERSION_64BIT_OFFSETS : VERSION_32BIT_OFFSETS);
+                writer.writeInt(names.size());
+                writer.writeInt(0);
+                position += 16;
+
+                for(String name : names)
+                {
+                    byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+                    writer.writeByte(nameBytes.length);
+                    writer.write(nameBytes);
+                    writer.write(new byte[offsetSize]);
+                    position += 1 + nameBytes.length + offsetSize;
+                }
+
+                for(int i = 0; i < names.size(); ++i)
+                {
+                    ReferenceSequence sequence = refGenome.getSequence(names.get(i));
+                    recordOffsets[i] = position;
+                    position += writeSequence(writer, sequence.getBases());
+
+                    if(!longOffsets && position > MAX_32BIT_OFFSET)
+                        throw new IOException("packed genome exceeds 32-bit record offsets");
+
+                    LOGGER.debug("packed sequence({}) length({})", names.get(i), sequence.length());
+                }
+            }
+
+            try(RandomAccessFile file = new RandomAccessFile(outputFile, "rw"))
+            {
+                long indexPosition = 16;
+
+                for(int i = 0; i < names.size(); ++i)
+                {
+                    indexPosition += 1 + names.get(i).length();
+                    file.seek(indexPosition);
+
+                    if(longOffsets)
+                        file.writeLong(recordOffsets[i]);
+                    else
+                        file.writeInt((int)recordOffsets[i]);
+
+                    indexPosition += offsetSize;
+                }
+            }
+
+            LOGGER.info("wrote {} sequences to packed ref genome({})", names.size(), outputFile);
+            return true;
+        }
+        catch(IOException e)
+        {
+            LOGGER.error("failed to convert ref genome({}) to packed file({}): {}", fastaFile, outputFile, e.toString());
+            return false;
+        }
+    }
+
+    private static long writeSequence(final DataOutputStream writer, final byte[] bases) throws IOException
+    {
+        // returns the number of bytes written
+        List<int[]> nBlocks = Lists.newArrayList();
+        List<int[]> maskBlocks = Lists.newArrayList();
+
+        int nBlockStart = -1;
+        int maskBlockStart = -1;
+
+        for(int i = 0; i <= bases.length; ++i)
+        {
+            boolean isN = false;
+            boolean isMasked = false;
+
+            if(i < bases.length)
+            {
+                byte base = bases[i];
+                isMasked = base >= 'a' && base <= 'z';
+                isN = baseCode(base) < 0;
+            }
+
+            if(isN && nBlockStart < 0)
+            {
+                nBlockStart = i;
+            }
+            else if(!isN && nBlockStart >= 0)
+            {
+                nBlocks.add(new int[] { nBlockStart, i - nBlockStart });
+                nBlockStart = -1;
+            }
+
+            if(isMasked && maskBlockStart < 0)
+            {
+                maskBlockStart = i;
+            }
+            else if(!isMasked && maskBlockStart >= 0)
+            {
+                maskBlocks.add(new int[] { maskBlockStart, i - maskBlockStart });
+                maskBlockStart = -1;
+            }
+        }
+
+        writer.writeInt(bases.length);
+
+        writeBlocks(writer, nBlocks);
+        writeBlocks(writer, maskBlocks);
+
+        writer.writeInt(0);
+
+        byte[] packedBases = new byte[(int)packedSize(bases.length)];
+
+        for(int i = 0; i < bases.length; ++i)
+        {
+            int code = Math.max(baseCode(bases[i]), 0);
+            packedBases[i >>> 2] |= code << (6 - 2 * (i & 3));
+        }
+
+        writer.write(packedBases);
+
+        return 4 + (4 + nBlocks.size() * 8L) + (4 + maskBlocks.size() * 8L) + 4 + packedBases.length;
+    }
+
+    private static void writeBlocks(final DataOutputStream writer, final List<int[]> blocks) throws IOException
+    {
+        writer.writeInt(blocks.size());
+
+        for(int[] block : blocks)
+        {
+            writer.writeInt(block[0]);
+        }
+
+        for(int[] block : blocks)
+        {
+            writer.writeInt(block[1]);
+        }
+    }
+
+    private static int baseCode(byte base)
+    {
+        switch(base)
+        {
+            case 'T': case 't': return 0;
+            case 'C': case 'c': return 1;
+            case 'A': case 'a': return 2;
+            case 'G': case 'g': return 3;
+            default: return -1;
+        }
+    }
+
+    private static final String OUTPUT_FILE = "output_file";
+
+    public static void main(final String[] args) throws ParseException
+    {
+        Options options = new Options();
+        options.addOption(REF_GENOME, true, "Indexed ref genome fasta file");
+        options.addOption(OUTPUT_FILE, true, "Packed ref genome output file (" + PACKED_REF_GENOME_EXTENSION + ")");
+
+        CommandLine cmd = new DefaultParser().parse(options, args);
+
+        if(!cmd.hasOption(REF_GENOME) || !cmd.hasOption(OUTPUT_FILE))
+        {
+            LOGGER.error("missing config - requires {} and {}", REF_GENOME, OUTPUT_FILE);
+            System.exit(1);
+        }
+
+        if(!convertFasta(cmd.getOptionValue(REF_GENOME), cmd.getOptionValue(OUTPUT_FILE)))
+            System.exit(1);
+    }
+}
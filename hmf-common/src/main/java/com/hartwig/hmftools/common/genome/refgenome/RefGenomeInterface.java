@@ -11,4 +11,12 @@ public interface RefGenomeInterface
     int getChromosomeLength(final String chromosome);
 
     byte[] getBases(final String chromosome, int posStart, int posEnd);
-;}
+
+    // copies the bases into the supplied buffer and returns the number copied
+    default int getBases(final String chromosome, int posStart, int posEnd, final byte[] dest, int destOffset)
+    {
+        byte[] bases = getBases(chromosome, posStart, posEnd);
+        System.arraycopy(bases, 0, dest, destOffset, bases.length);
+        return bases.length;
+    }
+}
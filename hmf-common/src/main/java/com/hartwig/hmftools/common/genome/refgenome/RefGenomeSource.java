@@ -60,11 +60,14 @@ public class RefGenomeSource implements RefGenomeInterface
     }
 
 
-    public static RefGenomeSource loadRefGenome(final String filename)
+    public static RefGenomeInterface loadRefGenome(final String filename)
     {
         if(filename == null || filename.isEmpty())
             return null;
 
+        if(PackedRefGenome.isPackedRefGenome(filename))
+            return PackedRefGenome.loadRefGenome(filename);
+
         try
         {
             LOGGER.debug("loading indexed fasta reference file");
@@ -1,6 +1,8 @@
 package com.hartwig.hmftools.common.samtools;
 
-public class SupplementaryReadData
+import java.io.Serializable;
+
+public class SupplementaryReadData implements Serializable
 {
     public final String Chromosome;
     public final int Position;
@@ -1,9 +1,12 @@
 package com.hartwig.hmftools.common.sigs;
 
 import static com.hartwig.hmftools.common.sigs.SigUtils.calcResiduals;
-import static com.hartwig.hmftools.common.sigs.SigUtils.calculateFittedCounts;
+import static com.hartwig.hmftools.common.utils.MatrixUtils.multiplyColumnMajor;
+import static com.hartwig.hmftools.common.utils.MatrixUtils.multiplyTransposeColumnMajor;
 import static com.hartwig.hmftools.common.utils.VectorUtils.sumVector;
 
+import java.util.Arrays;
+
 import com.hartwig.hmftools.common.utils.Matrix;
 
 import org.apache.logging.log4j.LogManager;
@@ -24,88 +27,107 @@ public final class ExpectationMaxFit
     public static double[] performFit(
             final double[] transCounts, final Matrix transDefinitions, double minResidualsPerc, int maxIterations)
     {
-        int definitionCount = transDefinitions.Cols;
-        int categoryCount = transDefinitions.Rows;
+        // each transcript's definition is read as one contiguous column
+        return performFit(
+                transCounts, transDefinitions.getColumnMajorData(), transDefinitions.Rows, transDefinitions.Cols,
+                minResidualsPerc, maxIterations);
+    }
 
+    public static double[] performFit(
+            final double[] transCounts, final double[] definitions, int categoryCount, int definitionCount,
+            double minResidualsPerc, int maxIterations)
+    {
+        // the definitions are column-major, as from Matrix.getColumnMajorData(), so callers fitting many samples against the
+        // same definitions can lay them out once
         double totalCounts = sumVector(transCounts);
-        double initialAlloc = 1 / (double)definitionCount;
 
-        double[] allocations = new double[definitionCount];
+        double[] newAllocations = new double[definitionCount];
 
-        for(int transId = 0; transId < definitionCount; ++transId)
-        {
-            allocations[transId] = initialAlloc;
-        }
+        if(totalCounts <= 0)
+            return newAllocations;
+
+        FitWorkspace workspace = WORKSPACE.get();
+        workspace.ensureCapacity(categoryCount, definitionCount);
+
+        final double[] allocations = workspace.Allocations;
+        final double[] allocFactors = workspace.AllocFactors;
+        final double[] countRatios = workspace.CountRatios;
+        final double[] fittedCounts = workspace.FittedCounts;
+
+        double initialAlloc = 1 / (double)definitionCount;
+        Arrays.fill(allocations, 0, definitionCount, initialAlloc);
+
+        multiplyColumnMajor(definitions, categoryCount, definitionCount, allocations, allocFactors);
 
         int iteration = 0;
-        double[] newAllocations = new double[definitionCount];
-        double lastResiduals = 0;
 
         while(iteration < maxIterations)
         {
-            double[] allocFactors = new double[categoryCount];
-
-            for(int transId = 0; transId < definitionCount; ++transId)
+            // each definition's new allocation is its current allocation scaled by the counts relative to the current fit
+            for(int catId = 0; catId < categoryCount; ++catId)
             {
-                newAllocations[transId] = 0;
-
-                final double[] ratios = transDefinitions.getCol(transId);
-
-                for(int catId = 0; catId < categoryCount; ++catId)
-                {
-                    allocFactors[catId] += allocations[transId] * ratios[catId];
-                }
+                countRatios[catId] = allocFactors[catId] != 0 ? transCounts[catId] / allocFactors[catId] : 0;
             }
 
+            multiplyTransposeColumnMajor(definitions, categoryCount, definitionCount, countRatios, newAllocations);
+
             for(int transId = 0; transId < definitionCount; ++transId)
             {
-                final double[] ratios = transDefinitions.getCol(transId);
-                double transAlloc = allocations[transId];
-
-                for(int catId = 0; catId < categoryCount; ++catId)
-                {
-                    if(allocFactors[catId] == 0)
-                        continue;
-
-                    double catCount = transCounts[catId];
-                    newAllocations[transId] += catCount * ratios[catId] * transAlloc / allocFactors[catId];
-                }
+                newAllocations[transId] *= allocations[transId];
             }
 
             // calculate residuals
-            double[] fittedCounts = calculateFittedCounts(transDefinitions, newAllocations);
+            multiplyColumnMajor(definitions, categoryCount, definitionCount, newAllocations, fittedCounts);
 
             SigResiduals residuals = calcResiduals(transCounts, fittedCounts, totalCounts);
 
-            LOGGER.trace(String.format("totalCount(%.0f) residuals(%.0f perc=%.3f) iteration(%d)",
-                    totalCounts, residuals.Total, residuals.Percent, iteration));
-
-            /*
-            if(lastResiduals > 0)
+            if(LOGGER.isTraceEnabled())
             {
-                // exit if the residuals total has almost stopped improving each iteration
-                double residualChange = lastResiduals - residuals[RESIDUAL_TOTAL];
-                double residualsChangePerc = residualChange / totalCounts;
-
-                if(residualsChangePerc < RESIDUALS_EXIT_PERC)
-                    break;
+                LOGGER.trace(String.format("totalCount(%.0f) residuals(%.0f perc=%.3f) iteration(%d)",
+                        totalCounts, residuals.Total, residuals.Percent, iteration));
             }
-            */
 
-            lastResiduals = residuals.Total;
-
-            if(residuals.Percent < RESIDUALS_EXIT_PERC)
+            if(residuals.Percent < minResidualsPerc)
                 break;
 
+            // the next allocations are the new ones as proportions of the total, so their fit follows from the fitted counts
             for(int transId = 0; transId < definitionCount; ++transId)
             {
                 allocations[transId] = newAllocations[transId] / totalCounts;
             }
 
+            for(int catId = 0; catId < categoryCount; ++catId)
+            {
+                allocFactors[catId] = fittedCounts[catId] / totalCounts;
+            }
+
             ++iteration;
         }
 
         return newAllocations;
     }
 
+    private static final ThreadLocal<FitWorkspace> WORKSPACE = ThreadLocal.withInitial(FitWorkspace::new);
+
+    private static class FitWorkspace
+    {
+        // working arrays reused across fits on the same thread, grown to the largest fit seen
+        public double[] Allocations = new double[0];
+        public double[] AllocFactors = new double[0];
+        public double[] CountRatios = new double[0];
+        public double[] FittedCounts = new double[0];
+
+        public void ensureCapacity(int categoryCount, int definitionCount)
+        {
+            if(Allocations.length < definitionCount)
+                Allocations = new double[definitionCount];
+
+            if(AllocFactors.length < categoryCount)
+            {
+                AllocFactors = new double[categoryCount];
+                CountRatios = new double[categoryCount];
+                FittedCounts = new double[categoryCount];
+            }
+        }
+    }
 }
@@ -4,9 +4,7 @@ package com.hartwig.hmftools.common.sigs;
 // Package: edu.rit.numeric
 // Unit:    Class edu.rit.numeric.NonNegativeLeastSquares
 
-import static com.hartwig.hmftools.common.utils.VectorUtils.copyVector;
 import static com.hartwig.hmftools.common.utils.VectorUtils.initVector;
-import static com.hartwig.hmftools.common.utils.MatrixUtils.copy;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,12 +37,12 @@ public class LeastSquaresFit
 
     // The MxN-element A matrix for the least squares problem. On input to the solve() method, a contains the matrix A.
     // On output, a has been replaced with QA, where Q is an MxM-element orthogonal matrix generated during the solve() method's execution.
-    private final double[][] mFactors;
+    private double[][] mFactors;
     private final double[][] a;
 
     // The M-element b vector for the least squares problem. On input to the solve() method, b contains the vector b.
     // On output, b has been replaced with Qb, where Q is an MxM-element orthogonal matrix generated during the solve() method's execution.
-    private final double[] mCounts;
+    private double[] mCounts;
     private final double[] b;
 
     // The N-element x vector for the least squares problem. On output from the solve() method, x contains the solution vector x.
@@ -89,10 +87,10 @@ public class LeastSquaresFit
         N = cols;
 
         a = new double [rows][cols];
-        mFactors = new double [rows][cols];
+        mFactors = null;
 
         b = new double [rows];
-        mCounts = new double [rows];
+        mCounts = null;
         mContribs = new double [cols];
 
         index = new int [cols];
@@ -103,12 +101,33 @@ public class LeastSquaresFit
         itmax = 3 * cols;
     }
 
+    public static LeastSquaresFit forThread(int rows, int cols)
+    {
+        // a fitter per thread, reused while the problem dimensions are unchanged
+        LeastSquaresFit fitter = THREAD_FITTER.get();
+
+        if(fitter == null || fitter.M != rows || fitter.N != cols)
+        {
+            fitter = new LeastSquaresFit(rows, cols);
+            THREAD_FITTER.set(fitter);
+        }
+
+        return fitter;
+    }
+
+    private static final ThreadLocal<LeastSquaresFit> THREAD_FITTER = new ThreadLocal<>();
+
     public void initialise(final double[][] factors, final double[] data)
     {
-        copy(factors, a);
-        copy(factors, mFactors);
-        copyVector(data, b);
-        copyVector(data, mCounts);
+        // only the working copies are modified by solve(), so the inputs themselves are retained rather than copied again
+        for(int i = 0; i < M; ++i)
+        {
+            System.arraycopy(factors[i], 0, a[i], 0, N);
+        }
+
+        System.arraycopy(data, 0, b, 0, M);
+        mFactors = factors;
+        mCounts = data;
 
         for(int i = 0; i < index.length; ++i)
         {
@@ -130,7 +149,7 @@ public class LeastSquaresFit
     public void solve()
     {
         int i, iz, j, l, izmax, jz, jj, ip, ii;
-        double sm, wmax, asave, unorm, ztest, up, alpha, t, cc, ss, temp;
+        double wmax, asave, unorm, ztest, up, alpha, t, cc, ss, temp;
 
         int iter = 0;
 
@@ -148,16 +167,20 @@ public class LeastSquaresFit
             // columns of A have been triangularized.
             if (nsetp >= N || nsetp >= M) break mainloop;
 
-            // Compute components of the dual (negative gradient) vector W.
+            // Compute components of the dual (negative gradient) vector W, a row of A at a time.
             for (iz = nsetp; iz < N; ++ iz)
             {
-                j = index[iz];
-                sm = 0.0;
-                for (l = nsetp; l < M; ++ l)
+                w[index[iz]] = 0.0;
+            }
+            for (l = nsetp; l < M; ++ l)
+            {
+                final double[] aRow = a[l];
+                final double bl = b[l];
+                for (iz = nsetp; iz < N; ++ iz)
                 {
-                    sm += a[l][j]*b[l];
+                    j = index[iz];
+                    w[j] += aRow[j]*bl;
                 }
-                w[j] = sm;
             }
 
             // Find a candidate j to be moved from set Z to set P.
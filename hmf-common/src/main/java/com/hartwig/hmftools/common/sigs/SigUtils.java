@@ -29,15 +29,19 @@ public final class SigUtils
     public static double[] calculateFittedCounts(final Matrix signatures, final double[] allocations)
     {
         double[] fittedCounts = new double[signatures.Rows];
+        final double[][] data = signatures.getData();
 
-        for(int transId = 0; transId < signatures.Cols; ++transId)
+        for(int catId = 0; catId < signatures.Rows; ++catId)
         {
-            double allocation = allocations[transId];
+            final double[] catRatios = data[catId];
+            double fittedCount = 0;
 
-            for(int catId = 0; catId < signatures.Rows; ++catId)
+            for(int transId = 0; transId < signatures.Cols; ++transId)
             {
-                fittedCounts[catId] += allocation * signatures.get(catId, transId);
+                fittedCount += allocations[transId] * catRatios[transId];
             }
+
+            fittedCounts[catId] = fittedCount;
         }
 
         return fittedCounts;
@@ -3,6 +3,8 @@ package com.hartwig.hmftools.common.sv;
 import java.io.IOException;
 import java.util.List;
 
+import com.hartwig.hmftools.common.variant.ParallelVcfReader;
+
 import org.jetbrains.annotations.NotNull;
 
 import htsjdk.tribble.AbstractFeatureReader;
@@ -27,4 +29,16 @@ public final class StructuralVariantFileLoader {
 
         return factory.results();
     }
+
+    // decodes the VCF's records over the given number of threads, which are passed on to the factory in file order
+    @NotNull
+    public static List<StructuralVariant> fromFile(@NotNull String vcfFileLocation, @NotNull VariantContextFilter filter, int threads) {
+        final StructuralVariantFactory factory = new StructuralVariantFactory(filter);
+
+        try (final ParallelVcfReader reader = new ParallelVcfReader(vcfFileLocation, threads)) {
+            reader.forEach(factory::addVariantContext);
+        }
+
+        return factory.results();
+    }
 }
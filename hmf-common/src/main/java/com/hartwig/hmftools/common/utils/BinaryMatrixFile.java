@@ -0,0 +1,272 @@
+package com.hartwig.hmftools.common.utils;
+
+import static java.lang.Math.max;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// a matrix stored column by column as raw doubles behind a header of row labels and column names, so that a large cohort matrix
+// (eg genes by samples) is memory-mapped rather than parsed, and a single column can be read without touching the rest
+// layout: magic, version, rows, columns, row label field count, data offset, label field names, column names, row labels,
+// then the column-major data from the 8-byte aligned data offset
+public class BinaryMatrixFile
+{
+    public final int Rows;
+    public final int Cols;
+
+    private final List<String> mRowLabelFields;
+    private final String[][] mRowLabels; // by label field then row
+    private final List<String> mColumnNames;
+
+    private final DoubleBuffer[] mColumnBlocks;
+    private final int mColumnsPerBlock;
+
+    public static final String BINARY_MATRIX_FILE_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x484D4D58; // HMMX
+    private static final int VERSION = 1;
+    private static final int FIXED_HEADER_SIZE = 5 * Integer.BYTES + Long.BYTES;
+
+    private static final Logger LOGGER = LogManager.getLogger(BinaryMatrixFile.class);
+
+    private BinaryMatrixFile(
+            int rows, int cols, final List<String> rowLabelFields, final String[][] rowLabels, final List<String> columnNames,
+            final DoubleBuffer[] columnBlocks, int columnsPerBlock)
+    {
+        Rows = rows;
+        Cols = cols;
+        mRowLabelFields = rowLabelFields;
+        mRowLabels = rowLabels;
+        mColumnNames = columnNames;
+        mColumnBlocks = columnBlocks;
+        mColumnsPerBlock = columnsPerBlock;
+    }
+
+    public static boolean isBinaryMatrixFile(final String filename)
+    {
+        return filename != null && filename.endsWith(BINARY_MATRIX_FILE_EXTENSION);
+    }
+
+    public List<String> rowLabelFields() { return mRowLabelFields; }
+    public List<String> columnNames() { return mColumnNames; }
+
+    public List<String> rowLabels(final String labelField)
+    {
+        int fieldIndex = mRowLabelFields.indexOf(labelField);
+        return fieldIndex >= 0 ? Collections.unmodifiableList(Arrays.asList(mRowLabels[fieldIndex])) : null;
+    }
+
+    public Map<String,Integer> columnIndexMap()
+    {
+        Map<String,Integer> columnIndex = Maps.newHashMapWithExpectedSize(Cols);
+
+        for(int c = 0; c < Cols; ++c)
+        {
+            columnIndex.put(mColumnNames.get(c), c);
+        }
+
+        return columnIndex;
+    }
+
+    public double get(int row, int col)
+    {
+        return mColumnBlocks[col / mColumnsPerBlock].get((col % mColumnsPerBlock) * Rows + row);
+    }
+
+    public void getColumn(int col, final double[] dest)
+    {
+        DoubleBuffer block = mColumnBlocks[col / mColumnsPerBlock].duplicate();
+        block.position((col % mColumnsPerBlock) * Rows);
+        block.get(dest, 0, Rows);
+    }
+
+    public void getRow(int row, final double[] dest)
+    {
+        // reads across the columns, so touches every column's page; suited to consumers which visit each row once
+        for(int c = 0; c < Cols; ++c)
+        {
+            dest[c] = get(row, c);
+        }
+    }
+
+    public Matrix toMatrix(boolean transpose)
+    {
+        // copies out each column, either as rows of a transposed matrix or into the columns of a matrix in file orientation
+        // this brings the whole mapped file onto the heap, so is only for consumers which need to modify the matrix
+        Matrix matrix = transpose ? new Matrix(Cols, Rows) : new Matrix(Rows, Cols);
+        final double[][] matrixData = matrix.getData();
+
+        double[] column = transpose ? null : new double[Rows];
+
+        for(int c = 0; c < Cols; ++c)
+        {
+            if(transpose)
+            {
+                getColumn(c, matrixData[c]);
+                continue;
+            }
+
+            getColumn(c, column);
+
+            for(int r = 0; r < Rows; ++r)
+            {
+                matrixData[r][c] = column[r];
+            }
+        }
+
+        return matrix;
+    }
+
+    public static BinaryMatrixFile load(final String filename)
+    {
+        try(DataInputStream reader = new DataInputStream(new BufferedInputStream(new FileInputStream(filename))))
+        {
+            if(reader.readInt() != MAGIC)
+            {
+                LOGGER.error("file({}) is not a binary matrix file", filename);
+                return null;
+            }
+
+            int version = reader.readInt();
+
+            if(version != VERSION)
+            {
+                LOGGER.error("binary matrix file({}) has unsupported version({})", filename, version);
+                return null;
+            }
+
+            int rows = reader.readInt();
+            int cols = reader.readInt();
+            int labelFieldCount = reader.readInt();
+            long dataOffset = reader.readLong();
+
+            List<String> rowLabelFields = Lists.newArrayListWithCapacity(labelFieldCount);
+
+            for(int i = 0; i < labelFieldCount; ++i)
+            {
+                rowLabelFields.add(reader.readUTF());
+            }
+
+            List<String> columnNames = Lists.newArrayListWithCapacity(cols);
+
+            for(int c = 0; c < cols; ++c)
+            {
+                columnNames.add(reader.readUTF());
+            }
+
+            String[][] rowLabels = new String[labelFieldCount][rows];
+
+            for(int r = 0; r < rows; ++r)
+            {
+                for(int i = 0; i < labelFieldCount; ++i)
+                {
+                    rowLabels[i][r] = reader.readUTF();
+                }
+            }
+
+            // a single mapping is limited to 2GB so larger matrices are mapped as blocks of whole columns
+            int columnsPerBlock = max(1, (int)(Integer.MAX_VALUE / max(1L, (long)rows * Double.BYTES)));
+            int blockCount = cols > 0 ? (cols + columnsPerBlock - 1) / columnsPerBlock : 0;
+            DoubleBuffer[] columnBlocks = new DoubleBuffer[blockCount];
+
+            try(RandomAccessFile file = new RandomAccessFile(filename, "r"); FileChannel channel = file.getChannel())
+            {
+                for(int b = 0; b < blockCount; ++b)
+                {
+                    int blockCols = Math.min(columnsPerBlock, cols - b * columnsPerBlock);
+                    long blockOffset = dataOffset + (long)b * columnsPerBlock * rows * Double.BYTES;
+                    long blockSize = (long)blockCols * rows * Double.BYTES;
+
+                    columnBlocks[b] = channel.map(FileChannel.MapMode.READ_ONLY, blockOffset, blockSize).asDoubleBuffer();
+                }
+            }
+
+            LOGGER.info("mapped matrix(rows={} cols={}) from file({})", rows, cols, filename);
+
+            return new BinaryMatrixFile(rows, cols, rowLabelFields, rowLabels, columnNames, columnBlocks, columnsPerBlock);
+        }
+        catch(IOException e)
+        {
+            LOGGER.error("failed to read binary matrix file({}): {}", filename, e.toString());
+            return null;
+        }
+    }
+
+    public static void write(
+            final String filename, final List<String> rowLabelFields, final List<String[]> rowLabels, final List<String> columnNames,
+            final List<double[]> columns) throws IOException
+    {
+        // columns hold a value for each row label
+        int rows = rowLabels.size();
+        int cols = columns.size();
+
+        ByteArrayOutputStream labelBytes = new ByteArrayOutputStream();
+        DataOutputStream labelWriter = new DataOutputStream(labelBytes);
+
+        for(String labelField : rowLabelFields)
+        {
+            labelWriter.writeUTF(labelField);
+        }
+
+        for(String columnName : columnNames)
+        {
+            labelWriter.writeUTF(columnName);
+        }
+
+        for(String[] labels : rowLabels)
+        {
+            for(String label : labels)
+            {
+                labelWriter.writeUTF(label);
+            }
+        }
+
+        labelWriter.flush();
+
+        long labelsEnd = FIXED_HEADER_SIZE + labelBytes.size();
+        long dataOffset = (labelsEnd + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+
+        try(DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 20)))
+        {
+            writer.writeInt(MAGIC);
+            writer.writeInt(VERSION);
+            writer.writeInt(rows);
+            writer.writeInt(cols);
+            writer.writeInt(rowLabelFields.size());
+            writer.writeLong(dataOffset);
+            labelBytes.writeTo(writer);
+
+            for(long i = labelsEnd; i < dataOffset; ++i)
+            {
+                writer.writeByte(0);
+            }
+
+            for(double[] column : columns)
+            {
+                for(int r = 0; r < rows; ++r)
+                {
+                    writer.writeDouble(column[r]);
+                }
+            }
+        }
+    }
+}
@@ -54,6 +54,25 @@ public class Matrix
         }
     }
 
+    public double[] getColumnMajorData()
+    {
+        // a copy with the columns laid end to end, for kernels which walk the matrix a column at a time; it is owned by the caller
+        // and does not follow later changes to the matrix
+        double[] data = new double[Rows * Cols];
+
+        for(int i = 0; i < Rows; ++i)
+        {
+            final double[] row = mData[i];
+
+            for(int j = 0; j < Cols; ++j)
+            {
+                data[j * Rows + i] = row[j];
+            }
+        }
+
+        return data;
+    }
+
     public double[][] getData() { return mData; }
 
     public void setData(final double[][] otherData)
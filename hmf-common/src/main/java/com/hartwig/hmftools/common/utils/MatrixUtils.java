@@ -4,6 +4,7 @@ import static java.lang.Math.min;
 
 import static com.hartwig.hmftools.common.utils.VectorUtils.sumVector;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -238,6 +239,45 @@ public class MatrixUtils
         }
     }
 
+    public static void multiplyColumnMajor(final double[] colMajorData, int rows, int cols, final double[] vector, final double[] dest)
+    {
+        // dest = matrix * vector, accumulating each scaled column in turn so the matrix is read contiguously
+        Arrays.fill(dest, 0, rows, 0);
+
+        for(int j = 0; j < cols; ++j)
+        {
+            double value = vector[j];
+
+            if(value == 0)
+                continue;
+
+            int colOffset = j * rows;
+
+            for(int i = 0; i < rows; ++i)
+            {
+                dest[i] += value * colMajorData[colOffset + i];
+            }
+        }
+    }
+
+    public static void multiplyTransposeColumnMajor(
+            final double[] colMajorData, int rows, int cols, final double[] vector, final double[] dest)
+    {
+        // dest = transpose(matrix) * vector, as a dot product of each contiguous column with the vector
+        for(int j = 0; j < cols; ++j)
+        {
+            int colOffset = j * rows;
+            double total = 0;
+
+            for(int i = 0; i < rows; ++i)
+            {
+                total += colMajorData[colOffset + i] * vector[i];
+            }
+
+            dest[j] = total;
+        }
+    }
+
     public static void scalarMultiply(final Matrix matrix, final Matrix other)
     {
         // scalar product; this *= b
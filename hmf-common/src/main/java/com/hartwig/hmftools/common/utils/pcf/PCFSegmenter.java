@@ -0,0 +1,197 @@
+package com.hartwig.hmftools.common.utils.pcf;
+
+import static java.lang.String.format;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeCoordinates;
+
+// segments a sample's values as the copynumber R package's pcf does: each chromosome arm is fitted separately, with the penalty
+// gamma scaled by the variance of the sample's residuals, and the segments written in its .pcf format
+public class PCFSegmenter
+{
+    private final String mSampleId;
+    private final double mGamma;
+    private final PiecewiseConstantFit mFit;
+
+    private final Map<String,ArmValues> mArmValues;
+
+    // pcf's default assembly (hg19) defines the arms
+    private static final RefGenomeCoordinates ARM_COORDINATES = RefGenomeCoordinates.COORDS_37;
+
+    private static final int MEAN_DIGITS = 4;
+    private static final MathContext VALUE_PRECISION = new MathContext(15);
+
+    private static final String DELIMITER = "\t";
+    private static final String HEADER = String.join(DELIMITER, "sampleID", "chrom", "arm", "start.pos", "end.pos", "n.probes", "mean");
+
+    public PCFSegmenter(final String sampleId, double gamma, int kmin)
+    {
+        // pcf fits with its fast heuristic by default
+        this(sampleId, gamma, kmin, true);
+    }
+
+    public PCFSegmenter(final String sampleId, double gamma, int kmin, boolean fast)
+    {
+        mSampleId = sampleId;
+        mGamma = gamma;
+        mFit = new PiecewiseConstantFit(kmin, fast);
+        mArmValues = Maps.newHashMap();
+    }
+
+    public void addValue(final String chromosome, int position, double value)
+    {
+        // values are expected in position order within each chromosome; like pcf, only human chromosomes are segmented and
+        // missing values are ignored
+        if(!HumanChromosome.contains(chromosome) || Double.isNaN(value))
+            return;
+
+        char arm = position <= ARM_COORDINATES.centromere(chromosome) ? 'p' : 'q';
+
+        ArmValues armValues = mArmValues.computeIfAbsent(chromosome + arm, x -> new ArmValues(chromosome, arm));
+        armValues.add(position, value);
+    }
+
+    public List<Callable> createTasks()
+    {
+        // the residual SD is taken from the whole sample, with arms in genomic order
+        List<ArmValues> sortedArms = sortedArms();
+
+        double[] allValues = new double[sortedArms.stream().mapToInt(x -> x.Count).sum()];
+        int index = 0;
+
+        for(ArmValues armValues : sortedArms)
+        {
+            System.arraycopy(armValues.Values, 0, allValues, index, armValues.Count);
+            index += armValues.Count;
+        }
+
+        double sd = PiecewiseConstantFit.residualSd(allValues);
+        double penalty = sd > 0 ? mGamma * sd * sd : mGamma;
+
+        List<Callable> tasks = Lists.newArrayList();
+
+        for(ArmValues armValues : sortedArms)
+        {
+            tasks.add(() -> { armValues.segment(mFit, penalty); return (long)0; });
+        }
+
+        return tasks;
+    }
+
+    public void write(final String filename) throws IOException
+    {
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(filename)))
+        {
+            writer.write(HEADER);
+            writer.newLine();
+
+            for(ArmValues armValues : sortedArms())
+            {
+                int[] segmentStarts = armValues.SegmentStarts;
+
+                for(int s = 0; s < segmentStarts.length; ++s)
+                {
+                    int start = segmentStarts[s];
+                    int end = s < segmentStarts.length - 1 ? segmentStarts[s + 1] : armValues.Count;
+
+                    writer.write(format("%s\t%s\t%s\t%d\t%d\t%d\t%s",
+                            mSampleId, outputChromosome(armValues.Chromosome), armValues.Arm, armValues.Positions[start], armValues.Positions[end - 1],
+                            end - start, formatMean(armValues.Values, start, end)));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private static String outputChromosome(final String chromosome)
+    {
+        // pcf numbers the sex chromosomes 23 and 24, which readers of the .pcf files then skip
+        HumanChromosome humanChromosome = HumanChromosome.fromString(chromosome);
+
+        if(humanChromosome == HumanChromosome._X || humanChromosome == HumanChromosome._Y)
+        {
+            String prefix = chromosome.substring(0, chromosome.length() - 1);
+            return prefix + (humanChromosome == HumanChromosome._X ? "23" : "24");
+        }
+
+        return chromosome;
+    }
+
+    private static String formatMean(final double[] values, int start, int end)
+    {
+        // R's scripts report a single value unrounded and otherwise pcf's mean to 4 decimal places
+        if(end - start == 1)
+            return new BigDecimal(values[start]).round(VALUE_PRECISION).stripTrailingZeros().toPlainString();
+
+        double total = 0;
+
+        for(int i = start; i < end; ++i)
+        {
+            total += values[i];
+        }
+
+        BigDecimal mean = BigDecimal.valueOf(total / (end - start)).setScale(MEAN_DIGITS, RoundingMode.HALF_EVEN);
+        return mean.signum() == 0 ? "0" : mean.stripTrailingZeros().toPlainString();
+    }
+
+    private List<ArmValues> sortedArms()
+    {
+        List<ArmValues> sortedArms = Lists.newArrayList(mArmValues.values());
+        sortedArms.sort(Comparator.comparingInt((ArmValues x) -> HumanChromosome.chromosomeRank(x.Chromosome)).thenComparing(x -> x.Arm));
+        return sortedArms;
+    }
+
+    private static class ArmValues
+    {
+        public final String Chromosome;
+        public final char Arm;
+
+        public int[] Positions;
+        public double[] Values;
+        public int Count;
+
+        public int[] SegmentStarts;
+
+        public ArmValues(final String chromosome, char arm)
+        {
+            Chromosome = chromosome;
+            Arm = arm;
+            Positions = new int[1024];
+            Values = new double[1024];
+            Count = 0;
+            SegmentStarts = new int[0];
+        }
+
+        public void add(int position, double value)
+        {
+            if(Count == Values.length)
+            {
+                Positions = Arrays.copyOf(Positions, Count * 2);
+                Values = Arrays.copyOf(Values, Count * 2);
+            }
+
+            Positions[Count] = position;
+            Values[Count] = value;
+            ++Count;
+        }
+
+        public void segment(final PiecewiseConstantFit fit, double penalty)
+        {
+            SegmentStarts = fit.segmentStarts(Arrays.copyOf(Values, Count), penalty);
+        }
+    }
+}
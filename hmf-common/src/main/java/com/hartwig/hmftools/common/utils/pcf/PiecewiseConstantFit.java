@@ -0,0 +1,628 @@
+package com.hartwig.hmftools.common.utils.pcf;
+
+import java.util.Arrays;
+
+// piecewise constant fitting as per the copynumber R package's exact PCF: finds the segmentation minimising the within-segment
+// sum of squares plus a penalty for each breakpoint, with every segment holding at least kmin values
+// candidate segment starts which can no longer be optimal are pruned (as per PELT), so long arms fit in close to linear time
+// as with pcf's default fast=TRUE, long inputs can instead be fitted with copynumber's fast heuristic (selectFastPcf), which only
+// considers breakpoints at the strongest local steps
+public class PiecewiseConstantFit
+{
+    private final int mKmin;
+    private final boolean mFast;
+
+    // as copynumber's getMad, residuals are taken from a running median of 2 * 25 + 1 values
+    public static final int MAD_HALF_WINDOW = 25;
+
+    private static final double MAD_SCALE = 1.4826;
+
+    // fast fit parameters, as per selectFastPcf for inputs of 1000 values or more
+    public static final int FAST_FIT_MIN_COUNT = 1000;
+    private static final int SUBSET_FIT_MIN_COUNT = 15000;
+    private static final int SUBSET_SIZE = 5000;
+
+    private static final int LONG_STEP_WINDOW = 8;
+    private static final int SHORT_STEP_WINDOW = 1;
+    private static final double LONG_STEP_FRACTION = 0.12;
+    private static final double SHORT_STEP_FRACTION = 0.05;
+
+    // filterMarkS4's outlier parameters: the fraction of values treated as outliers, and the share of a long step which a single value
+    // may account for before the step is put down to that value
+    private static final int OUTLIER_HALF_WINDOW = 3;
+    private static final double OUTLIER_FRACTION = 0.02;
+    private static final double OUTLIER_STEP_SHARE = 0.9;
+
+    public PiecewiseConstantFit(int kmin)
+    {
+        this(kmin, false);
+    }
+
+    public PiecewiseConstantFit(int kmin, boolean fast)
+    {
+        mKmin = Math.max(kmin, 1);
+        mFast = fast;
+    }
+
+    // returns the index of the first value of each segment
+    public int[] segmentStarts(final double[] values, double penalty)
+    {
+        if(mFast && values.length >= FAST_FIT_MIN_COUNT)
+            return fastSegmentStarts(values, penalty);
+
+        return exactSegmentStarts(values, penalty);
+    }
+
+    private int[] exactSegmentStarts(final double[] values, double penalty)
+    {
+        int count = values.length;
+
+        if(count == 0)
+            return new int[0];
+
+        if(count < 2 * mKmin)
+            return new int[] { 0 };
+
+        // centre the values to limit rounding error in the cumulative sums
+        double mean = 0;
+
+        for(double value : values)
+        {
+            mean += value;
+        }
+
+        mean /= count;
+
+        double[] cumSum = new double[count + 1];
+        double[] cumSumSq = new double[count + 1];
+
+        for(int i = 0; i < count; ++i)
+        {
+            double value = values[i] - mean;
+            cumSum[i + 1] = cumSum[i] + value;
+            cumSumSq[i + 1] = cumSumSq[i] + value * value;
+        }
+
+        // indexed by the number of values covered, ie the end of the last segment
+        double[] bestCost = new double[count + 1];
+        int[] bestSplit = new int[count + 1];
+
+        // candidate starts for the last segment in increasing order, and the step after which each has been ruled out
+        int[] candidates = new int[count + 1];
+        double[] candidateCosts = new double[count + 1];
+        int candidateCount = 0;
+
+        int[] expiry = new int[count + 1];
+        Arrays.fill(expiry, Integer.MAX_VALUE);
+
+        double pruneTolerance = 1e-9 * Math.max(penalty, 1);
+
+        for(int end = mKmin; end <= count; ++end)
+        {
+            int newCandidate = end - mKmin;
+
+            if(newCandidate >= mKmin)
+                candidates[candidateCount++] = newCandidate;
+
+            double minCost = 0;
+            int minSplit = -1;
+            int retained = 0;
+
+            for(int i = 0; i < candidateCount; ++i)
+            {
+                int split = candidates[i];
+
+                if(end > expiry[split])
+                    continue;
+
+                double cost = bestCost[split] + segmentCost(cumSum, cumSumSq, split, end);
+
+                candidates[retained] = split;
+                candidateCosts[retained] = cost;
+                ++retained;
+
+                // the first of equal-cost splits is kept, as R's which.min does
+                if(minSplit < 0 || cost + penalty < minCost)
+                {
+                    minCost = cost + penalty;
+                    minSplit = split;
+                }
+            }
+
+            candidateCount = retained;
+
+            // a single segment only wins if strictly better than any split
+            double totalCost = segmentCost(cumSum, cumSumSq, 0, end);
+
+            if(minSplit < 0 || totalCost < minCost)
+            {
+                minCost = totalCost;
+                minSplit = 0;
+            }
+
+            bestCost[end] = minCost;
+            bestSplit[end] = minSplit;
+
+            // a start whose cost already exceeds the best cost here cannot beat a split at this point for any segment ending at
+            // least kmin further on
+            for(int i = 0; i < candidateCount; ++i)
+            {
+                int split = candidates[i];
+
+                if(expiry[split] == Integer.MAX_VALUE && candidateCosts[i] > minCost + pruneTolerance)
+                    expiry[split] = end + mKmin - 1;
+            }
+        }
+
+        int segmentCount = 0;
+
+        for(int end = count; end > 0; end = bestSplit[end])
+        {
+            ++segmentCount;
+        }
+
+        int[] segmentStarts = new int[segmentCount];
+
+        for(int end = count; end > 0; end = bestSplit[end])
+        {
+            segmentStarts[--segmentCount] = bestSplit[end];
+        }
+
+        return segmentStarts;
+    }
+
+    private int[] fastSegmentStarts(final double[] values, double penalty)
+    {
+        int count = values.length;
+        double[] cumSum = centredCumulativeSum(values);
+
+        boolean[] candidates = markCandidates(cumSum);
+
+        if(count >= SUBSET_FIT_MIN_COUNT)
+        {
+            // runPcfSubset: candidates are first thinned by fitting overlapping windows, keeping the breakpoints found in the first
+            // four fifths of each, and the whole input is then fitted from those which remain
+            boolean[] windowBreaks = new boolean[count + 1];
+            int windowStart = 0;
+
+            while(true)
+            {
+                int windowEnd = Math.min(windowStart + SUBSET_SIZE, count);
+                int keepEnd = windowEnd == count ? count : windowStart + SUBSET_SIZE * 4 / 5;
+
+                for(int segmentEnd : fitCandidates(cumSum, candidates, windowStart, windowEnd, penalty))
+                {
+                    if(segmentEnd <= keepEnd)
+                        windowBreaks[segmentEnd] = true;
+                }
+
+                windowBreaks[keepEnd] = true;
+
+                if(windowEnd == count)
+                    break;
+
+                windowStart = keepEnd;
+            }
+
+            candidates = windowBreaks;
+        }
+
+        int[] segmentEnds = fitCandidates(cumSum, candidates, 0, count, penalty);
+
+        int[] segmentStarts = new int[segmentEnds.length];
+
+        for(int s = 1; s < segmentEnds.length; ++s)
+        {
+            segmentStarts[s] = segmentEnds[s - 1];
+        }
+
+        return segmentStarts;
+    }
+
+    private boolean[] markCandidates(final double[] cumSum)
+    {
+        // filterMarkS4: breakpoints are considered after the values with the strongest steps between the means either side, over
+        // both long and short windows, either side of outlying values, and wherever the end of the input leaves too few values to
+        // measure them
+        int count = cumSum.length - 1;
+        boolean[] candidates = new boolean[count + 1];
+
+        double[] outliers = outlierDeviations(cumSum);
+
+        markLongSteps(cumSum, outliers, candidates);
+        markSteps(cumSum, SHORT_STEP_WINDOW, SHORT_STEP_FRACTION, candidates);
+        markOutliers(outliers, candidates);
+
+        int edgeCount = Math.max(3 * LONG_STEP_WINDOW - 1, mKmin);
+
+        for(int i = mKmin; i <= edgeCount; ++i)
+        {
+            candidates[i] = true;
+            candidates[count - i] = true;
+        }
+
+        for(int i = 1; i < mKmin; ++i)
+        {
+            candidates[i] = false;
+            candidates[count - i] = false;
+        }
+
+        candidates[0] = false;
+        candidates[count] = true;
+        return candidates;
+    }
+
+    private static double[] stepStatistics(final double[] cumSum, int window)
+    {
+        // the weighted difference of the means either side of each breakpoint, from the first to the last with a full window
+        int first = 3 * window;
+        int last = cumSum.length - 1 - 3 * window;
+
+        if(last < first)
+            return new double[0];
+
+        double[] steps = new double[last - first + 1];
+
+        for(int i = first; i <= last; ++i)
+        {
+            steps[i - first] = Math.abs(4 * cumSum[i] - cumSum[i - 3 * window] - cumSum[i - 2 * window]
+                    - cumSum[i + 2 * window] - cumSum[i + 3 * window]);
+        }
+
+        return steps;
+    }
+
+    private static void markSteps(final double[] cumSum, int window, double fraction, final boolean[] candidates)
+    {
+        double[] steps = stepStatistics(cumSum, window);
+
+        if(steps.length == 0)
+            return;
+
+        double limit = quantile(steps, 1 - fraction);
+
+        for(int i = 0; i < steps.length; ++i)
+        {
+            if(steps[i] > limit)
+                candidates[i + 3 * window] = true;
+        }
+    }
+
+    private static void markLongSteps(final double[] cumSum, final double[] outliers, final boolean[] candidates)
+    {
+        // a long step mostly accounted for by a single outlying value is not marked, and is left to the outlier's own breakpoints;
+        // the fraction of steps marked is taken from those which remain, so as many breakpoints are considered overall
+        int window = LONG_STEP_WINDOW;
+        double[] steps = stepStatistics(cumSum, window);
+
+        if(steps.length == 0)
+            return;
+
+        boolean[] outlierSteps = new boolean[steps.length];
+        int retainedCount = 0;
+
+        for(int i = 0; i < steps.length; ++i)
+        {
+            int breakpoint = i + 3 * window;
+            double maxShare = 0;
+
+            // values within 2 windows of the breakpoint count twice in the step, and those further out once
+            for(int v = breakpoint - 3 * window; v < breakpoint + 3 * window; ++v)
+            {
+                int weight = v >= breakpoint - 2 * window && v < breakpoint + 2 * window ? 2 : 1;
+                maxShare = Math.max(maxShare, weight * outliers[v]);
+            }
+
+            outlierSteps[i] = maxShare >= OUTLIER_STEP_SHARE * steps[i];
+
+            if(!outlierSteps[i])
+                ++retainedCount;
+        }
+
+        if(retainedCount == 0)
+            return;
+
+        double[] retainedSteps = new double[retainedCount];
+        int index = 0;
+
+        for(int i = 0; i < steps.length; ++i)
+        {
+            if(!outlierSteps[i])
+                retainedSteps[index++] = steps[i];
+        }
+
+        double fraction = Math.min(0.8, LONG_STEP_FRACTION * steps.length / retainedCount);
+        double limit = quantile(retainedSteps, 1 - fraction);
+
+        for(int i = 0; i < steps.length; ++i)
+        {
+            if(!outlierSteps[i] && steps[i] > limit)
+                candidates[i + 3 * window] = true;
+        }
+    }
+
+    private static double[] outlierDeviations(final double[] cumSum)
+    {
+        // the deviation of each value from the mean of those either side, zero where the input ends too soon to measure it
+        int count = cumSum.length - 1;
+        int half = OUTLIER_HALF_WINDOW;
+        double[] deviations = new double[count];
+
+        for(int v = half; v < count - half; ++v)
+        {
+            double value = cumSum[v + 1] - cumSum[v];
+            double neighbourSum = cumSum[v + half + 1] - cumSum[v - half] - value;
+            deviations[v] = Math.abs(value - neighbourSum / (2 * half));
+        }
+
+        return deviations;
+    }
+
+    private static void markOutliers(final double[] outliers, final boolean[] candidates)
+    {
+        // the most outlying values can form their own segments, so are bracketed by breakpoints
+        int count = outliers.length;
+        int half = OUTLIER_HALF_WINDOW;
+
+        if(count <= 2 * half)
+            return;
+
+        double limit = quantile(Arrays.copyOfRange(outliers, half, count - half), 1 - OUTLIER_FRACTION);
+
+        for(int v = half; v < count - half; ++v)
+        {
+            if(outliers[v] > limit)
+            {
+                candidates[v] = true;
+                candidates[v + 1] = true;
+            }
+        }
+    }
+
+    private int[] fitCandidates(final double[] cumSum, final boolean[] candidates, int start, int end, double penalty)
+    {
+        // PottsCompact: values between candidate breakpoints are compacted into blocks and the blocks fitted, with the minimum segment
+        // length only applied to the last segment, as copynumber does; returns the end of each segment
+        int blockCount = 0;
+        int[] blockEnds = new int[end - start + 1];
+        blockEnds[blockCount++] = start;
+
+        for(int i = start + 1; i < end; ++i)
+        {
+            if(candidates[i])
+                blockEnds[blockCount++] = i;
+        }
+
+        blockEnds[blockCount] = end;
+
+        if(end - start < 2 * mKmin || blockCount == 1)
+            return new int[] { end };
+
+        // indexed by the number of blocks covered
+        double[] bestCost = new double[blockCount + 1];
+        int[] bestSplit = new int[blockCount + 1];
+
+        bestCost[1] = blockCost(cumSum, blockEnds, 0, 1);
+
+        int blocks = 2;
+
+        while(blocks <= blockCount && blockEnds[blocks] - start < 2 * mKmin)
+        {
+            bestCost[blocks] = blockCost(cumSum, blockEnds, 0, blocks);
+            ++blocks;
+        }
+
+        for(; blocks <= blockCount; ++blocks)
+        {
+            int lastSplit = blocks - 1;
+
+            while(lastSplit > 1 && blockEnds[blocks] - blockEnds[lastSplit] < mKmin)
+            {
+                --lastSplit;
+            }
+
+            double minCost = 0;
+            int minSplit = -1;
+
+            for(int split = 1; split <= lastSplit; ++split)
+            {
+                double cost = bestCost[split] + blockCost(cumSum, blockEnds, split, blocks);
+
+                if(minSplit < 0 || cost < minCost)
+                {
+                    minCost = cost;
+                    minSplit = split;
+                }
+            }
+
+            minCost += penalty;
+
+            double totalCost = blockCost(cumSum, blockEnds, 0, blocks);
+
+            if(totalCost < minCost)
+            {
+                minCost = totalCost;
+                minSplit = 0;
+            }
+
+            bestCost[blocks] = minCost;
+            bestSplit[blocks] = minSplit;
+        }
+
+        int segmentCount = 0;
+
+        for(int b = blockCount; b > 0; b = bestSplit[b])
+        {
+            ++segmentCount;
+        }
+
+        int[] segmentEnds = new int[segmentCount];
+
+        for(int b = blockCount; b > 0; b = bestSplit[b])
+        {
+            segmentEnds[--segmentCount] = blockEnds[b];
+        }
+
+        return segmentEnds;
+    }
+
+    private static double blockCost(final double[] cumSum, final int[] blockEnds, int startBlock, int endBlock)
+    {
+        // the sum of squares less its constant term, as PottsCompact works from block sums alone
+        int start = blockEnds[startBlock];
+        int end = blockEnds[endBlock];
+        double sum = cumSum[end] - cumSum[start];
+        return -sum * sum / (end - start);
+    }
+
+    private static double[] centredCumulativeSum(final double[] values)
+    {
+        // centring leaves the fit unchanged but limits rounding error in the cumulative sums
+        double mean = Arrays.stream(values).average().orElse(0);
+
+        double[] cumSum = new double[values.length + 1];
+
+        for(int i = 0; i < values.length; ++i)
+        {
+            cumSum[i + 1] = cumSum[i] + values[i] - mean;
+        }
+
+        return cumSum;
+    }
+
+    private static double quantile(final double[] values, double probability)
+    {
+        // R's default (type 7) quantile
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        double index = (sorted.length - 1) * probability;
+        int lower = (int)Math.floor(index);
+
+        if(lower >= sorted.length - 1)
+            return sorted[sorted.length - 1];
+
+        return sorted[lower] + (index - lower) * (sorted[lower + 1] - sorted[lower]);
+    }
+
+    private static double segmentCost(final double[] cumSum, final double[] cumSumSq, int start, int end)
+    {
+        double sum = cumSum[end] - cumSum[start];
+        return cumSumSq[end] - cumSumSq[start] - sum * sum / (end - start);
+    }
+
+    public static double residualSd(final double[] values)
+    {
+        // as copynumber's getMad: the MAD of the residuals from a running median, excluding zeros as likely imputed values
+        double[] nonZeroValues = Arrays.stream(values).filter(x -> x != 0).toArray();
+
+        if(nonZeroValues.length == 0)
+            return 0;
+
+        double[] runningMedian = runningMedian(nonZeroValues, MAD_HALF_WINDOW);
+
+        double[] residuals = new double[nonZeroValues.length];
+
+        for(int i = 0; i < residuals.length; ++i)
+        {
+            residuals[i] = nonZeroValues[i] - runningMedian[i];
+        }
+
+        double residualMedian = median(residuals);
+
+        for(int i = 0; i < residuals.length; ++i)
+        {
+            residuals[i] = Math.abs(residuals[i] - residualMedian);
+        }
+
+        return MAD_SCALE * median(residuals);
+    }
+
+    public static double[] runningMedian(final double[] values, int halfWindow)
+    {
+        // R's runmed with the 'median' end rule, with the window narrowed to fit as per copynumber's medianFilter
+        int count = values.length;
+        int width = 2 * halfWindow + 1;
+
+        if(width > count)
+            width = count % 2 == 0 ? count - 1 : count;
+
+        double[] result = values.clone();
+
+        if(width <= 1)
+            return result;
+
+        int half = width / 2;
+
+        double[] window = Arrays.copyOfRange(values, 0, width);
+        Arrays.sort(window);
+        result[half] = window[half];
+
+        for(int i = half + 1; i < count - half; ++i)
+        {
+            replaceSorted(window, values[i - half - 1], values[i + half]);
+            result[i] = window[half];
+        }
+
+        return smoothEnds(result, half);
+    }
+
+    private static void replaceSorted(final double[] window, double oldValue, double newValue)
+    {
+        int index = Arrays.binarySearch(window, oldValue);
+        window[index] = newValue;
+
+        while(index > 0 && window[index - 1] > window[index])
+        {
+            window[index] = window[index - 1];
+            window[--index] = newValue;
+        }
+
+        while(index < window.length - 1 && window[index + 1] < window[index])
+        {
+            window[index] = window[index + 1];
+            window[++index] = newValue;
+        }
+    }
+
+    private static double[] smoothEnds(final double[] values, int half)
+    {
+        // R's smoothEnds: medians of shrinking windows towards each end, then Tukey's end-point rule for the first and last values
+        int count = values.length;
+        double[] smoothed = values.clone();
+
+        if(half >= 2)
+        {
+            smoothed[1] = median3(values[0], values[1], values[2]);
+            smoothed[count - 2] = median3(values[count - 1], values[count - 2], values[count - 3]);
+
+            for(int i = 3; i <= half; ++i)
+            {
+                if(2 * i > count)
+                    break;
+
+                smoothed[i - 1] = median(Arrays.copyOfRange(values, 0, 2 * i - 1));
+                smoothed[count - i] = median(Arrays.copyOfRange(values, count - 2 * i + 1, count));
+            }
+        }
+
+        smoothed[0] = median3(values[0], smoothed[1], 3 * smoothed[1] - 2 * smoothed[2]);
+        smoothed[count - 1] = median3(values[count - 1], smoothed[count - 2], 3 * smoothed[count - 2] - 2 * smoothed[count - 3]);
+
+        return smoothed;
+    }
+
+    private static double median3(double a, double b, double c)
+    {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static double median(final double[] values)
+    {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) * 0.5;
+    }
+}
@@ -0,0 +1,487 @@
+package com.hartwig.hmftools.common.variant;
+
+import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.jetbrains.annotations.NotNull;
+
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.IOUtil;
+import htsjdk.tribble.AbstractFeatureReader;
+import htsjdk.tribble.TribbleException;
+import htsjdk.tribble.readers.LineIterator;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFCodec;
+import htsjdk.variant.vcf.VCFHeader;
+import htsjdk.variant.vcf.VCFHeaderVersion;
+
+// reads a VCF with BGZF block decompression and record decoding spread over a thread pool, returning the records in file order
+// one thread reads the raw blocks and another splits the decompressed data into batches of lines, with bounded queues between
+// each stage so memory use stays fixed however large the VCF is
+// with a single thread the records are read directly by htsjdk
+public class ParallelVcfReader implements Iterable<VariantContext>, AutoCloseable
+{
+    private static final int BATCH_LINE_COUNT = 1000;
+    private static final int CHUNK_SIZE = BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE;
+    private static final int PENDING_TASKS_PER_THREAD = 4;
+
+    private final String mVcfFile;
+    private final int mThreads;
+    private final VCFHeader mHeader;
+
+    private ExecutorService mExecutorService;
+    private final List<Thread> mStageThreads;
+    private AbstractFeatureReader<VariantContext,LineIterator> mSerialReader;
+    private boolean mIterated;
+    private volatile boolean mClosed;
+
+    public ParallelVcfReader(final String vcfFile, int threads)
+    {
+        mVcfFile = vcfFile;
+        mThreads = threads;
+        mExecutorService = null;
+        mStageThreads = Lists.newArrayList();
+        mSerialReader = null;
+        mIterated = false;
+        mClosed = false;
+
+        try(AbstractFeatureReader<VariantContext,LineIterator> reader = getFeatureReader(vcfFile, new VCFCodec(), false))
+        {
+            mHeader = (VCFHeader)reader.getHeader();
+        }
+        catch(IOException e)
+        {
+            throw new TribbleException("failed to read VCF header: " + vcfFile, e);
+        }
+    }
+
+    public VCFHeader getHeader() { return mHeader; }
+
+    // the records can only be iterated over once
+    @NotNull
+    @Override
+    public Iterator<VariantContext> iterator()
+    {
+        if(mIterated)
+            throw new IllegalStateException("VCF " + mVcfFile + " has already been read");
+
+        mIterated = true;
+
+        if(mThreads <= 1)
+            return serialIterator();
+
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("VcfReader-%d").setDaemon(true).build();
+        mExecutorService = Executors.newFixedThreadPool(mThreads, threadFactory);
+
+        int pendingTasks = mThreads * PENDING_TASKS_PER_THREAD;
+        BlockingQueue<Future<byte[]>> chunks = new ArrayBlockingQueue<>(pendingTasks);
+        BlockingQueue<Future<List<VariantContext>>> batches = new ArrayBlockingQueue<>(pendingTasks);
+
+        startStage("VcfBlockReader", () -> readChunks(chunks), chunks);
+        startStage("VcfLineSplitter", () -> splitLines(chunks, batches), batches);
+
+        return new BatchIterator(batches);
+    }
+
+    @Override
+    public void close()
+    {
+        mClosed = true;
+
+        mStageThreads.forEach(Thread::interrupt);
+
+        if(mExecutorService != null)
+            mExecutorService.shutdownNow();
+
+        if(mSerialReader != null)
+        {
+            try
+            {
+                mSerialReader.close();
+            }
+            catch(IOException e)
+            {
+                throw new TribbleException("failed to close VCF: " + mVcfFile, e);
+            }
+        }
+    }
+
+    private Iterator<VariantContext> serialIterator()
+    {
+        try
+        {
+            mSerialReader = getFeatureReader(mVcfFile, new VCFCodec(), false);
+            return mSerialReader.iterator();
+        }
+        catch(IOException e)
+        {
+            throw new TribbleException("failed to read VCF: " + mVcfFile, e);
+        }
+    }
+
+    private interface Stage
+    {
+        void run() throws Exception;
+    }
+
+    private <T> void startStage(final String name, final Stage stage, final BlockingQueue<Future<T>> output)
+    {
+        Thread thread = new Thread(() ->
+        {
+            try
+            {
+                stage.run();
+            }
+            catch(InterruptedException e)
+            {
+                // reader has been closed
+            }
+            catch(Exception e)
+            {
+                // hand the error on to whichever stage or consumer reads from this one
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                output.clear();
+                output.offer(failed);
+            }
+        }, name);
+
+        thread.setDaemon(true);
+        mStageThreads.add(thread);
+        thread.start();
+    }
+
+    private void readChunks(final BlockingQueue<Future<byte[]>> chunks) throws Exception
+    {
+        if(IOUtil.isBlockCompressed(Paths.get(mVcfFile)))
+        {
+            try(DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(mVcfFile))))
+            {
+                byte[] block;
+                while(!mClosed && (block = readBlock(inputStream)) != null)
+                {
+                    final byte[] compressedBlock = block;
+                    chunks.put(mExecutorService.submit(() -> inflateBlock(compressedBlock)));
+                }
+            }
+        }
+        else
+        {
+            // plain text or non-blocked gzip can only be read sequentially
+            try(InputStream inputStream = openStream())
+            {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int length;
+                while(!mClosed && (length = inputStream.readNBytes(chunk, 0, chunk.length)) > 0)
+                {
+                    chunks.put(CompletableFuture.completedFuture(Arrays.copyOf(chunk, length)));
+                }
+            }
+        }
+
+        chunks.put(CompletableFuture.completedFuture(null));
+    }
+
+    private InputStream openStream() throws IOException
+    {
+        InputStream inputStream = new FileInputStream(mVcfFile);
+        return mVcfFile.endsWith(".gz") ? new GZIPInputStream(inputStream, CHUNK_SIZE) : inputStream;
+    }
+
+    private static byte[] readBlock(final DataInputStream inputStream) throws IOException
+    {
+        byte[] header = new byte[BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH];
+
+        try
+        {
+            inputStream.readFully(header);
+        }
+        catch(EOFException e)
+        {
+            return null;
+        }
+
+        if(header[0] != BlockCompressedStreamConstants.GZIP_ID1 || (header[1] & 0xFF) != BlockCompressedStreamConstants.GZIP_ID2)
+            throw new IOException("invalid BGZF block header");
+
+        int blockSize = unpackInt16(header, BlockCompressedStreamConstants.BLOCK_LENGTH_OFFSET) + 1;
+
+        byte[] block = Arrays.copyOf(header, blockSize);
+        inputStream.readFully(block, header.length, blockSize - header.length);
+        return block;
+    }
+
+    private static byte[] inflateBlock(final byte[] block) throws DataFormatException
+    {
+        int dataOffset = BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH;
+        int dataLength = block.length - dataOffset - BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+        int uncompressedLength = unpackInt32(block, block.length - 4);
+
+        byte[] data = new byte[uncompressedLength];
+
+        Inflater inflater = new Inflater(true);
+
+        try
+        {
+            inflater.setInput(block, dataOffset, dataLength);
+
+            int inflatedLength = 0;
+            while(inflatedLength < uncompressedLength && !inflater.finished())
+            {
+                inflatedLength += inflater.inflate(data, inflatedLength, uncompressedLength - inflatedLength);
+            }
+
+            if(inflatedLength != uncompressedLength)
+                throw new DataFormatException("BGZF block inflated to " + inflatedLength + " bytes, expected " + uncompressedLength);
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        return data;
+    }
+
+    private static int unpackInt16(final byte[] buffer, int offset)
+    {
+        return (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8);
+    }
+
+    private static int unpackInt32(final byte[] buffer, int offset)
+    {
+        return (buffer[offset] & 0xFF) | ((buffer[offset + 1] & 0xFF) << 8)
+                | ((buffer[offset + 2] & 0xFF) << 16) | ((buffer[offset + 3] & 0xFF) << 24);
+    }
+
+    private void splitLines(
+            final BlockingQueue<Future<byte[]>> chunks, final BlockingQueue<Future<List<VariantContext>>> batches) throws Exception
+    {
+        final ThreadLocal<VCFCodec> codecs = ThreadLocal.withInitial(this::createCodec);
+
+        LineBuffer partialLine = new LineBuffer();
+        List<String> lines = Lists.newArrayListWithCapacity(BATCH_LINE_COUNT);
+
+        while(!mClosed)
+        {
+            byte[] chunk = nextChunk(chunks);
+
+            if(chunk == null)
+                break;
+
+            int lineStart = 0;
+
+            for(int i = 0; i < chunk.length; ++i)
+            {
+                if(chunk[i] != '\n')
+                    continue;
+
+                String line;
+                if(partialLine.isEmpty())
+                {
+                    line = toLine(chunk, lineStart, i - lineStart);
+                }
+                else
+                {
+                    partialLine.append(chunk, lineStart, i - lineStart);
+                    line = partialLine.toLine();
+                    partialLine.clear();
+                }
+
+                lineStart = i + 1;
+
+                if(line.isEmpty() || line.charAt(0) == '#')
+                    continue;
+
+                lines.add(line);
+
+                if(lines.size() == BATCH_LINE_COUNT)
+                {
+                    batches.put(submitBatch(lines, codecs));
+                    lines = Lists.newArrayListWithCapacity(BATCH_LINE_COUNT);
+                }
+            }
+
+            partialLine.append(chunk, lineStart, chunk.length - lineStart);
+        }
+
+        if(!partialLine.isEmpty())
+        {
+            String line = partialLine.toLine();
+
+            if(!line.isEmpty() && line.charAt(0) != '#')
+                lines.add(line);
+        }
+
+        if(!lines.isEmpty())
+            batches.put(submitBatch(lines, codecs));
+
+        batches.put(CompletableFuture.completedFuture(null));
+    }
+
+    private static byte[] nextChunk(final BlockingQueue<Future<byte[]>> chunks) throws Exception
+    {
+        try
+        {
+            return chunks.take().get();
+        }
+        catch(ExecutionException e)
+        {
+            throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+        }
+    }
+
+    private Future<List<VariantContext>> submitBatch(final List<String> lines, final ThreadLocal<VCFCodec> codecs)
+    {
+        return mExecutorService.submit(() ->
+        {
+            VCFCodec codec = codecs.get();
+            List<VariantContext> variants = Lists.newArrayListWithCapacity(lines.size());
+
+            for(String line : lines)
+            {
+                VariantContext variant = codec.decode(line);
+
+                // the lazy genotype parser shares the codec's buffers so must run on this thread, not the consumer's
+                GenotypesContext genotypes = variant.getGenotypes();
+                if(genotypes instanceof LazyGenotypesContext)
+                    ((LazyGenotypesContext)genotypes).decode();
+
+                variants.add(variant);
+            }
+
+            return variants;
+        });
+    }
+
+    private VCFCodec createCodec()
+    {
+        VCFCodec codec = new VCFCodec();
+        VCFHeaderVersion version = mHeader.getVCFHeaderVersion() != null ? mHeader.getVCFHeaderVersion() : VCFHeaderVersion.VCF4_2;
+        codec.setVCFHeader(mHeader, version);
+        return codec;
+    }
+
+    private static String toLine(final byte[] data, int offset, int length)
+    {
+        if(length > 0 && data[offset + length - 1] == '\r')
+            --length;
+
+        return new String(data, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static class LineBuffer
+    {
+        private byte[] mData = new byte[256];
+        private int mLength = 0;
+
+        public boolean isEmpty() { return mLength == 0; }
+
+        public void append(final byte[] data, int offset, int length)
+        {
+            if(mLength + length > mData.length)
+                mData = Arrays.copyOf(mData, Math.max(mData.length * 2, mLength + length));
+
+            System.arraycopy(data, offset, mData, mLength, length);
+            mLength += length;
+        }
+
+        public String toLine() { return ParallelVcfReader.toLine(mData, 0, mLength); }
+
+        public void clear() { mLength = 0; }
+    }
+
+    private class BatchIterator implements Iterator<VariantContext>
+    {
+        private final BlockingQueue<Future<List<VariantContext>>> mBatches;
+        private List<VariantContext> mCurrentBatch;
+        private int mIndex;
+        private boolean mFinished;
+
+        public BatchIterator(final BlockingQueue<Future<List<VariantContext>>> batches)
+        {
+            mBatches = batches;
+            mCurrentBatch = Collections.emptyList();
+            mIndex = 0;
+            mFinished = false;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            while(!mFinished && mIndex >= mCurrentBatch.size())
+            {
+                List<VariantContext> batch = nextBatch();
+
+                if(batch == null)
+                {
+                    mFinished = true;
+                    close();
+                }
+                else
+                {
+                    mCurrentBatch = batch;
+                    mIndex = 0;
+                }
+            }
+
+            return !mFinished;
+        }
+
+        @Override
+        public VariantContext next()
+        {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            return mCurrentBatch.get(mIndex++);
+        }
+
+        private List<VariantContext> nextBatch()
+        {
+            try
+            {
+                return mBatches.take().get();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                close();
+                throw new TribbleException("interrupted reading VCF: " + mVcfFile);
+            }
+            catch(ExecutionException e)
+            {
+                close();
+                throw new TribbleException("failed to read VCF: " + mVcfFile, e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hartwig.hmftools.common.genome.gc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.google.common.collect.Multimap;
+import com.google.common.io.Resources;
+import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore.ChromosomeGCProfile;
+
+import org.junit.Test;
+
+public class GCProfileStoreTest
+{
+    private static final String GC_PROFILE_PATH = Resources.getResource("gc/GC_profile.1000bp.cnp").getPath();
+
+    @Test
+    public void testMatchesGcProfiles() throws IOException
+    {
+        final Multimap<Chromosome,GCProfile> gcProfiles = GCProfileFactory.loadGCContent(1000, GC_PROFILE_PATH);
+        final GCProfileStore store = GCProfileStore.loadText(1000, GC_PROFILE_PATH);
+
+        assertEquals(gcProfiles.size(), store.windowCount());
+        assertProfilesMatch(gcProfiles, store);
+
+        File binaryFile = File.createTempFile("gc_profile_test", GCProfileStore.BINARY_FILE_EXTENSION);
+        binaryFile.deleteOnExit();
+
+        store.writeBinary(binaryFile.getPath());
+
+        final GCProfileStore binaryStore = GCProfileStore.loadBinary(binaryFile.getPath());
+
+        assertEquals(1000, binaryStore.WindowSize);
+        assertEquals(gcProfiles.size(), binaryStore.windowCount());
+        assertProfilesMatch(gcProfiles, binaryStore);
+    }
+
+    private static void assertProfilesMatch(final Multimap<Chromosome,GCProfile> gcProfiles, final GCProfileStore store)
+    {
+        for(GCProfile gcProfile : gcProfiles.values())
+        {
+            ChromosomeGCProfile chrProfile = store.chromosome(gcProfile.chromosome());
+            assertNotNull(chrProfile);
+
+            int windowIndex = chrProfile.windowIndex(gcProfile.start());
+            assertEquals(windowIndex, chrProfile.windowIndex(gcProfile.end()));
+            assertTrue(chrProfile.hasWindow(windowIndex));
+
+            assertEquals(gcProfile.start(), chrProfile.windowStart(windowIndex));
+            assertEquals(gcProfile.end(), chrProfile.windowEnd(windowIndex));
+            assertEquals(gcProfile.gcContent(), chrProfile.gcContent(windowIndex), 0);
+            assertEquals(gcProfile.nonNPercentage(), chrProfile.nonNPercentage(windowIndex), 0);
+            assertEquals(gcProfile.mappablePercentage(), chrProfile.mappablePercentage(windowIndex), 0);
+            assertEquals(gcProfile.isMappable(), chrProfile.isMappable(windowIndex));
+        }
+
+        ChromosomeGCProfile chrProfile = store.chromosome("2");
+        assertFalse(chrProfile.hasWindow(-1));
+        assertFalse(chrProfile.hasWindow(chrProfile.windowCount()));
+    }
+}
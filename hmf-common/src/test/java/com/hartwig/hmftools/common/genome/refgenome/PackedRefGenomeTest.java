@@ -0,0 +1,119 @@
+package com.hartwig.hmftools.common.genome.refgenome;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+public class PackedRefGenomeTest
+{
+    @Test
+    public void testPackedRefGenome() throws IOException
+    {
+        // sequences with Ns, soft-masked and ambiguous bases and lengths which don't fill the last packed byte
+        Random random = new Random(42);
+        String bases = "ACGTacgtNnRY";
+
+        List<String> names = Lists.newArrayList("1", "2", "X");
+        List<String> sequences = Lists.newArrayList();
+
+        for(int length : new int[] { 1003, 250, 17 })
+        {
+            StringBuilder sb = new StringBuilder();
+
+            for(int i = 0; i < length; ++i)
+            {
+                // runs of the same base so blocks span several positions
+                char base = bases.charAt(random.nextInt(bases.length()));
+                int runLength = 1 + random.nextInt(6);
+
+                for(int j = 0; j < runLength && sb.length() < length; ++j)
+                {
+                    sb.append(base);
+                }
+
+                i = sb.length() - 1;
+            }
+
+            sequences.add(sb.toString());
+        }
+
+        File fastaFile = File.createTempFile("packed_ref_genome_test", ".fasta");
+        File indexFile = new File(fastaFile.getPath() + ".fai");
+        File packedFile = File.createTempFile("packed_ref_genome_test", PackedRefGenome.PACKED_REF_GENOME_EXTENSION);
+        fastaFile.deleteOnExit();
+        indexFile.deleteOnExit();
+        packedFile.deleteOnExit();
+
+        int lineBases = 60;
+        long offset = 0;
+
+        try(BufferedWriter fastaWriter = new BufferedWriter(new FileWriter(fastaFile));
+                BufferedWriter indexWriter = new BufferedWriter(new FileWriter(indexFile)))
+        {
+            for(int s = 0; s < names.size(); ++s)
+            {
+                String header = ">" + names.get(s) + "\n";
+                String sequence = sequences.get(s);
+
+                fastaWriter.write(header);
+                offset += header.length();
+
+                indexWriter.write(String.format("%s\t%d\t%d\t%d\t%d\n", names.get(s), sequence.length(), offset, lineBases, lineBases + 1));
+
+                for(int i = 0; i < sequence.length(); i += lineBases)
+                {
+                    String line = sequence.substring(i, Math.min(i + lineBases, sequence.length())) + "\n";
+                    fastaWriter.write(line);
+                    offset += line.length();
+                }
+            }
+        }
+
+        assertTrue(PackedRefGenome.convertFasta(fastaFile.getPath(), packedFile.getPath()));
+
+        RefGenomeInterface refGenome = RefGenomeSource.loadRefGenome(packedFile.getPath());
+        assertNotNull(refGenome);
+        assertTrue(refGenome instanceof PackedRefGenome);
+        assertSame(refGenome, RefGenomeSource.loadRefGenome(packedFile.getPath()));
+
+        for(int s = 0; s < names.size(); ++s)
+        {
+            String chromosome = names.get(s);
+
+            // ambiguity codes other than N are held as N
+            String expected = sequences.get(s).replace('R', 'N').replace('Y', 'N');
+
+            assertEquals(expected.length(), refGenome.getChromosomeLength(chromosome));
+            assertEquals(expected, refGenome.getBaseString(chromosome, 1, expected.length()));
+
+            for(int i = 0; i < 200; ++i)
+            {
+                int posStart = 1 + random.nextInt(expected.length());
+                int posEnd = Math.min(posStart + random.nextInt(40), expected.length());
+
+                assertEquals(expected.substring(posStart - 1, posEnd), refGenome.getBaseString(chromosome, posStart, posEnd));
+            }
+        }
+
+        byte[] buffer = new byte[10];
+        assertEquals(5, refGenome.getBases("1", 11, 15, buffer, 3));
+        assertEquals(sequences.get(0).substring(10, 15).replace('R', 'N').replace('Y', 'N'), new String(buffer, 3, 5));
+
+        List<int[]> baseRanges = Lists.newArrayList(new int[] { 1, 4 }, new int[] { 20, 25 });
+        assertEquals(
+                refGenome.getBaseString("2", 1, 4) + refGenome.getBaseString("2", 20, 25),
+                refGenome.getBaseString("2", baseRanges));
+    }
+}
@@ -0,0 +1,162 @@
+package com.hartwig.hmftools.common.sigs;
+
+import static com.hartwig.hmftools.common.sigs.SigUtils.calculateFittedCounts;
+import static com.hartwig.hmftools.common.utils.VectorUtils.sumVector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import com.hartwig.hmftools.common.utils.Matrix;
+
+import org.junit.Test;
+
+public class SigFitTest
+{
+    @Test
+    public void testColumnMajorData()
+    {
+        Matrix matrix = new Matrix(3, 2);
+        matrix.setCol(0, new double[] { 1, 2, 3 });
+        matrix.setCol(1, new double[] { 4, 5, 6 });
+
+        double[] expected = { 1, 2, 3, 4, 5, 6 };
+        double[] columnMajor = matrix.getColumnMajorData();
+        assertArrayEquals(expected, columnMajor);
+
+        // the layout follows changes made directly through getData() and the setters, while a copy taken earlier is left as it was
+        matrix.getData()[1][0] = 8;
+        matrix.set(2, 1, 7);
+        assertArrayEquals(new double[] { 1, 8, 3, 4, 5, 7 }, matrix.getColumnMajorData());
+        assertArrayEquals(expected, columnMajor);
+        assertNotSame(matrix.getColumnMajorData(), matrix.getColumnMajorData());
+
+        // a fit uses the definitions as they are when it runs
+        Matrix sigs = new Matrix(2, 2);
+        sigs.setCol(0, new double[] { 1, 0 });
+        sigs.setCol(1, new double[] { 0, 1 });
+
+        sigs.getData()[0][0] = 0;
+        sigs.getData()[0][1] = 1;
+        sigs.getData()[1][0] = 1;
+        sigs.getData()[1][1] = 0;
+
+        double[] allocations = ExpectationMaxFit.performFit(new double[] { 10, 30 }, sigs);
+        assertEquals(30, allocations[0], 0.01);
+        assertEquals(10, allocations[1], 0.01);
+    }
+
+    @Test
+    public void testExpectationMaxFit()
+    {
+        Matrix sigs = new Matrix(3, 2);
+        sigs.setCol(0, new double[] { 0.2, 0.8, 0 });
+        sigs.setCol(1, new double[] { 0.4, 0, 0.6 });
+
+        double[] allocations = ExpectationMaxFit.performFit(new double[] { 5, 4, 6 }, sigs);
+        assertEquals(5.002, allocations[0], 0.001);
+        assertEquals(9.998, allocations[1], 0.001);
+
+        // a zero total has nothing to allocate
+        allocations = ExpectationMaxFit.performFit(new double[] { 0, 0, 0 }, sigs);
+        assertEquals(0, sumVector(allocations), 1e-10);
+    }
+
+    @Test
+    public void testExpectationMaxFitRecoversPlantedAllocations()
+    {
+        Random random = new Random(1);
+
+        int categoryCount = 96;
+        int sigCount = 8;
+
+        Matrix sigs = randomSignatures(random, categoryCount, sigCount);
+
+        double[] planted = new double[sigCount];
+
+        for(int s = 0; s < sigCount; ++s)
+        {
+            planted[s] = random.nextInt(3) == 0 ? 0 : random.nextDouble() * 1000;
+        }
+
+        double[] counts = calculateFittedCounts(sigs, planted);
+
+        double[] allocations = ExpectationMaxFit.performFit(counts, sigs.getColumnMajorData(), categoryCount, sigCount, 0.0001, 1000);
+        double[] fittedCounts = calculateFittedCounts(sigs, allocations);
+
+        assertEquals(sumVector(counts), sumVector(allocations), 0.01 * sumVector(counts));
+
+        SigResiduals residuals = SigUtils.calcResiduals(counts, fittedCounts, sumVector(counts));
+        assertEquals(0, residuals.Percent, 0.01);
+
+        // a differently sized fit on the same thread shares the same workspace
+        Matrix smallSigs = randomSignatures(random, 10, 3);
+        double[] smallCounts = calculateFittedCounts(smallSigs, new double[] { 10, 20, 30 });
+        assertEquals(60, sumVector(ExpectationMaxFit.performFit(smallCounts, smallSigs, 0.0001, 1000)), 0.5);
+    }
+
+    @Test
+    public void testLeastSquaresFit()
+    {
+        Random random = new Random(2);
+
+        int categoryCount = 96;
+        int sigCount = 8;
+
+        Matrix sigs = randomSignatures(random, categoryCount, sigCount);
+
+        double[] planted = { 100, 0, 250, 0, 40, 0, 0, 500 };
+        double[] counts = calculateFittedCounts(sigs, planted);
+
+        LeastSquaresFit lsqFit = LeastSquaresFit.forThread(categoryCount, sigCount);
+        assertSame(lsqFit, LeastSquaresFit.forThread(categoryCount, sigCount));
+
+        // refitting with the same fitter starts from the inputs each time
+        for(int i = 0; i < 2; ++i)
+        {
+            lsqFit.initialise(sigs.getData(), counts);
+            lsqFit.solve();
+
+            assertArrayEquals(planted, lsqFit.getContribs(), 1e-6);
+        }
+
+        assertNotSame(lsqFit, LeastSquaresFit.forThread(categoryCount, sigCount - 1));
+    }
+
+    private static Matrix randomSignatures(final Random random, int categoryCount, int sigCount)
+    {
+        Matrix sigs = new Matrix(categoryCount, sigCount);
+
+        for(int s = 0; s < sigCount; ++s)
+        {
+            double[] ratios = new double[categoryCount];
+
+            for(int c = 0; c < categoryCount; ++c)
+            {
+                ratios[c] = random.nextDouble();
+            }
+
+            SigUtils.convertToPercentages(ratios);
+            sigs.setCol(s, ratios);
+        }
+
+        return sigs;
+    }
+
+    private static void assertArrayEquals(final double[] expected, final double[] actual)
+    {
+        assertArrayEquals(expected, actual, 1e-10);
+    }
+
+    private static void assertArrayEquals(final double[] expected, final double[] actual, double epsilon)
+    {
+        assertEquals(expected.length, actual.length);
+
+        for(int i = 0; i < expected.length; ++i)
+        {
+            assertEquals(expected[i], actual[i], epsilon * Math.max(1, Math.abs(expected[i])));
+        }
+    }
+}
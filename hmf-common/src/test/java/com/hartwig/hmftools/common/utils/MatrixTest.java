@@ -1,5 +1,16 @@
 package com.hartwig.hmftools.common.utils;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
 import org.junit.Test;
 
 public class MatrixTest
@@ -27,4 +38,50 @@ public class MatrixTest
         // assertTrue(NmfRun.signaturesEqual(matrix1, matrix2));
     }
 
+    @Test
+    public void testBinaryMatrixFile() throws IOException
+    {
+        File file = File.createTempFile("matrix_test", BinaryMatrixFile.BINARY_MATRIX_FILE_EXTENSION);
+        file.deleteOnExit();
+
+        List<String[]> rowLabels = Lists.newArrayList(
+                new String[] { "ENSG01", "GENE1" }, new String[] { "ENSG02", "GENE2" }, new String[] { "ENSG03", "GENE3" });
+
+        List<double[]> columns = Lists.newArrayList(new double[] { 1, 2, 3 }, new double[] { 0, 0.5, 1000.25 });
+
+        BinaryMatrixFile.write(
+                file.getPath(), Lists.newArrayList("GeneId", "GeneName"), rowLabels, Lists.newArrayList("SAMPLE1", "SAMPLE2"), columns);
+
+        assertTrue(BinaryMatrixFile.isBinaryMatrixFile(file.getPath()));
+
+        BinaryMatrixFile matrixFile = BinaryMatrixFile.load(file.getPath());
+        assertNotNull(matrixFile);
+
+        assertEquals(3, matrixFile.Rows);
+        assertEquals(2, matrixFile.Cols);
+        assertEquals(Lists.newArrayList("ENSG01", "ENSG02", "ENSG03"), matrixFile.rowLabels("GeneId"));
+        assertEquals("GENE3", matrixFile.rowLabels("GeneName").get(2));
+        assertNull(matrixFile.rowLabels("TransName"));
+        assertEquals(1, (int)matrixFile.columnIndexMap().get("SAMPLE2"));
+
+        assertEquals(2, matrixFile.get(1, 0), 1e-10);
+        assertEquals(1000.25, matrixFile.get(2, 1), 1e-10);
+
+        double[] column = new double[3];
+        matrixFile.getColumn(1, column);
+        assertEquals(1000.25, column[2], 1e-10);
+
+        double[] row = new double[2];
+        matrixFile.getRow(1, row);
+        assertEquals(2, row[0], 1e-10);
+        assertEquals(0.5, row[1], 1e-10);
+
+        Matrix matrix = matrixFile.toMatrix(false);
+        assertEquals(3, matrix.Rows);
+        assertEquals(0.5, matrix.get(1, 1), 1e-10);
+
+        Matrix transposed = matrixFile.toMatrix(true);
+        assertEquals(2, transposed.Rows);
+        assertEquals(3, transposed.get(0, 2), 1e-10);
+    }
 }
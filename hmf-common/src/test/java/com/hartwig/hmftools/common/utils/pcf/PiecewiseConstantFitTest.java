@@ -0,0 +1,328 @@
+package com.hartwig.hmftools.common.utils.pcf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.io.Resources;
+import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
+import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
+import com.hartwig.hmftools.common.genome.region.GenomeRegion;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class PiecewiseConstantFitTest
+{
+    @Test
+    public void testMatchesExactPcf()
+    {
+        // pruning must not change the segmentation found by copynumber's exactPcf, ported below
+        Random random = new Random(7);
+
+        for(int kmin : new int[] { 1, 3, 5 })
+        {
+            PiecewiseConstantFit fit = new PiecewiseConstantFit(kmin);
+
+            for(int test = 0; test < 50; ++test)
+            {
+                double[] values = randomSteps(random, 20 + random.nextInt(400));
+                double penalty = 0.5 + random.nextDouble() * 20;
+
+                assertArrayEquals(exactPcf(values, kmin, penalty), fit.segmentStarts(values, penalty));
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentation()
+    {
+        PiecewiseConstantFit fit = new PiecewiseConstantFit(1);
+
+        double[] values = { 1, 1.1, 0.9, 1, 3, 3.1, 2.9, 3, 3, 1, 1 };
+        assertArrayEquals(new int[] { 0, 4, 9 }, fit.segmentStarts(values, 1));
+        assertArrayEquals(new int[] { 0 }, fit.segmentStarts(values, 100));
+
+        // segments no shorter than kmin
+        assertArrayEquals(new int[] { 0, 4, 8 }, new PiecewiseConstantFit(3).segmentStarts(values, 1));
+
+        assertArrayEquals(new int[] { 0 }, fit.segmentStarts(new double[] { 2 }, 1));
+        assertArrayEquals(new int[0], fit.segmentStarts(new double[0], 1));
+    }
+
+    @Test
+    public void testFastFit()
+    {
+        PiecewiseConstantFit exactFit = new PiecewiseConstantFit(1);
+        PiecewiseConstantFit fastFit = new PiecewiseConstantFit(1, true);
+
+        Random random = new Random(11);
+
+        // clear steps are found by both the fast fit and the windowed fit used for the longest inputs
+        for(int count : new int[] { 999, 3000, 40000 })
+        {
+            double[] values = new double[count];
+
+            for(int i = 0; i < count; ++i)
+            {
+                double level = i < count / 3 ? 0 : (i < count / 2 ? 2 : (i < count - 10 ? -1 : 3));
+                values[i] = level + random.nextGaussian() * 0.2;
+            }
+
+            int[] expectedStarts = { 0, count / 3, count / 2, count - 10 };
+
+            assertArrayEquals(expectedStarts, exactFit.segmentStarts(values, 5));
+            assertArrayEquals(expectedStarts, fastFit.segmentStarts(values, 5));
+        }
+
+        // short inputs still use the exact fit
+        for(int test = 0; test < 20; ++test)
+        {
+            double[] values = randomSteps(random, 20 + random.nextInt(900));
+            assertArrayEquals(exactFit.segmentStarts(values, 4), fastFit.segmentStarts(values, 4));
+        }
+
+        // the fast fit's breakpoints are a near match for the exact fit on noisier data
+        double[] values = randomSteps(random, 5000);
+        int[] exactStarts = exactFit.segmentStarts(values, 20);
+        int[] fastStarts = fastFit.segmentStarts(values, 20);
+
+        assertEquals(exactStarts.length, fastStarts.length, 2);
+    }
+
+    @Test
+    public void testRunningMedian()
+    {
+        // as R's runmed(x, 5, endrule = "median")
+        double[] values = { 1, 5, 2, 8, 3, 9, 4, 7, 6 };
+        assertArrayEquals(new double[] { 3, 3, 3, 5, 4, 7, 6, 6, 6 }, PiecewiseConstantFit.runningMedian(values, 2), 1e-10);
+
+        // the window narrows to fit short inputs
+        assertArrayEquals(new double[] { 2, 2, 2 }, PiecewiseConstantFit.runningMedian(new double[] { 1, 3, 2 }, 25), 1e-10);
+        assertArrayEquals(new double[] { 4, 1 }, PiecewiseConstantFit.runningMedian(new double[] { 4, 1 }, 25), 1e-10);
+
+        // zeros are excluded and the residuals of a constant are nil
+        assertEquals(0, PiecewiseConstantFit.residualSd(new double[] { 0, 2, 2, 2, 0, 2, 2 }), 1e-10);
+    }
+
+    @Test
+    public void testSegmenter() throws IOException
+    {
+        PCFSegmenter segmenter = new PCFSegmenter("S1", 1, 1);
+
+        // chromosome 2's arms split at its centromere, with chromosome 1 added last but written first
+        for(int i = 0; i < 20; ++i)
+        {
+            segmenter.addValue("2", 1000 * i + 1, i < 10 ? 0.2 + 0.1 * (i % 2) : 2 + 0.1 * (i % 2));
+        }
+
+        segmenter.addValue("2", 100000001, 1);
+        segmenter.addValue("2", 100001001, Double.NaN);
+        segmenter.addValue("2", 100002001, 1);
+        segmenter.addValue("1", 1, 0.5);
+        segmenter.addValue("GL000191.1", 1, 0.5);
+        segmenter.addValue("X", 1, 0.8);
+        segmenter.addValue("Y", 1, 0.4);
+
+        List<Callable> tasks = Lists.newArrayList(segmenter.createTasks());
+        assertEquals(5, tasks.size());
+        TaskExecutor.executeTasks(tasks, 2);
+
+        File pcfFile = File.createTempFile("pcf_segmenter_test", ".pcf");
+        pcfFile.deleteOnExit();
+        segmenter.write(pcfFile.getPath());
+
+        List<String> lines = Files.readAllLines(pcfFile.toPath());
+        assertEquals("sampleID\tchrom\tarm\tstart.pos\tend.pos\tn.probes\tmean", lines.get(0));
+        assertEquals("S1\t1\tp\t1\t1\t1\t0.5", lines.get(1));
+        assertEquals("S1\t2\tp\t1\t9001\t10\t0.25", lines.get(2));
+        assertEquals("S1\t2\tp\t10001\t19001\t10\t2.05", lines.get(3));
+        assertEquals("S1\t2\tq\t100000001\t100002001\t2\t1", lines.get(4));
+
+        // the sex chromosomes are numbered as pcf writes them, so readers skip them as before
+        assertEquals("S1\t23\tp\t1\t1\t1\t0.8", lines.get(5));
+        assertEquals("S1\t24\tp\t1\t1\t1\t0.4", lines.get(6));
+        assertEquals(7, lines.size());
+
+        Multimap<String,GenomeRegion> regions = PCFFile.read(1000, pcfFile.getPath());
+        assertEquals(3, regions.get("2").size());
+
+        ListMultimap<Chromosome,PCFPosition> positions = PCFFile.readPositions(1000, PCFSource.TUMOR_RATIO, pcfFile.getPath());
+        assertEquals(Sets.newHashSet(HumanChromosome._1, HumanChromosome._2), positions.keySet());
+    }
+
+    @Test
+    public void testFastFitOutliers()
+    {
+        PiecewiseConstantFit exactFit = new PiecewiseConstantFit(1);
+        PiecewiseConstantFit fastFit = new PiecewiseConstantFit(1, true);
+
+        Random random = new Random(13);
+        double[] values = new double[3000];
+
+        for(int i = 0; i < values.length; ++i)
+        {
+            values[i] = (i < 2000 ? 0 : 2) + random.nextGaussian() * 0.2;
+        }
+
+        // single outlying values are bracketed as their own segments, as is one beside a step
+        values[700] = 6;
+        values[1999] = -5;
+
+        int[] expectedStarts = { 0, 700, 701, 1999, 2000 };
+
+        assertArrayEquals(expectedStarts, exactFit.segmentStarts(values, 5));
+        assertArrayEquals(expectedStarts, fastFit.segmentStarts(values, 5));
+    }
+
+    @Test
+    public void testMatchesCopynumberFixtures() throws IOException
+    {
+        // the expected segments are written by copynumber's pcf through generate_fixtures.R, as the R scripts called it
+        String[] fixtures = { "ratio_fixture", "baf_fixture" };
+        String[] sampleIds = { "S1", "tumorModifiedBAF" };
+
+        for(String fixture : fixtures)
+        {
+            for(String fit : new String[] { "exact", "fast" })
+            {
+                Assume.assumeTrue("missing R-generated " + fixture + "_" + fit + ".pcf",
+                        PiecewiseConstantFitTest.class.getResource("/pcf/" + fixture + "_" + fit + ".pcf") != null);
+            }
+        }
+
+        for(int f = 0; f < fixtures.length; ++f)
+        {
+            for(boolean fast : new boolean[] { false, true })
+            {
+                String expectedFile = Resources.getResource("pcf/" + fixtures[f] + (fast ? "_fast" : "_exact") + ".pcf").getPath();
+                List<String> expectedLines = Files.readAllLines(new File(expectedFile).toPath());
+                List<String> lines = segmentFixture(Resources.getResource("pcf/" + fixtures[f] + ".tsv").getPath(), sampleIds[f], fast);
+
+                assertEquals(expectedFile, expectedLines.size(), lines.size());
+
+                for(int i = 0; i < lines.size(); ++i)
+                {
+                    String[] expectedValues = expectedLines.get(i).split("\t");
+                    String[] values = lines.get(i).split("\t");
+
+                    assertArrayEquals(expectedFile, Arrays.copyOf(expectedValues, 6), Arrays.copyOf(values, 6));
+
+                    if(i > 0)
+                        assertEquals(expectedFile, Double.parseDouble(expectedValues[6]), Double.parseDouble(values[6]), 1e-4);
+                }
+            }
+        }
+    }
+
+    private static List<String> segmentFixture(final String inputFile, final String sampleId, boolean fast) throws IOException
+    {
+        PCFSegmenter segmenter = new PCFSegmenter(sampleId, 100, 1, fast);
+
+        List<String> inputLines = Files.readAllLines(new File(inputFile).toPath());
+
+        for(String line : inputLines.subList(1, inputLines.size()))
+        {
+            String[] values = line.split("\t");
+            segmenter.addValue(values[0], Integer.parseInt(values[1]), Double.parseDouble(values[2]));
+        }
+
+        TaskExecutor.executeTasks(segmenter.createTasks(), 2);
+
+        File pcfFile = File.createTempFile("pcf_fixture_test", ".pcf");
+        pcfFile.deleteOnExit();
+        segmenter.write(pcfFile.getPath());
+
+        return Files.readAllLines(pcfFile.toPath());
+    }
+
+    private static double[] randomSteps(final Random random, int count)
+    {
+        double[] values = new double[count];
+        double level = 0;
+
+        for(int i = 0; i < count; ++i)
+        {
+            if(random.nextDouble() < 0.03)
+                level = random.nextGaussian() * 3;
+
+            values[i] = level + random.nextGaussian();
+        }
+
+        return values;
+    }
+
+    private static int[] exactPcf(final double[] y, int kmin, double gamma)
+    {
+        int n = y.length;
+
+        if(n < 2 * kmin)
+            return new int[] { 0 };
+
+        double[] bestCost = new double[n + 1];
+        int[] bestSplit = new int[n + 1];
+
+        for(int end = kmin; end <= n; ++end)
+        {
+            double minCost = Double.MAX_VALUE;
+            int minSplit = -1;
+
+            for(int split = kmin; split <= end - kmin; ++split)
+            {
+                double cost = bestCost[split] + segmentCost(y, split, end) + gamma;
+
+                if(cost < minCost)
+                {
+                    minCost = cost;
+                    minSplit = split;
+                }
+            }
+
+            double totalCost = segmentCost(y, 0, end);
+
+            if(minSplit < 0 || totalCost < minCost)
+            {
+                minCost = totalCost;
+                minSplit = 0;
+            }
+
+            bestCost[end] = minCost;
+            bestSplit[end] = minSplit;
+        }
+
+        List<Integer> starts = Lists.newArrayList();
+
+        for(int end = n; end > 0; end = bestSplit[end])
+        {
+            starts.add(0, bestSplit[end]);
+        }
+
+        return starts.stream().mapToInt(x -> x).toArray();
+    }
+
+    private static double segmentCost(final double[] y, int start, int end)
+    {
+        double sum = 0;
+        double sumSq = 0;
+
+        for(int i = start; i < end; ++i)
+        {
+            sum += y[i];
+            sumSq += y[i] * y[i];
+        }
+
+        return sumSq - sum * sum / (end - start);
+    }
+}
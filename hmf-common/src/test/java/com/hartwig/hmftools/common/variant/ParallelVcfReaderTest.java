@@ -0,0 +1,116 @@
+package com.hartwig.hmftools.common.variant;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+
+public class ParallelVcfReaderTest
+{
+    private static final String SAMPLE_ID = "TUMOR";
+
+    // enough records to span many BGZF blocks and decode batches
+    private static final int VARIANT_COUNT = 25000;
+
+    @Test
+    public void testPlainVcf() throws IOException
+    {
+        File vcf = File.createTempFile("parallel_reader", ".vcf");
+        vcf.deleteOnExit();
+
+        try(OutputStream outputStream = Files.newOutputStream(vcf.toPath()))
+        {
+            writeVcf(outputStream);
+        }
+
+        assertMatchesSerialReader(vcf);
+    }
+
+    @Test
+    public void testBlockCompressedVcf() throws IOException
+    {
+        File vcf = File.createTempFile("parallel_reader", ".vcf.gz");
+        vcf.deleteOnExit();
+
+        try(OutputStream outputStream = new BlockCompressedOutputStream(vcf))
+        {
+            writeVcf(outputStream);
+        }
+
+        assertMatchesSerialReader(vcf);
+    }
+
+    private static void assertMatchesSerialReader(@NotNull final File vcf)
+    {
+        List<VariantContext> expected = Lists.newArrayList();
+
+        try(VCFFileReader reader = new VCFFileReader(vcf, false))
+        {
+            reader.forEach(expected::add);
+        }
+
+        assertEquals(VARIANT_COUNT, expected.size());
+
+        for(int threads : new int[] { 1, 4 })
+        {
+            try(ParallelVcfReader reader = new ParallelVcfReader(vcf.getPath(), threads))
+            {
+                assertEquals(1, reader.getHeader().getNGenotypeSamples());
+
+                Iterator<VariantContext> iterator = reader.iterator();
+
+                for(VariantContext expectedVariant : expected)
+                {
+                    VariantContext variant = iterator.next();
+                    assertEquals(expectedVariant.getContig(), variant.getContig());
+                    assertEquals(expectedVariant.getStart(), variant.getStart());
+                    assertEquals(expectedVariant.getAlleles(), variant.getAlleles());
+                    assertEquals(expectedVariant.getFilters(), variant.getFilters());
+                    assertEquals(expectedVariant.getAttributes(), variant.getAttributes());
+                    assertArrayEquals(expectedVariant.getGenotype(SAMPLE_ID).getAD(), variant.getGenotype(SAMPLE_ID).getAD());
+                }
+
+                assertFalse(iterator.hasNext());
+            }
+        }
+    }
+
+    private static void writeVcf(@NotNull final OutputStream outputStream)
+    {
+        PrintStream writer = new PrintStream(outputStream);
+        writer.println("##fileformat=VCFv4.2");
+        writer.println("##FILTER=<ID=PON,Description=\"Panel of normals\">");
+        writer.println("##INFO=<ID=TNC,Number=1,Type=String,Description=\"Tri-nucleotide context\">");
+        writer.println("##FORMAT=<ID=GT,Number=1,Type=String,Description=\"Genotype\">");
+        writer.println("##FORMAT=<ID=AD,Number=R,Type=Integer,Description=\"Allelic depths\">");
+        writer.println("##contig=<ID=1,length=249250621>");
+        writer.println("##contig=<ID=2,length=243199373>");
+        writer.println("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\t" + SAMPLE_ID);
+
+        for(int i = 0; i < VARIANT_COUNT; ++i)
+        {
+            String chromosome = i < VARIANT_COUNT / 2 ? "1" : "2";
+            String filter = i % 10 == 0 ? "PON" : "PASS";
+            writer.println(String.format("%s\t%d\t.\tA\tG\t%d\t%s\tTNC=ACG\tGT:AD\t0/1:%d,%d",
+                    chromosome, 1000 + i * 10, i % 100, filter, 20 + i % 30, i % 25));
+        }
+
+        writer.flush();
+    }
+}
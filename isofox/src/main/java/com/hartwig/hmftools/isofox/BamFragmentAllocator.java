@@ -38,7 +38,6 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -56,9 +55,11 @@ import com.hartwig.hmftools.isofox.common.FragmentTracker;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.FragmentType;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
 import com.hartwig.hmftools.isofox.common.RegionMatchType;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
+import com.hartwig.hmftools.isofox.common.TransClassifications;
 import com.hartwig.hmftools.isofox.common.TransMatchType;
 import com.hartwig.hmftools.isofox.expression.CategoryCountsData;
 import com.hartwig.hmftools.isofox.adjusts.GcRatioCounts;
@@ -420,8 +421,8 @@ public class BamFragmentAllocator
             return;
         }
 
-        final Map<Integer,TransMatchType> firstReadTransTypes = read1.getTranscriptClassifications();
-        final Map<Integer,TransMatchType> secondReadTransTypes = read2.getTranscriptClassifications();
+        final TransClassifications firstReadTransTypes = read1.getTranscriptClassifications();
+        final TransClassifications secondReadTransTypes = read2.getTranscriptClassifications();
 
         // first find valid transcripts in both reads
         final List<Integer> validTranscripts = Lists.newArrayList();
@@ -446,11 +447,11 @@ public class BamFragmentAllocator
             mSpliceSiteCounter.registerSpliceSiteSupport(read1.getMappedRegionCoords(), read2.getMappedRegionCoords(), mCurrentGenes.getExonRegions());
         }
 
-        for(Map.Entry<Integer,TransMatchType> entry : firstReadTransTypes.entrySet())
+        for(int i = 0; i < firstReadTransTypes.size(); ++i)
         {
-            int transId = entry.getKey();
+            int transId = firstReadTransTypes.transId(i);
 
-            if(validTranscriptType(entry.getValue()) && secondReadTransTypes.containsKey(transId) && validTranscriptType(secondReadTransTypes.get(transId)))
+            if(validTranscriptType(firstReadTransTypes.matchType(i)) && validTranscriptType(secondReadTransTypes.get(transId)))
             {
                 int calcFragmentLength = calcFragmentLength(transId, read1, read2);
                 boolean validFragmentLength = calcFragmentLength > 0 && calcFragmentLength <= mConfig.MaxFragmentLength;
@@ -470,8 +471,10 @@ public class BamFragmentAllocator
             }
         }
 
-        for(Integer transId : secondReadTransTypes.keySet())
+        for(int i = 0; i < secondReadTransTypes.size(); ++i)
         {
+            int transId = secondReadTransTypes.transId(i);
+
             if(!validTranscripts.contains(transId))
                 invalidTranscripts.add(transId);
         }
@@ -501,23 +504,7 @@ public class BamFragmentAllocator
                 // look for alternative splicing from long reads involving more than one region and not spanning into an intron
                 for(int transId : invalidTranscripts)
                 {
-                    List<RegionReadData> regions = read1.getMappedRegions().entrySet().stream()
-                            .filter(x -> x.getKey().hasTransId(transId))
-                            .filter(x -> x.getValue() != EXON_INTRON)
-                            .map(x -> x.getKey()).collect(Collectors.toList());;
-
-                    final List<RegionReadData> regions2 = read2.getMappedRegions().entrySet().stream()
-                            .filter(x -> x.getKey().hasTransId(transId))
-                            .filter(x -> x.getValue() != EXON_INTRON)
-                            .map(x -> x.getKey()).collect(Collectors.toList());
-
-                    for(RegionReadData region : regions2)
-                    {
-                        if (!regions.contains(region))
-                            regions.add(region);
-                    }
-
-                    if(regions.size() > 1)
+                    if(countTranscriptRegions(transId, read1.getMappedRegions(), read2.getMappedRegions()) > 1)
                     {
                         fragmentType = ALT;
                         break;
@@ -541,15 +528,8 @@ public class BamFragmentAllocator
             fragmentType = TRANS_SUPPORTING;
 
             // first mark any invalid trans as 'other' meaning it doesn't require any further classification since a valid trans exists
-            firstReadTransTypes.entrySet().stream()
-                    .filter(x -> validTranscriptType(x.getValue()))
-                    .filter(x -> !validTranscripts.contains(x.getKey()))
-                    .forEach(x -> x.setValue(OTHER_TRANS));
-
-            secondReadTransTypes.entrySet().stream()
-                    .filter(x -> validTranscriptType(x.getValue()))
-                    .filter(x -> !validTranscripts.contains(x.getKey()))
-                    .forEach(x -> x.setValue(OTHER_TRANS));
+            markOtherTranscripts(firstReadTransTypes, validTranscripts);
+            markOtherTranscripts(secondReadTransTypes, validTranscripts);
 
             if(mConfig.RunValidations)
             {
@@ -598,10 +578,8 @@ public class BamFragmentAllocator
                 // separately record discordant reads spanning 2+ exons
                 if(!read1.containsSplit() && read2.containsSplit())
                 {
-                    final RegionReadData region1 =
-                            read1.getMappedRegions().keySet().stream().filter(x -> x.hasTransId(transId)).findFirst().orElse(null);
-                    final RegionReadData region2 =
-                            read2.getMappedRegions().keySet().stream().filter(x -> x.hasTransId(transId)).findFirst().orElse(null);
+                    final RegionReadData region1 = findTranscriptRegion(transId, read1.getMappedRegions());
+                    final RegionReadData region2 = findTranscriptRegion(transId, read2.getMappedRegions());
 
                     if(region1 != region2 && region1.getExonRank(transId) != region2.getExonRank(transId))
                     {
@@ -628,6 +606,53 @@ public class BamFragmentAllocator
         }
     }
 
+    private static int countTranscriptRegions(int transId, final MappedRegions mappedRegions1, final MappedRegions mappedRegions2)
+    {
+        // count the distinct regions of the transcript covered by either read, excluding exon-intron matches
+        int regionCount = 0;
+
+        for(int i = 0; i < mappedRegions1.size(); ++i)
+        {
+            if(mappedRegions1.matchType(i) != EXON_INTRON && mappedRegions1.region(i).hasTransId(transId))
+                ++regionCount;
+        }
+
+        for(int i = 0; i < mappedRegions2.size(); ++i)
+        {
+            final RegionReadData region = mappedRegions2.region(i);
+
+            if(mappedRegions2.matchType(i) == EXON_INTRON || !region.hasTransId(transId))
+                continue;
+
+            RegionMatchType otherMatchType = mappedRegions1.get(region);
+
+            if(otherMatchType == null || otherMatchType == EXON_INTRON)
+                ++regionCount;
+        }
+
+        return regionCount;
+    }
+
+    private static void markOtherTranscripts(final TransClassifications transTypes, final List<Integer> validTranscripts)
+    {
+        for(int i = 0; i < transTypes.size(); ++i)
+        {
+            if(validTranscriptType(transTypes.matchType(i)) && !validTranscripts.contains(transTypes.transId(i)))
+                transTypes.setMatchType(i, OTHER_TRANS);
+        }
+    }
+
+    private static RegionReadData findTranscriptRegion(int transId, final MappedRegions mappedRegions)
+    {
+        for(int i = 0; i < mappedRegions.size(); ++i)
+        {
+            if(mappedRegions.region(i).hasTransId(transId))
+                return mappedRegions.region(i);
+        }
+
+        return null;
+    }
+
     private int calcFragmentLength(int transId, final ReadRecord read1, final ReadRecord read2)
     {
         final TranscriptData transData = mCurrentGenes.getTranscripts().stream().filter(x -> x.TransId == transId).findFirst().orElse(null);
@@ -890,20 +915,24 @@ public class BamFragmentAllocator
             final BufferedWriter writer, final GeneReadData geneReadData, int readIndex, final ReadRecord read, final ReadRecord otherRead,
             FragmentType geneReadType, int validTranscripts)
     {
-        if(read.getTranscriptClassifications().isEmpty())
+        final TransClassifications transTypes = read.getTranscriptClassifications();
+
+        if(transTypes.isEmpty())
             return;
 
+        final MappedRegions mappedRegions = read.getMappedRegions();
+
         try
         {
-            for(Map.Entry<Integer,TransMatchType> entry : read.getTranscriptClassifications().entrySet())
+            for(int t = 0; t < transTypes.size(); ++t)
             {
-                int transId = entry.getKey();
-                TransMatchType transType = entry.getValue();
+                int transId = transTypes.transId(t);
+                TransMatchType transType = transTypes.matchType(t);
 
-                for(Map.Entry<RegionReadData, RegionMatchType> rEntry : read.getMappedRegions().entrySet())
+                for(int r = 0; r < mappedRegions.size(); ++r)
                 {
-                    RegionReadData region = rEntry.getKey();
-                    RegionMatchType matchType = rEntry.getValue();
+                    RegionReadData region = mappedRegions.region(r);
+                    RegionMatchType matchType = mappedRegions.matchType(r);
 
                     if(!region.hasTransId(transId))
                         continue;
@@ -0,0 +1,99 @@
+package com.hartwig.hmftools.isofox.common;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+// exon regions overlapped by a read and the type of each match, held in small parallel arrays in place of a per-read hash map
+// since a read only ever covers a handful of regions - storage is allocated on the first region added
+public class MappedRegions
+{
+    private RegionReadData[] mRegions;
+    private RegionMatchType[] mMatchTypes;
+    private int mCount;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    public MappedRegions()
+    {
+        mRegions = null;
+        mMatchTypes = null;
+        mCount = 0;
+    }
+
+    public boolean isEmpty() { return mCount == 0; }
+    public int size() { return mCount; }
+
+    public RegionReadData region(int index) { return mRegions[index]; }
+    public RegionMatchType matchType(int index) { return mMatchTypes[index]; }
+
+    public boolean contains(final RegionReadData region) { return indexOf(region) >= 0; }
+
+    public RegionMatchType get(final RegionReadData region)
+    {
+        int index = indexOf(region);
+        return index >= 0 ? mMatchTypes[index] : null;
+    }
+
+    public boolean hasMatchType(final RegionMatchType matchType)
+    {
+        for(int i = 0; i < mCount; ++i)
+        {
+            if(mMatchTypes[i] == matchType)
+                return true;
+        }
+
+        return false;
+    }
+
+    public void put(final RegionReadData region, final RegionMatchType matchType)
+    {
+        int index = indexOf(region);
+
+        if(index >= 0)
+        {
+            mMatchTypes[index] = matchType;
+            return;
+        }
+
+        if(mRegions == null)
+        {
+            mRegions = new RegionReadData[INITIAL_CAPACITY];
+            mMatchTypes = new RegionMatchType[INITIAL_CAPACITY];
+        }
+        else if(mCount == mRegions.length)
+        {
+            mRegions = Arrays.copyOf(mRegions, mCount * 2);
+            mMatchTypes = Arrays.copyOf(mMatchTypes, mCount * 2);
+        }
+
+        mRegions[mCount] = region;
+        mMatchTypes[mCount] = matchType;
+        ++mCount;
+    }
+
+    public List<RegionReadData> regions()
+    {
+        final List<RegionReadData> regions = Lists.newArrayListWithCapacity(mCount);
+
+        for(int i = 0; i < mCount; ++i)
+        {
+            regions.add(mRegions[i]);
+        }
+
+        return regions;
+    }
+
+    private int indexOf(final RegionReadData region)
+    {
+        // regions are unique instances within a gene collection
+        for(int i = 0; i < mCount; ++i)
+        {
+            if(mRegions[i] == region)
+                return i;
+        }
+
+        return -1;
+    }
+}
@@ -27,12 +27,10 @@ import static com.hartwig.hmftools.isofox.results.ResultsWriter.ITEM_DELIM;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.gene.ExonData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.samtools.SoftClipSide;
@@ -73,10 +71,10 @@ public class ReadRecord
 
     private int[] mJunctionPositions; // chimeric junctions
 
-    private final Map<RegionReadData,RegionMatchType> mMappedRegions; // regions related to this read and their match type
-    private final Map<Integer,TransMatchType> mTranscriptClassification;
-    private final Map<RegionMatchType,List<TransExonRef>> mTransExonRefs;
-    private final Map<RegionMatchType,List<TransExonRef>> mUpperTransExonRefs; // TE refs for upper coords if a spanning read
+    private final MappedRegions mMappedRegions; // regions related to this read and their match type
+    private final TransClassifications mTranscriptClassification;
+    private Map<RegionMatchType,List<TransExonRef>> mTransExonRefs; // only set for intronic reads, so created on demand
+    private Map<RegionMatchType,List<TransExonRef>> mUpperTransExonRefs; // TE refs for upper coords if a spanning read
 
     public static final int NO_GENE_ID = -1;
 
@@ -118,10 +116,10 @@ public class ReadRecord
         mMappedCoords = Lists.newArrayListWithCapacity(mappedCoords.size());
         mMappedCoords.addAll(mappedCoords);
 
-        mMappedRegions = Maps.newHashMap();
-        mTransExonRefs = Maps.newHashMap();
-        mUpperTransExonRefs = Maps.newHashMap();
-        mTranscriptClassification = Maps.newHashMap();
+        mMappedRegions = new MappedRegions();
+        mTransExonRefs = null;
+        mUpperTransExonRefs = null;
+        mTranscriptClassification = new TransClassifications();
         mLowerInferredAdded = false;
         mUpperInferredAdded = false;
         mSoftClipRegionsMatched = new int[] {0, 0};
@@ -227,13 +225,17 @@ public class ReadRecord
         setFlag(SAMFlag.MATE_REVERSE_STRAND, mateReadReversed);
     }
 
-    public final Map<RegionMatchType,List<TransExonRef>> getReadTransExonRefs() { return mTransExonRefs; }
+    public final Map<RegionMatchType,List<TransExonRef>> getReadTransExonRefs()
+    {
+        return mTransExonRefs != null ? mTransExonRefs : Collections.emptyMap();
+    }
+
     public final Map<RegionMatchType,List<TransExonRef>> getReadTransExonRefs(int se)
     {
-        if(spansGeneCollections())
-            return se == SE_START ? mTransExonRefs : mUpperTransExonRefs;
+        if(spansGeneCollections() && se == SE_END)
+            return mUpperTransExonRefs != null ? mUpperTransExonRefs : Collections.emptyMap();
         else
-            return mTransExonRefs;
+            return getReadTransExonRefs();
     }
 
     public boolean isChimeric()
@@ -267,7 +269,13 @@ public class ReadRecord
 
     public boolean overlapsMappedReads(int posStart, int posEnd)
     {
-        return mMappedCoords.stream().anyMatch(x -> positionsOverlap(posStart, posEnd, x[SE_START], x[SE_END]));
+        for(final int[] coords : mMappedCoords)
+        {
+            if(positionsOverlap(posStart, posEnd, coords[SE_START], coords[SE_END]))
+                return true;
+        }
+
+        return false;
     }
 
     public int getCoordsBoundary(int se)
@@ -278,13 +286,22 @@ public class ReadRecord
     public void processOverlappingRegions(final List<RegionReadData> regions)
     {
         // process all regions for each transcript as a group to look for inconsistencies with the transcript definition
-        Set<Integer> transcripts = Sets.newHashSet();
+        int maxTransCount = 0;
+
+        for(RegionReadData region : regions)
+        {
+            maxTransCount += region.getTransExonRefs().size();
+        }
+
+        int[] transcripts = new int[maxTransCount];
+        int transCount = 0;
 
         for(RegionReadData region : regions)
         {
             for(final TransExonRef ref : region.getTransExonRefs())
             {
-                transcripts.add(ref.TransId);
+                if(!containsTransId(transcripts, transCount, ref.TransId))
+                    transcripts[transCount++] = ref.TransId;
             }
 
             RegionMatchType matchType = setRegionMatchType(region);
@@ -296,14 +313,22 @@ public class ReadRecord
                 checkMissedJunctions(region);
         }
 
-        for(int transId : transcripts)
+        final List<RegionReadData> transRegions = Lists.newArrayListWithCapacity(regions.size());
+
+        for(int t = 0; t < transCount; ++t)
         {
+            int transId = transcripts[t];
+
             // determine for each transcript whether the mapped regions support a spliced transcript, unspliced or alternate splicing
             TransMatchType transMatchType = UNKNOWN;
 
-            List<RegionReadData> transRegions = regions.stream()
-                    .filter(x -> x.getTransExonRefs().stream().anyMatch(y -> y.TransId == transId))
-                    .collect(Collectors.toList());
+            transRegions.clear();
+
+            for(RegionReadData region : regions)
+            {
+                if(region.hasTransId(transId))
+                    transRegions.add(region);
+            }
 
             // if any reads cross and exon-intron boundary, then mark the transcript as unspliced
 
@@ -427,6 +452,17 @@ public class ReadRecord
         }
     }
 
+    private static boolean containsTransId(final int[] transIds, int count, int transId)
+    {
+        for(int i = 0; i < count; ++i)
+        {
+            if(transIds[i] == transId)
+                return true;
+        }
+
+        return false;
+    }
+
     public boolean likelyAdaperSoftClipping()
     {
         return mFragmentInsertSize < Length;
@@ -434,18 +470,21 @@ public class ReadRecord
 
     public static final List<RegionReadData> getUniqueValidRegion(final ReadRecord read1, final ReadRecord read2)
     {
-        final List<RegionReadData> regions = read1.getMappedRegions().entrySet().stream()
-                .filter(x -> validExonMatch(x.getValue()))
-                .map(x -> x.getKey()).collect(Collectors.toList());
+        final MappedRegions mappedRegions1 = read1.getMappedRegions();
+        final MappedRegions mappedRegions2 = read2.getMappedRegions();
+
+        final List<RegionReadData> regions = Lists.newArrayListWithCapacity(mappedRegions1.size() + mappedRegions2.size());
 
-        final List<RegionReadData> regions2 = read2.getMappedRegions().entrySet().stream()
-                .filter(x -> validExonMatch(x.getValue()))
-                .map(x -> x.getKey()).collect(Collectors.toList());
+        for(int i = 0; i < mappedRegions1.size(); ++i)
+        {
+            if(validExonMatch(mappedRegions1.matchType(i)))
+                regions.add(mappedRegions1.region(i));
+        }
 
-        for(RegionReadData region : regions2)
+        for(int i = 0; i < mappedRegions2.size(); ++i)
         {
-            if (!regions.contains(region))
-                regions.add(region);
+            if(validExonMatch(mappedRegions2.matchType(i)) && !mappedRegions1.contains(mappedRegions2.region(i)))
+                regions.add(mappedRegions2.region(i));
         }
 
         return regions;
@@ -746,13 +785,24 @@ public class ReadRecord
         }
     }
 
-    public final Map<RegionReadData,RegionMatchType> getMappedRegions() { return mMappedRegions; }
+    public final MappedRegions getMappedRegions() { return mMappedRegions; }
 
     public static List<RegionReadData> findOverlappingRegions(final List<RegionReadData> regions, final ReadRecord read)
     {
-        return regions.stream()
-                .filter(x -> read.overlapsMappedReads(x.start(), x.end()))
-                .collect(Collectors.toList());
+        List<RegionReadData> overlappingRegions = null;
+
+        for(RegionReadData region : regions)
+        {
+            if(!read.overlapsMappedReads(region.start(), region.end()))
+                continue;
+
+            if(overlappingRegions == null)
+                overlappingRegions = Lists.newArrayList();
+
+            overlappingRegions.add(region);
+        }
+
+        return overlappingRegions != null ? overlappingRegions : Collections.emptyList();
     }
 
     public void addIntronicTranscriptRefs(final List<TranscriptData> transDataList)
@@ -778,30 +828,36 @@ public class ReadRecord
             }
         }
 
-        if(!transRefList.isEmpty())
-            mTransExonRefs.put(INTRON, transRefList);
+        if(transRefList.isEmpty())
+            return;
+
+        if(mTransExonRefs == null)
+            mTransExonRefs = Maps.newHashMap();
+
+        mTransExonRefs.put(INTRON, transRefList);
     }
 
     public final List<TransExonRef> getJunctionMatchingTransRefs(int junctionPosition, boolean isJunctionStart)
     {
         final List<TransExonRef> matchedTransRefs = Lists.newArrayList();
 
-        mMappedRegions.entrySet().stream()
-                .filter(x -> exonBoundary(x.getValue()))
-                .filter(x -> (isJunctionStart && x.getKey().end() == junctionPosition)
-                        || (!isJunctionStart && x.getKey().start() == junctionPosition))
-                .forEach(x -> matchedTransRefs.addAll(x.getKey().getTransExonRefs()));
+        for(int i = 0; i < mMappedRegions.size(); ++i)
+        {
+            if(!exonBoundary(mMappedRegions.matchType(i)))
+                continue;
+
+            final RegionReadData region = mMappedRegions.region(i);
+
+            if((isJunctionStart && region.end() == junctionPosition) || (!isJunctionStart && region.start() == junctionPosition))
+                matchedTransRefs.addAll(region.getTransExonRefs());
+        }
 
         return matchedTransRefs;
     }
 
-    public final Map<Integer,TransMatchType> getTranscriptClassifications() { return mTranscriptClassification; }
+    public final TransClassifications getTranscriptClassifications() { return mTranscriptClassification; }
 
-    public TransMatchType getTranscriptClassification(int transId)
-    {
-        TransMatchType transType = mTranscriptClassification.get(transId);
-        return transType != null ? transType : UNKNOWN;
-    }
+    public TransMatchType getTranscriptClassification(int transId) { return mTranscriptClassification.get(transId); }
 
     public int[] junctionPositions() { return mJunctionPositions; }
 
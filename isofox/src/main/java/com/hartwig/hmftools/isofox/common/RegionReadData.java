@@ -78,7 +78,13 @@ public class RegionReadData implements Comparable< RegionReadData>
 
     public boolean hasTransId(final int transId)
     {
-        return mTransExonRefs.stream().anyMatch(x -> x.TransId == transId);
+        for(final TransExonRef transRef : mTransExonRefs)
+        {
+            if(transRef.TransId == transId)
+                return true;
+        }
+
+        return false;
     }
 
     public boolean hasTransName(final int transName)
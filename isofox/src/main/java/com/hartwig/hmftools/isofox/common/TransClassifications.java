@@ -0,0 +1,116 @@
+package com.hartwig.hmftools.isofox.common;
+
+import static com.hartwig.hmftools.isofox.common.TransMatchType.UNKNOWN;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+// a read's match type for each transcript it overlaps, kept in transcript ID order in small parallel arrays so that
+// a fragment's mates can be intersected with a merge rather than through per-read hash maps
+public class TransClassifications
+{
+    private int[] mTransIds;
+    private TransMatchType[] mMatchTypes;
+    private int mCount;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    public TransClassifications()
+    {
+        mTransIds = null;
+        mMatchTypes = null;
+        mCount = 0;
+    }
+
+    public boolean isEmpty() { return mCount == 0; }
+    public int size() { return mCount; }
+
+    public int transId(int index) { return mTransIds[index]; }
+    public TransMatchType matchType(int index) { return mMatchTypes[index]; }
+    public void setMatchType(int index, final TransMatchType matchType) { mMatchTypes[index] = matchType; }
+
+    public int indexOf(int transId)
+    {
+        return mCount > 0 ? Arrays.binarySearch(mTransIds, 0, mCount, transId) : -1;
+    }
+
+    public boolean contains(int transId) { return indexOf(transId) >= 0; }
+
+    public TransMatchType get(int transId)
+    {
+        int index = indexOf(transId);
+        return index >= 0 ? mMatchTypes[index] : UNKNOWN;
+    }
+
+    public boolean hasMatchType(final TransMatchType matchType)
+    {
+        for(int i = 0; i < mCount; ++i)
+        {
+            if(mMatchTypes[i] == matchType)
+                return true;
+        }
+
+        return false;
+    }
+
+    public void put(int transId, final TransMatchType matchType)
+    {
+        int index = indexOf(transId);
+
+        if(index >= 0)
+        {
+            mMatchTypes[index] = matchType;
+            return;
+        }
+
+        if(mTransIds == null)
+        {
+            mTransIds = new int[INITIAL_CAPACITY];
+            mMatchTypes = new TransMatchType[INITIAL_CAPACITY];
+        }
+        else if(mCount == mTransIds.length)
+        {
+            mTransIds = Arrays.copyOf(mTransIds, mCount * 2);
+            mMatchTypes = Arrays.copyOf(mMatchTypes, mCount * 2);
+        }
+
+        int insertIndex = -(index + 1);
+
+        if(insertIndex < mCount)
+        {
+            System.arraycopy(mTransIds, insertIndex, mTransIds, insertIndex + 1, mCount - insertIndex);
+            System.arraycopy(mMatchTypes, insertIndex, mMatchTypes, insertIndex + 1, mCount - insertIndex);
+        }
+
+        mTransIds[insertIndex] = transId;
+        mMatchTypes[insertIndex] = matchType;
+        ++mCount;
+    }
+
+    public List<Integer> transIds()
+    {
+        final List<Integer> transIds = Lists.newArrayListWithCapacity(mCount);
+
+        for(int i = 0; i < mCount; ++i)
+        {
+            transIds.add(mTransIds[i]);
+        }
+
+        return transIds;
+    }
+
+    public List<Integer> transIds(final TransMatchType matchType)
+    {
+        final List<Integer> transIds = Lists.newArrayList();
+
+        for(int i = 0; i < mCount; ++i)
+        {
+            if(mMatchTypes[i] == matchType)
+                transIds.add(mTransIds[i]);
+        }
+
+        return transIds;
+    }
+}
@@ -21,6 +21,7 @@ import com.hartwig.hmftools.isofox.adjusts.GcRatioCounts;
 import com.hartwig.hmftools.isofox.common.FragmentMatchType;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
 
@@ -160,10 +161,14 @@ public class ExpressionReadTracker
 
         for(ReadRecord read : reads)
         {
-            List<RegionReadData> regions = read.getMappedRegions().entrySet().stream()
-                    .filter(x -> x.getKey().hasTransId(transId))
-                    .filter(x -> validExonMatch(x.getValue()))
-                    .map(x -> x.getKey()).collect(Collectors.toList());
+            final MappedRegions mappedRegions = read.getMappedRegions();
+            final List<RegionReadData> regions = Lists.newArrayListWithCapacity(mappedRegions.size());
+
+            for(int i = 0; i < mappedRegions.size(); ++i)
+            {
+                if(validExonMatch(mappedRegions.matchType(i)) && mappedRegions.region(i).hasTransId(transId))
+                    regions.add(mappedRegions.region(i));
+            }
 
             for(RegionReadData region : regions)
             {
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.isofox.expression.cohort;
 
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_ID;
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_NAME;
+import static com.hartwig.hmftools.common.utils.BinaryMatrixFile.isBinaryMatrixFile;
 import static com.hartwig.hmftools.common.utils.MatrixFile.loadMatrixDataFile;
 import static com.hartwig.hmftools.common.stats.FdrCalcs.calculateFDRs;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.closeBufferedWriter;
@@ -21,6 +22,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.stats.MannWhitneyUTest;
 import com.hartwig.hmftools.common.stats.MwuResult;
+import com.hartwig.hmftools.common.utils.BinaryMatrixFile;
 import com.hartwig.hmftools.common.utils.Matrix;
 import com.hartwig.hmftools.common.stats.PValueResult;
 import com.hartwig.hmftools.isofox.cohort.CohortConfig;
@@ -30,6 +32,7 @@ public class ExpressionCohortCompare
     private final CohortConfig mConfig;
 
     private Matrix mGeneExpressionMatrix;
+    private BinaryMatrixFile mGeneExpressionFile; // read in place rather than copied into a matrix
     private final Map<String,Integer> mSampleIndexMap;
     private final List<String> mGeneIds;
     private final Map<String,String> mGeneIdNameMap;
@@ -45,6 +48,7 @@ public class ExpressionCohortCompare
 
         mSampleIndexMap = Maps.newHashMap();
         mGeneExpressionMatrix = null;
+        mGeneExpressionFile = null;
 
         mGeneIds = Lists.newArrayList();
         mGeneIdNameMap = Maps.newHashMap();
@@ -57,6 +61,12 @@ public class ExpressionCohortCompare
 
     private void loadGeneExpression()
     {
+        if(isBinaryMatrixFile(mConfig.Expression.GeneExpMatrixFile))
+        {
+            loadBinaryGeneExpression();
+            return;
+        }
+
         final List<String> ignoreFields = Lists.newArrayList(FLD_GENE_ID, FLD_GENE_NAME);
 
         // TODO: consider transposing on load rather than afterwards
@@ -95,6 +105,28 @@ public class ExpressionCohortCompare
         ISF_LOGGER.debug("loaded genes({}) and {} samples expression matrix data", mGeneIds.size(), mGeneExpressionMatrix.Cols);
     }
 
+    private void loadBinaryGeneExpression()
+    {
+        final BinaryMatrixFile matrixFile = BinaryMatrixFile.load(mConfig.Expression.GeneExpMatrixFile);
+
+        if(matrixFile == null)
+            return;
+
+        final List<String> geneIds = matrixFile.rowLabels(FLD_GENE_ID);
+        final List<String> geneNames = matrixFile.rowLabels(FLD_GENE_NAME);
+
+        for(int i = 0; i < matrixFile.Rows; ++i)
+        {
+            mGeneIds.add(geneIds.get(i));
+            mGeneIdNameMap.put(geneIds.get(i), geneNames.get(i));
+        }
+
+        mSampleIndexMap.putAll(matrixFile.columnIndexMap());
+        mGeneExpressionFile = matrixFile;
+
+        ISF_LOGGER.debug("loaded genes({}) and {} samples expression matrix data", mGeneIds.size(), matrixFile.Cols);
+    }
+
     public void runAnalysis()
     {
         if(mConfig.SampleData.CohortNames.size() != 2)
@@ -186,8 +218,19 @@ public class ExpressionCohortCompare
 
     private void populateCohortValues(final double[] cohortValues, int geneIndex, final List<Integer> cohortSampleIndices)
     {
-        final double[][] matrixData = mGeneExpressionMatrix.getData();
         int index = 0;
+
+        if(mGeneExpressionFile != null)
+        {
+            for(Integer sampleIndex : cohortSampleIndices)
+            {
+                cohortValues[index++] = mGeneExpressionFile.get(geneIndex, sampleIndex);
+            }
+
+            return;
+        }
+
+        final double[][] matrixData = mGeneExpressionMatrix.getData();
         for(Integer sampleIndex : cohortSampleIndices)
         {
             cohortValues[index++] = matrixData[geneIndex][sampleIndex];
@@ -21,6 +21,7 @@ public class ExpressionCohortConfig
     public final boolean DistributionByCancerType;
     public final boolean LogElevatedDistributions;
     public final boolean ApplyTpmWriteLimit;
+    public final boolean WriteBinaryMatrix;
 
     private static final String EXTERNAL_SOURCE = "exp_external_source";
     private static final String EXTERNAL_COMPARE_TRANSCRIPTS = "exp_compare_transcripts";
@@ -31,6 +32,7 @@ public class ExpressionCohortConfig
     public static final String USE_LOG_TPM = "use_log_tpm";
     public static final String TPM_ROUNDING = "tpm_rounding";
     public static final String APPLY_TPM_WRITE_THRESHOLD = "apply_tpm_write_threshold";
+    public static final String WRITE_BINARY_MATRIX = "write_binary_matrix";
 
     public static final String GENE_EXP_MATRIX_FILE = "gene_exp_matrix_file";
     public static final String COHORT_TRANS_FILE = "cohort_trans_file";
@@ -60,6 +62,7 @@ public class ExpressionCohortConfig
         DistributionByCancerType = cmd.hasOption(DIST_BY_CANCER_TYPE);
         LogElevatedDistributions = cmd.hasOption(LOG_ELEVATED_DIST);
         ApplyTpmWriteLimit = cmd.hasOption(APPLY_TPM_WRITE_THRESHOLD);
+        WriteBinaryMatrix = cmd.hasOption(WRITE_BINARY_MATRIX);
     }
 
     public static void addCmdLineOptions(final Options options)
@@ -77,5 +80,6 @@ public class ExpressionCohortConfig
         options.addOption(DIST_BY_CANCER_TYPE, false, "Produce cancer gene distributions");
         options.addOption(LOG_ELEVATED_DIST, false, "Log elevated gene distributions");
         options.addOption(APPLY_TPM_WRITE_THRESHOLD, false, "Log elevated gene distributions");
+        options.addOption(WRITE_BINARY_MATRIX, false, "Write expression matrix as a memory-mappable binary file instead of CSV");
     }
 }
@@ -6,6 +6,7 @@ import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_TRANS_NAME;
 import static com.hartwig.hmftools.common.sigs.DataUtils.convertList;
 import static com.hartwig.hmftools.common.stats.Percentiles.PERCENTILE_COUNT;
 import static com.hartwig.hmftools.common.stats.Percentiles.calcPercentileValues;
+import static com.hartwig.hmftools.common.utils.BinaryMatrixFile.isBinaryMatrixFile;
 import static com.hartwig.hmftools.common.utils.MatrixFile.loadMatrixDataFile;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.closeBufferedWriter;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
@@ -22,6 +23,7 @@ import java.util.Map;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.utils.BinaryMatrixFile;
 import com.hartwig.hmftools.common.utils.Matrix;
 import com.hartwig.hmftools.isofox.cohort.CohortConfig;
 
@@ -35,6 +37,8 @@ public class ExpressionCohortDistribution
     private BufferedWriter mWriter;
 
     private Matrix mExpressionMatrix;
+    private BinaryMatrixFile mExpressionFile; // read in place rather than copied into a matrix
+    private double[] mFileRowValues;
     private final Map<String,Integer> mSampleIndexMap; // index of sample into matrix columns
     private final Map<String,Integer> mGeneTransIdIndexMap;  // index of geneId into matrix rows
     private final List<String> mGeneTransIds;
@@ -53,6 +57,8 @@ public class ExpressionCohortDistribution
         mConfig = config;
 
         mExpressionMatrix = null;
+        mExpressionFile = null;
+        mFileRowValues = null;
         mSampleIndexMap = Maps.newHashMap();
         mGeneTransIdIndexMap = Maps.newHashMap();
         mGeneTransIds = Lists.newArrayList();
@@ -102,12 +108,22 @@ public class ExpressionCohortDistribution
         final String geneTransName = mIdNameMap.get(geneTransId);
         int matrixIndex = mGeneTransIdIndexMap.get(geneTransId);
 
-        final double[] tpmValues = mExpressionMatrix.getRow(matrixIndex);
+        final double[] tpmValues;
+
+        if(mExpressionFile != null)
+        {
+            mExpressionFile.getRow(matrixIndex, mFileRowValues);
+            tpmValues = mFileRowValues;
+        }
+        else
+        {
+            tpmValues = mExpressionMatrix.getRow(matrixIndex);
+        }
 
         try
         {
             // first write out pan-cancer medians and optionally percentiles
-            final List<Double> allValues = Lists.newArrayListWithExpectedSize(mExpressionMatrix.Cols);
+            final List<Double> allValues = Lists.newArrayListWithExpectedSize(tpmValues.length);
 
             for(int s = 0; s < tpmValues.length; ++s)
             {
@@ -287,6 +303,9 @@ public class ExpressionCohortDistribution
 
     private boolean loadExpressionMatrix()
     {
+        if(isBinaryMatrixFile(mConfig.Expression.GeneExpMatrixFile))
+            return loadBinaryExpressionMatrix();
+
         // keep track of gene/transcript ids and names
         try
         {
@@ -354,4 +373,47 @@ public class ExpressionCohortDistribution
         return true;
     }
 
+    private boolean loadBinaryExpressionMatrix()
+    {
+        final BinaryMatrixFile matrixFile = BinaryMatrixFile.load(mConfig.Expression.GeneExpMatrixFile);
+
+        if(matrixFile == null)
+            return false;
+
+        final List<String> geneIds = matrixFile.rowLabels(FLD_GENE_ID);
+        final List<String> geneNames = matrixFile.rowLabels(FLD_GENE_NAME);
+        final List<String> transNames = matrixFile.rowLabels(FLD_TRANS_NAME);
+        mTranscriptScope = transNames != null;
+
+        for(int geneRowIndex = 0; geneRowIndex < matrixFile.Rows; ++geneRowIndex)
+        {
+            final String geneId = geneIds.get(geneRowIndex);
+
+            if(!mConfig.RestrictedGeneIds.isEmpty() && !mConfig.RestrictedGeneIds.contains(geneId))
+                continue;
+
+            final String geneName = geneNames.get(geneRowIndex);
+
+            if(mTranscriptScope)
+            {
+                final String transName = transNames.get(geneRowIndex);
+                mGeneTransIds.add(transName);
+                mGeneTransIdIndexMap.put(transName, geneRowIndex);
+                mIdNameMap.put(transName, String.format("%s,%s", geneId, geneName));
+            }
+            else
+            {
+                mGeneTransIds.add(geneId);
+                mGeneTransIdIndexMap.put(geneId, geneRowIndex);
+                mIdNameMap.put(geneId, geneName);
+            }
+        }
+
+        mSampleIndexMap.putAll(matrixFile.columnIndexMap());
+        mExpressionFile = matrixFile;
+        mFileRowValues = new double[matrixFile.Cols];
+
+        ISF_LOGGER.debug("loaded genes({}) and {} samples expression matrix data", mGeneTransIds.size(), matrixFile.Cols);
+        return true;
+    }
 }
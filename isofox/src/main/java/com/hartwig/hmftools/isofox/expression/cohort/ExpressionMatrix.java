@@ -5,6 +5,7 @@ import static java.lang.Math.log;
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_ID;
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_GENE_NAME;
 import static com.hartwig.hmftools.common.rna.RnaCommon.FLD_TRANS_NAME;
+import static com.hartwig.hmftools.common.utils.BinaryMatrixFile.BINARY_MATRIX_FILE_EXTENSION;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.closeBufferedWriter;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
 import static com.hartwig.hmftools.common.utils.FileReaderUtils.createFieldsIndexMap;
@@ -15,17 +16,19 @@ import static com.hartwig.hmftools.isofox.cohort.CohortConfig.formSampleFilename
 import static com.hartwig.hmftools.isofox.results.ResultsWriter.DELIMITER;
 import static com.hartwig.hmftools.isofox.results.TranscriptResult.FLD_TPM;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.hartwig.hmftools.common.utils.Matrix;
+import com.hartwig.hmftools.common.utils.BinaryMatrixFile;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.isofox.cohort.AnalysisType;
 import com.hartwig.hmftools.isofox.cohort.CohortConfig;
 
@@ -33,23 +36,28 @@ public class ExpressionMatrix
 {
     private final AnalysisType mType;
     private final CohortConfig mConfig;
-    
-    private Matrix mExpressionMatrix;
+
+    // expression values are held by sample then gene or transcript row, so each sample's file fills its own column
+    private double[][] mSampleExpression;
     private final List<String> mGeneIds;
     private final List<String> mGeneNames;
     private final List<String> mTranscriptNames;
+    private final Map<String,Integer> mItemRowIndex; // gene ID or transcript name to row
 
     public ExpressionMatrix(final CohortConfig config, final AnalysisType type)
     {
         mType = type;
         mConfig = config;
 
-        mExpressionMatrix = null;
+        mSampleExpression = null;
         mGeneIds = Lists.newArrayList();
         mGeneNames = Lists.newArrayList();
         mTranscriptNames = Lists.newArrayList();
+        mItemRowIndex = Maps.newHashMap();
     }
 
+    private boolean isTranscriptLevel() { return mType == TRANSCRIPT_EXPRESSION_MATRIX; }
+
     public void processSamples()
     {
         final List<Path> filenames = Lists.newArrayList();
@@ -58,155 +66,163 @@ public class ExpressionMatrix
             return;
 
         final String typeStr = mType == GENE_EXPRESSION_MATRIX ? "gene" : "transcript";
+        int sampleCount = mConfig.SampleData.SampleIds.size();
+
+        ISF_LOGGER.info("processing {} samples {} files", sampleCount, typeStr);
+
+        // the first sample's file establishes the rows, after which the samples are independent and loaded concurrently
+        if(!buildItemIndex(filenames.get(0)))
+            return;
+
+        ISF_LOGGER.debug("building {} expression matrix: items({}) samples({})", typeStr, mItemRowIndex.size(), sampleCount);
 
-        ISF_LOGGER.info("processing {} samples {} files", mConfig.SampleData.SampleIds.size(), typeStr);
+        mSampleExpression = new double[sampleCount][];
 
-        Map<String,Integer> fieldsMap = Maps.newHashMap();
+        final List<Callable> callableList = Lists.newArrayList();
 
-        // load each sample's alt SJs and consolidate into a single list
-        for(int i = 0; i < mConfig.SampleData.SampleIds.size(); ++i)
+        for(int i = 0; i < sampleCount; ++i)
         {
+            final int sampleIndex = i;
             final String sampleId = mConfig.SampleData.SampleIds.get(i);
             final Path sampleFile = filenames.get(i);
 
-            processSampleFile(i, sampleFile, fieldsMap);
-            ISF_LOGGER.debug("{}: sample({}) processed {} file", i, sampleId, typeStr);
+            callableList.add(() ->
+            {
+                mSampleExpression[sampleIndex] = processSampleFile(sampleFile);
+                ISF_LOGGER.debug("{}: sample({}) processed {} file", sampleIndex, sampleId, typeStr);
+                return null;
+            });
         }
 
-        ISF_LOGGER.info("processed {} samples {} files", mConfig.SampleData.SampleIds.size(), typeStr);
+        if(!TaskExecutor.executeTasks(callableList, mConfig.Threads))
+            return;
+
+        ISF_LOGGER.info("processed {} samples {} files", sampleCount, typeStr);
 
-        writeMatrixData();
+        if(mConfig.Expression.WriteBinaryMatrix)
+            writeBinaryMatrixData();
+        else
+            writeMatrixData();
     }
 
-    private void processSampleFile(int sampleIndex, final Path filename, final Map<String,Integer> fieldsMap)
+    private boolean buildItemIndex(final Path filename)
     {
-        try
+        try(BufferedReader fileReader = Files.newBufferedReader(filename))
         {
-            final List<String> lines = Files.readAllLines(filename);
-
-            if(fieldsMap.isEmpty())
-                fieldsMap.putAll(createFieldsIndexMap(lines.get(0), DELIMITER));
-
-            lines.remove(0);
-
-            boolean isTranscriptLevel = mType == TRANSCRIPT_EXPRESSION_MATRIX;
+            final Map<String,Integer> fieldsMap = createFieldsIndexMap(fileReader.readLine(), DELIMITER);
 
             int geneIdIndex = fieldsMap.get(FLD_GENE_ID);
             int geneNameIndex = fieldsMap.get(FLD_GENE_NAME);
+            int transNameIndex = isTranscriptLevel() ? fieldsMap.get(FLD_TRANS_NAME) : -1;
 
-            int transNameIndex = isTranscriptLevel ? fieldsMap.get(FLD_TRANS_NAME) : -1;
-            int tpmIndex = fieldsMap.get(FLD_TPM);
-
-            int itemIndex = 0;
-            List<String> itemCache = isTranscriptLevel ? mTranscriptNames : mGeneIds;
-            int manualLookupCount = 0;
-
-            double[][] sampleMatrixData = null;
+            String line = null;
 
-            if(mExpressionMatrix == null)
+            while((line = fileReader.readLine()) != null)
             {
-                int samplesCount = mConfig.SampleData.SampleIds.size();
-                int expressionItemCount = lines.size();
+                final String[] items = line.split(DELIMITER, -1);
+
+                final String geneId = items[geneIdIndex];
 
                 // cull rows based on any restrictions in place
-                if(!mConfig.RestrictedGeneIds.isEmpty())
-                {
-                    long itemCount = lines.stream().map(x -> x.split(DELIMITER, -1)[geneIdIndex])
-                            .filter(x -> mConfig.RestrictedGeneIds.contains(x))
-                            .count();
+                if(!mConfig.RestrictedGeneIds.isEmpty() && !mConfig.RestrictedGeneIds.contains(geneId))
+                    continue;
 
-                    expressionItemCount = (int)itemCount;
-                }
+                final String itemId = transNameIndex >= 0 ? items[transNameIndex] : geneId;
 
-                ISF_LOGGER.debug("building gene expression matrix: genes({}) samples({})", expressionItemCount, samplesCount);
+                mItemRowIndex.put(itemId, mGeneIds.size());
+                mGeneIds.add(geneId);
+                mGeneNames.add(items[geneNameIndex]);
 
-                mExpressionMatrix = new Matrix(expressionItemCount, samplesCount);
+                if(transNameIndex >= 0)
+                    mTranscriptNames.add(itemId);
             }
 
-            sampleMatrixData = mExpressionMatrix.getData();
+            return true;
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to load gene data file({}): {}", filename.toString(), e.toString());
+            return false;
+        }
+    }
+
+    private double[] processSampleFile(final Path filename)
+    {
+        final double[] expression = new double[mGeneIds.size()];
+
+        try(BufferedReader fileReader = Files.newBufferedReader(filename))
+        {
+            final Map<String,Integer> fieldsMap = createFieldsIndexMap(fileReader.readLine(), DELIMITER);
+
+            int geneIdIndex = fieldsMap.get(FLD_GENE_ID);
+            int transNameIndex = isTranscriptLevel() ? fieldsMap.get(FLD_TRANS_NAME) : -1;
+            int tpmIndex = fieldsMap.get(FLD_TPM);
 
-            boolean buildIndexes = itemCache.isEmpty();
+            String line = null;
 
-            for(final String data : lines)
+            while((line = fileReader.readLine()) != null)
             {
-                final String[] items = data.split(DELIMITER);
+                final String[] items = line.split(DELIMITER, -1);
 
                 final String geneId = items[geneIdIndex];
-                final String transName = transNameIndex >= 0 ? items[transNameIndex] : "";
 
                 if(!mConfig.RestrictedGeneIds.isEmpty() && !mConfig.RestrictedGeneIds.contains(geneId))
                     continue;
 
-                if(buildIndexes)
-                {
-                    mGeneIds.add(itemIndex, geneId);
-                    mGeneNames.add(itemIndex, items[geneNameIndex]);
+                final String itemId = transNameIndex >= 0 ? items[transNameIndex] : geneId;
+                Integer itemRow = mItemRowIndex.get(itemId);
 
-                    if(transNameIndex >= 0)
-                    {
-                        mTranscriptNames.add(itemIndex, transName);
-                    }
-                }
-                else
+                if(itemRow == null)
                 {
-                    final String itemId = isTranscriptLevel ? transName : geneId;
-
-                    if(itemIndex >= itemCache.size() || !itemCache.get(itemIndex).equals(itemId))
-                    {
-                        ++manualLookupCount;
-
-                        // locate manually
-                        boolean found = false;
-                        for(itemIndex = 0; itemIndex < itemCache.size(); ++itemIndex)
-                        {
-                            if(itemCache.get(itemIndex).equals(itemId))
-                            {
-                                found = true;
-                                break;
-                            }
-                        }
-
-                        if(!found)
-                        {
-                            ISF_LOGGER.error("item({}) not present in item cache samples", itemId);
-                            return;
-                        }
-                    }
+                    ISF_LOGGER.error("file({}) item({}) not present in item cache samples", filename.toString(), itemId);
+                    return expression;
                 }
 
                 double tpm = Double.parseDouble(items[tpmIndex]);
 
                 if(mConfig.Expression.TpmThreshold > 0 && tpm < mConfig.Expression.TpmThreshold)
-                {
-                    ++itemIndex;
                     continue;
-                }
 
                 if(mConfig.Expression.UseLogTpm)
                     tpm = log(tpm + 1);
 
-                sampleMatrixData[itemIndex][sampleIndex] = tpm;
-                ++itemIndex;
-            }
-
-            if(manualLookupCount > 0)
-            {
-                ISF_LOGGER.debug("required {} manual gene look-ups", manualLookupCount);
+                expression[itemRow] = tpm;
             }
         }
         catch(IOException e)
         {
             ISF_LOGGER.error("failed to load gene data file({}): {}", filename.toString(), e.toString());
-            return;
         }
+
+        return expression;
+    }
+
+    private boolean skipRow(int row)
+    {
+        if(!mConfig.Expression.ApplyTpmWriteLimit)
+            return false;
+
+        // skip a row if all sample entries are below the specified threshold
+        for(double[] sampleExpression : mSampleExpression)
+        {
+            if(sampleExpression[row] >= mConfig.Expression.TpmThreshold)
+                return false;
+        }
+
+        return true;
+    }
+
+    private String formMatrixFilename(final String extension)
+    {
+        final String fileType = (mType == TRANSCRIPT_EXPRESSION_MATRIX ? "transcript" : "gene") + "_expression_matrix" + extension;
+        return mConfig.formCohortFilename(fileType);
     }
 
     private void writeMatrixData()
     {
         try
         {
-            final String fileType = (mType == TRANSCRIPT_EXPRESSION_MATRIX ? "transcript" : "gene") + "_expression_matrix.csv";
-            final String filename = mConfig.formCohortFilename(fileType);
+            final String filename = formMatrixFilename(".csv");
 
             BufferedWriter writer = createBufferedWriter(filename, false);
 
@@ -222,42 +238,27 @@ public class ExpressionMatrix
 
             writer.newLine();
 
-            final double[][] matrixData = mExpressionMatrix.getData();
-
-            for(int row = 0; row < mExpressionMatrix.Rows; ++row)
+            for(int row = 0; row < mGeneIds.size(); ++row)
             {
-                if(mConfig.Expression.ApplyTpmWriteLimit)
-                {
-                    // skip a row if all sample entries are below the specified threshold
-                    boolean allLow = true;
-
-                    for(int col = 0; col < mExpressionMatrix.Cols; ++col)
-                    {
-                        if(matrixData[row][col] >= mConfig.Expression.TpmThreshold)
-                        {
-                            allLow = false;
-                            break;
-                        }
-                    }
-
-                    if(allLow)
-                        continue;
-                }
+                if(skipRow(row))
+                    continue;
 
                 writer.write(String.format("%s,%s", mGeneIds.get(row), mGeneNames.get(row)));
 
                 if(mType == TRANSCRIPT_EXPRESSION_MATRIX)
                     writer.write(String.format(",%s", mTranscriptNames.get(row)));
 
-                for(int j = 0; j < mExpressionMatrix.Cols; ++j)
+                for(double[] sampleExpression : mSampleExpression)
                 {
+                    double value = sampleExpression[row];
+
                     // write decimal is most efficient form
-                    if(matrixData[row][j] == 0)
+                    if(value == 0)
                         writer.write(",0");
-                    else if(matrixData[row][j] > 999 || matrixData[row][j] < 0.001)
-                        writer.write(String.format(",%6.3e", matrixData[row][j]));
+                    else if(value > 999 || value < 0.001)
+                        writer.write(String.format(",%6.3e", value));
                     else
-                        writer.write(String.format(",%.4g", matrixData[row][j]));
+                        writer.write(String.format(",%.4g", value));
                 }
 
                 writer.newLine();
@@ -270,4 +271,58 @@ public class ExpressionMatrix
             ISF_LOGGER.error("failed to write expression matrix output: {}", e.toString());
         }
     }
+
+    private void writeBinaryMatrixData()
+    {
+        final List<String> rowLabelFields = Lists.newArrayList(FLD_GENE_ID, FLD_GENE_NAME);
+
+        if(mType == TRANSCRIPT_EXPRESSION_MATRIX)
+            rowLabelFields.add(FLD_TRANS_NAME);
+
+        final List<Integer> rows = Lists.newArrayList();
+        final List<String[]> rowLabels = Lists.newArrayList();
+
+        for(int row = 0; row < mGeneIds.size(); ++row)
+        {
+            if(skipRow(row))
+                continue;
+
+            rows.add(row);
+
+            rowLabels.add(mType == TRANSCRIPT_EXPRESSION_MATRIX
+                    ? new String[] { mGeneIds.get(row), mGeneNames.get(row), mTranscriptNames.get(row) }
+                    : new String[] { mGeneIds.get(row), mGeneNames.get(row) });
+        }
+
+        final List<double[]> columns = Lists.newArrayListWithCapacity(mSampleExpression.length);
+
+        for(double[] sampleExpression : mSampleExpression)
+        {
+            if(rows.size() == sampleExpression.length)
+            {
+                columns.add(sampleExpression);
+                continue;
+            }
+
+            double[] column = new double[rows.size()];
+
+            for(int i = 0; i < rows.size(); ++i)
+            {
+                column[i] = sampleExpression[rows.get(i)];
+            }
+
+            columns.add(column);
+        }
+
+        final String filename = formMatrixFilename(BINARY_MATRIX_FILE_EXTENSION);
+
+        try
+        {
+            BinaryMatrixFile.write(filename, rowLabelFields, rowLabels, mConfig.SampleData.SampleIds, columns);
+        }
+        catch(IOException e)
+        {
+            ISF_LOGGER.error("failed to write binary expression matrix({}): {}", filename, e.toString());
+        }
+    }
 }
@@ -562,7 +562,7 @@ public class ChimericReadTracker
 
         for(ReadRecord read : readGroup.Reads)
         {
-            if(read.getMappedRegions().keySet().stream()
+            if(read.getMappedRegions().regions().stream()
                     .anyMatch(x -> x.getTransExonRefs().stream().anyMatch(y -> mKnownGeneIds.contains(y.GeneId))))
             {
                 return true;
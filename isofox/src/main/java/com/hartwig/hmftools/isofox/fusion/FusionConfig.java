@@ -4,6 +4,7 @@ import static com.hartwig.hmftools.common.fusion.KnownFusionCache.KNOWN_FUSIONS_
 import static com.hartwig.hmftools.common.fusion.KnownFusionCache.KNOWN_FUSIONS_FILE_DESC;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.LOG_DEBUG;
 import static com.hartwig.hmftools.isofox.fusion.FusionConstants.DEFAULT_HARD_FILTER_MIN_FRAGS;
+import static com.hartwig.hmftools.isofox.fusion.FusionConstants.DEFAULT_MAX_CACHED_PARTIAL_GROUPS;
 
 import com.hartwig.hmftools.common.fusion.KnownFusionCache;
 
@@ -19,6 +20,7 @@ public class FusionConfig
     public final boolean CacheFragments;
     public final boolean RunPerfChecks;
     public int MinHardFilterFrags;
+    public final int MaxCachedPartialGroups;
 
     public final KnownFusionCache KnownFusions;
 
@@ -26,6 +28,7 @@ public class FusionConfig
     private static final String WRITE_CHIMERIC_FRAGS = "write_chimeric_frags";
     private static final String MIN_FRAGS_HARD_FILTER = "fusion_min_frags_filter";
     private static final String RUN_FUSION_PERF = "run_fusion_perfs";
+    private static final String MAX_CACHED_PARTIAL_GROUPS = "fusion_max_cached_groups";
 
     public static final String FUSION_COHORT_FILE = "fusion_cohort_file";
 
@@ -37,6 +40,9 @@ public class FusionConfig
         CohortFile = cmd.getOptionValue(FUSION_COHORT_FILE);
         MinHardFilterFrags = Integer.parseInt(cmd.getOptionValue(MIN_FRAGS_HARD_FILTER, String.valueOf(DEFAULT_HARD_FILTER_MIN_FRAGS)));
 
+        MaxCachedPartialGroups = Integer.parseInt(
+                cmd.getOptionValue(MAX_CACHED_PARTIAL_GROUPS, String.valueOf(DEFAULT_MAX_CACHED_PARTIAL_GROUPS)));
+
         KnownFusions = new KnownFusionCache();
         KnownFusions.loadFromFile(cmd);
 
@@ -55,6 +61,7 @@ public class FusionConfig
         CohortFile = null;
         RunPerfChecks = false;
         MinHardFilterFrags = 0;
+        MaxCachedPartialGroups = DEFAULT_MAX_CACHED_PARTIAL_GROUPS;
     }
 
     public static void addCommandLineOptions(final Options options)
@@ -65,5 +72,6 @@ public class FusionConfig
         options.addOption(FUSION_COHORT_FILE, true, "Cohort file previously generated");
         options.addOption(MIN_FRAGS_HARD_FILTER, true, "Hard filter chimeric translocations");
         options.addOption(RUN_FUSION_PERF, false, "Write chimeric fragment data");
+        options.addOption(MAX_CACHED_PARTIAL_GROUPS, true, "Max inter-chromosomal partial read groups held in memory, beyond which they're written to file");
     }
 }
@@ -11,5 +11,7 @@ public class FusionConstants
 
     public static final int DEFAULT_HARD_FILTER_MIN_FRAGS = 2;
 
+    public static final int DEFAULT_MAX_CACHED_PARTIAL_GROUPS = 500000; // inter-chromosomal groups held in memory before spilling to file
+
     public static final int HIGH_LOG_COUNT = 10000;
 }
@@ -11,6 +11,7 @@ import static com.hartwig.hmftools.isofox.common.RegionMatchType.matchRank;
 import static com.hartwig.hmftools.isofox.fusion.FusionTransExon.fromList;
 import static com.hartwig.hmftools.isofox.fusion.FusionUtils.extractTopTransExonRefs;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -19,11 +20,12 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.samtools.SupplementaryReadData;
 import com.hartwig.hmftools.isofox.common.BaseDepth;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
 import com.hartwig.hmftools.isofox.common.RegionMatchType;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
 
-public class FusionRead
+public class FusionRead implements Serializable
 {
     // skip read ID since always obtainable from the read-group
     public final String Chromosome;
@@ -141,11 +143,13 @@ public class FusionRead
 
     private void extractReadTransExonRefs(final ReadRecord read)
     {
-        if(!read.getMappedRegions().isEmpty())
+        final MappedRegions mappedRegions = read.getMappedRegions();
+
+        if(!mappedRegions.isEmpty())
         {
-            for(Map.Entry<RegionReadData, RegionMatchType> entry : read.getMappedRegions().entrySet())
+            for(int i = 0; i < mappedRegions.size(); ++i)
             {
-                RegionMatchType matchType = entry.getValue();
+                RegionMatchType matchType = mappedRegions.matchType(i);
 
                 if(matchRank(matchType) < matchRank(mRegionMatchType))
                     continue;
@@ -156,7 +160,7 @@ public class FusionRead
                     mTransExonRefs.clear();
                 }
 
-                List<FusionTransExon> transRefList = fromList(entry.getKey().getTransExonRefs());
+                List<FusionTransExon> transRefList = fromList(mappedRegions.region(i).getTransExonRefs());
                 FusionTransExon.mergeUnique(mTransExonRefs, transRefList);
             }
         }
@@ -1,10 +1,11 @@
 package com.hartwig.hmftools.isofox.fusion;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import com.google.common.collect.Lists;
 
-public class FusionReadGroup
+public class FusionReadGroup implements Serializable
 {
     public final String ReadId;
     public final List<FusionRead> Reads;
@@ -1,15 +1,16 @@
 package com.hartwig.hmftools.isofox.fusion;
 
 import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
-import static com.hartwig.hmftools.isofox.fusion.FusionReadGroup.mergeChimericReadMaps;
-import static com.hartwig.hmftools.isofox.fusion.HardFilteredCache.removePartialGroupsWithHardFilteredMatch;
+import static com.hartwig.hmftools.isofox.fusion.HardFilteredCache.formChromosomePairString;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
 
@@ -24,7 +25,8 @@ public class FusionTaskManager
     private final RacFragmentCache mRacFragmentCache;
     private final HardFilteredCache mHardFilteredCache;
     private int mHardFilteredFusionCount;
-    private final Map<String,Map<String,FusionReadGroup>> mIncompleteReadGroups; // keyed by chromosome then readId
+    private final PartialReadGroupCache mPartialReadGroups; // inter-chromosomal groups awaiting their other reads
+    private final Set<String> mProcessedChromosomes;
 
     public FusionTaskManager(final IsofoxConfig config, final EnsemblDataCache geneTransCache)
     {
@@ -34,7 +36,8 @@ public class FusionTaskManager
         mPassingFusions = new PassingFusions(config.Fusions.KnownFusions, config.Fusions.CohortFile);
 
         mRacFragmentCache = new RacFragmentCache();
-        mIncompleteReadGroups = Maps.newHashMap();
+        mPartialReadGroups = new PartialReadGroupCache(config.Fusions.MaxCachedPartialGroups, config.OutputDir);
+        mProcessedChromosomes = Sets.newHashSet();
         mHardFilteredCache = new HardFilteredCache();
 
         mGeneTransCache.createTranscriptIdMap();
@@ -51,70 +54,106 @@ public class FusionTaskManager
 
     public final RacFragmentCache racFragmentCache() { return mRacFragmentCache; }
     public final HardFilteredCache hardFilteredCache() { return mHardFilteredCache; }
-    public final Map<String,Map<String,FusionReadGroup>> incompleteReadGroups() { return mIncompleteReadGroups; }
+    public int incompleteReadGroupCount() { return mPartialReadGroups.groupCount(); }
 
-    public synchronized List<FusionReadGroup> addIncompleteReadGroup(
+    public List<FusionReadGroup> addIncompleteReadGroup(
             final String chromosome, final Map<String,Map<String,FusionReadGroup>> chrIncompleteGroups,
             final Map<String,Set<String>> chrHardFilteredReadIds)
     {
         // receive new chromosome's incomplete groups for a particular chromosome, with these grouped by the chromosome they link to
         // additionally the new chromosome's hard-filtered groups, which are used to clear out the cache of previous partial groups
         // likewise use the existing hard-filtered cache to clean out any of the new partial groups
-        int initTotalIncomplete = mIncompleteReadGroups.values().stream().mapToInt(x -> x.size()).sum();
-        int initTotalHardFiltered = mHardFilteredCache.cacheCount();
+        int initTotalIncomplete = mPartialReadGroups.groupCount();
         int initChrIncomplete = chrIncompleteGroups.values().stream().mapToInt(x -> x.size()).sum();
         int initChrHardFiltered = chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum();
 
-        List<FusionReadGroup> completeGroups = Lists.newArrayList();
+        int initTotalHardFiltered;
+        int newTotalHardFiltered;
 
-        for(Map.Entry<String,Map<String, FusionReadGroup>> entry : chrIncompleteGroups.entrySet())
+        synchronized(mHardFilteredCache)
         {
-            String otherChromosome = entry.getKey();
-            Map<String, FusionReadGroup> newIncompleteGroups = entry.getValue();
+            initTotalHardFiltered = mHardFilteredCache.cacheCount();
 
-            Map<String,FusionReadGroup> existingGroups = mIncompleteReadGroups.get(otherChromosome);
+            mHardFilteredCache.removeHardFilteredReads(chromosome, chrIncompleteGroups, chrHardFilteredReadIds);
 
-            if(existingGroups == null)
+            // purge any hard-filtered groups involving chromosomes already processed since they won't be handled again
+            for(String otherChromosome : chrIncompleteGroups.keySet())
             {
-                Map<String,FusionReadGroup> chromosomeGroups = mIncompleteReadGroups.get(chromosome);
-                if(chromosomeGroups == null)
-                {
-                    chromosomeGroups = Maps.newHashMap();
-                    mIncompleteReadGroups.put(chromosome, chromosomeGroups);
-                }
+                if(mProcessedChromosomes.contains(otherChromosome))
+                    mHardFilteredCache.purgeChromosomeEntries(chromosome, otherChromosome);
+            }
 
-                chromosomeGroups.putAll(newIncompleteGroups);
+            mHardFilteredCache.addHardFilteredReads(chrHardFilteredReadIds);
+            mProcessedChromosomes.add(chromosome);
 
-                ISF_LOGGER.debug("added chromosomes({} & {}) newGroups({}) new hardFiltered({})",
-                        chromosome, otherChromosome, newIncompleteGroups.size(),
-                        chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum());
-            }
-            else
+            newTotalHardFiltered = mHardFilteredCache.cacheCount();
+        }
+
+        // partial groups from other chromosomes cannot be completed if this chromosome hard-filtered their other reads
+        // the reads are registered as hard-filtered above before being matched here, so that a group being parked concurrently by
+        // another chromosome is either removed here or found by that chromosome's re-check below
+        for(Map.Entry<String,Set<String>> entry : chrHardFilteredReadIds.entrySet())
+        {
+            Set<String> matchedReadIds = entry.getValue().stream().filter(x -> mPartialReadGroups.removeGroup(x)).collect(Collectors.toSet());
+
+            if(matchedReadIds.isEmpty())
+                continue;
+
+            entry.getValue().removeAll(matchedReadIds);
+
+            synchronized(mHardFilteredCache)
             {
-                removePartialGroupsWithHardFilteredMatch(existingGroups, chrHardFilteredReadIds);
+                mHardFilteredCache.removeMatchedReads(entry.getKey(), matchedReadIds);
+            }
+        }
 
-                mHardFilteredCache.removeHardFilteredReads(chromosome, chrIncompleteGroups, chrHardFilteredReadIds);
+        // each group is either completed by reads already received from another chromosome, or parked until they arrive
+        List<FusionReadGroup> completeGroups = Lists.newArrayList();
+        Map<String,List<String>> parkedReadIds = Maps.newHashMap();
 
-                mergeChimericReadMaps(existingGroups, completeGroups, newIncompleteGroups);
+        for(Map.Entry<String,Map<String,FusionReadGroup>> chrEntry : chrIncompleteGroups.entrySet())
+        {
+            for(FusionReadGroup readGroup : chrEntry.getValue().values())
+            {
+                if(readGroup.isComplete())
+                {
+                    completeGroups.add(readGroup);
+                    continue;
+                }
 
-                // check and remove previously hard-filtered supplementary read groups
-                // purge any hard-filtered groups involving these 2 chromosomes since they won't be handled again
-                mHardFilteredCache.purgeChromosomeEntries(chromosome, otherChromosome);
+                FusionReadGroup completeGroup = mPartialReadGroups.matchOrPark(readGroup);
 
-                ISF_LOGGER.debug("combined chromosomes({} & {}) existing({}) new({}) complete({})",
-                        chromosome, otherChromosome, existingGroups.size(), newIncompleteGroups.size(), completeGroups.size());
+                if(completeGroup != null)
+                    completeGroups.add(completeGroup);
+                else
+                    parkedReadIds.computeIfAbsent(formChromosomePairString(chromosome, chrEntry.getKey()), k -> Lists.newArrayList())
+                            .add(readGroup.ReadId);
             }
         }
 
-        mHardFilteredCache.addHardFilteredReads(chrHardFilteredReadIds);
+        // another chromosome may have hard-filtered the other reads of a group after it was checked above, and cleared its
+        // matching partial groups before this group was parked
+        synchronized(mHardFilteredCache)
+        {
+            for(Map.Entry<String,List<String>> entry : parkedReadIds.entrySet())
+            {
+                String chrPair = entry.getKey();
+
+                Set<String> filteredReadIds = entry.getValue().stream()
+                        .filter(x -> mHardFilteredCache.wasHardFiltered(chrPair, x))
+                        .filter(x -> mPartialReadGroups.removeGroup(x))
+                        .collect(Collectors.toSet());
 
-        int newTotalIncomplete = mIncompleteReadGroups.values().stream().mapToInt(x -> x.size()).sum();
-        int newTotalHardFiltered = mHardFilteredCache.cacheCount();
-        int newChrHardFiltered = chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum();;
+                mHardFilteredCache.removeMatchedReads(chrPair, filteredReadIds);
+            }
+        }
 
-        ISF_LOGGER.info("chr({}) complete({}) partials chr({}) total({} -> {}), filtered chr({} -> {}) total({} -> {})",
+        int newTotalIncomplete = mPartialReadGroups.groupCount();
+        int newChrHardFiltered = chrHardFilteredReadIds.values().stream().mapToInt(x -> x.size()).sum();
+
+        ISF_LOGGER.info("chr({}) complete({}) partials chr({}) total({} -> {}) spilled({}), filtered chr({} -> {}) total({} -> {})",
                 chromosome, completeGroups.size(), initChrIncomplete, initTotalIncomplete, newTotalIncomplete,
-                initChrHardFiltered, newChrHardFiltered, initTotalHardFiltered, newTotalHardFiltered);
+                mPartialReadGroups.spilledCount(), initChrHardFiltered, newChrHardFiltered, initTotalHardFiltered, newTotalHardFiltered);
 
         return completeGroups;
     }
@@ -128,7 +167,7 @@ public class FusionTaskManager
 
     public void close()
     {
-        int incompleteGroupCount = mIncompleteReadGroups.values().stream().mapToInt(x -> x.size()).sum();
+        int incompleteGroupCount = mPartialReadGroups.groupCount();
         int totalHardFiltered = mHardFilteredFusionCount + mHardFilteredCache.hardFilteredCount();
 
         ISF_LOGGER.info("all fusion tasks complete: incompleteGroups({}) RAC frags({} assigned={} groups={}) hardFiltered({} supps={})",
@@ -143,32 +182,28 @@ public class FusionTaskManager
         {
             List<FusionReadGroup> incompleteGroups = Lists.newArrayList();
 
-            for(Map.Entry<String,Map<String, FusionReadGroup>> chrEntry : mIncompleteReadGroups.entrySet())
+            for(FusionReadGroup readGroup : mPartialReadGroups.unmatchedGroups())
             {
-                String chromosome = chrEntry.getKey();
-
-                if(mConfig.Filters.excludeChromosome(chromosome))
+                // groups are parked by the chromosome of their first reads
+                if(mConfig.Filters.excludeChromosome(readGroup.Reads.get(0).Chromosome))
                     continue;
 
-                Map<String, FusionReadGroup> rgMap = chrEntry.getValue();
-                for(FusionReadGroup readGroup : rgMap.values())
+                if(!mConfig.Filters.SpecificChromosomes.isEmpty())
+                {
+                    if(readGroup.Reads.stream().anyMatch(x -> !mConfig.Filters.SpecificChromosomes.contains(x.MateChromosome)))
+                        continue;
+                }
+
+                if(!skipMissingReads(readGroup.Reads))
                 {
-                    if(!mConfig.Filters.SpecificChromosomes.isEmpty())
-                    {
-                        if(readGroup.Reads.stream().anyMatch(x -> !mConfig.Filters.SpecificChromosomes.contains(x.MateChromosome)))
-                            continue;
-                    }
-
-                    if(!skipMissingReads(readGroup.Reads))
-                    {
-                        incompleteGroups.add(readGroup);
-                    }
+                    incompleteGroups.add(readGroup);
                 }
             }
 
             mFusionWriter.writeIncompleteGroupReads(incompleteGroups);
         }
 
+        mPartialReadGroups.close();
         mFusionWriter.close();
     }
 
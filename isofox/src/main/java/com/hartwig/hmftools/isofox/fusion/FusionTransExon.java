@@ -1,11 +1,12 @@
 package com.hartwig.hmftools.isofox.fusion;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.hartwig.hmftools.isofox.common.TransExonRef;
 
-public class FusionTransExon
+public class FusionTransExon implements Serializable
 {
     public final int TransId;
     public final int ExonRank;
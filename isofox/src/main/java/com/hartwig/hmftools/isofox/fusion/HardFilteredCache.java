@@ -92,6 +92,21 @@ public class HardFilteredCache
         }
     }
 
+    public void removeMatchedReads(final String chrPair, final Set<String> readIds)
+    {
+        // clears hard-filtered reads which have been matched to a partial group, as happens when reconciling new reads
+        Set<String> filteredReadIds = mChromosomePairFilteredReads.get(chrPair);
+
+        if(filteredReadIds == null)
+            return;
+
+        for(String readId : readIds)
+        {
+            if(filteredReadIds.remove(readId))
+                --mHardFilteredCount;
+        }
+    }
+
     public void purgeChromosomeEntries(final String chromosome, final String otherChromosome)
     {
         String chrPair = formChromosomePairString(chromosome, otherChromosome);
@@ -110,7 +125,7 @@ public class HardFilteredCache
         }
     }
 
-    private boolean wasHardFiltered(final String chrPair, final String readId)
+    public boolean wasHardFiltered(final String chrPair, final String readId)
     {
         Set<String> filteredReadIds = mChromosomePairFilteredReads.get(chrPair);
         return filteredReadIds != null && filteredReadIds.contains(readId);
@@ -0,0 +1,255 @@
+package com.hartwig.hmftools.isofox.fusion;
+
+import static com.hartwig.hmftools.isofox.IsofoxConfig.ISF_LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+// meeting point for chimeric read groups split across chromosomes - groups are sharded by read ID so chromosome tasks only contend
+// when their reads hash to the same shard, with the first partial group to arrive parked until a later one completes it
+// beyond a configured number of parked groups, further groups are written to a spill file and read back if their other reads arrive
+public class PartialReadGroupCache
+{
+    private final Shard[] mShards;
+    private final int mMaxCachedGroups;
+    private final String mSpillDir;
+
+    private final AtomicInteger mCachedGroupCount;
+    private final AtomicInteger mSpilledGroupCount;
+
+    private final Object mSpillLock;
+    private File mSpillFile;
+    private RandomAccessFile mSpillWriter;
+
+    private static final int SHARD_COUNT = 64;
+
+    private static class Shard
+    {
+        public final Map<String,FusionReadGroup> Groups = Maps.newHashMap();
+        public final Map<String,long[]> SpilledGroups = Maps.newHashMap(); // file offset and length
+    }
+
+    public PartialReadGroupCache(int maxCachedGroups, final String spillDir)
+    {
+        mShards = new Shard[SHARD_COUNT];
+
+        for(int i = 0; i < mShards.length; ++i)
+        {
+            mShards[i] = new Shard();
+        }
+
+        mMaxCachedGroups = maxCachedGroups;
+        mSpillDir = spillDir;
+        mCachedGroupCount = new AtomicInteger();
+        mSpilledGroupCount = new AtomicInteger();
+        mSpillLock = new Object();
+        mSpillFile = null;
+        mSpillWriter = null;
+    }
+
+    public int cachedCount() { return mCachedGroupCount.get(); }
+    public int spilledCount() { return mSpilledGroupCount.get(); }
+    public int groupCount() { return mCachedGroupCount.get() + mSpilledGroupCount.get(); }
+
+    private Shard shard(final String readId)
+    {
+        return mShards[(readId.hashCode() & Integer.MAX_VALUE) % mShards.length];
+    }
+
+    public FusionReadGroup matchOrPark(final FusionReadGroup readGroup)
+    {
+        // returns the group once its other reads have been seen, otherwise parks it to be completed later
+        Shard shard = shard(readGroup.ReadId);
+
+        synchronized(shard)
+        {
+            FusionReadGroup existingGroup = shard.Groups.get(readGroup.ReadId);
+
+            if(existingGroup == null)
+            {
+                long[] spillLocation = shard.SpilledGroups.remove(readGroup.ReadId);
+
+                if(spillLocation != null)
+                {
+                    mSpilledGroupCount.decrementAndGet();
+                    existingGroup = readSpilledGroup(spillLocation);
+
+                    if(existingGroup != null)
+                    {
+                        shard.Groups.put(existingGroup.ReadId, existingGroup);
+                        mCachedGroupCount.incrementAndGet();
+                    }
+                }
+            }
+
+            if(existingGroup == null)
+            {
+                long[] spillLocation = mMaxCachedGroups > 0 && mCachedGroupCount.get() >= mMaxCachedGroups
+                        ? writeSpilledGroup(readGroup) : null;
+
+                if(spillLocation != null)
+                {
+                    shard.SpilledGroups.put(readGroup.ReadId, spillLocation);
+                    mSpilledGroupCount.incrementAndGet();
+                }
+                else
+                {
+                    shard.Groups.put(readGroup.ReadId, readGroup);
+                    mCachedGroupCount.incrementAndGet();
+                }
+
+                return null;
+            }
+
+            existingGroup.merge(readGroup);
+
+            if(!existingGroup.isComplete())
+                return null;
+
+            shard.Groups.remove(existingGroup.ReadId);
+            mCachedGroupCount.decrementAndGet();
+            return existingGroup;
+        }
+    }
+
+    public boolean removeGroup(final String readId)
+    {
+        Shard shard = shard(readId);
+
+        synchronized(shard)
+        {
+            if(shard.Groups.remove(readId) != null)
+            {
+                mCachedGroupCount.decrementAndGet();
+                return true;
+            }
+
+            if(shard.SpilledGroups.remove(readId) != null)
+            {
+                mSpilledGroupCount.decrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    public List<FusionReadGroup> unmatchedGroups()
+    {
+        // only expected to be called once all chromosomes have been processed
+        List<FusionReadGroup> readGroups = Lists.newArrayListWithCapacity(groupCount());
+
+        for(Shard shard : mShards)
+        {
+            synchronized(shard)
+            {
+                readGroups.addAll(shard.Groups.values());
+
+                for(long[] spillLocation : shard.SpilledGroups.values())
+                {
+                    FusionReadGroup readGroup = readSpilledGroup(spillLocation);
+
+                    if(readGroup != null)
+                        readGroups.add(readGroup);
+                }
+            }
+        }
+
+        return readGroups;
+    }
+
+    public void close()
+    {
+        synchronized(mSpillLock)
+        {
+            if(mSpillWriter == null)
+                return;
+
+            try
+            {
+                mSpillWriter.close();
+            }
+            catch(IOException e)
+            {
+                ISF_LOGGER.error("failed to close chimeric read group spill file: {}", e.toString());
+            }
+
+            mSpillFile.delete();
+            mSpillWriter = null;
+        }
+    }
+
+    private long[] writeSpilledGroup(final FusionReadGroup readGroup)
+    {
+        try
+        {
+            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+
+            try(ObjectOutputStream objectStream = new ObjectOutputStream(byteStream))
+            {
+                objectStream.writeObject(readGroup);
+            }
+
+            byte[] data = byteStream.toByteArray();
+
+            synchronized(mSpillLock)
+            {
+                if(mSpillWriter == null)
+                {
+                    mSpillFile = File.createTempFile("isofox_chimeric_groups", ".tmp", mSpillDir != null ? new File(mSpillDir) : null);
+                    mSpillFile.deleteOnExit();
+                    mSpillWriter = new RandomAccessFile(mSpillFile, "rw");
+
+                    ISF_LOGGER.info("partial chimeric read groups exceed {}, writing further groups to {}",
+                            mMaxCachedGroups, mSpillFile.getPath());
+                }
+
+                long offset = mSpillWriter.length();
+                mSpillWriter.seek(offset);
+                mSpillWriter.write(data);
+                return new long[] { offset, data.length };
+            }
+        }
+        catch(IOException e)
+        {
+            // leave the group in memory instead
+            ISF_LOGGER.error("failed to write chimeric read group({}) to spill file: {}", readGroup.ReadId, e.toString());
+            return null;
+        }
+    }
+
+    private FusionReadGroup readSpilledGroup(final long[] spillLocation)
+    {
+        byte[] data = new byte[(int)spillLocation[1]];
+
+        try
+        {
+            synchronized(mSpillLock)
+            {
+                mSpillWriter.seek(spillLocation[0]);
+                mSpillWriter.readFully(data);
+            }
+
+            try(ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream(data)))
+            {
+                return (FusionReadGroup)objectStream.readObject();
+            }
+        }
+        catch(IOException | ClassNotFoundException e)
+        {
+            ISF_LOGGER.error("failed to read chimeric read group from spill file: {}", e.toString());
+            return null;
+        }
+    }
+}
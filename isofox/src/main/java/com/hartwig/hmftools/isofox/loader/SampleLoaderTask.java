@@ -94,7 +94,7 @@ public class SampleLoaderTask implements Callable
         }
         else
         {
-            mRnaDAO = new IsofoxDAO(mDbAccess.context());
+            mRnaDAO = new IsofoxDAO(mDbAccess.context(), mDbAccess.bulkLoad());
         }
     }
 
@@ -33,8 +33,8 @@ import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
-import com.hartwig.hmftools.isofox.common.RegionMatchType;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
 import com.hartwig.hmftools.isofox.fusion.ChimericReadGroup;
 
@@ -266,16 +266,18 @@ public class NeoEpitopeReader
                 for(ReadRecord read : readGroup.Reads)
                 {
                     // any matched transcript needs to be fully exonic in every region, not just one
-                    for(Map.Entry<RegionReadData,RegionMatchType> entry : read.getMappedRegions().entrySet())
+                    final MappedRegions mappedRegions = read.getMappedRegions();
+
+                    for(int i = 0; i < mappedRegions.size(); ++i)
                     {
-                        final RegionReadData region = entry.getKey();
+                        final RegionReadData region = mappedRegions.region(i);
 
                         if(region.getTransExonRefs().stream().noneMatch(x -> transName.equals(x.TransName)))
                             continue;
 
                         hasTrans = true;
 
-                        if(!validExonMatch(entry.getValue()))
+                        if(!validExonMatch(mappedRegions.matchType(i)))
                             hasSupport = false;
                     }
                 }
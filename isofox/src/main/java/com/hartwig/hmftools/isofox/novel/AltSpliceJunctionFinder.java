@@ -30,7 +30,6 @@ import static com.hartwig.hmftools.common.rna.AltSpliceJunctionType.SKIPPED_EXON
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
@@ -41,6 +40,7 @@ import com.hartwig.hmftools.isofox.IsofoxConfig;
 import com.hartwig.hmftools.isofox.common.BaseDepth;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
 import com.hartwig.hmftools.isofox.common.RegionMatchType;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
@@ -144,7 +144,7 @@ public class AltSpliceJunctionFinder
         if(!read.Cigar.containsOperator(CigarOperator.N))
             return false;
 
-        if(read.getTranscriptClassifications().values().contains(TransMatchType.SPLICE_JUNCTION))
+        if(read.getTranscriptClassifications().hasMatchType(TransMatchType.SPLICE_JUNCTION))
             return false;
 
         if(read.getMappedRegionCoords().size() == 1)
@@ -211,16 +211,16 @@ public class AltSpliceJunctionFinder
         AltSpliceJunction altSplicJunction = new AltSpliceJunction(
                 mGenes.chromosome(), spliceJunction, sjType, read.Id, regionContexts, sjStartRegions, sjEndRegions);
 
-        altSplicJunction.setCandidateTranscripts(read.getMappedRegions().keySet().stream().collect(Collectors.toList()));
+        altSplicJunction.setCandidateTranscripts(read.getMappedRegions().regions());
 
         return altSplicJunction;
     }
 
     private static final int MAX_HOMOLOGY_LENGTH = 5;
 
-    private void checkJunctionHomology(final int[] spliceJunction, final Map<RegionReadData,RegionMatchType> readRegions)
+    private void checkJunctionHomology(final int[] spliceJunction, final MappedRegions readRegions)
     {
-        if(readRegions.values().stream().anyMatch(x -> x == EXON_BOUNDARY)) // only consider if neither side matches a known junction
+        if(readRegions.hasMatchType(EXON_BOUNDARY)) // only consider if neither side matches a known junction
             return;
 
         // check for a junction position (or both) which can be moved by homology to match a known splice site
@@ -234,7 +234,7 @@ public class AltSpliceJunctionFinder
 
             int nearestBoundary = MAX_HOMOLOGY_LENGTH + 1;
 
-            for(RegionReadData region : readRegions.keySet())
+            for(RegionReadData region : readRegions.regions())
             {
                 int distance = abs(spliceJunction[se] - region.start()) < abs(spliceJunction[se] - region.end()) ?
                         spliceJunction[se] - region.start() : spliceJunction[se] - region.end();
@@ -318,7 +318,7 @@ public class AltSpliceJunctionFinder
             else
                 spliceJunction[SE_END] = read.getCoordsBoundary(SE_END);
 
-            for(RegionReadData region : read.getMappedRegions().keySet())
+            for(RegionReadData region : read.getMappedRegions().regions())
             {
                 if(!candidateRegions.contains(region))
                     candidateRegions.add(region);
@@ -374,10 +374,12 @@ public class AltSpliceJunctionFinder
         // collect up all exon regions matching the observed novel splice junction
         final List<Integer> sjMatchedTransIds = Lists.newArrayList();
 
-        for (Map.Entry<RegionReadData, RegionMatchType> entry : read.getMappedRegions().entrySet())
+        final MappedRegions mappedRegions = read.getMappedRegions();
+
+        for(int i = 0; i < mappedRegions.size(); ++i)
         {
-            final RegionReadData region = entry.getKey();
-            RegionMatchType matchType = entry.getValue();
+            final RegionReadData region = mappedRegions.region(i);
+            RegionMatchType matchType = mappedRegions.matchType(i);
 
             if(matchType == RegionMatchType.NONE)
                 continue;
@@ -410,10 +412,10 @@ public class AltSpliceJunctionFinder
             if(regionContexts[se] == SPLICE_JUNC)
                 continue;
 
-            for (Map.Entry<RegionReadData, RegionMatchType> entry : read.getMappedRegions().entrySet())
+            for(int i = 0; i < mappedRegions.size(); ++i)
             {
-                final RegionReadData region = entry.getKey();
-                RegionMatchType matchType = entry.getValue();
+                final RegionReadData region = mappedRegions.region(i);
+                RegionMatchType matchType = mappedRegions.matchType(i);
 
                 if (matchType == RegionMatchType.NONE)
                     continue;
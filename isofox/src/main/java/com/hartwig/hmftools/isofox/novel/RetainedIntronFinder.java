@@ -12,14 +12,13 @@ import static com.hartwig.hmftools.isofox.IsofoxFunction.RETAINED_INTRONS;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
 import com.hartwig.hmftools.isofox.common.BaseDepth;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
 import com.hartwig.hmftools.isofox.common.RegionMatchType;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
@@ -78,9 +77,7 @@ public class RetainedIntronFinder
 
             if(read.containsSplit())
             {
-                splicedTrans.addAll(read.getTranscriptClassifications().entrySet().stream()
-                        .filter(x -> x.getValue() == TransMatchType.SPLICE_JUNCTION)
-                        .map(x -> x.getKey()).collect(Collectors.toList()));
+                splicedTrans.addAll(read.getTranscriptClassifications().transIds(TransMatchType.SPLICE_JUNCTION));
 
                 continue;
             }
@@ -142,12 +139,17 @@ public class RetainedIntronFinder
 
         final List<RegionReadData> candidateRegions = Lists.newArrayList();
 
-        if(read.getMappedRegions().values().stream().anyMatch(x -> x != RegionMatchType.EXON_INTRON))
-            return null;
+        final MappedRegions mappedRegions = read.getMappedRegions();
+
+        for(int i = 0; i < mappedRegions.size(); ++i)
+        {
+            if(mappedRegions.matchType(i) != RegionMatchType.EXON_INTRON)
+                return null;
+        }
 
-        for(Map.Entry<RegionReadData,RegionMatchType> entry : read.getMappedRegions().entrySet())
+        for(int i = 0; i < mappedRegions.size(); ++i)
         {
-            RegionReadData region = entry.getKey();
+            RegionReadData region = mappedRegions.region(i);
 
             // check each end in turn
             for (int se = SE_START; se <= SE_END; ++se)
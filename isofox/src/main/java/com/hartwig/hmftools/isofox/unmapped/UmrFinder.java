@@ -17,7 +17,6 @@ import static com.hartwig.hmftools.isofox.unmapped.UnmappedRead.UMR_NO_MATE;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import com.google.common.collect.Lists;
@@ -29,8 +28,8 @@ import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.isofox.IsofoxConfig;
 import com.hartwig.hmftools.isofox.common.FragmentTracker;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
-import com.hartwig.hmftools.isofox.common.RegionMatchType;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
 import com.hartwig.hmftools.isofox.common.TransExonRef;
 
@@ -198,13 +197,15 @@ public class UmrFinder
         int exonBoundary = -1;
         int exonBoundaryDistance = -1;
 
-        for(Map.Entry<RegionReadData,RegionMatchType> entry : read.getMappedRegions().entrySet())
+        final MappedRegions mappedRegions = read.getMappedRegions();
+
+        for(int i = 0; i < mappedRegions.size(); ++i)
         {
-            if(entry.getValue() != EXON_INTRON && entry.getValue() != EXON_BOUNDARY)
+            if(mappedRegions.matchType(i) != EXON_INTRON && mappedRegions.matchType(i) != EXON_BOUNDARY)
                 continue;
 
             // capture exon rank and whether a splice acceptor or donor
-            RegionReadData region = entry.getKey();
+            RegionReadData region = mappedRegions.region(i);
             TransExonRef transExonRef = region.getTransExonRefs().get(0);
 
             TranscriptData transData = mGenes.getTranscripts().stream()
@@ -225,7 +225,7 @@ public class NovelJunctionsTest
 
         overlappingRegions = gene.findOverlappingRegions(read);
         read.processOverlappingRegions(overlappingRegions);
-        transIds = read.getTranscriptClassifications().keySet().stream().collect(Collectors.toList());
+        transIds = read.getTranscriptClassifications().transIds();
 
         altSJ = asjFinder.createFromRead(read, transIds);
         altSJ.setGeneId(gene.GeneData.GeneId);
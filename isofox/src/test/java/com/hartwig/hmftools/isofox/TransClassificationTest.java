@@ -14,12 +14,18 @@ import static com.hartwig.hmftools.isofox.TestUtils.createRegion;
 import static com.hartwig.hmftools.isofox.common.FragmentType.CHIMERIC;
 import static com.hartwig.hmftools.isofox.common.FragmentType.TOTAL;
 import static com.hartwig.hmftools.isofox.common.FragmentType.typeAsInt;
+import static com.hartwig.hmftools.isofox.common.RegionMatchType.EXON_BOUNDARY;
+import static com.hartwig.hmftools.isofox.common.RegionMatchType.EXON_INTRON;
 import static com.hartwig.hmftools.isofox.common.TransMatchType.ALT;
 import static com.hartwig.hmftools.isofox.common.TransMatchType.EXONIC;
 import static com.hartwig.hmftools.isofox.common.TransMatchType.SPLICE_JUNCTION;
+import static com.hartwig.hmftools.isofox.common.TransMatchType.UNKNOWN;
 import static com.hartwig.hmftools.isofox.common.TransMatchType.UNSPLICED;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
@@ -29,8 +35,10 @@ import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.isofox.common.FragmentType;
 import com.hartwig.hmftools.isofox.common.GeneCollection;
 import com.hartwig.hmftools.isofox.common.GeneReadData;
+import com.hartwig.hmftools.isofox.common.MappedRegions;
 import com.hartwig.hmftools.isofox.common.ReadRecord;
 import com.hartwig.hmftools.isofox.common.RegionReadData;
+import com.hartwig.hmftools.isofox.common.TransClassifications;
 import com.hartwig.hmftools.isofox.results.ResultsWriter;
 
 import org.junit.Test;
@@ -322,4 +330,40 @@ public class TransClassificationTest
         assertEquals(1, geneCounts[typeAsInt(FragmentType.ALT)]);
     }
 
+    @Test
+    public void testCompactReadClassifications()
+    {
+        TransClassifications transTypes = new TransClassifications();
+        assertTrue(transTypes.isEmpty());
+        assertEquals(UNKNOWN, transTypes.get(1));
+
+        // held in transcript order regardless of the order classified
+        for(int transId : new int[] { 50, 10, 30, 20, 40, 60 })
+        {
+            transTypes.put(transId, EXONIC);
+        }
+
+        transTypes.put(30, SPLICE_JUNCTION);
+
+        assertEquals(6, transTypes.size());
+        assertEquals(Lists.newArrayList(10, 20, 30, 40, 50, 60), transTypes.transIds());
+        assertEquals(SPLICE_JUNCTION, transTypes.get(30));
+        assertEquals(Lists.newArrayList(30), transTypes.transIds(SPLICE_JUNCTION));
+        assertFalse(transTypes.contains(35));
+
+        MappedRegions mappedRegions = new MappedRegions();
+
+        RegionReadData region1 = createRegion(GENE_ID_1, TRANS_1, 1, CHR_1, 100, 200);
+        RegionReadData region2 = createRegion(GENE_ID_1, TRANS_1, 2, CHR_1, 300, 400);
+
+        mappedRegions.put(region1, EXON_INTRON);
+        mappedRegions.put(region2, EXON_BOUNDARY);
+        mappedRegions.put(region1, EXON_BOUNDARY);
+
+        assertEquals(2, mappedRegions.size());
+        assertEquals(region1, mappedRegions.region(0));
+        assertEquals(EXON_BOUNDARY, mappedRegions.get(region1));
+        assertFalse(mappedRegions.hasMatchType(EXON_INTRON));
+        assertNull(mappedRegions.get(createRegion(GENE_ID_1, TRANS_1, 3, CHR_1, 500, 600)));
+    }
 }
@@ -308,7 +308,7 @@ public class FusionFiltersTest
         interChromosomalGroups = fusionTaskManager.addIncompleteReadGroup(
                 gc3.chromosome(), chrIncompleteReadsGroups, bamReader2.getChimericReadTracker().getHardFilteredReadIds());
 
-        assertEquals(0, fusionTaskManager.incompleteReadGroups().values().stream().mapToInt(x -> x.size()).sum());
+        assertEquals(0, fusionTaskManager.incompleteReadGroupCount());
         assertEquals(0, fusionTaskManager.hardFilteredCache().cacheCount());
         assertEquals(0, fusionTaskManager.hardFilteredCache().chrPairCount());
 
@@ -317,4 +317,51 @@ public class FusionFiltersTest
         assertEquals(1, finderChr2.getFusionCandidates().values().stream().mapToInt(x -> x.size()).sum());
     }
 
+    @Test
+    public void testPartialReadGroupCache()
+    {
+        // allow 2 groups in memory, with the rest written to the spill file
+        PartialReadGroupCache partialGroups = new PartialReadGroupCache(2, null);
+
+        int groupCount = 5;
+
+        for(int i = 0; i < groupCount; ++i)
+        {
+            FusionReadGroup readGroup = createPartialGroup(i, CHR_1, CHR_2, 100 + i * 100);
+            assertEquals(null, partialGroups.matchOrPark(readGroup));
+        }
+
+        assertEquals(2, partialGroups.cachedCount());
+        assertEquals(3, partialGroups.spilledCount());
+        assertEquals(groupCount, partialGroups.unmatchedGroups().size());
+
+        // a hard-filtered read removes its parked group
+        assertTrue(partialGroups.removeGroup(String.valueOf(groupCount - 1)));
+        assertEquals(groupCount - 1, partialGroups.groupCount());
+
+        for(int i = 0; i < groupCount - 1; ++i)
+        {
+            FusionReadGroup completeGroup = partialGroups.matchOrPark(createPartialGroup(i, CHR_2, CHR_1, 5000 + i * 100));
+
+            assertTrue(completeGroup != null);
+            assertEquals(2, completeGroup.size());
+
+            // reads from the first chromosome are kept in order, whether or not the group was spilled
+            assertEquals(CHR_1, completeGroup.Reads.get(0).Chromosome);
+            assertEquals(100 + i * 100, completeGroup.Reads.get(0).posStart());
+            assertEquals(CHR_2, completeGroup.Reads.get(1).Chromosome);
+        }
+
+        assertEquals(0, partialGroups.groupCount());
+        partialGroups.close();
+    }
+
+    private static FusionReadGroup createPartialGroup(int readId, final String chromosome, final String mateChromosome, int posStart)
+    {
+        ReadRecord read = createReadRecord(
+                readId, chromosome, posStart, posStart + 19, REF_BASE_STR_1, createCigar(0, 20, 0),
+                0, mateChromosome, 1000);
+
+        return new FusionReadGroup(read.Id, Lists.newArrayList(new FusionRead(read)));
+    }
 }
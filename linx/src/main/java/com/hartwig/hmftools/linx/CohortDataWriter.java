@@ -35,11 +35,13 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.sv.StructuralVariantData;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.linx.analysis.ClusterMetrics;
 import com.hartwig.hmftools.linx.annotators.LineElementType;
 import com.hartwig.hmftools.linx.chaining.ChainMetrics;
@@ -54,6 +56,8 @@ import com.hartwig.hmftools.linx.types.SvVarData;
 import com.hartwig.hmftools.linx.visualiser.file.VisDataWriter;
 
 // a class to own all the cohort-level writers for multi-threading synchronicity
+// when samples are processed on multiple threads, each thread writes its samples' lines to its own shard of each file,
+// and the shards are combined in sample order when the writer is closed
 public class CohortDataWriter
 {
     private final LinxConfig mConfig;
@@ -61,6 +65,7 @@ public class CohortDataWriter
     private final VisDataWriter mVisWriter;
 
     private final Map<String,BufferedWriter> mWriters;
+    private final CohortFileShards mShards;
 
     public static final String COHORT_WRITER_SV = "SvData";
     public static final String COHORT_WRITER_CLUSTER = "Cluster";
@@ -72,8 +77,11 @@ public class CohortDataWriter
 
         mWriters = Maps.newHashMap();
 
+        mShards = config.hasMultipleSamples() && config.Threads > 1 && config.OutputDataPath != null
+                ? new CohortFileShards(config.OutputDataPath, config.getSampleIds()) : null;
+
         mVisWriter = new VisDataWriter(
-                config.OutputDataPath, geneDataCache, config.Output.WriteVisualisationData, config.hasMultipleSamples());
+                config.OutputDataPath, geneDataCache, config.Output.WriteVisualisationData, config.hasMultipleSamples(), mShards);
 
         mWriters.put(COHORT_WRITER_SV, createSvDataFile());
         mWriters.put(COHORT_WRITER_CLUSTER, createClusterFile());
@@ -82,12 +90,44 @@ public class CohortDataWriter
 
     public final VisDataWriter getVisWriter() { return mVisWriter; }
 
+    public void finishSample(final String sampleId)
+    {
+        if(mShards != null)
+            mShards.finishSample(sampleId);
+    }
+
     public void close()
     {
+        if(mShards != null)
+            mergeShards();
+
         mWriters.values().forEach(x -> closeBufferedWriter(x));
         mVisWriter.close();
     }
 
+    private void mergeShards()
+    {
+        // each cohort file is assembled from its shards independently
+        final Map<String,BufferedWriter> cohortWriters = Maps.newHashMap(mWriters);
+        cohortWriters.putAll(mVisWriter.getCohortWriters());
+
+        final List<Callable> callableList = Lists.newArrayList();
+
+        for(Map.Entry<String,BufferedWriter> entry : cohortWriters.entrySet())
+        {
+            if(entry.getValue() == null)
+                continue;
+
+            callableList.add(() ->
+            {
+                mShards.mergeShards(entry.getKey(), entry.getValue());
+                return null;
+            });
+        }
+
+        TaskExecutor.executeTasks(callableList, mConfig.Threads);
+    }
+
     public boolean writeCohortFiles()
     {
         return mConfig.hasMultipleSamples() || mConfig.Output.WriteCohortFiles;
@@ -95,28 +135,52 @@ public class CohortDataWriter
 
     public boolean hasWriter(final String fileType) { return mWriters.containsKey(fileType); }
 
-    public synchronized void write(final CohortFileInterface cohortFile, final List<String> lines)
+    private BufferedWriter getWriter(final String fileType, final CohortFileInterface cohortFile)
     {
-        if(mConfig.OutputDataPath == null)
-            return;
+        // returns the calling thread's shard of the file if sharding, otherwise the file's own writer
+        if(mShards != null)
+        {
+            BufferedWriter shardWriter = mShards.getWriter(fileType);
+
+            if(shardWriter != null)
+                return shardWriter;
+        }
 
-        BufferedWriter writer = mWriters.get(cohortFile.fileType());
+        BufferedWriter writer;
 
-        if(writer == null)
+        synchronized(mWriters)
         {
-            writer = cohortFile.createWriter(mConfig.OutputDataPath);
-            mWriters.put(cohortFile.fileType(), writer);
+            if(cohortFile != null && !mWriters.containsKey(fileType))
+                mWriters.put(fileType, cohortFile.createWriter(mConfig.OutputDataPath));
+
+            writer = mWriters.get(fileType);
         }
 
+        if(writer == null || mShards == null)
+            return writer;
+
+        return mShards.createWriter(fileType);
+    }
+
+    public void write(final CohortFileInterface cohortFile, final List<String> lines)
+    {
+        if(mConfig.OutputDataPath == null)
+            return;
+
+        BufferedWriter writer = getWriter(cohortFile.fileType(), cohortFile);
+
         if(writer == null)
             return;
 
         try
         {
-            for(String line : lines)
+            synchronized(writer)
             {
-                writer.write(line);
-                writer.newLine();
+                for(String line : lines)
+                {
+                    writer.write(line);
+                    writer.newLine();
+                }
             }
         }
         catch(IOException e)
@@ -189,13 +253,21 @@ public class CohortDataWriter
 
     private static final int INF_DB_MARKER = -2000;
 
-    public synchronized void writeSvData(final String sampleId, final List<SvVarData> svDataList)
+    public void writeSvData(final String sampleId, final List<SvVarData> svDataList)
     {
-        BufferedWriter writer = mWriters.get(COHORT_WRITER_SV);
+        BufferedWriter writer = getWriter(COHORT_WRITER_SV, null);
 
         if(writer == null)
             return;
 
+        synchronized(writer)
+        {
+            writeSvData(writer, sampleId, svDataList);
+        }
+    }
+
+    private void writeSvData(final BufferedWriter writer, final String sampleId, final List<SvVarData> svDataList)
+    {
         try
         {
             for(final SvVarData var : svDataList)
@@ -377,13 +449,21 @@ public class CohortDataWriter
         }
     }
 
-    public synchronized void writeClusterData(final String sampleId, final List<SvCluster> clusters)
+    public void writeClusterData(final String sampleId, final List<SvCluster> clusters)
     {
-        BufferedWriter writer = mWriters.get(COHORT_WRITER_CLUSTER);
+        BufferedWriter writer = getWriter(COHORT_WRITER_CLUSTER, null);
 
         if(writer == null)
             return;
 
+        synchronized(writer)
+        {
+            writeClusterData(writer, sampleId, clusters);
+        }
+    }
+
+    private void writeClusterData(final BufferedWriter writer, final String sampleId, final List<SvCluster> clusters)
+    {
         try
         {
             for(final SvCluster cluster : clusters)
@@ -506,16 +586,24 @@ public class CohortDataWriter
         }
     }
 
-    public synchronized void writeLinksData(final String sampleId, final List<SvCluster> clusters)
+    public void writeLinksData(final String sampleId, final List<SvCluster> clusters)
     {
         if(!mConfig.Output.WriteLinks)
             return;
 
-        BufferedWriter writer = mWriters.get(COHORT_WRITER_LINK);
+        BufferedWriter writer = getWriter(COHORT_WRITER_LINK, null);
 
         if(writer == null)
             return;
 
+        synchronized(writer)
+        {
+            writeLinksData(writer, sampleId, clusters);
+        }
+    }
+
+    private void writeLinksData(final BufferedWriter writer, final String sampleId, final List<SvCluster> clusters)
+    {
         try
         {
             for(final SvCluster cluster : clusters)
@@ -0,0 +1,225 @@
+package com.hartwig.hmftools.linx;
+
+import static com.hartwig.hmftools.linx.LinxConfig.LNX_LOGGER;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+// cohort output for multi-threaded sample runs - each sample thread writes to its own shard of each cohort file without any locking,
+// recording where each sample's lines start and end, and the shards are then copied into the cohort files in sample order
+public class CohortFileShards
+{
+    private final String mOutputDir;
+    private final Map<String,Integer> mSampleIndex;
+
+    private final ThreadLocal<Shard> mThreadShard;
+    private final List<Shard> mShards;
+
+    private static final int SHARD_BUFFER_SIZE = 1 << 20;
+    private static final String SHARD_FILE_PREFIX = ".linx_cohort_shard_";
+
+    private static class Shard
+    {
+        public final int Id;
+        public final Map<String,ShardFile> Files = Maps.newHashMap();
+
+        public Shard(int id) { Id = id; }
+    }
+
+    private class ShardFile
+    {
+        public final File ShardPath;
+        public final FileOutputStream Stream;
+        public final BufferedWriter Writer;
+        public final List<SampleSegment> Segments;
+        public long SegmentStart;
+
+        public ShardFile(final String fileType, int shardId) throws IOException
+        {
+            ShardPath = new File(mOutputDir + SHARD_FILE_PREFIX + fileType + "_" + shardId + ".tmp");
+            Stream = new FileOutputStream(ShardPath, false);
+            Writer = new BufferedWriter(new OutputStreamWriter(Stream, StandardCharsets.UTF_8), SHARD_BUFFER_SIZE);
+            Segments = Lists.newArrayList();
+            SegmentStart = 0;
+        }
+    }
+
+    private static class SampleSegment
+    {
+        public final ShardFile Source;
+        public final int SampleIndex;
+        public final long Start;
+        public final long End;
+
+        public SampleSegment(final ShardFile source, int sampleIndex, long start, long end)
+        {
+            Source = source;
+            SampleIndex = sampleIndex;
+            Start = start;
+            End = end;
+        }
+    }
+
+    public CohortFileShards(final String outputDir, final List<String> sampleIds)
+    {
+        mOutputDir = outputDir;
+        mSampleIndex = Maps.newHashMapWithExpectedSize(sampleIds.size());
+
+        for(int i = 0; i < sampleIds.size(); ++i)
+        {
+            mSampleIndex.put(sampleIds.get(i), i);
+        }
+
+        mShards = Lists.newArrayList();
+        mThreadShard = ThreadLocal.withInitial(this::registerShard);
+    }
+
+    private Shard registerShard()
+    {
+        synchronized(mShards)
+        {
+            Shard shard = new Shard(mShards.size());
+            mShards.add(shard);
+            return shard;
+        }
+    }
+
+    public BufferedWriter getWriter(final String fileType)
+    {
+        // the calling thread's shard for this file type, if it has written to it
+        ShardFile shardFile = mThreadShard.get().Files.get(fileType);
+        return shardFile != null ? shardFile.Writer : null;
+    }
+
+    public BufferedWriter createWriter(final String fileType)
+    {
+        Shard shard = mThreadShard.get();
+        ShardFile shardFile = shard.Files.get(fileType);
+
+        if(shardFile != null)
+            return shardFile.Writer;
+
+        try
+        {
+            shardFile = new ShardFile(fileType, shard.Id);
+            shard.Files.put(fileType, shardFile);
+            return shardFile.Writer;
+        }
+        catch(IOException e)
+        {
+            LNX_LOGGER.error("failed to create {} cohort shard file: {}", fileType, e.toString());
+            return null;
+        }
+    }
+
+    public void finishSample(final String sampleId)
+    {
+        // marks the end of this sample's lines in each of the calling thread's shard files
+        int sampleIndex = mSampleIndex.getOrDefault(sampleId, mSampleIndex.size());
+
+        for(Map.Entry<String,ShardFile> entry : mThreadShard.get().Files.entrySet())
+        {
+            ShardFile shardFile = entry.getValue();
+
+            try
+            {
+                shardFile.Writer.flush();
+                long end = shardFile.Stream.getChannel().position();
+
+                if(end > shardFile.SegmentStart)
+                {
+                    shardFile.Segments.add(new SampleSegment(shardFile, sampleIndex, shardFile.SegmentStart, end));
+                    shardFile.SegmentStart = end;
+                }
+            }
+            catch(IOException e)
+            {
+                LNX_LOGGER.error("sample({}) failed to write {} cohort shard: {}", sampleId, entry.getKey(), e.toString());
+            }
+        }
+    }
+
+    public void mergeShards(final String fileType, final BufferedWriter writer)
+    {
+        // only called once all samples are complete
+        final Map<ShardFile,RandomAccessFile> shardReaders = Maps.newHashMap();
+        final List<SampleSegment> segments = Lists.newArrayList();
+
+        try
+        {
+            for(Shard shard : mShards)
+            {
+                ShardFile shardFile = shard.Files.get(fileType);
+
+                if(shardFile == null)
+                    continue;
+
+                shardFile.Writer.close();
+
+                // keep any lines written after the thread's last sample was finished
+                long length = shardFile.ShardPath.length();
+
+                if(length > shardFile.SegmentStart)
+                    shardFile.Segments.add(new SampleSegment(shardFile, mSampleIndex.size(), shardFile.SegmentStart, length));
+
+                shardReaders.put(shardFile, new RandomAccessFile(shardFile.ShardPath, "r"));
+                segments.addAll(shardFile.Segments);
+            }
+
+            segments.sort(Comparator.comparingInt(x -> x.SampleIndex));
+
+            byte[] buffer = new byte[0];
+
+            for(SampleSegment segment : segments)
+            {
+                RandomAccessFile reader = shardReaders.get(segment.Source);
+
+                int length = (int)(segment.End - segment.Start);
+
+                if(buffer.length < length)
+                    buffer = new byte[length];
+
+                reader.seek(segment.Start);
+                reader.readFully(buffer, 0, length);
+                writer.write(new String(buffer, 0, length, StandardCharsets.UTF_8));
+            }
+        }
+        catch(IOException e)
+        {
+            LNX_LOGGER.error("failed to merge {} cohort shards: {}", fileType, e.toString());
+        }
+        finally
+        {
+            for(RandomAccessFile reader : shardReaders.values())
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch(IOException e)
+                {
+                    LNX_LOGGER.warn("failed to close {} cohort shard: {}", fileType, e.toString());
+                }
+            }
+
+            for(Shard shard : mShards)
+            {
+                ShardFile shardFile = shard.Files.get(fileType);
+
+                if(shardFile != null)
+                    shardFile.ShardPath.delete();
+            }
+        }
+    }
+}
@@ -179,6 +179,7 @@ public class SampleAnalyser implements Callable
             mPerfCounters.get(PERF_COUNTER_TOTAL).start();
 
             processSample(mSampleIds.get(i));
+            mCohortDataWriter.finishSample(mSampleIds.get(i));
 
             if(i > 10 && (i % 10) == 0)
             {
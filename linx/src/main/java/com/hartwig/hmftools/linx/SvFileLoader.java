@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.linx;
 
+import static java.lang.Math.max;
+
 import static com.hartwig.hmftools.common.sv.StructuralVariantData.convertSvData;
 import static com.hartwig.hmftools.common.sv.StructuralVariantFactory.INFERRED;
 import static com.hartwig.hmftools.common.sv.StructuralVariantFactory.PASS;
@@ -7,7 +9,6 @@ import static com.hartwig.hmftools.common.sv.StructuralVariantFactory.PON_COUNT;
 import static com.hartwig.hmftools.linx.LinxConfig.LNX_LOGGER;
 import static com.hartwig.hmftools.patientdb.dao.DatabaseUtil.valueNotNull;
 
-import java.io.IOException;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -32,19 +33,22 @@ public final class SvFileLoader
     {
         String vcfFile = config.SvVcfFile.contains("*") ? config.SvVcfFile.replaceAll("\\*", sampleId) : config.SvVcfFile;
 
+        // samples are already spread over the threads when running a cohort
+        int threads = config.hasMultipleSamples() ? 1 : max(config.Threads, 1);
+
         if(config.IsGermline)
-            return loadSvDataFromGermlineVcf(vcfFile);
+            return loadSvDataFromGermlineVcf(vcfFile, threads);
         else
-            return loadSvDataFromVcf(vcfFile);
+            return loadSvDataFromVcf(vcfFile, threads);
     }
 
-    private static List<StructuralVariantData> loadSvDataFromVcf(final String vcfFile)
+    private static List<StructuralVariantData> loadSvDataFromVcf(final String vcfFile, int threads)
     {
         final List<StructuralVariantData> svDataList = Lists.newArrayList();
 
         try
         {
-            final List<StructuralVariant> variants = StructuralVariantFileLoader.fromFile(vcfFile, new AlwaysPassFilter());
+            final List<StructuralVariant> variants = StructuralVariantFileLoader.fromFile(vcfFile, new AlwaysPassFilter(), threads);
             final List<EnrichedStructuralVariant> enrichedVariants = new EnrichedStructuralVariantFactory().enrich(variants);
 
             // generate a unique ID for each SV record
@@ -57,7 +61,7 @@ public final class SvFileLoader
 
             LNX_LOGGER.info("loaded {} SV data records from VCF file: {}", svDataList.size(), vcfFile);
         }
-        catch(IOException e)
+        catch(Exception e)
         {
             LNX_LOGGER.error("failed to load SVs from VCF: {}", e.toString());
         }
@@ -65,13 +69,13 @@ public final class SvFileLoader
         return svDataList;
     }
 
-    private static List<StructuralVariantData> loadSvDataFromGermlineVcf(final String vcfFile)
+    private static List<StructuralVariantData> loadSvDataFromGermlineVcf(final String vcfFile, int threads)
     {
         final List<StructuralVariantData> svDataList = Lists.newArrayList();
 
         try
         {
-            final List<StructuralVariant> variants = StructuralVariantFileLoader.fromFile(vcfFile, new GermlineFilter());
+            final List<StructuralVariant> variants = StructuralVariantFileLoader.fromFile(vcfFile, new GermlineFilter(), threads);
 
             int svId = 0;
 
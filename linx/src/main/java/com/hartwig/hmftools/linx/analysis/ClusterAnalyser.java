@@ -22,12 +22,20 @@ import static com.hartwig.hmftools.linx.types.ResolvedType.NONE;
 import static com.hartwig.hmftools.linx.types.ResolvedType.SIMPLE_GRP;
 import static com.hartwig.hmftools.linx.types.SvCluster.CLUSTER_ANNOT_DM;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 import com.hartwig.hmftools.linx.CohortDataWriter;
 import com.hartwig.hmftools.linx.LinxConfig;
 import com.hartwig.hmftools.linx.annotators.LineElementAnnotator;
@@ -57,6 +65,11 @@ public class ClusterAnalyser {
     private final List<SvVarData> mAllVariants;
     private final ChainFinder mChainFinder;
 
+    // clusters are chained and annotated concurrently when a single sample is being run, each chaining task with its own finder
+    private final CohortDataWriter mCohortDataWriter;
+    private int mClusterThreads;
+    private final List<ChainFinder> mTaskChainFinders;
+
     private boolean mRunValidationChecks;
 
     PerformanceCounter mPcClustering;
@@ -80,6 +93,9 @@ public class ClusterAnalyser {
         mSampleId = "";
         mAllVariants = Lists.newArrayList();
         mChainFinder = new ChainFinder(cohortDataWriter);
+        mCohortDataWriter = cohortDataWriter;
+        mClusterThreads = config.hasMultipleSamples() ? 1 : max(config.Threads, 1);
+        mTaskChainFinders = Lists.newArrayList();
         mDmFinder = new DoubleMinuteFinder(config, cohortDataWriter, mState.getChrBreakendMap());
         mBfbFinder = new BfbFinder();
 
@@ -121,6 +137,7 @@ public class ClusterAnalyser {
     public final DoubleMinuteFinder getDoubleMinuteFinder() { return mDmFinder; }
 
     public void setRunValidationChecks(boolean toggle) { mRunValidationChecks = toggle; }
+    public void setClusterThreads(int threads) { mClusterThreads = max(threads, 1); }
 
     public void setSampleData(final String sampleId, List<SvVarData> allVariants)
     {
@@ -131,6 +148,7 @@ public class ClusterAnalyser {
         mArtifactClusters.clear();
         mSimpleClustering.initialise(sampleId);
         mChainFinder.setSampleId(sampleId);
+        mTaskChainFinders.forEach(x -> x.setSampleId(sampleId));
     }
 
     public final List<SvCluster> getClusters() { return mClusters; }
@@ -321,6 +339,9 @@ public class ClusterAnalyser {
         // chain small clusters and only assembled links in larger ones
         boolean checkDMs = !mConfig.IsGermline;
 
+        final List<SvCluster> simpleClusters = Lists.newArrayList();
+        final List<SvCluster> complexClusters = Lists.newArrayList();
+
         for(SvCluster cluster : mClusters)
         {
             if(checkDMs && isSimpleSingleSV(cluster))
@@ -339,23 +360,31 @@ public class ClusterAnalyser {
             if(checkDMs)
                 mDmFinder.analyseCluster(cluster);
 
-            // then look for fully-linked clusters, ie chains involving all SVs
-            findChains(cluster, !isSimple);
-
             if(isSimple)
-            {
-                setClusterResolvedState(cluster, false);
+                simpleClusters.add(cluster);
+            else
+                complexClusters.add(cluster);
+        }
 
-                if(cluster.isFullyChained(true))
-                {
-                    LNX_LOGGER.debug("cluster({}) simple and consistent with {} SVs", cluster.id(), cluster.getSvCount());
-                }
+        // then look for fully-linked clusters, ie chains involving all SVs
+        processClusters(simpleClusters, (chainFinder, cluster) ->
+        {
+            findChains(chainFinder, cluster, false);
+            setClusterResolvedState(cluster, false);
+
+            if(cluster.isFullyChained(true))
+            {
+                LNX_LOGGER.debug("cluster({}) simple and consistent with {} SVs", cluster.id(), cluster.getSvCount());
             }
-        }
+        });
+
+        processClusters(complexClusters, (chainFinder, cluster) -> findChains(chainFinder, cluster, true));
     }
 
     private void findLinksAndChains()
     {
+        final List<SvCluster> chainingClusters = Lists.newArrayList();
+
         for (SvCluster cluster : mClusters)
         {
             if (cluster.getResolvedType() == LINE) // only simple assembly links for LINE clusters
@@ -379,13 +408,68 @@ public class ClusterAnalyser {
             cluster.determineRequiresReplication();
 
             // no need to re-find assembled TIs
+            chainingClusters.add(cluster);
+        }
 
-            // then look for fully-linked clusters, ie chains involving all SVs
-            findChains(cluster, false);
+        // then look for fully-linked clusters, ie chains involving all SVs
+        processClusters(chainingClusters, (chainFinder, cluster) ->
+        {
+            findChains(chainFinder, cluster, false);
 
             setClusterResolvedState(cluster, true);
             cluster.logDetails();
+        });
+    }
+
+    private void processClusters(final List<SvCluster> clusters, final BiConsumer<ChainFinder,SvCluster> clusterTask)
+    {
+        // clusters share no SVs and cluster membership is fixed once merging is complete, so each can be chained, classified and
+        // annotated independently, giving the same chains, chain IDs and resolved types regardless of order or thread
+        int threads = mConfig.LogVerbose ? 1 : min(mClusterThreads, clusters.size());
+
+        if(threads <= 1)
+        {
+            clusters.forEach(x -> clusterTask.accept(mChainFinder, x));
+            return;
+        }
+
+        // start with the largest clusters since these dominate chaining times
+        final List<SvCluster> orderedClusters = Lists.newArrayList(clusters);
+        orderedClusters.sort(Comparator.comparingInt(SvCluster::getSvCount).reversed());
+
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final List<Callable> tasks = Lists.newArrayList();
+
+        for(int i = 0; i < threads; ++i)
+        {
+            final ChainFinder chainFinder = i == 0 ? mChainFinder : getTaskChainFinder(i - 1);
+
+            tasks.add(() ->
+            {
+                int index;
+                while((index = nextIndex.getAndIncrement()) < orderedClusters.size())
+                {
+                    clusterTask.accept(chainFinder, orderedClusters.get(index));
+                }
+
+                return (long)0;
+            });
         }
+
+        TaskExecutor.executeTasks(tasks, threads);
+    }
+
+    private ChainFinder getTaskChainFinder(int index)
+    {
+        while(mTaskChainFinders.size() <= index)
+        {
+            ChainFinder chainFinder = new ChainFinder(mCohortDataWriter);
+            chainFinder.setUseAllelePloidies(true);
+            chainFinder.setSampleId(mSampleId);
+            mTaskChainFinders.add(chainFinder);
+        }
+
+        return mTaskChainFinders.get(index);
     }
 
     private void dissolveSimpleGroups()
@@ -421,7 +505,7 @@ public class ClusterAnalyser {
                 mState.getDelCutoffLength(), mState.getDupCutoffLength(), mState.getChrBreakendMap());
     }
 
-    private void findChains(SvCluster cluster, boolean assembledLinksOnly)
+    private void findChains(final ChainFinder chainFinder, SvCluster cluster, boolean assembledLinksOnly)
     {
         if(mConfig.ChainingSvLimit > 0 && cluster.getSvCount() > mConfig.ChainingSvLimit)
         {
@@ -431,31 +515,35 @@ public class ClusterAnalyser {
         }
 
         cluster.getChains().clear();
-        mChainFinder.initialise(cluster);
-        mChainFinder.formChains(assembledLinksOnly);
-        mChainFinder.addChains(cluster);
+        chainFinder.initialise(cluster);
+        chainFinder.formChains(assembledLinksOnly);
+        chainFinder.addChains(cluster);
 
         if(!assembledLinksOnly)
-            mChainFinder.getDiagnostics().diagnoseChains();
+            chainFinder.getDiagnostics().diagnoseChains();
 
-        final long[] rangeData = mChainFinder.calcRangeData();
+        final long[] rangeData = chainFinder.calcRangeData();
 
         if(rangeData != null)
         {
-            cluster.getMetrics().ValidAlleleJcnSegmentPerc = mChainFinder.getValidAllelePloidySegmentPerc();
+            cluster.getMetrics().ValidAlleleJcnSegmentPerc = chainFinder.getValidAllelePloidySegmentPerc();
             cluster.getMetrics().TraversedRange = rangeData[RANGE_TOTAL];
             cluster.getMetrics().TotalDeleted = rangeData[DELETED_TOTAL];
         }
 
-        mChainFinder.clear(); // release any refs to clusters and SVs
+        chainFinder.clear(); // release any refs to clusters and SVs
     }
 
     public void annotateClusters()
     {
-        // final clean-up and analysis
-        mClusters.forEach(x -> annotateTemplatedInsertions(x, mState.getChrBreakendMap()));
+        // final clean-up and analysis - annotations only depend on a cluster's own chains and the breakend positions
+        processClusters(mClusters, (chainFinder, cluster) ->
+        {
+            annotateTemplatedInsertions(cluster, mState.getChrBreakendMap());
+            reportClusterFeatures(cluster);
+        });
 
-        mClusters.forEach(this::reportClusterFeatures);
+        mClusters.forEach(x -> mDmFinder.reportCluster(mSampleId, x));
 
         if(mConfig.AnnotationExtensions.contains(UNDER_CLUSTERING))
         {
@@ -473,8 +561,6 @@ public class ClusterAnalyser {
 
         if(metrics.TotalDeleted == 0)
             metrics.TotalDeleted = metrics.TotalDBLength;
-
-        mDmFinder.reportCluster(mSampleId, cluster);
     }
 
     public void close()
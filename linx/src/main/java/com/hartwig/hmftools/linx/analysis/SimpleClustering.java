@@ -38,9 +38,12 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.sv.StructuralVariantType;
 import com.hartwig.hmftools.linx.CohortDataWriter;
 import com.hartwig.hmftools.linx.CohortFileInterface;
@@ -76,126 +79,173 @@ public class SimpleClustering implements CohortFileInterface
         mClusteringIndex = 0;
     }
 
+    private class ProximityCluster
+    {
+        public int Id;
+        public int FirstSv; // SVs are kept in the order they would have been added, as a linked list through the SV indices
+        public int LastSv;
+        public int SvCount;
+        public boolean HasProximityReason;
+        public boolean Merged;
+
+        public ProximityCluster(int svIndex)
+        {
+            Id = getNextClusterId();
+            FirstSv = svIndex;
+            LastSv = svIndex;
+            SvCount = 1;
+            HasProximityReason = false;
+            Merged = false;
+        }
+    }
+
     public void clusterByProximity(final List<SvCluster> clusters)
     {
         int proximityDistance = mConfig.ProximityDistance;
 
+        // proximity only depends on breakend positions, so merges are recorded in disjoint sets over the SVs and each cluster is built
+        // once at the end, with the same IDs, SV order and reasons as if clusters had been created and merged along the way
+        int svCount = mState.getChrBreakendMap().values().stream().mapToInt(List::size).sum();
+        SvUnionFind svSets = new SvUnionFind(svCount);
+
+        for(final List<SvBreakend> breakendList : mState.getChrBreakendMap().values())
+        {
+            breakendList.forEach(x -> svSets.add(x.getSV()));
+        }
+
+        ProximityCluster[] rootClusters = new ProximityCluster[svSets.size()];
+        int[] nextSv = new int[svSets.size()];
+        List<ProximityCluster> proximityClusters = Lists.newArrayList();
+
         // walk through each chromosome and breakend list
         for (final Map.Entry<String, List<SvBreakend>> entry : mState.getChrBreakendMap().entrySet())
         {
             final List<SvBreakend> breakendList = entry.getValue();
 
-            int currentIndex = 0;
-            while (currentIndex < breakendList.size())
+            for(int currentIndex = 0; currentIndex < breakendList.size(); ++currentIndex)
             {
                 final SvBreakend breakend = breakendList.get(currentIndex);
                 SvVarData var = breakend.getSV();
+                int svIndex = svSets.indexOf(var);
+                ProximityCluster cluster = rootClusters[svSets.find(svIndex)];
 
-                SvBreakend nextBreakend = null;
-                int nextIndex = currentIndex + 1;
-
-                for (; nextIndex < breakendList.size(); ++nextIndex)
-                {
-                    final SvBreakend nextBe = breakendList.get(nextIndex);
-                    nextBreakend = nextBe;
-                    break;
-                }
-
-                if (nextBreakend == null)
+                if(currentIndex == breakendList.size() - 1)
                 {
                     // no more breakends on this chromosome
-                    if (var.getCluster() == null)
-                    {
-                        SvCluster cluster = new SvCluster(getNextClusterId());
-                        cluster.addVariant(var);
-                        clusters.add(cluster);
-                    }
+                    if(cluster == null)
+                        proximityClusters.add(createProximityCluster(svSets, rootClusters, nextSv, svIndex));
 
                     break;
                 }
 
-                SvCluster cluster = var.getCluster();
+                final SvBreakend nextBreakend = breakendList.get(currentIndex + 1);
                 SvVarData nextVar = nextBreakend.getSV();
-                SvCluster nextCluster = nextVar.getCluster();
+                int nextSvIndex = svSets.indexOf(nextVar);
+                ProximityCluster nextCluster = rootClusters[svSets.find(nextSvIndex)];
 
-                if (cluster != null && cluster == nextCluster)
+                if(cluster != null && cluster == nextCluster)
                 {
                     // already clustered
                 }
-                else if (abs(nextBreakend.position() - breakend.position()) > proximityDistance)
+                else if(abs(nextBreakend.position() - breakend.position()) > proximityDistance || var == nextVar)
+                {
+                    // too far between the breakends, or the SV's own breakends
+                    if(cluster == null)
+                        proximityClusters.add(createProximityCluster(svSets, rootClusters, nextSv, svIndex));
+                }
+                else
                 {
-                    // too far between the breakends
-                    if (cluster == null)
+                    // one or both SVs could already be a part of clusters, or neither may be
+                    if(cluster == null && nextCluster == null)
                     {
-                        cluster = new SvCluster(getNextClusterId());
-                        cluster.addVariant(var);
-                        clusters.add(cluster);
+                        cluster = createProximityCluster(svSets, rootClusters, nextSv, svIndex);
+                        addToProximityCluster(cluster, svSets, rootClusters, nextSv, nextSvIndex);
+                        proximityClusters.add(cluster);
                     }
-                    else
+                    else if(cluster != null && nextCluster != null)
                     {
-                        // nothing more to do for this variant - already clustered
+                        // keep one and remove the other
+                        mergeProximityClusters(cluster, nextCluster, svSets, rootClusters, nextSv);
                     }
-                }
-                else
-                {
-                    // 2 breakends are close enough to cluster
-                    if (var == nextVar)
+                    else if(cluster == null)
                     {
-                        if (cluster == null)
-                        {
-                            cluster = new SvCluster(getNextClusterId());
-                            cluster.addVariant(var);
-                            clusters.add(cluster);
-                        }
+                        addToProximityCluster(nextCluster, svSets, rootClusters, nextSv, svIndex);
                     }
                     else
                     {
-                        // one or both SVs could already be a part of clusters, or neither may be
-                        if (cluster == null && nextCluster == null)
-                        {
-                            cluster = new SvCluster(getNextClusterId());
-                            cluster.addVariant(var);
-                            cluster.addVariant(nextVar);
-                            cluster.addClusterReason(PROXIMITY);
-                            clusters.add(cluster);
-                        }
-                        else if (cluster != null && nextCluster != null)
-                        {
-                            // keep one and remove the other
-                            cluster.mergeOtherCluster(nextCluster, false);
-                            cluster.addClusterReason(PROXIMITY);
-                            clusters.remove(nextCluster);
-                        }
-                        else
-                        {
-                            if (cluster == null)
-                            {
-                                nextCluster.addVariant(var);
-                                nextCluster.addClusterReason(PROXIMITY);
-                            }
-                            else
-                            {
-                                cluster.addVariant(nextVar);
-                                cluster.addClusterReason(PROXIMITY);
-                            }
-                        }
-
-                        if (!var.hasClusterReason(PROXIMITY))
-                            var.addClusterReason(PROXIMITY, nextVar.id());
+                        addToProximityCluster(cluster, svSets, rootClusters, nextSv, nextSvIndex);
+                    }
 
-                        if (!nextVar.hasClusterReason(PROXIMITY))
-                            nextVar.addClusterReason(PROXIMITY, var.id());
+                    if (!var.hasClusterReason(PROXIMITY))
+                        var.addClusterReason(PROXIMITY, nextVar.id());
 
-                        // checkClusteringClonalDiscrepancy(var, nextVar, PROXIMITY);
-                    }
+                    if (!nextVar.hasClusterReason(PROXIMITY))
+                        nextVar.addClusterReason(PROXIMITY, var.id());
                 }
+            }
+        }
+
+        for(ProximityCluster proximityCluster : proximityClusters)
+        {
+            if(proximityCluster.Merged)
+                continue;
 
-                // move the index to the SV which was just proximity cluster so the next comparison is with the closest candidate
-                currentIndex = nextIndex;
+            SvCluster cluster = new SvCluster(proximityCluster.Id);
+
+            for(int svIndex = proximityCluster.FirstSv; ; svIndex = nextSv[svIndex])
+            {
+                cluster.addVariant(svSets.sv(svIndex));
+
+                if(svIndex == proximityCluster.LastSv)
+                    break;
             }
+
+            if(proximityCluster.HasProximityReason)
+                cluster.addClusterReason(PROXIMITY);
+
+            clusters.add(cluster);
         }
     }
 
+    private ProximityCluster createProximityCluster(
+            final SvUnionFind svSets, final ProximityCluster[] rootClusters, final int[] nextSv, int svIndex)
+    {
+        ProximityCluster cluster = new ProximityCluster(svIndex);
+        nextSv[svIndex] = -1;
+        rootClusters[svSets.find(svIndex)] = cluster;
+        return cluster;
+    }
+
+    private static void addToProximityCluster(
+            final ProximityCluster cluster, final SvUnionFind svSets, final ProximityCluster[] rootClusters, final int[] nextSv,
+            int svIndex)
+    {
+        nextSv[cluster.LastSv] = svIndex;
+        nextSv[svIndex] = -1;
+        cluster.LastSv = svIndex;
+        ++cluster.SvCount;
+        cluster.HasProximityReason = true;
+
+        rootClusters[svSets.union(cluster.FirstSv, svIndex)] = cluster;
+    }
+
+    private static void mergeProximityClusters(
+            final ProximityCluster cluster, final ProximityCluster other, final SvUnionFind svSets,
+            final ProximityCluster[] rootClusters, final int[] nextSv)
+    {
+        // as per a cluster merge, the ID of the larger cluster is retained and the other's SVs follow this cluster's
+        if(other.SvCount > cluster.SvCount)
+            cluster.Id = other.Id;
+
+        nextSv[cluster.LastSv] = other.FirstSv;
+        cluster.LastSv = other.LastSv;
+        cluster.SvCount += other.SvCount;
+        cluster.HasProximityReason = true;
+        other.Merged = true;
+
+        rootClusters[svSets.union(cluster.FirstSv, other.FirstSv)] = cluster;
+    }
+
     public void addClusterReasons(final SvVarData var1, final SvVarData var2, final ClusteringReason clusterReason)
     {
         var1.addClusterReason(clusterReason, var2.id());
@@ -317,6 +367,8 @@ public class SimpleClustering implements CohortFileInterface
         if (mState.getLohEventList().isEmpty() && mState.getHomLossList().isEmpty())
             return;
 
+        final Set<SvCluster> mergedClusters = Sets.newIdentityHashSet();
+
         // first link up breakends joined by an LOH with no multi-SV hom-loss events within
         for (final LohEvent lohEvent : mState.getLohEventList())
         {
@@ -345,7 +397,7 @@ public class SimpleClustering implements CohortFileInterface
                 lohClusterStart.addClusterReason(LOH);
 
                 lohClusterStart.mergeOtherCluster(lohClusterEnd);
-                clusters.remove(lohClusterEnd);
+                mergedClusters.add(lohClusterEnd);
             }
         }
 
@@ -389,7 +441,7 @@ public class SimpleClustering implements CohortFileInterface
                     cluster.addClusterReason(HOM_LOSS);
 
                     cluster.mergeOtherCluster(otherCluster);
-                    clusters.remove(otherCluster);
+                    mergedClusters.add(otherCluster);
                }
 
                 continue;
@@ -450,7 +502,7 @@ public class SimpleClustering implements CohortFileInterface
                 cluster.addClusterReason(HOM_LOSS);
 
                 cluster.mergeOtherCluster(otherCluster);
-                clusters.remove(otherCluster);
+                mergedClusters.add(otherCluster);
             }
 
             // finally look for overlapping LOH and hom-loss events where all but 2 of the breakends are clustered
@@ -527,9 +579,11 @@ public class SimpleClustering implements CohortFileInterface
                 cluster.addClusterReason(HOM_LOSS);
 
                 cluster.mergeOtherCluster(otherCluster);
-                clusters.remove(otherCluster);
+                mergedClusters.add(otherCluster);
             }
         }
+
+        clusters.removeAll(mergedClusters);
     }
 
     private void markClusterInversions(final SvCluster cluster)
@@ -619,7 +673,7 @@ public class SimpleClustering implements CohortFileInterface
         LNX_LOGGER.debug("checking long {}} overlaps for {} clusters",
                 !allowDelDupOverlaps ? "DEL_DUP-requiring-INV" : "multiple DDI overlaps", longDDIClusters.size());
 
-        List<SvCluster> mergedClusters = Lists.newArrayList();
+        Set<SvCluster> mergedClusters = Sets.newIdentityHashSet();
 
         int index1 = 0;
         while(index1 < longDDIClusters.size())
@@ -752,7 +806,7 @@ public class SimpleClustering implements CohortFileInterface
         if(mergedClusters.isEmpty())
             return false;
 
-        mergedClusters.forEach(x -> clusters.remove(x));
+        clusters.removeAll(mergedClusters);
         return true;
     }
 
@@ -905,7 +959,7 @@ public class SimpleClustering implements CohortFileInterface
         // if an opposing unclustered breakend is encountered and the major AP in the segment after the unclustered breakend is less than
         // the clustered net breakend JCN, then merge in the unclustered breakend, subtract its ploidy and continue
 
-        List<SvCluster> mergedClusters = Lists.newArrayList();
+        Set<SvCluster> mergedClusters = Sets.newIdentityHashSet();
 
         int clusterIndex = 0;
         while(clusterIndex < clusters.size())
@@ -1045,7 +1099,7 @@ public class SimpleClustering implements CohortFileInterface
         if(mergedClusters.isEmpty())
             return false;
 
-        mergedClusters.forEach(x -> clusters.remove(x));
+        clusters.removeAll(mergedClusters);
 
         return true;
     }
@@ -1054,7 +1108,7 @@ public class SimpleClustering implements CohortFileInterface
     {
         // merge any facing breakends whose JCNs exceed the threshold, regardless of distance, as long as the region in between
         // has continuous major allele copy number at or above this same threshold
-        final List<SvCluster> mergedClusters = Lists.newArrayList();
+        final Set<SvCluster> mergedClusters = Sets.newIdentityHashSet();
 
         for (Map.Entry<String, List<SvBreakend>> entry : mState.getChrBreakendMap().entrySet())
         {
@@ -1152,7 +1206,7 @@ public class SimpleClustering implements CohortFileInterface
         if(mergedClusters.isEmpty())
             return false;
 
-        mergedClusters.forEach(x -> clusters.remove(x));
+        clusters.removeAll(mergedClusters);
 
         return true;
     }
@@ -1168,7 +1222,7 @@ public class SimpleClustering implements CohortFileInterface
                 .filter(x -> !x.hasLinkingLineElements())
                 .collect(Collectors.toList());
 
-        List<SvCluster> mergedClusters = Lists.newArrayList();
+        Set<SvCluster> mergedClusters = Sets.newIdentityHashSet();
 
         for(SvCluster lohCluster : clustersWithLohEvents)
         {
@@ -1270,7 +1324,7 @@ public class SimpleClustering implements CohortFileInterface
         if(mergedClusters.isEmpty())
             return false;
 
-        mergedClusters.forEach(x -> clusters.remove(x));
+        clusters.removeAll(mergedClusters);
         return true;
     }
 
@@ -1295,31 +1349,25 @@ public class SimpleClustering implements CohortFileInterface
         }
 
         // check that no 2 clusters contain the same SV
-        for(int i = 0; i < clusters.size(); ++i)
-        {
-            SvCluster cluster1 = clusters.get(i);
+        final Map<SvVarData,SvCluster> svClusters = Maps.newIdentityHashMap();
 
+        for(SvCluster cluster : clusters)
+        {
             // check all SVs in this cluster reference it
-            for(SvVarData var : cluster1.getSVs())
+            for(SvVarData var : cluster.getSVs())
             {
-                if(var.getCluster() != cluster1)
+                if(var.getCluster() != cluster)
                 {
-                    LNX_LOGGER.error("var({}) in cluster({}) has incorrect ref", var.posId(), cluster1.id());
+                    LNX_LOGGER.error("var({}) in cluster({}) has incorrect ref", var.posId(), cluster.id());
                     return false;
                 }
-            }
 
-            for(int j = i+1; j < clusters.size(); ++j)
-            {
-                SvCluster cluster2 = clusters.get(j);
+                SvCluster otherCluster = svClusters.put(var, cluster);
 
-                for(SvVarData var : cluster1.getSVs())
+                if(otherCluster != null && otherCluster != cluster)
                 {
-                    if(cluster2.getSVs().contains(var))
-                    {
-                        LNX_LOGGER.error("var({}) in 2 clusters({} and {})", var.posId(), cluster1.id(), cluster2.id());
-                        return false;
-                    }
+                    LNX_LOGGER.error("var({}) in 2 clusters({} and {})", var.posId(), otherCluster.id(), cluster.id());
+                    return false;
                 }
             }
         }
@@ -1329,22 +1377,18 @@ public class SimpleClustering implements CohortFileInterface
 
     public static boolean checkClusterDuplicates(List<SvCluster> clusters)
     {
-        for(int i = 0; i < clusters.size(); ++i)
+        final Set<Integer> clusterIds = Sets.newHashSetWithExpectedSize(clusters.size());
+
+        for(final SvCluster cluster : clusters)
         {
-            final SvCluster cluster1 = clusters.get(i);
-            for(int j = i + 1; j < clusters.size(); ++j)
+            // the same cluster twice also repeats its ID
+            if(!clusterIds.add(cluster.id()))
             {
-                final SvCluster cluster2 = clusters.get(j);
-
-                if(cluster1 == cluster2 || cluster1.id() == cluster2.id())
-                {
-                    LNX_LOGGER.error("cluster({}) exists twice in list", cluster1.id());
-                    return false;
-                }
+                LNX_LOGGER.error("cluster({}) exists twice in list", cluster.id());
+                return false;
             }
         }
 
         return true;
     }
-
 }
@@ -0,0 +1,97 @@
+package com.hartwig.hmftools.linx.analysis;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.linx.types.SvVarData;
+
+// disjoint sets over a sample's SVs, used to record merges as edges between SVs and only build clusters once all merges are known
+// sets are joined by size and paths are compressed on look-up, so each operation is close to constant time
+public class SvUnionFind
+{
+    private final Map<SvVarData,Integer> mSvIndex;
+    private final List<SvVarData> mSVs;
+    private int[] mParent;
+    private int[] mSetSize;
+
+    public SvUnionFind(int capacity)
+    {
+        mSvIndex = Maps.newHashMapWithExpectedSize(capacity);
+        mSVs = Lists.newArrayListWithCapacity(capacity);
+        mParent = new int[Math.max(capacity, 1)];
+        mSetSize = new int[mParent.length];
+    }
+
+    public int size() { return mSVs.size(); }
+
+    public SvVarData sv(int index) { return mSVs.get(index); }
+
+    public int indexOf(final SvVarData var)
+    {
+        Integer index = mSvIndex.get(var);
+        return index != null ? index : -1;
+    }
+
+    public int add(final SvVarData var)
+    {
+        // registers the SV as its own set if not already present
+        Integer existing = mSvIndex.get(var);
+
+        if(existing != null)
+            return existing;
+
+        int index = mSVs.size();
+
+        if(index == mParent.length)
+        {
+            mParent = Arrays.copyOf(mParent, index * 2);
+            mSetSize = Arrays.copyOf(mSetSize, index * 2);
+        }
+
+        mSVs.add(var);
+        mSvIndex.put(var, index);
+        mParent[index] = index;
+        mSetSize[index] = 1;
+        return index;
+    }
+
+    public int find(int index)
+    {
+        // path halving - each visited SV is pointed at its grandparent
+        while(mParent[index] != index)
+        {
+            mParent[index] = mParent[mParent[index]];
+            index = mParent[index];
+        }
+
+        return index;
+    }
+
+    public boolean sameSet(int index1, int index2) { return find(index1) == find(index2); }
+
+    public int setSize(int index) { return mSetSize[find(index)]; }
+
+    public int union(int index1, int index2)
+    {
+        // returns the root of the combined set
+        int root1 = find(index1);
+        int root2 = find(index2);
+
+        if(root1 == root2)
+            return root1;
+
+        if(mSetSize[root1] < mSetSize[root2])
+        {
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+        }
+
+        mParent[root2] = root1;
+        mSetSize[root1] += mSetSize[root2];
+        return root1;
+    }
+}
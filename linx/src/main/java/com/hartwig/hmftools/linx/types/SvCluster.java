@@ -27,10 +27,12 @@ import static com.hartwig.hmftools.linx.types.ResolvedType.NONE;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.sv.StructuralVariantType;
 import com.hartwig.hmftools.linx.analysis.ClusterClassification;
 import com.hartwig.hmftools.linx.analysis.ClusterMetrics;
@@ -54,6 +56,7 @@ public class SvCluster
     private final List<String> mAnnotationList;
 
     private final List<SvVarData> mSVs;
+    private final Set<SvVarData> mSvSet; // for membership checks as clusters are merged
     private final List<SvChain> mChains; // pairs of SVs linked into chains
     private final List<LinkedPair> mLinkedPairs; // final set after chaining and linking
     private final List<LinkedPair> mAssemblyLinkedPairs; // TIs found during assembly
@@ -93,6 +96,7 @@ public class SvCluster
     {
         mId = clusterId;
         mSVs = Lists.newArrayList();
+        mSvSet = Sets.newIdentityHashSet();
         mArmGroups = Lists.newArrayList();
         mArmClusters = Lists.newArrayList();
         mTypeCounts = new int[StructuralVariantType.values().length];
@@ -143,7 +147,7 @@ public class SvCluster
 
     public void addVariant(final SvVarData var)
     {
-        if(mSVs.contains(var))
+        if(!mSvSet.add(var))
         {
             LNX_LOGGER.error("cluster({}) attempting to add SV({}) again", mId, var.id());
             return;
@@ -25,10 +25,12 @@ import java.util.List;
 import java.util.Map;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.gene.ExonData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.gene.TranscriptProteinData;
+import com.hartwig.hmftools.linx.CohortFileShards;
 import com.hartwig.hmftools.linx.chaining.SvChain;
 import com.hartwig.hmftools.linx.cn.SvCNData;
 import com.hartwig.hmftools.linx.types.LinkedPair;
@@ -51,6 +53,7 @@ public class VisDataWriter
     private BufferedWriter mGeneFileWriter;
     private BufferedWriter mProteinDomainFileWriter;
     private BufferedWriter mFusionFileWriter;
+    private final CohortFileShards mShards; // set when samples write their batch output concurrently
 
     public static final String COHORT_VIS_SVS_FILE = "LNX_VIS_SVS.tsv";
     public static final String COHORT_VIS_LINKS_FILE = "LNX_VIS_SEGMENTS.tsv";
@@ -59,11 +62,14 @@ public class VisDataWriter
     public static final String COHORT_VIS_PROTEIN_FILE = "LNX_VIS_PROTEIN_DOMAINS.tsv";
     public static final String COHORT_VIS_FUSIONS_FILE = "LNX_VIS_FUSIONS.tsv";
 
-    public VisDataWriter(final String outputDir, final EnsemblDataCache geneDataCache, boolean enabled, boolean isBatchOutput)
+    public VisDataWriter(
+            final String outputDir, final EnsemblDataCache geneDataCache, boolean enabled, boolean isBatchOutput,
+            final CohortFileShards shards)
     {
         mEnabled = enabled;
         mOutputDir = outputDir;
         mBatchOutput = isBatchOutput;
+        mShards = mBatchOutput ? shards : null;
 
         if(mBatchOutput && mEnabled)
         {
@@ -118,13 +124,52 @@ public class VisDataWriter
         closeBufferedWriter(mFusionFileWriter);
     }
 
-    public synchronized void writeOutput(
+    public Map<String,BufferedWriter> getCohortWriters()
+    {
+        // batch output writers keyed by file name
+        Map<String,BufferedWriter> writers = Maps.newHashMap();
+
+        if(!mBatchOutput || !mEnabled)
+            return writers;
+
+        writers.put(COHORT_VIS_SVS_FILE, mSvFileWriter);
+        writers.put(COHORT_VIS_LINKS_FILE, mSegmentFileWriter);
+        writers.put(COHORT_VIS_COPY_NUMBER_FILE, mCnFileWriter);
+        writers.put(COHORT_VIS_GENE_EXONS_FILE, mGeneFileWriter);
+        writers.put(COHORT_VIS_PROTEIN_FILE, mProteinDomainFileWriter);
+        writers.put(COHORT_VIS_FUSIONS_FILE, mFusionFileWriter);
+        return writers;
+    }
+
+    private BufferedWriter batchWriter(final BufferedWriter cohortWriter, final String fileName)
+    {
+        // each sample thread writes to its own shard of the cohort file - null if the cohort file or the shard couldn't be opened
+        return mShards != null && cohortWriter != null ? mShards.createWriter(fileName) : cohortWriter;
+    }
+
+    public void writeOutput(
             final VisSampleData sampleData, final List<SvCluster> clusters, final List<SvVarData> variants,
             final Map<String,List<SvCNData>> chrCnDataMap)
     {
         if(!mEnabled)
             return;
 
+        if(mShards != null)
+        {
+            writeSampleOutput(sampleData, clusters, variants, chrCnDataMap);
+            return;
+        }
+
+        synchronized(this)
+        {
+            writeSampleOutput(sampleData, clusters, variants, chrCnDataMap);
+        }
+    }
+
+    private void writeSampleOutput(
+            final VisSampleData sampleData, final List<SvCluster> clusters, final List<SvVarData> variants,
+            final Map<String,List<SvCNData>> chrCnDataMap)
+    {
         writeSvData(sampleData, variants);
         writeSegmentData(sampleData, clusters);
         writeGeneData(sampleData);
@@ -169,10 +214,15 @@ public class VisDataWriter
         {
             if(mBatchOutput)
             {
+                BufferedWriter writer = batchWriter(mSvFileWriter, COHORT_VIS_SVS_FILE);
+
+                if(writer == null)
+                    return;
+
                 for(final VisSvData data : svDataList)
                 {
-                    mSvFileWriter.write(VisSvData.toString(data));
-                    mSvFileWriter.newLine();
+                    writer.write(VisSvData.toString(data));
+                    writer.newLine();
                 }
             }
             else
@@ -305,10 +355,15 @@ public class VisDataWriter
         {
             if(mBatchOutput)
             {
+                BufferedWriter writer = batchWriter(mSegmentFileWriter, COHORT_VIS_LINKS_FILE);
+
+                if(writer == null)
+                    return;
+
                 for(final VisSegment data : segments)
                 {
-                    mSegmentFileWriter.write(VisSegment.toString(data));
-                    mSegmentFileWriter.newLine();
+                    writer.write(VisSegment.toString(data));
+                    writer.newLine();
                 }
             }
             else
@@ -443,16 +498,26 @@ public class VisDataWriter
         {
             if(mBatchOutput)
             {
-                for(final VisGeneExon data : geneExonList)
+                BufferedWriter geneWriter = batchWriter(mGeneFileWriter, COHORT_VIS_GENE_EXONS_FILE);
+
+                if(geneWriter != null)
                 {
-                    mGeneFileWriter.write(VisGeneExon.toString(data));
-                    mGeneFileWriter.newLine();
+                    for(final VisGeneExon data : geneExonList)
+                    {
+                        geneWriter.write(VisGeneExon.toString(data));
+                        geneWriter.newLine();
+                    }
                 }
 
-                for(final VisProteinDomain data : proteinList)
+                BufferedWriter proteinWriter = batchWriter(mProteinDomainFileWriter, COHORT_VIS_PROTEIN_FILE);
+
+                if(proteinWriter != null)
                 {
-                    mProteinDomainFileWriter.write(VisProteinDomain.toString(data));
-                    mProteinDomainFileWriter.newLine();
+                    for(final VisProteinDomain data : proteinList)
+                    {
+                        proteinWriter.write(VisProteinDomain.toString(data));
+                        proteinWriter.newLine();
+                    }
                 }
             }
             else
@@ -531,10 +596,15 @@ public class VisDataWriter
         {
             if(mBatchOutput)
             {
+                BufferedWriter writer = batchWriter(mCnFileWriter, COHORT_VIS_COPY_NUMBER_FILE);
+
+                if(writer == null)
+                    return;
+
                 for(final VisCopyNumber data : cnDataList)
                 {
-                    mCnFileWriter.write(VisCopyNumber.toString(data));
-                    mCnFileWriter.newLine();
+                    writer.write(VisCopyNumber.toString(data));
+                    writer.newLine();
                 }
             }
             else
@@ -554,10 +624,15 @@ public class VisDataWriter
         {
             if(mBatchOutput)
             {
+                BufferedWriter writer = batchWriter(mFusionFileWriter, COHORT_VIS_FUSIONS_FILE);
+
+                if(writer == null)
+                    return;
+
                 for(final VisFusion visFusion : sampleData.getFusions())
                 {
-                    mFusionFileWriter.write(VisFusion.toString(visFusion));
-                    mFusionFileWriter.newLine();
+                    writer.write(VisFusion.toString(visFusion));
+                    writer.newLine();
                 }
             }
             else
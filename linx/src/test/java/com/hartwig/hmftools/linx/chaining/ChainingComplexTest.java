@@ -57,6 +57,46 @@ public class ChainingComplexTest
         assertEquals(15, chain.getLinkCount());
     }
 
+    @Test
+    public void testConcurrentClusterChaining()
+    {
+        // the same BFB as above on several chromosomes, chained and annotated concurrently
+        LinxTester tester = new LinxTester();
+        tester.Analyser.setClusterThreads(4);
+
+        int clusterCount = 6;
+        int varId = 0;
+
+        for(int i = 1; i <= clusterCount; ++i)
+        {
+            String chromosome = String.valueOf(i);
+            String otherChromosome = String.valueOf(i + 10);
+
+            tester.AllVariants.add(createTestSv(varId++, chromosome, chromosome, 1000,2000, -1, -1, INV,  8));
+            tester.AllVariants.add(createTestSv(varId++, chromosome, chromosome, 9000,10000, 1, 1, INV,  4));
+            tester.AllVariants.add(createTestSv(varId++, chromosome, chromosome, 6000,7000, 1, 1, INV, 2));
+            tester.AllVariants.add(createTestSv(varId++, chromosome, chromosome, 3000,4000, 1, 1, INV, 1));
+            tester.AllVariants.add(createTestSv(varId++, chromosome, otherChromosome, 12000,100, 1, 1, BND, 1));
+        }
+
+        tester.preClusteringInit();
+        assertTrue(tester.Analyser.clusterAndAnalyse());
+        tester.Analyser.annotateClusters();
+
+        assertEquals(clusterCount, tester.Analyser.getClusters().size());
+
+        for(final SvCluster cluster : tester.Analyser.getClusters())
+        {
+            assertEquals(1, cluster.getChains().size());
+
+            final SvChain chain = cluster.getChains().get(0);
+
+            assertEquals(0, chain.id());
+            assertEquals(5, chain.getSvCount());
+            assertEquals(15, chain.getLinkCount());
+        }
+    }
+
     @Test
     public void testBFBChain2()
     {
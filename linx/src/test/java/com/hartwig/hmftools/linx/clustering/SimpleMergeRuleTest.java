@@ -23,6 +23,7 @@ import static junit.framework.TestCase.assertTrue;
 import java.util.List;
 
 import com.google.common.collect.Lists;
+import com.hartwig.hmftools.linx.analysis.SvUnionFind;
 import com.hartwig.hmftools.linx.cn.HomLossEvent;
 import com.hartwig.hmftools.linx.cn.LohEvent;
 import com.hartwig.hmftools.linx.types.ResolvedType;
@@ -80,6 +81,41 @@ public class SimpleMergeRuleTest
                 var11, var12, var13)));
     }
 
+    @Test
+    public void testSvUnionFind()
+    {
+        LinxTester tester = new LinxTester();
+
+        List<SvVarData> svs = Lists.newArrayList();
+
+        for(int i = 0; i < 6; ++i)
+        {
+            svs.add(createDel(tester.nextVarId(), "1", 1000 * (i + 1), 1000 * (i + 1) + 100));
+        }
+
+        SvUnionFind svSets = new SvUnionFind(2);
+        svs.forEach(x -> svSets.add(x));
+
+        assertEquals(6, svSets.size());
+        assertEquals(0, svSets.add(svs.get(0)));
+        assertEquals(svs.get(5), svSets.sv(5));
+
+        svSets.union(0, 1);
+        svSets.union(2, 3);
+        svSets.union(3, 4);
+
+        assertTrue(svSets.sameSet(0, 1));
+        assertTrue(svSets.sameSet(2, 4));
+        assertTrue(!svSets.sameSet(1, 2));
+        assertEquals(3, svSets.setSize(4));
+        assertEquals(1, svSets.setSize(5));
+
+        svSets.union(1, 4);
+        assertTrue(svSets.sameSet(0, 3));
+        assertEquals(5, svSets.setSize(0));
+        assertTrue(!svSets.sameSet(0, 5));
+    }
+
     @Test
     public void testSimpleSVsDemerge()
     {
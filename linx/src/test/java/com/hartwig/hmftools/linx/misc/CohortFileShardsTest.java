@@ -0,0 +1,166 @@
+package com.hartwig.hmftools.linx.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.linx.CohortFileShards;
+
+import org.junit.Test;
+
+public class CohortFileShardsTest
+{
+    private static final List<String> SAMPLE_IDS = Arrays.asList("SAMPLE_0", "SAMPLE_1", "SAMPLE_2", "SAMPLE_3", "SAMPLE_4", "SAMPLE_5");
+    private static final List<String> FILE_TYPES = Arrays.asList("svs", "links");
+
+    private static final String TAIL_A = "TAIL_A";
+    private static final String TAIL_B = "TAIL_B";
+
+    @Test(timeout = 30000)
+    public void testInterleavedSamplesMatchSingleThreadedOutput() throws Exception
+    {
+        // shard files are named by file type and thread, so each run needs its own directory
+        File singleOutputDir = createOutputDir();
+        File threadedOutputDir = createOutputDir();
+
+        // a single thread writes every sample in order, followed by lines not belonging to any finished sample
+        CohortFileShards singleShards = new CohortFileShards(singleOutputDir.getPath() + File.separator, SAMPLE_IDS);
+
+        for(String sampleId : SAMPLE_IDS)
+        {
+            writeSample(singleShards, sampleId);
+        }
+
+        writeTail(singleShards, TAIL_A);
+        writeTail(singleShards, TAIL_B);
+
+        // two threads each take half the samples, with the order in which samples are written alternating between them and
+        // differing from the sample order, and each thread writes lines after its last finished sample
+        CohortFileShards threadedShards = new CohortFileShards(threadedOutputDir.getPath() + File.separator, SAMPLE_IDS);
+
+        List<String> threadASteps = Arrays.asList("SAMPLE_0", "SAMPLE_2", "SAMPLE_4", TAIL_A);
+        List<String> threadBSteps = Arrays.asList("SAMPLE_1", "SAMPLE_3", "SAMPLE_5", TAIL_B);
+        List<String> stepOrder = Arrays.asList("SAMPLE_0", "SAMPLE_1", "SAMPLE_3", "SAMPLE_2", "SAMPLE_5", "SAMPLE_4", TAIL_A, TAIL_B);
+
+        Semaphore[] turns = new Semaphore[stepOrder.size() + 1];
+
+        for(int i = 0; i < turns.length; ++i)
+        {
+            turns[i] = new Semaphore(i == 0 ? 1 : 0);
+        }
+
+        List<Throwable> errors = Lists.newCopyOnWriteArrayList();
+
+        Thread threadA = new Thread(() -> runSteps(threadedShards, threadASteps, stepOrder, turns, errors));
+        Thread threadB = new Thread(() -> runSteps(threadedShards, threadBSteps, stepOrder, turns, errors));
+        threadA.start();
+        threadB.start();
+        threadA.join();
+        threadB.join();
+
+        assertTrue(errors.isEmpty());
+
+        for(String fileType : FILE_TYPES)
+        {
+            String singleOutput = merge(singleShards, fileType);
+            String threadedOutput = merge(threadedShards, fileType);
+
+            assertFalse(singleOutput.isEmpty());
+            assertEquals(singleOutput, threadedOutput);
+            assertTrue(threadedOutput.endsWith(fileType + "\t" + TAIL_A + "\n" + fileType + "\t" + TAIL_B + "\n"));
+        }
+
+        // shard files are removed once merged
+        assertEquals(0, singleOutputDir.listFiles().length);
+        assertEquals(0, threadedOutputDir.listFiles().length);
+    }
+
+    private static File createOutputDir() throws IOException
+    {
+        File outputDir = Files.createTempDirectory("linx_shards").toFile();
+        outputDir.deleteOnExit();
+        return outputDir;
+    }
+
+    private static void runSteps(
+            final CohortFileShards shards, final List<String> steps, final List<String> stepOrder, final Semaphore[] turns,
+            final List<Throwable> errors)
+    {
+        try
+        {
+            for(String step : steps)
+            {
+                int turn = stepOrder.indexOf(step);
+
+                if(!turns[turn].tryAcquire(10, TimeUnit.SECONDS))
+                    throw new IllegalStateException("timed out waiting for step " + step);
+
+                if(SAMPLE_IDS.contains(step))
+                    writeSample(shards, step);
+                else
+                    writeTail(shards, step);
+
+                turns[turn + 1].release();
+            }
+        }
+        catch(Throwable e)
+        {
+            errors.add(e);
+        }
+    }
+
+    private static void writeSample(final CohortFileShards shards, final String sampleId) throws IOException
+    {
+        int sampleIndex = SAMPLE_IDS.indexOf(sampleId);
+
+        for(String fileType : FILE_TYPES)
+        {
+            // some samples have no lines for a file type
+            if(fileType.equals("links") && sampleIndex == 3)
+                continue;
+
+            BufferedWriter writer = shards.createWriter(fileType);
+
+            for(int i = 0; i <= sampleIndex; ++i)
+            {
+                writer.write(String.format("%s\t%s\t%d", fileType, sampleId, i));
+                writer.newLine();
+            }
+        }
+
+        shards.finishSample(sampleId);
+    }
+
+    private static void writeTail(final CohortFileShards shards, final String tail) throws IOException
+    {
+        for(String fileType : FILE_TYPES)
+        {
+            BufferedWriter writer = shards.createWriter(fileType);
+            writer.write(String.format("%s\t%s", fileType, tail));
+            writer.newLine();
+        }
+    }
+
+    private static String merge(final CohortFileShards shards, final String fileType) throws IOException
+    {
+        StringWriter output = new StringWriter();
+
+        try(BufferedWriter writer = new BufferedWriter(output))
+        {
+            shards.mergeShards(fileType, writer);
+        }
+
+        return output.toString();
+    }
+}
@@ -2,6 +2,7 @@ package com.hartwig.hmftools.neo.bind;
 
 import static org.apache.commons.math3.util.FastMath.log;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -17,20 +18,38 @@ public final class BindConstants
 
     public static final Map<Character,Integer> AMINO_ACID_INDICES = Maps.newHashMap();
 
+    public static final int INVALID_AMINO_ACID = -1;
+
+    // direct lookup from an amino acid's character to its index, avoiding boxing in scoring loops
+    private static final byte[] AMINO_ACID_INDEX_LOOKUP = new byte[128];
+
     static
     {
+        Arrays.fill(AMINO_ACID_INDEX_LOOKUP, (byte)INVALID_AMINO_ACID);
+
         for(int i = 0; i < AMINO_ACIDS.size(); ++i)
         {
             AMINO_ACID_INDICES.put(AMINO_ACIDS.get(i), i);
+            AMINO_ACID_INDEX_LOOKUP[AMINO_ACIDS.get(i)] = (byte)i;
         }
     }
 
-    public static final int INVALID_AMINO_ACID = -1;
-
     public static int aminoAcidIndex(final char aminoAcid)
     {
-        Integer index = AMINO_ACID_INDICES.get(aminoAcid);
-        return index != null ? index : INVALID_AMINO_ACID;
+        return aminoAcid < AMINO_ACID_INDEX_LOOKUP.length ? AMINO_ACID_INDEX_LOOKUP[aminoAcid] : INVALID_AMINO_ACID;
+    }
+
+    public static byte[] encodePeptide(final String peptide)
+    {
+        // amino acid indices, with any unknown amino acid set to invalid
+        byte[] encoded = new byte[peptide.length()];
+
+        for(int i = 0; i < encoded.length; ++i)
+        {
+            encoded[i] = (byte)aminoAcidIndex(peptide.charAt(i));
+        }
+
+        return encoded;
     }
 
     public static final List<Integer> DEFAULT_PEPTIDE_LENGTHS = Lists.newArrayList(8, 9, 10, 11, 12);
@@ -72,6 +72,70 @@ public class BindScoreMatrix
         return score;
     }
 
+    public double calcScore(final byte[] peptide)
+    {
+        // peptide encoded as amino acid indices
+        if(peptide.length != PeptideLength)
+            return INVALID_SCORE;
+
+        double score = 0;
+
+        for(int i = 0; i < peptide.length; ++i)
+        {
+            int aaIndex = peptide[i];
+
+            if(aaIndex == INVALID_AMINO_ACID)
+                return INVALID_SCORE;
+
+            score += mPosWeights[aaIndex][i];
+        }
+
+        return score;
+    }
+
+    public void calcScores(final byte[][] peptides, final double[] scores)
+    {
+        // scores a batch of encoded peptides, using a copy of the weights laid out by position so each peptide's
+        // lookups are contiguous - the copy is taken per batch since the weights can be modified after construction
+        final double[] posWeights = new double[PeptideLength * AMINO_ACID_COUNT];
+
+        for(int aa = 0; aa < AMINO_ACID_COUNT; ++aa)
+        {
+            for(int pos = 0; pos < PeptideLength; ++pos)
+            {
+                posWeights[pos * AMINO_ACID_COUNT + aa] = mPosWeights[aa][pos];
+            }
+        }
+
+        for(int p = 0; p < peptides.length; ++p)
+        {
+            final byte[] peptide = peptides[p];
+
+            if(peptide.length != PeptideLength)
+            {
+                scores[p] = INVALID_SCORE;
+                continue;
+            }
+
+            double score = 0;
+
+            for(int i = 0, offset = 0; i < PeptideLength; ++i, offset += AMINO_ACID_COUNT)
+            {
+                int aaIndex = peptide[i];
+
+                if(aaIndex == INVALID_AMINO_ACID)
+                {
+                    score = INVALID_SCORE;
+                    break;
+                }
+
+                score += posWeights[offset + aaIndex];
+            }
+
+            scores[p] = score;
+        }
+    }
+
     public static BufferedWriter initMatrixWriter(final String filename, int peptideLength)
     {
         try
@@ -3,6 +3,7 @@ package com.hartwig.hmftools.neo.bind;
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
 import static com.hartwig.hmftools.neo.NeoCommon.NE_LOGGER;
+import static com.hartwig.hmftools.neo.bind.BindConstants.encodePeptide;
 import static com.hartwig.hmftools.neo.bind.BindData.loadBindData;
 
 import java.io.BufferedWriter;
@@ -12,11 +13,14 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.stats.AucCalc;
 import com.hartwig.hmftools.common.stats.AucData;
+import com.hartwig.hmftools.common.utils.TaskExecutor;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -115,10 +119,11 @@ public class BindScorer
     {
         NE_LOGGER.info("running scoring");
 
+        List<AlleleScoringTask> alleleTasks = Lists.newArrayList();
+
         for(Map.Entry<String,Map<Integer,List<BindData>>> alleleEntry : mAllelePeptideData.entrySet())
         {
             final String allele = alleleEntry.getKey();
-            final Map<Integer,List<BindData>> pepLenBindDataMap = alleleEntry.getValue();
 
             Map<Integer,BindScoreMatrix> pepLenMatrixMap = mAlleleBindMatrices.get(allele);
 
@@ -128,22 +133,65 @@ public class BindScorer
                 continue;
             }
 
-            for(Map.Entry<Integer,List<BindData>> pepLenEntry : pepLenBindDataMap.entrySet())
+            alleleTasks.add(new AlleleScoringTask(alleleEntry.getValue(), pepLenMatrixMap));
+        }
+
+        int threads = mConfig != null ? mConfig.Threads : 0;
+
+        if(threads > 1)
+        {
+            final List<Callable> callableList = alleleTasks.stream().collect(Collectors.toList());
+            TaskExecutor.executeTasks(callableList, threads);
+        }
+        else
+        {
+            alleleTasks.forEach(x -> x.call());
+        }
+    }
+
+    private class AlleleScoringTask implements Callable
+    {
+        private final Map<Integer,List<BindData>> mPepLenBindDataMap;
+        private final Map<Integer,BindScoreMatrix> mPepLenMatrixMap;
+
+        public AlleleScoringTask(final Map<Integer,List<BindData>> pepLenBindDataMap, final Map<Integer,BindScoreMatrix> pepLenMatrixMap)
+        {
+            mPepLenBindDataMap = pepLenBindDataMap;
+            mPepLenMatrixMap = pepLenMatrixMap;
+        }
+
+        @Override
+        public Long call()
+        {
+            for(Map.Entry<Integer,List<BindData>> pepLenEntry : mPepLenBindDataMap.entrySet())
             {
+                BindScoreMatrix matrix = mPepLenMatrixMap.get(pepLenEntry.getKey());
+
+                if(matrix == null)
+                    continue;
+
                 final List<BindData> bindDataList = pepLenEntry.getValue();
 
-                for(BindData bindData : bindDataList)
+                // score the allele and peptide length's peptides in one batch
+                byte[][] encodedPeptides = new byte[bindDataList.size()][];
+
+                for(int i = 0; i < bindDataList.size(); ++i)
                 {
-                    BindScoreMatrix matrix = pepLenMatrixMap.get(bindData.peptideLength());
+                    encodedPeptides[i] = encodePeptide(bindDataList.get(i).Peptide);
+                }
 
-                    if(matrix == null)
-                        continue;
+                double[] peptideScores = new double[encodedPeptides.length];
+                matrix.calcScores(encodedPeptides, peptideScores);
 
+                for(int i = 0; i < bindDataList.size(); ++i)
+                {
                     calcScoreData(
-                            bindData, matrix, mFlankScores, mRandomDistribution, mBindingLikelihood,
+                            bindDataList.get(i), peptideScores[i], mFlankScores, mRandomDistribution, mBindingLikelihood,
                             mExpressionLikelihood, mRecognitionSimilarity);
                 }
             }
+
+            return (long)0;
         }
     }
 
@@ -181,7 +229,18 @@ public class BindScorer
             final RandomPeptideDistribution randomDistribution, final BindingLikelihood bindingLikelihood,
             final ExpressionLikelihood expressionLikelihood, final RecognitionSimilarity recognitionSimilarity)
     {
-        double score = matrix.calcScore(bindData.Peptide);
+        calcScoreData(
+                bindData, matrix.calcScore(bindData.Peptide), flankScores, randomDistribution, bindingLikelihood,
+                expressionLikelihood, recognitionSimilarity);
+    }
+
+    public static void calcScoreData(
+            final BindData bindData, double peptideScore, final FlankScores flankScores,
+            final RandomPeptideDistribution randomDistribution, final BindingLikelihood bindingLikelihood,
+            final ExpressionLikelihood expressionLikelihood, final RecognitionSimilarity recognitionSimilarity)
+    {
+        // the peptide's matrix score has already been calculated
+        double score = peptideScore;
 
         double flankScore = 0;
         if(flankScores.hasData() && bindData.hasFlanks())
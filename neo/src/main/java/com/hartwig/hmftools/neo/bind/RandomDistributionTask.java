@@ -6,8 +6,9 @@ import static java.lang.Math.round;
 import static com.hartwig.hmftools.neo.NeoCommon.NE_LOGGER;
 import static com.hartwig.hmftools.neo.bind.BindConstants.PAN_PEPTIDE_LENGTH;
 import static com.hartwig.hmftools.neo.bind.BindConstants.PAN_PEPTIDE_MAX_LENGTH;
-import static com.hartwig.hmftools.neo.bind.RandomPeptideDistribution.getScoreRank;
+import static com.hartwig.hmftools.neo.bind.RandomPeptideDistribution.getRank;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -15,7 +16,6 @@ import java.util.concurrent.Callable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.utils.Doubles;
-import com.hartwig.hmftools.common.utils.VectorUtils;
 import com.hartwig.hmftools.neo.PeptideData;
 
 public class RandomDistributionTask implements Callable
@@ -23,8 +23,9 @@ public class RandomDistributionTask implements Callable
     private final String mAllele;
 
     private final Map<Integer,List<PeptideData>> mRandomPeptideMap; // by length and with flanking data
-    private final Map<String,Map<Integer,List<ScoreDistributionData>>> mAlleleScoreDistributions;
-    private final FlankScores mFlankScores;
+    private final Map<Integer,byte[][]> mEncodedPeptides;
+    private final Map<Integer,double[]> mFlankScores; // pre-computed per random peptide
+    private final Map<Integer,ScoreRankLookup> mScoreRankLookups; // by peptide length for this allele
     private final Map<Integer,BindScoreMatrix> mPeptideLengthMatrixMap;
 
     private final int mTaskType;
@@ -47,34 +48,36 @@ public class RandomDistributionTask implements Callable
     // instantiate one of 2 tasks
     public RandomDistributionTask(
             final String allele, final Map<Integer,BindScoreMatrix> peptideLengthMatrixMap,
-            final Map<Integer,List<PeptideData>> randomPeptideMap, final FlankScores flankScores)
+            final Map<Integer,List<PeptideData>> randomPeptideMap, final Map<Integer,byte[][]> encodedPeptides,
+            final Map<Integer,double[]> flankScores)
     {
-        this(TASK_TYPE_SCORE_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, flankScores,
+        this(TASK_TYPE_SCORE_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, encodedPeptides, flankScores,
                 null, null, null);
     }
 
     public RandomDistributionTask(
             final String allele, final Map<Integer,BindScoreMatrix> peptideLengthMatrixMap,
-            final Map<Integer,List<PeptideData>> randomPeptideMap, final FlankScores flankScores,
-            final Map<String,Map<Integer,List<ScoreDistributionData>>> alleleScoreDistributions,
+            final Map<Integer,List<PeptideData>> randomPeptideMap, final Map<Integer,byte[][]> encodedPeptides,
+            final Map<Integer,double[]> flankScores, final Map<Integer,ScoreRankLookup> scoreRankLookups,
             final BindingLikelihood bindingLikelihood, final ExpressionLikelihood expressionLikelihood)
     {
-        this(TASK_TYPE_LIKELIHOOD_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, flankScores,
-                alleleScoreDistributions, bindingLikelihood, expressionLikelihood);
+        this(TASK_TYPE_LIKELIHOOD_RANK, allele, peptideLengthMatrixMap, randomPeptideMap, encodedPeptides, flankScores,
+                scoreRankLookups, bindingLikelihood, expressionLikelihood);
     }
 
     private RandomDistributionTask(
             final int taskType, final String allele, final Map<Integer,BindScoreMatrix> peptideLengthMatrixMap,
-            final Map<Integer,List<PeptideData>> randomPeptideMap, final FlankScores flankScores,
-            final Map<String,Map<Integer,List<ScoreDistributionData>>> alleleScoreDistributions,
+            final Map<Integer,List<PeptideData>> randomPeptideMap, final Map<Integer,byte[][]> encodedPeptides,
+            final Map<Integer,double[]> flankScores, final Map<Integer,ScoreRankLookup> scoreRankLookups,
             final BindingLikelihood bindingLikelihood, final ExpressionLikelihood expressionLikelihood)
     {
         mTaskType = taskType;
         mAllele = allele;
         mPeptideLengthMatrixMap = peptideLengthMatrixMap;
         mRandomPeptideMap = randomPeptideMap;
+        mEncodedPeptides = encodedPeptides;
         mFlankScores = flankScores;
-        mAlleleScoreDistributions = alleleScoreDistributions;
+        mScoreRankLookups = scoreRankLookups;
         mBindingLikelihood = bindingLikelihood;
         mExpressionLikelihood = expressionLikelihood;
 
@@ -110,6 +113,23 @@ public class RandomDistributionTask implements Callable
         return (long)0;
     }
 
+    private double[] calcPeptideScores(final BindScoreMatrix matrix)
+    {
+        // scores all random peptides of the matrix's length in one batch, adding their flank scores
+        byte[][] encodedPeptides = mEncodedPeptides.get(matrix.PeptideLength);
+        double[] flankScores = mFlankScores.get(matrix.PeptideLength);
+
+        double[] peptideScores = new double[encodedPeptides.length];
+        matrix.calcScores(encodedPeptides, peptideScores);
+
+        for(int i = 0; i < peptideScores.length; ++i)
+        {
+            peptideScores[i] += flankScores[i];
+        }
+
+        return peptideScores;
+    }
+
     private void buildScoreDistribution()
     {
         if(mRandomPeptideMap.isEmpty())
@@ -128,25 +148,11 @@ public class RandomDistributionTask implements Callable
                 return;
             }
 
-            List<Double> peptideScores = Lists.newArrayListWithExpectedSize(randomPeptides.size());
+            double[] peptideScores = calcPeptideScores(matrix);
 
-            int count = 0;
-
-            for(PeptideData peptideData : randomPeptides)
-            {
-                double score = BindScorer.calcScore(matrix, mFlankScores, peptideData.Peptide, peptideData.UpFlank, peptideData.DownFlank);
-
-                VectorUtils.optimisedAdd(peptideScores, score, false);
-
-                ++count;
-
-                if(count > 0 && (count % 500000) == 0)
-                {
-                    NE_LOGGER.debug("added {} sorted random peptide scores", count);
-                }
-            }
+            List<ScoreDistributionData> scoresDistributions = generateDistribution(
+                    matrix.Allele, matrix.PeptideLength, sortDescending(peptideScores, peptideScores.length));
 
-            List<ScoreDistributionData> scoresDistributions = generateDistribution(matrix.Allele, matrix.PeptideLength, peptideScores);
             mPeptideLengthDistributions.put(matrix.PeptideLength, scoresDistributions);
         }
     }
@@ -158,7 +164,12 @@ public class RandomDistributionTask implements Callable
 
         NE_LOGGER.debug("building likelihood distribution for allele({})", mAllele);
 
-        List<Double> likelihoodScores = Lists.newArrayList();
+        int totalPeptides = mPeptideLengthMatrixMap.values().stream()
+                .filter(x -> x.PeptideLength <= PAN_PEPTIDE_MAX_LENGTH && mRandomPeptideMap.containsKey(x.PeptideLength))
+                .mapToInt(x -> mRandomPeptideMap.get(x.PeptideLength).size()).sum();
+
+        double[] likelihoodScores = new double[totalPeptides];
+        int count = 0;
 
         for(BindScoreMatrix matrix : mPeptideLengthMatrixMap.values())
         {
@@ -166,17 +177,19 @@ public class RandomDistributionTask implements Callable
             if(matrix.PeptideLength > PAN_PEPTIDE_MAX_LENGTH)
                 continue;
 
-            int count = 0;
-
             List<PeptideData> randomPeptides = mRandomPeptideMap.get(matrix.PeptideLength);
 
             if(randomPeptides == null || randomPeptides.isEmpty())
                 return;
 
-            for(PeptideData peptideData : randomPeptides)
+            double[] peptideScores = calcPeptideScores(matrix);
+            ScoreRankLookup scoreRankLookup = mScoreRankLookups.get(matrix.PeptideLength);
+
+            for(int i = 0; i < randomPeptides.size(); ++i)
             {
-                double score = BindScorer.calcScore(matrix, mFlankScores, peptideData.Peptide, peptideData.UpFlank, peptideData.DownFlank);
-                double rank = getScoreRank(mAlleleScoreDistributions, mAllele, matrix.PeptideLength, score);
+                PeptideData peptideData = randomPeptides.get(i);
+
+                double rank = getRank(scoreRankLookup, peptideScores[i]);
                 double likelihood = mBindingLikelihood.getBindingLikelihood(mAllele, peptideData.Peptide, rank);
 
                 if(likelihood > 0 && mExpressionLikelihood != null && mExpressionLikelihood.hasData())
@@ -185,18 +198,26 @@ public class RandomDistributionTask implements Callable
                     likelihood *= expLikelihood;
                 }
 
-                VectorUtils.optimisedAdd(likelihoodScores, likelihood, false);
+                likelihoodScores[count++] = likelihood;
+            }
+        }
 
-                ++count;
+        mLikelihoodDistributions.addAll(generateDistribution(mAllele, PAN_PEPTIDE_LENGTH, sortDescending(likelihoodScores, count)));
+    }
 
-                if(count > 0 && (count % 500000) == 0)
-                {
-                    NE_LOGGER.debug("added {} sorted random peptide likelihood scores", count);
-                }
-            }
+    private static List<Double> sortDescending(final double[] values, int count)
+    {
+        // sorting in one pass is far cheaper than maintaining a sorted list with each insert
+        Arrays.sort(values, 0, count);
+
+        List<Double> sortedValues = Lists.newArrayListWithExpectedSize(count);
+
+        for(int i = count - 1; i >= 0; --i)
+        {
+            sortedValues.add(values[i]);
         }
 
-        mLikelihoodDistributions.addAll(generateDistribution(mAllele, PAN_PEPTIDE_LENGTH, likelihoodScores));
+        return sortedValues;
     }
 
     private List<ScoreDistributionData> generateDistribution(final String allele, final int peptideLength, final List<Double> peptideScores)
@@ -9,6 +9,7 @@ import static com.hartwig.hmftools.neo.bind.BindCommon.FLD_PEPTIDE;
 import static com.hartwig.hmftools.neo.bind.BindCommon.FLD_TPM;
 import static com.hartwig.hmftools.neo.bind.BindCommon.FLD_UP_FLANK;
 import static com.hartwig.hmftools.neo.bind.BindConstants.INVALID_SCORE;
+import static com.hartwig.hmftools.neo.bind.BindConstants.encodePeptide;
 import static com.hartwig.hmftools.neo.bind.TrainConfig.FILE_ID_LIKELIHOOD_DIST;
 import static com.hartwig.hmftools.neo.bind.TrainConfig.FILE_ID_RAND_DIST;
 import static com.hartwig.hmftools.neo.bind.TrainConfig.formTrainingFilename;
@@ -18,6 +19,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,7 +30,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.utils.TaskExecutor;
-import com.hartwig.hmftools.common.utils.Doubles;
 import com.hartwig.hmftools.neo.PeptideData;
 
 public class RandomPeptideDistribution
@@ -38,6 +39,10 @@ public class RandomPeptideDistribution
 
     private final Map<Integer,List<PeptideData>> mRandomPeptideMap; // by length and with flanking data
 
+    // random peptides encoded for batch scoring and their flank scores, neither of which depend on the allele
+    private final Map<Integer,byte[][]> mEncodedRandomPeptides;
+    private final Map<Integer,double[]> mRandomPeptideFlankScores;
+
     // allele to peptide length to distribution
     private final Map<String,Map<Integer,List<ScoreDistributionData>>> mAlleleScoreDistributions;
 
@@ -47,6 +52,11 @@ public class RandomPeptideDistribution
     // allele to distribution of expression likelihoods
     private final Map<String,List<ScoreDistributionData>> mAlleleExpressionLikelihoodDistributions;
 
+    // the distributions above as rank lookups
+    private final Map<String,Map<Integer,ScoreRankLookup>> mAlleleScoreLookups;
+    private final Map<String,ScoreRankLookup> mAlleleLikelihoodLookups;
+    private final Map<String,ScoreRankLookup> mAlleleExpressionLikelihoodLookups;
+
     public RandomPeptideDistribution(final RandomPeptideConfig config)
     {
         mConfig = config;
@@ -55,6 +65,11 @@ public class RandomPeptideDistribution
         mAlleleLikelihoodDistributions = Maps.newHashMap();
         mAlleleExpressionLikelihoodDistributions = Maps.newHashMap();
         mRandomPeptideMap = Maps.newHashMap();
+        mEncodedRandomPeptides = Maps.newHashMap();
+        mRandomPeptideFlankScores = Maps.newHashMap();
+        mAlleleScoreLookups = Maps.newHashMap();
+        mAlleleLikelihoodLookups = Maps.newHashMap();
+        mAlleleExpressionLikelihoodLookups = Maps.newHashMap();
         mDataLoaded = false;
     }
 
@@ -63,6 +78,11 @@ public class RandomPeptideDistribution
         mDataLoaded = loadDistribution()
                 && loadLikelihoodDistribution(mConfig.LikelihoodDistributionFile, mAlleleLikelihoodDistributions, true)
                 && loadLikelihoodDistribution(mConfig.ExpressionLikelihoodDistributionFile, mAlleleExpressionLikelihoodDistributions, false);
+
+        buildScoreLookups();
+        buildLikelihoodLookups(mAlleleLikelihoodDistributions, mAlleleLikelihoodLookups);
+        buildLikelihoodLookups(mAlleleExpressionLikelihoodDistributions, mAlleleExpressionLikelihoodLookups);
+
         return mDataLoaded;
     }
 
@@ -72,87 +92,95 @@ public class RandomPeptideDistribution
 
     public double getScoreRank(final String allele, final int peptideLength, double score)
     {
-        return getScoreRank(mAlleleScoreDistributions, allele, peptideLength, score);
-    }
-
-    public static double getScoreRank(
-            final Map<String,Map<Integer,List<ScoreDistributionData>>> scoresMap, final String allele, final int peptideLength, double score)
-    {
-        Map<Integer,List<ScoreDistributionData>> peptideLengthMap = scoresMap.get(allele);
-
-        if(peptideLengthMap == null)
-            return INVALID_SCORE;
+        Map<Integer,ScoreRankLookup> peptideLengthLookups = mAlleleScoreLookups.get(allele);
 
-        List<ScoreDistributionData> scores = peptideLengthMap.get(peptideLength);
-
-        if(scores == null || scores.size() < 2)
+        if(peptideLengthLookups == null)
             return INVALID_SCORE;
 
-        return getRank(scores, score);
+        return getRank(peptideLengthLookups.get(peptideLength), score);
     }
 
     public double getLikelihoodRank(final String allele, double likelihood)
     {
-        List<ScoreDistributionData> likelihoodDist = mAlleleLikelihoodDistributions.get(allele);
+        return getRank(mAlleleLikelihoodLookups.get(allele), likelihood);
+    }
 
-        if(likelihoodDist == null || likelihoodDist.size() < 2)
-            return INVALID_SCORE;
+    public double getExpressionLikelihoodRank(final String allele, double likelihood)
+    {
+        return getRank(mAlleleExpressionLikelihoodLookups.get(allele), likelihood);
+    }
 
-        return getRank(likelihoodDist, likelihood);
+    public static double getRank(final ScoreRankLookup rankLookup, double score)
+    {
+        return rankLookup != null ? rankLookup.getRank(score) : INVALID_SCORE;
     }
 
-    public double getExpressionLikelihoodRank(final String allele, double likelihood)
+    private void buildScoreLookups()
     {
-        List<ScoreDistributionData> likelihoodDist = mAlleleExpressionLikelihoodDistributions.get(allele);
+        mAlleleScoreLookups.clear();
 
-        if(likelihoodDist == null || likelihoodDist.size() < 2)
-            return INVALID_SCORE;
+        for(Map.Entry<String,Map<Integer,List<ScoreDistributionData>>> alleleEntry : mAlleleScoreDistributions.entrySet())
+        {
+            Map<Integer,ScoreRankLookup> peptideLengthLookups = Maps.newHashMap();
+            mAlleleScoreLookups.put(alleleEntry.getKey(), peptideLengthLookups);
+
+            for(Map.Entry<Integer,List<ScoreDistributionData>> pepLenEntry : alleleEntry.getValue().entrySet())
+            {
+                ScoreRankLookup rankLookup = new ScoreRankLookup(pepLenEntry.getValue());
 
-        return getRank(likelihoodDist, likelihood);
+                if(rankLookup.isValid())
+                    peptideLengthLookups.put(pepLenEntry.getKey(), rankLookup);
+            }
+        }
     }
 
-    private static double getRank(final List<ScoreDistributionData> distribution, double score)
+    private static void buildLikelihoodLookups(
+            final Map<String,List<ScoreDistributionData>> alleleDistributions, final Map<String,ScoreRankLookup> alleleLookups)
     {
-        boolean isAscending = distribution.get(0).Score < distribution.get(1).Score;
+        alleleLookups.clear();
 
-        if((isAscending && score < distribution.get(0).Score) || (!isAscending && score > distribution.get(0).Score))
-            return 0; // zero-th percentile if the score is better than any in the random distribution
-
-        for(int i = 0; i < distribution.size(); ++i)
+        for(Map.Entry<String,List<ScoreDistributionData>> alleleEntry : alleleDistributions.entrySet())
         {
-            ScoreDistributionData scoreData = distribution.get(i);
+            ScoreRankLookup rankLookup = new ScoreRankLookup(alleleEntry.getValue());
 
-            if(Doubles.equal(score, scoreData.Score))
-                return scoreData.ScoreBucket;
+            if(rankLookup.isValid())
+                alleleLookups.put(alleleEntry.getKey(), rankLookup);
+        }
+    }
 
-            ScoreDistributionData nextScoreData = i < distribution.size() - 1 ? distribution.get(i + 1) : null;
+    private void prepareRandomPeptides(final FlankScores flankScores)
+    {
+        mRandomPeptideFlankScores.clear();
 
-            if(nextScoreData != null && Doubles.equal(score, nextScoreData.Score))
-                return nextScoreData.ScoreBucket;
+        for(Map.Entry<Integer,List<PeptideData>> pepLenEntry : mRandomPeptideMap.entrySet())
+        {
+            List<PeptideData> randomPeptides = pepLenEntry.getValue();
 
-            if((isAscending && score > scoreData.Score) || (!isAscending && score < scoreData.Score))
+            if(!mEncodedRandomPeptides.containsKey(pepLenEntry.getKey()))
             {
-                if(nextScoreData == null)
-                    break;
+                byte[][] encodedPeptides = new byte[randomPeptides.size()][];
 
-                if((isAscending && score < nextScoreData.Score) || (!isAscending && score > nextScoreData.Score))
+                for(int i = 0; i < randomPeptides.size(); ++i)
                 {
-                    // interpolate between the distribution to set the rank
-                    if(isAscending)
-                    {
-                        double upperPerc = (score - scoreData.Score) / (nextScoreData.Score - scoreData.Score);
-                        return upperPerc * nextScoreData.ScoreBucket + (1 - upperPerc) * scoreData.ScoreBucket;
-                    }
-                    else
-                    {
-                        double upperPerc = (score - nextScoreData.Score) / (scoreData.Score - nextScoreData.Score);
-                        return upperPerc * scoreData.ScoreBucket + (1 - upperPerc) * nextScoreData.ScoreBucket;
-                    }
+                    encodedPeptides[i] = encodePeptide(randomPeptides.get(i).Peptide);
                 }
+
+                mEncodedRandomPeptides.put(pepLenEntry.getKey(), encodedPeptides);
             }
-        }
 
-        return 1;
+            double[] peptideFlankScores = new double[randomPeptides.size()];
+
+            if(flankScores.hasData())
+            {
+                for(int i = 0; i < randomPeptides.size(); ++i)
+                {
+                    PeptideData peptideData = randomPeptides.get(i);
+                    peptideFlankScores[i] = flankScores.calcScore(peptideData.UpFlank, peptideData.DownFlank);
+                }
+            }
+
+            mRandomPeptideFlankScores.put(pepLenEntry.getKey(), peptideFlankScores);
+        }
     }
 
     public void buildDistribution(final Map<String,Map<Integer,BindScoreMatrix>> alleleBindMatrixMap, final FlankScores flankScores)
@@ -170,6 +198,8 @@ public class RandomPeptideDistribution
 
         mAlleleScoreDistributions.clear();
 
+        prepareRandomPeptides(flankScores);
+
         List<RandomDistributionTask> alleleTasks = Lists.newArrayList();
 
         for(Map.Entry<String,Map<Integer,BindScoreMatrix>> alleleEntry : alleleBindMatrixMap.entrySet())
@@ -183,7 +213,8 @@ public class RandomPeptideDistribution
 
             final Map<Integer, BindScoreMatrix> peptideLengthMatrixMap = alleleEntry.getValue();
 
-            alleleTasks.add(new RandomDistributionTask(allele, peptideLengthMatrixMap, mRandomPeptideMap, flankScores));
+            alleleTasks.add(new RandomDistributionTask(
+                    allele, peptideLengthMatrixMap, mRandomPeptideMap, mEncodedRandomPeptides, mRandomPeptideFlankScores));
         }
 
         NE_LOGGER.info("building distribution for {} allele(s)", alleleTasks.size());
@@ -191,7 +222,7 @@ public class RandomPeptideDistribution
         if(mConfig.Threads > 1)
         {
             final List<Callable> callableList = alleleTasks.stream().collect(Collectors.toList());
-            TaskExecutor.executeTasks(callableList, callableList.size());
+            TaskExecutor.executeTasks(callableList, mConfig.Threads);
         }
         else
         {
@@ -199,6 +230,7 @@ public class RandomPeptideDistribution
         }
 
         alleleTasks.forEach(x -> mAlleleScoreDistributions.put(x.allele(), x.getPeptideLengthScoreDistributions()));
+        buildScoreLookups();
 
         if(mConfig.WriteRandomDistribution)
             writeDistribution();
@@ -213,6 +245,8 @@ public class RandomPeptideDistribution
 
         mAlleleLikelihoodDistributions.clear();
 
+        prepareRandomPeptides(flankScores);
+
         List<RandomDistributionTask> alleleTasks = Lists.newArrayList();
 
         for(Map.Entry<String,Map<Integer,BindScoreMatrix>> alleleEntry : alleleBindMatrixMap.entrySet())
@@ -224,9 +258,11 @@ public class RandomPeptideDistribution
 
             final Map<Integer, BindScoreMatrix> peptideLengthMatrixMap = alleleEntry.getValue();
 
+            Map<Integer,ScoreRankLookup> scoreRankLookups = mAlleleScoreLookups.getOrDefault(allele, Collections.emptyMap());
+
             alleleTasks.add(new RandomDistributionTask(
-                    allele, peptideLengthMatrixMap, mRandomPeptideMap, flankScores, mAlleleScoreDistributions,
-                    bindingLikelihood, expressionLikelihood));
+                    allele, peptideLengthMatrixMap, mRandomPeptideMap, mEncodedRandomPeptides, mRandomPeptideFlankScores,
+                    scoreRankLookups, bindingLikelihood, expressionLikelihood));
         }
 
         NE_LOGGER.info("building likelihood distribution for {} allele(s)", alleleTasks.size());
@@ -242,6 +278,7 @@ public class RandomPeptideDistribution
         }
 
         alleleTasks.forEach(x -> mAlleleLikelihoodDistributions.put(x.allele(), x.getLikelihoodDistributions()));
+        buildLikelihoodLookups(mAlleleLikelihoodDistributions, mAlleleLikelihoodLookups);
 
         if(mConfig.WriteRandomDistribution)
             writeLikelihoodDistribution();
@@ -5,6 +5,7 @@ import static com.hartwig.hmftools.common.utils.FileWriterUtils.OUTPUT_DIR;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.checkAddDirSeparator;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.parseOutputDir;
 import static com.hartwig.hmftools.neo.NeoCommon.OUTPUT_ID;
+import static com.hartwig.hmftools.neo.NeoCommon.THREADS;
 import static com.hartwig.hmftools.neo.bind.ExpressionLikelihood.EXP_LIKELIHOOD_FILE;
 import static com.hartwig.hmftools.neo.bind.TrainConfig.FILE_ID_FLANK_POS_WEIGHT;
 import static com.hartwig.hmftools.neo.bind.TrainConfig.FILE_ID_LIKELIHOOD;
@@ -38,6 +39,7 @@ public class ScoreConfig
 
     public final String OutputDir;
     public final String OutputId;
+    public final int Threads;
 
     public static final String SCORE_FILE_ID = "score_file_id";
     public static final String SCORE_FILE_DIR = "score_file_dir";
@@ -64,6 +66,7 @@ public class ScoreConfig
 
         OutputDir = parseOutputDir(cmd);
         OutputId = cmd.getOptionValue(OUTPUT_ID);
+        Threads = Integer.parseInt(cmd.getOptionValue(THREADS, "0"));
 
         RandomPeptides = new RandomPeptideConfig(cmd);
 
@@ -0,0 +1,99 @@
+package com.hartwig.hmftools.neo.bind;
+
+import static com.hartwig.hmftools.neo.bind.BindConstants.INVALID_SCORE;
+
+import java.util.List;
+
+import com.hartwig.hmftools.common.utils.Doubles;
+
+/* a score or likelihood distribution held as primitive arrays so a rank is found by binary search rather than by walking
+   the distribution's entries, and interpolated between neighbouring entries in the same way
+*/
+public class ScoreRankLookup
+{
+    private final boolean mAscending;
+    private final double[] mScores; // as per the distribution, so descending if higher scores are better
+    private final double[] mKeys; // scores made ascending for the search
+    private final double[] mBuckets;
+
+    public ScoreRankLookup(final List<ScoreDistributionData> distribution)
+    {
+        int count = distribution.size();
+        mScores = new double[count];
+        mKeys = new double[count];
+        mBuckets = new double[count];
+
+        mAscending = count >= 2 && distribution.get(0).Score < distribution.get(1).Score;
+
+        for(int i = 0; i < count; ++i)
+        {
+            ScoreDistributionData scoreData = distribution.get(i);
+            mScores[i] = scoreData.Score;
+            mKeys[i] = mAscending ? scoreData.Score : -scoreData.Score;
+            mBuckets[i] = scoreData.ScoreBucket;
+        }
+    }
+
+    public boolean isValid() { return mScores.length >= 2; }
+
+    public double getRank(double score)
+    {
+        if(!isValid())
+            return INVALID_SCORE;
+
+        double key = mAscending ? score : -score;
+
+        if(key < mKeys[0])
+            return 0; // zero-th percentile if the score is better than any in the random distribution
+
+        // find the first entry at or beyond the score
+        int low = 0;
+        int high = mKeys.length;
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(mKeys[mid] < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        int index = low;
+
+        // a matching score takes the bucket of the first entry with that score
+        if(index > 0 && Doubles.equal(score, mScores[index - 1]))
+        {
+            --index;
+
+            while(index > 0 && Doubles.equal(score, mScores[index - 1]))
+            {
+                --index;
+            }
+
+            return mBuckets[index];
+        }
+
+        if(index < mScores.length && Doubles.equal(score, mScores[index]))
+            return mBuckets[index];
+
+        if(index == 0 || index >= mScores.length)
+            return 1;
+
+        // interpolate between the distribution to set the rank
+        double lowerScore = mScores[index - 1];
+        double upperScore = mScores[index];
+
+        if(mAscending)
+        {
+            double upperPerc = (score - lowerScore) / (upperScore - lowerScore);
+            return upperPerc * mBuckets[index] + (1 - upperPerc) * mBuckets[index - 1];
+        }
+        else
+        {
+            double upperPerc = (score - upperScore) / (lowerScore - upperScore);
+            return upperPerc * mBuckets[index - 1] + (1 - upperPerc) * mBuckets[index];
+        }
+    }
+}
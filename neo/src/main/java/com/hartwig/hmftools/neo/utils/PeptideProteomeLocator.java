@@ -51,7 +51,7 @@ public class PeptideProteomeLocator
     private final int mThreads;
     private final boolean mFindRepeats;
 
-    private final Map<String,TranscriptAminoAcids> mTransAminoAcidMap;
+    private final ProteomeIndex mProteomeIndex;
     private final TranscriptExpression mTranscriptExpression;
 
     private final List<String> mPeptides;
@@ -66,8 +66,9 @@ public class PeptideProteomeLocator
     {
         mPeptides = loadDelimitedIdFile(cmd.getOptionValue(PEPTIDE_FILE), FLD_PEPTIDE, CSV_DELIM);
 
-        mTransAminoAcidMap = Maps.newHashMap();
-        EnsemblDataLoader.loadTranscriptAminoAcidData(cmd.getOptionValue(ENSEMBL_DATA_DIR), mTransAminoAcidMap, Lists.newArrayList(), false);
+        Map<String,TranscriptAminoAcids> transAminoAcidMap = Maps.newHashMap();
+        EnsemblDataLoader.loadTranscriptAminoAcidData(cmd.getOptionValue(ENSEMBL_DATA_DIR), transAminoAcidMap, Lists.newArrayList(), false);
+        mProteomeIndex = new ProteomeIndex(transAminoAcidMap.values());
 
         mTranscriptExpression = new TranscriptExpression(cmd.getOptionValue(IMMUNE_EXPRESSION_FILE));
 
@@ -102,7 +103,7 @@ public class PeptideProteomeLocator
                 taskPeptideLists.add(peptideList);
 
                 searchTasks.add(new PeptideSearchTask(
-                        i, mTransAminoAcidMap, mTranscriptExpression, peptideList, mFindRepeats, mFlankLength, mWriter));
+                        i, mProteomeIndex, mTranscriptExpression, peptideList, mFindRepeats, mFlankLength, mWriter));
             }
 
             int taskIndex = 0;
@@ -121,7 +122,7 @@ public class PeptideProteomeLocator
         else
         {
             PeptideSearchTask searchTask = new PeptideSearchTask(
-                    0, mTransAminoAcidMap, mTranscriptExpression, mPeptides, mFindRepeats, mFlankLength, mWriter);
+                    0, mProteomeIndex, mTranscriptExpression, mPeptides, mFindRepeats, mFlankLength, mWriter);
 
             searchTasks.add(searchTask);
             searchTask.run();
@@ -179,7 +180,7 @@ public class PeptideProteomeLocator
     private class PeptideSearchTask implements Callable
     {
         private final int mTaskId;
-        private final Map<String,TranscriptAminoAcids> mTransAminoAcidMap;
+        private final ProteomeIndex mProteomeIndex;
         private final TranscriptExpression mTranscriptExpression;
         private final List<String> mPeptides;
         private final int mFlankLength;
@@ -188,12 +189,12 @@ public class PeptideProteomeLocator
         private int mFound;
 
         public PeptideSearchTask(
-                int taskId, final Map<String,TranscriptAminoAcids> transAminoAcidMap, final TranscriptExpression transcriptExpression,
+                int taskId, final ProteomeIndex proteomeIndex, final TranscriptExpression transcriptExpression,
                 final List<String> peptides, boolean findRepeats, final int flankLength, final BufferedWriter writer)
         {
             mTaskId = taskId;
             mFlankLength = flankLength;
-            mTransAminoAcidMap = transAminoAcidMap;
+            mProteomeIndex = proteomeIndex;
             mTranscriptExpression = transcriptExpression;
             mPeptides = peptides;
             mFindRepeats = findRepeats;
@@ -239,35 +240,23 @@ public class PeptideProteomeLocator
             Set<String> geneNames = Sets.newHashSet();
             List<String> transNames = Lists.newArrayList();
 
-            for(TranscriptAminoAcids transAminoAcids : mTransAminoAcidMap.values())
+            List<ProteomeMatch> proteomeMatches = mFindRepeats ? mProteomeIndex.findPeptide(peptide) : mProteomeIndex.findPeptide(peptide, 1);
+
+            for(ProteomeMatch proteomeMatch : proteomeMatches)
             {
-                int aaIndex = transAminoAcids.AminoAcids.indexOf(peptide);
-                if(aaIndex < 0)
-                    continue;
+                TranscriptAminoAcids transAminoAcids = proteomeMatch.Transcript;
 
                 ++matches;
 
                 if(geneNames.isEmpty())
                 {
                     ++mFound;
-                    matchedAaIndex = aaIndex;
+                    matchedAaIndex = proteomeMatch.AminoAcidIndex;
 
                     if(mFlankLength > 0)
                     {
-                        int upFlankBases = min(aaIndex, mFlankLength);
-
-                        if(upFlankBases > 0)
-                        {
-                            upFlank = transAminoAcids.AminoAcids.substring(aaIndex - upFlankBases, aaIndex);
-                        }
-
-                        int downFlankStartPos = aaIndex + peptide.length();
-                        int downFlankBases = min(transAminoAcids.AminoAcids.length() - downFlankStartPos - 1, mFlankLength);
-
-                        if(downFlankBases > 0)
-                        {
-                            downFlank = transAminoAcids.AminoAcids.substring(downFlankStartPos, downFlankStartPos + downFlankBases);
-                        }
+                        upFlank = proteomeMatch.upFlank(mFlankLength);
+                        downFlank = proteomeMatch.downFlank(peptide.length(), mFlankLength);
                     }
                 }
 
@@ -284,11 +273,6 @@ public class PeptideProteomeLocator
                     if(tpm != null)
                         tpmTotal += tpm;
                 }
-
-                if(!mFindRepeats)
-                    break;
-
-                // NE_LOGGER.info("found {} random peptides from {} coding transcripts", totalPeptideCount, transCodingCount);
             }
 
             if(!geneNames.isEmpty())
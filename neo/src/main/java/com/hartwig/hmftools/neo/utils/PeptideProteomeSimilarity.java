@@ -59,6 +59,7 @@ public class PeptideProteomeSimilarity
     private final List<PeptideSimilarity> mPeptideSimilarities;
 
     private final Map<String,List<TranscriptAminoAcids>> mTransAminoAcidMap;
+    private final ProteomeIndex mProteomeIndex;
     private final RankedProteomePeptides mRankedProteomePeptides;
     private final BindScorer mScorer;
 
@@ -78,10 +79,14 @@ public class PeptideProteomeSimilarity
             Map<String, TranscriptAminoAcids> transAminoAcidMap = Maps.newHashMap();
             EnsemblDataLoader.loadTranscriptAminoAcidData(cmd.getOptionValue(ENSEMBL_DATA_DIR), transAminoAcidMap, Lists.newArrayList(), false);
             mTransAminoAcidMap = convertAminoAcidsToGeneMap(transAminoAcidMap);
+
+            // indexed in the same order as the similarity search
+            mProteomeIndex = new ProteomeIndex(mTransAminoAcidMap.values().stream().flatMap(List::stream).collect(Collectors.toList()));
         }
         else
         {
             mTransAminoAcidMap = null;
+            mProteomeIndex = null;
         }
 
         if(cmd.hasOption(PROTEOME_RANKS_FILE))
@@ -131,7 +136,7 @@ public class PeptideProteomeSimilarity
 
             for(int i = 0; i < threads; ++i)
             {
-                searchTasks.add(new PeptideSearchTask(i, mTransAminoAcidMap, mRankedProteomePeptides));
+                searchTasks.add(new PeptideSearchTask(i, mTransAminoAcidMap, mProteomeIndex, mRankedProteomePeptides));
             }
 
             int taskIndex = 0;
@@ -149,7 +154,7 @@ public class PeptideProteomeSimilarity
         }
         else
         {
-            PeptideSearchTask searchTask = new PeptideSearchTask(0, mTransAminoAcidMap, mRankedProteomePeptides);
+            PeptideSearchTask searchTask = new PeptideSearchTask(0, mTransAminoAcidMap, mProteomeIndex, mRankedProteomePeptides);
             searchTask.getPeptides().addAll(mPeptideSimilarities);
             searchTasks.add(searchTask);
             searchTask.run();
@@ -295,6 +300,7 @@ public class PeptideProteomeSimilarity
     {
         private final int mTaskId;
         private final Map<String,List<TranscriptAminoAcids>> mTransAminoAcidMap;
+        private final ProteomeIndex mProteomeIndex;
         private final RankedProteomePeptides mRankedProteomePeptides;
 
         private final List<PeptideSimilarity> mPeptideSimilarities;
@@ -302,11 +308,12 @@ public class PeptideProteomeSimilarity
         private final BlosumMapping mBlosumMapping;
 
         public PeptideSearchTask(
-                int taskId, final Map<String,List<TranscriptAminoAcids>> transAminoAcidMap,
+                int taskId, final Map<String,List<TranscriptAminoAcids>> transAminoAcidMap, final ProteomeIndex proteomeIndex,
                 final RankedProteomePeptides rankedProteomePeptides)
         {
             mTaskId = taskId;
             mTransAminoAcidMap = transAminoAcidMap;
+            mProteomeIndex = proteomeIndex;
             mRankedProteomePeptides = rankedProteomePeptides;
 
             mPeptideSimilarities = Lists.newArrayList();
@@ -431,6 +438,15 @@ public class PeptideProteomeSimilarity
 
             String peptide = peptideSim.Peptide;
 
+            // an exact match is the top similarity so check for one before scanning
+            List<ProteomeMatch> exactMatches = mProteomeIndex.findPeptide(peptide, 1);
+
+            if(!exactMatches.isEmpty())
+            {
+                peptideSim.setTopSimilarity(peptide, 0, exactMatches.get(0).Transcript);
+                return;
+            }
+
             int peptideLength = peptide.length();
 
             for(List<TranscriptAminoAcids> transAaList : mTransAminoAcidMap.values())
@@ -441,12 +457,6 @@ public class PeptideProteomeSimilarity
                 {
                     final String aminoAcids = transAminoAcids.AminoAcids;
 
-                    if(aminoAcids.contains(peptide))
-                    {
-                        peptideSim.setTopSimilarity(peptide, 0, transAminoAcids);
-                        return;
-                    }
-
                     int aaLength = aminoAcids.length();
 
                     for(int startIndex = 0; startIndex < aaLength - peptideLength; ++startIndex)
@@ -0,0 +1,200 @@
+package com.hartwig.hmftools.neo.utils;
+
+import static com.hartwig.hmftools.neo.NeoCommon.NE_LOGGER;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
+
+/* index of the proteome for exact peptide searches: the transcripts' amino acids are concatenated (with a separator so
+   no match can span two transcripts) and every position is bucketed by the k-mer starting there, so a search only
+   compares the peptide against positions sharing its first k amino acids rather than scanning every transcript
+*/
+public class ProteomeIndex
+{
+    private final List<TranscriptAminoAcids> mTranscripts;
+    private final int[] mTranscriptStarts; // offset of each transcript in the concatenated amino acids
+
+    private final byte[] mAminoAcids;
+
+    // positions grouped by k-mer, and within each k-mer in ascending order so in transcript order
+    private final int[] mKmerOffsets;
+    private final int[] mPositions;
+
+    public static final int KMER_LENGTH = 4;
+
+    private static final int AA_BITS = 5;
+    private static final int KMER_COUNT = 1 << (AA_BITS * KMER_LENGTH);
+    private static final byte SEPARATOR = 0;
+
+    public ProteomeIndex(final Collection<TranscriptAminoAcids> transcripts)
+    {
+        mTranscripts = Lists.newArrayList(transcripts);
+        mTranscriptStarts = new int[mTranscripts.size()];
+
+        int totalLength = mTranscripts.stream().mapToInt(x -> x.AminoAcids.length() + 1).sum();
+        mAminoAcids = new byte[totalLength];
+
+        int offset = 0;
+        for(int i = 0; i < mTranscripts.size(); ++i)
+        {
+            String aminoAcids = mTranscripts.get(i).AminoAcids;
+            mTranscriptStarts[i] = offset;
+
+            for(int j = 0; j < aminoAcids.length(); ++j)
+            {
+                mAminoAcids[offset++] = (byte)aminoAcids.charAt(j);
+            }
+
+            mAminoAcids[offset++] = SEPARATOR;
+        }
+
+        // count positions per k-mer, convert these to offsets and then fill in the positions
+        mKmerOffsets = new int[KMER_COUNT + 1];
+
+        for(int pos = 0; pos + KMER_LENGTH <= totalLength; ++pos)
+        {
+            int kmer = kmerIndex(mAminoAcids, pos);
+
+            if(kmer >= 0)
+                ++mKmerOffsets[kmer + 1];
+        }
+
+        for(int i = 0; i < KMER_COUNT; ++i)
+        {
+            mKmerOffsets[i + 1] += mKmerOffsets[i];
+        }
+
+        mPositions = new int[mKmerOffsets[KMER_COUNT]];
+        int[] kmerCounts = new int[KMER_COUNT];
+
+        for(int pos = 0; pos + KMER_LENGTH <= totalLength; ++pos)
+        {
+            int kmer = kmerIndex(mAminoAcids, pos);
+
+            if(kmer >= 0)
+                mPositions[mKmerOffsets[kmer] + kmerCounts[kmer]++] = pos;
+        }
+
+        NE_LOGGER.debug("proteome index built: transcripts({}) aminoAcids({}) positions({})",
+                mTranscripts.size(), totalLength, mPositions.length);
+    }
+
+    public int transcriptCount() { return mTranscripts.size(); }
+
+    public boolean contains(final String peptide)
+    {
+        return !findPeptide(peptide, 1).isEmpty();
+    }
+
+    public List<ProteomeMatch> findPeptide(final String peptide)
+    {
+        return findPeptide(peptide, mTranscripts.size());
+    }
+
+    public List<ProteomeMatch> findPeptide(final String peptide, int maxMatches)
+    {
+        // returns the first location of the peptide in each transcript containing it, in transcript order
+        List<ProteomeMatch> matches = Lists.newArrayList();
+
+        if(peptide.isEmpty() || maxMatches <= 0)
+            return matches;
+
+        byte[] peptideBytes = new byte[peptide.length()];
+
+        for(int i = 0; i < peptideBytes.length; ++i)
+        {
+            peptideBytes[i] = (byte)peptide.charAt(i);
+        }
+
+        if(peptideBytes.length < KMER_LENGTH)
+        {
+            // too short to use the index
+            for(int pos = 0; pos + peptideBytes.length <= mAminoAcids.length; ++pos)
+            {
+                if(matchesAt(peptideBytes, pos) && addMatch(matches, pos) && matches.size() >= maxMatches)
+                    break;
+            }
+
+            return matches;
+        }
+
+        int kmer = kmerIndex(peptideBytes, 0);
+
+        if(kmer < 0)
+            return matches;
+
+        for(int i = mKmerOffsets[kmer]; i < mKmerOffsets[kmer + 1]; ++i)
+        {
+            int pos = mPositions[i];
+
+            if(matchesAt(peptideBytes, pos) && addMatch(matches, pos) && matches.size() >= maxMatches)
+                break;
+        }
+
+        return matches;
+    }
+
+    private boolean matchesAt(final byte[] peptide, int pos)
+    {
+        if(pos + peptide.length > mAminoAcids.length)
+            return false;
+
+        for(int i = 0; i < peptide.length; ++i)
+        {
+            if(mAminoAcids[pos + i] != peptide[i])
+                return false;
+        }
+
+        return true;
+    }
+
+    private boolean addMatch(final List<ProteomeMatch> matches, int pos)
+    {
+        int transIndex = transcriptIndex(pos);
+
+        // only the first occurrence in each transcript is reported
+        if(!matches.isEmpty() && matches.get(matches.size() - 1).TranscriptIndex == transIndex)
+            return false;
+
+        matches.add(new ProteomeMatch(transIndex, mTranscripts.get(transIndex), pos - mTranscriptStarts[transIndex]));
+        return true;
+    }
+
+    private int transcriptIndex(int pos)
+    {
+        int low = 0;
+        int high = mTranscriptStarts.length - 1;
+
+        while(low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+
+            if(mTranscriptStarts[mid] <= pos)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+
+        return low;
+    }
+
+    private static int kmerIndex(final byte[] aminoAcids, int pos)
+    {
+        int kmer = 0;
+
+        for(int i = 0; i < KMER_LENGTH; ++i)
+        {
+            byte aa = aminoAcids[pos + i];
+
+            if(aa == SEPARATOR)
+                return -1;
+
+            kmer = (kmer << AA_BITS) | (aa & 0x1F); // letters map to distinct values, any collisions are resolved by the full comparison
+        }
+
+        return kmer;
+    }
+}
@@ -0,0 +1,35 @@
+package com.hartwig.hmftools.neo.utils;
+
+import static java.lang.Math.min;
+
+import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
+
+public class ProteomeMatch
+{
+    public final int TranscriptIndex;
+    public final TranscriptAminoAcids Transcript;
+    public final int AminoAcidIndex; // of the first amino acid of the peptide in the transcript
+
+    public ProteomeMatch(int transcriptIndex, final TranscriptAminoAcids transcript, int aminoAcidIndex)
+    {
+        TranscriptIndex = transcriptIndex;
+        Transcript = transcript;
+        AminoAcidIndex = aminoAcidIndex;
+    }
+
+    public String upFlank(int flankLength)
+    {
+        int flankBases = min(AminoAcidIndex, flankLength);
+        return flankBases > 0 ? Transcript.AminoAcids.substring(AminoAcidIndex - flankBases, AminoAcidIndex) : "";
+    }
+
+    public String downFlank(int peptideLength, int flankLength)
+    {
+        // excludes the transcript's final amino acid, as per the original flank extraction
+        int flankStartPos = AminoAcidIndex + peptideLength;
+        int flankBases = min(Transcript.AminoAcids.length() - flankStartPos - 1, flankLength);
+        return flankBases > 0 ? Transcript.AminoAcids.substring(flankStartPos, flankStartPos + flankBases) : "";
+    }
+
+    public String toString() { return String.format("%s:%d", Transcript.TransName, AminoAcidIndex); }
+}
@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.neo.bind;
 
+import static com.hartwig.hmftools.neo.bind.BindConstants.AMINO_ACID_COUNT;
+import static com.hartwig.hmftools.neo.bind.BindConstants.encodePeptide;
 import static com.hartwig.hmftools.neo.bind.RandomDistributionTask.generateDistribution;
 
 import static junit.framework.TestCase.assertEquals;
@@ -45,4 +47,76 @@ public class BindUtilsTest
         assertEquals(peptideScores.get(peptideScores.size() - 1), data.Score);
         assertEquals(peptideScores.size(), data.CumulativeCount);
     }
+
+    @Test
+    public void testBatchScoring()
+    {
+        BindScoreMatrix matrix = new BindScoreMatrix("A0201", 4);
+
+        for(int aa = 0; aa < AMINO_ACID_COUNT; ++aa)
+        {
+            for(int pos = 0; pos < matrix.PeptideLength; ++pos)
+            {
+                matrix.getBindScores()[aa][pos] = aa * 0.1 - pos * 0.37;
+            }
+        }
+
+        List<String> peptides = Lists.newArrayList("AKLW", "YYCD", "AKL", "AKXW", "MNPQ");
+
+        byte[][] encodedPeptides = new byte[peptides.size()][];
+
+        for(int i = 0; i < peptides.size(); ++i)
+        {
+            encodedPeptides[i] = encodePeptide(peptides.get(i));
+        }
+
+        double[] scores = new double[peptides.size()];
+        matrix.calcScores(encodedPeptides, scores);
+
+        for(int i = 0; i < peptides.size(); ++i)
+        {
+            assertEquals(matrix.calcScore(peptides.get(i)), scores[i]);
+            assertEquals(matrix.calcScore(encodedPeptides[i]), scores[i]);
+        }
+
+        assertEquals(-1000.0, scores[2]);
+        assertEquals(-1000.0, scores[3]);
+    }
+
+    @Test
+    public void testRankLookup()
+    {
+        // scores where higher is better, including a repeated score
+        List<ScoreDistributionData> scoreDistribution = Lists.newArrayList(
+                new ScoreDistributionData("A0201", 9, 0, 10, 1, 1),
+                new ScoreDistributionData("A0201", 9, 0.1, 8, 1, 2),
+                new ScoreDistributionData("A0201", 9, 0.2, 8, 1, 3),
+                new ScoreDistributionData("A0201", 9, 0.3, 5, 1, 4),
+                new ScoreDistributionData("A0201", 9, 1, 2, 1, 5));
+
+        ScoreRankLookup rankLookup = new ScoreRankLookup(scoreDistribution);
+
+        assertEquals(0.0, rankLookup.getRank(11));
+        assertEquals(0.0, rankLookup.getRank(10));
+        assertEquals(0.05, rankLookup.getRank(9), 1e-10);
+        assertEquals(0.1, rankLookup.getRank(8));
+        assertEquals(0.25, rankLookup.getRank(6.5), 1e-10);
+        assertEquals(1.0, rankLookup.getRank(2));
+        assertEquals(1.0, rankLookup.getRank(1));
+
+        // likelihoods where lower is better
+        List<ScoreDistributionData> likelihoodDistribution = Lists.newArrayList(
+                new ScoreDistributionData("A0201", 0, 0, 0.001, 1, 1),
+                new ScoreDistributionData("A0201", 0, 0.5, 0.01, 1, 2),
+                new ScoreDistributionData("A0201", 0, 1, 0.1, 1, 3));
+
+        rankLookup = new ScoreRankLookup(likelihoodDistribution);
+
+        assertEquals(0.0, rankLookup.getRank(0.0005));
+        assertEquals(0.25, rankLookup.getRank(0.0055), 1e-10);
+        assertEquals(0.5, rankLookup.getRank(0.01));
+        assertEquals(1.0, rankLookup.getRank(0.5));
+
+        assertEquals(-1.0, new ScoreRankLookup(likelihoodDistribution.subList(0, 1)).getRank(0.5));
+    }
 }
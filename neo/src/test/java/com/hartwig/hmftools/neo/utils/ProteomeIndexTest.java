@@ -0,0 +1,55 @@
+package com.hartwig.hmftools.neo.utils;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.gene.TranscriptAminoAcids;
+
+import org.junit.Test;
+
+public class ProteomeIndexTest
+{
+    @Test
+    public void testPeptideSearch()
+    {
+        List<TranscriptAminoAcids> transcripts = Lists.newArrayList(
+                new TranscriptAminoAcids("GENE_ID_1", "GENE_1", "TRANS_1", true, "MKTAYIAKQRQISFVKSHFSRQ"),
+                new TranscriptAminoAcids("GENE_ID_2", "GENE_2", "TRANS_2", true, "MALWMRLLPLLALLALWGPDAAAF"),
+                new TranscriptAminoAcids("GENE_ID_2", "GENE_2", "TRANS_3", false, "MRLLPLLALLMRLLPLLALL"),
+                new TranscriptAminoAcids("GENE_ID_3", "GENE_3", "TRANS_4", true, "AKQRQISF"));
+
+        ProteomeIndex proteomeIndex = new ProteomeIndex(transcripts);
+
+        List<ProteomeMatch> matches = proteomeIndex.findPeptide("AKQRQISF");
+        assertEquals(2, matches.size());
+        assertEquals("TRANS_1", matches.get(0).Transcript.TransName);
+        assertEquals(6, matches.get(0).AminoAcidIndex);
+        assertEquals("AYI", matches.get(0).upFlank(3));
+        assertEquals("VKS", matches.get(0).downFlank(8, 3));
+        assertEquals("TRANS_4", matches.get(1).Transcript.TransName);
+        assertEquals(0, matches.get(1).AminoAcidIndex);
+        assertEquals("", matches.get(1).upFlank(3));
+
+        // only the first occurrence in each transcript is reported
+        matches = proteomeIndex.findPeptide("MRLLPLLALL");
+        assertEquals(2, matches.size());
+        assertEquals("TRANS_2", matches.get(0).Transcript.TransName);
+        assertEquals(4, matches.get(0).AminoAcidIndex);
+        assertEquals("TRANS_3", matches.get(1).Transcript.TransName);
+        assertEquals(0, matches.get(1).AminoAcidIndex);
+
+        assertEquals(1, proteomeIndex.findPeptide("MRLLPLLALL", 1).size());
+
+        // no match across transcripts
+        assertFalse(proteomeIndex.contains("SRQMALW"));
+        assertFalse(proteomeIndex.contains("AKQRQISG"));
+
+        // shorter than the index k-mer length
+        assertTrue(proteomeIndex.contains("MK"));
+        assertEquals(3, proteomeIndex.findPeptide("AF").size() + proteomeIndex.findPeptide("SF").size());
+    }
+}
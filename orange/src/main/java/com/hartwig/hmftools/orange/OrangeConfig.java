@@ -90,6 +90,8 @@ public interface OrangeConfig {
     String MAX_EVIDENCE_LEVEL = "max_evidence_level";
     String LIMIT_JSON_OUTPUT = "limit_json_output";
     String LOG_DEBUG = "log_debug";
+    String THREADS = "threads";
+    String RESOURCE_CACHE_DIR = "resource_cache_dir";
 
     @NotNull
     static Options createOptions() {
@@ -147,6 +149,8 @@ public interface OrangeConfig {
         options.addOption(MAX_EVIDENCE_LEVEL, true, "If provided, only evidence up to provided maximum level are added to report");
         options.addOption(LOG_DEBUG, false, "If provided, set the log level to debug rather than default.");
         options.addOption(LIMIT_JSON_OUTPUT, false, "If provided, limits the json output.");
+        options.addOption(THREADS, true, "Number of threads used to load inputs, default 1");
+        options.addOption(RESOURCE_CACHE_DIR, true, "If provided, DOID and cohort percentiles are cached in serialized form in this directory.");
 
         for (Option rnaOption : OrangeRNAConfig.createOptions().getOptions()) {
             options.addOption(rnaOption);
@@ -296,6 +300,14 @@ public interface OrangeConfig {
     @NotNull
     String protectEvidenceTsv();
 
+    @Value.Default
+    default int threads() {
+        return 1;
+    }
+
+    @Nullable
+    String resourceCacheDir();
+
     @NotNull
     static OrangeConfig createConfig(@NotNull CommandLine cmd) throws ParseException, IOException {
         if (cmd.hasOption(LOG_DEBUG)) {
@@ -381,6 +393,8 @@ public interface OrangeConfig {
                 .cuppaFeaturePlot(Config.optionalValue(cmd, CUPPA_FEATURE_PLOT))
                 .peachGenotypeTsv(Config.nonOptionalFile(cmd, PEACH_GENOTYPE_TSV))
                 .protectEvidenceTsv(Config.nonOptionalFile(cmd, PROTECT_EVIDENCE_TSV))
+                .threads(Integer.parseInt(cmd.getOptionValue(THREADS, "1")))
+                .resourceCacheDir(Config.optionalValue(cmd, RESOURCE_CACHE_DIR))
                 .build();
     }
 
@@ -2,15 +2,22 @@ package com.hartwig.hmftools.orange.algo;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hartwig.hmftools.common.chord.ChordData;
 import com.hartwig.hmftools.common.chord.ChordDataFile;
 import com.hartwig.hmftools.common.cuppa.CuppaDataFile;
@@ -65,6 +72,7 @@ import com.hartwig.hmftools.orange.cohort.percentile.CohortPercentiles;
 import com.hartwig.hmftools.orange.cohort.percentile.CohortPercentilesFile;
 import com.hartwig.hmftools.orange.cohort.percentile.CohortPercentilesModel;
 import com.hartwig.hmftools.orange.cohort.percentile.PercentileType;
+import com.hartwig.hmftools.orange.util.SerializedResourceCache;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -88,32 +96,29 @@ public class OrangeAlgo {
 
     @NotNull
     public static OrangeAlgo fromConfig(@NotNull OrangeConfig config) throws IOException {
-        LOGGER.info("Loading DOID database from {}", config.doidJsonFile());
-        DoidEntry doidEntry = DiseaseOntology.readDoidOwlEntryFromDoidJson(config.doidJsonFile());
-        DoidParents doidParentModel = DoidParents.fromEdges(doidEntry.edges());
-
-        LOGGER.info("Reading cohort mappings from {}", config.cohortMappingTsv());
-        List<CohortMapping> mappings = CohortMappingFile.read(config.cohortMappingTsv());
-        LOGGER.info(" Reading {} cohort mappings", mappings.size());
-        CohortMapper mapper = new DoidCohortMapper(doidParentModel, mappings);
-
-        LOGGER.info("Reading percentiles from {}", config.cohortPercentilesTsv());
-        Multimap<PercentileType, CohortPercentiles> percentilesMap = CohortPercentilesFile.read(config.cohortPercentilesTsv());
-        LOGGER.info(" Read {} percentiles", percentilesMap.values().size());
-        CohortPercentilesModel percentilesModel = new CohortPercentilesModel(mapper, percentilesMap);
-
-        LOGGER.info("Reading driver genes from {}", config.driverGenePanelTsv());
-        List<DriverGene> driverGenes = DriverGeneFile.read(config.driverGenePanelTsv());
-        LOGGER.info(" Read {} driver genes", driverGenes.size());
-
-        LOGGER.info("Reading known fusions from {}", config.knownFusionFile());
-        KnownFusionCache knownFusionCache = new KnownFusionCache();
-        if (!knownFusionCache.loadFile(config.knownFusionFile())) {
-            throw new IOException("Could not load known fusions from " + config.knownFusionFile());
+        ExecutorService executor = createExecutor(config);
+        try {
+            CompletableFuture<DoidEntry> doidEntryFuture = submit(executor, () -> loadDoidEntry(config));
+            CompletableFuture<List<CohortMapping>> mappingsFuture = submit(executor, () -> loadCohortMappings(config));
+            CompletableFuture<Multimap<PercentileType, CohortPercentiles>> percentilesFuture =
+                    submit(executor, () -> loadCohortPercentiles(config));
+            CompletableFuture<List<DriverGene>> driverGenesFuture = submit(executor, () -> loadDriverGenes(config));
+            CompletableFuture<KnownFusionCache> knownFusionCacheFuture = submit(executor, () -> loadKnownFusionCache(config));
+
+            CompletableFuture<CohortMapper> mapperFuture = doidEntryFuture.thenCombineAsync(mappingsFuture,
+                    (doidEntry, mappings) -> new DoidCohortMapper(DoidParents.fromEdges(doidEntry.edges()), mappings),
+                    executor);
+            CompletableFuture<CohortPercentilesModel> percentilesModelFuture =
+                    mapperFuture.thenCombineAsync(percentilesFuture, CohortPercentilesModel::new, executor);
+
+            return new OrangeAlgo(await(doidEntryFuture),
+                    await(mapperFuture),
+                    await(percentilesModelFuture),
+                    await(driverGenesFuture),
+                    await(knownFusionCacheFuture));
+        } finally {
+            executor.shutdownNow();
         }
-        LOGGER.info(" Read {} known fusion entries", knownFusionCache.getData().size());
-
-        return new OrangeAlgo(doidEntry, mapper, percentilesModel, driverGenes, knownFusionCache);
     }
 
     private OrangeAlgo(@NotNull final DoidEntry doidEntry, @NotNull final CohortMapper cohortMapper,
@@ -128,18 +133,71 @@ public class OrangeAlgo {
 
     @NotNull
     public OrangeReport run(@NotNull OrangeConfig config) throws IOException {
-        Set<DoidNode> configuredPrimaryTumor = loadConfiguredPrimaryTumor(config);
-        String platinumVersion = determinePlatinumVersion(config);
-        OrangeSample refSample = loadSampleData(config, false);
-        OrangeSample tumorSample = loadSampleData(config, true);
-
-        List<ProtectEvidence> allEvidences = loadProtectData(config);
-
-        LinxInterpretedData linx = LinxInterpreter.interpret(loadLinxData(config), allEvidences, driverGenes, knownFusionCache);
-
-        ChordData chord = loadChordAnalysis(config);
-        PurpleInterpretedData purple = PurpleInterpreter.interpret(loadPurpleData(config), allEvidences, driverGenes, chord);
+        // all inputs are loaded concurrently, and each interpreter only waits for the inputs it depends on
+        ExecutorService executor = createExecutor(config);
+        try {
+            CompletableFuture<String> platinumVersionFuture = submit(executor, () -> determinePlatinumVersion(config));
+            CompletableFuture<OrangeSample> refSampleFuture = submit(executor, () -> loadSampleData(config, false));
+            CompletableFuture<OrangeSample> tumorSampleFuture = submit(executor, () -> loadSampleData(config, true));
+            CompletableFuture<Map<String, Double>> germlineMVLHFuture = submit(executor, () -> loadGermlineMVLHPerGene(config));
+            CompletableFuture<List<ProtectEvidence>> evidencesFuture = submit(executor, () -> loadProtectData(config));
+            CompletableFuture<LinxData> linxDataFuture = submit(executor, () -> loadLinxData(config));
+            CompletableFuture<ChordData> chordFuture = submit(executor, () -> loadChordAnalysis(config));
+            CompletableFuture<PurpleData> purpleDataFuture = submit(executor, () -> loadPurpleData(config));
+            CompletableFuture<LilacSummaryData> lilacFuture = submit(executor, () -> loadLilacData(config));
+            CompletableFuture<VirusInterpreterData> virusFuture = submit(executor, () -> loadVirusInterpreterData(config));
+            CompletableFuture<CuppaData> cuppaFuture = submit(executor, () -> loadCuppaData(config));
+            CompletableFuture<List<PeachGenotype>> peachFuture = submit(executor, () -> loadPeachData(config));
+            CompletableFuture<OrangePlots> plotsFuture = submit(executor, () -> buildPlots(config));
+
+            CompletableFuture<LinxInterpretedData> linxFuture = linxDataFuture.thenCombineAsync(evidencesFuture,
+                    (linxData, evidences) -> LinxInterpreter.interpret(linxData, evidences, driverGenes, knownFusionCache),
+                    executor);
+
+            CompletableFuture<PurpleInterpretedData> purpleFuture = CompletableFuture.allOf(purpleDataFuture, evidencesFuture, chordFuture)
+                    .thenApplyAsync(completed -> PurpleInterpreter.interpret(purpleDataFuture.join(),
+                            evidencesFuture.join(),
+                            driverGenes,
+                            chordFuture.join()), executor);
+
+            CompletableFuture<IsofoxInterpretedData> isofoxFuture =
+                    linxFuture.thenComposeAsync(linx -> submit(executor, () -> loadIsofoxData(config, linx)), executor);
+
+            CompletableFuture<List<WildTypeGene>> wildTypeGenesFuture =
+                    purpleFuture.thenCombineAsync(linxFuture, this::determineWildTypeGenes, executor);
+
+            Set<DoidNode> configuredPrimaryTumor = loadConfiguredPrimaryTumor(config);
+            PurpleInterpretedData purple = await(purpleFuture);
+
+            return ImmutableOrangeReport.builder()
+                    .sampleId(config.tumorSampleId())
+                    .experimentDate(config.experimentDate())
+                    .configuredPrimaryTumor(configuredPrimaryTumor)
+                    .refGenomeVersion(config.refGenomeVersion())
+                    .platinumVersion(await(platinumVersionFuture))
+                    .refSample(await(refSampleFuture))
+                    .tumorSample(await(tumorSampleFuture))
+                    .germlineMVLHPerGene(await(germlineMVLHFuture))
+                    .purple(purple)
+                    .linx(await(linxFuture))
+                    .wildTypeGenes(await(wildTypeGenesFuture))
+                    .isofox(await(isofoxFuture))
+                    .lilac(await(lilacFuture))
+                    .virusInterpreter(await(virusFuture))
+                    .chord(await(chordFuture))
+                    .cuppa(await(cuppaFuture))
+                    .peach(await(peachFuture))
+                    .protect(ProtectInterpreter.interpret(await(evidencesFuture)))
+                    .cohortEvaluations(evaluateCohortPercentiles(config, purple))
+                    .plots(await(plotsFuture))
+                    .build();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
+    @NotNull
+    private List<WildTypeGene> determineWildTypeGenes(@NotNull PurpleInterpretedData purple, @NotNull LinxInterpretedData linx) {
         List<WildTypeGene> wildTypeGenes = WildTypeFactory.filterQCWildTypes(purple.fit().qc().status(),
                 WildTypeFactory.determineWildTypeGenes(purple.reportableGermlineVariants(),
                         purple.reportableSomaticVariants(),
@@ -149,29 +207,55 @@ public class OrangeAlgo {
                         linx.reportableGeneDisruptions(),
                         driverGenes));
         LOGGER.info("Identified {} of {} driver genes to be wild-type", wildTypeGenes.size(), driverGenes.size());
+        return wildTypeGenes;
+    }
 
-        return ImmutableOrangeReport.builder()
-                .sampleId(config.tumorSampleId())
-                .experimentDate(config.experimentDate())
-                .configuredPrimaryTumor(configuredPrimaryTumor)
-                .refGenomeVersion(config.refGenomeVersion())
-                .platinumVersion(platinumVersion)
-                .refSample(refSample)
-                .tumorSample(tumorSample)
-                .germlineMVLHPerGene(loadGermlineMVLHPerGene(config))
-                .purple(purple)
-                .linx(linx)
-                .wildTypeGenes(wildTypeGenes)
-                .isofox(loadIsofoxData(config, linx))
-                .lilac(loadLilacData(config))
-                .virusInterpreter(loadVirusInterpreterData(config))
-                .chord(chord)
-                .cuppa(loadCuppaData(config))
-                .peach(loadPeachData(config))
-                .protect(ProtectInterpreter.interpret(allEvidences))
-                .cohortEvaluations(evaluateCohortPercentiles(config, purple))
-                .plots(buildPlots(config))
-                .build();
+    @NotNull
+    private static DoidEntry loadDoidEntry(@NotNull OrangeConfig config) throws IOException {
+        LOGGER.info("Loading DOID database from {}", config.doidJsonFile());
+        return SerializedResourceCache.loadCached(config.resourceCacheDir(),
+                config.doidJsonFile(),
+                DoidEntry.class,
+                () -> DiseaseOntology.readDoidOwlEntryFromDoidJson(config.doidJsonFile()));
+    }
+
+    @NotNull
+    private static List<CohortMapping> loadCohortMappings(@NotNull OrangeConfig config) throws IOException {
+        LOGGER.info("Reading cohort mappings from {}", config.cohortMappingTsv());
+        List<CohortMapping> mappings = CohortMappingFile.read(config.cohortMappingTsv());
+        LOGGER.info(" Reading {} cohort mappings", mappings.size());
+        return mappings;
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static Multimap<PercentileType, CohortPercentiles> loadCohortPercentiles(@NotNull OrangeConfig config) throws IOException {
+        LOGGER.info("Reading percentiles from {}", config.cohortPercentilesTsv());
+        Multimap<PercentileType, CohortPercentiles> percentilesMap = SerializedResourceCache.loadCached(config.resourceCacheDir(),
+                config.cohortPercentilesTsv(),
+                Multimap.class,
+                () -> CohortPercentilesFile.read(config.cohortPercentilesTsv()));
+        LOGGER.info(" Read {} percentiles", percentilesMap.values().size());
+        return percentilesMap;
+    }
+
+    @NotNull
+    private static List<DriverGene> loadDriverGenes(@NotNull OrangeConfig config) throws IOException {
+        LOGGER.info("Reading driver genes from {}", config.driverGenePanelTsv());
+        List<DriverGene> driverGenes = DriverGeneFile.read(config.driverGenePanelTsv());
+        LOGGER.info(" Read {} driver genes", driverGenes.size());
+        return driverGenes;
+    }
+
+    @NotNull
+    private static KnownFusionCache loadKnownFusionCache(@NotNull OrangeConfig config) throws IOException {
+        LOGGER.info("Reading known fusions from {}", config.knownFusionFile());
+        KnownFusionCache knownFusionCache = new KnownFusionCache();
+        if (!knownFusionCache.loadFile(config.knownFusionFile())) {
+            throw new IOException("Could not load known fusions from " + config.knownFusionFile());
+        }
+        LOGGER.info(" Read {} known fusion entries", knownFusionCache.getData().size());
+        return knownFusionCache;
     }
 
     @NotNull
@@ -412,4 +496,43 @@ public class OrangeAlgo {
     private static Sample createSample(@NotNull OrangeConfig config) {
         return ImmutableSample.builder().sampleId(config.tumorSampleId()).doids(config.primaryTumorDoids()).build();
     }
+
+    @NotNull
+    private static ExecutorService createExecutor(@NotNull OrangeConfig config) {
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("orange-loader-%d").setDaemon(true).build();
+        return Executors.newFixedThreadPool(Math.max(config.threads(), 1), threadFactory);
+    }
+
+    @NotNull
+    private static <T> CompletableFuture<T> submit(@NotNull ExecutorService executor, @NotNull Loader<T> loader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.load();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }, executor);
+    }
+
+    private static <T> T await(@NotNull CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Loader<T> {
+
+        T load() throws IOException;
+    }
 }
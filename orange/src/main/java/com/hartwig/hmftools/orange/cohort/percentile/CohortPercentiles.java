@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.orange.cohort.percentile;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.immutables.value.Value;
@@ -8,7 +9,7 @@ import org.jetbrains.annotations.Nullable;
 
 @Value.Immutable
 @Value.Style(passAnnotations = { NotNull.class, Nullable.class })
-public abstract class CohortPercentiles {
+public abstract class CohortPercentiles implements Serializable {
 
     @NotNull
     public abstract String cancerType();
@@ -0,0 +1,103 @@
+package com.hartwig.hmftools.orange.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public final class SerializedResourceCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(SerializedResourceCache.class);
+
+    private static final String CACHE_EXTENSION = ".ser";
+
+    @FunctionalInterface
+    public interface ResourceLoader<T> {
+
+        @NotNull
+        T load() throws IOException;
+    }
+
+    private SerializedResourceCache() {
+    }
+
+    @NotNull
+    public static <T> T loadCached(@Nullable String cacheDir, @NotNull String sourceFile, @NotNull Class<T> type,
+            @NotNull ResourceLoader<T> loader) throws IOException {
+        if (cacheDir == null) {
+            return loader.load();
+        }
+
+        File cacheFile = cacheFile(cacheDir, sourceFile);
+        if (cacheFile.exists()) {
+            T cached = read(cacheFile, type);
+            if (cached != null) {
+                LOGGER.debug(" Read cached resource for {} from {}", sourceFile, cacheFile);
+                return cached;
+            }
+        }
+
+        T resource = loader.load();
+        try {
+            write(cacheFile, resource);
+        } catch (IOException exception) {
+            LOGGER.warn("Could not write cached resource {}: {}", cacheFile, exception.toString());
+        }
+        return resource;
+    }
+
+    @NotNull
+    static File cacheFile(@NotNull String cacheDir, @NotNull String sourceFile) {
+        // the source's location, size and modification time are part of the name so that a changed source is never served from cache
+        File source = new File(sourceFile);
+        String key = source.getAbsolutePath() + ":" + source.length() + ":" + source.lastModified();
+        return new File(cacheDir, source.getName() + "." + Integer.toHexString(key.hashCode()) + CACHE_EXTENSION);
+    }
+
+    @Nullable
+    private static <T> T read(@NotNull File cacheFile, @NotNull Class<T> type) {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(cacheFile.toPath()));
+                ObjectInputStream objectStream = new ObjectInputStream(inputStream)) {
+            Object object = objectStream.readObject();
+            if (type.isInstance(object)) {
+                return type.cast(object);
+            }
+            LOGGER.warn("Ignoring cached resource {} as it does not hold a {}", cacheFile, type.getSimpleName());
+        } catch (IOException | ClassNotFoundException exception) {
+            // typically a cache written by another version of the data model
+            LOGGER.warn("Ignoring unreadable cached resource {}: {}", cacheFile, exception.toString());
+        }
+        return null;
+    }
+
+    private static void write(@NotNull File cacheFile, @NotNull Object resource) throws IOException {
+        File cacheDir = cacheFile.getParentFile();
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            throw new IOException("Could not create resource cache directory " + cacheDir);
+        }
+
+        // write to a temporary file first so that concurrent runs never see a partially written cache
+        File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheDir);
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()));
+                    ObjectOutputStream objectStream = new ObjectOutputStream(outputStream)) {
+                objectStream.writeObject(resource);
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.debug(" Wrote cached resource to {}", cacheFile);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+}
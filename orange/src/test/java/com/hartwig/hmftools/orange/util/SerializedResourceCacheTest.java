@@ -0,0 +1,73 @@
+package com.hartwig.hmftools.orange.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import com.google.common.collect.Multimap;
+import com.google.common.io.Resources;
+import com.hartwig.hmftools.common.doid.DiseaseOntology;
+import com.hartwig.hmftools.common.doid.DoidEntry;
+import com.hartwig.hmftools.orange.cohort.percentile.CohortPercentilesFile;
+
+import org.junit.Test;
+
+public class SerializedResourceCacheTest {
+
+    private static final String DOID_JSON = Resources.getResource("doid/example_doid.json").getPath();
+    private static final String COHORT_PERCENTILES_TSV =
+            Resources.getResource("cohort/percentile/example_cohort_percentiles.tsv").getPath();
+
+    @Test
+    public void canRoundTripDoidEntryThroughCache() throws IOException {
+        String cacheDir = Files.createTempDirectory("orange_resource_cache").toString();
+
+        DoidEntry loaded = SerializedResourceCache.loadCached(cacheDir,
+                DOID_JSON,
+                DoidEntry.class,
+                () -> DiseaseOntology.readDoidOwlEntryFromDoidJson(DOID_JSON));
+        assertTrue(SerializedResourceCache.cacheFile(cacheDir, DOID_JSON).exists());
+
+        DoidEntry cached = SerializedResourceCache.loadCached(cacheDir, DOID_JSON, DoidEntry.class, () -> {
+            throw new IOException("Resource should have been read from cache");
+        });
+        assertEquals(loaded, cached);
+    }
+
+    @Test
+    public void canRoundTripPercentilesThroughCache() throws IOException {
+        String cacheDir = Files.createTempDirectory("orange_resource_cache").toString();
+
+        Multimap<?, ?> loaded = SerializedResourceCache.loadCached(cacheDir,
+                COHORT_PERCENTILES_TSV,
+                Multimap.class,
+                () -> CohortPercentilesFile.read(COHORT_PERCENTILES_TSV));
+
+        Multimap<?, ?> cached = SerializedResourceCache.loadCached(cacheDir, COHORT_PERCENTILES_TSV, Multimap.class, () -> {
+            throw new IOException("Resource should have been read from cache");
+        });
+        assertEquals(loaded, cached);
+    }
+
+    @Test
+    public void reloadsWhenCacheIsUnreadable() throws IOException {
+        String cacheDir = Files.createTempDirectory("orange_resource_cache").toString();
+
+        File cacheFile = SerializedResourceCache.cacheFile(cacheDir, COHORT_PERCENTILES_TSV);
+        Files.write(cacheFile.toPath(), new byte[] { 1, 2, 3 });
+
+        Multimap<?, ?> loaded = SerializedResourceCache.loadCached(cacheDir,
+                COHORT_PERCENTILES_TSV,
+                Multimap.class,
+                () -> CohortPercentilesFile.read(COHORT_PERCENTILES_TSV));
+        assertEquals(4, loaded.size());
+
+        Multimap<?, ?> cached = SerializedResourceCache.loadCached(cacheDir, COHORT_PERCENTILES_TSV, Multimap.class, () -> {
+            throw new IOException("Resource should have been read from cache");
+        });
+        assertEquals(loaded, cached);
+    }
+}
@@ -189,8 +189,16 @@ public class LoadPurpleData
 
         SomaticVariantFactory somaticVariantFactory = new SomaticVariantFactory();
 
-        somaticVariantFactory.fromVCFFile(sampleId, referenceId, rnaId, somaticVcf, referenceId != null, somaticWriter);
-        somaticWriter.close();
+        try
+        {
+            somaticVariantFactory.fromVCFFile(sampleId, referenceId, rnaId, somaticVcf, referenceId != null, somaticWriter);
+            somaticWriter.close();
+        }
+        finally
+        {
+            // no-op once closed, otherwise discards a partial load
+            somaticWriter.abort();
+        }
 
         LOGGER.info("loaded {} somatic variants, filtered({})",
                 somaticVariantFactory.getCreatedCount(), somaticVariantFactory.getFilteredCount());
@@ -228,16 +236,26 @@ public class LoadPurpleData
 
         int variantCount = 0;
 
-        try(AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(germlineVcf, new VCFCodec(), false);
-
-        BufferedWriter<VariantContext> dbWriter = dbAccess.germlineVariantWriter(sampleId, referenceId, rnaId))
+        try(AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(germlineVcf, new VCFCodec(), false))
         {
-            dbWriter.initialise();
+            BufferedWriter<VariantContext> dbWriter = dbAccess.germlineVariantWriter(sampleId, referenceId, rnaId);
+
+            try
+            {
+                dbWriter.initialise();
 
-            for(VariantContext context : reader.iterator())
+                for(VariantContext context : reader.iterator())
+                {
+                    dbWriter.accept(context);
+                    ++variantCount;
+                }
+
+                dbWriter.close();
+            }
+            finally
             {
-                dbWriter.accept(context);
-                ++variantCount;
+                // no-op once closed, otherwise discards a partial load
+                dbWriter.abort();
             }
         }
 
@@ -148,8 +148,17 @@ public class LoadPurpleSomaticVariants
             return;
 
         BufferedWriter<SomaticVariant> somaticWriter = dbAccess.somaticVariantWriter(sampleId);
-        somaticVariants.forEach(x -> somaticWriter.accept(x));
-        somaticWriter.close();
+
+        try
+        {
+            somaticVariants.forEach(x -> somaticWriter.accept(x));
+            somaticWriter.close();
+        }
+        finally
+        {
+            // no-op once closed, otherwise discards a partial load
+            somaticWriter.abort();
+        }
 
         LOGGER.info("loaded {} somatic variants, filtered({})",
                 somaticVariantFactory.getCreatedCount(), somaticVariantFactory.getFilteredCount());
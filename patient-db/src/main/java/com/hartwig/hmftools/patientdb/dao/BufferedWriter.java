@@ -15,6 +15,7 @@ public class BufferedWriter<T> implements Consumer<T>, AutoCloseable
     private final List<T> mBuffer;
     private final int mBufferSize;
     private boolean mInitialised;
+    private boolean mClosed;
 
     public BufferedWriter(final BufferedWriterConsumer<T> consumer)
     {
@@ -60,9 +61,34 @@ public class BufferedWriter<T> implements Consumer<T>, AutoCloseable
     @Override
     public void close()
     {
+        if(mClosed)
+            return;
+
+        mClosed = true;
+
         if(!mBuffer.isEmpty())
         {
             writeBuffer();
         }
+
+        if(mInitialised)
+        {
+            mConsumer.complete();
+        }
+    }
+
+    // discards the buffered entries and any load still in progress, for a caller which failed before closing the writer
+    public void abort()
+    {
+        if(mClosed)
+            return;
+
+        mClosed = true;
+        mBuffer.clear();
+
+        if(mInitialised)
+        {
+            mConsumer.abort();
+        }
     }
 }
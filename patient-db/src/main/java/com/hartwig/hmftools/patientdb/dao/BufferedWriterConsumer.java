@@ -8,4 +8,10 @@ interface BufferedWriterConsumer<T> {
     void initialise();
 
     void accept(Timestamp timestamp, List<T> entries);
+
+    default void complete() {
+    }
+
+    default void abort() {
+    }
 }
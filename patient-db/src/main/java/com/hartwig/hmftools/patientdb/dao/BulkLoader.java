@@ -0,0 +1,331 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.BooleanSupplier;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Query;
+import org.jooq.Table;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+
+// streams rows into a table through MySQL's LOAD DATA LOCAL INFILE, which runs on its own thread so that the caller can keep
+// parsing and formatting the next rows while the database ingests the previous ones
+// the load runs in its own transaction which is only committed by commit() - closing the loader without committing, or any failure
+// while writing, aborts the load and rolls back the rows written so far
+// the connection is in use by the load from the first write until the loader is committed or closed, so no other queries may be run
+// in between
+public class BulkLoader implements AutoCloseable
+{
+    private static final Logger LOGGER = LogManager.getLogger(BulkLoader.class);
+
+    private static final int PIPE_BUFFER_SIZE = 1 << 20;
+    private static final String NULL_VALUE = "\\N";
+
+    // loads the rows read from the stream until it ends, and only keeps them if the load has not been aborted by then
+    interface LoadRunner
+    {
+        void run(@NotNull InputStream rows, @NotNull BooleanSupplier isAborted) throws Exception;
+    }
+
+    private final String mTableName;
+    private final int mFieldCount;
+    private final LoadRunner mLoadRunner;
+
+    private Writer mWriter;
+    private Thread mLoaderThread;
+    private volatile boolean mAborted;
+    private volatile Throwable mLoadError;
+    private int mRowCount;
+
+    public BulkLoader(@NotNull final DSLContext context, @NotNull final Table<?> table, @NotNull final Field<?>... fields)
+    {
+        this(table.getName(), fields.length, databaseLoad(context, loadStatement(context, table, fields)));
+    }
+
+    BulkLoader(@NotNull final String tableName, int fieldCount, @NotNull final LoadRunner loadRunner)
+    {
+        mTableName = tableName;
+        mFieldCount = fieldCount;
+        mLoadRunner = loadRunner;
+
+        mWriter = null;
+        mLoaderThread = null;
+        mAborted = false;
+        mLoadError = null;
+        mRowCount = 0;
+    }
+
+    // writes the rows of an insert built over the same fields this loader was created with, instead of executing it
+    public void write(@NotNull final Query insert)
+    {
+        boolean written = false;
+
+        try
+        {
+            List<Object> values = insert.getBindValues();
+
+            if(values.size() % mFieldCount != 0)
+            {
+                throw new DataAccessException(String.format("insert into %s has %d values for %d fields",
+                        mTableName, values.size(), mFieldCount));
+            }
+
+            StringBuilder rows = new StringBuilder();
+            int rowCount = 0;
+
+            for(int offset = 0; offset < values.size(); offset += mFieldCount)
+            {
+                appendRow(rows, values, offset, mFieldCount);
+                ++rowCount;
+            }
+
+            if(mLoaderThread == null)
+                startLoad();
+
+            mWriter.write(rows.toString());
+            mRowCount += rowCount;
+            written = true;
+        }
+        catch(IOException e)
+        {
+            throw new DataAccessException("bulk load into " + mTableName + " failed", mLoadError != null ? mLoadError : e);
+        }
+        finally
+        {
+            // no partial load is kept if building the rows or passing them on failed
+            if(!written)
+                abort();
+        }
+    }
+
+    // ends the stream and waits for the load to complete, keeping the rows written
+    public void commit()
+    {
+        if(mLoaderThread == null)
+            return;
+
+        finishLoad();
+
+        if(mLoadError != null)
+            throw new DataAccessException("bulk load into " + mTableName + " failed", mLoadError);
+
+        LOGGER.debug("bulk loaded {} records into {}", mRowCount, mTableName);
+    }
+
+    // aborts the load unless it has been committed, so that a caller failing part-way never leaves the stream open
+    @Override
+    public void close()
+    {
+        abort();
+    }
+
+    private void abort()
+    {
+        if(mLoaderThread == null)
+            return;
+
+        mAborted = true;
+        finishLoad();
+
+        LOGGER.debug("bulk load into {} aborted after {} records", mTableName, mRowCount);
+    }
+
+    private void finishLoad()
+    {
+        try
+        {
+            mWriter.close();
+        }
+        catch(IOException e)
+        {
+            // the loader stopped reading, which leaves the reason in the load error
+            mLoadError = mLoadError != null ? mLoadError : e;
+        }
+
+        try
+        {
+            mLoaderThread.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            mLoadError = mLoadError != null ? mLoadError : e;
+        }
+
+        mLoaderThread = null;
+    }
+
+    private void startLoad()
+    {
+        PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+
+        try
+        {
+            mWriter = new BufferedWriter(new OutputStreamWriter(new PipedOutputStream(inputStream), StandardCharsets.UTF_8));
+        }
+        catch(IOException e)
+        {
+            throw new DataAccessException("bulk load into " + mTableName + " failed", e);
+        }
+
+        mLoaderThread = new Thread(() -> runLoad(inputStream), "bulk-load-" + mTableName);
+        mLoaderThread.setDaemon(true);
+        mLoaderThread.start();
+    }
+
+    private void runLoad(@NotNull final PipedInputStream inputStream)
+    {
+        try
+        {
+            mLoadRunner.run(inputStream, () -> mAborted);
+        }
+        catch(Throwable e)
+        {
+            mLoadError = e;
+        }
+        finally
+        {
+            // unblocks the writing side if the load stopped before the end of the stream
+            try
+            {
+                inputStream.close();
+            }
+            catch(IOException e)
+            {
+                LOGGER.warn("failed to close bulk load stream for {}: {}", mTableName, e.toString());
+            }
+        }
+    }
+
+    @NotNull
+    private static String loadStatement(@NotNull final DSLContext context, @NotNull final Table<?> table, @NotNull final Field<?>... fields)
+    {
+        StringJoiner columns = new StringJoiner(", ", "(", ")");
+        for(Field<?> field : fields)
+        {
+            columns.add(context.render(DSL.name(field.getName())));
+        }
+
+        return "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + context.render(table)
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' " + columns;
+    }
+
+    @NotNull
+    private static LoadRunner databaseLoad(@NotNull final DSLContext context, @NotNull final String loadStatement)
+    {
+        return (rows, isAborted) -> context.connection(connection -> loadInTransaction(connection, loadStatement, rows, isAborted));
+    }
+
+    private static void loadInTransaction(
+            @NotNull final Connection connection, @NotNull final String loadStatement, @NotNull final InputStream rows,
+            @NotNull final BooleanSupplier isAborted) throws Exception
+    {
+        // an enclosing transaction is left to the caller, who sees the failure of an aborted load
+        boolean ownsTransaction = connection.getAutoCommit();
+
+        if(ownsTransaction)
+            connection.setAutoCommit(false);
+
+        try
+        {
+            try(Statement statement = connection.createStatement())
+            {
+                statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(rows);
+                statement.execute(loadStatement);
+            }
+
+            if(!ownsTransaction)
+                return;
+
+            if(isAborted.getAsBoolean())
+                connection.rollback();
+            else
+                connection.commit();
+        }
+        catch(Exception e)
+        {
+            if(ownsTransaction)
+                connection.rollback();
+
+            throw e;
+        }
+        finally
+        {
+            if(ownsTransaction)
+                connection.setAutoCommit(true);
+        }
+    }
+
+    static void appendRow(@NotNull final StringBuilder sb, @NotNull final List<Object> values, int offset, int count)
+    {
+        for(int i = 0; i < count; ++i)
+        {
+            if(i > 0)
+                sb.append('\t');
+
+            appendValue(sb, values.get(offset + i));
+        }
+
+        sb.append('\n');
+    }
+
+    private static void appendValue(@NotNull final StringBuilder sb, @Nullable final Object value)
+    {
+        if(value == null)
+        {
+            sb.append(NULL_VALUE);
+            return;
+        }
+
+        if(value instanceof Boolean)
+        {
+            sb.append((Boolean) value ? '1' : '0');
+            return;
+        }
+
+        String str = value.toString();
+        for(int i = 0; i < str.length(); ++i)
+        {
+            char c = str.charAt(i);
+            switch(c)
+            {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\0':
+                    sb.append("\\0");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
@@ -76,12 +76,16 @@ public class DatabaseAccess implements AutoCloseable {
     public static final String DB_PASS = "db_pass";
     public static final String DB_URL = "db_url";
 
+    public static final String DB_BULK_LOAD = "db_bulk_load";
+
     public static final String DB_DEFAULT_ARGS = "?serverTimezone=UTC&useSSL=false";
+    public static final String DB_BULK_LOAD_ARGS = "allowLoadLocalInfile=true";
 
     @NotNull
     private final Connection connection;
     @NotNull
     private final DSLContext context;
+    private final boolean bulkLoad;
     @NotNull
     private final EcrfDAO ecrfDAO;
     @NotNull
@@ -136,6 +140,11 @@ public class DatabaseAccess implements AutoCloseable {
     private final ProtectDAO protectDAO;
 
     public DatabaseAccess(@NotNull final String userName, @NotNull final String password, @NotNull final String url) throws SQLException {
+        this(userName, password, url, false);
+    }
+
+    public DatabaseAccess(@NotNull final String userName, @NotNull final String password, @NotNull final String url,
+            boolean bulkLoad) throws SQLException {
         System.setProperty("org.jooq.no-logo", "true");
         System.setProperty("org.jooq.no-tips", "true");
 
@@ -143,6 +152,7 @@ public class DatabaseAccess implements AutoCloseable {
         String catalog = connection.getCatalog();
         LOGGER.debug("Connecting to database '{}'", catalog);
         this.context = DSL.using(connection, SQLDialect.MYSQL, settings(catalog));
+        this.bulkLoad = bulkLoad;
 
         this.ecrfDAO = new EcrfDAO(context);
         this.clinicalDAO = new ClinicalDAO(context);
@@ -152,14 +162,14 @@ public class DatabaseAccess implements AutoCloseable {
         this.metricDAO = new MetricDAO(context);
         this.flagstatDAO = new FlagstatDAO(context);
         this.snpCheckDAO = new SnpCheckDAO(context);
-        this.somaticVariantDAO = new SomaticVariantDAO(context);
-        this.germlineVariantDAO = new GermlineVariantDAO(context);
+        this.somaticVariantDAO = new SomaticVariantDAO(context, bulkLoad);
+        this.germlineVariantDAO = new GermlineVariantDAO(context, bulkLoad);
         this.amberDAO = new AmberDAO(context);
         this.purityDAO = new PurityDAO(context);
         this.copyNumberDAO = new CopyNumberDAO(context);
         this.geneCopyNumberDAO = new GeneCopyNumberDAO(context);
-        this.structuralVariantDAO = new StructuralVariantDAO(context);
-        this.structuralVariantClusterDAO = new StructuralVariantClusterDAO(context);
+        this.structuralVariantDAO = new StructuralVariantDAO(context, bulkLoad);
+        this.structuralVariantClusterDAO = new StructuralVariantClusterDAO(context, bulkLoad);
         this.structuralVariantFusionDAO = new StructuralVariantFusionDAO(context);
         this.driverCatalogDAO = new DriverCatalogDAO(context);
         this.peachDAO = new PeachDAO(context);
@@ -180,6 +190,7 @@ public class DatabaseAccess implements AutoCloseable {
         options.addOption(Option.builder(DB_USER).desc("Database username").hasArg(true).required(isRequired).build());
         options.addOption(Option.builder(DB_PASS).desc("Database password").hasArg(true).required(isRequired).build());
         options.addOption(Option.builder(DB_URL).desc("Database url").hasArg(true).required(isRequired).build());
+        options.addOption(DB_BULK_LOAD, false, "Bulk load large tables with LOAD DATA LOCAL INFILE (needs local_infile on the server)");
     }
 
     public static boolean hasDatabaseConfig(@NotNull CommandLine cmd) {
@@ -202,7 +213,12 @@ public class DatabaseAccess implements AutoCloseable {
             jdbcUrl += DB_DEFAULT_ARGS;
         }
 
-        return new DatabaseAccess(userName, password, jdbcUrl);
+        boolean bulkLoad = cmd.hasOption(DB_BULK_LOAD);
+        if (bulkLoad && !jdbcUrl.contains("allowLoadLocalInfile")) {
+            jdbcUrl += (jdbcUrl.contains("?") ? "&" : "?") + DB_BULK_LOAD_ARGS;
+        }
+
+        return new DatabaseAccess(userName, password, jdbcUrl, bulkLoad);
     }
 
     @Nullable
@@ -224,6 +240,10 @@ public class DatabaseAccess implements AutoCloseable {
         return context;
     }
 
+    public boolean bulkLoad() {
+        return bulkLoad;
+    }
+
     @Override
     public void close() {
         try {
@@ -33,6 +33,7 @@ import com.hartwig.hmftools.common.variant.impact.VariantImpact;
 import org.apache.logging.log4j.util.Strings;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertValuesStepN;
 import org.jooq.Record;
 import org.jooq.Result;
@@ -45,9 +46,61 @@ public class GermlineVariantDAO
     @NotNull
     private final DSLContext context;
 
+    private final boolean bulkLoad;
+
+    private static final Field<?>[] GERMLINE_VARIANT_FIELDS = {
+            GERMLINEVARIANT.MODIFIED,
+            GERMLINEVARIANT.SAMPLEID,
+            GERMLINEVARIANT.CHROMOSOME,
+            GERMLINEVARIANT.POSITION,
+            GERMLINEVARIANT.FILTER,
+            GERMLINEVARIANT.TYPE,
+            GERMLINEVARIANT.REF,
+            GERMLINEVARIANT.ALT,
+            GERMLINEVARIANT.QUAL,
+            GERMLINEVARIANT.TIER,
+            GERMLINEVARIANT.GERMLINEGENOTYPE,
+            GERMLINEVARIANT.GERMLINEALLELEREADCOUNT,
+            GERMLINEVARIANT.GERMLINETOTALREADCOUNT,
+            GERMLINEVARIANT.RNAALLELEREADCOUNT,
+            GERMLINEVARIANT.RNATOTALREADCOUNT,
+            GERMLINEVARIANT.TUMORALLELEREADCOUNT,
+            GERMLINEVARIANT.TUMORTOTALREADCOUNT,
+            GERMLINEVARIANT.LOCALPHASESET,
+            GERMLINEVARIANT.ADJUSTEDVAF,
+            GERMLINEVARIANT.VARIANTCOPYNUMBER,
+            GERMLINEVARIANT.COPYNUMBER,
+            GERMLINEVARIANT.BIALLELIC,
+            GERMLINEVARIANT.MINORALLELECOPYNUMBER,
+            GERMLINEVARIANT.CLINVARINFO,
+            GERMLINEVARIANT.PATHOGENICITY,
+            GERMLINEVARIANT.PATHOGENIC,
+            GERMLINEVARIANT.GENE,
+            GERMLINEVARIANT.GENESAFFECTED,
+            GERMLINEVARIANT.CANONICALEFFECT,
+            GERMLINEVARIANT.CANONICALCODINGEFFECT,
+            GERMLINEVARIANT.CANONICALHGVSCODINGIMPACT,
+            GERMLINEVARIANT.CANONICALHGVSPROTEINIMPACT,
+            GERMLINEVARIANT.SPLICEREGION,
+            GERMLINEVARIANT.OTHERTRANSCRIPTEFFECTS,
+            GERMLINEVARIANT.WORSTCODINGEFFECT,
+            GERMLINEVARIANT.MICROHOMOLOGY,
+            GERMLINEVARIANT.REPEATSEQUENCE,
+            GERMLINEVARIANT.REPEATCOUNT,
+            GERMLINEVARIANT.TRINUCLEOTIDECONTEXT,
+            GERMLINEVARIANT.HOTSPOT,
+            GERMLINEVARIANT.MAPPABILITY,
+            GERMLINEVARIANT.REPORTED };
+
     public GermlineVariantDAO(@NotNull final DSLContext context)
+    {
+        this(context, false);
+    }
+
+    public GermlineVariantDAO(@NotNull final DSLContext context, boolean bulkLoad)
     {
         this.context = context;
+        this.bulkLoad = bulkLoad;
     }
 
     @NotNull
@@ -55,16 +108,38 @@ public class GermlineVariantDAO
     {
         BufferedWriterConsumer<VariantContext> consumer = new BufferedWriterConsumer<VariantContext>()
         {
+            private BulkLoader bulkLoader = null;
+
             @Override
             public void initialise()
             {
                 deleteGermlineVariantsForSample(tumorSample);
+
+                if(bulkLoad)
+                    bulkLoader = new BulkLoader(context, GERMLINEVARIANT, GERMLINE_VARIANT_FIELDS);
             }
 
             @Override
             public void accept(final Timestamp timestamp, final List<VariantContext> entries)
             {
-                writeAll(timestamp, tumorSample, referenceSample, rnaSample, entries);
+                if(bulkLoader != null)
+                    bulkLoader.write(createInserter(timestamp, tumorSample, referenceSample, rnaSample, entries));
+                else
+                    writeAll(timestamp, tumorSample, referenceSample, rnaSample, entries);
+            }
+
+            @Override
+            public void complete()
+            {
+                if(bulkLoader != null)
+                    bulkLoader.commit();
+            }
+
+            @Override
+            public void abort()
+            {
+                if(bulkLoader != null)
+                    bulkLoader.close();
             }
         };
 
@@ -74,9 +149,16 @@ public class GermlineVariantDAO
     private void writeAll(@NotNull final Timestamp timestamp, String tumorSample, String referenceSample, String rnaSample,
             @NotNull List<VariantContext> variants)
     {
-        final InsertValuesStepN inserter = createInserter();
+        createInserter(timestamp, tumorSample, referenceSample, rnaSample, variants).execute();
+    }
+
+    @NotNull
+    private InsertValuesStepN createInserter(@NotNull final Timestamp timestamp, String tumorSample, String referenceSample,
+            String rnaSample, @NotNull List<VariantContext> variants)
+    {
+        final InsertValuesStepN inserter = context.insertInto(GERMLINEVARIANT, GERMLINE_VARIANT_FIELDS);
         variants.forEach(variant -> addRecord(timestamp, inserter, tumorSample, referenceSample, rnaSample, variant));
-        inserter.execute();
+        return inserter;
     }
 
     public void deleteGermlineVariantsForSample(@NotNull String sampleId)
@@ -89,54 +171,6 @@ public class GermlineVariantDAO
         context.delete(STRUCTURALVARIANTGERMLINE).where(STRUCTURALVARIANTGERMLINE.SAMPLEID.eq(sampleId)).execute();
     }
 
-    @NotNull
-    private InsertValuesStepN createInserter()
-    {
-        return context.insertInto(GERMLINEVARIANT,
-                GERMLINEVARIANT.MODIFIED,
-                GERMLINEVARIANT.SAMPLEID,
-                GERMLINEVARIANT.CHROMOSOME,
-                GERMLINEVARIANT.POSITION,
-                GERMLINEVARIANT.FILTER,
-                GERMLINEVARIANT.TYPE,
-                GERMLINEVARIANT.REF,
-                GERMLINEVARIANT.ALT,
-                GERMLINEVARIANT.QUAL,
-                GERMLINEVARIANT.TIER,
-                GERMLINEVARIANT.GERMLINEGENOTYPE,
-                GERMLINEVARIANT.GERMLINEALLELEREADCOUNT,
-                GERMLINEVARIANT.GERMLINETOTALREADCOUNT,
-                GERMLINEVARIANT.RNAALLELEREADCOUNT,
-                GERMLINEVARIANT.RNATOTALREADCOUNT,
-                GERMLINEVARIANT.TUMORALLELEREADCOUNT,
-                GERMLINEVARIANT.TUMORTOTALREADCOUNT,
-                GERMLINEVARIANT.LOCALPHASESET,
-                GERMLINEVARIANT.ADJUSTEDVAF,
-                GERMLINEVARIANT.VARIANTCOPYNUMBER,
-                GERMLINEVARIANT.COPYNUMBER,
-                GERMLINEVARIANT.BIALLELIC,
-                GERMLINEVARIANT.MINORALLELECOPYNUMBER,
-                GERMLINEVARIANT.CLINVARINFO,
-                GERMLINEVARIANT.PATHOGENICITY,
-                GERMLINEVARIANT.PATHOGENIC,
-                GERMLINEVARIANT.GENE,
-                GERMLINEVARIANT.GENESAFFECTED,
-                GERMLINEVARIANT.CANONICALEFFECT,
-                GERMLINEVARIANT.CANONICALCODINGEFFECT,
-                GERMLINEVARIANT.CANONICALHGVSCODINGIMPACT,
-                GERMLINEVARIANT.CANONICALHGVSPROTEINIMPACT,
-                GERMLINEVARIANT.SPLICEREGION,
-                GERMLINEVARIANT.OTHERTRANSCRIPTEFFECTS,
-                GERMLINEVARIANT.WORSTCODINGEFFECT,
-                GERMLINEVARIANT.MICROHOMOLOGY,
-                GERMLINEVARIANT.REPEATSEQUENCE,
-                GERMLINEVARIANT.REPEATCOUNT,
-                GERMLINEVARIANT.TRINUCLEOTIDECONTEXT,
-                GERMLINEVARIANT.HOTSPOT,
-                GERMLINEVARIANT.MAPPABILITY,
-                GERMLINEVARIANT.REPORTED);
-    }
-
     private static void addRecord(
             Timestamp timestamp, InsertValuesStepN inserter, String tumorSample, String referenceSample,
             String rnaSample, VariantContext variantContext)
@@ -18,19 +18,39 @@ import com.hartwig.hmftools.common.rna.RnaStatistics;
 
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
-import org.jooq.InsertValuesStep10;
+import org.jooq.Field;
 import org.jooq.InsertValuesStep15;
 import org.jooq.InsertValuesStep20;
+import org.jooq.InsertValuesStepN;
 
 public class IsofoxDAO
 {
     @NotNull
     private final DSLContext context;
 
+    private final boolean bulkLoad;
+
+    private static final Field<?>[] GENE_EXPRESSION_FIELDS = {
+            GENEEXPRESSION.MODIFIED,
+            GENEEXPRESSION.SAMPLEID,
+            GENEEXPRESSION.GENE,
+            GENEEXPRESSION.TPM,
+            GENEEXPRESSION.SPLICEDFRAGMENTS,
+            GENEEXPRESSION.UNSPLICEDFRAGMENTS,
+            GENEEXPRESSION.MEDIANTPMCANCER,
+            GENEEXPRESSION.PERCENTILECANCER,
+            GENEEXPRESSION.MEDIANTPMCOHORT,
+            GENEEXPRESSION.PERCENTILECOHORT };
+
     private static final int DB_BATCH_INSERT_SIZE = 10000;
 
     public IsofoxDAO(@NotNull final DSLContext context) {
+        this(context, false);
+    }
+
+    public IsofoxDAO(@NotNull final DSLContext context, boolean bulkLoad) {
         this.context = context;
+        this.bulkLoad = bulkLoad;
     }
 
     void deleteSampleData(@NotNull String sampleId)
@@ -89,27 +109,26 @@ public class IsofoxDAO
 
         Timestamp timestamp = new Timestamp(new Date().getTime());
 
-        for (List<GeneExpression> batch : Iterables.partition(geneExpressions, DB_BATCH_INSERT_SIZE))
+        try(BulkLoader bulkLoader = bulkLoad ? new BulkLoader(context, GENEEXPRESSION, GENE_EXPRESSION_FIELDS) : null)
         {
-            InsertValuesStep10 inserter = context.insertInto(GENEEXPRESSION,
-                    GENEEXPRESSION.MODIFIED,
-                    GENEEXPRESSION.SAMPLEID,
-                    GENEEXPRESSION.GENE,
-                    GENEEXPRESSION.TPM,
-                    GENEEXPRESSION.SPLICEDFRAGMENTS,
-                    GENEEXPRESSION.UNSPLICEDFRAGMENTS,
-                    GENEEXPRESSION.MEDIANTPMCANCER,
-                    GENEEXPRESSION.PERCENTILECANCER,
-                    GENEEXPRESSION.MEDIANTPMCOHORT,
-                    GENEEXPRESSION.PERCENTILECOHORT);
+            for (List<GeneExpression> batch : Iterables.partition(geneExpressions, DB_BATCH_INSERT_SIZE))
+            {
+                InsertValuesStepN inserter = context.insertInto(GENEEXPRESSION, GENE_EXPRESSION_FIELDS);
+                batch.forEach(entry -> addRecord(timestamp, inserter, sampleId, entry));
 
-            batch.forEach(entry -> addRecord(timestamp, inserter, sampleId, entry));
-            inserter.execute();
+                if(bulkLoader != null)
+                    bulkLoader.write(inserter);
+                else
+                    inserter.execute();
+            }
+
+            if(bulkLoader != null)
+                bulkLoader.commit();
         }
     }
 
     private static void addRecord(
-            final Timestamp timestamp, final InsertValuesStep10 inserter, final String sampleId, final GeneExpression geneExpression)
+            final Timestamp timestamp, final InsertValuesStepN inserter, final String sampleId, final GeneExpression geneExpression)
     {
         inserter.values(
                 timestamp,
@@ -32,6 +32,7 @@ import org.apache.logging.log4j.util.Strings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertValuesStepN;
 import org.jooq.Record;
 import org.jooq.Record1;
@@ -43,11 +44,58 @@ public class SomaticVariantDAO
     @NotNull
     private final DSLContext context;
 
+    private final boolean bulkLoad;
+
     private static final int DB_BATCH_INSERT_SIZE = 10000;
 
-    SomaticVariantDAO(@NotNull final DSLContext context)
+    private static final Field<?>[] SOMATIC_VARIANT_FIELDS = {
+            SOMATICVARIANT.SAMPLEID,
+            SOMATICVARIANT.CHROMOSOME,
+            SOMATICVARIANT.POSITION,
+            SOMATICVARIANT.FILTER,
+            SOMATICVARIANT.TYPE,
+            SOMATICVARIANT.REF,
+            SOMATICVARIANT.ALT,
+            SOMATICVARIANT.GENE,
+            SOMATICVARIANT.GENESAFFECTED,
+            SOMATICVARIANT.REPORTED,
+            SOMATICVARIANT.WORSTCODINGEFFECT,
+            SOMATICVARIANT.CANONICALEFFECT,
+            SOMATICVARIANT.CANONICALCODINGEFFECT,
+            SOMATICVARIANT.CANONICALHGVSCODINGIMPACT,
+            SOMATICVARIANT.CANONICALHGVSPROTEINIMPACT,
+            SOMATICVARIANT.SPLICEREGION,
+            SOMATICVARIANT.OTHERTRANSCRIPTEFFECTS,
+            SOMATICVARIANT.ALLELEREADCOUNT,
+            SOMATICVARIANT.TOTALREADCOUNT,
+            SOMATICVARIANT.COPYNUMBER,
+            SOMATICVARIANT.ADJUSTEDVAF,
+            SOMATICVARIANT.VARIANTCOPYNUMBER,
+            SOMATICVARIANT.TRINUCLEOTIDECONTEXT,
+            SOMATICVARIANT.MICROHOMOLOGY,
+            SOMATICVARIANT.REPEATSEQUENCE,
+            SOMATICVARIANT.REPEATCOUNT,
+            SOMATICVARIANT.SUBCLONALLIKELIHOOD,
+            SOMATICVARIANT.BIALLELIC,
+            SOMATICVARIANT.HOTSPOT,
+            SOMATICVARIANT.MAPPABILITY,
+            SOMATICVARIANT.GERMLINESTATUS,
+            SOMATICVARIANT.MINORALLELECOPYNUMBER,
+            SOMATICVARIANT.RECOVERED,
+            SOMATICVARIANT.KATAEGIS,
+            SOMATICVARIANT.TIER,
+            SOMATICVARIANT.REFERENCEALLELEREADCOUNT,
+            SOMATICVARIANT.REFERENCETOTALREADCOUNT,
+            SOMATICVARIANT.RNAALLELEREADCOUNT,
+            SOMATICVARIANT.RNATOTALREADCOUNT,
+            SOMATICVARIANT.QUAL,
+            SOMATICVARIANT.LOCALPHASESET,
+            SOMATICVARIANT.MODIFIED };
+
+    SomaticVariantDAO(@NotNull final DSLContext context, boolean bulkLoad)
     {
         this.context = context;
+        this.bulkLoad = bulkLoad;
     }
 
     @NotNull
@@ -55,16 +103,38 @@ public class SomaticVariantDAO
     {
         BufferedWriterConsumer<SomaticVariant> consumer = new BufferedWriterConsumer<SomaticVariant>()
         {
+            private BulkLoader bulkLoader = null;
+
             @Override
             public void initialise()
             {
                 context.delete(SOMATICVARIANT).where(SOMATICVARIANT.SAMPLEID.eq(tumorSample)).execute();
+
+                if(bulkLoad)
+                    bulkLoader = new BulkLoader(context, SOMATICVARIANT, SOMATIC_VARIANT_FIELDS);
             }
 
             @Override
             public void accept(final Timestamp timestamp, final List<SomaticVariant> entries)
             {
-                writeAll(timestamp, tumorSample, entries);
+                if(bulkLoader != null)
+                    bulkLoader.write(createInserter(timestamp, tumorSample, entries));
+                else
+                    writeAll(timestamp, tumorSample, entries);
+            }
+
+            @Override
+            public void complete()
+            {
+                if(bulkLoader != null)
+                    bulkLoader.commit();
+            }
+
+            @Override
+            public void abort()
+            {
+                if(bulkLoader != null)
+                    bulkLoader.close();
             }
         };
 
@@ -244,51 +314,16 @@ public class SomaticVariantDAO
 
     void writeAll(@NotNull final Timestamp timestamp, @NotNull String sample, @NotNull List<SomaticVariant> variants)
     {
-        final InsertValuesStepN inserter = context.insertInto(SOMATICVARIANT,
-                SOMATICVARIANT.SAMPLEID,
-                SOMATICVARIANT.CHROMOSOME,
-                SOMATICVARIANT.POSITION,
-                SOMATICVARIANT.FILTER,
-                SOMATICVARIANT.TYPE,
-                SOMATICVARIANT.REF,
-                SOMATICVARIANT.ALT,
-                SOMATICVARIANT.GENE,
-                SOMATICVARIANT.GENESAFFECTED,
-                SOMATICVARIANT.REPORTED,
-                SOMATICVARIANT.WORSTCODINGEFFECT,
-                SOMATICVARIANT.CANONICALEFFECT,
-                SOMATICVARIANT.CANONICALCODINGEFFECT,
-                SOMATICVARIANT.CANONICALHGVSCODINGIMPACT,
-                SOMATICVARIANT.CANONICALHGVSPROTEINIMPACT,
-                SOMATICVARIANT.SPLICEREGION,
-                SOMATICVARIANT.OTHERTRANSCRIPTEFFECTS,
-                SOMATICVARIANT.ALLELEREADCOUNT,
-                SOMATICVARIANT.TOTALREADCOUNT,
-                SOMATICVARIANT.COPYNUMBER,
-                SOMATICVARIANT.ADJUSTEDVAF,
-                SOMATICVARIANT.VARIANTCOPYNUMBER,
-                SOMATICVARIANT.TRINUCLEOTIDECONTEXT,
-                SOMATICVARIANT.MICROHOMOLOGY,
-                SOMATICVARIANT.REPEATSEQUENCE,
-                SOMATICVARIANT.REPEATCOUNT,
-                SOMATICVARIANT.SUBCLONALLIKELIHOOD,
-                SOMATICVARIANT.BIALLELIC,
-                SOMATICVARIANT.HOTSPOT,
-                SOMATICVARIANT.MAPPABILITY,
-                SOMATICVARIANT.GERMLINESTATUS,
-                SOMATICVARIANT.MINORALLELECOPYNUMBER,
-                SOMATICVARIANT.RECOVERED,
-                SOMATICVARIANT.KATAEGIS,
-                SOMATICVARIANT.TIER,
-                SOMATICVARIANT.REFERENCEALLELEREADCOUNT,
-                SOMATICVARIANT.REFERENCETOTALREADCOUNT,
-                SOMATICVARIANT.RNAALLELEREADCOUNT,
-                SOMATICVARIANT.RNATOTALREADCOUNT,
-                SOMATICVARIANT.QUAL,
-                SOMATICVARIANT.LOCALPHASESET,
-                SOMATICVARIANT.MODIFIED);
+        createInserter(timestamp, sample, variants).execute();
+    }
+
+    @NotNull
+    private InsertValuesStepN createInserter(@NotNull final Timestamp timestamp, @NotNull String sample,
+            @NotNull List<SomaticVariant> variants)
+    {
+        InsertValuesStepN inserter = context.insertInto(SOMATICVARIANT, SOMATIC_VARIANT_FIELDS);
         variants.forEach(variant -> addRecord(timestamp, inserter, sample, variant));
-        inserter.execute();
+        return inserter;
     }
 
     private static void addRecord(
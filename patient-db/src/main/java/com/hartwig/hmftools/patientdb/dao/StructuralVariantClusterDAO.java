@@ -22,10 +22,8 @@ import com.hartwig.hmftools.common.sv.linx.LinxSvAnnotation;
 
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
-import org.jooq.InsertValuesStep19;
-import org.jooq.InsertValuesStep20;
-import org.jooq.InsertValuesStep5;
-import org.jooq.InsertValuesStep8;
+import org.jooq.Field;
+import org.jooq.InsertValuesStepN;
 import org.jooq.Record;
 import org.jooq.Result;
 
@@ -34,8 +32,71 @@ class StructuralVariantClusterDAO
     @NotNull
     private final DSLContext context;
 
-    StructuralVariantClusterDAO(@NotNull final DSLContext context) {
+    private final boolean bulkLoad;
+
+    private static final Field<?>[] SV_CLUSTER_FIELDS = {
+            SVCLUSTER.SAMPLEID,
+            SVCLUSTER.MODIFIED,
+            SVCLUSTER.CLUSTERID,
+            SVCLUSTER.CATEGORY,
+            SVCLUSTER.SYNTHETIC,
+            SVCLUSTER.RESOLVEDTYPE,
+            SVCLUSTER.CLUSTERCOUNT,
+            SVCLUSTER.CLUSTERDESC };
+
+    private static final Field<?>[] SV_ANNOTATION_FIELDS = {
+            SVANNOTATION.SAMPLEID,
+            SVANNOTATION.MODIFIED,
+            SVANNOTATION.SVID,
+            SVANNOTATION.CLUSTERID,
+            SVANNOTATION.CLUSTERREASON,
+            SVANNOTATION.FRAGILESITESTART,
+            SVANNOTATION.FRAGILESITEEND,
+            SVANNOTATION.ISFOLDBACK,
+            SVANNOTATION.LINETYPESTART,
+            SVANNOTATION.LINETYPEEND,
+            SVANNOTATION.JUNCTIONCOPYNUMBERMIN,
+            SVANNOTATION.JUNCTIONCOPYNUMBERMAX,
+            SVANNOTATION.GENESTART,
+            SVANNOTATION.GENEEND,
+            SVANNOTATION.LOCALTOPOLOGYIDSTART,
+            SVANNOTATION.LOCALTOPOLOGYIDEND,
+            SVANNOTATION.LOCALTOPOLOGYSTART,
+            SVANNOTATION.LOCALTOPOLOGYEND,
+            SVANNOTATION.LOCALTICOUNTSTART,
+            SVANNOTATION.LOCALTICOUNTEND };
+
+    private static final Field<?>[] SV_LINK_FIELDS = {
+            SVLINK.SAMPLEID,
+            SVLINK.MODIFIED,
+            SVLINK.CLUSTERID,
+            SVLINK.CHAINID,
+            SVLINK.CHAININDEX,
+            SVLINK.CHAINLINKCOUNT,
+            SVLINK.LOWERSVID,
+            SVLINK.UPPERSVID,
+            SVLINK.LOWERBREAKENDISSTART,
+            SVLINK.UPPERBREAKENDISSTART,
+            SVLINK.CHROMOSOME,
+            SVLINK.ARM,
+            SVLINK.ASSEMBLED,
+            SVLINK.TRAVERSEDSVCOUNT,
+            SVLINK.LINKLENGTH,
+            SVLINK.JUNCTIONCOPYNUMBER,
+            SVLINK.JUNCTIONCOPYNUMBERUNCERTAINTY,
+            SVLINK.PSEUDOGENEINFO,
+            SVLINK.ECDNA };
+
+    private static final Field<?>[] SV_DRIVER_FIELDS = {
+            SVDRIVER.SAMPLEID,
+            SVDRIVER.MODIFIED,
+            SVDRIVER.CLUSTERID,
+            SVDRIVER.GENE,
+            SVDRIVER.EVENTTYPE };
+
+    StructuralVariantClusterDAO(@NotNull final DSLContext context, boolean bulkLoad) {
         this.context = context;
+        this.bulkLoad = bulkLoad;
     }
 
     public void writeClusters(final String sample, final List<LinxCluster> clusters)
@@ -44,25 +105,26 @@ class StructuralVariantClusterDAO
 
         context.delete(SVCLUSTER).where(SVCLUSTER.SAMPLEID.eq(sample)).execute();
 
-        for (List<LinxCluster> batch : Iterables.partition(clusters, DB_BATCH_INSERT_SIZE))
+        try(BulkLoader bulkLoader = bulkLoad ? new BulkLoader(context, SVCLUSTER, SV_CLUSTER_FIELDS) : null)
         {
-            InsertValuesStep8 inserter = context.insertInto(SVCLUSTER,
-                    SVCLUSTER.SAMPLEID,
-                    SVCLUSTER.MODIFIED,
-                    SVCLUSTER.CLUSTERID,
-                    SVCLUSTER.CATEGORY,
-                    SVCLUSTER.SYNTHETIC,
-                    SVCLUSTER.RESOLVEDTYPE,
-                    SVCLUSTER.CLUSTERCOUNT,
-                    SVCLUSTER.CLUSTERDESC);
-
-            batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
-            inserter.execute();
+            for (List<LinxCluster> batch : Iterables.partition(clusters, DB_BATCH_INSERT_SIZE))
+            {
+                InsertValuesStepN inserter = context.insertInto(SVCLUSTER, SV_CLUSTER_FIELDS);
+                batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
+
+                if(bulkLoader != null)
+                    bulkLoader.write(inserter);
+                else
+                    inserter.execute();
+            }
+
+            if(bulkLoader != null)
+                bulkLoader.commit();
         }
     }
 
     private static void addRecord(
-            final Timestamp timestamp, final InsertValuesStep8 inserter, final String sample, final LinxCluster cluster)
+            final Timestamp timestamp, final InsertValuesStepN inserter, final String sample, final LinxCluster cluster)
     {
         inserter.values(sample,
                 timestamp,
@@ -80,37 +142,26 @@ class StructuralVariantClusterDAO
 
         context.delete(SVANNOTATION).where(SVANNOTATION.SAMPLEID.eq(sample)).execute();
 
-        for (List<LinxSvAnnotation> batch : Iterables.partition(svData, DB_BATCH_INSERT_SIZE))
+        try(BulkLoader bulkLoader = bulkLoad ? new BulkLoader(context, SVANNOTATION, SV_ANNOTATION_FIELDS) : null)
         {
-            InsertValuesStep20 inserter = context.insertInto(SVANNOTATION,
-                    SVANNOTATION.SAMPLEID,
-                    SVANNOTATION.MODIFIED,
-                    SVANNOTATION.SVID,
-                    SVANNOTATION.CLUSTERID,
-                    SVANNOTATION.CLUSTERREASON,
-                    SVANNOTATION.FRAGILESITESTART,
-                    SVANNOTATION.FRAGILESITEEND,
-                    SVANNOTATION.ISFOLDBACK,
-                    SVANNOTATION.LINETYPESTART,
-                    SVANNOTATION.LINETYPEEND,
-                    SVANNOTATION.JUNCTIONCOPYNUMBERMIN,
-                    SVANNOTATION.JUNCTIONCOPYNUMBERMAX,
-                    SVANNOTATION.GENESTART,
-                    SVANNOTATION.GENEEND,
-                    SVANNOTATION.LOCALTOPOLOGYIDSTART,
-                    SVANNOTATION.LOCALTOPOLOGYIDEND,
-                    SVANNOTATION.LOCALTOPOLOGYSTART,
-                    SVANNOTATION.LOCALTOPOLOGYEND,
-                    SVANNOTATION.LOCALTICOUNTSTART,
-                    SVANNOTATION.LOCALTICOUNTEND);
-
-            batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
-            inserter.execute();
+            for (List<LinxSvAnnotation> batch : Iterables.partition(svData, DB_BATCH_INSERT_SIZE))
+            {
+                InsertValuesStepN inserter = context.insertInto(SVANNOTATION, SV_ANNOTATION_FIELDS);
+                batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
+
+                if(bulkLoader != null)
+                    bulkLoader.write(inserter);
+                else
+                    inserter.execute();
+            }
+
+            if(bulkLoader != null)
+                bulkLoader.commit();
         }
     }
 
     private static void addRecord(
-            final Timestamp timestamp, final InsertValuesStep20 inserter, final String sample, final LinxSvAnnotation svData)
+            final Timestamp timestamp, final InsertValuesStepN inserter, final String sample, final LinxSvAnnotation svData)
     {
         inserter.values(sample,
                 timestamp,
@@ -140,36 +191,26 @@ class StructuralVariantClusterDAO
 
         context.delete(SVLINK).where(SVLINK.SAMPLEID.eq(sample)).execute();
 
-        for (List<LinxLink> batch : Iterables.partition(links, DB_BATCH_INSERT_SIZE))
+        try(BulkLoader bulkLoader = bulkLoad ? new BulkLoader(context, SVLINK, SV_LINK_FIELDS) : null)
         {
-            InsertValuesStep19 inserter = context.insertInto(SVLINK,
-                    SVLINK.SAMPLEID,
-                    SVLINK.MODIFIED,
-                    SVLINK.CLUSTERID,
-                    SVLINK.CHAINID,
-                    SVLINK.CHAININDEX,
-                    SVLINK.CHAINLINKCOUNT,
-                    SVLINK.LOWERSVID,
-                    SVLINK.UPPERSVID,
-                    SVLINK.LOWERBREAKENDISSTART,
-                    SVLINK.UPPERBREAKENDISSTART,
-                    SVLINK.CHROMOSOME,
-                    SVLINK.ARM,
-                    SVLINK.ASSEMBLED,
-                    SVLINK.TRAVERSEDSVCOUNT,
-                    SVLINK.LINKLENGTH,
-                    SVLINK.JUNCTIONCOPYNUMBER,
-                    SVLINK.JUNCTIONCOPYNUMBERUNCERTAINTY,
-                    SVLINK.PSEUDOGENEINFO,
-                    SVLINK.ECDNA);
-
-            batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
-            inserter.execute();
+            for (List<LinxLink> batch : Iterables.partition(links, DB_BATCH_INSERT_SIZE))
+            {
+                InsertValuesStepN inserter = context.insertInto(SVLINK, SV_LINK_FIELDS);
+                batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
+
+                if(bulkLoader != null)
+                    bulkLoader.write(inserter);
+                else
+                    inserter.execute();
+            }
+
+            if(bulkLoader != null)
+                bulkLoader.commit();
         }
     }
 
     private static void addRecord(
-            final Timestamp timestamp, final InsertValuesStep19 inserter, final String sample, final LinxLink link)
+            final Timestamp timestamp, final InsertValuesStepN inserter, final String sample, final LinxLink link)
     {
         inserter.values(sample,
                 timestamp,
@@ -198,22 +239,26 @@ class StructuralVariantClusterDAO
 
         context.delete(SVDRIVER).where(SVDRIVER.SAMPLEID.eq(sample)).execute();
 
-        for (List<LinxDriver> batch : Iterables.partition(drivers, DB_BATCH_INSERT_SIZE))
+        try(BulkLoader bulkLoader = bulkLoad ? new BulkLoader(context, SVDRIVER, SV_DRIVER_FIELDS) : null)
         {
-            InsertValuesStep5 inserter = context.insertInto(SVDRIVER,
-                    SVDRIVER.SAMPLEID,
-                    SVDRIVER.MODIFIED,
-                    SVDRIVER.CLUSTERID,
-                    SVDRIVER.GENE,
-                    SVDRIVER.EVENTTYPE);
-
-            batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
-            inserter.execute();
+            for (List<LinxDriver> batch : Iterables.partition(drivers, DB_BATCH_INSERT_SIZE))
+            {
+                InsertValuesStepN inserter = context.insertInto(SVDRIVER, SV_DRIVER_FIELDS);
+                batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
+
+                if(bulkLoader != null)
+                    bulkLoader.write(inserter);
+                else
+                    inserter.execute();
+            }
+
+            if(bulkLoader != null)
+                bulkLoader.commit();
         }
     }
 
     private static void addRecord(
-            final Timestamp timestamp, final InsertValuesStep5 inserter, final String sample, final LinxDriver driver)
+            final Timestamp timestamp, final InsertValuesStepN inserter, final String sample, final LinxDriver driver)
     {
         inserter.values(sample,
                 timestamp,
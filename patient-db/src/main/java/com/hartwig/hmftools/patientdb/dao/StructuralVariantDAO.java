@@ -20,6 +20,7 @@ import com.hartwig.hmftools.common.sv.StructuralVariantType;
 
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertValuesStepN;
 import org.jooq.Record;
 import org.jooq.Record1;
@@ -32,9 +33,69 @@ class StructuralVariantDAO
     @NotNull
     private final DSLContext context;
 
-    StructuralVariantDAO(@NotNull final DSLContext context)
+    private final boolean bulkLoad;
+
+    private static final Field<?>[] STRUCTURAL_VARIANT_FIELDS = {
+            STRUCTURALVARIANT.SAMPLEID,
+            STRUCTURALVARIANT.SVID,
+            STRUCTURALVARIANT.STARTCHROMOSOME,
+            STRUCTURALVARIANT.ENDCHROMOSOME,
+            STRUCTURALVARIANT.STARTPOSITION,
+            STRUCTURALVARIANT.ENDPOSITION,
+            STRUCTURALVARIANT.STARTORIENTATION,
+            STRUCTURALVARIANT.ENDORIENTATION,
+            STRUCTURALVARIANT.STARTHOMOLOGYSEQUENCE,
+            STRUCTURALVARIANT.ENDHOMOLOGYSEQUENCE,
+            STRUCTURALVARIANT.INSERTSEQUENCE,
+            STRUCTURALVARIANT.TYPE,
+            STRUCTURALVARIANT.STARTAF,
+            STRUCTURALVARIANT.ADJUSTEDAFSTART,
+            STRUCTURALVARIANT.ADJUSTEDCOPYNUMBERSTART,
+            STRUCTURALVARIANT.ADJUSTEDCOPYNUMBERCHANGESTART,
+            STRUCTURALVARIANT.ENDAF,
+            STRUCTURALVARIANT.ADJUSTEDAFEND,
+            STRUCTURALVARIANT.ADJUSTEDCOPYNUMBEREND,
+            STRUCTURALVARIANT.ADJUSTEDCOPYNUMBERCHANGEEND,
+            STRUCTURALVARIANT.JUNCTIONCOPYNUMBER,
+            STRUCTURALVARIANT.FILTER,
+            STRUCTURALVARIANT.IMPRECISE,
+            STRUCTURALVARIANT.QUALSCORE,
+            STRUCTURALVARIANT.EVENT,
+            STRUCTURALVARIANT.STARTTUMORVARIANTFRAGMENTCOUNT,
+            STRUCTURALVARIANT.STARTTUMORREFERENCEFRAGMENTCOUNT,
+            STRUCTURALVARIANT.STARTNORMALVARIANTFRAGMENTCOUNT,
+            STRUCTURALVARIANT.STARTNORMALREFERENCEFRAGMENTCOUNT,
+            STRUCTURALVARIANT.ENDTUMORVARIANTFRAGMENTCOUNT,
+            STRUCTURALVARIANT.ENDTUMORREFERENCEFRAGMENTCOUNT,
+            STRUCTURALVARIANT.ENDNORMALVARIANTFRAGMENTCOUNT,
+            STRUCTURALVARIANT.ENDNORMALREFERENCEFRAGMENTCOUNT,
+            STRUCTURALVARIANT.STARTINTERVALOFFSETSTART,
+            STRUCTURALVARIANT.STARTINTERVALOFFSETEND,
+            STRUCTURALVARIANT.ENDINTERVALOFFSETSTART,
+            STRUCTURALVARIANT.ENDINTERVALOFFSETEND,
+            STRUCTURALVARIANT.INEXACTHOMOLOGYOFFSETSTART,
+            STRUCTURALVARIANT.INEXACTHOMOLOGYOFFSETEND,
+            STRUCTURALVARIANT.VCFID,
+            STRUCTURALVARIANT.STARTLINKEDBY,
+            STRUCTURALVARIANT.ENDLINKEDBY,
+            STRUCTURALVARIANT.RECOVERED,
+            STRUCTURALVARIANT.RECOVERYMETHOD,
+            STRUCTURALVARIANT.RECOVERYFILTER,
+            STRUCTURALVARIANT.STARTREFCONTEXT,
+            STRUCTURALVARIANT.ENDREFCONTEXT,
+            STRUCTURALVARIANT.INSERTSEQUENCEALIGNMENTS,
+            STRUCTURALVARIANT.INSERTSEQUENCEREPEATCLASS,
+            STRUCTURALVARIANT.INSERTSEQUENCEREPEATTYPE,
+            STRUCTURALVARIANT.INSERTSEQUENCEREPEATORIENTATION,
+            STRUCTURALVARIANT.INSERTSEQUENCEREPEATCOVERAGE,
+            STRUCTURALVARIANT.STARTANCHORINGSUPPORTDISTANCE,
+            STRUCTURALVARIANT.ENDANCHORINGSUPPORTDISTANCE,
+            STRUCTURALVARIANT.MODIFIED };
+
+    StructuralVariantDAO(@NotNull final DSLContext context, boolean bulkLoad)
     {
         this.context = context;
+        this.bulkLoad = bulkLoad;
     }
 
     @NotNull
@@ -154,66 +215,21 @@ class StructuralVariantDAO
 
         deleteStructuralVariantsForSample(sample);
 
-        for(List<StructuralVariantData> batch : Iterables.partition(variants, DB_BATCH_INSERT_SIZE))
+        try(BulkLoader bulkLoader = bulkLoad ? new BulkLoader(context, STRUCTURALVARIANT, STRUCTURAL_VARIANT_FIELDS) : null)
         {
-            InsertValuesStepN inserter = context.insertInto(STRUCTURALVARIANT,
-                    STRUCTURALVARIANT.SAMPLEID,
-                    STRUCTURALVARIANT.SVID,
-                    STRUCTURALVARIANT.STARTCHROMOSOME,
-                    STRUCTURALVARIANT.ENDCHROMOSOME,
-                    STRUCTURALVARIANT.STARTPOSITION,
-                    STRUCTURALVARIANT.ENDPOSITION,
-                    STRUCTURALVARIANT.STARTORIENTATION,
-                    STRUCTURALVARIANT.ENDORIENTATION,
-                    STRUCTURALVARIANT.STARTHOMOLOGYSEQUENCE,
-                    STRUCTURALVARIANT.ENDHOMOLOGYSEQUENCE,
-                    STRUCTURALVARIANT.INSERTSEQUENCE,
-                    STRUCTURALVARIANT.TYPE,
-                    STRUCTURALVARIANT.STARTAF,
-                    STRUCTURALVARIANT.ADJUSTEDAFSTART,
-                    STRUCTURALVARIANT.ADJUSTEDCOPYNUMBERSTART,
-                    STRUCTURALVARIANT.ADJUSTEDCOPYNUMBERCHANGESTART,
-                    STRUCTURALVARIANT.ENDAF,
-                    STRUCTURALVARIANT.ADJUSTEDAFEND,
-                    STRUCTURALVARIANT.ADJUSTEDCOPYNUMBEREND,
-                    STRUCTURALVARIANT.ADJUSTEDCOPYNUMBERCHANGEEND,
-                    STRUCTURALVARIANT.JUNCTIONCOPYNUMBER,
-                    STRUCTURALVARIANT.FILTER,
-                    STRUCTURALVARIANT.IMPRECISE,
-                    STRUCTURALVARIANT.QUALSCORE,
-                    STRUCTURALVARIANT.EVENT,
-                    STRUCTURALVARIANT.STARTTUMORVARIANTFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.STARTTUMORREFERENCEFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.STARTNORMALVARIANTFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.STARTNORMALREFERENCEFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.ENDTUMORVARIANTFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.ENDTUMORREFERENCEFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.ENDNORMALVARIANTFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.ENDNORMALREFERENCEFRAGMENTCOUNT,
-                    STRUCTURALVARIANT.STARTINTERVALOFFSETSTART,
-                    STRUCTURALVARIANT.STARTINTERVALOFFSETEND,
-                    STRUCTURALVARIANT.ENDINTERVALOFFSETSTART,
-                    STRUCTURALVARIANT.ENDINTERVALOFFSETEND,
-                    STRUCTURALVARIANT.INEXACTHOMOLOGYOFFSETSTART,
-                    STRUCTURALVARIANT.INEXACTHOMOLOGYOFFSETEND,
-                    STRUCTURALVARIANT.VCFID,
-                    STRUCTURALVARIANT.STARTLINKEDBY,
-                    STRUCTURALVARIANT.ENDLINKEDBY,
-                    STRUCTURALVARIANT.RECOVERED,
-                    STRUCTURALVARIANT.RECOVERYMETHOD,
-                    STRUCTURALVARIANT.RECOVERYFILTER,
-                    STRUCTURALVARIANT.STARTREFCONTEXT,
-                    STRUCTURALVARIANT.ENDREFCONTEXT,
-                    STRUCTURALVARIANT.INSERTSEQUENCEALIGNMENTS,
-                    STRUCTURALVARIANT.INSERTSEQUENCEREPEATCLASS,
-                    STRUCTURALVARIANT.INSERTSEQUENCEREPEATTYPE,
-                    STRUCTURALVARIANT.INSERTSEQUENCEREPEATORIENTATION,
-                    STRUCTURALVARIANT.INSERTSEQUENCEREPEATCOVERAGE,
-                    STRUCTURALVARIANT.STARTANCHORINGSUPPORTDISTANCE,
-                    STRUCTURALVARIANT.ENDANCHORINGSUPPORTDISTANCE,
-                    STRUCTURALVARIANT.MODIFIED);
-            batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
-            inserter.execute();
+            for(List<StructuralVariantData> batch : Iterables.partition(variants, DB_BATCH_INSERT_SIZE))
+            {
+                InsertValuesStepN inserter = context.insertInto(STRUCTURALVARIANT, STRUCTURAL_VARIANT_FIELDS);
+                batch.forEach(entry -> addRecord(timestamp, inserter, sample, entry));
+
+                if(bulkLoader != null)
+                    bulkLoader.write(inserter);
+                else
+                    inserter.execute();
+            }
+
+            if(bulkLoader != null)
+                bulkLoader.commit();
         }
     }
 
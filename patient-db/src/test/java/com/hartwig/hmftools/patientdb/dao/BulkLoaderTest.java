@@ -0,0 +1,172 @@
+package com.hartwig.hmftools.patientdb.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.jooq.InsertValuesStep2;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.junit.Test;
+
+public class BulkLoaderTest {
+
+    @Test
+    public void testRowFormatting() {
+        List<Object> values = Arrays.asList("sample", 12, null, true, 0.25, "tab\there", "line\nbreak", "back\\slash", "first", 2);
+
+        StringBuilder rows = new StringBuilder();
+        BulkLoader.appendRow(rows, values, 0, 8);
+        BulkLoader.appendRow(rows, values, 8, 2);
+
+        assertEquals("sample\t12\t\\N\t1\t0.25\ttab\\there\tline\\nbreak\tback\\\\slash\nfirst\t2\n", rows.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void testCommittedLoadKeepsRows() {
+        TestLoad load = new TestLoad(false);
+
+        try (BulkLoader loader = new BulkLoader("test", 2, load)) {
+            loader.write(insert().values("a", 1).values("b", 2));
+            loader.write(insert().values("c", 3));
+            loader.commit();
+        }
+
+        assertEquals(Arrays.asList("a\t1", "b\t2", "c\t3"), load.Rows);
+        assertTrue(load.Committed);
+        assertEquals(1, load.Runs);
+    }
+
+    @Test(timeout = 10000)
+    public void testClosedLoadIsRolledBack() {
+        TestLoad load = new TestLoad(false);
+
+        try (BulkLoader loader = new BulkLoader("test", 2, load)) {
+            loader.write(insert().values("a", 1));
+        }
+
+        assertEquals(Arrays.asList("a\t1"), load.Rows);
+        assertFalse(load.Committed);
+        assertEquals(1, load.Runs);
+    }
+
+    @Test(timeout = 10000)
+    public void testFormattingFailureAbortsLoad() {
+        TestLoad load = new TestLoad(false);
+        BulkLoader loader = new BulkLoader("test", 2, load);
+
+        loader.write(insert().values("a", 1));
+
+        // only fails once the insert has been built, so that formatting its rows fails
+        AtomicBoolean failing = new AtomicBoolean(false);
+        Object failingValue = new Object() {
+            @Override
+            public String toString() {
+                if (failing.get()) {
+                    throw new IllegalStateException("invalid value");
+                }
+                return "value";
+            }
+        };
+
+        InsertValuesStep2<Record, Object, Object> failingInsert = insert().values(DSL.val(failingValue), DSL.val(2));
+        failing.set(true);
+
+        try {
+            loader.write(failingInsert);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("invalid value", e.getMessage());
+        }
+
+        // the stream has been ended and the rows written before the failure rolled back
+        assertFalse(load.Committed);
+        assertEquals(Arrays.asList("a\t1"), load.Rows);
+
+        loader.commit();
+        loader.close();
+        assertFalse(load.Committed);
+        assertEquals(1, load.Runs);
+    }
+
+    @Test(timeout = 10000)
+    public void testLoadFailureIsReported() {
+        TestLoad load = new TestLoad(true);
+
+        try (BulkLoader loader = new BulkLoader("test", 2, load)) {
+            loader.write(insert().values("a", 1));
+            loader.commit();
+            fail();
+        } catch (DataAccessException e) {
+            assertEquals("load failed", e.getCause().getMessage());
+        }
+
+        assertFalse(load.Committed);
+    }
+
+    @Test(timeout = 10000)
+    public void testFieldCountMismatchAbortsLoad() {
+        TestLoad load = new TestLoad(false);
+        BulkLoader loader = new BulkLoader("test", 3, load);
+
+        loader.write(DSL.using(SQLDialect.MYSQL)
+                .insertInto(DSL.table(DSL.name("t")), DSL.field(DSL.name("a")), DSL.field(DSL.name("b")), DSL.field(DSL.name("c")))
+                .values("a", 1, 2));
+
+        try {
+            loader.write(insert().values("b", 2));
+            fail();
+        } catch (DataAccessException e) {
+            // expected
+        }
+
+        assertFalse(load.Committed);
+        assertEquals(Arrays.asList("a\t1\t2"), load.Rows);
+    }
+
+    private static InsertValuesStep2<Record, Object, Object> insert() {
+        return DSL.using(SQLDialect.MYSQL).insertInto(DSL.table(DSL.name("t")), DSL.field(DSL.name("a")), DSL.field(DSL.name("b")));
+    }
+
+    // stands in for the database, reading the whole stream and keeping the rows unless the load was aborted
+    private static class TestLoad implements BulkLoader.LoadRunner {
+
+        private final boolean mFail;
+
+        public final List<String> Rows = new CopyOnWriteArrayList<>();
+        public volatile boolean Committed = false;
+        public volatile int Runs = 0;
+
+        TestLoad(boolean fail) {
+            mFail = fail;
+        }
+
+        @Override
+        public void run(final InputStream rows, final BooleanSupplier isAborted) throws Exception {
+            ++Runs;
+
+            if (mFail) {
+                throw new IllegalStateException("load failed");
+            }
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(rows, StandardCharsets.UTF_8));
+            Rows.addAll(reader.lines().collect(Collectors.toList()));
+
+            Committed = !isAborted.getAsBoolean();
+        }
+    }
+}
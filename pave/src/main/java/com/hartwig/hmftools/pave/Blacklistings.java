@@ -1,19 +1,22 @@
 package com.hartwig.hmftools.pave;
 
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedReader;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.annotation.AnnotationSource.NOT_FOUND;
 
 import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 
-import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.pave.annotation.AnnotationFile;
+import com.hartwig.hmftools.pave.annotation.AnnotationSource;
+import com.hartwig.hmftools.pave.annotation.AnnotationSourceBuilder;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
-import org.apache.commons.compress.utils.Lists;
 
 import htsjdk.tribble.AbstractFeatureReader;
 import htsjdk.tribble.readers.LineIterator;
@@ -25,112 +28,120 @@ import htsjdk.variant.vcf.VCFInfoHeaderLine;
 
 public class Blacklistings
 {
-    private final List<ChrBaseRegion> mBedRegions;
-    private final List<VcfEntry> mVcfEntries;
+    private AnnotationSource mBedRegions;
+    private AnnotationSource mVcfEntries;
     private boolean mHasValidData;
 
-    private static final String BLACKLIST_BED = "blacklist_bed";
-    private static final String BLACKLIST_VCF = "blacklist_vcf";
+    public static final String BLACKLIST_BED = "blacklist_bed";
+    public static final String BLACKLIST_VCF = "blacklist_vcf";
 
     private static final String BLACKLIST_BED_FLAG = "BLACKLIST_BED";
     private static final String BLACKLIST_VCF_FLAG = "BLACKLIST_VCF";
 
     public Blacklistings(final CommandLine cmd)
     {
-        mBedRegions = Lists.newArrayList();
-        mVcfEntries = Lists.newArrayList();
+        mBedRegions = null;
+        mVcfEntries = null;
         mHasValidData = true;
 
         if(cmd.hasOption(BLACKLIST_BED))
         {
-            loadBedEntries(cmd.getOptionValue(BLACKLIST_BED));
+            mBedRegions = loadFile(cmd.getOptionValue(BLACKLIST_BED), false);
         }
 
         if(cmd.hasOption(BLACKLIST_VCF))
         {
-            loadVcfEntries(cmd.getOptionValue(BLACKLIST_VCF));
+            mVcfEntries = loadFile(cmd.getOptionValue(BLACKLIST_VCF), true);
         }
     }
 
-    public boolean hasData() { return !mBedRegions.isEmpty() || !mVcfEntries.isEmpty(); }
+    public boolean hasData()
+    {
+        return (mBedRegions != null && mBedRegions.hasEntries()) || (mVcfEntries != null && mVcfEntries.hasEntries());
+    }
+
     public boolean hasValidData() { return mHasValidData; }
 
     public void annotateVariant(final VariantData variant)
     {
-        if(mBedRegions.stream().anyMatch(x -> x.containsPosition(variant.Chromosome, variant.Position)))
+        if(mBedRegions != null && mBedRegions.findRegion(variant.Chromosome, variant.Position) != NOT_FOUND)
         {
             variant.context().getCommonInfo().putAttribute(BLACKLIST_BED_FLAG, true);
         }
 
-        if(mVcfEntries.stream().anyMatch(x -> x.matches(variant)))
+        if(mVcfEntries != null && mVcfEntries.findPoint(variant.Chromosome, variant.Position, variant.Ref, variant.Alt) != NOT_FOUND)
         {
             variant.context().getCommonInfo().putAttribute(BLACKLIST_VCF_FLAG, true);
         }
     }
 
-    private void loadBedEntries(final String filename)
+    private AnnotationSource loadFile(final String filename, boolean isVcf)
     {
         if(filename == null)
-            return;
+            return null;
 
         if(!Files.exists(Paths.get(filename)))
         {
             mHasValidData = false;
-            return;
+            return null;
         }
 
         try
         {
-            List<String> lines = Files.readAllLines(Paths.get(filename));
+            if(AnnotationFile.isAnnotationFile(filename))
+                return AnnotationFile.open(filename);
 
-            for(String line : lines)
-            {
-                final String[] values = line.split("\t", -1);
-                mBedRegions.add(new ChrBaseRegion(
-                        values[0], Integer.parseInt(values[1]) + 1, Integer.parseInt(values[2])));
-            }
+            AnnotationSource source = isVcf ? loadVcfEntries(filename) : loadBedEntries(filename);
 
-            PV_LOGGER.info("loaded {} Blacklist BED entries from file({})", mBedRegions.size(), filename);
+            PV_LOGGER.info("loaded {} Blacklist {} entries from file({})", source.entryCount(), isVcf ? "VCF" : "BED", filename);
+            return source;
         }
         catch(IOException e)
         {
-            PV_LOGGER.error("failed to load Blacklist BED file: {}", e.toString());
+            PV_LOGGER.error("failed to load Blacklist {} file: {}", isVcf ? "VCF" : "BED", e.toString());
             mHasValidData = false;
+            return null;
         }
     }
 
-    private void loadVcfEntries(final String filename)
+    public static AnnotationSource loadBedEntries(final String filename) throws IOException
     {
-        if(filename == null)
-            return;
+        // overlapping regions are merged since only their presence is recorded
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("BlacklistBed", true, 0);
 
-        if(!Files.exists(Paths.get(filename)))
+        BufferedReader fileReader = createBufferedReader(filename);
+        String line = null;
+
+        while((line = fileReader.readLine()) != null)
         {
-            mHasValidData = false;
-            return;
+            final String[] values = line.split("\t", -1);
+            builder.addRegion(values[0], Integer.parseInt(values[1]) + 1, Integer.parseInt(values[2]));
         }
 
-        try
-        {
-            final AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
-                    filename, new VCFCodec(), false);
+        fileReader.close();
 
-            for(VariantContext context : reader.iterator())
-            {
-                int position = context.getStart();
-                String ref = context.getReference().getBaseString();
-                String alt = context.getAlternateAlleles().get(0).toString();
+        return builder.build();
+    }
 
-                mVcfEntries.add(new VcfEntry(position, ref, alt));
-            }
+    public static AnnotationSource loadVcfEntries(final String filename) throws IOException
+    {
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("BlacklistVcf", false, 0);
 
-            PV_LOGGER.info("loaded {} BLacklist VCF entries from file({})", mVcfEntries.size(), filename);
-        }
-        catch(IOException e)
+        final AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
+                filename, new VCFCodec(), false);
+
+        for(VariantContext context : reader.iterator())
         {
-            PV_LOGGER.error("failed to load Blacklist BED file: {}", e.toString());
-            mHasValidData = false;
+            int position = context.getStart();
+            String ref = context.getReference().getBaseString();
+            String alt = context.getAlternateAlleles().get(0).toString();
+
+            builder.addPoint(context.getContig(), position, ref, alt);
         }
+
+        reader.close();
+
+        return builder.build();
     }
 
     public static void addHeader(final VCFHeader header)
@@ -147,28 +158,4 @@ public class Blacklistings
         options.addOption(BLACKLIST_BED, true, "Blacklist BED file");
         options.addOption(BLACKLIST_VCF, true, "Blacklist VCF file");
     }
-
-    private class VcfEntry
-    {
-        public final int Position;
-        public final String Ref;
-        public final String Alt;
-
-        public VcfEntry(final int position, final String ref, final String alt)
-        {
-            Position = position;
-            Ref = ref;
-            Alt = alt;
-        }
-
-        public boolean matches(final VariantData variant)
-        {
-            return variant.Position == Position && variant.Ref.equals(Ref) && variant.Alt.equals(Alt);
-        }
-
-        public String toString() { return String.format("%d %s>%s", Position, Ref, Alt); }
-    }
-
-
-
 }
@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.pave;
 
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.annotation.AnnotationSource.NOT_FOUND;
 
 import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
 import static htsjdk.variant.vcf.VCFHeaderLineCount.UNBOUNDED;
@@ -8,15 +9,13 @@ import static htsjdk.variant.vcf.VCFHeaderLineCount.UNBOUNDED;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
-import java.util.Map;
 
-import com.google.common.collect.Maps;
-import com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions;
+import com.hartwig.hmftools.pave.annotation.AnnotationFile;
+import com.hartwig.hmftools.pave.annotation.AnnotationSource;
+import com.hartwig.hmftools.pave.annotation.AnnotationSourceBuilder;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
-import org.apache.commons.compress.utils.Lists;
 
 import htsjdk.tribble.AbstractFeatureReader;
 import htsjdk.tribble.readers.LineIterator;
@@ -28,10 +27,10 @@ import htsjdk.variant.vcf.VCFInfoHeaderLine;
 
 public class ClinvarAnnotation
 {
-    private final Map<String,List<ClinvarEntry>> mChrEntries;
+    private AnnotationSource mEntries;
     private boolean mHasValidData;
 
-    private static final String CLINVAR_VCF = "clinvar_vcf";
+    public static final String CLINVAR_VCF = "clinvar_vcf";
 
     public static final String CLNSIG = "CLNSIG";
     public static final String CLNSIGCONF = "CLNSIGCONF";
@@ -39,41 +38,39 @@ public class ClinvarAnnotation
     public static final String CLNSIG_DESC = "Clinical significance for this single variant";
     public static final String CLNSIGCONF_DESC = "Conflicting clinical significance for this single variant";
 
+    private static final int COL_SIGNIFICANCE = 0;
+    private static final int COL_CONFLICT = 1;
+
     public ClinvarAnnotation(final CommandLine cmd)
     {
-        mChrEntries = Maps.newHashMap();
+        mEntries = null;
         mHasValidData = true;
 
         if(cmd.hasOption(CLINVAR_VCF))
         {
-            loadEntries(cmd.getOptionValue(CLINVAR_VCF));
+            loadFile(cmd.getOptionValue(CLINVAR_VCF));
         }
     }
 
-    public boolean hasData() { return !mChrEntries.isEmpty(); }
+    public boolean hasData() { return mEntries != null && mEntries.hasEntries(); }
     public boolean hasValidData() { return mHasValidData; }
 
     public void annotateVariant(final VariantData variant)
     {
-        String chromosome = RefGenomeFunctions.stripChrPrefix(variant.Chromosome);
+        if(mEntries == null)
+            return;
 
-        List<ClinvarEntry> entries = mChrEntries.get(chromosome);
+        int index = mEntries.findPoint(variant.Chromosome, variant.Position, variant.Ref, variant.Alt);
 
-        if(entries == null)
+        if(index == NOT_FOUND)
             return;
 
-        for(ClinvarEntry entry : entries)
-        {
-            if(entry.matches(variant))
-            {
-                variant.context().getCommonInfo().putAttribute(CLNSIG, entry.Significance);
+        variant.context().getCommonInfo().putAttribute(CLNSIG, mEntries.stringValue(index, COL_SIGNIFICANCE));
 
-                if(!entry.Conflict.isEmpty())
-                    variant.context().getCommonInfo().putAttribute(CLNSIGCONF, entry.Conflict);
+        String conflict = mEntries.stringValue(index, COL_CONFLICT);
 
-                return;
-            }
-        }
+        if(!conflict.isEmpty())
+            variant.context().getCommonInfo().putAttribute(CLNSIGCONF, conflict);
     }
 
     public static void addHeader(final VCFHeader header)
@@ -87,7 +84,7 @@ public class ClinvarAnnotation
         options.addOption(CLINVAR_VCF, true, "Clinvar annotation VCF");
     }
 
-    private void loadEntries(final String filename)
+    private void loadFile(final String filename)
     {
         if(filename == null)
             return;
@@ -100,39 +97,15 @@ public class ClinvarAnnotation
 
         try
         {
-            final AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
-                    filename, new VCFCodec(), false);
-
-            for(VariantContext context : reader.iterator())
+            if(AnnotationFile.isAnnotationFile(filename))
             {
-                if(context.getAlleles().size() < 2)
-                    continue;
-
-                String chromosome = RefGenomeFunctions.stripChrPrefix(context.getContig());
-
-                List<ClinvarEntry> entries = mChrEntries.get(chromosome);
-
-                if(entries == null)
-                {
-                    entries = Lists.newArrayList();
-                    mChrEntries.put(chromosome, entries);
-                }
-
-                int position = context.getStart();
-                String ref = context.getReference().getBaseString();
-                String alt = context.getAlternateAlleles().get(0).toString();
-
-                String significance = context.getAttributeAsString(CLNSIG, "");
-                String conflict = context.getAttributeAsString(CLNSIGCONF, "");
-
-                if(significance.isEmpty() && conflict.isEmpty())
-                    continue;
-
-                entries.add(new ClinvarEntry(position, ref, alt, stripBrackets(significance), stripBrackets(conflict)));
+                mEntries = AnnotationFile.open(filename);
+            }
+            else
+            {
+                mEntries = loadEntries(filename);
+                PV_LOGGER.info("loaded {} Clinvar entries from file({})", mEntries.entryCount(), filename);
             }
-
-            PV_LOGGER.info("loaded {} Clinvar entries from file({})",
-                    mChrEntries.values().stream().mapToInt(x -> x.size()).sum(), filename);
         }
         catch(IOException e)
         {
@@ -141,34 +114,41 @@ public class ClinvarAnnotation
         }
     }
 
-    private static String stripBrackets(final String clinvarStr)
+    public static AnnotationSource loadEntries(final String filename) throws IOException
     {
-        return clinvarStr.replaceAll("\\[", "").replaceAll("\\]", "").replaceAll(" ", "");
-    }
+        // significance values are few and so are held once in the source's dictionary
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("Clinvar", false, 2);
 
-    private class ClinvarEntry
-    {
-        public final int Position;
-        public final String Ref;
-        public final String Alt;
-        public final String Significance;
-        public final String Conflict;
+        final AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
+                filename, new VCFCodec(), false);
 
-        public ClinvarEntry(final int position, final String ref, final String alt, final String significance, final String conflict)
+        for(VariantContext context : reader.iterator())
         {
-            Position = position;
-            Ref = ref;
-            Alt = alt;
-            Significance = significance;
-            Conflict = conflict;
-        }
+            if(context.getAlleles().size() < 2)
+                continue;
 
-        public boolean matches(final VariantData variant)
-        {
-            return variant.Position == Position && variant.Ref.equals(Ref) && variant.Alt.equals(Alt);
+            int position = context.getStart();
+            String ref = context.getReference().getBaseString();
+            String alt = context.getAlternateAlleles().get(0).toString();
+
+            String significance = context.getAttributeAsString(CLNSIG, "");
+            String conflict = context.getAttributeAsString(CLNSIGCONF, "");
+
+            if(significance.isEmpty() && conflict.isEmpty())
+                continue;
+
+            builder.addPoint(
+                    context.getContig(), position, ref, alt,
+                    builder.dictionaryIndex(stripBrackets(significance)), builder.dictionaryIndex(stripBrackets(conflict)));
         }
 
-        public String toString() { return String.format("%d %s>%s details(%s - %s)",
-                Position, Ref, Alt, Significance, Conflict); }
+        reader.close();
+
+        return builder.build();
+    }
+
+    private static String stripBrackets(final String clinvarStr)
+    {
+        return clinvarStr.replaceAll("\\[", "").replaceAll("\\]", "").replaceAll(" ", "");
     }
 }
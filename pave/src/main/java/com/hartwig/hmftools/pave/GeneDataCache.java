@@ -65,6 +65,28 @@ public class GeneDataCache
         mGeneNameMapping = requireMapping ? new GeneNameMapping() : null;
     }
 
+    private GeneDataCache(final GeneDataCache other)
+    {
+        // shares the loaded Ensembl and driver data but has its own gene-search position state
+        mEnsemblDataCache = other.mEnsemblDataCache;
+
+        mDriverGeneFile = other.mDriverGeneFile;
+        mDriverGenes = other.mDriverGenes;
+        mDriverGeneNames = other.mDriverGeneNames;
+        mOtherReportableTranscripts = other.mOtherReportableTranscripts;
+        mGeneNameMapping = other.mGeneNameMapping;
+
+        mUseIndexing = other.mUseIndexing;
+        mCurrentChromosome = null;
+        mCurrentChromosomeGenes = null;
+        mCurrentPosStrandGeneIndex = 0;
+        mCurrentNegStrandGeneIndex = 0;
+        mCurrentGenes = Lists.newArrayList();
+    }
+
+    // for use by a single thread once the cache has been loaded, since gene searches track the last position
+    public GeneDataCache createThreadView() { return new GeneDataCache(this); }
+
     public EnsemblDataCache getEnsemblCache() { return mEnsemblDataCache; }
     public boolean isDriverPanelGene(final String geneName) { return mDriverGeneNames.contains(geneName); }
     public List<DriverGene> getDriverPanel() { return mDriverGenes; }
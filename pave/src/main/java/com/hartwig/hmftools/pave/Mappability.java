@@ -2,15 +2,17 @@ package com.hartwig.hmftools.pave;
 
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedReader;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.annotation.AnnotationSource.NOT_FOUND;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 
-import com.google.common.collect.Lists;
-import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.pave.annotation.AnnotationFile;
+import com.hartwig.hmftools.pave.annotation.AnnotationSource;
+import com.hartwig.hmftools.pave.annotation.AnnotationSourceBuilder;
+import com.hartwig.hmftools.pave.annotation.StreamingTextLoader;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -21,26 +23,21 @@ import htsjdk.variant.vcf.VCFInfoHeaderLine;
 
 public class Mappability
 {
-    private BufferedReader mFileReader;
-    private String mCurrentChromosome;
-    private int mCurrentIndex;
-    private List<MapEntry> mEntries;
-    private MapEntry mNextChromosomeEntry;
+    private AnnotationSource mEntries;
     private boolean mHasValidData;
 
-    private static final int MAX_LIST_COUNT = 1000;
     public static final String MAPPABILITY_BED = "mappability_bed";
 
     public static final String MAPPABILITY = "MAPPABILITY";
     public static final String MAPPABILITY_DESC = "GEM mappability in 150 base window";
 
+    private static final int COL_MAPPABILITY = 0;
+
+    private static final String MAPPABILITY_SOURCE = "Mappability";
+
     public Mappability(final CommandLine cmd)
     {
-        mFileReader = null;
-        mCurrentChromosome = "";
-        mCurrentIndex = 0;
-        mEntries = Lists.newArrayList();
-        mNextChromosomeEntry = null;
+        mEntries = null;
         mHasValidData = true;
 
         if(cmd.hasOption(MAPPABILITY_BED))
@@ -49,54 +46,24 @@ public class Mappability
         }
     }
 
-    public boolean hasData() { return mFileReader != null; }
+    public boolean hasData() { return mEntries != null; }
     public boolean hasValidData() { return mHasValidData; }
 
     public void annotateVariant(final VariantData variant)
     {
-        if(mFileReader == null && mEntries.isEmpty())
+        if(mEntries == null)
             return;
 
-        while(!mEntries.isEmpty() || mFileReader != null)
-        {
-            if(checkEntries(variant))
-                return;
-
-            loadEntries(variant.Chromosome);
-        }
-
-        PV_LOGGER.warn("variant({}) no mappability entry found", variant);
-    }
-
-    private boolean checkEntries(final VariantData variant)
-    {
-        if(!variant.Chromosome.equals(mCurrentChromosome))
-            return false;
-
-        if(mEntries.isEmpty() || mEntries.get(mEntries.size() - 1).Region.end() < variant.Position)
-            return false;
+        // take the previous entry if the variant falls between entries
+        int index = mEntries.findRegionOrPrevious(variant.Chromosome, variant.Position);
 
-        for(int i = mCurrentIndex; i < mEntries.size(); ++i)
+        if(index == NOT_FOUND)
         {
-            MapEntry entry = mEntries.get(i);
-
-            if(entry.Region.containsPosition(variant.Position))
-            {
-                variant.context().getCommonInfo().putAttribute(MAPPABILITY, entry.Mappability);
-                mCurrentIndex = i;
-                return true;
-            }
-
-            // take previous if the next is past this variant
-            if(variant.Position < entry.Region.start() && i > 0)
-            {
-                MapEntry prevEntry = mEntries.get(i - 1);
-                variant.context().getCommonInfo().putAttribute(MAPPABILITY, prevEntry.Mappability);
-                return true;
-            }
+            PV_LOGGER.warn("variant({}) no mappability entry found", variant);
+            return;
         }
 
-        return false;
+        variant.context().getCommonInfo().putAttribute(MAPPABILITY, (double)mEntries.floatValue(index, COL_MAPPABILITY));
     }
 
     public static void addHeader(final VCFHeader header)
@@ -122,104 +89,54 @@ public class Mappability
 
         try
         {
-            mFileReader = createBufferedReader(filename);
+            if(AnnotationFile.isAnnotationFile(filename))
+            {
+                mEntries = AnnotationFile.open(filename);
+            }
+            else
+            {
+                // the BED file is read a chromosome at a time as variants reach it
+                mEntries = StreamingTextLoader.createSource(
+                        MAPPABILITY_SOURCE, true, 1, filename, createBufferedReader(filename), Mappability::addEntry);
 
-            if(mFileReader != null)
-                PV_LOGGER.info("loaded mappability file({})", filename);
+                PV_LOGGER.info("opened mappability file({})", filename);
+            }
         }
-        catch(IOException e)
+        catch(Exception e)
         {
             PV_LOGGER.error("failed to load mappability file({}): {}", filename, e.toString());
+            mEntries = null;
             mHasValidData = false;
         }
     }
 
-    private void loadEntries(final String requestedChromosome)
+    public static AnnotationSource loadEntries(final String filename) throws IOException
     {
-        if(mFileReader == null)
-            return;
-
-        // clear all but the last if it's a match for the required chromosome
-        mEntries.clear();
-
-        if(mNextChromosomeEntry != null && mNextChromosomeEntry.Region.chromosome().equals(requestedChromosome))
-            mEntries.add(mNextChromosomeEntry);
+        BufferedReader fileReader = createBufferedReader(filename);
 
-        mNextChromosomeEntry = null;
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder(MAPPABILITY_SOURCE, true, 1);
 
-        mCurrentChromosome = requestedChromosome;
-        mCurrentIndex = 0;
+        String line = null;
 
-        try
+        while((line = fileReader.readLine()) != null)
         {
-            String line = null;
-            boolean foundRequested = !mEntries.isEmpty();
+            addEntry(builder, line.split("\t", -1));
+        }
 
-            while((line = mFileReader.readLine()) != null)
-            {
-                final String[] values = line.split("\t", -1); // eg: 1       0       10000   0.000000
-
-                if(values.length != 4)
-                {
-                    mHasValidData = false;
-                    mFileReader = null;
-
-                    PV_LOGGER.error("invalid mappability entry({})", line);
-                    System.exit(1);
-                }
-
-                String chromosome = values[0];
-
-                if(chromosome.equals(requestedChromosome))
-                {
-                    foundRequested = true;
-                }
-                else
-                {
-                    if(!foundRequested)
-                        continue; // skip past this until a match is found
-                }
-
-                MapEntry entry = new MapEntry(
-                        new ChrBaseRegion(chromosome, Integer.parseInt(values[1]) + 1, Integer.parseInt(values[2])),
-                        Double.parseDouble(values[3]));
-
-                if(chromosome.equals(requestedChromosome))
-                {
-                    mEntries.add(entry);
-
-                    if(mEntries.size() >= MAX_LIST_COUNT)
-                        return;
-                }
-                else
-                {
-                    mNextChromosomeEntry = entry;
-                    break;
-                }
-            }
+        fileReader.close();
 
-            if(line == null)
-                mFileReader = null;
-        }
-        catch(IOException e)
-        {
-            PV_LOGGER.error("failed to load mappability file: {}", e.toString());
-            mHasValidData = false;
-            return;
-        }
+        return builder.build();
     }
 
-    private class MapEntry
+    private static void addEntry(final AnnotationSourceBuilder builder, final String[] values) throws IOException
     {
-        public final ChrBaseRegion Region;
-        public final double Mappability;
-
-        public MapEntry(final ChrBaseRegion region, final double mappability)
-        {
-            Region = region;
-            Mappability = mappability;
-        }
-
-        public String toString() { return String.format("%s map(%.4f)", Region, Mappability); }
+        // eg: 1       0       10000   0.000000
+        if(values.length != 4)
+            throw new IOException(String.format("invalid mappability entry(%s)", String.join("\t", values)));
+
+        // values are held as floats, sufficient for the precision written to the VCF
+        builder.addRegion(
+                values[0], Integer.parseInt(values[1]) + 1, Integer.parseInt(values[2]),
+                Float.floatToIntBits(Float.parseFloat(values[3])));
     }
 }
@@ -7,29 +7,27 @@ import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource.loadR
 import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.closeBufferedWriter;
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedWriter;
-import static com.hartwig.hmftools.common.variant.SomaticVariantFactory.PASS_FILTER;
-import static com.hartwig.hmftools.common.variant.snpeff.SnpEffUtils.SNPEFF_CANONICAL;
-import static com.hartwig.hmftools.common.variant.snpeff.SnpEffUtils.SNPEFF_WORST;
 import static com.hartwig.hmftools.pave.PaveConfig.PON_ARTEFACTS_FILE;
 import static com.hartwig.hmftools.pave.PaveConfig.PON_FILE;
 import static com.hartwig.hmftools.pave.PaveConfig.PON_FILTERS;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
 import static com.hartwig.hmftools.pave.PaveConstants.DELIM;
-import static com.hartwig.hmftools.pave.PaveUtils.createRightAlignedVariant;
 import static com.hartwig.hmftools.pave.PonAnnotation.PON_ARTEFACT_FILTER;
-import static com.hartwig.hmftools.pave.VariantData.NO_LOCAL_PHASE_SET;
-
-import static htsjdk.tribble.AbstractFeatureReader.getFeatureReader;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.gene.GeneData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
-import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
 import com.hartwig.hmftools.common.variant.impact.VariantImpact;
 
@@ -41,16 +39,9 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.jetbrains.annotations.NotNull;
 
-import htsjdk.tribble.AbstractFeatureReader;
-import htsjdk.tribble.readers.LineIterator;
-import htsjdk.variant.variantcontext.VariantContext;
-import htsjdk.variant.vcf.VCFCodec;
-
 public class PaveApplication
 {
     private final PaveConfig mConfig;
-    private final ImpactClassifier mImpactClassifier;
-    private final VariantImpactBuilder mImpactBuilder;
     private final GeneDataCache mGeneDataCache;
     private final GnomadAnnotation mGnomadAnnotation;
 
@@ -60,6 +51,8 @@ public class PaveApplication
     private final ClinvarAnnotation mClinvar;
     private final Blacklistings mBlacklistings;
 
+    private final String mRefGenomeFile;
+
     private VcfWriter mVcfWriter;
     private BufferedWriter mCsvTranscriptWriter;
 
@@ -73,20 +66,17 @@ public class PaveApplication
 
         mGnomadAnnotation = new GnomadAnnotation(cmd);
 
-        mPon = new PonAnnotation(cmd.getOptionValue(PON_FILE), true);
+        mPon = new PonAnnotation(cmd.getOptionValue(PON_FILE));
         mPon.loadFilters(cmd.getOptionValue(PON_FILTERS));
 
-        mPonArtefacts = new PonAnnotation(cmd.getOptionValue(PON_ARTEFACTS_FILE), false);
+        mPonArtefacts = new PonAnnotation(cmd.getOptionValue(PON_ARTEFACTS_FILE));
 
         mMappability = new Mappability(cmd);
         mClinvar = new ClinvarAnnotation(cmd);
         mBlacklistings = new Blacklistings(cmd);
 
-        mImpactBuilder = new VariantImpactBuilder(mGeneDataCache);
-
-        RefGenomeInterface refGenome = loadRefGenome(cmd.getOptionValue(REF_GENOME));
-
-        mImpactClassifier = new ImpactClassifier(refGenome);
+        // the ref genome is loaded by each classifier since it is not thread-safe
+        mRefGenomeFile = cmd.getOptionValue(REF_GENOME);
 
         mVcfWriter = null;
         initialiseVcfWriter();
@@ -133,95 +123,151 @@ public class PaveApplication
             System.exit(1);
         }
 
-        processVcfFile(mConfig.SampleId);
+        if(!processVcfFile(mConfig.SampleId))
+        {
+            PV_LOGGER.error("variant processing failed, exiting");
+            System.exit(1);
+        }
 
         closeBufferedWriter(mCsvTranscriptWriter);
 
         PV_LOGGER.info("sample({}) annotation complete", mConfig.SampleId);
     }
 
-    private void processVcfFile(final String sampleId)
+    private boolean processVcfFile(final String sampleId)
     {
         PV_LOGGER.info("sample({}) reading VCF file({})", sampleId, mConfig.VcfFile);
 
-        int variantCount = 0;
+        VariantBatchReader batchReader = new VariantBatchReader(mConfig.VcfFile, mConfig.ReadPassOnly, mConfig.Threads);
 
-        try
+        if(!batchReader.hasValidData())
         {
-            final AbstractFeatureReader<VariantContext, LineIterator> reader = getFeatureReader(
-                    mConfig.VcfFile, new VCFCodec(), false);
+            mVcfWriter.close();
+            return true;
+        }
+
+        boolean processed = true;
 
-            for(VariantContext variantContext : reader.iterator())
+        if(mConfig.Threads <= 1)
+        {
+            VariantClassifierThread classifier = new VariantClassifierThread(
+                    loadRefGenome(mRefGenomeFile), mGeneDataCache, null);
+
+            VariantBatch batch = null;
+
+            while((batch = batchReader.nextBatch()) != null)
             {
-                processVariant(variantContext);
-                ++variantCount;
+                classifier.processBatch(batch);
 
-                if(variantCount > 0 && (variantCount % 10000) == 0)
+                if(batch.failure() != null)
                 {
-                    PV_LOGGER.debug("processed {} variants", variantCount);
+                    processed = false;
+                    break;
                 }
-            }
 
-            processPhasedVariants(NO_LOCAL_PHASE_SET);
+                writeBatch(batch);
+            }
         }
-        catch(IOException e)
+        else
         {
-            PV_LOGGER.error("failed to read somatic VCF file({}): {}", mConfig.VcfFile, e.toString());
+            processed = processBatchesConcurrently(
+                    batchReader, mConfig.Threads,
+                    classifyQueue -> new VariantClassifierThread(loadRefGenome(mRefGenomeFile), mGeneDataCache, classifyQueue),
+                    this::writeBatch);
         }
 
-        PV_LOGGER.info("sample({}) processed {} variants", sampleId, variantCount);
+        PV_LOGGER.info("sample({}) processed {} variants", sampleId, batchReader.variantCount());
 
         mVcfWriter.close();
+
+        return processed;
     }
 
-    private void processVariant(final VariantContext variantContext)
+    public static boolean processBatchesConcurrently(
+            final VariantBatchReader batchReader, int threads,
+            final Function<BlockingQueue<VariantBatch>,VariantClassifierThread> classifierFactory,
+            final Consumer<VariantBatch> batchWriter)
     {
-        VariantData variant = VariantData.fromContext(variantContext);
+        // the reader thread batches variants, classifier threads determine their impacts and then this thread annotates and
+        // writes them in their original order, since the annotation sources are read sequentially by chromosome and position
+        BlockingQueue<VariantBatch> classifyQueue = new LinkedBlockingQueue<>();
+        BlockingQueue<VariantBatch> writeQueue = new ArrayBlockingQueue<>(threads * 4);
 
-        if(mConfig.ReadPassOnly)
+        List<VariantClassifierThread> classifierThreads = Lists.newArrayListWithCapacity(threads);
+
+        for(int i = 0; i < threads; ++i)
         {
-            if(!variantContext.getFilters().isEmpty() && !variantContext.getFilters().contains(PASS_FILTER))
-                return;
+            VariantClassifierThread classifierThread = classifierFactory.apply(classifyQueue);
+            classifierThreads.add(classifierThread);
+            classifierThread.start();
         }
 
-        // remove once SnpEff fully gone from HMF Tools
-        if(variantContext.hasAttribute(SNPEFF_CANONICAL))
-            variantContext.getCommonInfo().removeAttribute(SNPEFF_CANONICAL);
+        Thread readerThread = new Thread(() -> batchReader.enqueueBatches(classifyQueue, writeQueue, classifierThreads.size()));
+        readerThread.start();
 
-        if(variantContext.hasAttribute(SNPEFF_WORST))
-            variantContext.getCommonInfo().removeAttribute(SNPEFF_WORST);
+        boolean processed = true;
 
         try
         {
-            variant.setRealignedVariant(createRightAlignedVariant(variant, mImpactClassifier.refGenome()));
+            while(true)
+            {
+                VariantBatch batch = writeQueue.take();
 
-            findVariantImpacts(variant, mImpactClassifier, mGeneDataCache);
+                if(batch == VariantClassifierThread.END_OF_BATCHES)
+                    break;
 
-            processPhasedVariants(variant.localPhaseSet());
+                // after a failure the remaining batches are drained without being written, so the reader is never blocked
+                if(!processed)
+                    continue;
+
+                batch.waitForCompletion();
+
+                if(batch.failure() != null)
+                {
+                    processed = false;
+                    batchReader.requestStop();
+                    continue;
+                }
+
+                try
+                {
+                    batchWriter.accept(batch);
+                }
+                catch(Exception e)
+                {
+                    PV_LOGGER.error("error writing {}: {}", batch, e.toString());
+                    e.printStackTrace();
+                    processed = false;
+                    batchReader.requestStop();
+                }
+            }
+
+            readerThread.join();
 
-            if(!variant.hasLocalPhaseSet())
-                processVariant(variant);
+            for(VariantClassifierThread classifierThread : classifierThreads)
+            {
+                classifierThread.join();
+            }
         }
-        catch(Exception e)
+        catch(InterruptedException e)
         {
-            PV_LOGGER.error("error processing var({})", variant);
-            e.printStackTrace();
+            PV_LOGGER.error("variant processing interrupted: {}", e.toString());
+            return false;
         }
+
+        return processed && batchReader.failure() == null;
     }
 
-    private void processPhasedVariants(int currentLocalPhaseSet)
+    private void writeBatch(final VariantBatch batch)
     {
-        List<VariantData> variants = mImpactClassifier.processPhasedVariants(currentLocalPhaseSet);
-
-        if(variants != null)
-            variants.forEach(x -> processVariant(x));
+        for(int i = 0; i < batch.variants().size(); ++i)
+        {
+            writeVariant(batch.variants().get(i), batch.variantImpacts().get(i));
+        }
     }
 
-    private void processVariant(final VariantData variant)
+    private void writeVariant(final VariantData variant, final VariantImpact variantImpact)
     {
-        // can be null if no impacts exist for any transcript
-        VariantImpact variantImpact = mImpactBuilder.createVariantImpact(variant);
-
         ponAnnotateAndFilter(variant);
 
         if(mConfig.WritePassOnly && !variant.filters().isEmpty())
@@ -35,6 +35,7 @@ public class PaveConfig
     public final boolean OnlyCanonical;
     public final boolean ReadPassOnly;
     public final boolean WritePassOnly;
+    public final int Threads;
 
     private static final String SAMPLE = "sample";
     private static final String VCF_FILE = "vcf_file";
@@ -50,6 +51,7 @@ public class PaveConfig
     private static final String WRITE_PASS_ONLY = "write_pass_only";
     private static final String WRITE_DIFFS = "write_diffs";
     private static final String WRITE_TRANSCRIPT_CSV = "write_transcript_csv";
+    private static final String THREADS = "threads";
 
     public static final Logger PV_LOGGER = LogManager.getLogger(PaveConfig.class);
 
@@ -67,6 +69,7 @@ public class PaveConfig
         OnlyCanonical = cmd.hasOption(ONLY_CANONCIAL);
         ReadPassOnly = cmd.hasOption(READ_PASS_ONLY);
         WritePassOnly = cmd.hasOption(WRITE_PASS_ONLY);
+        Threads = Integer.parseInt(cmd.getOptionValue(THREADS, "1"));
 
         OutputDir = parseOutputDir(cmd);
     }
@@ -100,6 +103,7 @@ public class PaveConfig
         options.addOption(ONLY_CANONCIAL, false, "Only check canonical transcripts");
         options.addOption(READ_PASS_ONLY, false, "Filter incoming variants to PASS only");
         options.addOption(WRITE_PASS_ONLY, false, "Only annotate passing variants");
+        options.addOption(THREADS, true, "Number of threads for variant classification, default 1");
 
         GnomadAnnotation.addCmdLineArgs(options);
         Mappability.addCmdLineArgs(options);
@@ -18,6 +18,9 @@ public class PaveConstants
     public static final List<String> PROMOTOR_UPSTREAM_GENE_IDS = Lists.newArrayList("ENSG00000164362");
     public static final int PROMOTOR_UPSTREAM_DISTANCE = 300;
 
+    // variants classified together by a worker thread, extended as required to complete a local phase set
+    public static final int VARIANT_BATCH_SIZE = 10000;
+
     public static final String DELIM = ",";
     public static final String ITEM_DELIM = ";";
 }
@@ -4,17 +4,20 @@ import static com.hartwig.hmftools.common.utils.FileWriterUtils.createBufferedRe
 import static com.hartwig.hmftools.common.utils.FileWriterUtils.createGzipBufferedReader;
 import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
 import static com.hartwig.hmftools.pave.PaveConstants.ITEM_DELIM;
+import static com.hartwig.hmftools.pave.annotation.AnnotationSource.NOT_FOUND;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
 import java.util.Map;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.hartwig.hmftools.common.variant.VariantTier;
+import com.hartwig.hmftools.pave.annotation.AnnotationFile;
+import com.hartwig.hmftools.pave.annotation.AnnotationSource;
+import com.hartwig.hmftools.pave.annotation.AnnotationSourceBuilder;
+import com.hartwig.hmftools.pave.annotation.StreamingTextLoader;
 
 import htsjdk.variant.vcf.VCFFilterHeaderLine;
 import htsjdk.variant.vcf.VCFHeader;
@@ -23,13 +26,8 @@ import htsjdk.variant.vcf.VCFInfoHeaderLine;
 
 public class PonAnnotation
 {
-    private final Map<String,Map<Integer,List<PonVariantData>>> mPonEntries; // mapped by chromosome then position
-    private final boolean mLoadOnDemand;
-
     private final String mPonFilename;
-    private BufferedReader mFileReader;
-    private String mCurrentChromosome;
-    private int mColumnCount;
+    private AnnotationSource mPonEntries;
     private boolean mHasValidData;
 
     private final Map<VariantTier,PonFilters> mPonFilters;
@@ -39,14 +37,17 @@ public class PonAnnotation
     public static final String PON_FILTER = "PON";
     public static final String PON_ARTEFACT_FILTER = "PONArtefact";
 
-    public PonAnnotation(final String filename, boolean loadOnDemand)
+    private static final int COL_SAMPLES = 0;
+    private static final int COL_MAX_READS = 1;
+    private static final int COL_TOTAL_READS = 2;
+    private static final int VALUE_COUNT = 3;
+
+    private static final String PON_SOURCE = "PON";
+
+    public PonAnnotation(final String filename)
     {
-        mPonEntries = Maps.newHashMap();
-        mLoadOnDemand = loadOnDemand;
         mPonFilename = filename;
-        mFileReader = null;
-        mCurrentChromosome = "";
-        mColumnCount = -1;
+        mPonEntries = null;
         mHasValidData = false;
 
         if(filename != null && !filename.isEmpty())
@@ -61,6 +62,8 @@ public class PonAnnotation
 
     public boolean isEnabled() { return mPonFilename != null; }
 
+    public AnnotationSource source() { return mPonEntries; }
+
     public boolean loadFilters(final String filtersConfig)
     {
         if(filtersConfig == null)
@@ -113,30 +116,21 @@ public class PonAnnotation
 
     public PonVariantData getPonData(final VariantData variant)
     {
-        if(mLoadOnDemand && !variant.Chromosome.equals(mCurrentChromosome))
-        {
-            mPonEntries.remove(mCurrentChromosome);
-            mCurrentChromosome = variant.Chromosome;
-            loadPonEntries();
-        }
-        Map<Integer,List<PonVariantData>> posMap = mPonEntries.get(variant.Chromosome);
-
-        if(posMap == null)
+        if(mPonEntries == null)
             return null;
 
-        List<PonVariantData> posList = posMap.get(variant.Position);
+        int index = mPonEntries.findPoint(variant.Chromosome, variant.Position, variant.Ref, variant.Alt);
 
-        if(posList == null)
+        if(index == NOT_FOUND)
             return null;
 
-        return posList.stream().filter(x -> x.matches(variant.Ref, variant.Alt)).findFirst().orElse(null);
+        return new PonVariantData(
+                variant.Ref, variant.Alt, mPonEntries.value(index, COL_SAMPLES), mPonEntries.value(index, COL_MAX_READS),
+                mPonEntries.value(index, COL_TOTAL_READS));
     }
 
     private void loadPonFile(final String filename)
     {
-        if(filename == null)
-            return;
-
         if(!Files.exists(Paths.get(filename)))
         {
             mHasValidData = false;
@@ -145,25 +139,28 @@ public class PonAnnotation
 
         try
         {
-            mFileReader = filename.endsWith(".gz") ? createGzipBufferedReader(filename) : createBufferedReader(filename);
-
-            String line = mFileReader.readLine();
-            final String[] values = line.split("\t", -1);
-            mColumnCount = values.length;
-
-            if(mColumnCount < 4)
+            if(AnnotationFile.isAnnotationFile(filename))
             {
-                PV_LOGGER.error("pon file({}) has insufficient column count({})", filename, mColumnCount);
-                mFileReader = null;
+                // chromosomes are then loaded as required
+                mPonEntries = AnnotationFile.open(filename);
             }
-
-            if(!mLoadOnDemand)
+            else
             {
-                // load the full file
-                loadPonEntries();
+                // the text file is read a chromosome at a time as variants reach it
+                BufferedReader fileReader = createPonReader(filename);
+                int columnCount = readColumnCount(filename, fileReader);
+
+                if(columnCount > 0)
+                {
+                    mPonEntries = StreamingTextLoader.createSource(
+                            PON_SOURCE, false, VALUE_COUNT, filename, fileReader,
+                            (builder, values) -> addPonEntry(builder, values, columnCount));
+
+                    PV_LOGGER.info("pon file({}) opened", filename);
+                }
             }
 
-            mHasValidData = true;
+            mHasValidData = mPonEntries != null;
         }
         catch(IOException e)
         {
@@ -172,104 +169,62 @@ public class PonAnnotation
         }
     }
 
-    private void loadPonEntries()
+    public static AnnotationSource loadPonEntries(final String filename) throws IOException
     {
-        if(mFileReader == null)
-            return;
-
-        try
-        {
-            int currentPos = 0;
+        BufferedReader fileReader = createPonReader(filename);
 
-            String requestedChromosome = mLoadOnDemand ? mCurrentChromosome : null;
+        int columnCount = readColumnCount(filename, fileReader);
 
-            Map<Integer,List<PonVariantData>> posMap = null;
-            List<PonVariantData> posList = null;
-
-            String line = null;
-            String currentChr = "";
-            boolean foundRequested = false;
+        if(columnCount < 0)
+            return null;
 
-            if(requestedChromosome != null && mPonEntries.containsKey(requestedChromosome))
-            {
-                currentChr = requestedChromosome;
-                posMap = mPonEntries.get(requestedChromosome);
-            }
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder(PON_SOURCE, false, VALUE_COUNT);
 
-            int itemCount = 0;
+        String line = null;
 
-            while((line = mFileReader.readLine()) != null)
-            {
-                final String[] values = line.split("\t", -1);
+        while((line = fileReader.readLine()) != null)
+        {
+            addPonEntry(builder, line.split("\t", -1), columnCount);
+        }
 
-                int colIndex = 0;
-                String chromosome = values[colIndex++];
+        fileReader.close();
 
-                if(requestedChromosome != null)
-                {
-                    if(chromosome.equals(requestedChromosome))
-                    {
-                        foundRequested = true;
-                    }
-                    else
-                    {
-                        if(!foundRequested)
-                            continue; // skip past this until a match is found
-
-                        // otherwise record this entry and then break
-                    }
-                }
+        return builder.build();
+    }
 
-                int position = Integer.parseInt(values[colIndex++]);
-                String ref = values[colIndex++];
-                String alt = values[colIndex++];
+    private static BufferedReader createPonReader(final String filename) throws IOException
+    {
+        return filename.endsWith(".gz") ? createGzipBufferedReader(filename) : createBufferedReader(filename);
+    }
 
-                int sampleCount = mColumnCount > colIndex ? Integer.parseInt(values[colIndex++]) : 0;
-                int maxReadsCount = mColumnCount > colIndex ? Integer.parseInt(values[colIndex++]) : 0;
-                int totalReadsCount = mColumnCount > colIndex ? Integer.parseInt(values[colIndex++]) : 0;
+    private static int readColumnCount(final String filename, final BufferedReader fileReader) throws IOException
+    {
+        String line = fileReader.readLine();
+        int columnCount = line.split("\t", -1).length;
 
-                if(!chromosome.equals(currentChr))
-                {
-                    currentChr = chromosome;
-                    currentPos = position;
-                    posMap = Maps.newHashMap();
-                    mPonEntries.put(chromosome, posMap);
+        if(columnCount < 4)
+        {
+            PV_LOGGER.error("pon file({}) has insufficient column count({})", filename, columnCount);
+            fileReader.close();
+            return -1;
+        }
 
-                    posList = Lists.newArrayList();
-                    posMap.put(position, posList);
-                }
-                else if(currentPos != position)
-                {
-                    currentPos = position;
-                    posList = Lists.newArrayList();
-                    posMap.put(position, posList);
-                }
+        return columnCount;
+    }
 
-                posList.add(new PonVariantData(ref, alt, sampleCount, maxReadsCount, totalReadsCount));
-                ++itemCount;
+    private static void addPonEntry(final AnnotationSourceBuilder builder, final String[] values, int columnCount)
+    {
+        int colIndex = 0;
+        String chromosome = values[colIndex++];
+        int position = Integer.parseInt(values[colIndex++]);
+        String ref = values[colIndex++];
+        String alt = values[colIndex++];
 
-                if(requestedChromosome != null && foundRequested && !chromosome.equals(requestedChromosome))
-                {
-                    --itemCount;
-                    break;
-                }
-            }
+        int sampleCount = columnCount > colIndex ? Integer.parseInt(values[colIndex++]) : 0;
+        int maxReadsCount = columnCount > colIndex ? Integer.parseInt(values[colIndex++]) : 0;
+        int totalReadsCount = columnCount > colIndex ? Integer.parseInt(values[colIndex++]) : 0;
 
-            if(requestedChromosome != null)
-            {
-                PV_LOGGER.debug("pon file({}) loaded {} entries for chromosome({})", mPonFilename, itemCount, requestedChromosome);
-            }
-            else
-            {
-                PV_LOGGER.info("pon file({}) loaded {} entries", mPonFilename, itemCount);
-            }
-        }
-        catch(IOException e)
-        {
-            PV_LOGGER.error("failed to load PON file: {}", e.toString());
-            mHasValidData = false;
-            return;
-        }
+        builder.addPoint(chromosome, position, ref, alt, sampleCount, maxReadsCount, totalReadsCount);
     }
 
     public static void addHeader(final VCFHeader header)
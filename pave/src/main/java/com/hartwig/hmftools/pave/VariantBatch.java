@@ -0,0 +1,64 @@
+package com.hartwig.hmftools.pave;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.variant.impact.VariantImpact;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+public class VariantBatch
+{
+    public final int BatchId;
+
+    private final List<VariantContext> mVariantContexts;
+
+    // classified variants in output order, which differs from input order when phased variants are reclassified
+    private final List<VariantData> mVariants;
+    private final List<VariantImpact> mVariantImpacts; // can be null for a variant with no transcript impacts
+
+    private final CountDownLatch mCompleteLatch;
+    private volatile Exception mFailure; // set if classification failed, before the batch is marked complete
+
+    public VariantBatch(int batchId)
+    {
+        BatchId = batchId;
+        mVariantContexts = Lists.newArrayList();
+        mVariants = Lists.newArrayList();
+        mVariantImpacts = Lists.newArrayList();
+        mCompleteLatch = new CountDownLatch(1);
+        mFailure = null;
+    }
+
+    public List<VariantContext> variantContexts() { return mVariantContexts; }
+    public int size() { return mVariantContexts.size(); }
+
+    public String lastChromosome()
+    {
+        return mVariantContexts.isEmpty() ? null : mVariantContexts.get(mVariantContexts.size() - 1).getContig();
+    }
+
+    public void addClassifiedVariant(final VariantData variant, final VariantImpact variantImpact)
+    {
+        mVariants.add(variant);
+        mVariantImpacts.add(variantImpact);
+    }
+
+    public List<VariantData> variants() { return mVariants; }
+    public List<VariantImpact> variantImpacts() { return mVariantImpacts; }
+
+    public void markComplete()
+    {
+        // the input contexts are now held by their variants
+        mVariantContexts.clear();
+        mCompleteLatch.countDown();
+    }
+
+    public void waitForCompletion() throws InterruptedException { mCompleteLatch.await(); }
+
+    public void markFailed(final Exception failure) { mFailure = failure; }
+    public Exception failure() { return mFailure; }
+
+    public String toString() { return String.format("batch(%d) variants(%d)", BatchId, mVariantContexts.size()); }
+}
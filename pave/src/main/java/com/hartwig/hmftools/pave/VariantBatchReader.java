@@ -0,0 +1,199 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.common.variant.SomaticVariantFactory.PASS_FILTER;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.PaveConstants.VARIANT_BATCH_SIZE;
+
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+
+import com.hartwig.hmftools.common.sage.SageMetaData;
+import com.hartwig.hmftools.common.variant.ParallelVcfReader;
+
+import htsjdk.tribble.TribbleException;
+import htsjdk.variant.variantcontext.VariantContext;
+
+public class VariantBatchReader
+{
+    private final String mVcfFile;
+    private final boolean mReadPassOnly;
+
+    private ParallelVcfReader mReader;
+    private Iterator<VariantContext> mIterator;
+    private VariantContext mNextContext; // first variant of the next batch
+    private int mBatchCount;
+    private int mVariantCount;
+    private boolean mHasValidData;
+
+    private volatile boolean mStopRequested;
+    private volatile Exception mFailure;
+
+    public VariantBatchReader(final String vcfFile, boolean readPassOnly, int threads)
+    {
+        mVcfFile = vcfFile;
+        mReadPassOnly = readPassOnly;
+        mNextContext = null;
+        mBatchCount = 0;
+        mVariantCount = 0;
+        mHasValidData = true;
+        mStopRequested = false;
+        mFailure = null;
+
+        try
+        {
+            mReader = new ParallelVcfReader(mVcfFile, threads);
+            mIterator = mReader.iterator();
+        }
+        catch(TribbleException e)
+        {
+            PV_LOGGER.error("failed to read VCF file({}): {}", mVcfFile, e.toString());
+            mReader = null;
+            mIterator = null;
+            mHasValidData = false;
+        }
+    }
+
+    public boolean hasValidData() { return mHasValidData; }
+    public int variantCount() { return mVariantCount; }
+
+    public void requestStop() { mStopRequested = true; }
+    public Exception failure() { return mFailure; }
+
+    public VariantBatch nextBatch()
+    {
+        if(mIterator == null)
+            return null;
+
+        VariantBatch batch = new VariantBatch(mBatchCount);
+
+        if(mNextContext != null)
+        {
+            batch.variantContexts().add(mNextContext);
+            mNextContext = null;
+        }
+
+        while(mIterator.hasNext())
+        {
+            VariantContext variantContext = mIterator.next();
+
+            if(mReadPassOnly)
+            {
+                if(!variantContext.getFilters().isEmpty() && !variantContext.getFilters().contains(PASS_FILTER))
+                    continue;
+            }
+
+            ++mVariantCount;
+
+            if(mVariantCount > 0 && (mVariantCount % 100000) == 0)
+            {
+                PV_LOGGER.debug("read {} variants", mVariantCount);
+            }
+
+            if(startsNewBatch(batch, variantContext))
+            {
+                mNextContext = variantContext;
+                break;
+            }
+
+            batch.variantContexts().add(variantContext);
+        }
+
+        if(batch.size() == 0)
+        {
+            close();
+            return null;
+        }
+
+        ++mBatchCount;
+        return batch;
+    }
+
+    private static boolean startsNewBatch(final VariantBatch batch, final VariantContext variantContext)
+    {
+        if(batch.size() == 0)
+            return false;
+
+        if(!variantContext.getContig().equals(batch.lastChromosome()))
+            return true;
+
+        // a variant without a local phase set completes any pending phased variants, so a batch can end before it
+        return batch.size() >= VARIANT_BATCH_SIZE && !variantContext.hasAttribute(SageMetaData.LOCAL_PHASE_SET);
+    }
+
+    public void enqueueBatches(
+            final BlockingQueue<VariantBatch> classifyQueue, final BlockingQueue<VariantBatch> writeQueue, int classifierCount)
+    {
+        try
+        {
+            VariantBatch batch = null;
+
+            while(!mStopRequested && (batch = nextBatch()) != null)
+            {
+                // the write queue is bounded, limiting the number of batches held in memory ahead of the writer
+                writeQueue.put(batch);
+                classifyQueue.put(batch);
+            }
+        }
+        catch(InterruptedException e)
+        {
+            PV_LOGGER.error("VCF reading interrupted: {}", e.toString());
+            mFailure = e;
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("failed to read VCF file({}): {}", mVcfFile, e.toString());
+            mFailure = e;
+        }
+        finally
+        {
+            close();
+
+            // the classifiers and writer always receive their end markers, since the writer drains its queue until it sees one
+            for(int i = 0; i < classifierCount; ++i)
+            {
+                classifyQueue.add(VariantClassifierThread.END_OF_BATCHES);
+            }
+
+            putUninterruptibly(writeQueue, VariantClassifierThread.END_OF_BATCHES);
+        }
+    }
+
+    private static void putUninterruptibly(final BlockingQueue<VariantBatch> queue, final VariantBatch batch)
+    {
+        boolean interrupted = false;
+
+        while(true)
+        {
+            try
+            {
+                queue.put(batch);
+                break;
+            }
+            catch(InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void close()
+    {
+        if(mReader == null)
+            return;
+
+        try
+        {
+            mReader.close();
+        }
+        catch(TribbleException e)
+        {
+            PV_LOGGER.error("failed to close VCF file({}): {}", mVcfFile, e.toString());
+        }
+
+        mReader = null;
+        mIterator = null;
+    }
+}
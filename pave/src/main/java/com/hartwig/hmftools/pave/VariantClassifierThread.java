@@ -0,0 +1,132 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.common.variant.snpeff.SnpEffUtils.SNPEFF_CANONICAL;
+import static com.hartwig.hmftools.common.variant.snpeff.SnpEffUtils.SNPEFF_WORST;
+import static com.hartwig.hmftools.pave.PaveApplication.findVariantImpacts;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.PaveUtils.createRightAlignedVariant;
+import static com.hartwig.hmftools.pave.VariantData.NO_LOCAL_PHASE_SET;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+public class VariantClassifierThread extends Thread
+{
+    private final ImpactClassifier mImpactClassifier;
+    private final GeneDataCache mGeneDataCache;
+    private final VariantImpactBuilder mImpactBuilder;
+
+    private final BlockingQueue<VariantBatch> mBatches;
+
+    private VariantBatch mCurrentBatch;
+
+    // marks the end of the input, with one added to the queue per thread
+    public static final VariantBatch END_OF_BATCHES = new VariantBatch(-1);
+
+    public VariantClassifierThread(
+            final RefGenomeInterface refGenome, final GeneDataCache geneDataCache, final BlockingQueue<VariantBatch> batches)
+    {
+        // each thread requires its own ref genome, phased-variant state and gene search position
+        mImpactClassifier = new ImpactClassifier(refGenome);
+        mGeneDataCache = geneDataCache.createThreadView();
+        mImpactBuilder = new VariantImpactBuilder(mGeneDataCache);
+        mBatches = batches;
+        mCurrentBatch = null;
+    }
+
+    public void run()
+    {
+        while(true)
+        {
+            try
+            {
+                VariantBatch batch = mBatches.take();
+
+                if(batch == END_OF_BATCHES)
+                    break;
+
+                processBatch(batch);
+            }
+            catch(InterruptedException e)
+            {
+                PV_LOGGER.error("variant classification interrupted: {}", e.toString());
+                break;
+            }
+        }
+    }
+
+    public void processBatch(final VariantBatch batch)
+    {
+        mCurrentBatch = batch;
+
+        try
+        {
+            // batches never split a local phase set so all phased variants are resolved by the end of the batch
+            for(VariantContext variantContext : batch.variantContexts())
+            {
+                processVariant(variantContext);
+            }
+
+            processPhasedVariants(NO_LOCAL_PHASE_SET);
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("error processing {}: {}", batch, e.toString());
+            e.printStackTrace();
+            batch.markFailed(e);
+        }
+        finally
+        {
+            // always mark the batch complete so the writer waiting on it is released
+            batch.markComplete();
+            mCurrentBatch = null;
+        }
+    }
+
+    private void processVariant(final VariantContext variantContext)
+    {
+        VariantData variant = VariantData.fromContext(variantContext);
+
+        // remove once SnpEff fully gone from HMF Tools
+        if(variantContext.hasAttribute(SNPEFF_CANONICAL))
+            variantContext.getCommonInfo().removeAttribute(SNPEFF_CANONICAL);
+
+        if(variantContext.hasAttribute(SNPEFF_WORST))
+            variantContext.getCommonInfo().removeAttribute(SNPEFF_WORST);
+
+        try
+        {
+            variant.setRealignedVariant(createRightAlignedVariant(variant, mImpactClassifier.refGenome()));
+
+            findVariantImpacts(variant, mImpactClassifier, mGeneDataCache);
+
+            processPhasedVariants(variant.localPhaseSet());
+
+            if(!variant.hasLocalPhaseSet())
+                addClassifiedVariant(variant);
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("error processing var({})", variant);
+            e.printStackTrace();
+        }
+    }
+
+    private void processPhasedVariants(int currentLocalPhaseSet)
+    {
+        List<VariantData> variants = mImpactClassifier.processPhasedVariants(currentLocalPhaseSet);
+
+        if(variants != null)
+            variants.forEach(x -> addClassifiedVariant(x));
+    }
+
+    private void addClassifiedVariant(final VariantData variant)
+    {
+        // can be null if no impacts exist for any transcript
+        mCurrentBatch.addClassifiedVariant(variant, mImpactBuilder.createVariantImpact(variant));
+    }
+}
@@ -0,0 +1,277 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/* binary format for annotation sources, allowing each chromosome to be loaded directly into its arrays:
+    header: magic, version, name, type, value count, string dictionary, then per chromosome its name, entry count, offset and length
+    chromosome block: starts, then ends for regions or allele offsets, allele byte count and allele bases for points, then values
+*/
+public class AnnotationFile implements ChromosomeLoader
+{
+    private final String mFilename;
+    private final boolean mIsRegion;
+    private final int mValueCount;
+    private final Map<String,ChromosomeIndex> mChromosomeIndex;
+
+    private static final int MAGIC = 0x50415645; // 'PAVE'
+    private static final int VERSION = 1;
+
+    public static final String ANNOTATION_FILE_EXTENSION = ".pave.bin";
+
+    private AnnotationFile(final String filename, boolean isRegion, int valueCount, final Map<String,ChromosomeIndex> chromosomeIndex)
+    {
+        mFilename = filename;
+        mIsRegion = isRegion;
+        mValueCount = valueCount;
+        mChromosomeIndex = chromosomeIndex;
+    }
+
+    public Set<String> chromosomes() { return mChromosomeIndex.keySet(); }
+
+    public int entryCount() { return mChromosomeIndex.values().stream().mapToInt(x -> x.Count).sum(); }
+
+    public static boolean isAnnotationFile(final String filename)
+    {
+        try(DataInputStream inputStream = new DataInputStream(new FileInputStream(filename)))
+        {
+            return inputStream.readInt() == MAGIC;
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    public static AnnotationSource open(final String filename) throws IOException
+    {
+        try(DataInputStream inputStream = new DataInputStream(new FileInputStream(filename)))
+        {
+            if(inputStream.readInt() != MAGIC)
+                throw new IOException("invalid annotation file: " + filename);
+
+            int version = inputStream.readInt();
+
+            if(version != VERSION)
+                throw new IOException(String.format("unsupported annotation file(%s) version(%d)", filename, version));
+
+            String name = inputStream.readUTF();
+            boolean isRegion = inputStream.readBoolean();
+            int valueCount = inputStream.readInt();
+
+            int dictionarySize = inputStream.readInt();
+            List<String> dictionary = Lists.newArrayListWithCapacity(dictionarySize);
+
+            for(int i = 0; i < dictionarySize; ++i)
+            {
+                dictionary.add(inputStream.readUTF());
+            }
+
+            int chromosomeCount = inputStream.readInt();
+            Map<String,ChromosomeIndex> chromosomeIndex = Maps.newLinkedHashMap();
+
+            for(int i = 0; i < chromosomeCount; ++i)
+            {
+                String chromosome = inputStream.readUTF();
+                int count = inputStream.readInt();
+                long offset = inputStream.readLong();
+                long length = inputStream.readLong();
+                chromosomeIndex.put(chromosome, new ChromosomeIndex(count, offset, length));
+            }
+
+            AnnotationFile file = new AnnotationFile(filename, isRegion, valueCount, chromosomeIndex);
+            AnnotationSource source = new AnnotationSource(name, isRegion, valueCount, dictionary, null, file);
+
+            PV_LOGGER.debug("opened annotation file({}): {}", filename, source);
+            return source;
+        }
+    }
+
+    public ChromosomeEntries loadChromosome(final String chromosome)
+    {
+        ChromosomeIndex index = mChromosomeIndex.get(chromosome);
+
+        if(index == null)
+            return null;
+
+        try(RandomAccessFile file = new RandomAccessFile(mFilename, "r"); FileChannel channel = file.getChannel())
+        {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, index.Offset, index.Length);
+            IntBuffer intBuffer = buffer.asIntBuffer();
+
+            int count = index.Count;
+            int[] starts = readInts(intBuffer, count);
+            int[] ends = null;
+            int[] alleleOffsets = null;
+            byte[] alleleBases = null;
+
+            if(mIsRegion)
+            {
+                ends = readInts(intBuffer, count);
+            }
+            else
+            {
+                alleleOffsets = readInts(intBuffer, count + 1);
+                alleleBases = new byte[intBuffer.get()];
+                buffer.position(intBuffer.position() * Integer.BYTES);
+                buffer.get(alleleBases);
+                intBuffer = buffer.slice().asIntBuffer();
+            }
+
+            int[] values = readInts(intBuffer, count * mValueCount);
+
+            PV_LOGGER.trace("annotation file({}) loaded chromosome({}) entries({})", mFilename, chromosome, count);
+
+            return new ChromosomeEntries(chromosome, count, starts, ends, alleleOffsets, alleleBases, values);
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to load chromosome({}) from annotation file({}): {}", chromosome, mFilename, e.toString());
+            return null;
+        }
+    }
+
+    private static int[] readInts(final IntBuffer buffer, int count)
+    {
+        int[] values = new int[count];
+        buffer.get(values);
+        return values;
+    }
+
+    public static void write(final AnnotationSource source, final String filename) throws IOException
+    {
+        // chromosome blocks are written after the header, so form them first to set their offsets
+        List<String> chromosomes = Lists.newArrayList(source.chromosomes());
+        List<Integer> entryCounts = Lists.newArrayList();
+        List<byte[]> chromosomeBlocks = Lists.newArrayList();
+
+        for(String chromosome : chromosomes)
+        {
+            ChromosomeEntries entries = source.getChromosome(chromosome);
+            entryCounts.add(entries.count());
+            chromosomeBlocks.add(formChromosomeBlock(entries));
+        }
+
+        int headerLength = formHeader(source, chromosomes, entryCounts, chromosomeBlocks, 0).length;
+        byte[] header = formHeader(source, chromosomes, entryCounts, chromosomeBlocks, headerLength);
+
+        try(DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename))))
+        {
+            outputStream.write(header);
+
+            for(byte[] block : chromosomeBlocks)
+            {
+                outputStream.write(block);
+            }
+        }
+
+        PV_LOGGER.info("wrote annotation file({}): {}", filename, source);
+    }
+
+    private static byte[] formHeader(
+            final AnnotationSource source, final List<String> chromosomes, final List<Integer> entryCounts,
+            final List<byte[]> chromosomeBlocks, long headerLength) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream outputStream = new DataOutputStream(bytes);
+
+        outputStream.writeInt(MAGIC);
+        outputStream.writeInt(VERSION);
+        outputStream.writeUTF(source.Name);
+        outputStream.writeBoolean(source.IsRegion);
+        outputStream.writeInt(source.ValueCount);
+
+        outputStream.writeInt(source.dictionary().size());
+
+        for(String value : source.dictionary())
+        {
+            outputStream.writeUTF(value);
+        }
+
+        outputStream.writeInt(chromosomes.size());
+
+        long offset = headerLength;
+
+        for(int i = 0; i < chromosomes.size(); ++i)
+        {
+            String chromosome = chromosomes.get(i);
+            long length = chromosomeBlocks.get(i).length;
+
+            outputStream.writeUTF(chromosome);
+            outputStream.writeInt(entryCounts.get(i));
+            outputStream.writeLong(offset);
+            outputStream.writeLong(length);
+            offset += length;
+        }
+
+        outputStream.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] formChromosomeBlock(final ChromosomeEntries entries)
+    {
+        int intCount = entries.count() + (entries.ends() != null ? entries.count() : 0) + entries.values().length;
+
+        if(entries.alleleOffsets() != null)
+            intCount += entries.alleleOffsets().length + 1;
+
+        int byteCount = intCount * Integer.BYTES + (entries.alleleBases() != null ? entries.alleleBases().length : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(byteCount);
+
+        writeInts(buffer, entries.starts());
+
+        if(entries.ends() != null)
+        {
+            writeInts(buffer, entries.ends());
+        }
+        else
+        {
+            writeInts(buffer, entries.alleleOffsets());
+            buffer.putInt(entries.alleleBases().length);
+            buffer.put(entries.alleleBases());
+        }
+
+        writeInts(buffer, entries.values());
+
+        return buffer.array();
+    }
+
+    private static void writeInts(final ByteBuffer buffer, final int[] values)
+    {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static class ChromosomeIndex
+    {
+        public final int Count;
+        public final long Offset;
+        public final long Length;
+
+        public ChromosomeIndex(int count, long offset, long length)
+        {
+            Count = count;
+            Offset = offset;
+            Length = length;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions.stripChrPrefix;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+
+public class AnnotationSource
+{
+    public final String Name;
+    public final boolean IsRegion;
+    public final int ValueCount;
+
+    private final List<String> mDictionary; // string values, referenced from value columns by index
+    private final Map<String,ChromosomeEntries> mChrEntries; // keyed by chromosome without any 'chr' prefix
+    private final ChromosomeLoader mLoader; // set if chromosomes are loaded on demand
+
+    // position of the last lookup, allowing a merge-join against variants in position order
+    private String mCurrentChromosome;
+    private ChromosomeEntries mCurrentEntries;
+    private int mCurrentIndex;
+
+    public static final int NOT_FOUND = -1;
+
+    public AnnotationSource(
+            final String name, boolean isRegion, int valueCount, final List<String> dictionary,
+            final Map<String,ChromosomeEntries> chrEntries, final ChromosomeLoader loader)
+    {
+        Name = name;
+        IsRegion = isRegion;
+        ValueCount = valueCount;
+        mDictionary = dictionary;
+        mChrEntries = chrEntries != null ? chrEntries : Maps.newHashMap();
+        mLoader = loader;
+
+        mCurrentChromosome = null;
+        mCurrentEntries = null;
+        mCurrentIndex = 0;
+    }
+
+    public List<String> dictionary() { return mDictionary; }
+    public Map<String,ChromosomeEntries> loadedChromosomes() { return mChrEntries; }
+
+    public Set<String> chromosomes() { return mLoader != null ? mLoader.chromosomes() : mChrEntries.keySet(); }
+
+    public boolean hasEntries() { return !chromosomes().isEmpty(); }
+
+    public ChromosomeEntries getChromosome(final String chromosome)
+    {
+        String chrKey = stripChrPrefix(chromosome);
+
+        if(chrKey.equals(mCurrentChromosome))
+            return mCurrentEntries;
+
+        if(mLoader != null)
+        {
+            // only hold one chromosome's entries at a time
+            mChrEntries.clear();
+
+            ChromosomeEntries entries = mLoader.loadChromosome(chrKey);
+
+            if(entries != null)
+                mChrEntries.put(chrKey, entries);
+        }
+
+        mCurrentChromosome = chrKey;
+        mCurrentEntries = mChrEntries.get(chrKey);
+        mCurrentIndex = 0;
+        return mCurrentEntries;
+    }
+
+    public int findPoint(final String chromosome, int position, final String ref, final String alt)
+    {
+        ChromosomeEntries entries = getChromosome(chromosome);
+
+        if(entries == null)
+            return NOT_FOUND;
+
+        mCurrentIndex = entries.firstStartAtOrAfter(position, mCurrentIndex);
+
+        for(int i = mCurrentIndex; i < entries.count() && entries.start(i) == position; ++i)
+        {
+            if(entries.allelesMatch(i, ref, alt))
+                return i;
+        }
+
+        return NOT_FOUND;
+    }
+
+    public int findRegion(final String chromosome, int position)
+    {
+        ChromosomeEntries entries = getChromosome(chromosome);
+
+        if(entries == null)
+            return NOT_FOUND;
+
+        mCurrentIndex = entries.firstEndAtOrAfter(position, mCurrentIndex);
+
+        if(mCurrentIndex < entries.count() && entries.start(mCurrentIndex) <= position)
+            return mCurrentIndex;
+
+        return NOT_FOUND;
+    }
+
+    public int findRegionOrPrevious(final String chromosome, int position)
+    {
+        // falls back to the closest preceding region if the position lies in a gap between them
+        int index = findRegion(chromosome, position);
+
+        if(index != NOT_FOUND || mCurrentEntries == null)
+            return index;
+
+        if(mCurrentIndex > 0 && mCurrentIndex < mCurrentEntries.count())
+            return mCurrentIndex - 1;
+
+        return NOT_FOUND;
+    }
+
+    // values of the entry most recently found on the current chromosome
+    public int value(int index, int column) { return mCurrentEntries.value(index, ValueCount, column); }
+    public float floatValue(int index, int column) { return Float.intBitsToFloat(value(index, column)); }
+    public String stringValue(int index, int column) { return mDictionary.get(value(index, column)); }
+
+    public int entryCount()
+    {
+        if(mLoader != null)
+            return mLoader.entryCount();
+
+        return mChrEntries.values().stream().mapToInt(x -> x.count()).sum();
+    }
+
+    public String toString()
+    {
+        return String.format("%s type(%s) values(%d) entries(%d)", Name, IsRegion ? "region" : "point", ValueCount, entryCount());
+    }
+}
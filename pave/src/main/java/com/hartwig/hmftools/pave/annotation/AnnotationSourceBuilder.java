@@ -0,0 +1,286 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import static java.lang.Math.max;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions.stripChrPrefix;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.annotation.ChromosomeEntries.ALLELE_SEPARATOR;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class AnnotationSourceBuilder
+{
+    private final String mName;
+    private final boolean mIsRegion;
+    private final int mValueCount;
+
+    private final List<String> mDictionary;
+    private final Map<String,Integer> mDictionaryIndex;
+    private final Map<String,ChromosomeBuilder> mChromosomes;
+    private ChromosomeBuilder mCurrent;
+
+    public AnnotationSourceBuilder(final String name, boolean isRegion, int valueCount)
+    {
+        mName = name;
+        mIsRegion = isRegion;
+        mValueCount = valueCount;
+        mDictionary = Lists.newArrayList();
+        mDictionaryIndex = Maps.newHashMap();
+        mChromosomes = Maps.newLinkedHashMap();
+        mCurrent = null;
+    }
+
+    public List<String> dictionary() { return mDictionary; }
+
+    public int dictionaryIndex(final String value)
+    {
+        Integer index = mDictionaryIndex.get(value);
+
+        if(index != null)
+            return index;
+
+        index = mDictionary.size();
+        mDictionary.add(value);
+        mDictionaryIndex.put(value, index);
+        return index;
+    }
+
+    public void addPoint(final String chromosome, int position, final String ref, final String alt, final int... values)
+    {
+        getChromosome(chromosome).add(position, position, ref, alt, values);
+    }
+
+    public void addRegion(final String chromosome, int start, int end, final int... values)
+    {
+        getChromosome(chromosome).add(start, end, null, null, values);
+    }
+
+    private ChromosomeBuilder getChromosome(final String chromosome)
+    {
+        String chrKey = stripChrPrefix(chromosome);
+
+        if(mCurrent != null && mCurrent.Chromosome.equals(chrKey))
+            return mCurrent;
+
+        mCurrent = mChromosomes.computeIfAbsent(chrKey, k -> new ChromosomeBuilder(k));
+        return mCurrent;
+    }
+
+    public AnnotationSource build()
+    {
+        Map<String,ChromosomeEntries> chrEntries = Maps.newHashMap();
+
+        for(ChromosomeBuilder chrBuilder : mChromosomes.values())
+        {
+            chrEntries.put(chrBuilder.Chromosome, chrBuilder.build());
+        }
+
+        mChromosomes.clear();
+        mCurrent = null;
+
+        return new AnnotationSource(mName, mIsRegion, mValueCount, mDictionary, chrEntries, null);
+    }
+
+    public ChromosomeEntries buildChromosome(final String chromosome)
+    {
+        // builds and then releases a single chromosome's entries, for sources loaded a chromosome at a time
+        String chrKey = stripChrPrefix(chromosome);
+        ChromosomeBuilder chrBuilder = mChromosomes.remove(chrKey);
+
+        if(mCurrent == chrBuilder)
+            mCurrent = null;
+
+        return chrBuilder != null ? chrBuilder.build() : null;
+    }
+
+    private class ChromosomeBuilder
+    {
+        public final String Chromosome;
+
+        private int mCount;
+        private int[] mStarts;
+        private int[] mEnds;
+        private int[] mAlleleOffsets;
+        private final ByteArrayOutputStream mAlleleBases;
+        private int[] mValues;
+        private boolean mSorted;
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        public ChromosomeBuilder(final String chromosome)
+        {
+            Chromosome = chromosome;
+            mCount = 0;
+            mStarts = new int[INITIAL_CAPACITY];
+            mEnds = mIsRegion ? new int[INITIAL_CAPACITY] : null;
+            mAlleleOffsets = !mIsRegion ? new int[INITIAL_CAPACITY + 1] : null;
+            mAlleleBases = !mIsRegion ? new ByteArrayOutputStream() : null;
+            mValues = new int[INITIAL_CAPACITY * mValueCount];
+            mSorted = true;
+        }
+
+        public void add(int start, int end, final String ref, final String alt, final int[] values)
+        {
+            if(values.length != mValueCount)
+            {
+                throw new IllegalArgumentException(String.format("source(%s) expects %d values, received %d",
+                        mName, mValueCount, values.length));
+            }
+
+            if(mCount == mStarts.length)
+                grow();
+
+            if(mCount > 0 && start < mStarts[mCount - 1])
+                mSorted = false;
+
+            mStarts[mCount] = start;
+
+            if(mIsRegion)
+            {
+                mEnds[mCount] = end;
+            }
+            else
+            {
+                byte[] alleles = (ref + (char)ALLELE_SEPARATOR + alt).getBytes(StandardCharsets.US_ASCII);
+                mAlleleBases.write(alleles, 0, alleles.length);
+                mAlleleOffsets[mCount + 1] = mAlleleBases.size();
+            }
+
+            System.arraycopy(values, 0, mValues, mCount * mValueCount, mValueCount);
+            ++mCount;
+        }
+
+        private void grow()
+        {
+            int capacity = mStarts.length * 2;
+            mStarts = Arrays.copyOf(mStarts, capacity);
+            mValues = Arrays.copyOf(mValues, capacity * mValueCount);
+
+            if(mIsRegion)
+                mEnds = Arrays.copyOf(mEnds, capacity);
+            else
+                mAlleleOffsets = Arrays.copyOf(mAlleleOffsets, capacity + 1);
+        }
+
+        public ChromosomeEntries build()
+        {
+            if(!mSorted)
+                sortEntries();
+
+            if(mIsRegion)
+                mergeOverlappingRegions();
+
+            byte[] alleleBases = mAlleleBases != null ? mAlleleBases.toByteArray() : null;
+
+            return new ChromosomeEntries(
+                    Chromosome, mCount, Arrays.copyOf(mStarts, mCount),
+                    mIsRegion ? Arrays.copyOf(mEnds, mCount) : null,
+                    !mIsRegion ? Arrays.copyOf(mAlleleOffsets, mCount + 1) : null,
+                    alleleBases, Arrays.copyOf(mValues, mCount * mValueCount));
+        }
+
+        private void sortEntries()
+        {
+            // sort on the start in the upper bits and the entry's index in the lower, keeping entries with the same start in order
+            long[] order = new long[mCount];
+
+            for(int i = 0; i < mCount; ++i)
+            {
+                order[i] = ((long)mStarts[i] << 32) | i;
+            }
+
+            Arrays.sort(order);
+
+            int[] sortedStarts = new int[mCount];
+            int[] sortedValues = new int[mCount * mValueCount];
+            int[] sortedEnds = mIsRegion ? new int[mCount] : null;
+            int[] sortedOffsets = !mIsRegion ? new int[mCount + 1] : null;
+            ByteArrayOutputStream sortedBases = !mIsRegion ? new ByteArrayOutputStream() : null;
+            byte[] alleleBases = !mIsRegion ? mAlleleBases.toByteArray() : null;
+
+            for(int i = 0; i < mCount; ++i)
+            {
+                int index = (int)order[i];
+                sortedStarts[i] = mStarts[index];
+                System.arraycopy(mValues, index * mValueCount, sortedValues, i * mValueCount, mValueCount);
+
+                if(mIsRegion)
+                {
+                    sortedEnds[i] = mEnds[index];
+                }
+                else
+                {
+                    int offset = mAlleleOffsets[index];
+                    sortedBases.write(alleleBases, offset, mAlleleOffsets[index + 1] - offset);
+                    sortedOffsets[i + 1] = sortedBases.size();
+                }
+            }
+
+            mStarts = sortedStarts;
+            mValues = sortedValues;
+
+            if(mIsRegion)
+            {
+                mEnds = sortedEnds;
+            }
+            else
+            {
+                mAlleleOffsets = sortedOffsets;
+                mAlleleBases.reset();
+                mAlleleBases.write(sortedBases.toByteArray(), 0, sortedBases.size());
+            }
+
+            mSorted = true;
+        }
+
+        private void mergeOverlappingRegions()
+        {
+            // lookups require non-overlapping regions - those without values are merged, otherwise a later region is trimmed
+            int merged = 0;
+            int trimmed = 0;
+            int index = 0;
+
+            for(int i = 0; i < mCount; ++i)
+            {
+                if(index > 0 && mStarts[i] <= mEnds[index - 1])
+                {
+                    if(mValueCount == 0)
+                    {
+                        mEnds[index - 1] = max(mEnds[index - 1], mEnds[i]);
+                        ++merged;
+                        continue;
+                    }
+
+                    if(mEnds[i] <= mEnds[index - 1])
+                    {
+                        ++trimmed;
+                        continue;
+                    }
+
+                    mStarts[i] = mEnds[index - 1] + 1;
+                    ++trimmed;
+                }
+
+                mStarts[index] = mStarts[i];
+                mEnds[index] = mEnds[i];
+                System.arraycopy(mValues, i * mValueCount, mValues, index * mValueCount, mValueCount);
+                ++index;
+            }
+
+            if(merged > 0 || trimmed > 0)
+            {
+                PV_LOGGER.debug("source({}) chromosome({}) merged({}) trimmed({}) overlapping regions",
+                        mName, Chromosome, merged, trimmed);
+            }
+
+            mCount = index;
+        }
+    }
+}
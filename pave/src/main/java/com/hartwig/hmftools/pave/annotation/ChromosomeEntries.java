@@ -0,0 +1,109 @@
+package com.hartwig.hmftools.pave.annotation;
+
+public class ChromosomeEntries
+{
+    public final String Chromosome;
+
+    private final int mCount;
+    private final int[] mStarts;
+    private final int[] mEnds; // only set for regions, which are non-overlapping so also sorted by end
+    private final int[] mAlleleOffsets; // only set for points, with count + 1 entries into the allele bases
+    private final byte[] mAlleleBases; // ref and alt bases of each point, separated by ALLELE_SEPARATOR
+    private final int[] mValues; // value-count values per entry
+
+    public static final byte ALLELE_SEPARATOR = '>';
+
+    public ChromosomeEntries(
+            final String chromosome, int count, final int[] starts, final int[] ends, final int[] alleleOffsets,
+            final byte[] alleleBases, final int[] values)
+    {
+        Chromosome = chromosome;
+        mCount = count;
+        mStarts = starts;
+        mEnds = ends;
+        mAlleleOffsets = alleleOffsets;
+        mAlleleBases = alleleBases;
+        mValues = values;
+    }
+
+    public int count() { return mCount; }
+    public int start(int index) { return mStarts[index]; }
+    public int end(int index) { return mEnds != null ? mEnds[index] : mStarts[index]; }
+    public int value(int index, int valueCount, int column) { return mValues[index * valueCount + column]; }
+
+    public int[] starts() { return mStarts; }
+    public int[] ends() { return mEnds; }
+    public int[] alleleOffsets() { return mAlleleOffsets; }
+    public byte[] alleleBases() { return mAlleleBases; }
+    public int[] values() { return mValues; }
+
+    public boolean allelesMatch(int index, final String ref, final String alt)
+    {
+        int offset = mAlleleOffsets[index];
+        int length = mAlleleOffsets[index + 1] - offset;
+
+        if(length != ref.length() + alt.length() + 1)
+            return false;
+
+        for(int i = 0; i < ref.length(); ++i)
+        {
+            if(mAlleleBases[offset + i] != ref.charAt(i))
+                return false;
+        }
+
+        offset += ref.length();
+
+        if(mAlleleBases[offset++] != ALLELE_SEPARATOR)
+            return false;
+
+        for(int i = 0; i < alt.length(); ++i)
+        {
+            if(mAlleleBases[offset + i] != alt.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    public String alleles(int index)
+    {
+        int offset = mAlleleOffsets[index];
+        return new String(mAlleleBases, offset, mAlleleOffsets[index + 1] - offset);
+    }
+
+    public int firstStartAtOrAfter(int position, int fromIndex) { return lowerBound(mStarts, position, fromIndex); }
+
+    public int firstEndAtOrAfter(int position, int fromIndex) { return lowerBound(mEnds != null ? mEnds : mStarts, position, fromIndex); }
+
+    private int lowerBound(final int[] positions, int position, int fromIndex)
+    {
+        // gallops forward from the last index found since lookups are mostly in ascending position order
+        if(fromIndex < 0 || fromIndex > mCount || (fromIndex > 0 && positions[fromIndex - 1] >= position))
+            fromIndex = 0;
+
+        int low = fromIndex;
+        int step = 1;
+        int high = fromIndex;
+
+        while(high < mCount && positions[high] < position)
+        {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+
+        high = Math.min(high, mCount);
+
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+
+            if(positions[mid] < position)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        return low;
+    }
+}
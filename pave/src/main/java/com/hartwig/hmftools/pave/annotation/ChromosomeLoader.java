@@ -0,0 +1,13 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import java.util.Set;
+
+// provides an annotation source's entries a chromosome at a time, so only the chromosome being looked up is held in memory
+public interface ChromosomeLoader
+{
+    ChromosomeEntries loadChromosome(final String chromosome);
+
+    Set<String> chromosomes();
+
+    int entryCount();
+}
@@ -0,0 +1,142 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import static com.hartwig.hmftools.common.genome.chromosome.HumanChromosome.chromosomeRank;
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions.stripChrPrefix;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+// reads a text source sorted by chromosome forward from its current position as each chromosome is looked up, holding only the
+// requested chromosome's entries - any chromosome requested after the file has passed it has no entries, while the non-human contigs
+// at the end of the file are held once the first of them is requested
+public class StreamingTextLoader implements ChromosomeLoader
+{
+    public interface EntryParser
+    {
+        // adds the entry from a line's tab-delimited values
+        void addEntry(final AnnotationSourceBuilder builder, final String[] values) throws IOException;
+    }
+
+    private final String mFilename;
+    private final AnnotationSourceBuilder mBuilder;
+    private final EntryParser mParser;
+
+    private BufferedReader mFileReader;
+    private String[] mNextValues; // the first line of the chromosome after the last one loaded
+    private final Set<String> mLoadedChromosomes;
+    private int mEntryCount;
+
+    private static final String DELIM = "\t";
+
+    private StreamingTextLoader(
+            final String filename, final BufferedReader fileReader, final AnnotationSourceBuilder builder, final EntryParser parser)
+    {
+        mFilename = filename;
+        mBuilder = builder;
+        mParser = parser;
+        mFileReader = fileReader;
+        mNextValues = null;
+        mLoadedChromosomes = Sets.newHashSet();
+        mEntryCount = 0;
+    }
+
+    // the reader is expected to be positioned after any header
+    public static AnnotationSource createSource(
+            final String name, boolean isRegion, int valueCount, final String filename, final BufferedReader fileReader,
+            final EntryParser parser)
+    {
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder(name, isRegion, valueCount);
+        StreamingTextLoader loader = new StreamingTextLoader(filename, fileReader, builder, parser);
+        return new AnnotationSource(name, isRegion, valueCount, builder.dictionary(), null, loader);
+    }
+
+    // only those chromosomes read so far are known
+    public Set<String> chromosomes() { return mLoadedChromosomes; }
+    public int entryCount() { return mEntryCount; }
+
+    public ChromosomeEntries loadChromosome(final String chromosome)
+    {
+        if(mFileReader != null || mNextValues != null)
+            readChromosome(chromosome);
+
+        // entries of other contigs may have been read and held by an earlier request
+        ChromosomeEntries entries = mBuilder.buildChromosome(chromosome);
+
+        if(entries == null)
+            return null;
+
+        mLoadedChromosomes.add(chromosome);
+        mEntryCount += entries.count();
+
+        PV_LOGGER.debug("file({}) loaded chromosome({}) entries({})", mFilename, chromosome, entries.count());
+
+        return entries;
+    }
+
+    private void readChromosome(final String chromosome)
+    {
+        // other contigs are expected after the human chromosomes but in no known order, so the first request for one reads and holds
+        // those remaining rather than skipping past any which are requested later
+        int requestedRank = chromosomeRank(chromosome);
+        boolean isOtherContig = requestedRank < 0;
+        boolean found = false;
+
+        try
+        {
+            while(true)
+            {
+                String[] values = mNextValues;
+                mNextValues = null;
+
+                if(values == null)
+                {
+                    String line = mFileReader.readLine();
+
+                    if(line == null)
+                    {
+                        mFileReader.close();
+                        mFileReader = null;
+                        break;
+                    }
+
+                    values = line.split(DELIM, -1);
+                }
+
+                String lineChromosome = stripChrPrefix(values[0]);
+                int lineRank = chromosomeRank(lineChromosome);
+
+                if(isOtherContig)
+                {
+                    if(lineRank < 0)
+                        mParser.addEntry(mBuilder, values);
+
+                    continue;
+                }
+
+                if(!lineChromosome.equals(chromosome))
+                {
+                    // stop at the next chromosome, or at a later one if the requested chromosome has no entries
+                    if(found || lineRank < 0 || lineRank > requestedRank)
+                    {
+                        mNextValues = values;
+                        break;
+                    }
+
+                    continue;
+                }
+
+                found = true;
+                mParser.addEntry(mBuilder, values);
+            }
+        }
+        catch(Exception e)
+        {
+            PV_LOGGER.error("failed to read chromosome({}) from file({}): {}", chromosome, mFilename, e.toString());
+            throw new IllegalStateException(e);
+        }
+    }
+}
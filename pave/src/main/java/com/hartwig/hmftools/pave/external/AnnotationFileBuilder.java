@@ -0,0 +1,151 @@
+package com.hartwig.hmftools.pave.external;
+
+import static com.hartwig.hmftools.common.utils.ConfigUtils.addLoggingOptions;
+import static com.hartwig.hmftools.common.utils.ConfigUtils.setLogLevel;
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.addOutputDir;
+import static com.hartwig.hmftools.common.utils.FileWriterUtils.parseOutputDir;
+import static com.hartwig.hmftools.pave.Blacklistings.BLACKLIST_BED;
+import static com.hartwig.hmftools.pave.Blacklistings.BLACKLIST_VCF;
+import static com.hartwig.hmftools.pave.ClinvarAnnotation.CLINVAR_VCF;
+import static com.hartwig.hmftools.pave.Mappability.MAPPABILITY_BED;
+import static com.hartwig.hmftools.pave.PaveConfig.PON_ARTEFACTS_FILE;
+import static com.hartwig.hmftools.pave.PaveConfig.PON_FILE;
+import static com.hartwig.hmftools.pave.PaveConfig.PV_LOGGER;
+import static com.hartwig.hmftools.pave.annotation.AnnotationFile.ANNOTATION_FILE_EXTENSION;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.hartwig.hmftools.pave.Blacklistings;
+import com.hartwig.hmftools.pave.ClinvarAnnotation;
+import com.hartwig.hmftools.pave.Mappability;
+import com.hartwig.hmftools.pave.PonAnnotation;
+import com.hartwig.hmftools.pave.annotation.AnnotationFile;
+import com.hartwig.hmftools.pave.annotation.AnnotationSource;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.jetbrains.annotations.NotNull;
+
+// converts PAVE's PON, mappability, Clinvar and blacklist sources into its binary annotation format, which is then
+// accepted in place of the original files and loaded a chromosome at a time
+public class AnnotationFileBuilder
+{
+    private final CommandLine mCmd;
+    private final String mOutputDir;
+
+    public AnnotationFileBuilder(final CommandLine cmd)
+    {
+        mCmd = cmd;
+        mOutputDir = parseOutputDir(cmd);
+    }
+
+    public void run()
+    {
+        boolean allValid = true;
+
+        allValid &= convertSource(PON_FILE);
+        allValid &= convertSource(PON_ARTEFACTS_FILE);
+        allValid &= convertSource(MAPPABILITY_BED);
+        allValid &= convertSource(CLINVAR_VCF);
+        allValid &= convertSource(BLACKLIST_BED);
+        allValid &= convertSource(BLACKLIST_VCF);
+
+        if(!allValid)
+        {
+            PV_LOGGER.error("annotation file conversion failed");
+            System.exit(1);
+        }
+
+        PV_LOGGER.info("annotation file conversion complete");
+    }
+
+    private boolean convertSource(final String sourceOption)
+    {
+        if(!mCmd.hasOption(sourceOption))
+            return true;
+
+        String inputFile = mCmd.getOptionValue(sourceOption);
+
+        if(!Files.exists(Paths.get(inputFile)))
+        {
+            PV_LOGGER.error("missing {} file({})", sourceOption, inputFile);
+            return false;
+        }
+
+        PV_LOGGER.info("converting {} file({})", sourceOption, inputFile);
+
+        try
+        {
+            AnnotationSource source = loadSource(sourceOption, inputFile);
+
+            if(source == null)
+                return false;
+
+            String[] fileItems = inputFile.split("/");
+            String outputFile = mOutputDir + fileItems[fileItems.length - 1] + ANNOTATION_FILE_EXTENSION;
+
+            AnnotationFile.write(source, outputFile);
+            return true;
+        }
+        catch(IOException e)
+        {
+            PV_LOGGER.error("failed to convert {} file({}): {}", sourceOption, inputFile, e.toString());
+            return false;
+        }
+    }
+
+    private static AnnotationSource loadSource(final String sourceOption, final String inputFile) throws IOException
+    {
+        switch(sourceOption)
+        {
+            case PON_FILE:
+            case PON_ARTEFACTS_FILE:
+                return PonAnnotation.loadPonEntries(inputFile);
+
+            case MAPPABILITY_BED:
+                return Mappability.loadEntries(inputFile);
+
+            case CLINVAR_VCF:
+                return ClinvarAnnotation.loadEntries(inputFile);
+
+            case BLACKLIST_BED:
+                return Blacklistings.loadBedEntries(inputFile);
+
+            case BLACKLIST_VCF:
+                return Blacklistings.loadVcfEntries(inputFile);
+
+            default:
+                return null;
+        }
+    }
+
+    public static void main(@NotNull final String[] args) throws ParseException
+    {
+        Options options = new Options();
+        options.addOption(PON_FILE, true, "PON entries");
+        options.addOption(PON_ARTEFACTS_FILE, true, "PON artefacts");
+        Mappability.addCmdLineArgs(options);
+        ClinvarAnnotation.addCmdLineArgs(options);
+        Blacklistings.addCmdLineArgs(options);
+        addOutputDir(options);
+        addLoggingOptions(options);
+
+        final CommandLine cmd = createCommandLine(args, options);
+        setLogLevel(cmd);
+
+        AnnotationFileBuilder annotationFileBuilder = new AnnotationFileBuilder(cmd);
+        annotationFileBuilder.run();
+    }
+
+    @NotNull
+    private static CommandLine createCommandLine(@NotNull final String[] args, @NotNull final Options options) throws ParseException
+    {
+        final CommandLineParser parser = new DefaultParser();
+        return parser.parse(options, args);
+    }
+}
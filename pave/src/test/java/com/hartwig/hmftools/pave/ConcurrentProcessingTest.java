@@ -0,0 +1,113 @@
+package com.hartwig.hmftools.pave;
+
+import static com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion.V37;
+import static com.hartwig.hmftools.common.test.MockRefGenome.generateRandomBases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.test.MockRefGenome;
+
+import org.junit.Test;
+
+public class ConcurrentProcessingTest
+{
+    private static final int CHROMOSOME_COUNT = 5;
+    private static final int VARIANTS_PER_CHROMOSOME = 50;
+
+    @Test(timeout = 30000)
+    public void testBatchesWrittenInInputOrder() throws IOException
+    {
+        File vcf = writeVcf(-1);
+
+        List<String> writtenVariants = Lists.newArrayList();
+
+        boolean processed = processVcf(vcf, writtenVariants);
+
+        assertTrue(processed);
+        assertEquals(CHROMOSOME_COUNT * VARIANTS_PER_CHROMOSOME, writtenVariants.size());
+
+        List<String> expectedVariants = Lists.newArrayList();
+
+        for(int chr = 1; chr <= CHROMOSOME_COUNT; ++chr)
+        {
+            for(int i = 0; i < VARIANTS_PER_CHROMOSOME; ++i)
+            {
+                expectedVariants.add(chr + ":" + variantPosition(i));
+            }
+        }
+
+        assertEquals(expectedVariants, writtenVariants);
+    }
+
+    @Test(timeout = 30000)
+    public void testFailingVariantStopsProcessing() throws IOException
+    {
+        // an invalid repeat count fails when the variant is created, before its impacts are classified
+        File vcf = writeVcf(2);
+
+        List<String> writtenVariants = Lists.newArrayList();
+
+        boolean processed = processVcf(vcf, writtenVariants);
+
+        assertFalse(processed);
+
+        // batches before the failing one may be written, but never any from or after it
+        assertTrue(writtenVariants.stream().noneMatch(x -> x.startsWith("3:") || x.startsWith("4:") || x.startsWith("5:")));
+    }
+
+    private static boolean processVcf(final File vcf, final List<String> writtenVariants)
+    {
+        MockRefGenome refGenome = new MockRefGenome();
+
+        for(int chr = 1; chr <= CHROMOSOME_COUNT; ++chr)
+        {
+            refGenome.RefGenomeMap.put(String.valueOf(chr), generateRandomBases(variantPosition(VARIANTS_PER_CHROMOSOME) + 100));
+        }
+
+        GeneDataCache geneDataCache = new GeneDataCache("", V37, null, false, false);
+
+        VariantBatchReader batchReader = new VariantBatchReader(vcf.getPath(), false, 1);
+        assertTrue(batchReader.hasValidData());
+
+        return PaveApplication.processBatchesConcurrently(
+                batchReader, 3,
+                classifyQueue -> new VariantClassifierThread(refGenome, geneDataCache, classifyQueue),
+                batch -> batch.variants().forEach(x -> writtenVariants.add(x.Chromosome + ":" + x.Position)));
+    }
+
+    private static int variantPosition(int index) { return 100 + index * 10; }
+
+    private static File writeVcf(int failingChromosomeIndex) throws IOException
+    {
+        File vcf = File.createTempFile("pave_batches", ".vcf");
+        vcf.deleteOnExit();
+
+        try(PrintStream writer = new PrintStream(vcf))
+        {
+            writer.println("##fileformat=VCFv4.2");
+            writer.println("##INFO=<ID=REP_C,Number=1,Type=Integer,Description=\"Repeat count\">");
+            writer.println("#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO");
+
+            // each chromosome starts a new batch
+            for(int chr = 1; chr <= CHROMOSOME_COUNT; ++chr)
+            {
+                for(int i = 0; i < VARIANTS_PER_CHROMOSOME; ++i)
+                {
+                    String repeatCount = chr == failingChromosomeIndex + 1 && i == VARIANTS_PER_CHROMOSOME / 2 ? "invalid" : "0";
+
+                    writer.println(String.format("%d\t%d\t.\tA\tC\t100\tPASS\tREP_C=%s", chr, variantPosition(i), repeatCount));
+                }
+            }
+        }
+
+        return vcf;
+    }
+}
@@ -0,0 +1,202 @@
+package com.hartwig.hmftools.pave.annotation;
+
+import static com.hartwig.hmftools.pave.annotation.AnnotationSource.NOT_FOUND;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.junit.Test;
+
+public class AnnotationSourceTest
+{
+    private static final String CHR_1 = "1";
+    private static final String CHR_2 = "2";
+
+    @Test
+    public void testPointLookups()
+    {
+        AnnotationSource source = createPointSource();
+
+        assertEquals(NOT_FOUND, source.findPoint(CHR_1, 50, "A", "G"));
+        assertEquals(NOT_FOUND, source.findPoint(CHR_1, 100, "A", "C"));
+
+        int index = source.findPoint(CHR_1, 100, "A", "T");
+        assertEquals(2, source.value(index, 0));
+        assertEquals("Benign", source.stringValue(index, 1));
+
+        index = source.findPoint(CHR_1, 100, "AC", "A");
+        assertEquals(3, source.value(index, 0));
+
+        index = source.findPoint(CHR_1, 200, "G", "GTT");
+        assertEquals(5, source.value(index, 0));
+        assertEquals("Pathogenic", source.stringValue(index, 1));
+
+        // a position before the last lookup is still found
+        index = source.findPoint(CHR_1, 100, "A", "T");
+        assertEquals(2, source.value(index, 0));
+
+        // chromosome names are matched with or without a 'chr' prefix
+        index = source.findPoint("chr2", 100, "C", "T");
+        assertEquals(7, source.value(index, 0));
+
+        assertEquals(NOT_FOUND, source.findPoint("3", 100, "C", "T"));
+    }
+
+    @Test
+    public void testRegionLookups()
+    {
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("Test", true, 1);
+        builder.addRegion(CHR_1, 1, 100, 1);
+        builder.addRegion(CHR_1, 101, 200, 2);
+        builder.addRegion(CHR_1, 301, 400, 3);
+        builder.addRegion(CHR_2, 1001, 2000, 4);
+
+        AnnotationSource source = builder.build();
+
+        assertEquals(1, source.value(source.findRegion(CHR_1, 1), 0));
+        assertEquals(1, source.value(source.findRegion(CHR_1, 100), 0));
+        assertEquals(2, source.value(source.findRegion(CHR_1, 150), 0));
+        assertEquals(NOT_FOUND, source.findRegion(CHR_1, 250));
+        assertEquals(2, source.value(source.findRegionOrPrevious(CHR_1, 250), 0));
+        assertEquals(3, source.value(source.findRegion(CHR_1, 400), 0));
+        assertEquals(NOT_FOUND, source.findRegionOrPrevious(CHR_1, 401));
+
+        assertEquals(NOT_FOUND, source.findRegion(CHR_2, 100));
+        assertEquals(4, source.value(source.findRegion(CHR_2, 1500), 0));
+    }
+
+    @Test
+    public void testOverlappingRegions()
+    {
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("Test", true, 0);
+        builder.addRegion(CHR_1, 101, 200);
+        builder.addRegion(CHR_1, 1, 50);
+        builder.addRegion(CHR_1, 150, 300);
+        builder.addRegion(CHR_1, 180, 250);
+
+        AnnotationSource source = builder.build();
+        assertEquals(2, source.entryCount());
+
+        assertTrue(source.findRegion(CHR_1, 50) != NOT_FOUND);
+        assertEquals(NOT_FOUND, source.findRegion(CHR_1, 51));
+        assertTrue(source.findRegion(CHR_1, 101) != NOT_FOUND);
+        assertTrue(source.findRegion(CHR_1, 300) != NOT_FOUND);
+        assertEquals(NOT_FOUND, source.findRegion(CHR_1, 301));
+    }
+
+    @Test
+    public void testBinaryFile() throws IOException
+    {
+        File file = File.createTempFile("annotation_test", AnnotationFile.ANNOTATION_FILE_EXTENSION);
+        file.deleteOnExit();
+
+        AnnotationFile.write(createPointSource(), file.getAbsolutePath());
+
+        assertTrue(AnnotationFile.isAnnotationFile(file.getAbsolutePath()));
+
+        AnnotationSource source = AnnotationFile.open(file.getAbsolutePath());
+        assertEquals(6, source.entryCount());
+
+        int index = source.findPoint(CHR_1, 100, "AC", "A");
+        assertEquals(3, source.value(index, 0));
+        assertEquals("", source.stringValue(index, 1));
+
+        index = source.findPoint(CHR_1, 200, "G", "GTT");
+        assertEquals(5, source.value(index, 0));
+        assertEquals("Pathogenic", source.stringValue(index, 1));
+
+        index = source.findPoint(CHR_2, 100, "C", "T");
+        assertEquals(7, source.value(index, 0));
+
+        index = source.findPoint(CHR_1, 100, "A", "T");
+        assertEquals("Benign", source.stringValue(index, 1));
+
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("Test", true, 1);
+        builder.addRegion(CHR_1, 1, 100, Float.floatToIntBits(0.5f));
+        builder.addRegion(CHR_1, 101, 200, Float.floatToIntBits(0.25f));
+
+        AnnotationFile.write(builder.build(), file.getAbsolutePath());
+        source = AnnotationFile.open(file.getAbsolutePath());
+
+        assertEquals(0.25f, source.floatValue(source.findRegion(CHR_1, 150), 0), 1e-6);
+    }
+
+    @Test
+    public void testStreamedTextSource() throws IOException
+    {
+        File file = File.createTempFile("annotation_test", ".tsv");
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), Lists.newArrayList(
+                "1\t100\tA\tT\t2", "1\t200\tG\tC\t3", "2\t100\tC\tT\t4", "4\t100\tC\tA\t5", "4\t300\tT\tG\t6"));
+
+        AnnotationSource source = StreamingTextLoader.createSource(
+                "Test", false, 1, file.getPath(), Files.newBufferedReader(file.toPath()),
+                (builder, values) -> builder.addPoint(values[0], Integer.parseInt(values[1]), values[2], values[3],
+                        Integer.parseInt(values[4])));
+
+        assertEquals(3, source.value(source.findPoint(CHR_1, 200, "G", "C"), 0));
+        assertEquals(2, source.entryCount());
+
+        // only the current chromosome is held
+        assertEquals(4, source.value(source.findPoint("chr2", 100, "C", "T"), 0));
+        assertEquals(Sets.newHashSet(CHR_2), source.loadedChromosomes().keySet());
+
+        // a chromosome without entries leaves the next one to be read
+        assertEquals(NOT_FOUND, source.findPoint("3", 100, "C", "A"));
+        assertEquals(6, source.value(source.findPoint("4", 300, "T", "G"), 0));
+
+        // chromosomes the file has passed have no entries
+        assertEquals(NOT_FOUND, source.findPoint(CHR_1, 100, "A", "T"));
+        assertEquals(5, source.entryCount());
+    }
+
+    @Test
+    public void testStreamedTextSourceOtherContigs() throws IOException
+    {
+        File file = File.createTempFile("annotation_test", ".tsv");
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), Lists.newArrayList(
+                "1\t100\tA\tT\t2", "3\t100\tC\tT\t3", "GL000207.1\t100\tC\tA\t4", "GL000192.1\t100\tT\tG\t5"));
+
+        AnnotationSource source = StreamingTextLoader.createSource(
+                "Test", false, 1, file.getPath(), Files.newBufferedReader(file.toPath()),
+                (builder, values) -> builder.addPoint(values[0], Integer.parseInt(values[1]), values[2], values[3],
+                        Integer.parseInt(values[4])));
+
+        // a missing chromosome stops at the next human chromosome rather than reading through the other contigs
+        assertEquals(NOT_FOUND, source.findPoint(CHR_2, 100, "A", "T"));
+        assertEquals(3, source.value(source.findPoint("3", 100, "C", "T"), 0));
+
+        // a missing contig holds the remaining contigs, whichever order they are then requested in
+        assertEquals(NOT_FOUND, source.findPoint("GL000226.1", 100, "C", "A"));
+        assertEquals(5, source.value(source.findPoint("GL000192.1", 100, "T", "G"), 0));
+        assertEquals(4, source.value(source.findPoint("GL000207.1", 100, "C", "A"), 0));
+        assertEquals(3, source.entryCount());
+    }
+
+    private static AnnotationSource createPointSource()
+    {
+        AnnotationSourceBuilder builder = new AnnotationSourceBuilder("Test", false, 2);
+        int none = builder.dictionaryIndex("");
+        int benign = builder.dictionaryIndex("Benign");
+        int pathogenic = builder.dictionaryIndex("Pathogenic");
+
+        builder.addPoint(CHR_1, 100, "A", "T", 2, benign);
+        builder.addPoint(CHR_1, 100, "AC", "A", 3, none);
+        builder.addPoint(CHR_1, 150, "C", "G", 4, none);
+        builder.addPoint(CHR_1, 200, "G", "GTT", 5, pathogenic);
+        builder.addPoint(CHR_2, 150, "A", "G", 6, none);
+        builder.addPoint(CHR_2, 100, "C", "T", 7, none); // out of order
+
+        return builder.build();
+    }
+}
@@ -3,20 +3,28 @@ package com.hartwig.hmftools.protect;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.doid.DiseaseOntology;
 import com.hartwig.hmftools.common.doid.DoidParents;
 import com.hartwig.hmftools.common.drivercatalog.panel.DriverGene;
 import com.hartwig.hmftools.common.drivercatalog.panel.DriverGeneFile;
 import com.hartwig.hmftools.common.fusion.KnownFusionCache;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.protect.ProtectEvidence;
 import com.hartwig.hmftools.common.protect.ProtectEvidenceFile;
 import com.hartwig.hmftools.protect.algo.ProtectAlgo;
+import com.hartwig.hmftools.protect.evidence.ActionableEventIndex;
 import com.hartwig.hmftools.serve.actionability.ActionableEvents;
 import com.hartwig.hmftools.serve.actionability.ActionableEventsLoader;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeManagerFactory;
 
+import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
@@ -35,39 +43,120 @@ public class ProtectApplication {
 
         Options options = ProtectConfig.createOptions();
 
-        ProtectConfig config = null;
+        ProtectApplication application = null;
         try {
-            config = ProtectConfig.createConfig(new DefaultParser().parse(options, args));
+            CommandLine cmd = new DefaultParser().parse(options, args);
+            if (cmd.hasOption(ProtectConfig.SAMPLE_BATCH_TSV)) {
+                // Only the resources shared by all samples are checked up front, every sample's own files are checked when it is run.
+                application = new ProtectApplication(ProtectConfig.nonOptionalFile(cmd, ProtectConfig.DOID_JSON),
+                        ProtectConfig.nonOptionalDir(cmd, ProtectConfig.SERVE_ACTIONABILITY_DIRECTORY),
+                        RefGenomeVersion.from(ProtectConfig.nonOptionalValue(cmd, RefGenomeVersion.REF_GENOME_VERSION)),
+                        ProtectConfig.nonOptionalFile(cmd, ProtectConfig.DRIVER_GENE_TSV),
+                        ProtectConfig.createBatchConfigFactories(cmd),
+                        ProtectConfig.threads(cmd));
+            } else {
+                ProtectConfig config = ProtectConfig.createConfig(cmd);
+                application = new ProtectApplication(config.doidJsonFile(),
+                        config.serveActionabilityDir(),
+                        config.refGenomeVersion(),
+                        config.driverGeneTsv(),
+                        Lists.newArrayList(ProtectConfig.SampleConfigFactory.of(config)),
+                        1);
+            }
         } catch (ParseException exception) {
             LOGGER.warn(exception);
             new HelpFormatter().printHelp("PROTECT", options);
             System.exit(1);
         }
 
-        new ProtectApplication(config).run();
+        application.run();
 
         LOGGER.info("Complete");
     }
 
     @NotNull
-    private final ProtectConfig config;
-
-    private ProtectApplication(@NotNull final ProtectConfig config) {
-        this.config = config;
+    private final String doidJsonFile;
+    @NotNull
+    private final String serveActionabilityDir;
+    @NotNull
+    private final RefGenomeVersion refGenomeVersion;
+    @NotNull
+    private final String driverGeneTsv;
+    @NotNull
+    private final List<ProtectConfig.SampleConfigFactory> samples;
+    private final int threads;
+
+    private ProtectApplication(@NotNull final String doidJsonFile, @NotNull final String serveActionabilityDir,
+            @NotNull final RefGenomeVersion refGenomeVersion, @NotNull final String driverGeneTsv,
+            @NotNull final List<ProtectConfig.SampleConfigFactory> samples, final int threads) {
+        this.doidJsonFile = doidJsonFile;
+        this.serveActionabilityDir = serveActionabilityDir;
+        this.refGenomeVersion = refGenomeVersion;
+        this.driverGeneTsv = driverGeneTsv;
+        this.samples = samples;
+        this.threads = threads;
     }
 
     public void run() throws IOException {
-        LOGGER.info("Running PROTECT algo on sample {} (with reference sample {})", config.tumorSampleId(), config.referenceSampleId());
+        if (samples.isEmpty()) {
+            LOGGER.warn("No samples provided to run PROTECT on");
+            return;
+        }
 
-        LOGGER.info("Loading DOID file from {}", config.doidJsonFile());
-        DoidParents doidParentModel = DoidParents.fromEdges(DiseaseOntology.readDoidOwlEntryFromDoidJson(config.doidJsonFile()).edges());
+        // The reference resources are the same for every sample so they are only loaded and indexed once.
+        LOGGER.info("Loading DOID file from {}", doidJsonFile);
+        DoidParents doidParentModel = DoidParents.fromEdges(DiseaseOntology.readDoidOwlEntryFromDoidJson(doidJsonFile).edges());
 
-        Set<String> patientTumorDoids = patientTumorDoids(config, doidParentModel);
-        ActionableEvents actionableEvents = ActionableEventsLoader.readFromDir(config.serveActionabilityDir(), config.refGenomeVersion());
+        ActionableEvents actionableEvents = ActionableEventsLoader.readFromDir(serveActionabilityDir, refGenomeVersion);
+        ActionableEventIndex actionableEventIndex = ActionableEventIndex.build(actionableEvents);
+
+        List<DriverGene> driverGenes = readDriverGenesFromFile(driverGeneTsv);
 
-        List<DriverGene> driverGenes = readDriverGenesFromFile(config.driverGeneTsv());
+        if (samples.size() == 1) {
+            runSample(samples.get(0).create(), actionableEvents, actionableEventIndex, driverGenes, doidParentModel);
+            return;
+        }
+
+        LOGGER.info("Running PROTECT algo on {} samples using {} threads", samples.size(), threads);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = Lists.newArrayList();
+            for (ProtectConfig.SampleConfigFactory sample : samples) {
+                futures.add(executorService.submit(() -> {
+                    runSample(sample.create(), actionableEvents, actionableEventIndex, driverGenes, doidParentModel);
+                    return null;
+                }));
+            }
+
+            int failedCount = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException exception) {
+                    LOGGER.error("PROTECT failed on sample {}: {}", samples.get(i).tumorSampleId(), exception.getCause().toString());
+                    failedCount++;
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while running PROTECT on batch of samples", exception);
+                }
+            }
+
+            if (failedCount > 0) {
+                throw new IOException("PROTECT failed on " + failedCount + " out of " + samples.size() + " samples");
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static void runSample(@NotNull ProtectConfig config, @NotNull ActionableEvents actionableEvents,
+            @NotNull ActionableEventIndex actionableEventIndex, @NotNull List<DriverGene> driverGenes,
+            @NotNull DoidParents doidParentModel) throws IOException {
+        LOGGER.info("Running PROTECT algo on sample {} (with reference sample {})", config.tumorSampleId(), config.referenceSampleId());
+
+        Set<String> patientTumorDoids = patientTumorDoids(config, doidParentModel);
 
-        ProtectAlgo algo = ProtectAlgo.build(actionableEvents, patientTumorDoids, driverGenes, doidParentModel);
+        ProtectAlgo algo = ProtectAlgo.build(actionableEvents, actionableEventIndex, patientTumorDoids, driverGenes, doidParentModel);
         List<ProtectEvidence> evidences = algo.run(config);
 
         String filename = ProtectEvidenceFile.generateFilename(config.outputDir(), config.tumorSampleId());
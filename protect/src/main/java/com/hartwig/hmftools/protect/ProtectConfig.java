@@ -3,8 +3,10 @@ package com.hartwig.hmftools.protect;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.List;
 import java.util.Set;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 
@@ -50,9 +52,42 @@ public interface ProtectConfig {
     String LILAC_RESULT_CSV = "lilac_result_csv";
     String LILAC_QC_CSV = "lilac_qc_csv";
 
+    // Params for running PROTECT on a batch of samples, in which '*' in every sample file path is replaced by the tumor sample ID
+    String SAMPLE_BATCH_TSV = "sample_batch_tsv";
+    String THREADS = "threads";
+    String BATCH_FIELD_DELIMITER = "\t";
+
     // Some additional optional params and flags
     String LOG_DEBUG = "log_debug";
 
+    // Creates the config of a single sample, which in batch mode is only done - and its files only checked - once the sample is run,
+    // so that a sample with missing files fails on its own rather than stopping the whole batch.
+    interface SampleConfigFactory {
+
+        @NotNull
+        String tumorSampleId();
+
+        @NotNull
+        ProtectConfig create() throws IOException;
+
+        @NotNull
+        static SampleConfigFactory of(@NotNull ProtectConfig config) {
+            return new SampleConfigFactory() {
+                @NotNull
+                @Override
+                public String tumorSampleId() {
+                    return config.tumorSampleId();
+                }
+
+                @NotNull
+                @Override
+                public ProtectConfig create() {
+                    return config;
+                }
+            };
+        }
+    }
+
     @NotNull
     static Options createOptions() {
         Options options = new Options();
@@ -82,6 +117,11 @@ public interface ProtectConfig {
         options.addOption(LILAC_RESULT_CSV, true, "Path towards the LILAC result CSV.");
         options.addOption(LILAC_QC_CSV, true, "Path towards the LILAC QC CSV.");
 
+        options.addOption(SAMPLE_BATCH_TSV,
+                true,
+                "(Optional) TSV with tumor sample ID, reference sample ID and primary tumor DOIDs of every sample to run in batch.");
+        options.addOption(THREADS, true, "(Optional) Number of samples to run in parallel in batch mode (default 1).");
+
         options.addOption(LOG_DEBUG, false, "If provided, set the log level to debug rather than default.");
 
         return options;
@@ -159,29 +199,95 @@ public interface ProtectConfig {
             Configurator.setRootLevel(Level.DEBUG);
         }
 
+        return createConfig(cmd,
+                nonOptionalValue(cmd, TUMOR_SAMPLE_ID),
+                optionalValue(cmd, REFERENCE_SAMPLE_ID),
+                nonOptionalValue(cmd, PRIMARY_TUMOR_DOIDS),
+                null);
+    }
+
+    @NotNull
+    static List<SampleConfigFactory> createBatchConfigFactories(@NotNull CommandLine cmd) throws ParseException, IOException {
+        if (cmd.hasOption(LOG_DEBUG)) {
+            Configurator.setRootLevel(Level.DEBUG);
+        }
+
+        String sampleBatchTsv = nonOptionalFile(cmd, SAMPLE_BATCH_TSV);
+        List<String> lines = Files.readAllLines(new File(sampleBatchTsv).toPath());
+
+        List<SampleConfigFactory> factories = Lists.newArrayList();
+        // Skip header
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] values = line.split(BATCH_FIELD_DELIMITER, -1);
+            if (values.length < 3) {
+                throw new ParseException("Invalid line in sample batch TSV '" + sampleBatchTsv + "': " + line);
+            }
+
+            String tumorSampleId = values[0];
+            String referenceSampleId = !values[1].isEmpty() ? values[1] : null;
+            String primaryTumorDoids = values[2];
+
+            factories.add(new SampleConfigFactory() {
+                @NotNull
+                @Override
+                public String tumorSampleId() {
+                    return tumorSampleId;
+                }
+
+                @NotNull
+                @Override
+                public ProtectConfig create() throws IOException {
+                    try {
+                        return createConfig(cmd, tumorSampleId, referenceSampleId, primaryTumorDoids, tumorSampleId);
+                    } catch (ParseException exception) {
+                        throw new IOException("Invalid config for sample " + tumorSampleId + ": " + exception.getMessage(), exception);
+                    }
+                }
+            });
+        }
+
+        return factories;
+    }
+
+    static int threads(@NotNull CommandLine cmd) throws ParseException {
+        String value = cmd.getOptionValue(THREADS, "1");
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException exception) {
+            throw new ParseException("Parameter '" + THREADS + "' must be an integer: " + value);
+        }
+    }
+
+    @NotNull
+    static ProtectConfig createConfig(@NotNull CommandLine cmd, @NotNull String tumorSampleId, @Nullable String referenceSampleId,
+            @NotNull String primaryTumorDoids, @Nullable String batchSampleId) throws ParseException, IOException {
         return ImmutableProtectConfig.builder()
-                .tumorSampleId(nonOptionalValue(cmd, TUMOR_SAMPLE_ID))
-                .referenceSampleId(optionalValue(cmd, REFERENCE_SAMPLE_ID))
-                .primaryTumorDoids(toStringSet(nonOptionalValue(cmd, PRIMARY_TUMOR_DOIDS), DOID_SEPARATOR))
+                .tumorSampleId(tumorSampleId)
+                .referenceSampleId(referenceSampleId)
+                .primaryTumorDoids(toStringSet(primaryTumorDoids, DOID_SEPARATOR))
                 .outputDir(outputDir(cmd, OUTPUT_DIRECTORY))
                 .refGenomeVersion(RefGenomeVersion.from(nonOptionalValue(cmd, RefGenomeVersion.REF_GENOME_VERSION)))
                 .serveActionabilityDir(nonOptionalDir(cmd, SERVE_ACTIONABILITY_DIRECTORY))
                 .doidJsonFile(nonOptionalFile(cmd, DOID_JSON))
                 .driverGeneTsv(nonOptionalFile(cmd, DRIVER_GENE_TSV))
-                .purplePurityTsv(nonOptionalFile(cmd, PURPLE_PURITY_TSV))
-                .purpleQcFile(nonOptionalFile(cmd, PURPLE_QC_FILE))
-                .purpleGeneCopyNumberTsv(nonOptionalFile(cmd, PURPLE_GENE_COPY_NUMBER_TSV))
-                .purpleSomaticDriverCatalogTsv(nonOptionalFile(cmd, PURPLE_SOMATIC_DRIVER_CATALOG_TSV))
-                .purpleGermlineDriverCatalogTsv(nonOptionalFile(cmd, PURPLE_GERMLINE_DRIVER_CATALOG_TSV))
-                .purpleSomaticVariantVcf(nonOptionalFile(cmd, PURPLE_SOMATIC_VARIANT_VCF))
-                .purpleGermlineVariantVcf(nonOptionalFile(cmd, PURPLE_GERMLINE_VARIANT_VCF))
-                .linxFusionTsv(nonOptionalFile(cmd, LINX_FUSION_TSV))
-                .linxBreakendTsv(nonOptionalFile(cmd, LINX_BREAKEND_TSV))
-                .linxDriverCatalogTsv(nonOptionalFile(cmd, LINX_DRIVER_CATALOG_TSV))
-                .annotatedVirusTsv(nonOptionalFile(cmd, ANNOTATED_VIRUS_TSV))
-                .chordPredictionTxt(nonOptionalFile(cmd, CHORD_PREDICTION_TXT))
-                .lilacResultCsv(nonOptionalFile(cmd, LILAC_RESULT_CSV))
-                .lilacQcCsv(nonOptionalFile(cmd, LILAC_QC_CSV))
+                .purplePurityTsv(nonOptionalSampleFile(cmd, PURPLE_PURITY_TSV, batchSampleId))
+                .purpleQcFile(nonOptionalSampleFile(cmd, PURPLE_QC_FILE, batchSampleId))
+                .purpleGeneCopyNumberTsv(nonOptionalSampleFile(cmd, PURPLE_GENE_COPY_NUMBER_TSV, batchSampleId))
+                .purpleSomaticDriverCatalogTsv(nonOptionalSampleFile(cmd, PURPLE_SOMATIC_DRIVER_CATALOG_TSV, batchSampleId))
+                .purpleGermlineDriverCatalogTsv(nonOptionalSampleFile(cmd, PURPLE_GERMLINE_DRIVER_CATALOG_TSV, batchSampleId))
+                .purpleSomaticVariantVcf(nonOptionalSampleFile(cmd, PURPLE_SOMATIC_VARIANT_VCF, batchSampleId))
+                .purpleGermlineVariantVcf(nonOptionalSampleFile(cmd, PURPLE_GERMLINE_VARIANT_VCF, batchSampleId))
+                .linxFusionTsv(nonOptionalSampleFile(cmd, LINX_FUSION_TSV, batchSampleId))
+                .linxBreakendTsv(nonOptionalSampleFile(cmd, LINX_BREAKEND_TSV, batchSampleId))
+                .linxDriverCatalogTsv(nonOptionalSampleFile(cmd, LINX_DRIVER_CATALOG_TSV, batchSampleId))
+                .annotatedVirusTsv(nonOptionalSampleFile(cmd, ANNOTATED_VIRUS_TSV, batchSampleId))
+                .chordPredictionTxt(nonOptionalSampleFile(cmd, CHORD_PREDICTION_TXT, batchSampleId))
+                .lilacResultCsv(nonOptionalSampleFile(cmd, LILAC_RESULT_CSV, batchSampleId))
+                .lilacQcCsv(nonOptionalSampleFile(cmd, LILAC_QC_CSV, batchSampleId))
                 .build();
     }
 
@@ -245,6 +351,21 @@ public interface ProtectConfig {
         return value;
     }
 
+    @NotNull
+    static String nonOptionalSampleFile(@NotNull CommandLine cmd, @NotNull String param, @Nullable String batchSampleId)
+            throws ParseException {
+        String value = nonOptionalValue(cmd, param);
+        if (batchSampleId != null) {
+            value = value.replace("*", batchSampleId);
+        }
+
+        if (!pathExists(value)) {
+            throw new ParseException("Parameter '" + param + "' must be an existing file: " + value);
+        }
+
+        return value;
+    }
+
     static boolean pathExists(@NotNull String path) {
         return Files.exists(new File(path).toPath());
     }
@@ -19,6 +19,7 @@ import com.hartwig.hmftools.common.purple.PurpleDataLoader;
 import com.hartwig.hmftools.common.virus.VirusInterpreterData;
 import com.hartwig.hmftools.common.virus.VirusInterpreterDataLoader;
 import com.hartwig.hmftools.protect.ProtectConfig;
+import com.hartwig.hmftools.protect.evidence.ActionableEventIndex;
 import com.hartwig.hmftools.protect.evidence.ChordEvidence;
 import com.hartwig.hmftools.protect.evidence.CopyNumberEvidence;
 import com.hartwig.hmftools.protect.evidence.DisruptionEvidence;
@@ -61,16 +62,18 @@ public class ProtectAlgo {
     @NotNull
     public static ProtectAlgo build(@NotNull ActionableEvents actionableEvents, @NotNull Set<String> patientTumorDoids,
             @NotNull List<DriverGene> driverGenes, @NotNull final DoidParents doidParentModel) {
+        return build(actionableEvents, ActionableEventIndex.build(actionableEvents), patientTumorDoids, driverGenes, doidParentModel);
+    }
+
+    @NotNull
+    public static ProtectAlgo build(@NotNull ActionableEvents actionableEvents, @NotNull ActionableEventIndex actionableEventIndex,
+            @NotNull Set<String> patientTumorDoids, @NotNull List<DriverGene> driverGenes, @NotNull final DoidParents doidParentModel) {
         PersonalizedEvidenceFactory personalizedEvidenceFactory = new PersonalizedEvidenceFactory(patientTumorDoids, doidParentModel);
 
-        VariantEvidence variantEvidenceFactory = new VariantEvidence(personalizedEvidenceFactory,
-                actionableEvents.hotspots(),
-                actionableEvents.ranges(),
-                actionableEvents.genes());
-        CopyNumberEvidence copyNumberEvidenceFactory = new CopyNumberEvidence(personalizedEvidenceFactory, actionableEvents.genes());
-        DisruptionEvidence disruptionEvidenceFactory = new DisruptionEvidence(personalizedEvidenceFactory, actionableEvents.genes());
-        FusionEvidence fusionEvidenceFactory =
-                new FusionEvidence(personalizedEvidenceFactory, actionableEvents.genes(), actionableEvents.fusions());
+        VariantEvidence variantEvidenceFactory = new VariantEvidence(personalizedEvidenceFactory, actionableEventIndex);
+        CopyNumberEvidence copyNumberEvidenceFactory = new CopyNumberEvidence(personalizedEvidenceFactory, actionableEventIndex);
+        DisruptionEvidence disruptionEvidenceFactory = new DisruptionEvidence(personalizedEvidenceFactory, actionableEventIndex);
+        FusionEvidence fusionEvidenceFactory = new FusionEvidence(personalizedEvidenceFactory, actionableEventIndex);
         PurpleSignatureEvidence purpleSignatureEvidenceFactory =
                 new PurpleSignatureEvidence(personalizedEvidenceFactory, actionableEvents.characteristics());
         VirusEvidence virusEvidenceFactory = new VirusEvidence(personalizedEvidenceFactory, actionableEvents.characteristics());
@@ -0,0 +1,103 @@
+package com.hartwig.hmftools.protect.evidence;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.serve.actionability.ActionableEvents;
+import com.hartwig.hmftools.serve.actionability.fusion.ActionableFusion;
+import com.hartwig.hmftools.serve.actionability.gene.ActionableGene;
+import com.hartwig.hmftools.serve.actionability.hotspot.ActionableHotspot;
+import com.hartwig.hmftools.serve.actionability.range.ActionableRange;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Indexes the actionable events from SERVE on the keys they are matched on, so that each event of a sample only needs to be
+ * compared against the actionable events that could possibly match it. Within every key the order of the SERVE output is retained.
+ */
+public class ActionableEventIndex {
+
+    private static final String KEY_DELIMITER = "\t";
+
+    @NotNull
+    private final Map<String, List<ActionableHotspot>> hotspotsPerVariant;
+    @NotNull
+    private final Map<String, List<ActionableRange>> rangesPerGene;
+    @NotNull
+    private final Map<String, List<ActionableGene>> genesPerGene;
+    @NotNull
+    private final Map<String, List<ActionableFusion>> fusionsPerGenePair;
+
+    @NotNull
+    public static ActionableEventIndex build(@NotNull ActionableEvents actionableEvents) {
+        return create(actionableEvents.hotspots(), actionableEvents.ranges(), actionableEvents.genes(), actionableEvents.fusions());
+    }
+
+    @NotNull
+    public static ActionableEventIndex create(@NotNull List<ActionableHotspot> hotspots, @NotNull List<ActionableRange> ranges,
+            @NotNull List<ActionableGene> genes, @NotNull List<ActionableFusion> fusions) {
+        return new ActionableEventIndex(group(hotspots,
+                hotspot -> variantKey(hotspot.chromosome(), hotspot.position(), hotspot.ref(), hotspot.alt())),
+                group(ranges, ActionableRange::gene),
+                group(genes, ActionableGene::gene),
+                group(fusions, fusion -> genePairKey(fusion.geneUp(), fusion.geneDown())));
+    }
+
+    private ActionableEventIndex(@NotNull final Map<String, List<ActionableHotspot>> hotspotsPerVariant,
+            @NotNull final Map<String, List<ActionableRange>> rangesPerGene, @NotNull final Map<String, List<ActionableGene>> genesPerGene,
+            @NotNull final Map<String, List<ActionableFusion>> fusionsPerGenePair) {
+        this.hotspotsPerVariant = hotspotsPerVariant;
+        this.rangesPerGene = rangesPerGene;
+        this.genesPerGene = genesPerGene;
+        this.fusionsPerGenePair = fusionsPerGenePair;
+    }
+
+    @NotNull
+    public List<ActionableHotspot> hotspots(@NotNull String chromosome, int position, @NotNull String ref, @NotNull String alt) {
+        return lookup(hotspotsPerVariant, variantKey(chromosome, position, ref, alt));
+    }
+
+    @NotNull
+    public List<ActionableRange> ranges(@NotNull String gene) {
+        return lookup(rangesPerGene, gene);
+    }
+
+    @NotNull
+    public List<ActionableGene> genes(@NotNull String gene) {
+        return lookup(genesPerGene, gene);
+    }
+
+    @NotNull
+    public List<ActionableFusion> fusions(@NotNull String geneUp, @NotNull String geneDown) {
+        return lookup(fusionsPerGenePair, genePairKey(geneUp, geneDown));
+    }
+
+    @NotNull
+    private static <T> Map<String, List<T>> group(@NotNull List<T> events, @NotNull Function<T, String> keyFunction) {
+        Map<String, List<T>> eventsPerKey = Maps.newHashMap();
+        for (T event : events) {
+            eventsPerKey.computeIfAbsent(keyFunction.apply(event), key -> Lists.newArrayList()).add(event);
+        }
+        return eventsPerKey;
+    }
+
+    @NotNull
+    private static <T> List<T> lookup(@NotNull Map<String, List<T>> eventsPerKey, @NotNull String key) {
+        List<T> events = eventsPerKey.get(key);
+        return events != null ? Collections.unmodifiableList(events) : Collections.emptyList();
+    }
+
+    @NotNull
+    private static String variantKey(@NotNull String chromosome, int position, @NotNull String ref, @NotNull String alt) {
+        return chromosome + KEY_DELIMITER + position + KEY_DELIMITER + ref + KEY_DELIMITER + alt;
+    }
+
+    @NotNull
+    private static String genePairKey(@NotNull String geneUp, @NotNull String geneDown) {
+        return geneUp + KEY_DELIMITER + geneDown;
+    }
+}
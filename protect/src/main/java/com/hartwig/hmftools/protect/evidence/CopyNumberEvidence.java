@@ -1,7 +1,6 @@
 package com.hartwig.hmftools.protect.evidence;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.protect.EventGenerator;
@@ -18,16 +17,18 @@ public class CopyNumberEvidence {
     @NotNull
     private final PersonalizedEvidenceFactory personalizedEvidenceFactory;
     @NotNull
-    private final List<ActionableGene> actionableGenes;
+    private final ActionableEventIndex actionableEventIndex;
 
     public CopyNumberEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
             @NotNull final List<ActionableGene> actionableGenes) {
+        this(personalizedEvidenceFactory,
+                ActionableEventIndex.create(Lists.newArrayList(), Lists.newArrayList(), actionableGenes, Lists.newArrayList()));
+    }
+
+    public CopyNumberEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
+            @NotNull final ActionableEventIndex actionableEventIndex) {
         this.personalizedEvidenceFactory = personalizedEvidenceFactory;
-        this.actionableGenes = actionableGenes.stream()
-                .filter(x -> x.event() == GeneLevelEvent.INACTIVATION || x.event() == GeneLevelEvent.AMPLIFICATION
-                        || x.event() == GeneLevelEvent.OVEREXPRESSION || x.event() == GeneLevelEvent.DELETION
-                        || x.event() == GeneLevelEvent.UNDEREXPRESSION || x.event() == GeneLevelEvent.ANY_MUTATION)
-                .collect(Collectors.toList());
+        this.actionableEventIndex = actionableEventIndex;
     }
 
     @NotNull
@@ -49,8 +50,8 @@ public class CopyNumberEvidence {
     @NotNull
     private List<ProtectEvidence> evidence(@NotNull GainLoss gainLoss, boolean report) {
         List<ProtectEvidence> result = Lists.newArrayList();
-        for (ActionableGene actionable : actionableGenes) {
-            if (actionable.gene().equals(gainLoss.gene()) && isTypeMatch(actionable, gainLoss)) {
+        for (ActionableGene actionable : actionableEventIndex.genes(gainLoss.gene())) {
+            if (isCopyNumberEvent(actionable) && isTypeMatch(actionable, gainLoss)) {
                 ProtectEvidence evidence = personalizedEvidenceFactory.somaticEvidence(actionable)
                         .reported(report)
                         .gene(gainLoss.gene())
@@ -66,6 +67,12 @@ public class CopyNumberEvidence {
         return result;
     }
 
+    private static boolean isCopyNumberEvent(@NotNull ActionableGene actionable) {
+        return actionable.event() == GeneLevelEvent.INACTIVATION || actionable.event() == GeneLevelEvent.AMPLIFICATION
+                || actionable.event() == GeneLevelEvent.OVEREXPRESSION || actionable.event() == GeneLevelEvent.DELETION
+                || actionable.event() == GeneLevelEvent.UNDEREXPRESSION || actionable.event() == GeneLevelEvent.ANY_MUTATION;
+    }
+
     private static boolean isTypeMatch(@NotNull ActionableGene actionable, @NotNull GainLoss reportable) {
         switch (actionable.event()) {
             case AMPLIFICATION:
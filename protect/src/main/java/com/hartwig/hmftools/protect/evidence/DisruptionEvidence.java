@@ -1,7 +1,6 @@
 package com.hartwig.hmftools.protect.evidence;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.linx.HomozygousDisruption;
@@ -18,15 +17,18 @@ public class DisruptionEvidence {
     @NotNull
     private final PersonalizedEvidenceFactory personalizedEvidenceFactory;
     @NotNull
-    private final List<ActionableGene> actionableGenes;
+    private final ActionableEventIndex actionableEventIndex;
 
     public DisruptionEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
             @NotNull final List<ActionableGene> actionableGenes) {
+        this(personalizedEvidenceFactory,
+                ActionableEventIndex.create(Lists.newArrayList(), Lists.newArrayList(), actionableGenes, Lists.newArrayList()));
+    }
+
+    public DisruptionEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
+            @NotNull final ActionableEventIndex actionableEventIndex) {
         this.personalizedEvidenceFactory = personalizedEvidenceFactory;
-        this.actionableGenes = actionableGenes.stream()
-                .filter(x -> x.event() == GeneLevelEvent.ANY_MUTATION || x.event() == GeneLevelEvent.INACTIVATION
-                        || x.event() == GeneLevelEvent.DELETION || x.event() == GeneLevelEvent.UNDEREXPRESSION)
-                .collect(Collectors.toList());
+        this.actionableEventIndex = actionableEventIndex;
     }
 
     @NotNull
@@ -41,8 +43,8 @@ public class DisruptionEvidence {
     @NotNull
     private List<ProtectEvidence> evidence(@NotNull HomozygousDisruption reportable) {
         List<ProtectEvidence> result = Lists.newArrayList();
-        for (ActionableGene actionable : actionableGenes) {
-            if (actionable.gene().equals(reportable.gene())) {
+        for (ActionableGene actionable : actionableEventIndex.genes(reportable.gene())) {
+            if (isDisruptionEvent(actionable)) {
                 ProtectEvidence evidence = personalizedEvidenceFactory.somaticReportableEvidence(actionable)
                         .gene(reportable.gene())
                         .transcript(reportable.transcript())
@@ -56,4 +58,9 @@ public class DisruptionEvidence {
 
         return result;
     }
+
+    private static boolean isDisruptionEvent(@NotNull ActionableGene actionable) {
+        return actionable.event() == GeneLevelEvent.ANY_MUTATION || actionable.event() == GeneLevelEvent.INACTIVATION
+                || actionable.event() == GeneLevelEvent.DELETION || actionable.event() == GeneLevelEvent.UNDEREXPRESSION;
+    }
 }
@@ -1,7 +1,6 @@
 package com.hartwig.hmftools.protect.evidence;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.fusion.KnownFusionType;
@@ -21,16 +20,18 @@ public class FusionEvidence {
     @NotNull
     private final PersonalizedEvidenceFactory personalizedEvidenceFactory;
     @NotNull
-    private final List<ActionableGene> actionablePromiscuous;
-    @NotNull
-    private final List<ActionableFusion> actionableFusions;
+    private final ActionableEventIndex actionableEventIndex;
 
     public FusionEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
             @NotNull final List<ActionableGene> actionableGenes, @NotNull final List<ActionableFusion> actionableFusions) {
+        this(personalizedEvidenceFactory,
+                ActionableEventIndex.create(Lists.newArrayList(), Lists.newArrayList(), actionableGenes, actionableFusions));
+    }
+
+    public FusionEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
+            @NotNull final ActionableEventIndex actionableEventIndex) {
         this.personalizedEvidenceFactory = personalizedEvidenceFactory;
-        this.actionablePromiscuous =
-                actionableGenes.stream().filter(x -> x.event().equals(GeneLevelEvent.FUSION)).collect(Collectors.toList());
-        this.actionableFusions = actionableFusions;
+        this.actionableEventIndex = actionableEventIndex;
     }
 
     @NotNull
@@ -51,13 +52,13 @@ public class FusionEvidence {
     @NotNull
     private List<ProtectEvidence> evidence(@NotNull LinxFusion fusion) {
         List<ProtectEvidence> evidences = Lists.newArrayList();
-        for (ActionableGene promiscuous : actionablePromiscuous) {
+        for (ActionableGene promiscuous : candidatePromiscuous(fusion)) {
             if (promiscuous.event().equals(GeneLevelEvent.FUSION) && match(fusion, promiscuous)) {
                 evidences.add(evidence(fusion, promiscuous));
             }
         }
 
-        for (ActionableFusion actionableFusion : actionableFusions) {
+        for (ActionableFusion actionableFusion : actionableEventIndex.fusions(fusion.geneStart(), fusion.geneEnd())) {
             if (match(fusion, actionableFusion)) {
                 evidences.add(evidence(fusion, actionableFusion));
             }
@@ -65,6 +66,17 @@ public class FusionEvidence {
         return evidences;
     }
 
+    @NotNull
+    private List<ActionableGene> candidatePromiscuous(@NotNull LinxFusion fusion) {
+        if (fusion.geneStart().equals(fusion.geneEnd())) {
+            return actionableEventIndex.genes(fusion.geneStart());
+        }
+
+        List<ActionableGene> candidates = Lists.newArrayList(actionableEventIndex.genes(fusion.geneStart()));
+        candidates.addAll(actionableEventIndex.genes(fusion.geneEnd()));
+        return candidates;
+    }
+
     @NotNull
     private ProtectEvidence evidence(@NotNull LinxFusion fusion, @NotNull ActionableEvent actionable) {
         return personalizedEvidenceFactory.somaticEvidence(actionable)
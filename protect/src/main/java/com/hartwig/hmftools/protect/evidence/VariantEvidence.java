@@ -1,7 +1,6 @@
 package com.hartwig.hmftools.protect.evidence;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.protect.EventGenerator;
@@ -33,22 +32,18 @@ public class VariantEvidence {
     @NotNull
     private final PersonalizedEvidenceFactory personalizedEvidenceFactory;
     @NotNull
-    private final List<ActionableHotspot> hotspots;
-    @NotNull
-    private final List<ActionableRange> ranges;
-    @NotNull
-    private final List<ActionableGene> genes;
+    private final ActionableEventIndex actionableEventIndex;
 
     public VariantEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
             @NotNull final List<ActionableHotspot> hotspots, @NotNull final List<ActionableRange> ranges,
             @NotNull final List<ActionableGene> genes) {
+        this(personalizedEvidenceFactory, ActionableEventIndex.create(hotspots, ranges, genes, Lists.newArrayList()));
+    }
+
+    public VariantEvidence(@NotNull final PersonalizedEvidenceFactory personalizedEvidenceFactory,
+            @NotNull final ActionableEventIndex actionableEventIndex) {
         this.personalizedEvidenceFactory = personalizedEvidenceFactory;
-        this.hotspots = hotspots;
-        this.ranges = ranges;
-        this.genes = genes.stream()
-                .filter(x -> x.event() == GeneLevelEvent.ACTIVATION || x.event() == GeneLevelEvent.INACTIVATION
-                        || x.event() == GeneLevelEvent.ANY_MUTATION)
-                .collect(Collectors.toList());
+        this.actionableEventIndex = actionableEventIndex;
     }
 
     @NotNull
@@ -83,20 +78,21 @@ public class VariantEvidence {
         }
 
         List<ProtectEvidence> evidences = Lists.newArrayList();
-        for (ActionableHotspot hotspot : hotspots) {
-            if (hotspotMatch(variant, hotspot)) {
-                evidences.add(evidence(variant, hotspot, mayReport));
-            }
+        for (ActionableHotspot hotspot : actionableEventIndex.hotspots(variant.chromosome(),
+                variant.position(),
+                variant.ref(),
+                variant.alt())) {
+            evidences.add(evidence(variant, hotspot, mayReport));
         }
 
-        for (ActionableRange range : ranges) {
+        for (ActionableRange range : actionableEventIndex.ranges(variant.gene())) {
             if (rangeMatch(variant, range)) {
                 evidences.add(evidence(variant, range, mayReport && driverInterpretation == DriverInterpretation.HIGH));
             }
         }
 
-        for (ActionableGene gene : genes) {
-            if (geneMatch(variant, gene)) {
+        for (ActionableGene gene : actionableEventIndex.genes(variant.gene())) {
+            if (isVariantEvent(gene) && geneMatch(variant, gene)) {
                 evidences.add(evidence(variant, gene, mayReport && driverInterpretation == DriverInterpretation.HIGH));
             }
         }
@@ -136,9 +132,9 @@ public class VariantEvidence {
                 .build();
     }
 
-    private static boolean hotspotMatch(@NotNull Variant variant, @NotNull ActionableHotspot hotspot) {
-        return variant.chromosome().equals(hotspot.chromosome()) && hotspot.position() == variant.position() && hotspot.ref()
-                .equals(variant.ref()) && hotspot.alt().equals(variant.alt());
+    private static boolean isVariantEvent(@NotNull ActionableGene gene) {
+        return gene.event() == GeneLevelEvent.ACTIVATION || gene.event() == GeneLevelEvent.INACTIVATION
+                || gene.event() == GeneLevelEvent.ANY_MUTATION;
     }
 
     private static boolean rangeMatch(@NotNull Variant variant, @NotNull ActionableRange range) {
@@ -0,0 +1,62 @@
+package com.hartwig.hmftools.protect.evidence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.serve.ServeTestFactory;
+import com.hartwig.hmftools.serve.actionability.fusion.ActionableFusion;
+import com.hartwig.hmftools.serve.actionability.fusion.ImmutableActionableFusion;
+import com.hartwig.hmftools.serve.actionability.gene.ActionableGene;
+import com.hartwig.hmftools.serve.actionability.gene.ImmutableActionableGene;
+import com.hartwig.hmftools.serve.actionability.hotspot.ActionableHotspot;
+import com.hartwig.hmftools.serve.actionability.hotspot.ImmutableActionableHotspot;
+import com.hartwig.hmftools.serve.actionability.range.ActionableRange;
+import com.hartwig.hmftools.serve.actionability.range.ImmutableActionableRange;
+import com.hartwig.hmftools.serve.extraction.gene.GeneLevelEvent;
+
+import org.junit.Test;
+
+public class ActionableEventIndexTest {
+
+    @Test
+    public void canLookupActionableEvents() {
+        ActionableHotspot hotspot = ImmutableActionableHotspot.builder()
+                .from(ServeTestFactory.createTestActionableHotspot())
+                .chromosome("7")
+                .position(10)
+                .ref("A")
+                .alt("T")
+                .build();
+        ActionableRange range = ImmutableActionableRange.builder().from(ServeTestFactory.createTestActionableRange()).gene("BRAF").build();
+        ActionableGene amplification = ImmutableActionableGene.builder()
+                .from(ServeTestFactory.createTestActionableGene())
+                .gene("EGFR")
+                .event(GeneLevelEvent.AMPLIFICATION)
+                .build();
+        ActionableGene fusion = ImmutableActionableGene.builder().from(amplification).event(GeneLevelEvent.FUSION).build();
+        ActionableFusion pair = ImmutableActionableFusion.builder()
+                .from(ServeTestFactory.createTestActionableFusion())
+                .geneUp("EML4")
+                .geneDown("ALK")
+                .build();
+
+        ActionableEventIndex index = ActionableEventIndex.create(Lists.newArrayList(hotspot),
+                Lists.newArrayList(range),
+                Lists.newArrayList(amplification, fusion),
+                Lists.newArrayList(pair));
+
+        assertEquals(Lists.newArrayList(hotspot), index.hotspots("7", 10, "A", "T"));
+        assertTrue(index.hotspots("7", 10, "A", "C").isEmpty());
+        assertTrue(index.hotspots("7", 11, "A", "T").isEmpty());
+
+        assertEquals(Lists.newArrayList(range), index.ranges("BRAF"));
+        assertTrue(index.ranges("EGFR").isEmpty());
+
+        assertEquals(Lists.newArrayList(amplification, fusion), index.genes("EGFR"));
+        assertTrue(index.genes("BRAF").isEmpty());
+
+        assertEquals(Lists.newArrayList(pair), index.fusions("EML4", "ALK"));
+        assertTrue(index.fusions("ALK", "EML4").isEmpty());
+    }
+}
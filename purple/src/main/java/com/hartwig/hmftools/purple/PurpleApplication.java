@@ -107,6 +107,7 @@ public class PurpleApplication
 {
     private final VersionInfo mPurpleVersion;
     private final ExecutorService mExecutorService;
+    private final int mThreads;
     private final ReferenceData mReferenceData;
     private final CommandLine mCmdLineArgs;
     private final PurpleConfig mConfig;
@@ -155,8 +156,8 @@ public class PurpleApplication
             System.exit(1);
         }
 
-        final int threads = mCmdLineArgs.hasOption(THREADS) ? Integer.parseInt(mCmdLineArgs.getOptionValue(THREADS)) : THREADS_DEFAULT;
-        mExecutorService = Executors.newFixedThreadPool(threads);
+        mThreads = mCmdLineArgs.hasOption(THREADS) ? Integer.parseInt(mCmdLineArgs.getOptionValue(THREADS)) : THREADS_DEFAULT;
+        mExecutorService = Executors.newFixedThreadPool(mThreads);
 
         mGermlineVariants = new GermlineVariants(mConfig, mReferenceData, mPurpleVersion.version());
 
@@ -193,7 +194,7 @@ public class PurpleApplication
     {
         SampleData sampleData = null;
 
-        final SomaticVariantCache somaticVariantCache = new SomaticVariantCache(mConfig);
+        final SomaticVariantCache somaticVariantCache = new SomaticVariantCache(mConfig, mThreads);
 
         if(!mConfig.DriversOnly)
         {
@@ -479,7 +480,7 @@ public class PurpleApplication
         {
             String somaticVcf = purpleDataPath + tumorSample + PURPLE_SOMATIC_VCF_SUFFIX;
 
-            SomaticVariantCache somaticVariantCache = new SomaticVariantCache(mConfig);
+            SomaticVariantCache somaticVariantCache = new SomaticVariantCache(mConfig, mThreads);
             ListMultimap<Chromosome, VariantHotspot> emptyHotspots = ArrayListMultimap.create(); // already annotated in VCF
             somaticVariantCache.loadSomatics(somaticVcf, emptyHotspots);
 
@@ -8,8 +8,7 @@ import java.util.List;
 
 import com.google.common.collect.Multimap;
 import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
-import com.hartwig.hmftools.common.genome.gc.GCProfile;
-import com.hartwig.hmftools.common.genome.gc.GCProfileFactory;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
 import com.hartwig.hmftools.common.utils.pcf.PCFPosition;
 import com.hartwig.hmftools.purple.config.AmberData;
@@ -23,7 +22,7 @@ import com.hartwig.hmftools.purple.segment.PCFPositionsSupplier;
 
 public class Segmentation
 {
-    private final Multimap<Chromosome, GCProfile> mGcProfiles;
+    private final GCProfileStore mGcProfiles;
     private final ReferenceData mReferenceData;
     private final int mWindowSize;
 
@@ -33,7 +32,7 @@ public class Segmentation
         mWindowSize = WINDOW_SIZE;
 
         PPL_LOGGER.info("reading GC Profiles from {}", referenceData.GcProfileFilename);
-        mGcProfiles = GCProfileFactory.loadGCContent(mWindowSize, referenceData.GcProfileFilename);
+        mGcProfiles = GCProfileStore.load(mWindowSize, referenceData.GcProfileFilename);
     }
 
     public List<ObservedRegion> createSegments(
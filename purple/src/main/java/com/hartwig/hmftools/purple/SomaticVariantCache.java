@@ -2,63 +2,70 @@ package com.hartwig.hmftools.purple;
 
 import static com.hartwig.hmftools.purple.PurpleCommon.PPL_LOGGER;
 
-import java.io.File;
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
 import com.hartwig.hmftools.common.hla.HlaCommon;
+import com.hartwig.hmftools.common.variant.ParallelVcfReader;
 import com.hartwig.hmftools.common.variant.VariantType;
 import com.hartwig.hmftools.common.variant.filter.HumanChromosomeFilter;
 import com.hartwig.hmftools.common.variant.filter.NTFilter;
 import com.hartwig.hmftools.common.variant.filter.SGTFilter;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.purple.config.PurpleConfig;
+import com.hartwig.hmftools.purple.somatic.FittingVariant;
 import com.hartwig.hmftools.purple.somatic.HotspotEnrichment;
 import com.hartwig.hmftools.purple.somatic.SomaticVariant;
 import com.hartwig.hmftools.purple.somatic.SomaticPurityEnrichment;
+import com.hartwig.hmftools.purple.somatic.SomaticVariantStore;
 
 import htsjdk.variant.variantcontext.VariantContext;
-import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.variantcontext.filter.CompoundFilter;
-import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFHeader;
 
 public class SomaticVariantCache
 {
     private final PurpleConfig mConfig;
+    private final int mThreads; // used to decode the somatic VCF
 
     private final CompoundFilter mFilter;
 
-    private final List<SomaticVariant> mVariants;
-    private final List<SomaticVariant> mFittingVariants; // pass and SNVs only
+    // only the values needed for fitting are kept after loading, the VCF is re-read to enrich and write the variants
+    private final SomaticVariantStore mStore;
 
+    private String mSomaticVcf;
     private VCFHeader mVcfHeader;
+    private HotspotEnrichment mHotspotEnrichment;
+    private SomaticPurityEnrichment mPurityEnrichment;
 
     // counts for plot & chart down-sampling
     private int mIndelCount;
     private int mSnpCount;
 
-    public SomaticVariantCache(final PurpleConfig config)
+    public SomaticVariantCache(final PurpleConfig config, int threads)
     {
         mConfig = config;
+        mThreads = threads;
 
         mFilter = new CompoundFilter(true);
         mFilter.add(new SGTFilter());
         mFilter.add(new HumanChromosomeFilter());
         mFilter.add(new NTFilter());
 
-        mVariants = Lists.newArrayList();
-        mFittingVariants = Lists.newArrayList();
+        mStore = new SomaticVariantStore();
         mIndelCount = 0;
         mSnpCount = 0;
+        mSomaticVcf = null;
         mVcfHeader = null;
+        mHotspotEnrichment = null;
+        mPurityEnrichment = null;
     }
 
-    public boolean hasData() { return !mVariants.isEmpty(); }
-    public List<SomaticVariant> variants() { return mVariants; }
-    public List<SomaticVariant> fittingVariants() { return mFittingVariants; }
+    public boolean hasData() { return mStore.count() > 0; }
+    public SomaticVariantStore store() { return mStore; }
+    public List<FittingVariant> fittingVariants() { return mStore.fittingVariants(); }
 
     public int snpCount() { return mSnpCount; }
     public int indelCount() { return mIndelCount; }
@@ -68,9 +75,10 @@ public class SomaticVariantCache
         if(somaticVcf.isEmpty())
             return;
 
-        final HotspotEnrichment hotspotEnrichment = new HotspotEnrichment(somaticHotspots, true);
+        mSomaticVcf = somaticVcf;
+        mHotspotEnrichment = new HotspotEnrichment(somaticHotspots, true);
 
-        VCFFileReader vcfReader = new VCFFileReader(new File(somaticVcf), false);
+        ParallelVcfReader vcfReader = new ParallelVcfReader(somaticVcf, mThreads);
         mVcfHeader = vcfReader.getHeader();
 
         boolean tumorOnly = mConfig.tumorOnlyMode();
@@ -79,23 +87,13 @@ public class SomaticVariantCache
         {
             SomaticVariant variant = new SomaticVariant(variantContext, mConfig.TumorId);
 
-            if(tumorOnly && HlaCommon.containsPosition(variant)) // ignore these completely
+            if(isExcluded(variant))
                 continue;
 
-            if(!mConfig.TierQualFilters.isEmpty())
-            {
-                Integer qualThreshold = mConfig.TierQualFilters.get(variant.decorator().tier());
-                if(qualThreshold != null && variant.decorator().qual() < qualThreshold)
-                    continue;
-            }
-
-            mVariants.add(variant);
-
             // hotspot status is used in fitting as well as during and for enrichment
-            hotspotEnrichment.processVariant(variantContext);
+            mHotspotEnrichment.processVariant(variantContext);
 
-            if(!tumorOnly && isFittingCandidate(variant))
-                mFittingVariants.add(variant);
+            mStore.add(variant, !tumorOnly && isFittingCandidate(variant));
 
             if(variant.isPass())
             {
@@ -106,14 +104,67 @@ public class SomaticVariantCache
             }
         }
 
-        PPL_LOGGER.info("loaded somatic variants({} pass={}) from {}", mVariants.size(), mFittingVariants.size(), somaticVcf);
+        vcfReader.close();
+
+        PPL_LOGGER.info("loaded somatic variants({} pass={}) from {}", mStore.count(), mStore.fittingCount(), somaticVcf);
     }
 
     public VCFHeader getVcfHeader() { return mVcfHeader; }
 
     public void purityEnrich(final SomaticPurityEnrichment purityEnrichment)
     {
-        mVariants.forEach(x -> purityEnrichment.processVariant(x.context()));
+        mStore.purityEnrich(purityEnrichment);
+        mPurityEnrichment = purityEnrichment;
+    }
+
+    // re-reads the VCF, passing on the same variants as were loaded with the hotspot and any purity enrichment applied again
+    public void streamVariants(final Consumer<SomaticVariant> consumer)
+    {
+        if(mSomaticVcf == null)
+            return;
+
+        ParallelVcfReader vcfReader = new ParallelVcfReader(mSomaticVcf, mThreads);
+
+        int variantCount = 0;
+
+        for(VariantContext variantContext : vcfReader)
+        {
+            SomaticVariant variant = new SomaticVariant(variantContext, mConfig.TumorId);
+
+            if(isExcluded(variant))
+                continue;
+
+            mHotspotEnrichment.processVariant(variantContext);
+
+            if(mPurityEnrichment != null)
+                mPurityEnrichment.processVariant(variantContext);
+
+            ++variantCount;
+            consumer.accept(variant);
+        }
+
+        vcfReader.close();
+
+        if(variantCount != mStore.count())
+        {
+            throw new IllegalStateException(String.format("somatic VCF(%s) variant count(%d) differs from loaded count(%d)",
+                    mSomaticVcf, variantCount, mStore.count()));
+        }
+    }
+
+    private boolean isExcluded(final SomaticVariant variant)
+    {
+        if(mConfig.tumorOnlyMode() && HlaCommon.containsPosition(variant)) // ignore these completely
+            return true;
+
+        if(!mConfig.TierQualFilters.isEmpty())
+        {
+            Integer qualThreshold = mConfig.TierQualFilters.get(variant.decorator().tier());
+            if(qualThreshold != null && variant.decorator().qual() < qualThreshold)
+                return true;
+        }
+
+        return false;
     }
 
     private boolean isFittingCandidate(final SomaticVariant variant)
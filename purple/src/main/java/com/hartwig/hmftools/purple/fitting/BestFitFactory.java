@@ -23,13 +23,12 @@ import com.hartwig.hmftools.common.purple.purity.FittedPurity;
 import com.hartwig.hmftools.common.purple.purity.FittedPurityMethod;
 import com.hartwig.hmftools.common.purple.purity.FittedPurityScore;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
-import com.hartwig.hmftools.common.variant.VariantType;
 import com.hartwig.hmftools.purple.purity.FittedPurityScoreFactory;
 import com.hartwig.hmftools.common.purple.purity.ImmutableBestFit;
 import com.hartwig.hmftools.common.utils.Doubles;
 import com.hartwig.hmftools.common.sv.StructuralVariant;
 import com.hartwig.hmftools.purple.config.PurpleConfig;
-import com.hartwig.hmftools.purple.somatic.SomaticVariant;
+import com.hartwig.hmftools.purple.somatic.FittingVariant;
 
 import org.apache.commons.compress.utils.Lists;
 import org.jetbrains.annotations.NotNull;
@@ -46,7 +45,7 @@ public class BestFitFactory
     private int mSvFragmentReadCount;
     private int mSomaticHotspotCount;
     private int mAlleleReadCountTotal;
-    private final List<SomaticVariant> mVariantsInReadCountRange;
+    private final List<FittingVariant> mVariantsInReadCountRange;
 
     private static final double PERCENT_RANGE = 0.1;
     private static final double ABS_RANGE = 0.0005;
@@ -55,7 +54,7 @@ public class BestFitFactory
 
     public BestFitFactory(
             final PurpleConfig config, int minReadCount, int maxReadCount,
-            final List<FittedPurity> allCandidates, final List<SomaticVariant> somatics,
+            final List<FittedPurity> allCandidates, final List<FittingVariant> somatics,
             final List<StructuralVariant> structuralVariants, final List<ObservedRegion> observedRegions)
     {
         mConfig = config;
@@ -78,7 +77,7 @@ public class BestFitFactory
     public BestFit bestFit() { return mBestFit; }
 
     private BestFit determineBestFit(
-            final List<FittedPurity> allCandidates, final List<SomaticVariant> somatics,
+            final List<FittedPurity> allCandidates, final List<FittingVariant> somatics,
             final List<StructuralVariant> structuralVariants, final List<ObservedRegion> observedRegions)
     {
         Collections.sort(allCandidates);
@@ -133,7 +132,7 @@ public class BestFitFactory
     }
 
     private boolean hasTumor(
-            final List<SomaticVariant> somatics, final List<StructuralVariant> structuralVariants, final List<ObservedRegion> observedRegions)
+            final List<FittingVariant> somatics, final List<StructuralVariant> structuralVariants, final List<ObservedRegion> observedRegions)
     {
         setSvSummary(structuralVariants);
         setSomaticSummary(somatics);
@@ -216,24 +215,19 @@ public class BestFitFactory
         }
     }
 
-    private void setSomaticSummary(final List<SomaticVariant> somatics)
+    private void setSomaticSummary(final List<FittingVariant> somatics)
     {
-        for(SomaticVariant variant : somatics)
+        // fitting variants are all passing SNVs
+        for(FittingVariant variant : somatics)
         {
-            if(!variant.isPass())
-                continue;
-
             if(variant.isHotspot())
                 mSomaticHotspotCount++;
 
-            if(variant.type() == VariantType.SNP)
-            {
-                mAlleleReadCountTotal += variant.alleleReadCount();
+            mAlleleReadCountTotal += variant.alleleReadCount();
 
-                if(variant.totalReadCount() >= mMinReadCount && variant.totalReadCount() <= mMaxReadCount)
-                {
-                    mVariantsInReadCountRange.add(variant);
-                }
+            if(variant.totalReadCount() >= mMinReadCount && variant.totalReadCount() <= mMaxReadCount)
+            {
+                mVariantsInReadCountRange.add(variant);
             }
         }
     }
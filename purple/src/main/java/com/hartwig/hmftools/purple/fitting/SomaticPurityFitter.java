@@ -15,7 +15,7 @@ import com.hartwig.hmftools.common.genome.chromosome.HumanChromosome;
 import com.hartwig.hmftools.common.purple.purity.FittedPurity;
 import com.hartwig.hmftools.common.purple.purity.ImmutableFittedPurity;
 import com.hartwig.hmftools.common.sv.StructuralVariant;
-import com.hartwig.hmftools.purple.somatic.SomaticVariant;
+import com.hartwig.hmftools.purple.somatic.FittingVariant;
 
 import org.apache.commons.math3.distribution.PoissonDistribution;
 
@@ -36,7 +36,7 @@ public class SomaticPurityFitter
     }
 
     public Optional<FittedPurity> fromSomatics(
-            final List<SomaticVariant> variants, final List<StructuralVariant> structuralVariants, final List<FittedPurity> allCandidates)
+            final List<FittingVariant> variants, final List<StructuralVariant> structuralVariants, final List<FittedPurity> allCandidates)
     {
         if(variants.size() < mKdMinSomatics)
         {
@@ -57,16 +57,16 @@ public class SomaticPurityFitter
         PPL_LOGGER.info("peak somatic purity({})", formatPurity(peakPurity));
 
         // check for a hotspot variant with a higher VAF
-        int snvCount = (int)variants.stream().filter(x -> !x.isFiltered()).count();
+        int snvCount = variants.size(); // fitting variants are all passing SNVs
 
         if(snvCount > SNV_HOTSPOT_MAX_SNV_COUNT)
             return kdFit;
 
         double maxHotspotVaf = 0;
 
-        for(SomaticVariant variant : variants)
+        for(FittingVariant variant : variants)
         {
-            if(!variant.isPass() || !variant.isHotspot())
+            if(!variant.isHotspot())
                 continue;
 
             if(!HumanChromosome.contains(variant.chromosome()) || !HumanChromosome.fromString(variant.chromosome()).isAutosome())
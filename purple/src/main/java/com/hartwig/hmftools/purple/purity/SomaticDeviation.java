@@ -11,7 +11,7 @@ import com.google.common.cache.RemovalNotification;
 import com.hartwig.hmftools.common.purple.PurityAdjuster;
 import com.hartwig.hmftools.common.variant.AllelicDepth;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
-import com.hartwig.hmftools.purple.somatic.SomaticVariant;
+import com.hartwig.hmftools.purple.somatic.FittingVariant;
 
 import org.apache.commons.math3.distribution.BinomialDistribution;
 
@@ -38,14 +38,14 @@ public enum SomaticDeviation implements RemovalListener<Double, Integer>
                 });
     }
 
-    public double deviationFromMax(final PurityAdjuster purityAdjuster, final ObservedRegion region, final SomaticVariant variant)
+    public double deviationFromMax(final PurityAdjuster purityAdjuster, final ObservedRegion region, final FittingVariant variant)
     {
         double normalCopyNumber = purityAdjuster.germlineCopyNumber(region.chromosome());
         double constrainedMajorAllelePloidy = Math.max(0, region.majorAlleleCopyNumber());
         double constrainedTumorCopyNumber = Math.max(0, region.tumorCopyNumber());
 
         return deviationFromMax(
-                purityAdjuster, normalCopyNumber, variant.tumorAlleleDepth(), constrainedTumorCopyNumber, constrainedMajorAllelePloidy);
+                purityAdjuster, normalCopyNumber, variant, constrainedTumorCopyNumber, constrainedMajorAllelePloidy);
     }
 
     @VisibleForTesting
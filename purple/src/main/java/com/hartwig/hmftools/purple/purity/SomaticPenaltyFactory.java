@@ -8,16 +8,16 @@ import com.hartwig.hmftools.common.genome.position.GenomePositionSelector;
 import com.hartwig.hmftools.common.genome.position.GenomePositionSelectorFactory;
 import com.hartwig.hmftools.common.purple.PurityAdjuster;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
-import com.hartwig.hmftools.purple.somatic.SomaticVariant;
+import com.hartwig.hmftools.purple.somatic.FittingVariant;
 
 public final class SomaticPenaltyFactory
 {
     public static double calcPenalty(
-            final PurityAdjuster purityAdjuster, final Collection<ObservedRegion> regions, final List<SomaticVariant> variants)
+            final PurityAdjuster purityAdjuster, final Collection<ObservedRegion> regions, final List<FittingVariant> variants)
     {
         final SomaticDeviation somaticDeviation = SomaticDeviation.INSTANCE;
 
-        final GenomePositionSelector<SomaticVariant> variantSelector = GenomePositionSelectorFactory.create(variants);
+        final GenomePositionSelector<FittingVariant> variantSelector = GenomePositionSelectorFactory.create(variants);
         double score = 0;
         int variantCount = 0;
 
@@ -32,7 +32,7 @@ public final class SomaticPenaltyFactory
         return variantCount == 0 ? 0 : score / variantCount;
     }
 
-    private static class SomaticVariantConsumer implements Consumer<SomaticVariant>
+    private static class SomaticVariantConsumer implements Consumer<FittingVariant>
     {
         final PurityAdjuster mPurityAdjuster;
         private final SomaticDeviation mSomaticDeviation;
@@ -49,7 +49,7 @@ public final class SomaticPenaltyFactory
         }
 
         @Override
-        public void accept(final SomaticVariant variant)
+        public void accept(final FittingVariant variant)
         {
             mScore += mSomaticDeviation.deviationFromMax(mPurityAdjuster, mRegion, variant);
             mVariants++;
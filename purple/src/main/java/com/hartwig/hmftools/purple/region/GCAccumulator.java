@@ -3,6 +3,7 @@ package com.hartwig.hmftools.purple.region;
 import java.util.function.Consumer;
 
 import com.hartwig.hmftools.common.genome.gc.GCProfile;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore.ChromosomeGCProfile;
 import com.hartwig.hmftools.common.genome.region.GenomeRegion;
 
 class GCAccumulator implements Consumer<GCProfile>
@@ -24,10 +25,30 @@ class GCAccumulator implements Consumer<GCProfile>
     @Override
     public void accept(final GCProfile gcProfile)
     {
-        if(gcProfile.isMappable() && gcProfile.start() >= mRegion.start() && gcProfile.end() <= mRegion.end())
+        accept(gcProfile.start(), gcProfile.end(), gcProfile.isMappable(), gcProfile.gcContent());
+    }
+
+    public void accept(final ChromosomeGCProfile chrGcProfile)
+    {
+        // visits the windows overlapping the region
+        if(chrGcProfile == null)
+            return;
+
+        int lastWindow = Math.min(chrGcProfile.windowIndex(mRegion.end()), chrGcProfile.windowCount() - 1);
+
+        for(int i = chrGcProfile.windowIndex(mRegion.start()); i <= lastWindow; ++i)
+        {
+            if(chrGcProfile.hasWindow(i))
+                accept(chrGcProfile.windowStart(i), chrGcProfile.windowEnd(i), chrGcProfile.isMappable(i), chrGcProfile.gcContent(i));
+        }
+    }
+
+    private void accept(int windowStart, int windowEnd, boolean isMappable, double gcContent)
+    {
+        if(isMappable && windowStart >= mRegion.start() && windowEnd <= mRegion.end())
         {
             mCount++;
-            mTotalContent += gcProfile.gcContent();
+            mTotalContent += gcContent;
         }
     }
 }
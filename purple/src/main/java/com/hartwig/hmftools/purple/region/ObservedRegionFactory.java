@@ -14,12 +14,10 @@ import com.hartwig.hmftools.common.cobalt.CobaltRatio;
 import com.hartwig.hmftools.common.genome.chromosome.Chromosome;
 import com.hartwig.hmftools.common.genome.chromosome.CobaltChromosome;
 import com.hartwig.hmftools.common.genome.chromosome.CobaltChromosomes;
-import com.hartwig.hmftools.common.genome.gc.GCProfile;
+import com.hartwig.hmftools.common.genome.gc.GCProfileStore;
 import com.hartwig.hmftools.common.genome.position.GenomePositionSelector;
 import com.hartwig.hmftools.common.genome.position.GenomePositionSelectorFactory;
 import com.hartwig.hmftools.common.genome.region.GenomeRegion;
-import com.hartwig.hmftools.common.genome.region.GenomeRegionSelector;
-import com.hartwig.hmftools.common.genome.region.GenomeRegionSelectorFactory;
 import com.hartwig.hmftools.common.genome.window.Window;
 import com.hartwig.hmftools.common.purple.GermlineStatus;
 import com.hartwig.hmftools.purple.segment.PurpleSegment;
@@ -41,13 +39,12 @@ public class ObservedRegionFactory
 
     public List<ObservedRegion> combine(
             final List<PurpleSegment> regions, final Multimap<Chromosome, AmberBAF> bafs,
-            final Map<Chromosome,List<CobaltRatio>> ratios, final Multimap<Chromosome, GCProfile> gcProfiles)
+            final Map<Chromosome,List<CobaltRatio>> ratios, final GCProfileStore gcProfiles)
     {
         final List<ObservedRegion> result = Lists.newArrayList();
 
         final GenomePositionSelector<CobaltRatio> cobaltSelector = GenomePositionSelectorFactory.create(ratios);
         final GenomePositionSelector<AmberBAF> bafSelector = GenomePositionSelectorFactory.create(bafs);
-        final GenomeRegionSelector<GCProfile> gcSelector = GenomeRegionSelectorFactory.createImproved(gcProfiles);
 
         for(final PurpleSegment region : regions)
         {
@@ -57,7 +54,7 @@ public class ObservedRegionFactory
 
             bafSelector.select(region, baf);
             cobaltSelector.select(region, cobalt);
-            gcSelector.select(region, gc);
+            gc.accept(gcProfiles.chromosome(region.chromosome()));
 
             double tumorRatio = cobalt.tumorMedianRatio();
             // double tumorRatio = cobalt.tumorMeanRatio();
@@ -0,0 +1,42 @@
+package com.hartwig.hmftools.purple.somatic;
+
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
+import com.hartwig.hmftools.common.variant.AllelicDepth;
+
+// a passing SNV with tumor depth as used in purity fitting, read from the somatic variant store
+public class FittingVariant implements GenomePosition, AllelicDepth
+{
+    private final String mChromosome;
+    private final int mPosition;
+    private final boolean mHotspot;
+    private final int mAlleleReadCount;
+    private final int mTotalReadCount;
+
+    public FittingVariant(final String chromosome, int position, boolean hotspot, int alleleReadCount, int totalReadCount)
+    {
+        mChromosome = chromosome;
+        mPosition = position;
+        mHotspot = hotspot;
+        mAlleleReadCount = alleleReadCount;
+        mTotalReadCount = totalReadCount;
+    }
+
+    @Override
+    public String chromosome() { return mChromosome; }
+
+    @Override
+    public int position() { return mPosition; }
+
+    public boolean isHotspot() { return mHotspot; }
+
+    @Override
+    public int alleleReadCount() { return mAlleleReadCount; }
+
+    @Override
+    public int totalReadCount() { return mTotalReadCount; }
+
+    public String toString()
+    {
+        return String.format("%s:%d hotspot(%s) depth(%d/%d)", mChromosome, mPosition, mHotspot, mAlleleReadCount, mTotalReadCount);
+    }
+}
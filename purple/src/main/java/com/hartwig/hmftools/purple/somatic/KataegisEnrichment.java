@@ -3,7 +3,7 @@ package com.hartwig.hmftools.purple.somatic;
 import static com.hartwig.hmftools.common.variant.SomaticVariantFactory.KATAEGIS_FLAG;
 import static com.hartwig.hmftools.common.variant.VariantHeader.PASS;
 
-import java.util.Set;
+import java.util.function.Consumer;
 
 import com.hartwig.hmftools.common.variant.enrich.SomaticRefContextEnrichment;
 
@@ -21,9 +21,10 @@ public class KataegisEnrichment
     private final KataegisQueue mForwardDetector;
     private final KataegisQueue mReverseDetector;
 
-    public KataegisEnrichment()
+    // variants are passed on to the consumer once both detectors have released them, in the order they were processed
+    public KataegisEnrichment(final Consumer<SomaticVariant> consumer)
     {
-        mReverseDetector = new KataegisQueue("REV", KataegisEnrichment::isReverseCandidate, null);
+        mReverseDetector = new KataegisQueue("REV", KataegisEnrichment::isReverseCandidate, consumer);
         mForwardDetector = new KataegisQueue("FWD", KataegisEnrichment::isForwardCandidate, mReverseDetector::processVariant);
     }
 
@@ -61,6 +61,17 @@ public class PurityAdjustedSomaticVariantFactory
         }
     }
 
+    // the variant copy number which processVariant would set, for variants not held as a VariantContext
+    public double variantCopyNumber(final GenomePosition position, final AllelicDepth depth)
+    {
+        if(!HumanChromosome.contains(position.chromosome()))
+            return 0;
+
+        return mCopyNumberSelector.select(position)
+                .map(x -> Math.max(0, purityAdjustedVAF(x, depth) * x.averageTumorCopyNumber()))
+                .orElse(0.0);
+    }
+
     private void enrich(final GenomePosition position, final AllelicDepth depth, final PurityAdjustedSomaticVariantBuilder builder)
     {
         mCopyNumberSelector.select(position).ifPresent(x -> applyPurityAdjustment(x, depth, builder));
@@ -71,7 +82,7 @@ public class PurityAdjustedSomaticVariantFactory
             final PurpleCopyNumber purpleCopyNumber, final AllelicDepth depth, final PurityAdjustedSomaticVariantBuilder builder)
     {
         double copyNumber = purpleCopyNumber.averageTumorCopyNumber();
-        double vaf = mPurityAdjuster.purityAdjustedVAF(purpleCopyNumber.chromosome(), Math.max(0.001, copyNumber), depth.alleleFrequency());
+        double vaf = purityAdjustedVAF(purpleCopyNumber, depth);
         double ploidy = Math.max(0, vaf * copyNumber);
 
         boolean biallelic = Doubles.lessOrEqual(copyNumber, 0) || Doubles.greaterOrEqual(ploidy, copyNumber - 0.5);
@@ -82,4 +93,10 @@ public class PurityAdjustedSomaticVariantFactory
                 .biallelic(biallelic)
                 .minorAlleleCopyNumber(purpleCopyNumber.minorAlleleCopyNumber());
     }
+
+    private double purityAdjustedVAF(final PurpleCopyNumber purpleCopyNumber, final AllelicDepth depth)
+    {
+        double copyNumber = purpleCopyNumber.averageTumorCopyNumber();
+        return mPurityAdjuster.purityAdjustedVAF(purpleCopyNumber.chromosome(), Math.max(0.001, copyNumber), depth.alleleFrequency());
+    }
 }
@@ -32,24 +32,30 @@ public class SomaticPeakStream
 
         final List<ModifiableWeightedPloidy> weightedPloidies = newArrayList();
 
-        for(SomaticVariant variant : somaticVariants.variants())
+        final SomaticVariantStore store = somaticVariants.store();
+
+        for(int i = 0; i < store.count(); ++i)
         {
-            if(!variant.isPass())
+            if(!store.isPass(i))
                 continue;
 
-            if(variant.copyNumber() >= CLONALITY_MAX_PLOIDY)
+            double variantCopyNumber = store.variantCopyNumber(i);
+
+            if(variantCopyNumber >= CLONALITY_MAX_PLOIDY)
                 continue;
 
-            if(!HumanChromosome.contains(variant.chromosome()) || !HumanChromosome.fromString(variant.chromosome()).isAutosome())
+            String chromosome = store.chromosome(i);
+
+            if(!HumanChromosome.contains(chromosome) || !HumanChromosome.fromString(chromosome).isAutosome())
                 continue;
 
-            AllelicDepth depth = variant.tumorAlleleDepth();
+            AllelicDepth depth = store.tumorAlleleDepth(i);
 
             if(depth != null)
             {
                 weightedPloidies.add(ModifiableWeightedPloidy.create()
                         .from(depth)
-                        .setPloidy(variant.copyNumber())
+                        .setPloidy(variantCopyNumber)
                         .setWeight(1));
             }
         }
@@ -2,9 +2,11 @@ package com.hartwig.hmftools.purple.somatic;
 
 import java.util.List;
 
+import com.hartwig.hmftools.common.genome.position.GenomePosition;
 import com.hartwig.hmftools.common.purple.PurityAdjuster;
 import com.hartwig.hmftools.common.purple.copynumber.PurpleCopyNumber;
 import com.hartwig.hmftools.purple.region.ObservedRegion;
+import com.hartwig.hmftools.common.variant.AllelicDepth;
 import com.hartwig.hmftools.common.variant.VariantHeader;
 
 import htsjdk.variant.variantcontext.VariantContext;
@@ -27,6 +29,11 @@ public class SomaticPurityEnrichment
         mFactory.enrich(context);
     }
 
+    public double variantCopyNumber(final GenomePosition position, final AllelicDepth depth)
+    {
+        return mFactory.variantCopyNumber(position, depth);
+    }
+
     public VCFHeader enrichHeader(final VCFHeader template) {
         return VariantHeader.somaticHeader(mPurpleVersion, template);
     }
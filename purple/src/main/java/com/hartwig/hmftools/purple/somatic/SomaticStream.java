@@ -55,6 +55,7 @@ public class SomaticStream
     private final int mIndelMod;
     private int mSnpCount;
     private int mIndelCount;
+    private int mVariantCount;
 
     private VariantContextWriter mVcfWriter;
 
@@ -82,6 +83,7 @@ public class SomaticStream
         mSnpMod = somaticVariants.snpCount() <= CHART_DOWNSAMPLE_FACTOR ? 1 : somaticVariants.snpCount() / CHART_DOWNSAMPLE_FACTOR;
         mIndelMod = somaticVariants.indelCount() <= CHART_DOWNSAMPLE_FACTOR ? 1 : somaticVariants.indelCount() / CHART_DOWNSAMPLE_FACTOR;
 
+        mVariantCount = 0;
         mVcfWriter = null;
     }
 
@@ -152,7 +154,8 @@ public class SomaticStream
 
             final SomaticVariantEnrichment enricher = new SomaticVariantEnrichment(
                     !isPaveAnnotated, mConfig.Version,
-                    mConfig.ReferenceId, mConfig.TumorId, mReferenceData, purityAdjuster, copyNumbers, fittedRegions, mPeakModel);
+                    mConfig.ReferenceId, mConfig.TumorId, mReferenceData, purityAdjuster, copyNumbers, fittedRegions, mPeakModel,
+                    this::processEnrichedVariant);
 
             final VCFHeader header = enricher.populateHeader(readHeader);
             mVcfWriter.writeHeader(header);
@@ -160,48 +163,26 @@ public class SomaticStream
             boolean tumorOnly = mConfig.tumorOnlyMode();
 
             int flushCount = 100000;
-            int gcCount = 250000;
-            int varCount = 0;
+            mVariantCount = 0;
 
-            for(SomaticVariant variant : mSomaticVariants.variants())
+            // the VCF is read a second time so only variants still in an enrichment window are held in memory
+            mSomaticVariants.streamVariants(variant ->
             {
+                // expect only pass or PON to be loaded into Purple - in tumor-only mode, the PON variants should be dropped
                 if(tumorOnly && variant.isFiltered())
-                    continue;
+                    return;
 
                 enricher.enrich(variant);
-                ++varCount;
+                ++mVariantCount;
 
-                if(varCount > 0 && (varCount % flushCount) == 0)
+                if((mVariantCount % flushCount) == 0)
                 {
-                    PPL_LOGGER.debug("enriched {} somatic variants", varCount);
-
-                    if((varCount % gcCount) == 0)
-                        System.gc();
+                    PPL_LOGGER.debug("enriched {} somatic variants", mVariantCount);
                 }
-            }
+            });
 
             enricher.flush(); // finalise any enrichment routines with queued variants
 
-            // write enriched variants to VCF
-            for(SomaticVariant variant : mSomaticVariants.variants())
-            {
-                boolean isValidChromosome = HumanChromosome.contains(variant.chromosome());
-
-                if(isValidChromosome && variant.isPass())
-                {
-                    mTumorMutationalLoad.processVariant(variant);
-                    mMicrosatelliteIndels.processVariant(variant);
-                    checkDrivers(variant, true); // sets reportable flag if applicable
-
-                    mRChartData.processVariant(variant);
-                    checkChartDownsampling(variant);
-                }
-
-                // expect only pass or PON to be loaded into Purple - in tumor-only mode, the PON variants should be dropped
-                if(!tumorOnly || variant.isPass())
-                    mVcfWriter.add(variant.context());
-            }
-
             mVcfWriter.close();
             mRChartData.write();
 
@@ -216,6 +197,23 @@ public class SomaticStream
         }
     }
 
+    private void processEnrichedVariant(final SomaticVariant variant)
+    {
+        boolean isValidChromosome = HumanChromosome.contains(variant.chromosome());
+
+        if(isValidChromosome && variant.isPass())
+        {
+            mTumorMutationalLoad.processVariant(variant);
+            mMicrosatelliteIndels.processVariant(variant);
+            checkDrivers(variant, true); // sets reportable flag if applicable
+
+            mRChartData.processVariant(variant);
+            checkChartDownsampling(variant);
+        }
+
+        mVcfWriter.add(variant.context());
+    }
+
     private void checkDrivers(final SomaticVariant variant, boolean updateVcf)
     {
         boolean reported = mDrivers.checkSomaticVariant(variant);
@@ -4,6 +4,7 @@ import static com.hartwig.hmftools.purple.config.SomaticFitConfig.CLONALITY_BIN_
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.hartwig.hmftools.common.drivercatalog.panel.DriverGene;
@@ -29,7 +30,7 @@ public class SomaticVariantEnrichment
             boolean snpEffEnrichmentEnabled, final String purpleVersion,
             final String referenceId, final String tumorSample, final ReferenceData refData,
             final PurityAdjuster purityAdjuster, final List<PurpleCopyNumber> copyNumbers, final List<ObservedRegion> fittedRegions,
-            final List<PeakModel> peakModel)
+            final List<PeakModel> peakModel, final Consumer<SomaticVariant> enrichedVariantConsumer)
     {
         mGenotypeEnrichment = new SomaticGenotypeEnrichment(referenceId, tumorSample);
 
@@ -37,7 +38,7 @@ public class SomaticVariantEnrichment
 
         mPurityEnrichment = new SomaticPurityEnrichment(purpleVersion, tumorSample, purityAdjuster, copyNumbers, fittedRegions);
 
-        mKataegisEnrichment = new KataegisEnrichment();
+        mKataegisEnrichment = new KataegisEnrichment(enrichedVariantConsumer);
 
         mSomaticRefContextEnrichment = new SomaticRefContextEnrichment(refData.RefGenome, null);
 
@@ -54,6 +55,7 @@ public class SomaticVariantEnrichment
         }
     }
 
+    // kataegis detection holds variants back until their window is resolved, after which they are passed to the consumer
     public void enrich(final SomaticVariant variant)
     {
         if(mSnpEffEnrichment != null)
@@ -0,0 +1,183 @@
+package com.hartwig.hmftools.purple.somatic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.genome.position.GenomePositions;
+import com.hartwig.hmftools.common.variant.AllelicDepth;
+import com.hartwig.hmftools.common.variant.ImmutableAllelicDepthImpl;
+import com.hartwig.hmftools.common.variant.VariantType;
+
+// keeps only the values fitting and peak modelling need from each loaded somatic variant, in primitive columns indexed by
+// load order, so that the VCF records are not retained between loading and the enrichment pass which re-reads the VCF
+public class SomaticVariantStore
+{
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private static final byte FLAG_PASS = 0x01;
+    private static final byte FLAG_HOTSPOT = 0x02;
+    private static final byte FLAG_DEPTH = 0x04;
+
+    private static final VariantType[] VARIANT_TYPES = VariantType.values();
+
+    private final List<String> mChromosomes;
+    private final Map<String,Integer> mChromosomeIndices;
+
+    private short[] mChromosomeIndex;
+    private int[] mPositions;
+    private byte[] mTypes;
+    private byte[] mFlags;
+    private int[] mAlleleReadCounts;
+    private int[] mTotalReadCounts;
+    private double[] mVariantCopyNumbers; // only set once purity has been fitted
+    private int mCount;
+
+    private int[] mFittingIndices;
+    private int mFittingCount;
+
+    public SomaticVariantStore()
+    {
+        mChromosomes = Lists.newArrayList();
+        mChromosomeIndices = Maps.newHashMap();
+
+        mChromosomeIndex = new short[INITIAL_CAPACITY];
+        mPositions = new int[INITIAL_CAPACITY];
+        mTypes = new byte[INITIAL_CAPACITY];
+        mFlags = new byte[INITIAL_CAPACITY];
+        mAlleleReadCounts = new int[INITIAL_CAPACITY];
+        mTotalReadCounts = new int[INITIAL_CAPACITY];
+        mVariantCopyNumbers = null;
+        mCount = 0;
+
+        mFittingIndices = new int[INITIAL_CAPACITY];
+        mFittingCount = 0;
+    }
+
+    public int count() { return mCount; }
+    public int fittingCount() { return mFittingCount; }
+
+    public void add(final SomaticVariant variant, boolean isFittingCandidate)
+    {
+        if(mCount == mPositions.length)
+            grow();
+
+        int index = mCount++;
+
+        mChromosomeIndex[index] = chromosomeIndex(variant.chromosome());
+        mPositions[index] = variant.position();
+        mTypes[index] = (byte)variant.type().ordinal();
+
+        byte flags = 0;
+
+        if(variant.isPass())
+            flags |= FLAG_PASS;
+
+        if(variant.isHotspot())
+            flags |= FLAG_HOTSPOT;
+
+        if(variant.hasAlleleDepth())
+        {
+            flags |= FLAG_DEPTH;
+            mAlleleReadCounts[index] = variant.alleleReadCount();
+            mTotalReadCounts[index] = variant.totalReadCount();
+        }
+
+        mFlags[index] = flags;
+
+        if(isFittingCandidate)
+        {
+            if(mFittingCount == mFittingIndices.length)
+                mFittingIndices = Arrays.copyOf(mFittingIndices, mFittingIndices.length * 2);
+
+            mFittingIndices[mFittingCount++] = index;
+        }
+    }
+
+    public String chromosome(int index) { return mChromosomes.get(mChromosomeIndex[index]); }
+    public int position(int index) { return mPositions[index]; }
+    public VariantType type(int index) { return VARIANT_TYPES[mTypes[index]]; }
+    public boolean isPass(int index) { return (mFlags[index] & FLAG_PASS) != 0; }
+    public boolean isHotspot(int index) { return (mFlags[index] & FLAG_HOTSPOT) != 0; }
+    public boolean hasAlleleDepth(int index) { return (mFlags[index] & FLAG_DEPTH) != 0; }
+
+    public AllelicDepth tumorAlleleDepth(int index)
+    {
+        if(!hasAlleleDepth(index))
+            return null;
+
+        return ImmutableAllelicDepthImpl.builder()
+                .alleleReadCount(mAlleleReadCounts[index])
+                .totalReadCount(mTotalReadCounts[index])
+                .build();
+    }
+
+    public double variantCopyNumber(int index) { return mVariantCopyNumbers != null ? mVariantCopyNumbers[index] : 0; }
+
+    public void purityEnrich(final SomaticPurityEnrichment purityEnrichment)
+    {
+        mVariantCopyNumbers = new double[mCount];
+
+        for(int i = 0; i < mCount; ++i)
+        {
+            AllelicDepth depth = tumorAlleleDepth(i);
+
+            if(depth != null)
+                mVariantCopyNumbers[i] = purityEnrichment.variantCopyNumber(GenomePositions.create(chromosome(i), mPositions[i]), depth);
+        }
+    }
+
+    public List<FittingVariant> fittingVariants()
+    {
+        // created on access rather than held, since fitting only retains those in diploid regions
+        return new AbstractList<FittingVariant>()
+        {
+            @Override
+            public FittingVariant get(int fittingIndex)
+            {
+                if(fittingIndex < 0 || fittingIndex >= mFittingCount)
+                    throw new IndexOutOfBoundsException("fitting variant index " + fittingIndex);
+
+                int index = mFittingIndices[fittingIndex];
+
+                return new FittingVariant(
+                        chromosome(index), mPositions[index], isHotspot(index), mAlleleReadCounts[index], mTotalReadCounts[index]);
+            }
+
+            @Override
+            public int size() { return mFittingCount; }
+        };
+    }
+
+    private short chromosomeIndex(final String chromosome)
+    {
+        Integer index = mChromosomeIndices.get(chromosome);
+
+        if(index == null)
+        {
+            if(mChromosomes.size() > Short.MAX_VALUE)
+                throw new IllegalStateException("too many distinct chromosomes in somatic VCF");
+
+            index = mChromosomes.size();
+            mChromosomes.add(chromosome);
+            mChromosomeIndices.put(chromosome, index);
+        }
+
+        return index.shortValue();
+    }
+
+    private void grow()
+    {
+        int capacity = mPositions.length * 2;
+
+        mChromosomeIndex = Arrays.copyOf(mChromosomeIndex, capacity);
+        mPositions = Arrays.copyOf(mPositions, capacity);
+        mTypes = Arrays.copyOf(mTypes, capacity);
+        mFlags = Arrays.copyOf(mFlags, capacity);
+        mAlleleReadCounts = Arrays.copyOf(mAlleleReadCounts, capacity);
+        mTotalReadCounts = Arrays.copyOf(mTotalReadCounts, capacity);
+    }
+}
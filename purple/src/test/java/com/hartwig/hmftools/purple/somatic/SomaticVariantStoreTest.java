@@ -0,0 +1,94 @@
+package com.hartwig.hmftools.purple.somatic;
+
+import static com.hartwig.hmftools.purple.TestUtils.SAMPLE_ID;
+import static com.hartwig.hmftools.purple.TestUtils.createDefaultContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import com.hartwig.hmftools.common.variant.AllelicDepth;
+import com.hartwig.hmftools.common.variant.Hotspot;
+import com.hartwig.hmftools.common.variant.VariantType;
+
+import org.junit.Test;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+
+public class SomaticVariantStoreTest
+{
+    @Test
+    public void testStoredValues()
+    {
+        SomaticVariantStore store = new SomaticVariantStore();
+
+        // enough variants to require the columns to grow
+        int variantCount = 10000;
+
+        for(int i = 0; i < variantCount; ++i)
+        {
+            String chromosome = i < variantCount / 2 ? "1" : "2";
+            boolean isSnv = i % 3 != 0;
+
+            VariantContextBuilder builder = new VariantContextBuilder(createDefaultContext(isSnv ? VariantType.SNP : VariantType.INDEL))
+                    .chr(chromosome)
+                    .start(1000 + i)
+                    .stop(1000 + i + (isSnv ? 0 : 2));
+
+            if(i % 5 == 0)
+                builder.filter("PON");
+
+            if(i % 7 == 0)
+                builder.attribute(Hotspot.HOTSPOT_FLAG, true);
+
+            VariantContext context = builder.make();
+            SomaticVariant variant = new SomaticVariant(context, SAMPLE_ID);
+            store.add(variant, isSnv && variant.isPass());
+        }
+
+        assertEquals(variantCount, store.count());
+
+        int index = 7007;
+        assertEquals("2", store.chromosome(index));
+        assertEquals(1000 + index, store.position(index));
+        assertEquals(VariantType.SNP, store.type(index));
+        assertTrue(store.isPass(index));
+        assertTrue(store.isHotspot(index));
+
+        AllelicDepth depth = store.tumorAlleleDepth(index);
+        assertEquals(1, depth.alleleReadCount());
+        assertEquals(2, depth.totalReadCount());
+
+        assertEquals(VariantType.INDEL, store.type(3));
+        assertFalse(store.isPass(5));
+        assertFalse(store.isHotspot(5));
+        assertEquals(0, store.variantCopyNumber(index), 1e-10);
+
+        List<FittingVariant> fittingVariants = store.fittingVariants();
+        assertEquals(store.fittingCount(), fittingVariants.size());
+
+        for(FittingVariant variant : fittingVariants)
+        {
+            int variantIndex = variant.position() - 1000;
+            assertTrue(variantIndex % 3 != 0 && variantIndex % 5 != 0);
+            assertEquals(store.chromosome(variantIndex), variant.chromosome());
+            assertEquals(variantIndex % 7 == 0, variant.isHotspot());
+            assertEquals(0.5, variant.alleleFrequency(), 1e-10);
+        }
+    }
+
+    @Test
+    public void testNoDepthWithoutSample()
+    {
+        SomaticVariantStore store = new SomaticVariantStore();
+        store.add(new SomaticVariant(createDefaultContext(VariantType.SNP), null), false);
+
+        assertFalse(store.hasAlleleDepth(0));
+        assertNull(store.tumorAlleleDepth(0));
+        assertTrue(store.fittingVariants().isEmpty());
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Set;
 
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.utils.version.VersionInfo;
+import com.hartwig.hmftools.sage.cache.PartitionCache;
 import com.hartwig.hmftools.sage.coverage.Coverage;
 import com.hartwig.hmftools.sage.coverage.GeneDepthFile;
 import com.hartwig.hmftools.sage.phase.PhaseSetCounter;
@@ -85,6 +86,8 @@ public class SageApplication implements AutoCloseable
 
         final Map<String,QualityRecalibrationMap> recalibrationMap = baseQualityRecalibration.getSampleRecalibrationMap();
 
+        final PartitionCache partitionCache = PartitionCache.from(mConfig, recalibrationMap);
+
         int initMemory = calcMemoryUsage(false);
         logMemoryUsage(mConfig, "BQR", initMemory);
         System.gc();
@@ -100,7 +103,7 @@ public class SageApplication implements AutoCloseable
                 continue;
 
             final ChromosomePipeline pipeline = new ChromosomePipeline(
-                    chromosome, mConfig, mRefData, recalibrationMap, coverage, mPhaseSetCounter, mVcfWriter);
+                    chromosome, mConfig, mRefData, recalibrationMap, coverage, mPhaseSetCounter, mVcfWriter, partitionCache);
 
             pipeline.process();
             maxTaskMemory = max(pipeline.maxMemoryUsage(), maxTaskMemory);
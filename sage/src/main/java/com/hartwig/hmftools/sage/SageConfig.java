@@ -78,6 +78,7 @@ public class SageConfig
     public final String HighConfidenceBed;
     public final String CoverageBed;
     public final String OutputFile;
+    public final String CandidateCacheDir;
 
     public final String Version;
     public final int Threads;
@@ -120,6 +121,7 @@ public class SageConfig
     private static final String SPECIFIC_POSITIONS = "specific_positions";
     private static final String LOG_LPS_DATA = "log_lps_data";
     private static final String PERF_WARN_TIME = "perf_warn_time";
+    private static final String CANDIDATE_CACHE_DIR = "candidate_cache_dir";
 
     public SageConfig(boolean appendMode, @NotNull final String version, @NotNull final CommandLine cmd)
     {
@@ -185,6 +187,7 @@ public class SageConfig
         }
 
         OutputFile = SampleDataDir + cmd.getOptionValue(OUTPUT_VCF);
+        CandidateCacheDir = cmd.hasOption(CANDIDATE_CACHE_DIR) ? checkAddDirSeparator(cmd.getOptionValue(CANDIDATE_CACHE_DIR)) : "";
 
         PanelBed = getReferenceFile(cmd, PANEL_BED);
         CoverageBed = getReferenceFile(cmd, COVERAGE_BED);
@@ -282,6 +285,12 @@ public class SageConfig
             return false;
         }
 
+        if(!CandidateCacheDir.isEmpty() && !new File(CandidateCacheDir).exists() && !new File(CandidateCacheDir).mkdirs())
+        {
+            SG_LOGGER.error("unable to write candidate cache directory({})", CandidateCacheDir);
+            return false;
+        }
+
         if(!AppendMode)
         {
             if(TumorIds.isEmpty())
@@ -326,6 +335,7 @@ public class SageConfig
         options.addOption(VALIDATION_STRINGENCY, true, "SAM validation strategy: STRICT, SILENT, LENIENT [STRICT]");
         options.addOption(LOG_LPS_DATA, false, "Log local phasing data");
         options.addOption(PERF_WARN_TIME, true, "Log details of partitions taking longer than X seconds");
+        options.addOption(CANDIDATE_CACHE_DIR, true, "Directory to cache candidates and evidence per partition for reruns");
 
         commonOptions().getOptions().forEach(options::addOption);
         FilterConfig.createOptions().getOptions().forEach(options::addOption);
@@ -396,6 +406,7 @@ public class SageConfig
         HighConfidenceBed = "highConf";
         CoverageBed = "coverage";
         OutputFile = "out.vcf";
+        CandidateCacheDir = "";
         Version = "1.0";
         Threads = 1;
         LogLpsData = false;
@@ -0,0 +1,39 @@
+package com.hartwig.hmftools.sage.cache;
+
+import java.util.List;
+
+import com.hartwig.hmftools.sage.candidate.Candidate;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounter;
+import com.hartwig.hmftools.sage.phase.PhasedGroupCollection;
+
+public class CachedPartition
+{
+    public final int TotalReadsProcessed;
+    public final List<Candidate> Candidates;
+
+    // evidence is only restored if none of its inputs have changed, and is otherwise null
+    public final List<List<ReadContextCounter>> TumorReadCounters; // per tumor sample, 1:1 with the candidates
+    public final List<List<ReadContextCounter>> ReferenceReadCounters; // per reference sample, 1:1 with the hard-filtered candidates
+    public final List<PhasedGroupCollection> PhasedCollections;
+    public final int NextPhasedGroupId;
+
+    public CachedPartition(final int totalReadsProcessed, final List<Candidate> candidates)
+    {
+        this(totalReadsProcessed, candidates, null, null, null, 0);
+    }
+
+    public CachedPartition(
+            final int totalReadsProcessed, final List<Candidate> candidates, final List<List<ReadContextCounter>> tumorReadCounters,
+            final List<List<ReadContextCounter>> referenceReadCounters, final List<PhasedGroupCollection> phasedCollections,
+            final int nextPhasedGroupId)
+    {
+        TotalReadsProcessed = totalReadsProcessed;
+        Candidates = candidates;
+        TumorReadCounters = tumorReadCounters;
+        ReferenceReadCounters = referenceReadCounters;
+        PhasedCollections = phasedCollections;
+        NextPhasedGroupId = nextPhasedGroupId;
+    }
+
+    public boolean hasEvidence() { return TumorReadCounters != null; }
+}
@@ -0,0 +1,579 @@
+package com.hartwig.hmftools.sage.cache;
+
+import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
+import static com.hartwig.hmftools.sage.SageConstants.ITEM_DELIM;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.hartwig.hmftools.common.utils.sv.BaseRegion;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.common.variant.hotspot.ImmutableVariantHotspotImpl;
+import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
+import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.candidate.Candidate;
+import com.hartwig.hmftools.sage.common.IndexedBases;
+import com.hartwig.hmftools.sage.common.ReadContext;
+import com.hartwig.hmftools.sage.common.VariantTier;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounter;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounterFactory;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounters;
+import com.hartwig.hmftools.sage.phase.PhasedGroupCollection;
+import com.hartwig.hmftools.sage.phase.PhasedVariantGroup;
+import com.hartwig.hmftools.sage.phase.VariantPhaser;
+import com.hartwig.hmftools.sage.quality.QualityConfig;
+import com.hartwig.hmftools.sage.quality.QualityRecalibrationMap;
+import com.hartwig.hmftools.sage.quality.QualityRecalibrationRecord;
+
+// persists each partition's candidates and their evidence, so a rerun only reads BAMs for partitions whose inputs have changed:
+// - candidates are reused if the tumor BAMs, ref genome, partition's hotspots and panel and candidate settings are unchanged
+// - evidence is also reused if additionally the reference BAMs, BQR, quality settings and hard filters are unchanged
+// soft and final filters are applied afterwards, so changing only those recomputes no evidence
+// BAMs are identified by path, size and modification time rather than by their contents
+public class PartitionCache
+{
+    private final String mCacheDir;
+    private final SageConfig mConfig;
+    private final ReadContextCounterFactory mCounterFactory;
+
+    // digests of the run-wide inputs
+    private final byte[] mCandidateInputs;
+    private final byte[] mEvidenceInputs;
+
+    private static final int CACHE_FILE_ID = 0x53414745; // 'SAGE'
+    private static final int CACHE_FILE_VERSION = 1;
+    private static final String CACHE_FILE_EXTENSION = ".sage.cache";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    public PartitionCache(
+            final String cacheDir, final SageConfig config, final Map<String,QualityRecalibrationMap> qualityRecalibrationMap)
+    {
+        mCacheDir = cacheDir;
+        mConfig = config;
+        mCounterFactory = new ReadContextCounterFactory(config);
+
+        mCandidateInputs = digest(output -> writeCandidateInputs(output, config));
+        mEvidenceInputs = digest(output -> writeEvidenceInputs(output, config, qualityRecalibrationMap));
+    }
+
+    public static PartitionCache from(final SageConfig config, final Map<String,QualityRecalibrationMap> qualityRecalibrationMap)
+    {
+        if(config.CandidateCacheDir.isEmpty())
+            return null;
+
+        if(!config.CoverageBed.isEmpty())
+        {
+            // gene coverage is accumulated while reading candidates, so would be incomplete for any reused partition
+            SG_LOGGER.warn("candidate cache disabled since coverage is calculated");
+            return null;
+        }
+
+        SG_LOGGER.info("using candidate cache dir: {}", config.CandidateCacheDir);
+        return new PartitionCache(config.CandidateCacheDir, config, qualityRecalibrationMap);
+    }
+
+    public PartitionCacheKey createKey(
+            final ChrBaseRegion region, final List<VariantHotspot> hotspots, final List<BaseRegion> panelRegions,
+            final List<BaseRegion> highConfidenceRegions)
+    {
+        byte[] candidateKey = digest(output ->
+        {
+            output.write(mCandidateInputs);
+            writeRegionInputs(output, region, hotspots, panelRegions, highConfidenceRegions);
+        });
+
+        byte[] evidenceKey = digest(output ->
+        {
+            output.write(candidateKey);
+            output.write(mEvidenceInputs);
+        });
+
+        String sampleId = !mConfig.TumorIds.isEmpty() ? mConfig.TumorIds.get(0) : "";
+
+        String filename = new File(mCacheDir, String.format("%s.%s_%d_%d%s",
+                sampleId, region.Chromosome, region.start(), region.end(), CACHE_FILE_EXTENSION)).getPath();
+
+        return new PartitionCacheKey(filename, candidateKey, evidenceKey);
+    }
+
+    public CachedPartition load(final PartitionCacheKey key)
+    {
+        File cacheFile = new File(key.Filename);
+
+        if(!cacheFile.exists())
+            return null;
+
+        try(DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile)))))
+        {
+            if(input.readInt() != CACHE_FILE_ID || input.readInt() != CACHE_FILE_VERSION)
+                return null;
+
+            byte[] candidateKey = readBytes(input);
+            byte[] evidenceKey = readBytes(input);
+
+            if(!Arrays.equals(candidateKey, key.CandidateKey))
+                return null;
+
+            int totalReadsProcessed = input.readInt();
+
+            int candidateCount = input.readInt();
+            List<Candidate> candidates = Lists.newArrayListWithExpectedSize(candidateCount);
+
+            for(int i = 0; i < candidateCount; ++i)
+            {
+                candidates.add(readCandidate(input));
+            }
+
+            if(!Arrays.equals(evidenceKey, key.EvidenceKey))
+                return new CachedPartition(totalReadsProcessed, candidates);
+
+            List<List<ReadContextCounter>> tumorReadCounters = readReadCounters(input, candidates);
+
+            int filteredCount = input.readInt();
+            List<Candidate> filteredCandidates = Lists.newArrayListWithExpectedSize(filteredCount);
+
+            for(int i = 0; i < filteredCount; ++i)
+            {
+                filteredCandidates.add(candidates.get(input.readInt()));
+            }
+
+            List<List<ReadContextCounter>> referenceReadCounters = readReadCounters(input, filteredCandidates);
+
+            // phasing groups reference the first tumor sample's read counters by ID
+            List<ReadContextCounter> phasingReadCounters = !tumorReadCounters.isEmpty() ? tumorReadCounters.get(0) : Lists.newArrayList();
+
+            int nextGroupId = input.readInt();
+            int collectionCount = input.readInt();
+            List<PhasedGroupCollection> collections = Lists.newArrayListWithExpectedSize(collectionCount);
+
+            for(int i = 0; i < collectionCount; ++i)
+            {
+                collections.add(readPhasedCollection(input, phasingReadCounters));
+            }
+
+            return new CachedPartition(totalReadsProcessed, candidates, tumorReadCounters, referenceReadCounters, collections, nextGroupId);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            SG_LOGGER.warn("ignoring invalid candidate cache file({}): {}", key.Filename, e.toString());
+            return null;
+        }
+    }
+
+    public void write(
+            final PartitionCacheKey key, int totalReadsProcessed, final List<Candidate> candidates,
+            final ReadContextCounters tumorEvidence, final ReadContextCounters referenceEvidence, final VariantPhaser variantPhaser)
+    {
+        // written to a temporary file then moved into place, so that an interrupted run leaves no partial cache file
+        File cacheFile = new File(key.Filename);
+        File tempFile = null;
+
+        try
+        {
+            tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+
+            try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tempFile)))))
+            {
+                output.writeInt(CACHE_FILE_ID);
+                output.writeInt(CACHE_FILE_VERSION);
+                writeBytes(output, key.CandidateKey);
+                writeBytes(output, key.EvidenceKey);
+
+                output.writeInt(totalReadsProcessed);
+                output.writeInt(candidates.size());
+
+                for(Candidate candidate : candidates)
+                {
+                    writeCandidate(output, candidate);
+                }
+
+                List<Integer> filteredIndices = tumorEvidence.filteredCandidateIndices();
+
+                writeReadCounters(output, tumorEvidence, mConfig.TumorIds.size());
+
+                output.writeInt(filteredIndices.size());
+
+                for(Integer index : filteredIndices)
+                {
+                    output.writeInt(index);
+                }
+
+                writeReadCounters(output, referenceEvidence, mConfig.ReferenceIds.size());
+
+                output.writeInt(variantPhaser.nextGroupId());
+                output.writeInt(variantPhaser.getPhasedCollections().size());
+
+                for(PhasedGroupCollection collection : variantPhaser.getPhasedCollections())
+                {
+                    writePhasedCollection(output, collection);
+                }
+            }
+
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e)
+        {
+            SG_LOGGER.warn("failed to write candidate cache file({}): {}", key.Filename, e.toString());
+
+            if(tempFile != null)
+                tempFile.delete();
+        }
+    }
+
+    private static void writeCandidate(final DataOutputStream output, final Candidate candidate) throws IOException
+    {
+        output.writeUTF(candidate.tier().name());
+
+        VariantHotspot variant = candidate.variant();
+        output.writeUTF(variant.chromosome());
+        output.writeInt(variant.position());
+        output.writeUTF(variant.ref());
+        output.writeUTF(variant.alt());
+
+        ReadContext readContext = candidate.readContext();
+        output.writeInt(readContext.Position);
+        output.writeUTF(readContext.Repeat);
+        output.writeInt(readContext.RepeatCount);
+        output.writeUTF(readContext.Microhomology);
+        output.writeBoolean(readContext.hasIncompleteCore());
+
+        IndexedBases readBases = readContext.indexedBases();
+        output.writeInt(readBases.Position);
+        output.writeInt(readBases.Index);
+        output.writeInt(readBases.LeftCoreIndex);
+        output.writeInt(readBases.RightCoreIndex);
+        output.writeInt(readBases.FlankSize);
+        writeBytes(output, readBases.Bases);
+
+        output.writeInt(candidate.maxReadDepth());
+        output.writeInt(candidate.minNumberOfEvents());
+        output.writeInt(candidate.readContextSupport());
+        output.writeInt(candidate.rawSupportAlt());
+        output.writeInt(candidate.rawBaseQualityAlt());
+    }
+
+    private static Candidate readCandidate(final DataInputStream input) throws IOException
+    {
+        VariantTier tier = VariantTier.valueOf(input.readUTF());
+
+        VariantHotspot variant = ImmutableVariantHotspotImpl.builder()
+                .chromosome(input.readUTF())
+                .position(input.readInt())
+                .ref(input.readUTF())
+                .alt(input.readUTF())
+                .build();
+
+        int position = input.readInt();
+        String repeat = input.readUTF();
+        int repeatCount = input.readInt();
+        String microhomology = input.readUTF();
+        boolean incompleteCore = input.readBoolean();
+
+        IndexedBases readBases = new IndexedBases(
+                input.readInt(), input.readInt(), input.readInt(), input.readInt(), input.readInt(), readBytes(input));
+
+        ReadContext readContext = new ReadContext(position, repeat, repeatCount, microhomology, readBases, incompleteCore);
+
+        return new Candidate(
+                tier, variant, readContext, input.readInt(), input.readInt(), input.readInt(), input.readInt(), input.readInt());
+    }
+
+    private static void writeReadCounters(final DataOutputStream output, final ReadContextCounters evidence, int sampleCount)
+            throws IOException
+    {
+        output.writeInt(sampleCount);
+
+        if(sampleCount == 0)
+            return;
+
+        for(int i = 0; i < evidence.candidateCount(); ++i)
+        {
+            for(ReadContextCounter readCounter : evidence.getReadCounters(i))
+            {
+                readCounter.writeEvidence(output);
+            }
+        }
+    }
+
+    private List<List<ReadContextCounter>> readReadCounters(final DataInputStream input, final List<Candidate> candidates)
+            throws IOException
+    {
+        int sampleCount = input.readInt();
+
+        List<List<ReadContextCounter>> sampleReadCounters = Lists.newArrayListWithExpectedSize(sampleCount);
+
+        for(int s = 0; s < sampleCount; ++s)
+        {
+            sampleReadCounters.add(mCounterFactory.create(candidates));
+        }
+
+        for(int i = 0; i < candidates.size(); ++i)
+        {
+            for(List<ReadContextCounter> readCounters : sampleReadCounters)
+            {
+                readCounters.get(i).readEvidence(input);
+            }
+        }
+
+        return sampleReadCounters;
+    }
+
+    private static void writePhasedCollection(final DataOutputStream output, final PhasedGroupCollection collection) throws IOException
+    {
+        // collections are persisted as registered from reads, before being finalised
+        output.writeInt(collection.id());
+        output.writeInt(collection.minPosition());
+        output.writeInt(collection.maxPosition());
+        output.writeInt(collection.groupsMap().size());
+
+        for(Map.Entry<Integer,List<PhasedVariantGroup>> entry : collection.groupsMap().entrySet())
+        {
+            output.writeInt(entry.getKey());
+            output.writeInt(entry.getValue().size());
+
+            for(PhasedVariantGroup group : entry.getValue())
+            {
+                output.writeInt(group.Id);
+                output.writeInt(group.posVariantMin());
+                output.writeInt(group.posVariantMax());
+                output.writeInt(group.variantMin());
+                output.writeInt(group.variantMax());
+                output.writeInt(group.ReadCount);
+                writeReadCounterIds(output, group.PositiveReadCounters);
+                writeReadCounterIds(output, group.NegativeReadCounters);
+            }
+        }
+    }
+
+    private static PhasedGroupCollection readPhasedCollection(
+            final DataInputStream input, final List<ReadContextCounter> readCounters) throws IOException
+    {
+        PhasedGroupCollection collection = new PhasedGroupCollection(input.readInt(), input.readInt(), input.readInt());
+
+        int entryCount = input.readInt();
+        Map<Integer,List<PhasedVariantGroup>> groupsMap = Maps.newHashMapWithExpectedSize(entryCount);
+
+        for(int i = 0; i < entryCount; ++i)
+        {
+            int posVarMin = input.readInt();
+            int groupCount = input.readInt();
+            List<PhasedVariantGroup> groups = Lists.newArrayListWithExpectedSize(groupCount);
+
+            for(int j = 0; j < groupCount; ++j)
+            {
+                int id = input.readInt();
+                int posVariantMin = input.readInt();
+                int posVariantMax = input.readInt();
+                int variantMin = input.readInt();
+                int variantMax = input.readInt();
+                int readCount = input.readInt();
+                List<ReadContextCounter> posCounters = readReadCounterIds(input, readCounters);
+                List<ReadContextCounter> negCounters = readReadCounterIds(input, readCounters);
+
+                groups.add(new PhasedVariantGroup(
+                        id, posCounters, negCounters, posVariantMin, posVariantMax, variantMin, variantMax, readCount));
+            }
+
+            groupsMap.put(posVarMin, groups);
+        }
+
+        collection.groupsMap().putAll(groupsMap);
+        return collection;
+    }
+
+    private static void writeReadCounterIds(final DataOutputStream output, final List<ReadContextCounter> readCounters)
+            throws IOException
+    {
+        output.writeInt(readCounters.size());
+
+        for(ReadContextCounter readCounter : readCounters)
+        {
+            output.writeInt(readCounter.id());
+        }
+    }
+
+    private static List<ReadContextCounter> readReadCounterIds(final DataInputStream input, final List<ReadContextCounter> readCounters)
+            throws IOException
+    {
+        int count = input.readInt();
+        List<ReadContextCounter> idCounters = Lists.newArrayListWithExpectedSize(count);
+
+        for(int i = 0; i < count; ++i)
+        {
+            idCounters.add(readCounters.get(input.readInt()));
+        }
+
+        return idCounters;
+    }
+
+    private static void writeBytes(final DataOutputStream output, final byte[] bytes) throws IOException
+    {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream input) throws IOException
+    {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeCandidateInputs(final DataOutputStream output, final SageConfig config) throws IOException
+    {
+        output.writeInt(CACHE_FILE_VERSION);
+        output.writeUTF(config.Version);
+        writeFileFingerprint(output, config.RefGenomeFile);
+
+        output.writeInt(config.TumorIds.size());
+
+        for(int i = 0; i < config.TumorIds.size(); ++i)
+        {
+            output.writeUTF(config.TumorIds.get(i));
+            writeFileFingerprint(output, i < config.TumorBams.size() ? config.TumorBams.get(i) : "");
+        }
+
+        output.writeUTF(config.Stringency.name());
+        output.writeBoolean(config.PanelOnly);
+        output.writeBoolean(config.MnvEnabled);
+        output.writeUTF(config.SpecificPositions.stream().sorted().map(String::valueOf).collect(Collectors.joining(ITEM_DELIM)));
+        output.writeInt(config.MinMapQuality);
+        output.writeInt(config.MaxReadDepth);
+        output.writeInt(config.MaxReadDepthPanel);
+        output.writeInt(config.ReadContextFlankSize);
+        output.writeInt(config.typicalReadLength());
+        output.writeInt(config.Filter.HardMinTumorRawAltSupport);
+        output.writeInt(config.Filter.HardMinTumorRawBaseQuality);
+
+        QualityConfig qualityConfig = config.Quality;
+        output.writeDouble(qualityConfig.JitterPenalty);
+        output.writeInt(qualityConfig.JitterMinRepeatCount);
+        output.writeInt(qualityConfig.BaseQualityFixedPenalty);
+        output.writeInt(qualityConfig.DistanceFromReadEdgeFixedPenalty);
+        output.writeInt(qualityConfig.MapQualityFixedPenalty);
+        output.writeInt(qualityConfig.MapQualityReadEventsPenalty);
+        output.writeInt(qualityConfig.MapQualityImproperPairPenalty);
+    }
+
+    private static void writeEvidenceInputs(
+            final DataOutputStream output, final SageConfig config, final Map<String,QualityRecalibrationMap> qualityRecalibrationMap)
+            throws IOException
+    {
+        output.writeInt(config.ReferenceIds.size());
+
+        for(int i = 0; i < config.ReferenceIds.size(); ++i)
+        {
+            output.writeUTF(config.ReferenceIds.get(i));
+            writeFileFingerprint(output, i < config.ReferenceBams.size() ? config.ReferenceBams.get(i) : "");
+        }
+
+        output.writeInt(config.Filter.HardMinTumorQual);
+        output.writeDouble(config.Filter.HardMinTumorVaf);
+
+        // the recalibrated qualities themselves, since these are re-derived or reloaded on each run
+        List<String> sampleIds = Lists.newArrayList(qualityRecalibrationMap.keySet());
+        sampleIds.sort(String::compareTo);
+
+        for(String sampleId : sampleIds)
+        {
+            output.writeUTF(sampleId);
+
+            List<QualityRecalibrationRecord> records = Lists.newArrayList(qualityRecalibrationMap.get(sampleId).records());
+            records.sort(QualityRecalibrationRecord::compareTo);
+            output.writeInt(records.size());
+
+            for(QualityRecalibrationRecord record : records)
+            {
+                output.writeByte(record.Key.Ref);
+                output.writeByte(record.Key.Alt);
+                output.writeByte(record.Key.Quality);
+                writeBytes(output, record.Key.TrinucleotideContext != null ? record.Key.TrinucleotideContext : new byte[0]);
+                output.writeDouble(record.RecalibratedQuality);
+            }
+        }
+    }
+
+    private static void writeRegionInputs(
+            final DataOutputStream output, final ChrBaseRegion region, final List<VariantHotspot> hotspots,
+            final List<BaseRegion> panelRegions, final List<BaseRegion> highConfidenceRegions) throws IOException
+    {
+        output.writeUTF(region.Chromosome);
+        output.writeInt(region.start());
+        output.writeInt(region.end());
+
+        output.writeInt(hotspots.size());
+
+        for(VariantHotspot hotspot : hotspots)
+        {
+            output.writeInt(hotspot.position());
+            output.writeUTF(hotspot.ref());
+            output.writeUTF(hotspot.alt());
+        }
+
+        writeRegions(output, panelRegions);
+        writeRegions(output, highConfidenceRegions);
+    }
+
+    private static void writeRegions(final DataOutputStream output, final List<BaseRegion> regions) throws IOException
+    {
+        output.writeInt(regions.size());
+
+        for(BaseRegion region : regions)
+        {
+            output.writeInt(region.start());
+            output.writeInt(region.end());
+        }
+    }
+
+    private static void writeFileFingerprint(final DataOutputStream output, final String filename) throws IOException
+    {
+        File file = new File(filename);
+        output.writeUTF(file.getAbsolutePath());
+        output.writeLong(file.length());
+        output.writeLong(file.lastModified());
+    }
+
+    private interface DigestWriter
+    {
+        void write(final DataOutputStream output) throws IOException;
+    }
+
+    private static byte[] digest(final DigestWriter writer)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+
+            try(DataOutputStream output = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest)))
+            {
+                writer.write(output);
+            }
+
+            return digest.digest();
+        }
+        catch(NoSuchAlgorithmException | IOException e)
+        {
+            throw new IllegalStateException("failed to create candidate cache key: " + e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.hartwig.hmftools.sage.cache;
+
+public class PartitionCacheKey
+{
+    public final String Filename;
+
+    // digests of all inputs which determine a partition's candidates, and of those which additionally determine its evidence
+    public final byte[] CandidateKey;
+    public final byte[] EvidenceKey;
+
+    public PartitionCacheKey(final String filename, final byte[] candidateKey, final byte[] evidenceKey)
+    {
+        Filename = filename;
+        CandidateKey = candidateKey;
+        EvidenceKey = evidenceKey;
+    }
+}
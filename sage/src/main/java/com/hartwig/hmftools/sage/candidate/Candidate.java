@@ -62,6 +62,7 @@ public class Candidate
 
     public int maxReadDepth() { return mMaxDepth; }
     public int minNumberOfEvents() { return mMinNumberOfEvents; }
+    public int readContextSupport() { return mReadContextSupport; }
     public int rawSupportAlt() { return mRawSupportAlt; }
     public int rawBaseQualityAlt() { return mRawBaseQualityAlt; }
 
@@ -25,6 +25,9 @@ import static htsjdk.samtools.CigarOperator.I;
 import static htsjdk.samtools.CigarOperator.M;
 import static htsjdk.samtools.CigarOperator.S;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -610,6 +613,55 @@ public class ReadContextCounter implements VariantHotspot
         mLpsCounts.add(index, new int[] { readCount, (int)allocCount } );
     }
 
+    public void writeEvidence(final DataOutput output) throws IOException
+    {
+        // persists the evidence gathered from reads, for restoration into a counter created from the same candidate
+        for(int i = 0; i < RC_MAX; ++i)
+        {
+            output.writeInt(mQualities[i]);
+            output.writeInt(mCounts[i]);
+        }
+
+        output.writeInt(mLengthened);
+        output.writeInt(mShortened);
+        output.writeInt(mForwardStrand);
+        output.writeInt(mReverseStrand);
+        output.writeDouble(mJitterPenalty);
+        output.writeInt(mImproperPair);
+        output.writeInt(mRawDepth);
+        output.writeInt(mRawAltSupport);
+        output.writeInt(mRawRefSupport);
+        output.writeInt(mRawAltBaseQuality);
+        output.writeInt(mRawRefBaseQuality);
+        output.writeDouble(mSupportAltBaseQualityTotal);
+        output.writeInt(mSoftClipInsertSupport);
+        output.writeInt(mMaxCandidateDeleteLength);
+    }
+
+    public void readEvidence(final DataInput input) throws IOException
+    {
+        for(int i = 0; i < RC_MAX; ++i)
+        {
+            mQualities[i] = input.readInt();
+            mCounts[i] = input.readInt();
+        }
+
+        mLengthened = input.readInt();
+        mShortened = input.readInt();
+        mForwardStrand = input.readInt();
+        mReverseStrand = input.readInt();
+        mJitterPenalty = input.readDouble();
+        mImproperPair = input.readInt();
+        mRawDepth = input.readInt();
+        mRawAltSupport = input.readInt();
+        mRawRefSupport = input.readInt();
+        mRawAltBaseQuality = input.readInt();
+        mRawRefBaseQuality = input.readInt();
+        mSupportAltBaseQualityTotal = input.readDouble();
+        mSoftClipInsertSupport = input.readInt();
+        mMaxCandidateDeleteLength = input.readInt();
+    }
+
     private void countStrandedness(final SAMRecord record)
     {
         if(record.getFirstOfPairFlag())
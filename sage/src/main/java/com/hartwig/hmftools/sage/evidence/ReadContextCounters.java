@@ -28,6 +28,7 @@ public class ReadContextCounters
 
     public int candidateCount() { return mCandidates.size(); }
     public VariantFilters variantFilters() { return mVariantFilters; }
+    public List<Integer> filteredCandidateIndices() { return mFilteredCandidateIndex; }
 
     public List<ReadContextCounter> getReadCounters(final int candidateIndex)
     {
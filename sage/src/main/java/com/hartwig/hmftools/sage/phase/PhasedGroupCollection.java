@@ -31,6 +31,14 @@ public class PhasedGroupCollection
         mMaxPostion = 0;
     }
 
+    public PhasedGroupCollection(int id, int minPosition, int maxPosition)
+    {
+        this(id);
+        mMinPostion = minPosition;
+        mMaxPostion = maxPosition;
+    }
+
+    public int id() { return mId; }
     public int minPosition() { return mMinPostion;}
     public int maxPosition() { return mMaxPostion;}
 
@@ -58,6 +58,25 @@ public class PhasedVariantGroup
         mMergedIds = Lists.newArrayList();
     }
 
+    public PhasedVariantGroup(
+            final int id, final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters,
+            int posVariantMin, int posVariantMax, int variantMin, int variantMax, int readCount)
+    {
+        // restores a group as registered from reads, prior to any merging or allocation
+        Id = id;
+        PositiveReadCounters = posCounters;
+        NegativeReadCounters = negCounters;
+
+        mPosVariantMin = posVariantMin;
+        mPosVariantMax = posVariantMax;
+        mVariantMin = variantMin;
+        mVariantMax = variantMax;
+
+        ReadCount = readCount;
+        AllocatedReadCount = 0;
+        mMergedIds = Lists.newArrayList();
+    }
+
     public int posVariantMin() { return mPosVariantMin; }
     public int posVariantMax() { return mPosVariantMax; }
     public int variantMin() { return mVariantMin; }
@@ -56,6 +56,7 @@ public class VariantPhaser
     public int getPhasingGroupCount() { return mPhasedGroupCollections.stream().mapToInt(x -> x.groupCount()).sum(); }
     public PerformanceCounter getPerfCounter() { return mPerfCounter; }
     public ChrBaseRegion region() { return mRegion; }
+    public int nextGroupId() { return mNextGroupId; }
 
     public void clearAll()
     {
@@ -73,6 +74,13 @@ public class VariantPhaser
         mPerfCounter.pause();
     }
 
+    public void restorePhasedCollections(final List<PhasedGroupCollection> collections, int nextGroupId)
+    {
+        // reinstates the groups registered from reads in a previous run of this region
+        mPhasedGroupCollections.addAll(collections);
+        mNextGroupId = nextGroupId;
+    }
+
     public void registeredPhasedVariants(final List<ReadContextCounter> posCounters, final List<ReadContextCounter> negCounters)
     {
         if(posCounters.isEmpty() || posCounters.size() + negCounters.size() < 2)
@@ -24,6 +24,7 @@ import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.sage.ReferenceData;
 import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.cache.PartitionCache;
 import com.hartwig.hmftools.sage.common.PartitionTask;
 import com.hartwig.hmftools.sage.coverage.Coverage;
 import com.hartwig.hmftools.sage.phase.PhaseSetCounter;
@@ -41,6 +42,7 @@ public class ChromosomePipeline implements AutoCloseable
     private final Map<String,QualityRecalibrationMap> mQualityRecalibrationMap;
     private final Coverage mCoverage;
     private  final PhaseSetCounter mPhaseSetCounter;
+    private final PartitionCache mPartitionCache;
 
     private final VcfWriter mVcfWriter;
     private final Queue<PartitionTask> mPartitions;
@@ -55,7 +57,8 @@ public class ChromosomePipeline implements AutoCloseable
     public ChromosomePipeline(
             final String chromosome, final SageConfig config,
             final ReferenceData refData, final Map<String,QualityRecalibrationMap> qualityRecalibrationMap,
-            final Coverage coverage, final PhaseSetCounter phaseSetCounter, final VcfWriter vcfWriter)
+            final Coverage coverage, final PhaseSetCounter phaseSetCounter, final VcfWriter vcfWriter,
+            final PartitionCache partitionCache)
     {
         mChromosome = chromosome;
         mConfig = config;
@@ -63,6 +66,7 @@ public class ChromosomePipeline implements AutoCloseable
         mQualityRecalibrationMap = qualityRecalibrationMap;
         mCoverage = coverage;
         mPhaseSetCounter = phaseSetCounter;
+        mPartitionCache = partitionCache;
 
         mVcfWriter = vcfWriter;
 
@@ -113,7 +117,7 @@ public class ChromosomePipeline implements AutoCloseable
         {
             workers.add(new RegionThread(
                     mChromosome, mConfig, mQualityRecalibrationMap, mCoverage, mPhaseSetCounter,
-                    mPanelRegions, mHotspots, mTranscripts, mHighConfidenceRegions, mPartitions, mRegionResults));
+                    mPanelRegions, mHotspots, mTranscripts, mHighConfidenceRegions, mPartitions, mRegionResults, mPartitionCache));
         }
 
         for(Thread worker : workers)
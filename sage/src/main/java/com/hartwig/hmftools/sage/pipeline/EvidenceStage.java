@@ -12,6 +12,7 @@ import com.hartwig.hmftools.sage.SageConfig;
 import com.hartwig.hmftools.sage.common.SamSlicerFactory;
 import com.hartwig.hmftools.sage.common.SamSlicerInterface;
 import com.hartwig.hmftools.sage.evidence.ReadContextEvidence;
+import com.hartwig.hmftools.sage.phase.PhasedGroupCollection;
 import com.hartwig.hmftools.sage.phase.VariantPhaser;
 import com.hartwig.hmftools.sage.phase.PhaseSetCounter;
 import com.hartwig.hmftools.sage.quality.QualityRecalibrationMap;
@@ -68,5 +69,24 @@ public class EvidenceStage
         return readContextCounters;
     }
 
+    public ReadContextCounters restoreEvidence(final List<Candidate> candidates, final List<List<ReadContextCounter>> sampleReadCounters)
+    {
+        // reinstates evidence from a previous run, in place of searching BAMs
+        final ReadContextCounters readContextCounters = new ReadContextCounters(mConfig.Filter, candidates);
+
+        for(List<ReadContextCounter> readCounters : sampleReadCounters)
+        {
+            readContextCounters.addCounters(readCounters, sampleReadCounters.size());
+        }
+
+        return readContextCounters;
+    }
+
+    public void restorePhasing(final ChrBaseRegion region, final List<PhasedGroupCollection> phasedCollections, int nextGroupId)
+    {
+        mVariantPhaser.initialise(region, mConfig.LogLpsData);
+        mVariantPhaser.restorePhasedCollections(phasedCollections, nextGroupId);
+    }
+
     public VariantPhaser getVariantPhaser() { return mVariantPhaser; }
 }
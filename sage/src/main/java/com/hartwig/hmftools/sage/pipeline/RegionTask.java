@@ -20,6 +20,9 @@ import com.hartwig.hmftools.sage.candidate.Candidate;
 import com.hartwig.hmftools.sage.common.RefSequence;
 import com.hartwig.hmftools.sage.common.SageVariant;
 import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.cache.CachedPartition;
+import com.hartwig.hmftools.sage.cache.PartitionCache;
+import com.hartwig.hmftools.sage.cache.PartitionCacheKey;
 import com.hartwig.hmftools.sage.common.SamSlicerFactory;
 import com.hartwig.hmftools.sage.filter.VariantFilters;
 import com.hartwig.hmftools.sage.coverage.Coverage;
@@ -45,6 +48,10 @@ public class RegionTask
     private final EvidenceStage mEvidenceStage;
     private final VariantDeduper mVariantDeduper;
 
+    private final PartitionCache mPartitionCache;
+    private final PartitionCacheKey mPartitionCacheKey;
+    private int mTotalReadsProcessed;
+
     private final List<SageVariant> mSageVariants;
     private final Set<Integer> mPassingPhaseSets;
 
@@ -58,7 +65,8 @@ public class RegionTask
             final int taskId, final ChrBaseRegion region, final RegionResults results, final SageConfig config, final RefGenomeInterface refGenome,
             final List<VariantHotspot> hotspots, final List<BaseRegion> panelRegions, final List<TranscriptData> transcripts,
             final List<BaseRegion> highConfidenceRegions, final Map<String, QualityRecalibrationMap> qualityRecalibrationMap,
-            final PhaseSetCounter phaseSetCounter, final Coverage coverage, final SamSlicerFactory samSlicerFactory)
+            final PhaseSetCounter phaseSetCounter, final Coverage coverage, final SamSlicerFactory samSlicerFactory,
+            final PartitionCache partitionCache)
     {
         mTaskId = taskId;
         mRegion = region;
@@ -71,6 +79,11 @@ public class RegionTask
 
         mVariantDeduper = new VariantDeduper(transcripts);
 
+        mPartitionCache = partitionCache;
+        mPartitionCacheKey = partitionCache != null ?
+                partitionCache.createKey(region, hotspots, panelRegions, highConfidenceRegions) : null;
+        mTotalReadsProcessed = 0;
+
         mSageVariants = Lists.newArrayList();
         mPassingPhaseSets = Sets.newHashSet();
 
@@ -92,16 +105,32 @@ public class RegionTask
     {
         SG_LOGGER.trace("{}: region({}) finding candidates", mTaskId, mRegion);
 
-        final RefSequence refSequence = new RefSequence(mRegion, mRefGenome);
-
         mPerfCounters.get(PC_CANDIDATES).start();
-        List<Candidate> initialCandidates = mCandidateState.findCandidates(mRegion, refSequence);
+
+        CachedPartition cachedPartition = mPartitionCache != null ? mPartitionCache.load(mPartitionCacheKey) : null;
+        List<Candidate> initialCandidates;
+
+        if(cachedPartition != null)
+        {
+            SG_LOGGER.trace("{}: region({}) loaded {} cached candidates, evidence({})",
+                    mTaskId, mRegion, cachedPartition.Candidates.size(), cachedPartition.hasEvidence() ? "cached" : "changed");
+
+            initialCandidates = cachedPartition.Candidates;
+            mTotalReadsProcessed = cachedPartition.TotalReadsProcessed;
+        }
+        else
+        {
+            final RefSequence refSequence = new RefSequence(mRegion, mRefGenome);
+            initialCandidates = mCandidateState.findCandidates(mRegion, refSequence);
+            mTotalReadsProcessed = mCandidateState.totalReadsProcessed();
+        }
+
         mPerfCounters.get(PC_CANDIDATES).stop();
 
         if(mConfig.PerfWarnTime > 0 && mPerfCounters.get(PC_CANDIDATES).getLastTime() > mConfig.PerfWarnTime)
         {
             SG_LOGGER.warn("region({}) candidate({}) reads({}) processing time({})",
-                    mRegion, initialCandidates.size(), mCandidateState.totalReadsProcessed(),
+                    mRegion, initialCandidates.size(), mTotalReadsProcessed,
                     String.format("%.3f", mPerfCounters.get(PC_CANDIDATES).getLastTime()));
         }
 
@@ -109,13 +138,35 @@ public class RegionTask
 
         mPerfCounters.get(PC_EVIDENCE).start();
 
-        ReadContextCounters tumorEvidence = mEvidenceStage.findEvidence(
-                mRegion, "tumor", mConfig.TumorIds, initialCandidates, true);
+        ReadContextCounters tumorEvidence;
+        List<Candidate> finalCandidates;
+        ReadContextCounters normalEvidence;
+
+        if(cachedPartition != null && cachedPartition.hasEvidence())
+        {
+            tumorEvidence = mEvidenceStage.restoreEvidence(initialCandidates, cachedPartition.TumorReadCounters);
+            finalCandidates = tumorEvidence.filterCandidates();
+            normalEvidence = mEvidenceStage.restoreEvidence(finalCandidates, cachedPartition.ReferenceReadCounters);
+            mEvidenceStage.restorePhasing(mRegion, cachedPartition.PhasedCollections, cachedPartition.NextPhasedGroupId);
+        }
+        else
+        {
+            tumorEvidence = mEvidenceStage.findEvidence(
+                    mRegion, "tumor", mConfig.TumorIds, initialCandidates, true);
+
+            finalCandidates = tumorEvidence.filterCandidates();
 
-        List<Candidate> finalCandidates = tumorEvidence.filterCandidates();
+            normalEvidence = mEvidenceStage.findEvidence
+                    (mRegion, "normal", mConfig.ReferenceIds, finalCandidates, false);
 
-        ReadContextCounters normalEvidence = mEvidenceStage.findEvidence
-                (mRegion, "normal", mConfig.ReferenceIds, finalCandidates, false);
+            // cache before phase sets are assigned, since this alters the phasing groups
+            if(mPartitionCache != null)
+            {
+                mPartitionCache.write(
+                        mPartitionCacheKey, mTotalReadsProcessed, initialCandidates, tumorEvidence, normalEvidence,
+                        mEvidenceStage.getVariantPhaser());
+            }
+        }
 
         mPerfCounters.get(PC_EVIDENCE).stop();
 
@@ -186,7 +237,7 @@ public class RegionTask
 
         mResults.addFinalVariants(mTaskId, finalVariants);
 
-        mResults.addTotalReads(mCandidateState.totalReadsProcessed());
+        mResults.addTotalReads(mTotalReadsProcessed);
 
         mPerfCounters.add(mEvidenceStage.getVariantPhaser().getPerfCounter());
 
@@ -17,6 +17,7 @@ import com.hartwig.hmftools.common.utils.sv.BaseRegion;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.cache.PartitionCache;
 import com.hartwig.hmftools.sage.common.PartitionTask;
 import com.hartwig.hmftools.sage.common.SamSlicerFactory;
 import com.hartwig.hmftools.sage.coverage.Coverage;
@@ -35,6 +36,7 @@ public class RegionThread extends Thread
     private final Map<String, QualityRecalibrationMap> mQualityRecalibrationMap;
     private final Coverage mCoverage;
     private  final PhaseSetCounter mPhaseSetCounter;
+    private final PartitionCache mPartitionCache;
 
     private final Queue<PartitionTask> mPartitions;
     private final RegionResults mRegionResults;
@@ -52,7 +54,7 @@ public class RegionThread extends Thread
             final Map<String,QualityRecalibrationMap> qualityRecalibrationMap, final Coverage coverage,
             final PhaseSetCounter phaseSetCounter, final List<BaseRegion> panelRegions, final List<VariantHotspot> hotspots,
             final List<TranscriptData> transcripts, final List<BaseRegion> highConfidenceRegions,
-            final Queue<PartitionTask> partitions, final RegionResults regionResults)
+            final Queue<PartitionTask> partitions, final RegionResults regionResults, final PartitionCache partitionCache)
     {
         mChromosome = chromosome;
         mConfig = config;
@@ -62,6 +64,7 @@ public class RegionThread extends Thread
         mQualityRecalibrationMap = qualityRecalibrationMap;
         mCoverage = coverage;
         mPhaseSetCounter = phaseSetCounter;
+        mPartitionCache = partitionCache;
 
         mPanelRegions = panelRegions;
         mHighConfidenceRegions = highConfidenceRegions;
@@ -125,6 +128,6 @@ public class RegionThread extends Thread
 
         return new RegionTask(
                 partitionTask.TaskId, region, mRegionResults, mConfig, mRefGenome, regionHotspots, regionPanel, regionsTranscripts,
-                regionHighConfidence, mQualityRecalibrationMap, mPhaseSetCounter, mCoverage, mSamSlicerFactory);
+                regionHighConfidence, mQualityRecalibrationMap, mPhaseSetCounter, mCoverage, mSamSlicerFactory, mPartitionCache);
     }
 }
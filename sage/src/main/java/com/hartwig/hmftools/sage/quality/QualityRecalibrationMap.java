@@ -2,6 +2,7 @@ package com.hartwig.hmftools.sage.quality;
 
 import static com.hartwig.hmftools.sage.SageCommon.SG_LOGGER;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -33,6 +34,8 @@ public class QualityRecalibrationMap
         // mMap = records.stream().collect(Collectors.toMap(x -> x.Key, x -> x));
     }
 
+    public Collection<QualityRecalibrationRecord> records() { return mMap.values(); }
+
     public double quality(byte ref, byte alt, byte[] trinucleotideContext, byte qual)
     {
         final BaseQualityKey key = new BaseQualityKey(ref, alt, trinucleotideContext, qual);
@@ -0,0 +1,175 @@
+package com.hartwig.hmftools.sage.cache;
+
+import static com.hartwig.hmftools.common.test.GeneTestUtils.CHR_1;
+import static com.hartwig.hmftools.sage.common.TestUtils.createSamRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
+import com.hartwig.hmftools.sage.common.RegionTaskTester;
+import com.hartwig.hmftools.sage.common.SageVariant;
+import com.hartwig.hmftools.sage.evidence.ReadContextCounter;
+import com.hartwig.hmftools.sage.pipeline.RegionTask;
+import com.hartwig.hmftools.sage.quality.BaseQualityKey;
+import com.hartwig.hmftools.sage.quality.QualityRecalibrationMap;
+import com.hartwig.hmftools.sage.quality.QualityRecalibrationRecord;
+
+import org.junit.Test;
+
+import htsjdk.samtools.SAMRecord;
+
+public class PartitionCacheTest
+{
+    private static final ChrBaseRegion REGION = new ChrBaseRegion(CHR_1, 1, 150);
+
+    @Test
+    public void testRestoreCandidatesAndEvidence() throws IOException
+    {
+        File cacheDir = Files.createTempDirectory("sage_cache").toFile();
+        cacheDir.deleteOnExit();
+
+        String refBases = randomBases(2000);
+
+        RegionTaskTester tester = createTester(cacheDir, refBases);
+        tester.TumorSamSlicer.ReadRecords.addAll(createPhasedReads(refBases));
+
+        RegionTask task = tester.createRegionTask(REGION);
+        task.run();
+
+        List<SageVariant> variants = task.getVariants();
+        assertEquals(2, variants.size());
+        assertTrue(variants.stream().allMatch(x -> x.hasLocalPhaseSets()));
+
+        File[] cacheFiles = cacheDir.listFiles();
+        assertNotNull(cacheFiles);
+        assertEquals(1, cacheFiles.length);
+        cacheFiles[0].deleteOnExit();
+
+        // a rerun with unchanged inputs restores the same variants without reading the BAM
+        RegionTaskTester rerunTester = createTester(cacheDir, refBases);
+
+        RegionTask rerunTask = rerunTester.createRegionTask(REGION);
+        rerunTask.run();
+
+        List<SageVariant> rerunVariants = rerunTask.getVariants();
+        assertEquals(variants.size(), rerunVariants.size());
+
+        for(int i = 0; i < variants.size(); ++i)
+        {
+            SageVariant variant = variants.get(i);
+            SageVariant rerunVariant = rerunVariants.get(i);
+
+            assertEquals(variant.position(), rerunVariant.position());
+            assertEquals(variant.filters(), rerunVariant.filters());
+            assertEquals(variant.localPhaseSets(), rerunVariant.localPhaseSets());
+
+            ReadContextCounter readCounter = variant.tumorReadCounters().get(0);
+            ReadContextCounter rerunReadCounter = rerunVariant.tumorReadCounters().get(0);
+
+            assertTrue(Arrays.equals(readCounter.counts(), rerunReadCounter.counts()));
+            assertTrue(Arrays.equals(readCounter.quality(), rerunReadCounter.quality()));
+            assertEquals(readCounter.rawAltSupport(), rerunReadCounter.rawAltSupport());
+            assertEquals(readCounter.averageAltBaseQuality(), rerunReadCounter.averageAltBaseQuality(), 1e-6);
+            assertEquals(readCounter.strandBias(), rerunReadCounter.strandBias(), 1e-6);
+            assertEquals(readCounter.readContext().coreString(), rerunReadCounter.readContext().coreString());
+        }
+
+        assertEquals(tester.Results.totalReads(), rerunTester.Results.totalReads());
+    }
+
+    @Test
+    public void testEvidenceInputChange() throws IOException
+    {
+        File cacheDir = Files.createTempDirectory("sage_cache").toFile();
+        cacheDir.deleteOnExit();
+
+        String refBases = randomBases(2000);
+
+        RegionTaskTester tester = createTester(cacheDir, refBases);
+        tester.TumorSamSlicer.ReadRecords.addAll(createPhasedReads(refBases));
+        tester.createRegionTask(REGION).run();
+
+        Arrays.stream(cacheDir.listFiles()).forEach(x -> x.deleteOnExit());
+
+        PartitionCacheKey key = tester.PartitionCache.createKey(REGION, tester.Hotspots, tester.PanelRegions, tester.HighConfidenceRegions);
+        CachedPartition cachedPartition = tester.PartitionCache.load(key);
+        assertNotNull(cachedPartition);
+        assertTrue(cachedPartition.hasEvidence());
+        assertEquals(2, cachedPartition.Candidates.size());
+
+        // changed base quality recalibration requires new evidence but not new candidates
+        RegionTaskTester bqrTester = createTester(cacheDir, refBases);
+
+        BaseQualityKey bqrKey = new BaseQualityKey((byte)'A', (byte)'C', "AAC".getBytes(), (byte)37);
+        bqrTester.QualityRecalibrationMap.put(
+                RegionTaskTester.TEST_TUMOR_ID, new QualityRecalibrationMap(Lists.newArrayList(new QualityRecalibrationRecord(bqrKey, 1, 20))));
+
+        PartitionCache bqrCache = new PartitionCache(cacheDir.getPath(), bqrTester.Config, bqrTester.QualityRecalibrationMap);
+        cachedPartition = bqrCache.load(bqrCache.createKey(REGION, bqrTester.Hotspots, bqrTester.PanelRegions, bqrTester.HighConfidenceRegions));
+        assertNotNull(cachedPartition);
+        assertFalse(cachedPartition.hasEvidence());
+        assertEquals(2, cachedPartition.Candidates.size());
+
+        // other partitions are not cached
+        assertNull(tester.PartitionCache.load(tester.PartitionCache.createKey(
+                new ChrBaseRegion(CHR_1, 151, 300), tester.Hotspots, tester.PanelRegions, tester.HighConfidenceRegions)));
+    }
+
+    private static RegionTaskTester createTester(final File cacheDir, final String refBases)
+    {
+        RegionTaskTester tester = new RegionTaskTester();
+        tester.RefGenome.RefGenomeMap.put(CHR_1, refBases);
+        tester.PartitionCache = new PartitionCache(cacheDir.getPath(), tester.Config, tester.QualityRecalibrationMap);
+        return tester;
+    }
+
+    private static String randomBases(int length)
+    {
+        // avoids the repeats in the mock ref genome's bases, which suppress the candidates
+        Random random = new Random(1);
+        StringBuilder bases = new StringBuilder();
+
+        for(int i = 0; i < length; ++i)
+        {
+            bases.append("ACGT".charAt(random.nextInt(4)));
+        }
+
+        return bases.toString();
+    }
+
+    private static List<SAMRecord> createPhasedReads(final String refBases)
+    {
+        // two SNVs supported by the same reads
+        char[] readBases = refBases.substring(20, 120).toCharArray();
+        readBases[30] = alternateBase(readBases[30]);
+        readBases[40] = alternateBase(readBases[40]);
+
+        List<SAMRecord> reads = Lists.newArrayList();
+
+        for(int i = 0; i < 10; ++i)
+        {
+            SAMRecord read = createSamRecord(String.valueOf(i), CHR_1, 20, new String(readBases), "100M");
+            read.setFirstOfPairFlag(i % 2 == 0);
+            reads.add(read);
+        }
+
+        return reads;
+    }
+
+    private static char alternateBase(char base)
+    {
+        return base == 'A' ? 'C' : 'A';
+    }
+}
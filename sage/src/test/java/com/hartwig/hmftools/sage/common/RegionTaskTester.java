@@ -13,6 +13,7 @@ import com.hartwig.hmftools.common.utils.sv.BaseRegion;
 import com.hartwig.hmftools.common.utils.sv.ChrBaseRegion;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.sage.SageConfig;
+import com.hartwig.hmftools.sage.cache.PartitionCache;
 import com.hartwig.hmftools.sage.coverage.Coverage;
 import com.hartwig.hmftools.sage.phase.PhaseSetCounter;
 import com.hartwig.hmftools.sage.pipeline.RegionResults;
@@ -33,6 +34,7 @@ public class RegionTaskTester
     public final PhaseSetCounter PhaseSetCounter;
     public final Coverage Coverage;
     public final SamSlicerFactory SamSlicerFactory;
+    public PartitionCache PartitionCache;
 
     public final MockSamSlicer TumorSamSlicer;
 
@@ -54,6 +56,7 @@ public class RegionTaskTester
         Coverage = new Coverage(Sets.newHashSet(), Collections.EMPTY_LIST);
 
         SamSlicerFactory = new SamSlicerFactory();
+        PartitionCache = null;
 
         Config.TumorIds.add(TEST_TUMOR_ID);
 
@@ -65,7 +68,7 @@ public class RegionTaskTester
     {
         return new RegionTask(
                 0, region, Results, Config, RefGenome, Hotspots, PanelRegions, Transcripts, HighConfidenceRegions,
-                QualityRecalibrationMap, PhaseSetCounter, Coverage, SamSlicerFactory);
+                QualityRecalibrationMap, PhaseSetCounter, Coverage, SamSlicerFactory, PartitionCache);
     }
 
 }
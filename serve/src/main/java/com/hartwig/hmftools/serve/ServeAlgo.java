@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.serve;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import com.hartwig.hmftools.iclusion.classification.IclusionClassificationConfig
 import com.hartwig.hmftools.iclusion.datamodel.IclusionTrial;
 import com.hartwig.hmftools.serve.curation.DoidLookup;
 import com.hartwig.hmftools.serve.sources.ckb.treatementapproach.RelevantTreatmentApproachCurationFile;
+import com.hartwig.hmftools.serve.extraction.EventExtractionCache;
 import com.hartwig.hmftools.serve.extraction.ExtractionFunctions;
 import com.hartwig.hmftools.serve.extraction.ExtractionResult;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeManager;
@@ -50,6 +52,7 @@ import com.hartwig.hmftools.vicc.datamodel.ViccSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ServeAlgo {
 
@@ -69,19 +72,22 @@ public class ServeAlgo {
     public Map<RefGenomeVersion, ExtractionResult> run(@NotNull ServeConfig config) throws IOException {
         List<ExtractionResult> extractions = Lists.newArrayList();
         if (config.useVicc()) {
-            extractions.add(extractViccKnowledge(config.viccJson(), config.viccSources()));
+            extractions.add(extractViccKnowledge(config.viccJson(), config.viccSources(), config.extractionCacheDir()));
         }
 
         if (config.useIclusion()) {
-            extractions.add(extractIclusionKnowledge(config.iClusionTrialTsv(), config.iClusionFilterTsv()));
+            extractions.add(extractIclusionKnowledge(config.iClusionTrialTsv(), config.iClusionFilterTsv(), config.extractionCacheDir()));
         }
 
         if (config.useCkb()) {
-            extractions.add(extractCkbKnowledge(config.ckbDir(), config.ckbFilterTsv(), config.ckbDrugCurationTsv()));
+            extractions.add(extractCkbKnowledge(config.ckbDir(),
+                    config.ckbFilterTsv(),
+                    config.ckbDrugCurationTsv(),
+                    config.extractionCacheDir()));
         }
 
         if (config.useActin()) {
-            extractions.add(extractActinKnowledge(config.actinTrialTsv(), config.actinFilterTsv()));
+            extractions.add(extractActinKnowledge(config.actinTrialTsv(), config.actinFilterTsv(), config.extractionCacheDir()));
         }
 
         if (config.useDocm()) {
@@ -110,58 +116,96 @@ public class ServeAlgo {
     }
 
     @NotNull
-    private ExtractionResult extractViccKnowledge(@NotNull String viccJson, @NotNull Set<ViccSource> viccSources) throws IOException {
+    private ExtractionResult extractViccKnowledge(@NotNull String viccJson, @NotNull Set<ViccSource> viccSources,
+            @Nullable String extractionCacheDir) throws IOException {
         List<ViccEntry> entries = ViccReader.readAndCurateRelevantEntries(viccJson, viccSources, null);
 
         EventClassifierConfig config = ViccClassificationConfig.build();
         // Assume all VICC sources share the same ref genome version
         RefGenomeResource refGenomeResource = refGenomeManager.pickResourceForKnowledgebase(Knowledgebase.VICC_CIVIC);
-        ViccExtractor extractor = ViccExtractorFactory.buildViccExtractor(config, refGenomeResource, missingDoidLookup);
-
-        LOGGER.info("Running VICC knowledge extraction");
-        return extractor.extract(entries);
+        try (EventExtractionCache extractionCache = loadExtractionCache(extractionCacheDir, "vicc")) {
+            ViccExtractor extractor =
+                    ViccExtractorFactory.buildViccExtractor(config, refGenomeResource, missingDoidLookup, extractionCache);
+
+            LOGGER.info("Running VICC knowledge extraction");
+            ExtractionResult result = extractor.extract(entries);
+            reportExtractionCacheUsage(extractionCache);
+            return result;
+        }
     }
 
     @NotNull
-    private ExtractionResult extractIclusionKnowledge(@NotNull String iClusionTrialTsv, @NotNull String iClusionFilterTsv)
-            throws IOException {
+    private ExtractionResult extractIclusionKnowledge(@NotNull String iClusionTrialTsv, @NotNull String iClusionFilterTsv,
+            @Nullable String extractionCacheDir) throws IOException {
         List<IclusionTrial> trials = IclusionReader.readAndCurate(iClusionTrialTsv, iClusionFilterTsv);
 
         EventClassifierConfig config = IclusionClassificationConfig.build();
         RefGenomeResource refGenomeResource = refGenomeManager.pickResourceForKnowledgebase(Knowledgebase.ICLUSION);
-        IclusionExtractor extractor = IclusionExtractorFactory.buildIclusionExtractor(config, refGenomeResource, missingDoidLookup);
-
-        LOGGER.info("Running iClusion knowledge extraction");
-        return extractor.extract(trials);
+        try (EventExtractionCache extractionCache = loadExtractionCache(extractionCacheDir, "iclusion")) {
+            IclusionExtractor extractor =
+                    IclusionExtractorFactory.buildIclusionExtractor(config, refGenomeResource, missingDoidLookup, extractionCache);
+
+            LOGGER.info("Running iClusion knowledge extraction");
+            ExtractionResult result = extractor.extract(trials);
+            reportExtractionCacheUsage(extractionCache);
+            return result;
+        }
     }
 
     @NotNull
-    private ExtractionResult extractCkbKnowledge(@NotNull String ckbDir, @NotNull String ckbFilterTsv, @NotNull String ckbDrugCurationTsv)
-            throws IOException {
+    private ExtractionResult extractCkbKnowledge(@NotNull String ckbDir, @NotNull String ckbFilterTsv, @NotNull String ckbDrugCurationTsv,
+            @Nullable String extractionCacheDir) throws IOException {
         List<CkbEntry> ckbEntries = CkbReader.readAndCurate(ckbDir, ckbFilterTsv);
 
         EventClassifierConfig config = CkbClassificationConfig.build();
         RefGenomeResource refGenomeResource = refGenomeManager.pickResourceForKnowledgebase(Knowledgebase.CKB);
-        CkbExtractor extractor = CkbExtractorFactory.buildCkbExtractor(config, refGenomeResource);
-
         Map<RelevantTreatmentApprochCurationEntryKey, RelevantTreatmentApprochCurationEntry> treatmentApproachMap = RelevantTreatmentApproachCurationFile.read(ckbDrugCurationTsv);
 
         RelevantTreatmentAproachCuration curator = new RelevantTreatmentAproachCuration(treatmentApproachMap);
 
-        LOGGER.info("Running CKB knowledge extraction");
-        return extractor.extract(ckbEntries, curator);
+        try (EventExtractionCache extractionCache = loadExtractionCache(extractionCacheDir, "ckb")) {
+            CkbExtractor extractor = CkbExtractorFactory.buildCkbExtractor(config, refGenomeResource, extractionCache);
+
+            LOGGER.info("Running CKB knowledge extraction");
+            ExtractionResult result = extractor.extract(ckbEntries, curator);
+            reportExtractionCacheUsage(extractionCache);
+            return result;
+        }
     }
 
     @NotNull
-    private ExtractionResult extractActinKnowledge(@NotNull String actinTrialTsv, @NotNull String actinFilterTsv) throws IOException {
+    private ExtractionResult extractActinKnowledge(@NotNull String actinTrialTsv, @NotNull String actinFilterTsv,
+            @Nullable String extractionCacheDir) throws IOException {
         List<ActinEntry> actinEntries = ActinReader.read(actinTrialTsv, actinFilterTsv);
 
         EventClassifierConfig config = ActinClassificationConfig.build();
         RefGenomeResource refGenomeResource = refGenomeManager.pickResourceForKnowledgebase(Knowledgebase.ACTIN);
-        ActinExtractor extractor = ActinExtractorFactory.buildActinExtractor(config, refGenomeResource);
+        try (EventExtractionCache extractionCache = loadExtractionCache(extractionCacheDir, "actin")) {
+            ActinExtractor extractor = ActinExtractorFactory.buildActinExtractor(config, refGenomeResource, extractionCache);
+
+            LOGGER.info("Running ACTIN knowledge extraction");
+            ExtractionResult result = extractor.extract(actinEntries);
+            reportExtractionCacheUsage(extractionCache);
+            return result;
+        }
+    }
+
+    @NotNull
+    private static EventExtractionCache loadExtractionCache(@Nullable String extractionCacheDir, @NotNull String knowledgebase)
+            throws IOException {
+        if (extractionCacheDir == null) {
+            return EventExtractionCache.inMemory();
+        }
+
+        String extractionCacheTsv = extractionCacheDir + File.separator + "extraction_cache." + knowledgebase + ".tsv";
+        LOGGER.info(" Using extraction cache {}", extractionCacheTsv);
+        return EventExtractionCache.fromFile(extractionCacheTsv);
+    }
 
-        LOGGER.info("Running ACTIN knowledge extraction");
-        return extractor.extract(actinEntries);
+    private static void reportExtractionCacheUsage(@NotNull EventExtractionCache extractionCache) {
+        LOGGER.info(" Reused {} of {} event extractions from cache",
+                extractionCache.hitCount(),
+                extractionCache.hitCount() + extractionCache.missCount());
     }
 
     @NotNull
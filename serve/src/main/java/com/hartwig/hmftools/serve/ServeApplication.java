@@ -41,15 +41,15 @@ public class ServeApplication {
             System.exit(1);
         }
 
-        RefGenomeManager refGenomeManager = RefGenomeManagerFactory.createFromServeConfig(config);
-
-        ServeAlgo algo = new ServeAlgo(refGenomeManager, buildDoidLookup(config.missingDoidsMappingTsv()));
-        Map<RefGenomeVersion, ExtractionResult> resultMap = algo.run(config);
-
-        for (Map.Entry<RefGenomeVersion, ExtractionResult> entry : resultMap.entrySet()) {
-            RefGenomeVersion version = entry.getKey();
-            IndexedFastaSequenceFile refSequence = refGenomeManager.refSequenceForRefGenome(version);
-            new ExtractionResultWriter(config.outputDir(), version, refSequence).write(entry.getValue());
+        try (RefGenomeManager refGenomeManager = RefGenomeManagerFactory.createFromServeConfig(config)) {
+            ServeAlgo algo = new ServeAlgo(refGenomeManager, buildDoidLookup(config.missingDoidsMappingTsv()));
+            Map<RefGenomeVersion, ExtractionResult> resultMap = algo.run(config);
+
+            for (Map.Entry<RefGenomeVersion, ExtractionResult> entry : resultMap.entrySet()) {
+                RefGenomeVersion version = entry.getKey();
+                IndexedFastaSequenceFile refSequence = refGenomeManager.refSequenceForRefGenome(version);
+                new ExtractionResultWriter(config.outputDir(), version, refSequence).write(entry.getValue());
+            }
         }
 
         LOGGER.info("Complete!");
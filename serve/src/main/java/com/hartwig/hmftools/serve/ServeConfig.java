@@ -60,6 +60,8 @@ public interface ServeConfig {
     String DRIVER_GENE_38_TSV = "driver_gene_38_tsv";
     String KNOWN_FUSION_37_FILE = "known_fusion_37_file";
     String KNOWN_FUSION_38_FILE = "known_fusion_38_file";
+    String HOTSPOT_CACHE_DIR = "hotspot_cache_dir";
+    String EXTRACTION_CACHE_DIR = "extraction_cache_dir";
 
     // All output from SERVE will be written to this dir
     String OUTPUT_DIR = "output_dir";
@@ -104,6 +106,8 @@ public interface ServeConfig {
         options.addOption(DRIVER_GENE_38_TSV, true, "Path to driver gene v38 TSV");
         options.addOption(KNOWN_FUSION_37_FILE, true, "Path to the known fusion v37 file");
         options.addOption(KNOWN_FUSION_38_FILE, true, "Path to the known fusion v38 file");
+        options.addOption(HOTSPOT_CACHE_DIR, true, "Optional dir holding the hotspots resolved per protein annotation across runs");
+        options.addOption(EXTRACTION_CACHE_DIR, true, "Optional dir holding the extraction output per knowledgebase event across runs");
 
         options.addOption(OUTPUT_DIR, true, "Dir which will hold all SERVE output files");
 
@@ -196,6 +200,12 @@ public interface ServeConfig {
     @NotNull
     String knownFusion38File();
 
+    @Nullable
+    String hotspotCacheDir();
+
+    @Nullable
+    String extractionCacheDir();
+
     @NotNull
     String outputDir();
 
@@ -247,6 +257,8 @@ public interface ServeConfig {
                 .driverGene38Tsv(nonOptionalFile(cmd, DRIVER_GENE_38_TSV))
                 .knownFusion37File(nonOptionalFile(cmd, KNOWN_FUSION_37_FILE))
                 .knownFusion38File(nonOptionalFile(cmd, KNOWN_FUSION_38_FILE))
+                .hotspotCacheDir(optionalDir(cmd, HOTSPOT_CACHE_DIR))
+                .extractionCacheDir(optionalDir(cmd, EXTRACTION_CACHE_DIR))
                 .outputDir(nonOptionalDir(cmd, OUTPUT_DIR))
                 .skipHotspotResolving(cmd.hasOption(SKIP_HOTSPOT_RESOLVING))
                 .build();
@@ -283,6 +295,17 @@ public interface ServeConfig {
         return value;
     }
 
+    @Nullable
+    static String optionalDir(@NotNull CommandLine cmd, @NotNull String param) throws ParseException {
+        String value = cmd.getOptionValue(param);
+
+        if (value != null && (!pathExists(value) || !pathIsDirectory(value))) {
+            throw new ParseException("Parameter '" + param + "' must be an existing directory: " + value);
+        }
+
+        return value;
+    }
+
     @NotNull
     static String nonOptionalFile(@NotNull CommandLine cmd, @NotNull String param) throws ParseException {
         String value = nonOptionalValue(cmd, param);
@@ -0,0 +1,413 @@
+package com.hartwig.hmftools.serve.extraction;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import com.hartwig.hmftools.common.serve.classification.EventType;
+import com.hartwig.hmftools.serve.extraction.characteristic.ImmutableTumorCharacteristic;
+import com.hartwig.hmftools.serve.extraction.characteristic.TumorCharacteristic;
+import com.hartwig.hmftools.serve.extraction.characteristic.TumorCharacteristicAnnotation;
+import com.hartwig.hmftools.serve.extraction.characteristic.TumorCharacteristicsComparator;
+import com.hartwig.hmftools.serve.extraction.codon.CodonAnnotation;
+import com.hartwig.hmftools.serve.extraction.codon.ImmutableCodonAnnotation;
+import com.hartwig.hmftools.serve.extraction.copynumber.CopyNumberType;
+import com.hartwig.hmftools.serve.extraction.copynumber.ImmutableKnownCopyNumber;
+import com.hartwig.hmftools.serve.extraction.copynumber.KnownCopyNumber;
+import com.hartwig.hmftools.serve.extraction.exon.ExonAnnotation;
+import com.hartwig.hmftools.serve.extraction.exon.ImmutableExonAnnotation;
+import com.hartwig.hmftools.serve.extraction.fusion.ImmutableKnownFusionPair;
+import com.hartwig.hmftools.serve.extraction.fusion.KnownFusionPair;
+import com.hartwig.hmftools.serve.extraction.gene.GeneLevelAnnotation;
+import com.hartwig.hmftools.serve.extraction.gene.GeneLevelEvent;
+import com.hartwig.hmftools.serve.extraction.gene.ImmutableGeneLevelAnnotation;
+import com.hartwig.hmftools.serve.extraction.immuno.ImmunoHLA;
+import com.hartwig.hmftools.serve.extraction.immuno.ImmutableImmunoHLA;
+import com.hartwig.hmftools.serve.extraction.range.RangeAnnotation;
+import com.hartwig.hmftools.serve.extraction.util.MutationTypeFilter;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the event extraction output per fingerprint of an event and the resources it was extracted with. When backed by a file, the
+ * extractions are read from it on creation and written back on close, so that subsequent runs only need to extract events that are
+ * new or changed, or whose resources have changed since. Only the extractions used by the current run are written back, which keeps
+ * the file from growing with outdated resources.
+ *
+ * The messages logged while extracting an event are held along with its extraction and logged again whenever the extraction is taken
+ * from the cache, so a run reports the same warnings whether or not its extractions were cached.
+ *
+ * Hotspots are not held by this cache since they depend on the protein resolver, which keeps its own cache and has to observe every
+ * protein annotation to report the ones it could not resolve.
+ */
+public class EventExtractionCache implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(EventExtractionCache.class);
+
+    private static final String FIELD_DELIMITER = "\t";
+    private static final String ITEM_DELIMITER = ";";
+    private static final String VALUE_DELIMITER = "|";
+    private static final String LIST_START = "[";
+    private static final String LIST_END = "]";
+    private static final String HEADER = new StringJoiner(FIELD_DELIMITER).add("fingerprint")
+            .add("gene")
+            .add("transcript")
+            .add("type")
+            .add("event")
+            .add("codons")
+            .add("exons")
+            .add("geneLevelEvent")
+            .add("knownCopyNumber")
+            .add("knownFusionPair")
+            .add("characteristic")
+            .add("hla")
+            .add("messages")
+            .toString();
+
+    @NotNull
+    private final Map<String, EventExtractorOutput> outputPerFingerprint = Maps.newConcurrentMap();
+    @NotNull
+    private final Map<String, List<ExtractionMessageRecorder.Message>> messagesPerFingerprint = Maps.newConcurrentMap();
+    @NotNull
+    private final Map<String, String> linePerFingerprint = Maps.newConcurrentMap();
+    @NotNull
+    private final Set<String> usedFingerprints = Sets.newConcurrentHashSet();
+    @Nullable
+    private final File cacheFile;
+    @NotNull
+    private final AtomicInteger hitCount = new AtomicInteger();
+    @NotNull
+    private final AtomicInteger missCount = new AtomicInteger();
+
+    @NotNull
+    public static EventExtractionCache inMemory() {
+        return new EventExtractionCache(null);
+    }
+
+    @NotNull
+    public static EventExtractionCache fromFile(@NotNull String cacheTsv) throws IOException {
+        File cacheFile = new File(cacheTsv);
+        EventExtractionCache cache = new EventExtractionCache(cacheFile);
+
+        if (cacheFile.exists() && cacheFile.length() > 0) {
+            List<String> lines = Files.readAllLines(cacheFile.toPath());
+            if (lines.get(0).equals(HEADER)) {
+                for (String line : lines.subList(1, lines.size())) {
+                    cache.load(line);
+                }
+                LOGGER.info(" Loaded {} extracted events from {}", cache.outputPerFingerprint.size(), cacheTsv);
+            } else {
+                LOGGER.info(" Ignoring extraction cache {} written in a previous format", cacheTsv);
+            }
+        }
+
+        return cache;
+    }
+
+    private EventExtractionCache(@Nullable final File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    @NotNull
+    public static String fingerprint(@NotNull String resourceFingerprint, @NotNull String gene, @Nullable String transcriptId,
+            @NotNull EventType type, @NotNull String event) {
+        String content = new StringJoiner(FIELD_DELIMITER).add(resourceFingerprint)
+                .add(gene)
+                .add(transcriptId != null ? transcriptId : "")
+                .add(type.name())
+                .add(event)
+                .toString();
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Returns the cached extraction for the fingerprint, if any, after logging the messages that were logged while extracting it.
+     */
+    @Nullable
+    public EventExtractorOutput get(@NotNull String fingerprint) {
+        EventExtractorOutput output = outputPerFingerprint.get(fingerprint);
+        if (output != null) {
+            usedFingerprints.add(fingerprint);
+            hitCount.incrementAndGet();
+            messagesPerFingerprint.getOrDefault(fingerprint, Lists.newArrayList()).forEach(ExtractionMessageRecorder.Message::log);
+        } else {
+            missCount.incrementAndGet();
+        }
+        return output;
+    }
+
+    void put(@NotNull String fingerprint, @NotNull String gene, @Nullable String transcriptId, @NotNull EventType type,
+            @NotNull String event, @NotNull EventExtractorOutput output, @NotNull List<ExtractionMessageRecorder.Message> messages) {
+        usedFingerprints.add(fingerprint);
+        if (outputPerFingerprint.putIfAbsent(fingerprint, output) == null) {
+            messagesPerFingerprint.put(fingerprint, messages);
+            if (cacheFile != null) {
+                linePerFingerprint.put(fingerprint, toLine(fingerprint, gene, transcriptId, type, event, output, messages));
+            }
+        }
+    }
+
+    public int hitCount() {
+        return hitCount.get();
+    }
+
+    public int missCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (cacheFile == null) {
+            return;
+        }
+
+        // Write to a temporary file first so that an interrupted write never leaves a truncated cache behind.
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath())) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (String fingerprint : Sets.newTreeSet(usedFingerprints)) {
+                String line = linePerFingerprint.get(fingerprint);
+                if (line != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug(" Wrote {} extracted events to {}", usedFingerprints.size(), cacheFile.getPath());
+    }
+
+    private void load(@NotNull String line) {
+        String[] values = line.split(FIELD_DELIMITER, -1);
+        try {
+            EventExtractorOutput output = ImmutableEventExtractorOutput.builder()
+                    .codons(fromList(values[5], EventExtractionCache::toCodon))
+                    .exons(fromList(values[6], EventExtractionCache::toExon))
+                    .geneLevelEvent(fromValue(values[7], EventExtractionCache::toGeneLevelAnnotation))
+                    .knownCopyNumber(fromValue(values[8], EventExtractionCache::toKnownCopyNumber))
+                    .knownFusionPair(fromValue(values[9], EventExtractionCache::toKnownFusionPair))
+                    .characteristic(fromValue(values[10], EventExtractionCache::toCharacteristic))
+                    .hla(fromValue(values[11], EventExtractionCache::toHla))
+                    .build();
+            List<ExtractionMessageRecorder.Message> messages = fromList(values[12], EventExtractionCache::toMessage);
+            outputPerFingerprint.put(values[0], output);
+            messagesPerFingerprint.put(values[0], messages != null ? messages : Lists.newArrayList());
+            linePerFingerprint.put(values[0], line);
+        } catch (RuntimeException exception) {
+            LOGGER.warn("Skipping invalid extraction cache line '{}'", line);
+        }
+    }
+
+    @NotNull
+    private static String toLine(@NotNull String fingerprint, @NotNull String gene, @Nullable String transcriptId,
+            @NotNull EventType type, @NotNull String event, @NotNull EventExtractorOutput output,
+            @NotNull List<ExtractionMessageRecorder.Message> messages) {
+        return new StringJoiner(FIELD_DELIMITER).add(fingerprint)
+                .add(gene)
+                .add(transcriptId != null ? transcriptId : "")
+                .add(type.name())
+                .add(event)
+                .add(toList(output.codons(), EventExtractionCache::fromRangeAnnotation))
+                .add(toList(output.exons(), EventExtractionCache::fromRangeAnnotation))
+                .add(toValue(output.geneLevelEvent(), EventExtractionCache::fromGeneLevelAnnotation))
+                .add(toValue(output.knownCopyNumber(), EventExtractionCache::fromKnownCopyNumber))
+                .add(toValue(output.knownFusionPair(), EventExtractionCache::fromKnownFusionPair))
+                .add(toValue(output.characteristic(), EventExtractionCache::fromCharacteristic))
+                .add(toValue(output.hla(), ImmunoHLA::immunoHLA))
+                .add(toList(messages, EventExtractionCache::fromMessage))
+                .toString();
+    }
+
+    @NotNull
+    private static <T> String toList(@Nullable List<T> items, @NotNull Function<T, String> formatter) {
+        if (items == null) {
+            return "";
+        }
+
+        StringJoiner joiner = new StringJoiner(ITEM_DELIMITER, LIST_START, LIST_END);
+        for (T item : items) {
+            joiner.add(formatter.apply(item));
+        }
+        return joiner.toString();
+    }
+
+    @Nullable
+    private static <T> List<T> fromList(@NotNull String value, @NotNull Function<String[], T> parser) {
+        if (value.isEmpty()) {
+            return null;
+        }
+
+        List<T> items = Lists.newArrayList();
+        String content = value.substring(LIST_START.length(), value.length() - LIST_END.length());
+        if (!content.isEmpty()) {
+            for (String item : content.split(ITEM_DELIMITER)) {
+                items.add(parser.apply(splitValues(item)));
+            }
+        }
+        return items;
+    }
+
+    @NotNull
+    private static <T> String toValue(@Nullable T item, @NotNull Function<T, String> formatter) {
+        return item != null ? formatter.apply(item) : "";
+    }
+
+    @Nullable
+    private static <T> T fromValue(@NotNull String value, @NotNull Function<String[], T> parser) {
+        return !value.isEmpty() ? parser.apply(splitValues(value)) : null;
+    }
+
+    @NotNull
+    private static String[] splitValues(@NotNull String item) {
+        return item.split(Pattern.quote(VALUE_DELIMITER), -1);
+    }
+
+    @NotNull
+    private static String joinValues(@NotNull Object... values) {
+        StringJoiner joiner = new StringJoiner(VALUE_DELIMITER);
+        for (Object value : values) {
+            joiner.add(value != null ? value.toString() : "");
+        }
+        return joiner.toString();
+    }
+
+    @Nullable
+    private static Integer toNullableInteger(@NotNull String value) {
+        return !value.isEmpty() ? Integer.valueOf(value) : null;
+    }
+
+    @NotNull
+    private static String fromRangeAnnotation(@NotNull RangeAnnotation annotation) {
+        return joinValues(annotation.gene(),
+                annotation.transcript(),
+                annotation.chromosome(),
+                annotation.start(),
+                annotation.end(),
+                annotation.mutationType().name(),
+                annotation.rank());
+    }
+
+    @NotNull
+    private static CodonAnnotation toCodon(@NotNull String[] values) {
+        return ImmutableCodonAnnotation.builder()
+                .gene(values[0])
+                .transcript(values[1])
+                .chromosome(values[2])
+                .start(Integer.parseInt(values[3]))
+                .end(Integer.parseInt(values[4]))
+                .mutationType(MutationTypeFilter.valueOf(values[5]))
+                .rank(Integer.parseInt(values[6]))
+                .build();
+    }
+
+    @NotNull
+    private static ExonAnnotation toExon(@NotNull String[] values) {
+        return ImmutableExonAnnotation.builder()
+                .gene(values[0])
+                .transcript(values[1])
+                .chromosome(values[2])
+                .start(Integer.parseInt(values[3]))
+                .end(Integer.parseInt(values[4]))
+                .mutationType(MutationTypeFilter.valueOf(values[5]))
+                .rank(Integer.parseInt(values[6]))
+                .build();
+    }
+
+    @NotNull
+    private static String fromGeneLevelAnnotation(@NotNull GeneLevelAnnotation annotation) {
+        return joinValues(annotation.gene(), annotation.event().name());
+    }
+
+    @NotNull
+    private static GeneLevelAnnotation toGeneLevelAnnotation(@NotNull String[] values) {
+        return ImmutableGeneLevelAnnotation.builder().gene(values[0]).event(GeneLevelEvent.valueOf(values[1])).build();
+    }
+
+    @NotNull
+    private static String fromKnownCopyNumber(@NotNull KnownCopyNumber copyNumber) {
+        // Sources are only assigned after extraction, so they are not part of the cache.
+        return joinValues(copyNumber.gene(), copyNumber.type().name());
+    }
+
+    @NotNull
+    private static KnownCopyNumber toKnownCopyNumber(@NotNull String[] values) {
+        return ImmutableKnownCopyNumber.builder().gene(values[0]).type(CopyNumberType.valueOf(values[1])).build();
+    }
+
+    @NotNull
+    private static String fromKnownFusionPair(@NotNull KnownFusionPair fusionPair) {
+        return joinValues(fusionPair.geneUp(),
+                fusionPair.minExonUp(),
+                fusionPair.maxExonUp(),
+                fusionPair.geneDown(),
+                fusionPair.minExonDown(),
+                fusionPair.maxExonDown());
+    }
+
+    @NotNull
+    private static KnownFusionPair toKnownFusionPair(@NotNull String[] values) {
+        return ImmutableKnownFusionPair.builder()
+                .geneUp(values[0])
+                .minExonUp(toNullableInteger(values[1]))
+                .maxExonUp(toNullableInteger(values[2]))
+                .geneDown(values[3])
+                .minExonDown(toNullableInteger(values[4]))
+                .maxExonDown(toNullableInteger(values[5]))
+                .build();
+    }
+
+    @NotNull
+    private static String fromCharacteristic(@NotNull TumorCharacteristic characteristic) {
+        TumorCharacteristicsComparator comparator = characteristic.comparator();
+        return joinValues(characteristic.name().name(), comparator != null ? comparator.name() : null, characteristic.cutoff());
+    }
+
+    @NotNull
+    private static TumorCharacteristic toCharacteristic(@NotNull String[] values) {
+        return ImmutableTumorCharacteristic.builder()
+                .name(TumorCharacteristicAnnotation.valueOf(values[0]))
+                .comparator(!values[1].isEmpty() ? TumorCharacteristicsComparator.valueOf(values[1]) : null)
+                .cutoff(!values[2].isEmpty() ? Double.valueOf(values[2]) : null)
+                .build();
+    }
+
+    @NotNull
+    private static String fromMessage(@NotNull ExtractionMessageRecorder.Message message) {
+        // Messages can hold any character, including the delimiters of the cache file.
+        String encodedMessage = BaseEncoding.base64Url().encode(message.message().getBytes(StandardCharsets.UTF_8));
+        return joinValues(message.level().name(), message.loggerName(), encodedMessage);
+    }
+
+    @NotNull
+    private static ExtractionMessageRecorder.Message toMessage(@NotNull String[] values) {
+        String message = new String(BaseEncoding.base64Url().decode(values[2]), StandardCharsets.UTF_8);
+        return new ExtractionMessageRecorder.Message(Level.valueOf(values[0]), values[1], message);
+    }
+
+    @NotNull
+    private static ImmunoHLA toHla(@NotNull String[] values) {
+        return ImmutableImmunoHLA.builder().immunoHLA(values[0]).build();
+    }
+}
@@ -1,6 +1,10 @@
 package com.hartwig.hmftools.serve.extraction;
 
+import java.util.List;
+
+import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.serve.classification.EventType;
+import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.serve.extraction.characteristic.TumorCharacteristicExtractor;
 import com.hartwig.hmftools.serve.extraction.codon.CodonExtractor;
 import com.hartwig.hmftools.serve.extraction.copynumber.CopyNumberExtractor;
@@ -31,11 +35,16 @@ public class EventExtractor {
     private final TumorCharacteristicExtractor tumorCharacteristicExtractor;
     @NotNull
     private final ImmunoHLAExtractor immunoHLAExtractor;
+    @NotNull
+    private final EventExtractionCache extractionCache;
+    @NotNull
+    private final String resourceFingerprint;
 
     public EventExtractor(@NotNull final HotspotExtractor hotspotExtractor, @NotNull final CodonExtractor codonExtractor,
             @NotNull final ExonExtractor exonExtractor, @NotNull final GeneLevelExtractor geneLevelExtractor,
             @NotNull final CopyNumberExtractor copyNumberExtractor, @NotNull final FusionExtractor fusionExtractor,
-            @NotNull final TumorCharacteristicExtractor tumorCharacteristicExtractor, @NotNull ImmunoHLAExtractor immunoHLAExtractor) {
+            @NotNull final TumorCharacteristicExtractor tumorCharacteristicExtractor, @NotNull ImmunoHLAExtractor immunoHLAExtractor,
+            @NotNull final EventExtractionCache extractionCache, @NotNull final String resourceFingerprint) {
         this.hotspotExtractor = hotspotExtractor;
         this.codonExtractor = codonExtractor;
         this.exonExtractor = exonExtractor;
@@ -44,13 +53,24 @@ public class EventExtractor {
         this.fusionExtractor = fusionExtractor;
         this.tumorCharacteristicExtractor = tumorCharacteristicExtractor;
         this.immunoHLAExtractor = immunoHLAExtractor;
+        this.extractionCache = extractionCache;
+        this.resourceFingerprint = resourceFingerprint;
     }
 
     @NotNull
     public EventExtractorOutput extract(@NotNull String gene, @Nullable String transcriptId, @NotNull EventType type,
             @NotNull String event) {
-        return ImmutableEventExtractorOutput.builder()
-                .hotspots(hotspotExtractor.extract(gene, transcriptId, type, event))
+        // Hotspots are always resolved again, so that the protein resolver observes every protein annotation it is asked for.
+        List<VariantHotspot> hotspots = hotspotExtractor.extract(gene, transcriptId, type, event);
+
+        String fingerprint = EventExtractionCache.fingerprint(resourceFingerprint, gene, transcriptId, type, event);
+        EventExtractorOutput cachedOutput = extractionCache.get(fingerprint);
+        if (cachedOutput != null) {
+            return ImmutableEventExtractorOutput.builder().from(cachedOutput).hotspots(hotspots).build();
+        }
+
+        List<ExtractionMessageRecorder.Message> messages = Lists.newArrayList();
+        EventExtractorOutput output = ExtractionMessageRecorder.record(() -> ImmutableEventExtractorOutput.builder()
                 .codons(codonExtractor.extract(gene, transcriptId, type, event))
                 .exons(exonExtractor.extract(gene, transcriptId, type, event))
                 .geneLevelEvent(geneLevelExtractor.extract(gene, type, event))
@@ -58,6 +78,8 @@ public class EventExtractor {
                 .knownFusionPair(fusionExtractor.extract(gene, type, event))
                 .characteristic(tumorCharacteristicExtractor.extract(type, event))
                 .hla(immunoHLAExtractor.extract(type, event))
-                .build();
+                .build(), messages);
+        extractionCache.put(fingerprint, gene, transcriptId, type, event, output, messages);
+        return ImmutableEventExtractorOutput.builder().from(output).hotspots(hotspots).build();
     }
 }
@@ -1,9 +1,14 @@
 package com.hartwig.hmftools.serve.extraction;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.hartwig.hmftools.common.drivercatalog.panel.DriverGene;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.fusion.KnownFusionCache;
 import com.hartwig.hmftools.common.fusion.KnownFusionData;
@@ -19,6 +24,7 @@ import com.hartwig.hmftools.serve.extraction.gene.GeneLevelExtractor;
 import com.hartwig.hmftools.serve.extraction.hotspot.HotspotExtractor;
 import com.hartwig.hmftools.serve.extraction.immuno.ImmunoHLAExtractor;
 import com.hartwig.hmftools.serve.extraction.util.DriverInconsistencyMode;
+import com.hartwig.hmftools.serve.extraction.util.EnsemblFunctions;
 import com.hartwig.hmftools.serve.extraction.util.GeneChecker;
 import com.hartwig.hmftools.serve.extraction.util.MutationTypeFilterAlgo;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeResource;
@@ -33,6 +39,12 @@ public final class EventExtractorFactory {
     @NotNull
     public static EventExtractor create(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
             @NotNull DriverInconsistencyMode driverInconsistencyMode) {
+        return create(config, refGenomeResource, driverInconsistencyMode, EventExtractionCache.inMemory());
+    }
+
+    @NotNull
+    public static EventExtractor create(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
+            @NotNull DriverInconsistencyMode driverInconsistencyMode, @NotNull EventExtractionCache extractionCache) {
         Set<String> genesInExome = extractAllValidGenes(refGenomeResource.ensemblDataCache());
         GeneChecker exomeGeneChecker = new GeneChecker(genesInExome);
 
@@ -79,7 +91,49 @@ public final class EventExtractorFactory {
                         config.hrDeficiencyKeyPhrases(),
                         config.hpvPositiveEvents(),
                         config.ebvPositiveEvents()),
-                new ImmunoHLAExtractor());
+                new ImmunoHLAExtractor(),
+                extractionCache,
+                resourceFingerprint(config, refGenomeResource, driverInconsistencyMode));
+    }
+
+    @NotNull
+    private static String resourceFingerprint(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
+            @NotNull DriverInconsistencyMode driverInconsistencyMode) {
+        // Covers everything the cached extractors are configured with, so that cached extractions are only reused on identical resources.
+        // The hotspot extractor and its protein resolver are not covered since hotspots are never taken from the extraction cache.
+        Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, driverInconsistencyMode.name());
+        for (Set<String> keyPhrases : Lists.newArrayList(config.activatingGeneLevelKeyPhrases(),
+                config.inactivatingGeneLevelKeyPhrases(),
+                config.genericGeneLevelKeyPhrases(),
+                config.exonicDelDupFusionKeyPhrases(),
+                config.microsatelliteUnstableKeyPhrases(),
+                config.microsatelliteStableKeyPhrases(),
+                config.highTumorMutationalLoadKeyPhrases(),
+                config.lowTumorMutationalLoadKeyPhrases(),
+                config.highTumorMutationalBurdenKeyPhrases(),
+                config.lowTumorMutationalBurdenKeyPhrases(),
+                config.hrDeficiencyKeyPhrases(),
+                config.hpvPositiveEvents(),
+                config.ebvPositiveEvents())) {
+            putString(hasher, String.join(",", Sets.newTreeSet(keyPhrases)));
+        }
+
+        for (DriverGene driverGene : refGenomeResource.driverGenes()) {
+            putString(hasher, driverGene.toString());
+        }
+
+        for (KnownFusionData fusion : refGenomeResource.knownFusionCache().getData()) {
+            putString(hasher, fusion.toString());
+        }
+
+        putString(hasher, EnsemblFunctions.fingerprint(refGenomeResource.ensemblDataCache()));
+
+        return hasher.hash().toString();
+    }
+
+    private static void putString(@NotNull Hasher hasher, @NotNull String value) {
+        hasher.putString(value, StandardCharsets.UTF_8).putChar('\n');
     }
 
     @NotNull
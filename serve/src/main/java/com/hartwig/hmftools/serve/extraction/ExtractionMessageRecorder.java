@@ -0,0 +1,128 @@
+package com.hartwig.hmftools.serve.extraction;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Records the messages the extractors log on the current thread while extracting an event, so that they can be cached along with the
+ * extraction and logged again whenever the cached extraction is used instead of extracting the event again.
+ */
+final class ExtractionMessageRecorder {
+
+    private static final ThreadLocal<List<Message>> RECORDING = new ThreadLocal<>();
+
+    @Nullable
+    private static RecordingAppender appender;
+
+    private ExtractionMessageRecorder() {
+    }
+
+    @NotNull
+    static <T> T record(@NotNull Supplier<T> extraction, @NotNull List<Message> messages) {
+        registerAppender();
+
+        // A recording nested in another one passes its messages on to the outer recording once done.
+        List<Message> outerMessages = RECORDING.get();
+        RECORDING.set(messages);
+        try {
+            return extraction.get();
+        } finally {
+            if (outerMessages != null) {
+                outerMessages.addAll(messages);
+                RECORDING.set(outerMessages);
+            } else {
+                RECORDING.remove();
+            }
+        }
+    }
+
+    private static synchronized void registerAppender() {
+        if (appender != null || !(LogManager.getContext(false) instanceof LoggerContext)) {
+            return;
+        }
+
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        appender = new RecordingAppender();
+        appender.start();
+        context.getConfiguration().getRootLogger().addAppender(appender, Level.INFO, null);
+        context.updateLoggers();
+    }
+
+    static final class Message {
+
+        @NotNull
+        private final Level level;
+        @NotNull
+        private final String loggerName;
+        @NotNull
+        private final String message;
+
+        Message(@NotNull final Level level, @NotNull final String loggerName, @NotNull final String message) {
+            this.level = level;
+            this.loggerName = loggerName;
+            this.message = message;
+        }
+
+        @NotNull
+        Level level() {
+            return level;
+        }
+
+        @NotNull
+        String loggerName() {
+            return loggerName;
+        }
+
+        @NotNull
+        String message() {
+            return message;
+        }
+
+        void log() {
+            LogManager.getLogger(loggerName).log(level, message);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object other) {
+            if (!(other instanceof Message)) {
+                return false;
+            }
+            Message otherMessage = (Message) other;
+            return level.equals(otherMessage.level) && loggerName.equals(otherMessage.loggerName) && message.equals(otherMessage.message);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * level.hashCode() + loggerName.hashCode()) + message.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return level + " " + loggerName + ": " + message;
+        }
+    }
+
+    private static class RecordingAppender extends AbstractAppender {
+
+        RecordingAppender() {
+            super(ExtractionMessageRecorder.class.getSimpleName(), null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(@NotNull LogEvent event) {
+            List<Message> messages = RECORDING.get();
+            if (messages != null) {
+                messages.add(new Message(event.getLevel(), event.getLoggerName(), event.getMessage().getFormattedMessage()));
+            }
+        }
+    }
+}
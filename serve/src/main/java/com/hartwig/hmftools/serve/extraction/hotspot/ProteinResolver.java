@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.serve.extraction.hotspot;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
@@ -8,11 +10,15 @@ import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public interface ProteinResolver {
+public interface ProteinResolver extends Closeable {
 
     @NotNull
     List<VariantHotspot> resolve(@NotNull String gene, @Nullable String specificTranscript, @NotNull String proteinAnnotation);
 
     @NotNull
     Set<String> unresolvedProteinAnnotations();
+
+    @Override
+    default void close() throws IOException {
+    }
 }
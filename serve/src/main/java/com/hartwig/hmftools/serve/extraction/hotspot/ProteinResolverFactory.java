@@ -1,6 +1,6 @@
 package com.hartwig.hmftools.serve.extraction.hotspot;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
 
@@ -21,8 +21,8 @@ public final class ProteinResolverFactory {
 
     @NotNull
     public static ProteinResolver transvarWithRefGenome(@NotNull RefGenomeVersion refGenomeVersion, @NotNull String refGenomeFastaFile,
-            @NotNull EnsemblDataCache ensemblDataCache) throws FileNotFoundException {
-        return Transvar.withRefGenome(refGenomeVersion, refGenomeFastaFile, ensemblDataCache);
+            @NotNull EnsemblDataCache ensemblDataCache, @Nullable String cacheTsv) throws IOException {
+        return Transvar.withRefGenome(refGenomeVersion, refGenomeFastaFile, ensemblDataCache, cacheTsv);
     }
 
     @NotNull
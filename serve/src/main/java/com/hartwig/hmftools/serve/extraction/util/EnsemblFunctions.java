@@ -1,6 +1,13 @@
 package com.hartwig.hmftools.serve.extraction.util;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.gene.ExonData;
 import com.hartwig.hmftools.common.gene.GeneData;
 import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.genome.region.HmfTranscriptRegion;
@@ -28,4 +35,32 @@ public final class EnsemblFunctions {
 
         return HmfTranscriptRegionUtils.fromTranscript(geneData, transcriptData);
     }
+
+    /**
+     * Returns a hash over the genes, transcripts and exons held by the ensembl data cache, which changes whenever the cache is loaded
+     * from other ensembl data or with other transcripts.
+     */
+    @NotNull
+    public static String fingerprint(@NotNull EnsemblDataCache ensemblDataCache) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String chromosome : Sets.newTreeSet(ensemblDataCache.getChrGeneDataMap().keySet())) {
+            for (GeneData geneData : ensemblDataCache.getChrGeneDataMap().get(chromosome)) {
+                putString(hasher, geneData.toString());
+                List<TranscriptData> transcripts = ensemblDataCache.getTranscriptDataMap().get(geneData.GeneId);
+                if (transcripts != null) {
+                    for (TranscriptData transcript : transcripts) {
+                        putString(hasher, transcript.toString());
+                        for (ExonData exon : transcript.exons()) {
+                            putString(hasher, exon.toString());
+                        }
+                    }
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putString(@NotNull Hasher hasher, @NotNull String value) {
+        hasher.putString(value, StandardCharsets.UTF_8).putChar('\n');
+    }
 }
@@ -14,8 +14,24 @@ public final class EnsemblDataCacheLoader {
 
     @NotNull
     public static EnsemblDataCache load(@NotNull String ensemblDataDir, @NotNull RefGenomeVersion refGenomeVersion) throws IOException {
+        return load(ensemblDataDir, refGenomeVersion, true);
+    }
+
+    /**
+     * Loads every transcript rather than only the canonical ones, which the native protein resolver needs to resolve protein annotations
+     * on specific non-canonical transcripts.
+     */
+    @NotNull
+    public static EnsemblDataCache loadWithAllTranscripts(@NotNull String ensemblDataDir, @NotNull RefGenomeVersion refGenomeVersion)
+            throws IOException {
+        return load(ensemblDataDir, refGenomeVersion, false);
+    }
+
+    @NotNull
+    private static EnsemblDataCache load(@NotNull String ensemblDataDir, @NotNull RefGenomeVersion refGenomeVersion,
+            boolean canonicalTranscriptsOnly) throws IOException {
         EnsemblDataCache ensemblDataCache = new EnsemblDataCache(ensemblDataDir, refGenomeVersion);
-        ensemblDataCache.setRequiredData(true, false, false, true);
+        ensemblDataCache.setRequiredData(true, false, false, canonicalTranscriptsOnly);
 
         if (!ensemblDataCache.load(false)) {
             throw new IOException("Could not load ensembl data cache from " + ensemblDataDir);
@@ -1,5 +1,7 @@
 package com.hartwig.hmftools.serve.refgenome;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,7 +21,7 @@ import org.jetbrains.annotations.NotNull;
 
 import htsjdk.samtools.reference.IndexedFastaSequenceFile;
 
-public class RefGenomeManager {
+public class RefGenomeManager implements Closeable {
 
     private static final Logger LOGGER = LogManager.getLogger(RefGenomeManager.class);
 
@@ -49,6 +51,13 @@ public class RefGenomeManager {
         conversionFilter.reportUnusedFilterEntries();
     }
 
+    @Override
+    public void close() throws IOException {
+        for (RefGenomeResource resource : refGenomeResourceMap.values()) {
+            resource.proteinResolver().close();
+        }
+    }
+
     @NotNull
     public Map<RefGenomeVersion, List<ExtractionResult>> makeVersioned(@NotNull List<ExtractionResult> extractions) {
         Map<RefGenomeVersion, List<ExtractionResult>> versionedExtractionMap = Maps.newHashMap();
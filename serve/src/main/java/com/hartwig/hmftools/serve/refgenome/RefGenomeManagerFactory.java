@@ -11,6 +11,7 @@ import com.hartwig.hmftools.common.drivercatalog.panel.DriverGeneFile;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.fusion.KnownFusionCache;
 import com.hartwig.hmftools.common.gene.GeneData;
+import com.hartwig.hmftools.common.gene.TranscriptData;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.serve.ServeConfig;
 import com.hartwig.hmftools.serve.extraction.hotspot.ProteinResolver;
@@ -19,6 +20,7 @@ import com.hartwig.hmftools.serve.extraction.hotspot.ProteinResolverFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import htsjdk.samtools.reference.IndexedFastaSequenceFile;
 
@@ -44,7 +46,10 @@ public final class RefGenomeManagerFactory {
         EnsemblDataCache ensemblDataCache37 = loadEnsemblDataCache(RefGenomeVersion.V37, config.ensemblDataDir37());
         ProteinResolver proteinResolver37 = config.skipHotspotResolving()
                 ? ProteinResolverFactory.dummy()
-                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V37, fastaFile37, ensemblDataCache37);
+                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V37,
+                        fastaFile37,
+                        loadEnsemblDataCacheWithAllTranscripts(RefGenomeVersion.V37, config.ensemblDataDir37()),
+                        hotspotCacheTsv(config, RefGenomeVersion.V37));
 
         return ImmutableRefGenomeResource.builder()
                 .refSequence(new IndexedFastaSequenceFile(new File(fastaFile37)))
@@ -63,7 +68,10 @@ public final class RefGenomeManagerFactory {
         EnsemblDataCache ensemblDataCache38 = loadEnsemblDataCache(RefGenomeVersion.V38, config.ensemblDataDir38());
         ProteinResolver proteinResolver38 = config.skipHotspotResolving()
                 ? ProteinResolverFactory.dummy()
-                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V38, fastaFile38, ensemblDataCache38);
+                : ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V38,
+                        fastaFile38,
+                        loadEnsemblDataCacheWithAllTranscripts(RefGenomeVersion.V38, config.ensemblDataDir38()),
+                        hotspotCacheTsv(config, RefGenomeVersion.V38));
 
         return ImmutableRefGenomeResource.builder()
                 .refSequence(new IndexedFastaSequenceFile(new File(fastaFile38)))
@@ -75,6 +83,18 @@ public final class RefGenomeManagerFactory {
                 .build();
     }
 
+    @Nullable
+    private static String hotspotCacheTsv(@NotNull ServeConfig config, @NotNull RefGenomeVersion refGenomeVersion) {
+        String hotspotCacheDir = config.hotspotCacheDir();
+        if (hotspotCacheDir == null) {
+            return null;
+        }
+
+        String hotspotCacheTsv = hotspotCacheDir + File.separator + "hotspot_cache." + refGenomeVersion.identifier() + ".tsv";
+        LOGGER.info(" Using hotspot cache {}", hotspotCacheTsv);
+        return hotspotCacheTsv;
+    }
+
     @NotNull
     private static List<DriverGene> readDriverGenesFromFile(@NotNull String driverGeneTsv) throws IOException {
         LOGGER.info(" Reading driver genes from {}", driverGeneTsv);
@@ -106,4 +126,18 @@ public final class RefGenomeManagerFactory {
         LOGGER.info("  Loaded entries for {} genes", geneCount);
         return ensemblDataCache;
     }
+
+    @NotNull
+    private static EnsemblDataCache loadEnsemblDataCacheWithAllTranscripts(@NotNull RefGenomeVersion refGenomeVersion,
+            @NotNull String ensemblDataDir) throws IOException {
+        // Only the protein resolver needs the non-canonical transcripts, to resolve annotations on specific transcripts.
+        LOGGER.info(" Reading all ensembl transcripts for protein resolving from {}", ensemblDataDir);
+        EnsemblDataCache ensemblDataCache = EnsemblDataCacheLoader.loadWithAllTranscripts(ensemblDataDir, refGenomeVersion);
+        int transcriptCount = 0;
+        for (List<TranscriptData> transcriptsPerGene : ensemblDataCache.getTranscriptDataMap().values()) {
+            transcriptCount += transcriptsPerGene.size();
+        }
+        LOGGER.info("  Loaded {} transcripts", transcriptCount);
+        return ensemblDataCache;
+    }
 }
@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.serve.sources.actin;
 
 import com.hartwig.hmftools.common.serve.classification.EventClassifierConfig;
+import com.hartwig.hmftools.serve.extraction.EventExtractionCache;
 import com.hartwig.hmftools.serve.extraction.EventExtractorFactory;
 import com.hartwig.hmftools.serve.extraction.util.DriverInconsistencyMode;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeResource;
@@ -14,6 +15,15 @@ public final class ActinExtractorFactory {
 
     @NotNull
     public static ActinExtractor buildActinExtractor(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource) {
-        return new ActinExtractor(EventExtractorFactory.create(config, refGenomeResource, DriverInconsistencyMode.WARN_ONLY));
+        return buildActinExtractor(config, refGenomeResource, EventExtractionCache.inMemory());
+    }
+
+    @NotNull
+    public static ActinExtractor buildActinExtractor(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
+            @NotNull EventExtractionCache extractionCache) {
+        return new ActinExtractor(EventExtractorFactory.create(config,
+                refGenomeResource,
+                DriverInconsistencyMode.WARN_ONLY,
+                extractionCache));
     }
 }
@@ -1,6 +1,7 @@
 package com.hartwig.hmftools.serve.sources.ckb;
 
 import com.hartwig.hmftools.common.serve.classification.EventClassifierConfig;
+import com.hartwig.hmftools.serve.extraction.EventExtractionCache;
 import com.hartwig.hmftools.serve.extraction.EventExtractorFactory;
 import com.hartwig.hmftools.serve.extraction.util.DriverInconsistencyMode;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeResource;
@@ -14,7 +15,13 @@ public final class CkbExtractorFactory {
 
     @NotNull
     public static CkbExtractor buildCkbExtractor(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource) {
+        return buildCkbExtractor(config, refGenomeResource, EventExtractionCache.inMemory());
+    }
+
+    @NotNull
+    public static CkbExtractor buildCkbExtractor(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
+            @NotNull EventExtractionCache extractionCache) {
         // We want to capture all events from CKB, so ignore driver inconsistencies
-        return new CkbExtractor(EventExtractorFactory.create(config, refGenomeResource, DriverInconsistencyMode.IGNORE));
+        return new CkbExtractor(EventExtractorFactory.create(config, refGenomeResource, DriverInconsistencyMode.IGNORE, extractionCache));
     }
 }
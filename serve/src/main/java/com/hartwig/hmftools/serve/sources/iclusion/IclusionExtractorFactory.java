@@ -2,6 +2,7 @@ package com.hartwig.hmftools.serve.sources.iclusion;
 
 import com.hartwig.hmftools.common.serve.classification.EventClassifierConfig;
 import com.hartwig.hmftools.serve.curation.DoidLookup;
+import com.hartwig.hmftools.serve.extraction.EventExtractionCache;
 import com.hartwig.hmftools.serve.extraction.EventExtractorFactory;
 import com.hartwig.hmftools.serve.extraction.util.DriverInconsistencyMode;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeResource;
@@ -16,7 +17,17 @@ public final class IclusionExtractorFactory {
     @NotNull
     public static IclusionExtractor buildIclusionExtractor(@NotNull EventClassifierConfig config,
             @NotNull RefGenomeResource refGenomeResource, @NotNull DoidLookup missingDoidLookup) {
-        return new IclusionExtractor(EventExtractorFactory.create(config, refGenomeResource, DriverInconsistencyMode.WARN_ONLY),
+        return buildIclusionExtractor(config, refGenomeResource, missingDoidLookup, EventExtractionCache.inMemory());
+    }
+
+    @NotNull
+    public static IclusionExtractor buildIclusionExtractor(@NotNull EventClassifierConfig config,
+            @NotNull RefGenomeResource refGenomeResource, @NotNull DoidLookup missingDoidLookup,
+            @NotNull EventExtractionCache extractionCache) {
+        return new IclusionExtractor(EventExtractorFactory.create(config,
+                refGenomeResource,
+                DriverInconsistencyMode.WARN_ONLY,
+                extractionCache),
                 new ActionableTrialFactory(missingDoidLookup));
     }
 }
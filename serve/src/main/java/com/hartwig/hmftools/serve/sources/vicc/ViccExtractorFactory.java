@@ -2,6 +2,7 @@ package com.hartwig.hmftools.serve.sources.vicc;
 
 import com.hartwig.hmftools.common.serve.classification.EventClassifierConfig;
 import com.hartwig.hmftools.serve.curation.DoidLookup;
+import com.hartwig.hmftools.serve.extraction.EventExtractionCache;
 import com.hartwig.hmftools.serve.extraction.EventExtractorFactory;
 import com.hartwig.hmftools.serve.extraction.util.DriverInconsistencyMode;
 import com.hartwig.hmftools.serve.refgenome.RefGenomeResource;
@@ -19,7 +20,13 @@ public final class ViccExtractorFactory {
     @NotNull
     public static ViccExtractor buildViccExtractor(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
             @NotNull DoidLookup missingDoidLookup) {
-        return new ViccExtractor(EventExtractorFactory.create(config, refGenomeResource, DriverInconsistencyMode.IGNORE),
+        return buildViccExtractor(config, refGenomeResource, missingDoidLookup, EventExtractionCache.inMemory());
+    }
+
+    @NotNull
+    public static ViccExtractor buildViccExtractor(@NotNull EventClassifierConfig config, @NotNull RefGenomeResource refGenomeResource,
+            @NotNull DoidLookup missingDoidLookup, @NotNull EventExtractionCache extractionCache) {
+        return new ViccExtractor(EventExtractorFactory.create(config, refGenomeResource, DriverInconsistencyMode.IGNORE, extractionCache),
                 new ActionableEvidenceFactory(missingDoidLookup, new DrugCurator(), new EvidenceLevelCurator()));
     }
 }
@@ -1,5 +1,6 @@
 package com.hartwig.hmftools.serve.transvar;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.List;
@@ -9,6 +10,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeSource;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.genome.region.HmfTranscriptRegion;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
@@ -22,6 +24,8 @@ import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
 public class Transvar implements ProteinResolver {
 
     private static final Logger LOGGER = LogManager.getLogger(Transvar.class);
@@ -33,28 +37,48 @@ public class Transvar implements ProteinResolver {
     @NotNull
     private final EnsemblDataCache ensemblDataCache;
     @NotNull
-    private final Set<String> unresolvedProteinAnnotations = Sets.newHashSet();
+    private final TransvarCache cache;
+    @NotNull
+    private final Set<String> unresolvedProteinAnnotations = Sets.newConcurrentHashSet();
 
     @NotNull
     public static Transvar withRefGenome(@NotNull RefGenomeVersion refGenomeVersion, @NotNull String refGenomeFastaFile,
+            @NotNull EnsemblDataCache ensemblDataCache, @Nullable String cacheTsv) throws IOException {
+        IndexedFastaSequenceFile refGenome = new IndexedFastaSequenceFile(new File(refGenomeFastaFile));
+        return new Transvar(new TransvarNativeProcess(refGenomeVersion, new RefGenomeSource(refGenome), ensemblDataCache),
+                TransvarInterpreter.withRefGenome(refGenomeVersion, refGenomeFastaFile),
+                ensemblDataCache,
+                cacheTsv != null
+                        ? TransvarCache.fromFile(cacheTsv, TransvarCache.resourceFingerprint(refGenomeVersion, ensemblDataCache))
+                        : TransvarCache.inMemory());
+    }
+
+    @NotNull
+    public static Transvar withTransvarProcess(@NotNull RefGenomeVersion refGenomeVersion, @NotNull String refGenomeFastaFile,
             @NotNull EnsemblDataCache ensemblDataCache) throws FileNotFoundException {
         return new Transvar(new TransvarProcessImpl(refGenomeVersion, refGenomeFastaFile),
                 TransvarInterpreter.withRefGenome(refGenomeVersion, refGenomeFastaFile),
-                ensemblDataCache);
+                ensemblDataCache,
+                TransvarCache.inMemory());
     }
 
     @VisibleForTesting
     Transvar(@NotNull final TransvarProcess process, @NotNull final TransvarInterpreter interpreter,
-            @NotNull final EnsemblDataCache ensemblDataCache) {
+            @NotNull final EnsemblDataCache ensemblDataCache, @NotNull final TransvarCache cache) {
         this.process = process;
         this.interpreter = interpreter;
         this.ensemblDataCache = ensemblDataCache;
+        this.cache = cache;
     }
 
     @Override
     @NotNull
     public List<VariantHotspot> resolve(@NotNull String gene, @Nullable String specificTranscript, @NotNull String proteinAnnotation) {
-        List<VariantHotspot> hotspots = extractHotspotsForAnnotation(gene, specificTranscript, proteinAnnotation);
+        List<VariantHotspot> hotspots = cache.get(gene, specificTranscript, proteinAnnotation);
+        if (hotspots == null) {
+            hotspots = extractHotspotsForAnnotation(gene, specificTranscript, proteinAnnotation);
+            cache.put(gene, specificTranscript, proteinAnnotation, hotspots);
+        }
 
         String proteinKey = KeyFormatter.toProteinKey(gene, specificTranscript, proteinAnnotation);
         LOGGER.debug("Converted '{}' to {} hotspot(s)", proteinKey, hotspots.size());
@@ -71,6 +95,11 @@ public class Transvar implements ProteinResolver {
         return unresolvedProteinAnnotations;
     }
 
+    @Override
+    public void close() throws IOException {
+        cache.close();
+    }
+
     @NotNull
     private List<VariantHotspot> extractHotspotsForAnnotation(@NotNull String gene, @Nullable String specificTranscript,
             @NotNull String proteinAnnotation) {
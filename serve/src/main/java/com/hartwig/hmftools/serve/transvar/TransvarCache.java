@@ -0,0 +1,201 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.common.variant.hotspot.ImmutableVariantHotspotImpl;
+import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
+import com.hartwig.hmftools.serve.extraction.util.EnsemblFunctions;
+import com.hartwig.hmftools.serve.extraction.util.KeyFormatter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the hotspots resolved per gene, transcript and protein annotation. When backed by a file, the resolved annotations are read from
+ * it on creation and written back on close, so that subsequent runs only need to resolve annotations they haven't seen before.
+ * Annotations that could not be resolved are cached as well, with no hotspots.
+ *
+ * Every annotation is stored along with a fingerprint of the ref genome version and ensembl data it was resolved with, and is only
+ * reused on identical resources. Only the annotations used by the current run are written back, which keeps the file from growing with
+ * outdated resources.
+ */
+class TransvarCache implements Closeable {
+
+    private static final Logger LOGGER = LogManager.getLogger(TransvarCache.class);
+
+    private static final String FIELD_DELIMITER = "\t";
+    private static final String HOTSPOT_DELIMITER = ",";
+    private static final String HOTSPOT_FIELD_DELIMITER = ":";
+    private static final String HEADER = new StringJoiner(FIELD_DELIMITER).add("resourceFingerprint")
+            .add("gene")
+            .add("transcript")
+            .add("proteinAnnotation")
+            .add("hotspots")
+            .toString();
+
+    @NotNull
+    private final Map<String, List<VariantHotspot>> hotspotsPerProteinKey = Maps.newConcurrentMap();
+    @NotNull
+    private final Map<String, String> linePerProteinKey = Maps.newConcurrentMap();
+    @NotNull
+    private final Set<String> usedProteinKeys = Sets.newConcurrentHashSet();
+    @Nullable
+    private final File cacheFile;
+    @NotNull
+    private final String resourceFingerprint;
+
+    @NotNull
+    static TransvarCache inMemory() {
+        return new TransvarCache(null, "");
+    }
+
+    @NotNull
+    static TransvarCache fromFile(@NotNull String cacheTsv, @NotNull String resourceFingerprint) throws IOException {
+        File cacheFile = new File(cacheTsv);
+        TransvarCache cache = new TransvarCache(cacheFile, resourceFingerprint);
+
+        if (cacheFile.exists() && cacheFile.length() > 0) {
+            List<String> lines = Files.readAllLines(cacheFile.toPath());
+            if (lines.get(0).equals(HEADER)) {
+                for (String line : lines.subList(1, lines.size())) {
+                    cache.load(line);
+                }
+                LOGGER.info(" Loaded {} resolved protein annotations from {}", cache.hotspotsPerProteinKey.size(), cacheTsv);
+            } else {
+                LOGGER.info(" Ignoring hotspot cache {} written in a previous format", cacheTsv);
+            }
+        }
+
+        return cache;
+    }
+
+    @NotNull
+    static String resourceFingerprint(@NotNull RefGenomeVersion refGenomeVersion, @NotNull EnsemblDataCache ensemblDataCache) {
+        String content = refGenomeVersion.identifier() + FIELD_DELIMITER + EnsemblFunctions.fingerprint(ensemblDataCache);
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    private TransvarCache(@Nullable final File cacheFile, @NotNull final String resourceFingerprint) {
+        this.cacheFile = cacheFile;
+        this.resourceFingerprint = resourceFingerprint;
+    }
+
+    @Nullable
+    List<VariantHotspot> get(@NotNull String gene, @Nullable String transcript, @NotNull String proteinAnnotation) {
+        String proteinKey = KeyFormatter.toProteinKey(gene, transcript, proteinAnnotation);
+        List<VariantHotspot> hotspots = hotspotsPerProteinKey.get(proteinKey);
+        if (hotspots == null) {
+            return null;
+        }
+
+        usedProteinKeys.add(proteinKey);
+        return Lists.newArrayList(hotspots);
+    }
+
+    void put(@NotNull String gene, @Nullable String transcript, @NotNull String proteinAnnotation,
+            @NotNull List<VariantHotspot> hotspots) {
+        String proteinKey = KeyFormatter.toProteinKey(gene, transcript, proteinAnnotation);
+        usedProteinKeys.add(proteinKey);
+        if (hotspotsPerProteinKey.putIfAbsent(proteinKey, Lists.newArrayList(hotspots)) == null && cacheFile != null) {
+            linePerProteinKey.put(proteinKey, toLine(resourceFingerprint, gene, transcript, proteinAnnotation, hotspots));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (cacheFile == null) {
+            return;
+        }
+
+        // Write to a temporary file first so that an interrupted write never leaves a truncated cache behind.
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath())) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (String proteinKey : Sets.newTreeSet(usedProteinKeys)) {
+                String line = linePerProteinKey.get(proteinKey);
+                if (line != null) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        }
+
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug(" Wrote {} resolved protein annotations to {}", usedProteinKeys.size(), cacheFile.getPath());
+    }
+
+    private void load(@NotNull String line) {
+        String[] values = line.split(FIELD_DELIMITER, -1);
+        if (!values[0].equals(resourceFingerprint)) {
+            return;
+        }
+
+        String transcript = !values[2].isEmpty() ? values[2] : null;
+
+        List<VariantHotspot> hotspots = Lists.newArrayList();
+        if (!values[4].isEmpty()) {
+            for (String hotspot : values[4].split(HOTSPOT_DELIMITER)) {
+                hotspots.add(fromString(hotspot));
+            }
+        }
+
+        String proteinKey = KeyFormatter.toProteinKey(values[1], transcript, values[3]);
+        hotspotsPerProteinKey.put(proteinKey, hotspots);
+        linePerProteinKey.put(proteinKey, line);
+    }
+
+    @NotNull
+    private static String toLine(@NotNull String resourceFingerprint, @NotNull String gene, @Nullable String transcript,
+            @NotNull String proteinAnnotation, @NotNull List<VariantHotspot> hotspots) {
+        StringJoiner hotspotJoiner = new StringJoiner(HOTSPOT_DELIMITER);
+        for (VariantHotspot hotspot : hotspots) {
+            hotspotJoiner.add(toString(hotspot));
+        }
+
+        return new StringJoiner(FIELD_DELIMITER).add(resourceFingerprint)
+                .add(gene)
+                .add(transcript != null ? transcript : "")
+                .add(proteinAnnotation)
+                .add(hotspotJoiner.toString())
+                .toString();
+    }
+
+    @NotNull
+    private static String toString(@NotNull VariantHotspot hotspot) {
+        return new StringJoiner(HOTSPOT_FIELD_DELIMITER).add(hotspot.chromosome())
+                .add(String.valueOf(hotspot.position()))
+                .add(hotspot.ref())
+                .add(hotspot.alt())
+                .toString();
+    }
+
+    @NotNull
+    private static VariantHotspot fromString(@NotNull String hotspot) {
+        String[] values = hotspot.split(HOTSPOT_FIELD_DELIMITER);
+        return ImmutableVariantHotspotImpl.builder()
+                .chromosome(values[0])
+                .position(Integer.parseInt(values[1]))
+                .ref(values[2])
+                .alt(values[3])
+                .build();
+    }
+}
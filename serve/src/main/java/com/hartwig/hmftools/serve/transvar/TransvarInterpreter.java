@@ -476,7 +476,10 @@ class TransvarInterpreter {
     @NotNull
     private String refSequence(@NotNull String chromosome, int start, int end) {
         String versionedChromosome = refGenomeVersion.versionedChromosome(chromosome);
-        return refGenomeFasta.getSubsequenceAt(versionedChromosome, start, end).getBaseString();
+        // The fasta file can't be read concurrently, which protein resolving may do.
+        synchronized (refGenomeFasta) {
+            return refGenomeFasta.getSubsequenceAt(versionedChromosome, start, end).getBaseString();
+        }
     }
 
     @NotNull
@@ -0,0 +1,613 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static com.hartwig.hmftools.common.codon.Nucleotides.reverseStrandBases;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.codon.AminoAcids;
+import com.hartwig.hmftools.common.codon.Codons;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.gene.ExonData;
+import com.hartwig.hmftools.common.gene.GeneData;
+import com.hartwig.hmftools.common.gene.TranscriptData;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeFunctions;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarInsertion;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarSnvMnv;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarAnnotation;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Resolves protein annotations to transvar records in-process, by walking the coding exons of the gene's transcripts in the ensembl
+ * data cache and reading the affected codons from the ref genome. Records are created the way transvar reports them, so that the
+ * interpreter can turn them into hotspots without knowing which process produced them.
+ */
+class TransvarNativeProcess implements TransvarProcess {
+
+    private static final Logger LOGGER = LogManager.getLogger(TransvarNativeProcess.class);
+
+    private static final Pattern SINGLE_CODON_CHANGE = Pattern.compile("^([A-Z*])(\\d+)([A-Z*])$");
+    private static final Pattern SINGLE_CODON_DEL_DUP = Pattern.compile("^([A-Z*])(\\d+)(del|dup)$");
+    private static final Pattern SINGLE_CODON_DELINS = Pattern.compile("^([A-Z*])(\\d+)delins([A-Z*]+)$");
+    private static final Pattern RANGE_DEL_DUP = Pattern.compile("^([A-Z*])(\\d+)_([A-Z*])(\\d+)(del|dup)$");
+    private static final Pattern RANGE_INSERTION = Pattern.compile("^([A-Z*])(\\d+)_([A-Z*])(\\d+)ins([A-Z*]+)$");
+    private static final Pattern RANGE_DELINS = Pattern.compile("^([A-Z*])(\\d+)_([A-Z*])(\\d+)delins([A-Z*]+)$");
+    private static final Pattern FRAMESHIFT = Pattern.compile("^([A-Z*])(\\d+)fs(\\*\\d*)?$");
+
+    // Deletions and duplications are shifted through repeats up to this many bases, which is well beyond any repeat in a coding region.
+    private static final int MAX_ALIGNMENT_SHIFT = 200;
+
+    private static final String HGVS_STOP = "*";
+
+    @NotNull
+    private final RefGenomeVersion refGenomeVersion;
+    @NotNull
+    private final RefGenomeInterface refGenome;
+    @NotNull
+    private final EnsemblDataCache ensemblDataCache;
+    @NotNull
+    private final TransvarCurator curator = new TransvarCurator();
+
+    TransvarNativeProcess(@NotNull final RefGenomeVersion refGenomeVersion, @NotNull final RefGenomeInterface refGenome,
+            @NotNull final EnsemblDataCache ensemblDataCache) {
+        this.refGenomeVersion = refGenomeVersion;
+        this.refGenome = refGenome;
+        this.ensemblDataCache = ensemblDataCache;
+    }
+
+    @Override
+    @NotNull
+    public List<TransvarRecord> runTransvarPanno(@NotNull String gene, @NotNull String proteinAnnotation) {
+        List<TransvarRecord> records = Lists.newArrayList();
+
+        GeneData geneData = ensemblDataCache.getGeneDataByName(gene);
+        List<TranscriptData> transcripts = geneData != null ? ensemblDataCache.getTranscripts(geneData.GeneId) : null;
+        if (transcripts == null) {
+            LOGGER.debug("Could not find any transcripts for '{}' in ensembl data cache", gene);
+            return records;
+        }
+
+        // Gene names are taken from the ensembl data cache already, so only the protein annotation needs curation.
+        String curatedProteinAnnotation = curator.curateProteinAnnotation(proteinAnnotation);
+
+        for (TranscriptData transcript : transcripts) {
+            if (transcript.nonCoding() || transcript.exons().isEmpty()) {
+                continue;
+            }
+
+            TransvarRecord record = resolveOnTranscript(geneData, transcript, curatedProteinAnnotation);
+            if (record != null) {
+                if (transcript.IsCanonical) {
+                    records.add(0, record);
+                } else {
+                    records.add(record);
+                }
+            }
+        }
+
+        return records;
+    }
+
+    @Nullable
+    private TransvarRecord resolveOnTranscript(@NotNull GeneData geneData, @NotNull TranscriptData transcript,
+            @NotNull String proteinAnnotation) {
+        CodingRegion codingRegion = new CodingRegion(geneData, transcript);
+
+        Matcher matcher = SINGLE_CODON_CHANGE.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            return createSnvMnv(codingRegion, aminoAcid(matcher.group(1)), codon(matcher.group(2)), aminoAcid(matcher.group(3)));
+        }
+
+        matcher = SINGLE_CODON_DEL_DUP.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            int codon = codon(matcher.group(2));
+            return createDeletionOrDuplication(codingRegion, aminoAcid(matcher.group(1)), codon, aminoAcid(matcher.group(1)), codon,
+                    matcher.group(3).equals("dup"));
+        }
+
+        matcher = SINGLE_CODON_DELINS.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            int codon = codon(matcher.group(2));
+            return createComplexInsertDelete(codingRegion, aminoAcid(matcher.group(1)), codon, aminoAcid(matcher.group(1)), codon,
+                    aminoAcid(matcher.group(3)));
+        }
+
+        matcher = RANGE_DEL_DUP.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            return createDeletionOrDuplication(codingRegion,
+                    aminoAcid(matcher.group(1)),
+                    codon(matcher.group(2)),
+                    aminoAcid(matcher.group(3)),
+                    codon(matcher.group(4)),
+                    matcher.group(5).equals("dup"));
+        }
+
+        matcher = RANGE_INSERTION.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            return createInsertion(codingRegion,
+                    aminoAcid(matcher.group(1)),
+                    codon(matcher.group(2)),
+                    aminoAcid(matcher.group(3)),
+                    codon(matcher.group(4)),
+                    aminoAcid(matcher.group(5)));
+        }
+
+        matcher = RANGE_DELINS.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            return createComplexInsertDelete(codingRegion,
+                    aminoAcid(matcher.group(1)),
+                    codon(matcher.group(2)),
+                    aminoAcid(matcher.group(3)),
+                    codon(matcher.group(4)),
+                    aminoAcid(matcher.group(5)));
+        }
+
+        matcher = FRAMESHIFT.matcher(proteinAnnotation);
+        if (matcher.matches()) {
+            return createFrameshift(codingRegion, aminoAcid(matcher.group(1)), codon(matcher.group(2)));
+        }
+
+        LOGGER.debug("Could not interpret protein annotation 'p.{}'", proteinAnnotation);
+        return null;
+    }
+
+    @Nullable
+    private TransvarRecord createSnvMnv(@NotNull CodingRegion region, @NotNull String refAminoAcid, int codon,
+            @NotNull String altAminoAcid) {
+        int[] positions = region.codonPositions(codon, codon);
+        if (positions == null || !matchesRef(region, positions, refAminoAcid)) {
+            return null;
+        }
+
+        String referenceCodon = region.codingBases(positions);
+        List<String> candidateCodons = AminoAcids.AMINO_ACID_TO_CODON_MAP.get(altAminoAcid);
+        if (candidateCodons == null) {
+            return null;
+        }
+
+        // Like transvar we report the candidate codon which needs the fewest bases changed.
+        String bestCodon = closestCodon(candidateCodons, referenceCodon);
+        if (changeCount(bestCodon, referenceCodon) == 0) {
+            LOGGER.debug("Protein annotation {}{}{} does not change the coding sequence", refAminoAcid, codon, altAminoAcid);
+            return null;
+        }
+
+        int firstChanged = 0;
+        while (referenceCodon.charAt(firstChanged) == bestCodon.charAt(firstChanged)) {
+            firstChanged++;
+        }
+        int lastChanged = 2;
+        while (referenceCodon.charAt(lastChanged) == bestCodon.charAt(lastChanged)) {
+            lastChanged--;
+        }
+
+        String codingRef = referenceCodon.substring(firstChanged, lastChanged + 1);
+        String codingAlt = bestCodon.substring(firstChanged, lastChanged + 1);
+
+        TransvarAnnotation annotation = ImmutableTransvarSnvMnv.builder()
+                .gdnaRef(region.forward() ? codingRef : reverseStrandBases(codingRef))
+                .gdnaAlt(region.forward() ? codingAlt : reverseStrandBases(codingAlt))
+                .referenceCodon(referenceCodon)
+                .candidateCodons(candidateCodons)
+                .build();
+
+        // The gDNA position is the lowest position of the changed bases, which is the last changed base on the reverse strand.
+        int position = region.forward() ? positions[firstChanged] : positions[lastChanged];
+        return toRecord(region, position, !isContiguous(positions), annotation);
+    }
+
+    @Nullable
+    private TransvarRecord createDeletionOrDuplication(@NotNull CodingRegion region, @NotNull String startAminoAcid, int startCodon,
+            @NotNull String endAminoAcid, int endCodon, boolean isDuplication) {
+        int[] positions = region.codonPositions(startCodon, endCodon);
+        if (positions == null || !matchesRefAtEnds(region, positions, startAminoAcid, endAminoAcid)) {
+            return null;
+        }
+
+        int start = lowest(positions);
+        int end = highest(positions);
+        int baseCount = end - start + 1;
+
+        if (isDuplication) {
+            TransvarAnnotation annotation = ImmutableTransvarDuplication.builder().duplicatedBaseCount(baseCount).build();
+            return toRecord(region, alignDuplication(region, startCodon, endCodon, positions), !isContiguous(positions), annotation);
+        }
+
+        TransvarAnnotation annotation = ImmutableTransvarDeletion.builder()
+                .deletedBaseCount(baseCount)
+                .leftAlignedGDNAPosition(leftAlign(region.chromosome(), start, end))
+                .build();
+
+        return toRecord(region, rightAlign(region.chromosome(), start, end), !isContiguous(positions), annotation);
+    }
+
+    @Nullable
+    private TransvarRecord createInsertion(@NotNull CodingRegion region, @NotNull String startAminoAcid, int startCodon,
+            @NotNull String endAminoAcid, int endCodon, @NotNull String insertedAminoAcids) {
+        if (endCodon != startCodon + 1) {
+            LOGGER.debug("Insertion needs to be between adjacent codons rather than {} and {}", startCodon, endCodon);
+            return null;
+        }
+
+        int[] positions = region.codonPositions(startCodon, endCodon);
+        if (positions == null || !matchesRefAtEnds(region, positions, startAminoAcid, endAminoAcid)) {
+            return null;
+        }
+
+        // Like transvar we report an insert repeating the amino acids following or preceding it as a duplication of those.
+        int insertedCount = insertedAminoAcids.length();
+        String firstInserted = insertedAminoAcids.substring(0, 1);
+        String lastInserted = insertedAminoAcids.substring(insertedCount - 1);
+        if (insertedAminoAcids.equals(referenceAminoAcids(region, endCodon, endCodon + insertedCount - 1))) {
+            return createDeletionOrDuplication(region, firstInserted, endCodon, lastInserted, endCodon + insertedCount - 1, true);
+        } else if (insertedAminoAcids.equals(referenceAminoAcids(region, startCodon - insertedCount + 1, startCodon))) {
+            return createDeletionOrDuplication(region, firstInserted, startCodon - insertedCount + 1, lastInserted, startCodon, true);
+        }
+
+        // The inserted codons are picked against the codons following the insert.
+        int[] followingPositions = region.codonPositions(endCodon, endCodon + insertedAminoAcids.length() - 1);
+        String codingInsert = toCodons(insertedAminoAcids,
+                region.codingBases(followingPositions != null ? followingPositions : Arrays.copyOfRange(positions, 3, 6)));
+        if (codingInsert == null) {
+            return null;
+        }
+
+        // The insert goes between the last base of the first codon and the first base of the second codon, so on the reverse strand
+        // it follows the (higher) first base of the second codon.
+        int lastBaseFirstCodon = positions[2];
+        int firstBaseSecondCodon = positions[3];
+        int anchor = region.forward() ? lastBaseFirstCodon : firstBaseSecondCodon;
+        String insertedBases = region.forward() ? codingInsert : reverseStrandBases(codingInsert);
+
+        TransvarAnnotation annotation = ImmutableTransvarInsertion.builder()
+                .insertedBases(insertedBases)
+                .leftAlignedGDNAPosition(leftAlignInsertion(region.chromosome(), anchor, insertedBases))
+                .build();
+
+        return toRecord(region, anchor, Math.abs(firstBaseSecondCodon - lastBaseFirstCodon) != 1, annotation);
+    }
+
+    @Nullable
+    private TransvarRecord createComplexInsertDelete(@NotNull CodingRegion region, @NotNull String startAminoAcid, int startCodon,
+            @NotNull String endAminoAcid, int endCodon, @NotNull String insertedAminoAcids) {
+        int[] positions = region.codonPositions(startCodon, endCodon);
+        if (positions == null || !matchesRefAtEnds(region, positions, startAminoAcid, endAminoAcid)) {
+            return null;
+        }
+
+        String codingInsert = toCodons(insertedAminoAcids, region.codingBases(positions));
+        if (codingInsert == null) {
+            return null;
+        }
+
+        List<String> candidateAlternativeCodons = Lists.newArrayList();
+        if (insertedAminoAcids.length() == 1) {
+            candidateAlternativeCodons.addAll(AminoAcids.AMINO_ACID_TO_CODON_MAP.get(insertedAminoAcids));
+        }
+
+        TransvarAnnotation annotation = ImmutableTransvarComplexInsertDelete.builder()
+                .deletedBaseCount(positions.length)
+                .insertedSequence(region.forward() ? codingInsert : reverseStrandBases(codingInsert))
+                .candidateAlternativeCodons(candidateAlternativeCodons)
+                .build();
+
+        return toRecord(region, lowest(positions), !isContiguous(positions), annotation);
+    }
+
+    @Nullable
+    private TransvarRecord createFrameshift(@NotNull CodingRegion region, @NotNull String refAminoAcid, int codon) {
+        int[] positions = region.codonPositions(codon, codon);
+        if (positions == null || !matchesRef(region, positions, refAminoAcid)) {
+            return null;
+        }
+
+        // Transvar reports the lower bound of the gDNA range spanning the base prior to the codon and the first base of the codon, which
+        // is the base prior to the codon on the forward strand and the first base of the codon on the reverse strand. Within the start
+        // codon the interpreter reads the codon back from one base further along the coding sequence.
+        boolean isInsideStartCodon = codon == 1;
+        int firstBase = positions[0];
+        int position;
+        if (region.forward()) {
+            position = isInsideStartCodon ? firstBase : firstBase - 1;
+        } else {
+            position = isInsideStartCodon ? firstBase - 1 : firstBase;
+        }
+
+        TransvarAnnotation annotation = ImmutableTransvarFrameshift.builder().isFrameshiftInsideStartCodon(isInsideStartCodon).build();
+        return toRecord(region, position, !isContiguous(positions), annotation);
+    }
+
+    @NotNull
+    private static TransvarRecord toRecord(@NotNull CodingRegion region, int position, boolean variantSpanMultipleExons,
+            @NotNull TransvarAnnotation annotation) {
+        return ImmutableTransvarRecord.builder()
+                .transcript(region.transcript().TransName)
+                .chromosome(RefGenomeFunctions.stripChrPrefix(region.chromosome()))
+                .gdnaPosition(position)
+                .variantSpanMultipleExons(variantSpanMultipleExons)
+                .annotation(annotation)
+                .build();
+    }
+
+    private boolean matchesRef(@NotNull CodingRegion region, @NotNull int[] positions, @NotNull String refAminoAcid) {
+        return matchesRefAtEnds(region, positions, refAminoAcid, refAminoAcid);
+    }
+
+    private boolean matchesRefAtEnds(@NotNull CodingRegion region, @NotNull int[] positions, @NotNull String startAminoAcid,
+            @NotNull String endAminoAcid) {
+        String codingBases = region.codingBases(positions);
+        String startRef = String.valueOf(Codons.codonToAminoAcid(codingBases.substring(0, 3)));
+        String endRef = String.valueOf(Codons.codonToAminoAcid(codingBases.substring(codingBases.length() - 3)));
+
+        if (!startRef.equals(startAminoAcid) || !endRef.equals(endAminoAcid)) {
+            LOGGER.debug("Reference amino acids {} and {} on {} do not match {} and {}",
+                    startRef,
+                    endRef,
+                    region.transcript().TransName,
+                    startAminoAcid,
+                    endAminoAcid);
+            return false;
+        }
+        return true;
+    }
+
+    @Nullable
+    private static String referenceAminoAcids(@NotNull CodingRegion region, int startCodon, int endCodon) {
+        int[] positions = region.codonPositions(startCodon, endCodon);
+        return positions != null ? Codons.aminoAcidFromBases(region.codingBases(positions)) : null;
+    }
+
+    /**
+     * Transvar moves a duplication along the genome by up to two bases while the duplicated bases still encode the same protein,
+     * which can take it partly into the neighbouring codons, before right aligning it through any repeat.
+     */
+    private int alignDuplication(@NotNull CodingRegion region, int startCodon, int endCodon, @NotNull int[] positions) {
+        int[] flankedPositions = region.codonPositions(startCodon - 1, endCodon + 1);
+        if (flankedPositions != null) {
+            String flankedBases = region.codingBases(flankedPositions);
+            int dupStart = 3;
+            int dupEnd = flankedBases.length() - 4;
+            String expectedProtein = Codons.aminoAcidFromBases(duplicate(flankedBases, dupStart, dupEnd));
+
+            // Moving right along the genome is moving along the coding sequence on the forward strand and back on the reverse strand.
+            int direction = region.forward() ? 1 : -1;
+            for (int shift = 1; shift <= 2; shift++) {
+                int shiftedStart = dupStart + direction * shift;
+                int shiftedEnd = dupEnd + direction * shift;
+                int[] shiftedPositions = Arrays.copyOfRange(flankedPositions, shiftedStart, shiftedEnd + 1);
+                if (!isContiguous(shiftedPositions) || !Codons.aminoAcidFromBases(duplicate(flankedBases, shiftedStart, shiftedEnd))
+                        .equals(expectedProtein)) {
+                    break;
+                }
+                positions = shiftedPositions;
+            }
+        }
+
+        return rightAlign(region.chromosome(), lowest(positions), highest(positions));
+    }
+
+    @NotNull
+    private static String duplicate(@NotNull String bases, int start, int end) {
+        return bases.substring(0, end + 1) + bases.substring(start, end + 1) + bases.substring(end + 1);
+    }
+
+    private int leftAlign(@NotNull String chromosome, int start, int end) {
+        int windowStart = Math.max(1, start - MAX_ALIGNMENT_SHIFT);
+        String window = refSequence(chromosome, windowStart, end);
+
+        while (start > windowStart && window.charAt(start - 1 - windowStart) == window.charAt(end - windowStart)) {
+            start--;
+            end--;
+        }
+        return start;
+    }
+
+    private int rightAlign(@NotNull String chromosome, int start, int end) {
+        int windowEnd = Math.min(refGenome.getChromosomeLength(refGenomeVersion.versionedChromosome(chromosome)),
+                end + MAX_ALIGNMENT_SHIFT);
+        int windowStart = start;
+        String window = refSequence(chromosome, windowStart, windowEnd);
+
+        while (end < windowEnd && window.charAt(end + 1 - windowStart) == window.charAt(start - windowStart)) {
+            start++;
+            end++;
+        }
+        return start;
+    }
+
+    private int leftAlignInsertion(@NotNull String chromosome, int anchor, @NotNull String insertedBases) {
+        int windowStart = Math.max(1, anchor - MAX_ALIGNMENT_SHIFT);
+        String window = refSequence(chromosome, windowStart, anchor);
+
+        String bases = insertedBases;
+        while (anchor > windowStart && window.charAt(anchor - windowStart) == bases.charAt(bases.length() - 1)) {
+            bases = bases.charAt(bases.length() - 1) + bases.substring(0, bases.length() - 1);
+            anchor--;
+        }
+        return anchor;
+    }
+
+    @NotNull
+    private String refSequence(@NotNull String chromosome, int start, int end) {
+        // The underlying fasta file can't be read concurrently.
+        synchronized (refGenome) {
+            return refGenome.getBaseString(refGenomeVersion.versionedChromosome(chromosome), start, end);
+        }
+    }
+
+    /**
+     * Picks a codon per amino acid, preferring the candidate which needs the fewest bases changed against the reference codon it lines
+     * up with. Amino acids beyond the reference bases take the first candidate codon.
+     */
+    @Nullable
+    private static String toCodons(@NotNull String aminoAcids, @NotNull String referenceBases) {
+        StringBuilder codons = new StringBuilder();
+        for (int i = 0; i < aminoAcids.length(); i++) {
+            List<String> candidates = AminoAcids.AMINO_ACID_TO_CODON_MAP.get(String.valueOf(aminoAcids.charAt(i)));
+            if (candidates == null) {
+                LOGGER.debug("Could not find codons for amino acid '{}'", aminoAcids.charAt(i));
+                return null;
+            }
+
+            int codonStart = 3 * i;
+            if (codonStart + 3 <= referenceBases.length()) {
+                codons.append(closestCodon(candidates, referenceBases.substring(codonStart, codonStart + 3)));
+            } else {
+                codons.append(candidates.get(0));
+            }
+        }
+        return codons.toString();
+    }
+
+    @NotNull
+    private static String closestCodon(@NotNull List<String> candidateCodons, @NotNull String referenceCodon) {
+        String bestCodon = candidateCodons.get(0);
+        for (String candidateCodon : candidateCodons) {
+            if (changeCount(candidateCodon, referenceCodon) < changeCount(bestCodon, referenceCodon)) {
+                bestCodon = candidateCodon;
+            }
+        }
+        return bestCodon;
+    }
+
+    private static int changeCount(@NotNull String codon, @NotNull String referenceCodon) {
+        int changeCount = 0;
+        for (int i = 0; i < 3; i++) {
+            if (codon.charAt(i) != referenceCodon.charAt(i)) {
+                changeCount++;
+            }
+        }
+        return changeCount;
+    }
+
+    @NotNull
+    private static String aminoAcid(@NotNull String hgvsAminoAcids) {
+        // The amino acid map refers to the stop codon as X.
+        return hgvsAminoAcids.replace(HGVS_STOP, String.valueOf(Codons.STOP_AMINO_ACID));
+    }
+
+    private static int codon(@NotNull String codonString) {
+        return Integer.parseInt(codonString);
+    }
+
+    private static boolean isContiguous(@NotNull int[] positions) {
+        return highest(positions) - lowest(positions) == positions.length - 1;
+    }
+
+    private static int lowest(@NotNull int[] positions) {
+        return Math.min(positions[0], positions[positions.length - 1]);
+    }
+
+    private static int highest(@NotNull int[] positions) {
+        return Math.max(positions[0], positions[positions.length - 1]);
+    }
+
+    /**
+     * The coding bases of a transcript in coding order, mapped onto the genome.
+     */
+    private class CodingRegion {
+
+        @NotNull
+        private final GeneData gene;
+        @NotNull
+        private final TranscriptData transcript;
+        @NotNull
+        private final List<ExonData> exons;
+
+        CodingRegion(@NotNull final GeneData gene, @NotNull final TranscriptData transcript) {
+            this.gene = gene;
+            this.transcript = transcript;
+
+            Comparator<ExonData> codingOrder = Comparator.comparingInt(exon -> exon.Start);
+            this.exons = transcript.exons()
+                    .stream()
+                    .sorted(transcript.posStrand() ? codingOrder : codingOrder.reversed())
+                    .collect(Collectors.toList());
+        }
+
+        @NotNull
+        String chromosome() {
+            return gene.Chromosome;
+        }
+
+        @NotNull
+        TranscriptData transcript() {
+            return transcript;
+        }
+
+        boolean forward() {
+            return transcript.posStrand();
+        }
+
+        /**
+         * Returns the genomic positions of the bases of the codon range in coding order, or null if the range is not coding.
+         */
+        @Nullable
+        int[] codonPositions(int startCodon, int endCodon) {
+            if (startCodon < 1 || endCodon < startCodon) {
+                return null;
+            }
+
+            int firstBase = 3 * (startCodon - 1);
+            int lastBase = 3 * endCodon - 1;
+            int[] positions = new int[lastBase - firstBase + 1];
+
+            int codingBase = 0;
+            for (ExonData exon : exons) {
+                int start = Math.max(exon.Start, transcript.CodingStart);
+                int end = Math.min(exon.End, transcript.CodingEnd);
+                if (start > end) {
+                    continue;
+                }
+
+                int exonCodingBases = end - start + 1;
+                int from = Math.max(firstBase, codingBase);
+                int to = Math.min(lastBase, codingBase + exonCodingBases - 1);
+                for (int base = from; base <= to; base++) {
+                    int offset = base - codingBase;
+                    positions[base - firstBase] = forward() ? start + offset : end - offset;
+                }
+
+                codingBase += exonCodingBases;
+                if (codingBase > lastBase) {
+                    return positions;
+                }
+            }
+
+            return null;
+        }
+
+        @NotNull
+        String codingBases(@NotNull int[] positions) {
+            StringBuilder bases = new StringBuilder();
+            int runStart = 0;
+            for (int i = 1; i <= positions.length; i++) {
+                if (i == positions.length || Math.abs(positions[i] - positions[i - 1]) != 1) {
+                    int low = Math.min(positions[runStart], positions[i - 1]);
+                    int high = Math.max(positions[runStart], positions[i - 1]);
+                    String run = refSequence(chromosome(), low, high);
+                    bases.append(forward() ? run : reverseStrandBases(run));
+                    runStart = i;
+                }
+            }
+            return bases.toString();
+        }
+    }
+}
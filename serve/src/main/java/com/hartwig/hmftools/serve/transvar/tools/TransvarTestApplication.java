@@ -3,6 +3,8 @@ package com.hartwig.hmftools.serve.transvar.tools;
 import java.io.IOException;
 import java.util.List;
 
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
 import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
 import com.hartwig.hmftools.serve.refgenome.EnsemblDataCacheLoader;
@@ -37,26 +39,37 @@ public class TransvarTestApplication {
             System.exit(1);
         }
 
-        Transvar transvar37 = Transvar.withRefGenome(RefGenomeVersion.V37,
-                config.refGenome37FastaFile(),
-                EnsemblDataCacheLoader.load(config.ensemblDataDir37(), RefGenomeVersion.V37));
+        EnsemblDataCache ensemblDataCache37 = EnsemblDataCacheLoader.loadWithAllTranscripts(config.ensemblDataDir37(), RefGenomeVersion.V37);
+        Transvar transvar37 = Transvar.withRefGenome(RefGenomeVersion.V37, config.refGenome37FastaFile(), ensemblDataCache37, null);
+        Transvar transvarProcess37 =
+                Transvar.withTransvarProcess(RefGenomeVersion.V37, config.refGenome37FastaFile(), ensemblDataCache37);
 
-        extractAndPrintHotspots(transvar37, config.gene37(), config.transcript37(), config.protein37());
+        extractAndPrintHotspots(transvar37, transvarProcess37, config.gene37(), config.transcript37(), config.protein37());
 
-        Transvar transvar38 = Transvar.withRefGenome(RefGenomeVersion.V38,
-                config.refGenome38FastaFile(),
-                EnsemblDataCacheLoader.load(config.ensemblDataDir38(), RefGenomeVersion.V38));
+        EnsemblDataCache ensemblDataCache38 = EnsemblDataCacheLoader.loadWithAllTranscripts(config.ensemblDataDir38(), RefGenomeVersion.V38);
+        Transvar transvar38 = Transvar.withRefGenome(RefGenomeVersion.V38, config.refGenome38FastaFile(), ensemblDataCache38, null);
+        Transvar transvarProcess38 =
+                Transvar.withTransvarProcess(RefGenomeVersion.V38, config.refGenome38FastaFile(), ensemblDataCache38);
 
-        extractAndPrintHotspots(transvar38, config.gene38(), config.transcript38(), config.protein38());
+        extractAndPrintHotspots(transvar38, transvarProcess38, config.gene38(), config.transcript38(), config.protein38());
     }
 
-    private static void extractAndPrintHotspots(@NotNull Transvar transvar, @NotNull String gene, @Nullable String specificTranscript,
-            @NotNull String proteinAnnotation) {
+    private static void extractAndPrintHotspots(@NotNull Transvar transvar, @NotNull Transvar transvarProcess, @NotNull String gene,
+            @Nullable String specificTranscript, @NotNull String proteinAnnotation) {
         List<VariantHotspot> hotspots = transvar.resolve(gene, specificTranscript, proteinAnnotation);
 
         LOGGER.info("Printing hotspots for '{}:p.{}' on transcript {}", gene, proteinAnnotation, specificTranscript);
         for (VariantHotspot hotspot : hotspots) {
             LOGGER.info(" {}", hotspot);
         }
+
+        // Compare against the transvar tool itself, which needs to be installed for this.
+        List<VariantHotspot> processHotspots = transvarProcess.resolve(gene, specificTranscript, proteinAnnotation);
+        if (!Sets.newHashSet(hotspots).equals(Sets.newHashSet(processHotspots))) {
+            LOGGER.warn("Transvar process resolved different hotspots for '{}:p.{}'", gene, proteinAnnotation);
+            for (VariantHotspot hotspot : processHotspots) {
+                LOGGER.warn(" {}", hotspot);
+            }
+        }
     }
 }
@@ -0,0 +1,220 @@
+package com.hartwig.hmftools.serve.extraction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.hartwig.hmftools.ckb.classification.CkbClassificationConfig;
+import com.hartwig.hmftools.common.serve.classification.EventType;
+import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
+import com.hartwig.hmftools.serve.extraction.characteristic.ImmutableTumorCharacteristic;
+import com.hartwig.hmftools.serve.extraction.characteristic.TumorCharacteristicAnnotation;
+import com.hartwig.hmftools.serve.extraction.characteristic.TumorCharacteristicsComparator;
+import com.hartwig.hmftools.serve.extraction.codon.ImmutableCodonAnnotation;
+import com.hartwig.hmftools.serve.extraction.copynumber.CopyNumberType;
+import com.hartwig.hmftools.serve.extraction.copynumber.ImmutableKnownCopyNumber;
+import com.hartwig.hmftools.serve.extraction.exon.ImmutableExonAnnotation;
+import com.hartwig.hmftools.serve.extraction.fusion.ImmutableKnownFusionPair;
+import com.hartwig.hmftools.serve.extraction.gene.GeneLevelEvent;
+import com.hartwig.hmftools.serve.extraction.gene.ImmutableGeneLevelAnnotation;
+import com.hartwig.hmftools.serve.extraction.hotspot.ProteinResolver;
+import com.hartwig.hmftools.serve.extraction.immuno.ImmutableImmunoHLA;
+import com.hartwig.hmftools.serve.extraction.util.DriverInconsistencyMode;
+import com.hartwig.hmftools.serve.extraction.util.MutationTypeFilter;
+import com.hartwig.hmftools.serve.refgenome.ImmutableRefGenomeResource;
+import com.hartwig.hmftools.serve.refgenome.RefGenomeResource;
+import com.hartwig.hmftools.serve.refgenome.RefGenomeResourceTestFactory;
+
+import org.apache.logging.log4j.Level;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+public class EventExtractionCacheTest {
+
+    @Test
+    public void canReloadExtractedEvents() throws IOException {
+        File cacheFile = File.createTempFile("extraction_cache", ".tsv");
+        cacheFile.deleteOnExit();
+        assertTrue(cacheFile.delete());
+
+        EventExtractorOutput fullOutput = ImmutableEventExtractorOutput.builder()
+                .codons(Lists.newArrayList(ImmutableCodonAnnotation.builder()
+                        .gene("BRAF")
+                        .transcript("ENST00000288602")
+                        .chromosome("7")
+                        .start(10)
+                        .end(12)
+                        .mutationType(MutationTypeFilter.MISSENSE)
+                        .rank(600)
+                        .build()))
+                .exons(Lists.newArrayList(ImmutableExonAnnotation.builder()
+                        .gene("BRAF")
+                        .transcript("ENST00000288602")
+                        .chromosome("7")
+                        .start(5)
+                        .end(20)
+                        .mutationType(MutationTypeFilter.ANY)
+                        .rank(15)
+                        .build()))
+                .geneLevelEvent(ImmutableGeneLevelAnnotation.builder().gene("BRAF").event(GeneLevelEvent.ACTIVATION).build())
+                .knownCopyNumber(ImmutableKnownCopyNumber.builder().gene("BRAF").type(CopyNumberType.AMPLIFICATION).build())
+                .knownFusionPair(ImmutableKnownFusionPair.builder().geneUp("EGFR").minExonUp(25).geneDown("EGFR").maxExonDown(18).build())
+                .characteristic(ImmutableTumorCharacteristic.builder()
+                        .name(TumorCharacteristicAnnotation.HIGH_TUMOR_MUTATIONAL_LOAD)
+                        .comparator(TumorCharacteristicsComparator.EQUAL_OR_GREATER)
+                        .cutoff(140D)
+                        .build())
+                .hla(ImmutableImmunoHLA.builder().immunoHLA("A*02:01").build())
+                .build();
+        EventExtractorOutput emptyOutput = ImmutableEventExtractorOutput.builder().codons(Lists.newArrayList()).build();
+
+        String fullFingerprint = EventExtractionCache.fingerprint("resources", "BRAF", null, EventType.HOTSPOT, "V600E");
+        String emptyFingerprint = EventExtractionCache.fingerprint("resources", "BRAF", "ENST00000288602", EventType.HOTSPOT, "V600X");
+        assertNotEquals(fullFingerprint, EventExtractionCache.fingerprint("other", "BRAF", null, EventType.HOTSPOT, "V600E"));
+
+        EventExtractionCache cache = EventExtractionCache.fromFile(cacheFile.getPath());
+        cache.put(fullFingerprint, "BRAF", null, EventType.HOTSPOT, "V600E", fullOutput, Lists.newArrayList());
+        cache.put(emptyFingerprint, "BRAF", "ENST00000288602", EventType.HOTSPOT, "V600X", emptyOutput, Lists.newArrayList());
+        cache.close();
+
+        EventExtractionCache reloadedCache = EventExtractionCache.fromFile(cacheFile.getPath());
+        assertEquals(fullOutput, reloadedCache.get(fullFingerprint));
+        assertEquals(emptyOutput, reloadedCache.get(emptyFingerprint));
+        assertNull(reloadedCache.get(EventExtractionCache.fingerprint("resources", "BRAF", null, EventType.HOTSPOT, "V600K")));
+
+        assertEquals(2, reloadedCache.hitCount());
+        assertEquals(1, reloadedCache.missCount());
+    }
+
+    @Test
+    public void onlyWritesBackUsedExtractions() throws IOException {
+        File cacheFile = File.createTempFile("extraction_cache", ".tsv");
+        cacheFile.deleteOnExit();
+        assertTrue(cacheFile.delete());
+
+        EventExtractorOutput output = ImmutableEventExtractorOutput.builder()
+                .knownCopyNumber(ImmutableKnownCopyNumber.builder().gene("BRAF").type(CopyNumberType.AMPLIFICATION).build())
+                .build();
+        String usedFingerprint = EventExtractionCache.fingerprint("resources", "BRAF", null, EventType.AMPLIFICATION, "BRAF amp");
+        String outdatedFingerprint = EventExtractionCache.fingerprint("outdated", "BRAF", null, EventType.AMPLIFICATION, "BRAF amp");
+
+        EventExtractionCache cache = EventExtractionCache.fromFile(cacheFile.getPath());
+        cache.put(usedFingerprint, "BRAF", null, EventType.AMPLIFICATION, "BRAF amp", output, Lists.newArrayList());
+        cache.put(outdatedFingerprint, "BRAF", null, EventType.AMPLIFICATION, "BRAF amp", output, Lists.newArrayList());
+        cache.close();
+
+        EventExtractionCache nextRunCache = EventExtractionCache.fromFile(cacheFile.getPath());
+        assertEquals(output, nextRunCache.get(usedFingerprint));
+        nextRunCache.close();
+
+        EventExtractionCache compactedCache = EventExtractionCache.fromFile(cacheFile.getPath());
+        assertEquals(output, compactedCache.get(usedFingerprint));
+        assertNull(compactedCache.get(outdatedFingerprint));
+        assertEquals(2, Files.readAllLines(cacheFile.toPath()).size());
+    }
+
+    @Test
+    public void canReloadExtractionMessages() throws IOException {
+        File cacheFile = File.createTempFile("extraction_cache", ".tsv");
+        cacheFile.deleteOnExit();
+        assertTrue(cacheFile.delete());
+
+        List<ExtractionMessageRecorder.Message> messages =
+                Lists.newArrayList(new ExtractionMessageRecorder.Message(Level.WARN, "Extractor", "Could not extract '1|2;3\t4'"),
+                        new ExtractionMessageRecorder.Message(Level.INFO, "Extractor", "Event filtered"));
+        EventExtractorOutput output = ImmutableEventExtractorOutput.builder().codons(Lists.newArrayList()).build();
+        String fingerprint = EventExtractionCache.fingerprint("resources", "BRAF", null, EventType.CODON, "V600");
+
+        EventExtractionCache cache = EventExtractionCache.fromFile(cacheFile.getPath());
+        cache.put(fingerprint, "BRAF", null, EventType.CODON, "V600", output, messages);
+        cache.close();
+
+        List<ExtractionMessageRecorder.Message> replayedMessages = Lists.newArrayList();
+        EventExtractionCache reloadedCache = EventExtractionCache.fromFile(cacheFile.getPath());
+        assertEquals(output, ExtractionMessageRecorder.record(() -> reloadedCache.get(fingerprint), replayedMessages));
+        assertEquals(messages, replayedMessages);
+    }
+
+    @Test
+    public void replaysMessagesOnCachedExtractions() {
+        EventExtractionCache cache = EventExtractionCache.inMemory();
+        EventExtractor extractor = EventExtractorFactory.create(CkbClassificationConfig.build(),
+                RefGenomeResourceTestFactory.buildTestResource37(),
+                DriverInconsistencyMode.WARN_ONLY,
+                cache);
+
+        List<ExtractionMessageRecorder.Message> extractionMessages = Lists.newArrayList();
+        ExtractionMessageRecorder.record(() -> extractor.extract("NotAGene", null, EventType.AMPLIFICATION, "NotAGene amp"),
+                extractionMessages);
+        List<ExtractionMessageRecorder.Message> cachedMessages = Lists.newArrayList();
+        ExtractionMessageRecorder.record(() -> extractor.extract("NotAGene", null, EventType.AMPLIFICATION, "NotAGene amp"),
+                cachedMessages);
+
+        assertEquals(1, cache.hitCount());
+        assertFalse(extractionMessages.isEmpty());
+        assertEquals(extractionMessages, cachedMessages);
+    }
+
+    @Test
+    public void extractsEachEventOnlyOnce() {
+        EventExtractionCache cache = EventExtractionCache.inMemory();
+        EventExtractor extractor = EventExtractorFactory.create(CkbClassificationConfig.build(),
+                RefGenomeResourceTestFactory.buildTestResource37(),
+                DriverInconsistencyMode.IGNORE,
+                cache);
+
+        EventExtractorOutput first = extractor.extract("BRAF", null, EventType.AMPLIFICATION, "BRAF amp");
+        EventExtractorOutput second = extractor.extract("BRAF", null, EventType.AMPLIFICATION, "BRAF amp");
+
+        assertEquals(first, second);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void resolvesHotspotsOnCachedExtractions() {
+        Set<String> resolvedAnnotations = Sets.newHashSet();
+        ProteinResolver proteinResolver = new ProteinResolver() {
+            @NotNull
+            @Override
+            public List<VariantHotspot> resolve(@NotNull String gene, @Nullable String specificTranscript,
+                    @NotNull String proteinAnnotation) {
+                resolvedAnnotations.add(proteinAnnotation);
+                return Lists.newArrayList();
+            }
+
+            @NotNull
+            @Override
+            public Set<String> unresolvedProteinAnnotations() {
+                return resolvedAnnotations;
+            }
+        };
+
+        EventExtractionCache cache = EventExtractionCache.inMemory();
+        RefGenomeResource resource = ImmutableRefGenomeResource.builder()
+                .from(RefGenomeResourceTestFactory.buildTestResource37())
+                .proteinResolver(proteinResolver)
+                .build();
+        EventExtractor extractor = EventExtractorFactory.create(CkbClassificationConfig.build(), resource, DriverInconsistencyMode.IGNORE, cache);
+
+        extractor.extract("BRAF", null, EventType.HOTSPOT, "V600E");
+        resolvedAnnotations.clear();
+
+        EventExtractorOutput cachedOutput = extractor.extract("BRAF", null, EventType.HOTSPOT, "V600E");
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(Sets.newHashSet("V600E"), resolvedAnnotations);
+        assertEquals(Lists.newArrayList(), cachedOutput.hotspots());
+    }
+}
@@ -2,7 +2,7 @@ package com.hartwig.hmftools.serve.extraction.hotspot;
 
 import static org.junit.Assert.assertNotNull;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
 
 import com.google.common.io.Resources;
 import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
@@ -15,9 +15,10 @@ public class ProteinResolverFactoryTest {
     private static final String REF_GENOME_FASTA_FILE = Resources.getResource("refgenome/v37/ref.fasta").getPath();
 
     @Test
-    public void canCreateTransvarResolver() throws FileNotFoundException {
+    public void canCreateTransvarResolver() throws IOException {
         assertNotNull(ProteinResolverFactory.transvarWithRefGenome(RefGenomeVersion.V37,
                 REF_GENOME_FASTA_FILE,
-                EnsemblDataCacheTestFactory.create37()));
+                EnsemblDataCacheTestFactory.create37(),
+                null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.variant.hotspot.ImmutableVariantHotspotImpl;
+import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+public class TransvarCacheTest {
+
+    private static final String RESOURCE_FINGERPRINT = "resources";
+
+    @Test
+    public void canReloadResolvedAnnotations() throws IOException {
+        File cacheFile = createCacheFile();
+
+        VariantHotspot hotspot1 = ImmutableVariantHotspotImpl.builder().chromosome("7").position(140453136).ref("A").alt("T").build();
+        VariantHotspot hotspot2 = ImmutableVariantHotspotImpl.builder().chromosome("7").position(140453135).ref("CA").alt("TT").build();
+
+        TransvarCache cache = TransvarCache.fromFile(cacheFile.getPath(), RESOURCE_FINGERPRINT);
+        assertNull(cache.get("BRAF", null, "V600E"));
+
+        cache.put("BRAF", null, "V600E", Lists.newArrayList(hotspot1, hotspot2));
+        cache.put("BRAF", "ENST00000288602", "V600X", Lists.newArrayList());
+        assertEquals(2, cache.get("BRAF", null, "V600E").size());
+        cache.close();
+
+        TransvarCache reloadedCache = TransvarCache.fromFile(cacheFile.getPath(), RESOURCE_FINGERPRINT);
+        List<VariantHotspot> hotspots = reloadedCache.get("BRAF", null, "V600E");
+        assertEquals(Lists.newArrayList(hotspot1, hotspot2), hotspots);
+
+        assertTrue(reloadedCache.get("BRAF", "ENST00000288602", "V600X").isEmpty());
+        assertNull(reloadedCache.get("BRAF", null, "V600X"));
+    }
+
+    @Test
+    public void writesBackUsedAnnotationsOnly() throws IOException {
+        File cacheFile = createCacheFile();
+
+        TransvarCache cache = TransvarCache.fromFile(cacheFile.getPath(), RESOURCE_FINGERPRINT);
+        cache.put("BRAF", null, "V600E", Lists.newArrayList());
+        cache.put("KRAS", null, "G12D", Lists.newArrayList());
+        cache.close();
+        assertEquals(3, Files.readAllLines(cacheFile.toPath()).size());
+
+        TransvarCache secondRunCache = TransvarCache.fromFile(cacheFile.getPath(), RESOURCE_FINGERPRINT);
+        assertNotNull(secondRunCache.get("KRAS", null, "G12D"));
+        secondRunCache.close();
+        assertEquals(2, Files.readAllLines(cacheFile.toPath()).size());
+
+        TransvarCache thirdRunCache = TransvarCache.fromFile(cacheFile.getPath(), RESOURCE_FINGERPRINT);
+        assertNull(thirdRunCache.get("BRAF", null, "V600E"));
+        assertNotNull(thirdRunCache.get("KRAS", null, "G12D"));
+    }
+
+    @Test
+    public void ignoresAnnotationsResolvedOnOtherResources() throws IOException {
+        File cacheFile = createCacheFile();
+
+        TransvarCache cache = TransvarCache.fromFile(cacheFile.getPath(), RESOURCE_FINGERPRINT);
+        cache.put("BRAF", null, "V600E", Lists.newArrayList());
+        cache.close();
+
+        assertNull(TransvarCache.fromFile(cacheFile.getPath(), "otherResources").get("BRAF", null, "V600E"));
+    }
+
+    @NotNull
+    private static File createCacheFile() throws IOException {
+        File cacheFile = File.createTempFile("hotspot_cache", ".tsv");
+        cacheFile.deleteOnExit();
+        assertTrue(cacheFile.delete());
+        return cacheFile;
+    }
+}
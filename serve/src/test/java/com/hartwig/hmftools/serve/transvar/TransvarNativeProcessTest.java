@@ -0,0 +1,256 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static com.hartwig.hmftools.common.fusion.FusionCommon.NEG_STRAND;
+import static com.hartwig.hmftools.common.fusion.FusionCommon.POS_STRAND;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.hartwig.hmftools.common.ensemblcache.EnsemblDataCache;
+import com.hartwig.hmftools.common.gene.TranscriptData;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.common.genome.region.Strand;
+import com.hartwig.hmftools.common.test.GeneTestUtils;
+import com.hartwig.hmftools.common.test.MockRefGenome;
+import com.hartwig.hmftools.common.variant.hotspot.VariantHotspot;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarFrameshift;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarInsertion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarSnvMnv;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+public class TransvarNativeProcessTest {
+
+    private static final String FORWARD_GENE = "FORWARD";
+    private static final String REVERSE_GENE = "REVERSE";
+
+    // Bases are 1-based so the first base of each chromosome is padding.
+    private static final String CHR1_SEQUENCE = sequence(60, 12, "ATGGTGAAAA", 40, "GAGTGA");
+    private static final String CHR2_SEQUENCE = sequence(40, 15, "TCATTTCACCAT");
+
+    @Test
+    public void canResolveSnvOnForwardStrand() {
+        TransvarRecord record = single(createTestProcess().runTransvarPanno(FORWARD_GENE, "V2E"));
+
+        assertEquals("TRAN0001", record.transcript());
+        assertEquals("1", record.chromosome());
+        assertEquals(16, record.gdnaPosition());
+        assertFalse(record.variantSpanMultipleExons());
+
+        TransvarSnvMnv snv = (TransvarSnvMnv) record.annotation();
+        assertEquals("T", snv.gdnaRef());
+        assertEquals("A", snv.gdnaAlt());
+        assertEquals("GTG", snv.referenceCodon());
+        assertEquals(Lists.newArrayList("GAG", "GAA"), snv.candidateCodons());
+    }
+
+    @Test
+    public void canResolveSnvOnReverseStrand() {
+        TransvarRecord record = single(createTestProcess().runTransvarPanno(REVERSE_GENE, "V2E"));
+
+        assertEquals(22, record.gdnaPosition());
+
+        TransvarSnvMnv snv = (TransvarSnvMnv) record.annotation();
+        assertEquals("A", snv.gdnaRef());
+        assertEquals("T", snv.gdnaAlt());
+        assertEquals("GTG", snv.referenceCodon());
+    }
+
+    @Test
+    public void ignoresAnnotationsNotMatchingReference() {
+        TransvarNativeProcess process = createTestProcess();
+
+        assertTrue(process.runTransvarPanno(FORWARD_GENE, "A2E").isEmpty());
+        assertTrue(process.runTransvarPanno(FORWARD_GENE, "V20E").isEmpty());
+        assertTrue(process.runTransvarPanno(FORWARD_GENE, "V2V").isEmpty());
+        assertTrue(process.runTransvarPanno(FORWARD_GENE, "V2").isEmpty());
+        assertTrue(process.runTransvarPanno("DoesNotExist", "V2E").isEmpty());
+    }
+
+    @Test
+    public void canResolveStartLost() {
+        TransvarSnvMnv snv = (TransvarSnvMnv) single(createTestProcess().runTransvarPanno(FORWARD_GENE, "M1?")).annotation();
+
+        assertEquals("ATG", snv.referenceCodon());
+        assertEquals("G", snv.gdnaRef());
+    }
+
+    @Test
+    public void alignsDeletionsAndDuplicationsThroughRepeats() {
+        TransvarNativeProcess process = createTestProcess();
+
+        // The lysine codon AAA is followed by another A in the intron.
+        TransvarRecord deletionRecord = single(process.runTransvarPanno(FORWARD_GENE, "K3del"));
+        TransvarDeletion deletion = (TransvarDeletion) deletionRecord.annotation();
+        assertEquals(19, deletionRecord.gdnaPosition());
+        assertEquals(18, deletion.leftAlignedGDNAPosition());
+        assertEquals(3, deletion.deletedBaseCount());
+
+        TransvarRecord duplicationRecord = single(process.runTransvarPanno(FORWARD_GENE, "V2_K3dup"));
+        assertEquals(15, duplicationRecord.gdnaPosition());
+        assertEquals(6, ((TransvarDuplication) duplicationRecord.annotation()).duplicatedBaseCount());
+
+        assertTrue(single(process.runTransvarPanno(FORWARD_GENE, "K3_E4del")).variantSpanMultipleExons());
+    }
+
+    @Test
+    public void canResolveInsertions() {
+        TransvarNativeProcess process = createTestProcess();
+
+        TransvarRecord forwardRecord = single(process.runTransvarPanno(FORWARD_GENE, "V2_K3insW"));
+        TransvarInsertion forwardInsertion = (TransvarInsertion) forwardRecord.annotation();
+        assertEquals(17, forwardRecord.gdnaPosition());
+        assertEquals("TGG", forwardInsertion.insertedBases());
+        assertEquals(16, forwardInsertion.leftAlignedGDNAPosition());
+        assertFalse(forwardRecord.variantSpanMultipleExons());
+
+        TransvarRecord reverseRecord = single(process.runTransvarPanno(REVERSE_GENE, "V2_K3insW"));
+        assertEquals(20, reverseRecord.gdnaPosition());
+        assertEquals("CCA", ((TransvarInsertion) reverseRecord.annotation()).insertedBases());
+
+        assertTrue(single(process.runTransvarPanno(FORWARD_GENE, "K3_E4insW")).variantSpanMultipleExons());
+        assertTrue(process.runTransvarPanno(FORWARD_GENE, "V2_E4insW").isEmpty());
+    }
+
+    @Test
+    public void picksInsertedCodonsClosestToReference() {
+        TransvarNativeProcess process = createTestProcess();
+
+        // Codons 2 to 4 are GTG, AAA and GAG on the forward strand.
+        TransvarComplexInsertDelete delins =
+                (TransvarComplexInsertDelete) single(process.runTransvarPanno(FORWARD_GENE, "V2_K3delinsLR")).annotation();
+        assertEquals("TTGAGA", delins.insertedSequence());
+
+        TransvarInsertion insertion = (TransvarInsertion) single(process.runTransvarPanno(FORWARD_GENE, "V2_K3insKA")).annotation();
+        assertEquals("AAAGCG", insertion.insertedBases());
+    }
+
+    @Test
+    public void canResolveFrameshifts() {
+        TransvarNativeProcess process = createTestProcess();
+
+        TransvarRecord forwardRecord = single(process.runTransvarPanno(FORWARD_GENE, "V2fs"));
+        assertEquals(14, forwardRecord.gdnaPosition());
+        assertFalse(((TransvarFrameshift) forwardRecord.annotation()).isFrameshiftInsideStartCodon());
+
+        TransvarRecord startRecord = single(process.runTransvarPanno(FORWARD_GENE, "M1fs"));
+        assertEquals(12, startRecord.gdnaPosition());
+        assertTrue(((TransvarFrameshift) startRecord.annotation()).isFrameshiftInsideStartCodon());
+
+        assertEquals(23, single(process.runTransvarPanno(REVERSE_GENE, "V2fs*")).gdnaPosition());
+        assertEquals(25, single(process.runTransvarPanno(REVERSE_GENE, "M1fs")).gdnaPosition());
+    }
+
+    @Test
+    public void frameshiftHotspotsAreInterpretedOnTheirCodon() throws IOException {
+        TransvarNativeProcess process = createTestProcess();
+        TransvarInterpreter interpreter = TransvarInterpreter.withRefGenome(RefGenomeVersion.V37, writeTestFasta());
+
+        // Codon 2 spans 15-17 on the forward strand and 21-23 on the reverse strand, the start codons span 12-14 and 24-26.
+        assertHotspotsWithin(interpreter, single(process.runTransvarPanno(FORWARD_GENE, "V2fs")), Strand.FORWARD, 14, 17);
+        assertHotspotsWithin(interpreter, single(process.runTransvarPanno(FORWARD_GENE, "M1fs")), Strand.FORWARD, 11, 14);
+        assertHotspotsWithin(interpreter, single(process.runTransvarPanno(REVERSE_GENE, "V2fs")), Strand.REVERSE, 20, 23);
+        assertHotspotsWithin(interpreter, single(process.runTransvarPanno(REVERSE_GENE, "M1fs")), Strand.REVERSE, 23, 26);
+    }
+
+    private static void assertHotspotsWithin(@NotNull TransvarInterpreter interpreter, @NotNull TransvarRecord record,
+            @NotNull Strand strand, int start, int end) {
+        List<VariantHotspot> hotspots = interpreter.convertRecordToHotspots(record, strand);
+        assertFalse(hotspots.isEmpty());
+        for (VariantHotspot hotspot : hotspots) {
+            assertTrue(hotspot.position() >= start && hotspot.position() + hotspot.ref().length() - 1 <= end);
+        }
+    }
+
+    @NotNull
+    private static String writeTestFasta() throws IOException {
+        File fasta = File.createTempFile("transvar_native", ".fasta");
+        File index = new File(fasta.getPath() + ".fai");
+        fasta.deleteOnExit();
+        index.deleteOnExit();
+
+        StringBuilder fastaContent = new StringBuilder();
+        StringBuilder indexContent = new StringBuilder();
+        for (String chromosome : Lists.newArrayList("1", "2")) {
+            String bases = (chromosome.equals("1") ? CHR1_SEQUENCE : CHR2_SEQUENCE).substring(1);
+            fastaContent.append('>').append(chromosome).append('\n');
+            long offset = fastaContent.length();
+            fastaContent.append(bases).append('\n');
+            indexContent.append(String.join("\t",
+                    chromosome,
+                    String.valueOf(bases.length()),
+                    String.valueOf(offset),
+                    String.valueOf(bases.length()),
+                    String.valueOf(bases.length() + 1))).append('\n');
+        }
+
+        Files.write(fasta.toPath(), fastaContent.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(index.toPath(), indexContent.toString().getBytes(StandardCharsets.UTF_8));
+        return fasta.getPath();
+    }
+
+    @NotNull
+    private static TransvarRecord single(@NotNull List<TransvarRecord> records) {
+        assertEquals(1, records.size());
+        return records.get(0);
+    }
+
+    @NotNull
+    private static TransvarNativeProcess createTestProcess() {
+        MockRefGenome refGenome = new MockRefGenome();
+        refGenome.RefGenomeMap.put("1", CHR1_SEQUENCE);
+        refGenome.RefGenomeMap.put("2", CHR2_SEQUENCE);
+        refGenome.ChromosomeLengths.put("1", 60);
+        refGenome.ChromosomeLengths.put("2", 40);
+
+        EnsemblDataCache ensemblDataCache = GeneTestUtils.createGeneDataCache();
+        GeneTestUtils.addGeneData(ensemblDataCache,
+                "1",
+                Lists.newArrayList(GeneTestUtils.createEnsemblGeneData("ENSG001", FORWARD_GENE, "1", POS_STRAND, 10, 50)));
+        GeneTestUtils.addGeneData(ensemblDataCache,
+                "2",
+                Lists.newArrayList(GeneTestUtils.createEnsemblGeneData("ENSG002", REVERSE_GENE, "2", NEG_STRAND, 10, 30)));
+
+        // Exons span 10-20 and 40-50, coding 12-45 on the forward strand.
+        TranscriptData forward =
+                GeneTestUtils.createTransExons("ENSG001", 1, POS_STRAND, new int[] { 10, 40 }, 10, 12, 45, true, "protein_coding");
+        TranscriptData nonCoding =
+                GeneTestUtils.createTransExons("ENSG001", 3, POS_STRAND, new int[] { 10, 40 }, 10, null, null, false, "lncRNA");
+        GeneTestUtils.addTransExonData(ensemblDataCache, "ENSG001", Lists.newArrayList(forward, nonCoding));
+
+        // Single exon spanning 10-30, coding 15-26 on the reverse strand.
+        TranscriptData reverse =
+                GeneTestUtils.createTransExons("ENSG002", 2, NEG_STRAND, new int[] { 10 }, 20, 15, 26, true, "protein_coding");
+        GeneTestUtils.addTransExonData(ensemblDataCache, "ENSG002", Lists.newArrayList(reverse));
+
+        return new TransvarNativeProcess(RefGenomeVersion.V37, refGenome, ensemblDataCache);
+    }
+
+    @NotNull
+    private static String sequence(int length, @NotNull Object... basesPerPosition) {
+        StringBuilder sequence = new StringBuilder();
+        for (int i = 0; i <= length; i++) {
+            sequence.append('C');
+        }
+
+        for (int i = 0; i < basesPerPosition.length; i += 2) {
+            int position = (Integer) basesPerPosition[i];
+            String bases = (String) basesPerPosition[i + 1];
+            sequence.replace(position, position + bases.length(), bases);
+        }
+        return sequence.toString();
+    }
+}
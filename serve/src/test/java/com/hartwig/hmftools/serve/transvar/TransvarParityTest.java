@@ -0,0 +1,175 @@
+package com.hartwig.hmftools.serve.transvar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Resources;
+import com.hartwig.hmftools.common.codon.Codons;
+import com.hartwig.hmftools.common.codon.Nucleotides;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeInterface;
+import com.hartwig.hmftools.common.genome.refgenome.RefGenomeVersion;
+import com.hartwig.hmftools.serve.refgenome.EnsemblDataCacheLoader;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarComplexInsertDelete;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDeletion;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarDuplication;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarRecord;
+import com.hartwig.hmftools.serve.transvar.datamodel.TransvarSnvMnv;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+/**
+ * Compares the native process against output recorded from transvar panno for hotspot fixtures on genes in the test ensembl data cache.
+ * The ref genome only holds the GRCh37 coding bases around each fixture, which is all either process reads for these annotations.
+ */
+public class TransvarParityTest {
+
+    private static final String ENSEMBL_DATA_DIR_37 = Resources.getResource("ensembl_data_cache/v37").getPath();
+
+    @Test
+    public void matchesRecordedTransvarOutput() throws IOException {
+        TransvarNativeProcess process = createTestProcess();
+
+        List<String> lines = Resources.readLines(Resources.getResource("transvar/recorded_panno_output.37.tsv"), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+
+        for (String line : lines) {
+            String[] query = line.split("\t")[0].split(":p\\.");
+            TransvarRecord recorded = TransvarConverter.toTransvarRecord(line);
+            assertNotNull(recorded);
+
+            assertParity(line, recorded, onTranscript(process.runTransvarPanno(query[0], query[1]), recorded.transcript()));
+        }
+    }
+
+    @Test
+    public void matchesBrafHotspotFixture() {
+        // 7 140453136 A>T is the BRAF V600E hotspot in the hartwig example input.
+        TransvarRecord record = onTranscript(createTestProcess().runTransvarPanno("BRAF", "V600E"), "ENST00000288602");
+
+        assertEquals("7", record.chromosome());
+        assertEquals(140453136, record.gdnaPosition());
+
+        TransvarSnvMnv snv = (TransvarSnvMnv) record.annotation();
+        assertEquals("A", snv.gdnaRef());
+        assertEquals("T", snv.gdnaAlt());
+        assertEquals("GTG", snv.referenceCodon());
+    }
+
+    private static void assertParity(@NotNull String line, @NotNull TransvarRecord recorded, @NotNull TransvarRecord resolved) {
+        assertEquals(line, recorded.chromosome(), resolved.chromosome());
+        assertEquals(line, recorded.gdnaPosition(), resolved.gdnaPosition());
+        assertEquals(line, recorded.variantSpanMultipleExons(), resolved.variantSpanMultipleExons());
+        assertEquals(line, recorded.annotation().getClass(), resolved.annotation().getClass());
+
+        if (recorded.annotation() instanceof TransvarDuplication) {
+            assertEquals(line,
+                    ((TransvarDuplication) recorded.annotation()).duplicatedBaseCount(),
+                    ((TransvarDuplication) resolved.annotation()).duplicatedBaseCount());
+        } else if (recorded.annotation() instanceof TransvarDeletion) {
+            TransvarDeletion recordedDeletion = (TransvarDeletion) recorded.annotation();
+            TransvarDeletion resolvedDeletion = (TransvarDeletion) resolved.annotation();
+            assertEquals(line, recordedDeletion.deletedBaseCount(), resolvedDeletion.deletedBaseCount());
+            assertEquals(line, recordedDeletion.leftAlignedGDNAPosition(), resolvedDeletion.leftAlignedGDNAPosition());
+        } else if (recorded.annotation() instanceof TransvarComplexInsertDelete) {
+            TransvarComplexInsertDelete recordedDelins = (TransvarComplexInsertDelete) recorded.annotation();
+            TransvarComplexInsertDelete resolvedDelins = (TransvarComplexInsertDelete) resolved.annotation();
+            assertEquals(line, recordedDelins.deletedBaseCount(), resolvedDelins.deletedBaseCount());
+            assertEquals(line,
+                    Sets.newHashSet(recordedDelins.candidateAlternativeCodons()),
+                    Sets.newHashSet(resolvedDelins.candidateAlternativeCodons()));
+
+            // Transvar picks one of the synonymous codons for each inserted amino acid without regard to the reference, so the inserted
+            // sequences only need to encode the same amino acids.
+            assertEquals(line,
+                    Codons.aminoAcidFromBases(recordedDelins.insertedSequence()),
+                    Codons.aminoAcidFromBases(resolvedDelins.insertedSequence()));
+        }
+    }
+
+    @NotNull
+    private static TransvarRecord onTranscript(@NotNull List<TransvarRecord> records, @NotNull String transcript) {
+        List<TransvarRecord> matches = records.stream().filter(record -> record.transcript().equals(transcript)).collect(Collectors.toList());
+        assertEquals(1, matches.size());
+        return matches.get(0);
+    }
+
+    @NotNull
+    private static TransvarNativeProcess createTestProcess() {
+        LocusRefGenome refGenome = new LocusRefGenome();
+
+        // BRAF codons 594 to 604 on the reverse strand.
+        refGenome.addLocus("7", 140453123, Nucleotides.reverseStrandBases("GATTTTGGTCTAGCTACAGTGAAATCTCGATGG"));
+
+        // EGFR codons 739 to 754 in exon 19.
+        refGenome.addLocus("7", 55242445, "AAAATTCCCGTCGCTATCAAGGAATTAAGAGAAGCAACATCTCCGAAA");
+
+        // KIT codons 550 to 580 in exon 11.
+        refGenome.addLocus("4",
+                55593582,
+                "AAACCCATGTATGAAGTACAGTGGAAGGTTGTTGAGGAGATAAATGGAAACAATTATGTTTACATAGACCCAACACAACTTCCTTATGATCAC");
+
+        try {
+            return new TransvarNativeProcess(RefGenomeVersion.V37,
+                    refGenome,
+                    EnsemblDataCacheLoader.loadWithAllTranscripts(ENSEMBL_DATA_DIR_37, RefGenomeVersion.V37));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load test ensembl cache");
+        }
+    }
+
+    /**
+     * Holds the bases of a few loci and returns N for every other position.
+     */
+    private static class LocusRefGenome implements RefGenomeInterface {
+
+        private static final int CHROMOSOME_LENGTH = 250_000_000;
+
+        @NotNull
+        private final Map<String, Map<Integer, String>> lociPerChromosome = Maps.newHashMap();
+
+        void addLocus(@NotNull String chromosome, int start, @NotNull String bases) {
+            lociPerChromosome.computeIfAbsent(chromosome, key -> Maps.newHashMap()).put(start, bases);
+        }
+
+        @Override
+        public String getBaseString(final String chromosome, int posStart, int posEnd) {
+            StringBuilder bases = new StringBuilder();
+            Map<Integer, String> loci = lociPerChromosome.getOrDefault(chromosome, Maps.newHashMap());
+            for (int position = posStart; position <= posEnd; position++) {
+                char base = 'N';
+                for (Map.Entry<Integer, String> locus : loci.entrySet()) {
+                    int offset = position - locus.getKey();
+                    if (offset >= 0 && offset < locus.getValue().length()) {
+                        base = locus.getValue().charAt(offset);
+                    }
+                }
+                bases.append(base);
+            }
+            return bases.toString();
+        }
+
+        @Override
+        public String getBaseString(final String chromosome, final List<int[]> baseRanges) {
+            return baseRanges.stream().map(range -> getBaseString(chromosome, range[0], range[1])).collect(Collectors.joining());
+        }
+
+        @Override
+        public int getChromosomeLength(final String chromosome) {
+            return CHROMOSOME_LENGTH;
+        }
+
+        @Override
+        public byte[] getBases(final String chromosome, int posStart, int posEnd) {
+            return getBaseString(chromosome, posStart, posEnd).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
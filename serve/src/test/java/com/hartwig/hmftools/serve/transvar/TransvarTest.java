@@ -1,7 +1,10 @@
 package com.hartwig.hmftools.serve.transvar;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.serve.transvar.datamodel.ImmutableTransvarRecord;
 import com.hartwig.hmftools.serve.transvar.datamodel.TransvarAnnotation;
@@ -31,6 +34,20 @@ public class TransvarTest {
         assertTrue(transvar.resolve("BRAF", "DoesNotExist", Strings.EMPTY).isEmpty());
     }
 
+    @Test
+    public void resolvesEachAnnotationOnlyOnce() {
+        AtomicInteger processRuns = new AtomicInteger();
+        Transvar transvar = TransvarTestFactory.testTransvar37((gene, proteinAnnotation) -> {
+            processRuns.incrementAndGet();
+            return Lists.newArrayList();
+        });
+
+        assertTrue(transvar.resolve("BRAF", null, "V600E").isEmpty());
+        assertTrue(transvar.resolve("BRAF", null, "V600E").isEmpty());
+        assertEquals(1, processRuns.get());
+        assertEquals(1, transvar.unresolvedProteinAnnotations().size());
+    }
+
     @NotNull
     private static TransvarRecord createTestRecord() {
         return ImmutableTransvarRecord.builder()
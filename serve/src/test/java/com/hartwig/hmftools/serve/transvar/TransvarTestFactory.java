@@ -18,7 +18,7 @@ public final class TransvarTestFactory {
 
     @NotNull
     static Transvar testTransvar37(@NotNull TransvarProcess process) {
-        return new Transvar(process, testInterpreter37(), EnsemblDataCacheTestFactory.create37());
+        return new Transvar(process, testInterpreter37(), EnsemblDataCacheTestFactory.create37(), TransvarCache.inMemory());
     }
 
     @NotNull
@@ -189,10 +189,13 @@ public class FitAnalyser
     {
         final Matrix sampleContribs = new Matrix(mSignatures.Cols, mSampleCounts.Cols);
 
+        final double[] signatures = mSignatures.getColumnMajorData();
+
         for(int i = 0; i < mSampleCounts.Cols; ++i)
         {
             final double[] sampleCounts = mSampleCounts.getCol(i);
-            final double[] sigAllocs = ExpectationMaxFit.performFit(sampleCounts, mSignatures, 0.001, 100);
+            final double[] sigAllocs = ExpectationMaxFit.performFit(
+                    sampleCounts, signatures, mSignatures.Rows, mSignatures.Cols, 0.001, 100);
             sampleContribs.setCol(i, sigAllocs);
         }
 
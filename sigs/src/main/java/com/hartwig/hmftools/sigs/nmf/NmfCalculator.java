@@ -6,42 +6,67 @@ import static java.lang.Math.log;
 import static java.lang.Math.min;
 
 import static com.hartwig.hmftools.common.sigs.DataUtils.doublesEqual;
-import static com.hartwig.hmftools.common.utils.VectorUtils.sumVector;
-
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.copyToMatrix;
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.hasValidData;
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.multiply;
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.multiplyTransposeFirst;
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.multiplyTransposeSecond;
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.sumDiffSq;
+import static com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel.toFlat;
+
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
 import com.google.common.collect.Lists;
 import com.hartwig.hmftools.common.utils.Matrix;
-import com.hartwig.hmftools.common.utils.MatrixUtils;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class NmfCalculator
 {
+    private final NmfConfig mConfig;
 
-    private NmfConfig mConfig;
-
-    private int mBucketCount;
-    private int mSampleCount;
+    private final int mBucketCount;
+    private final int mSampleCount;
     private int mSigCount;
 
     private static final Logger LOGGER = LogManager.getLogger(NmfCalculator.class);
 
     // primary input - bucket counts per sample
     final Matrix mSampleCounts;
-    private double mTotalCount;
-    private double[] mBucketTotals; // to help with seeding
-    private double[] mSampleTotals;
+    private final double[] mCounts; // flattened sample counts (bucket x sample), shared read-only between calculators
+    private final double mTotalCount;
+    private final double[] mBucketTotals; // to help with seeding
+    private final double[] mSampleTotals;
 
     private int mRunId;
-    private Matrix mW; // the bucket-signature values (x=BucketCount, y=SigCount)
-    private Matrix mH; // the sample-signature contributions (x=SigCount, y=SampleCount)
-    private Matrix mV; // the fitted matrix of samples and bucket counts (W x H)
-    private Matrix mPrevW;
-    private Matrix mPrevH;
-    private Matrix mPrevV;
+
+    // working values as flat row-major arrays - each update writes into the previous iteration's array and then swaps them,
+    // so the previous values remain available for convergence logging without being copied
+    private double[] mW; // the bucket-signature values (x=BucketCount, y=SigCount)
+    private double[] mH; // the sample-signature contributions (x=SigCount, y=SampleCount)
+    private double[] mV; // the fitted matrix of samples and bucket counts (W x H)
+    private double[] mPrevW;
+    private double[] mPrevH;
+    private double[] mPrevV;
+    private boolean mSigsUpdated;
+
+    // workspace for the update terms, allocated once per signature count
+    private double[] mContribNumerator; // sig x sample
+    private double[] mContribDenominator; // sig x sample
+    private double[] mSigNumerator; // bucket x sig
+    private double[] mSigDenominator; // bucket x sig
+    private double[] mSigSquares; // sig x sig
+    private double[] mCountRatios; // bucket x sample, only used by the Brunet model
+    private double[] mSigTotals;
+    private boolean mCountsProjected; // whether the contribution numerator is current for fixed signatures
+
+    // results of the last run
+    private Matrix mSignatures;
+    private Matrix mContributions;
+    private Matrix mFit;
     private boolean mIsValid;
 
     private Matrix mRefSignatures;
@@ -52,13 +77,17 @@ public class NmfCalculator
     // calculated values
     private double mTotalResiduals;
     private double mNetResiduals;
+
+    // lowest cost across runs, used to exit runs early which are unlikely to improve on it
     private double mLowestCost;
 
-    private Random mRandom;
+    private final Random mRandom;
 
     // internal constants
     private static double MIN_COST_CHANGE_PERCENT = 0.00001;
 
+    public static final long RANDOM_SEED = 123456;
+
     public NmfCalculator(final Matrix sampleBucketCounts, final NmfConfig config)
     {
         mConfig = config;
@@ -66,34 +95,32 @@ public class NmfCalculator
 
         mSigCount = 0; // will be set for each run
         mSampleCounts = sampleBucketCounts;
-        mTotalCount = MatrixUtils.sum(mSampleCounts);
+        mCounts = toFlat(sampleBucketCounts);
 
         mBucketCount = sampleBucketCounts.Rows;
         mSampleCount = sampleBucketCounts.Cols;
 
         mBucketTotals = new double[mBucketCount];
+        mSampleTotals = new double[mSampleCount];
+        double totalCount = 0;
 
-        for(int i = 0; i < mSampleCounts.Rows; ++i)
+        for(int b = 0; b < mBucketCount; ++b)
         {
-            mBucketTotals[i] = sumVector(mSampleCounts.getRow(i));
+            for(int n = 0; n < mSampleCount; ++n)
+            {
+                double count = mCounts[b * mSampleCount + n];
+                mBucketTotals[b] += count;
+                mSampleTotals[n] += count;
+                totalCount += count;
+            }
         }
 
-        mSampleTotals = new double[mSampleCounts.Cols];
-
-        for(int i = 0; i < mSampleCounts.Cols; ++i)
-        {
-            mSampleTotals[i] = sumVector(mSampleCounts.getCol(i));
-        }
+        mTotalCount = totalCount;
 
         mTotalResiduals = 0;
         mNetResiduals = 0;
         mLowestCost = 0;
 
-        mW = null;
-        mH = null;
-        mV = new Matrix(mBucketCount, mSampleCount);
-        mPrevV = new Matrix(mBucketCount, mSampleCount);
-
         mRefSignatures = null;
         mRefContributions = null;
         mRandomStartSignatures = null;
@@ -102,7 +129,36 @@ public class NmfCalculator
         mIsValid = false;
 
         // could seed from config instead
-        mRandom = new Random(123456);
+        mRandom = new Random(RANDOM_SEED);
+    }
+
+    public NmfCalculator(final NmfCalculator other, long randomSeed)
+    {
+        // a calculator for an independent run, sharing the other's inputs but with its own seeding, workspace and lowest cost
+        mConfig = other.mConfig;
+        mRunId = 0;
+
+        mSigCount = other.mSigCount;
+        mSampleCounts = other.mSampleCounts;
+        mCounts = other.mCounts;
+        mBucketCount = other.mBucketCount;
+        mSampleCount = other.mSampleCount;
+        mBucketTotals = other.mBucketTotals;
+        mSampleTotals = other.mSampleTotals;
+        mTotalCount = other.mTotalCount;
+
+        mTotalResiduals = 0;
+        mNetResiduals = 0;
+        mLowestCost = other.mLowestCost;
+
+        mRefSignatures = other.mRefSignatures;
+        mRefContributions = other.mRefContributions;
+        mRandomStartSignatures = other.mRandomStartSignatures;
+        mStartSigs = Lists.newArrayList();
+
+        mIsValid = false;
+
+        mRandom = new Random(randomSeed);
     }
 
     public void setSigCount(int sigCount) { mSigCount = sigCount; }
@@ -116,14 +172,16 @@ public class NmfCalculator
 
     public void setRandomSignatures(final Matrix randomSigs) { mRandomStartSignatures = randomSigs; }
 
-    public final Matrix getSignatures() { return mW; }
-    public final Matrix getContributions() { return mH; }
-    public final Matrix getFit() { return mV; }
+    public final Matrix getSignatures() { return mSignatures; }
+    public final Matrix getContributions() { return mContributions; }
+    public final Matrix getFit() { return mFit; }
     public final Matrix getSampleCounts() { return mSampleCounts; }
     public double[] getBucketTotals() { return mBucketTotals; }
     public double[] getSampleTotals() { return mSampleTotals; }
     public double getTotalResiduals() { return mTotalResiduals; }
     public void clearLowestCost() { mLowestCost = 0; }
+    public void setLowestCost(double lowestCost) { mLowestCost = lowestCost; }
+    public double getLowestCost() { return mLowestCost; }
 
     public double getTotalCount() { return mTotalCount; }
     public final Matrix getRefSignatures() { return mRefSignatures; }
@@ -142,22 +200,52 @@ public class NmfCalculator
 //        LOGGER.debug("initialised with samples({}) buckets({}) sigCount({}) totalCount({})",
 //                mSampleCount, mBucketCount, mSigCount, mTotalCount);
 
+        allocateWorkspace();
+
         initSignatures();
         initContributions();
 
         if(mConfig.LogVerbose && mRefSignatures != null && mRefContributions != null)
         {
-            MatrixUtils.multiply(mW, mH, mV, true);
+            produceFit();
             calcResiduals();
 
             LOGGER.debug(String.format("run %d: pre-fit: totalResiduals(%.0f) vs total(%.0f) as percent(%.5f)",
                     mRunId, mTotalResiduals, mTotalCount, mTotalResiduals / mTotalCount));
         }
 
-        mPrevW = new Matrix(mBucketCount, mSigCount);
-        mPrevH = new Matrix(mSigCount, mSampleCount);
-
         calculate();
+
+        mSignatures = new Matrix(mBucketCount, mSigCount);
+        mContributions = new Matrix(mSigCount, mSampleCount);
+        mFit = new Matrix(mBucketCount, mSampleCount);
+        copyToMatrix(mW, mSignatures);
+        copyToMatrix(mH, mContributions);
+        copyToMatrix(mV, mFit);
+    }
+
+    private void allocateWorkspace()
+    {
+        mCountsProjected = false;
+        mSigsUpdated = false;
+
+        if(mW != null && mW.length == mBucketCount * mSigCount)
+            return;
+
+        mW = new double[mBucketCount * mSigCount];
+        mH = new double[mSigCount * mSampleCount];
+        mV = new double[mBucketCount * mSampleCount];
+        mPrevW = new double[mW.length];
+        mPrevH = new double[mH.length];
+        mPrevV = new double[mV.length];
+
+        mContribNumerator = new double[mH.length];
+        mContribDenominator = new double[mH.length];
+        mSigNumerator = new double[mW.length];
+        mSigDenominator = new double[mW.length];
+        mSigSquares = new double[mSigCount * mSigCount];
+        mCountRatios = mConfig.Model == NmfConfig.NmfModelMethod.BRUNET ? new double[mV.length] : null;
+        mSigTotals = new double[mSigCount];
     }
 
     private void initSignatures()
@@ -166,13 +254,11 @@ public class NmfCalculator
         // whereas the contributions per samples are its bucket counts split across the sigs
         if (mRefSignatures != null && mRefSignatures.Cols == mSigCount)
         {
-            mW = new Matrix(mRefSignatures);
+            System.arraycopy(toFlat(mRefSignatures), 0, mW, 0, mW.length);
             return;
         }
 
-        mW = new Matrix(mBucketCount, mSigCount);
-
-        double[][] wData = mW.getData();
+        Arrays.fill(mW, 0);
 
         double[] bucketRatios = new double[mBucketCount];
         double bucketRatioTotal = 0;
@@ -212,7 +298,7 @@ public class NmfCalculator
 
             if (mRefContributions != null && s < mRefSignatures.Cols) {
 
-                for (int i = 0; i < mW.Rows; ++i) {
+                for (int i = 0; i < mBucketCount; ++i) {
                     bucketRatios[i] = mRefSignatures.get(i, s);
                     bucketRatioTotal += bucketRatios[i];
                 }
@@ -221,7 +307,7 @@ public class NmfCalculator
             {
                 int randomSig = randomSigs.get(nonRefSigIndex);
 
-                for (int i = 0; i < mW.Rows; ++i) {
+                for (int i = 0; i < mBucketCount; ++i) {
 
                     bucketRatios[i] = mRandomStartSignatures.get(i, randomSig);
                     bucketRatioTotal += bucketRatios[i];
@@ -232,7 +318,7 @@ public class NmfCalculator
             else
             {
                 // random values
-                for (int i = 0; i < mW.Rows; ++i) {
+                for (int i = 0; i < mBucketCount; ++i) {
 
                     bucketRatios[i] = mRandom.nextDouble();
                     bucketRatioTotal += bucketRatios[i];
@@ -240,8 +326,8 @@ public class NmfCalculator
             }
 
             // ensure sig bucket ratios total to 1 (by convention)
-            for (int i = 0; i < mW.Rows; ++i) {
-                wData[i][s] = bucketRatios[i] / bucketRatioTotal;
+            for (int i = 0; i < mBucketCount; ++i) {
+                mW[i * mSigCount + s] = bucketRatios[i] / bucketRatioTotal;
             }
         }
 
@@ -252,17 +338,13 @@ public class NmfCalculator
     {
         if(mRefContributions != null && mRefContributions.Rows == mSigCount && mConfig.UseRefSigs)
         {
-            mH = new Matrix(mRefContributions);
+            System.arraycopy(toFlat(mRefContributions), 0, mH, 0, mH.length);
             return;
         }
 
-        mH = new Matrix(mSigCount, mSampleCount);
-
         // if the signatures are fractions of 1 for each bucket
         // then the contributions should be based around the actual bucket counts per sample
         // but divided randomly amongst the signatures
-        double[][] hData = mH.getData();
-
         double[] sigFractions = new double[mSigCount];
 
         // if there are proposed or ref contributions in use, the other sigs should
@@ -274,7 +356,7 @@ public class NmfCalculator
         // non-proposed sigs need a contribution above zero to allow them to float
         double nonRefSigPercent = (1-refSigAllocation) / (mSigCount - 1);
 
-        for (int n = 0; n < mSampleCounts.Cols; ++n)
+        for (int n = 0; n < mSampleCount; ++n)
         {
             double sampleTotal = mSampleTotals[n];
             double sigTotal = 0;
@@ -319,7 +401,7 @@ public class NmfCalculator
 
             for (int s = 0; s < mSigCount; ++s)
             {
-                hData[s][n] = sampleTotal * sigFractions[s] / sigTotal;
+                mH[s * mSampleCount + n] = sampleTotal * sigFractions[s] / sigTotal;
             }
         }
     }
@@ -344,7 +426,8 @@ public class NmfCalculator
 
         for(; i < maxIterations; i++)
         {
-            // compute the fit
+            // compute the fit, keeping the last one for comparison
+            swapFit();
             produceFit();
 
             if(mConfig.LogVerbose && i > 0)
@@ -353,7 +436,7 @@ public class NmfCalculator
             }
 
             // compare the original counts to the calculated matrix
-            currentCost = MatrixUtils.sumDiffSq(mSampleCounts, mV);
+            currentCost = sumDiffSq(mCounts, mV, mV.length);
 
             if(i == 0)
                 initCost = currentCost;
@@ -435,13 +518,6 @@ public class NmfCalculator
             prevCost = currentCost;
             prevCostChange = costChange;
 
-            if(mConfig.LogVerbose) {
-
-                mPrevV.setData(mV.getData());
-                mPrevW.setData(mW.getData());
-                mPrevH.setData(mH.getData());
-            }
-
             applyAdjustments();
 
             if(i == maxIterations - 1)
@@ -464,7 +540,7 @@ public class NmfCalculator
             }
         }
 
-        if(!mIsValid || !mW.hasValidData(false) || !mH.hasValidData(false) || !mV.hasValidData(false))
+        if(!mIsValid || !hasValidData(mW, mW.length, false) || !hasValidData(mH, mH.length, false) || !hasValidData(mV, mV.length, false))
             return;
 
         produceFit(); // ensure fit is the latest
@@ -484,7 +560,29 @@ public class NmfCalculator
 
     public void produceFit()
     {
-        MatrixUtils.multiply(mW, mH, mV, true); // ensure fit is the latest
+        multiply(mW, mH, mV, mBucketCount, mSigCount, mSampleCount);
+    }
+
+    private void swapFit()
+    {
+        double[] temp = mPrevV;
+        mPrevV = mV;
+        mV = temp;
+    }
+
+    private void swapContributions()
+    {
+        double[] temp = mPrevH;
+        mPrevH = mH;
+        mH = temp;
+    }
+
+    private void swapSignatures()
+    {
+        double[] temp = mPrevW;
+        mPrevW = mW;
+        mW = temp;
+        mSigsUpdated = true;
     }
 
     private void applyAdjustments()
@@ -506,84 +604,129 @@ public class NmfCalculator
     {
         // the multiplicative update method (described by Lee and Seund, 2001)
         // https://papers.nips.cc/paper/1861-algorithms-for-non-negative-matrix-factorization.pdf
+        boolean sigsFloat = mConfig.SigFloatRate > 0;
 
-        // update contribution matrix
-        Matrix wt = mW.transpose();
-        Matrix hAdj = MatrixUtils.multiply(wt, mSampleCounts);
-        Matrix hd = MatrixUtils.multiply(wt, mV);
+        // update contribution matrix: H = H * (W'.V) / (W'.WH), where W'.V only changes if the signatures do
+        if(sigsFloat || !mCountsProjected)
+        {
+            multiplyTransposeFirst(mW, mCounts, mContribNumerator, mBucketCount, mSigCount, mSampleCount);
+            mCountsProjected = true;
+        }
 
-        MatrixUtils.scalarDivide(hAdj, hd, true);
-        MatrixUtils.scalarMultiply(mH, hAdj);
+        multiplyTransposeFirst(mW, mV, mContribDenominator, mBucketCount, mSigCount, mSampleCount);
 
-        if(mConfig.SigFloatRate > 0)
+        for(int i = 0; i < mH.length; ++i)
         {
-            // update signatures matrix
-            Matrix ht = mH.transpose();
-            Matrix wAdj = MatrixUtils.multiply(mSampleCounts, ht);
-            Matrix wd1 = MatrixUtils.multiply(mW, mH);
-            Matrix wd = MatrixUtils.multiply(wd1, ht);
+            // a zero denominator leaves the numerator as the adjustment factor
+            double adjust = mContribDenominator[i] != 0 ? mContribNumerator[i] / mContribDenominator[i] : mContribNumerator[i];
+            mPrevH[i] = mH[i] * adjust;
+        }
 
-            MatrixUtils.scalarDivide(wAdj, wd, true);
+        swapContributions();
 
-            if(mConfig.SigFloatRate == 1)
-            {
-                MatrixUtils.scalarMultiply(mW, wAdj);
-            }
-            else
+        if(!sigsFloat)
+            return;
+
+        // update signatures matrix: W = W * (V.H') / (WH.H'), forming WH.H' as W.(H.H') to avoid another full-size product
+        multiplyTransposeSecond(mCounts, mH, mSigNumerator, mBucketCount, mSampleCount, mSigCount);
+        multiplyTransposeSecond(mH, mH, mSigSquares, mSigCount, mSampleCount, mSigCount);
+        multiply(mW, mSigSquares, mSigDenominator, mBucketCount, mSigCount, mSigCount);
+
+        // dampen the adjustment to the ref signatures if they are only permitted to float partially
+        int adjustColLimit = mConfig.SigFloatRate < 1 && mRefSignatures != null ? mRefSignatures.Cols : 0;
+
+        for(int b = 0; b < mBucketCount; ++b)
+        {
+            for(int s = 0; s < mSigCount; ++s)
             {
-                MatrixUtils.scalarMultiplyRateAdjusted(mW, wAdj, mConfig.SigFloatRate, mRefSignatures.Cols);
+                int index = b * mSigCount + s;
+                double adjust = mSigDenominator[index] != 0 ? mSigNumerator[index] / mSigDenominator[index] : mSigNumerator[index];
+
+                if(s < adjustColLimit)
+                {
+                    if(adjust >= 1)
+                        adjust = 1 + (adjust - 1) * mConfig.SigFloatRate;
+                    else
+                        adjust = 1 - (1 - adjust) * mConfig.SigFloatRate;
+                }
+
+                mPrevW[index] = mW[index] * adjust;
             }
         }
+
+        swapSignatures();
     }
 
     private void modelBrunet()
     {
-        Matrix vWH = mSampleCounts;
-        MatrixUtils.scalarDivide(vWH, mV);
+        // the divergence-based updates (Brunet et al, 2004), with the count-to-fit ratios held in a workspace
+        // so that the sample counts themselves are never modified
+        calcCountRatios();
 
-        Matrix wSum = new Matrix(mSigCount, mSampleCount);
-        double[][] wSumData = wSum.getData();
-        for(int j = 0; j < mSigCount; ++j)
-        {
-            double sigTotal = sumVector(mW.getCol(j));
+        Arrays.fill(mSigTotals, 0);
 
-            for(int k = 0; k < mSampleCount; ++k)
+        for(int b = 0; b < mBucketCount; ++b)
+        {
+            for(int s = 0; s < mSigCount; ++s)
             {
-                wSumData[j][k] = sigTotal;
+                mSigTotals[s] += mW[b * mSigCount + s];
             }
         }
 
-        Matrix wt = mW.transpose();
-        Matrix wt_vWH = MatrixUtils.multiply(wt, vWH);
-        Matrix hAdj = wt_vWH;
-        MatrixUtils.scalarDivide(hAdj, wSum);
+        multiplyTransposeFirst(mW, mCountRatios, mContribNumerator, mBucketCount, mSigCount, mSampleCount);
 
-        MatrixUtils.scalarMultiply(mH, hAdj);
+        for(int s = 0; s < mSigCount; ++s)
+        {
+            double sigTotal = mSigTotals[s];
 
-        // recalc V and WH using the new H
-        mV = MatrixUtils.multiply(mW, mH);
-        vWH = mSampleCounts;
-        MatrixUtils.scalarDivide(vWH, mV);
+            for(int n = 0; n < mSampleCount; ++n)
+            {
+                int index = s * mSampleCount + n;
+                double adjust = sigTotal != 0 ? mContribNumerator[index] / sigTotal : mContribNumerator[index];
+                mPrevH[index] = mH[index] * adjust;
+            }
+        }
+
+        swapContributions();
+
+        // recalc V and the ratios using the new H
+        produceFit();
+        calcCountRatios();
 
         // now adjust W
-        Matrix hSum = new Matrix(mBucketCount, mSigCount);
-        double[][] hSumData = hSum.getData();
-        for(int j = 0; j < mSigCount; ++j)
+        for(int s = 0; s < mSigCount; ++s)
         {
-            double sigTotal = sumVector(mH.getRow(j));
+            double sigTotal = 0;
+
+            for(int n = 0; n < mSampleCount; ++n)
+            {
+                sigTotal += mH[s * mSampleCount + n];
+            }
 
-            for(int k = 0; k < mBucketCount; ++k)
+            mSigTotals[s] = sigTotal;
+        }
+
+        multiplyTransposeSecond(mCountRatios, mH, mSigNumerator, mBucketCount, mSampleCount, mSigCount);
+
+        for(int b = 0; b < mBucketCount; ++b)
+        {
+            for(int s = 0; s < mSigCount; ++s)
             {
-                hSumData[k][j] = sigTotal;
+                int index = b * mSigCount + s;
+                double adjust = mSigTotals[s] != 0 ? mSigNumerator[index] / mSigTotals[s] : mSigNumerator[index];
+                mPrevW[index] = mW[index] * adjust;
             }
         }
 
-        Matrix ht = mH.transpose();
-        Matrix vWH_ht = MatrixUtils.multiply(vWH, ht);
-        Matrix wAdj = vWH_ht;
-        MatrixUtils.scalarDivide(wAdj, hSum);
+        swapSignatures();
+    }
 
-        MatrixUtils.scalarMultiply(mW, wAdj);
+    private void calcCountRatios()
+    {
+        for(int i = 0; i < mCountRatios.length; ++i)
+        {
+            mCountRatios[i] = mV[i] != 0 ? mCounts[i] / mV[i] : mCounts[i];
+        }
     }
 
     private void calcResiduals()
@@ -591,18 +734,15 @@ public class NmfCalculator
         mTotalResiduals = 0;
         mNetResiduals = 0;
 
-        final double[][] vData = mV.getData();
-        final double[][] scData = mSampleCounts.getData();
-
         for(int n = 0; n < mSampleCount; ++n)
         {
             double sampleResiduals = 0;
 
             for(int b = 0; b < mBucketCount; ++b)
             {
-                double bucketCount = scData[b][n];
+                double bucketCount = mCounts[b * mSampleCount + n];
 
-                double sbContrib = vData[b][n];
+                double sbContrib = mV[b * mSampleCount + n];
                 double diff = bucketCount - sbContrib;
                 double absDiff = abs(diff);
                 sampleResiduals += absDiff;
@@ -618,25 +758,19 @@ public class NmfCalculator
         // Kullback-Leibler divergence: Aij * log(Aij/Bij) - Aij + Bij
         double divergSum = 0;
 
-        final double[][] vData = mV.getData();
-        final double[][] sbData = mSampleCounts.getData();
-
-        for (int n = 0; n < mSampleCount; ++n)
+        for (int i = 0; i < mV.length; ++i)
         {
-            for (int b = 0; b < mBucketCount; ++b)
-            {
-                double A = useVAsRef ? vData[b][n] : sbData[b][n];
-                double B = !useVAsRef ? vData[b][n] : sbData[b][n];
+            double A = useVAsRef ? mV[i] : mCounts[i];
+            double B = !useVAsRef ? mV[i] : mCounts[i];
 
-                if(B == 0)
-                    B = 0.001;
+            if(B == 0)
+                B = 0.001;
 
-                if(A == 0)
-                    A = 0.001;
+            if(A == 0)
+                A = 0.001;
 
-                double diverg = A * log(A/B) - A + B;
-                divergSum += diverg;
-            }
+            double diverg = A * log(A/B) - A + B;
+            divergSum += diverg;
         }
 
         return divergSum;
@@ -648,39 +782,34 @@ public class NmfCalculator
             return;
 
         // adjust all signature bucket ratios to sum to 1, and adjust contributions accordingly
-        double[][] wData = mW.getData();
-        double[][] hData = mH.getData();
-
-        for(int i = 0; i < mW.Cols; ++i)
+        for(int s = 0; s < mSigCount; ++s)
         {
-            double bucketRatioTotal = sumVector(mW.getCol(i));
+            double bucketRatioTotal = 0;
+
+            for(int b = 0; b < mBucketCount; ++b)
+            {
+                bucketRatioTotal += mW[b * mSigCount + s];
+            }
 
             if(bucketRatioTotal == 0)
                 continue;
 
-            double contribAdj = 0;
+            double newTotal = 0;
 
-            for(int j = 0; j < mW.Rows; ++j)
+            for(int b = 0; b < mBucketCount; ++b)
             {
                 // bucket ratio: x -> x/total to make a percentage
-                if(j == 0) {
-                    double prevVal = wData[j][i];
-                    wData[j][i] /= bucketRatioTotal;
-                    contribAdj = prevVal / wData[j][i];
-                }
-                else
-                {
-                    wData[j][i] /= bucketRatioTotal;
-                }
+                mW[b * mSigCount + s] /= bucketRatioTotal;
+                newTotal += mW[b * mSigCount + s];
             }
 
-            for(int j = 0; j < mH.Cols; ++j)
+            for(int n = 0; n < mSampleCount; ++n)
             {
-                hData[i][j] *= contribAdj;
+                mH[s * mSampleCount + n] *= bucketRatioTotal;
             }
 
             // verify bucket ratios for a sig now total 1 and so are in effect percentages
-            if(!doublesEqual(sumVector(mW.getCol(i)),1))
+            if(!doublesEqual(newTotal, 1))
             {
                 LOGGER.error("sig normalisation failed");
                 mIsValid = false;
@@ -688,19 +817,28 @@ public class NmfCalculator
             }
         }
 
-        // check that V hasn't changed
-        final Matrix vCopy = new Matrix(mV);
+        // check that V hasn't changed, using the previous fit's array to hold the pre-normalisation values
+        System.arraycopy(mV, 0, mPrevV, 0, mV.length);
         produceFit();
 
-        if(!mV.hasValidData(false))
+        if(!hasValidData(mV, mV.length, false))
         {
             LOGGER.warn("V-matrix has invalid data");
             mIsValid = false;
             return;
         }
 
-        double sumDiff = MatrixUtils.sumDiffSq(mV, vCopy);
-        boolean matrixEqual = mV.equals(vCopy);
+        double sumDiff = sumDiffSq(mV, mPrevV, mV.length);
+        boolean matrixEqual = true;
+
+        for(int i = 0; i < mV.length; ++i)
+        {
+            if(!doublesEqual(mV[i], mPrevV[i]))
+            {
+                matrixEqual = false;
+                break;
+            }
+        }
 
         if(!doublesEqual(sumDiff, 0) || !matrixEqual)
         {
@@ -712,20 +850,29 @@ public class NmfCalculator
 
     private void logMatrixDiffs()
     {
-        Matrix relDiff = MatrixUtils.getDiff(mV, mPrevV, true);
-        Matrix absDiff = MatrixUtils.getDiff(mV, mPrevV, false);
-        double avgPercChange = MatrixUtils.sum(relDiff) / (mV.Rows * mV.Cols);
-        LOGGER.debug(String.format("V-matrix diffs: abs(%.0f) relative(%.4f)", MatrixUtils.sum(absDiff), avgPercChange));
+        logMatrixDiffs("V", mV, mPrevV);
 
-        relDiff = MatrixUtils.getDiff(mW, mPrevW, true);
-        absDiff = MatrixUtils.getDiff(mW, mPrevW, false);
-        avgPercChange = MatrixUtils.sum(relDiff) / (mW.Rows * mW.Cols);
-        LOGGER.debug(String.format("W-matrix diffs: abs(%.0f) relative(%.4f)", MatrixUtils.sum(absDiff), avgPercChange));
+        if(mSigsUpdated)
+            logMatrixDiffs("W", mW, mPrevW);
 
-        relDiff = MatrixUtils.getDiff(mH, mPrevH, true);
-        absDiff = MatrixUtils.getDiff(mH, mPrevH, false);
-        avgPercChange = MatrixUtils.sum(relDiff) / (mH.Rows * mH.Cols);
-        LOGGER.debug(String.format("H-matrix diffs: abs(%.0f) relative(%.4f)", MatrixUtils.sum(absDiff), avgPercChange));
+        logMatrixDiffs("H", mH, mPrevH);
+    }
+
+    private static void logMatrixDiffs(final String name, final double[] current, final double[] previous)
+    {
+        // absolute and relative differences in a single pass, without forming difference matrices
+        double absDiffTotal = 0;
+        double relDiffTotal = 0;
+
+        for(int i = 0; i < current.length; ++i)
+        {
+            double diff = current[i] - previous[i];
+            absDiffTotal += diff;
+
+            if(previous[i] != 0)
+                relDiffTotal += diff / previous[i];
+        }
 
+        LOGGER.debug(String.format("%s-matrix diffs: abs(%.0f) relative(%.4f)", name, absDiffTotal, relDiffTotal / current.length));
     }
 }
@@ -37,6 +37,9 @@ public class NmfConfig {
 
     final public boolean LogVerbose;
 
+    // number of runs performed concurrently
+    final public int Threads;
+
     // command line args
     public static final String NMF_SIG_COUNT = "nmf_sig_count";
     public static final String NMF_RUN_COUNT = "nmf_run_count";
@@ -54,6 +57,8 @@ public class NmfConfig {
 
     public static final String NMF_LOG_VERBOSE = "nmf_log_verbose";
 
+    public static final String NMF_THREADS = "nmf_threads";
+
     public static final String NMF_MODEL = "nmf_model";
 
     public enum NmfModelMethod {
@@ -80,6 +85,8 @@ public class NmfConfig {
         options.addOption(NMF_FIT_ONLY, false, "Fit to input ref sigs, apply min-sig logic");
         options.addOption(NMF_FIT_RESTRICTED, false, "Fit to input ref sigs if has ref contribution");
 
+        options.addOption(NMF_THREADS, true, "Number of NMF runs to perform concurrently, default 1");
+
         options.addOption(NMF_LOG_VERBOSE, false, "All NMF details logged");
     }
 
@@ -119,6 +126,7 @@ public class NmfConfig {
         SigFloatRate = cmd.hasOption(NMF_SIG_FLOAT_RATE) ? Double.parseDouble(cmd.getOptionValue(NMF_SIG_FLOAT_RATE)) : 1.0;
 
         LogVerbose = cmd.hasOption(NMF_LOG_VERBOSE);
+        Threads = cmd.hasOption(NMF_THREADS) ? Integer.parseInt(cmd.getOptionValue(NMF_THREADS)) : 1;
     }
 
     public NmfConfig(double exitLevel, int maxIterations)
@@ -138,6 +146,7 @@ public class NmfConfig {
         RefSigFilename = "";
         Model = NmfModelMethod.STANDARD;
         ApplyPcawgRules = false;
+        Threads = 1;
     }
 
 }
@@ -0,0 +1,158 @@
+package com.hartwig.hmftools.sigs.nmf;
+
+import static java.lang.Math.min;
+
+import java.util.Arrays;
+
+import com.hartwig.hmftools.common.utils.Matrix;
+
+// matrix routines for the NMF updates over flat, row-major arrays - the column dimension is processed in blocks so that
+// the rows of the right-hand operand being streamed stay in cache while each row of the left-hand operand is applied
+public final class NmfMatrixKernel
+{
+    // columns per block - sized so a block of a 96-bucket or signature-count matrix fits comfortably in L2
+    private static final int COL_BLOCK_SIZE = 256;
+
+    private NmfMatrixKernel() {}
+
+    public static double[] toFlat(final Matrix matrix)
+    {
+        double[] flat = new double[matrix.Rows * matrix.Cols];
+        final double[][] data = matrix.getData();
+
+        for(int i = 0; i < matrix.Rows; ++i)
+        {
+            System.arraycopy(data[i], 0, flat, i * matrix.Cols, matrix.Cols);
+        }
+
+        return flat;
+    }
+
+    public static void copyToMatrix(final double[] flat, final Matrix matrix)
+    {
+        double[][] data = matrix.getData();
+
+        for(int i = 0; i < matrix.Rows; ++i)
+        {
+            System.arraycopy(flat, i * matrix.Cols, data[i], 0, matrix.Cols);
+        }
+    }
+
+    public static void multiply(final double[] a, final double[] b, final double[] dest, int rows, int common, int cols)
+    {
+        // dest(rows x cols) = a(rows x common) * b(common x cols)
+        Arrays.fill(dest, 0, rows * cols, 0);
+
+        for(int colStart = 0; colStart < cols; colStart += COL_BLOCK_SIZE)
+        {
+            int colEnd = min(colStart + COL_BLOCK_SIZE, cols);
+
+            for(int i = 0; i < rows; ++i)
+            {
+                int destOffset = i * cols;
+
+                for(int k = 0; k < common; ++k)
+                {
+                    double aValue = a[i * common + k];
+
+                    if(aValue == 0)
+                        continue;
+
+                    int bOffset = k * cols;
+
+                    for(int j = colStart; j < colEnd; ++j)
+                    {
+                        dest[destOffset + j] += aValue * b[bOffset + j];
+                    }
+                }
+            }
+        }
+    }
+
+    public static void multiplyTransposeFirst(final double[] a, final double[] b, final double[] dest, int common, int rows, int cols)
+    {
+        // dest(rows x cols) = transpose(a(common x rows)) * b(common x cols), without forming the transpose
+        Arrays.fill(dest, 0, rows * cols, 0);
+
+        for(int colStart = 0; colStart < cols; colStart += COL_BLOCK_SIZE)
+        {
+            int colEnd = min(colStart + COL_BLOCK_SIZE, cols);
+
+            for(int k = 0; k < common; ++k)
+            {
+                int bOffset = k * cols;
+
+                for(int i = 0; i < rows; ++i)
+                {
+                    double aValue = a[k * rows + i];
+
+                    if(aValue == 0)
+                        continue;
+
+                    int destOffset = i * cols;
+
+                    for(int j = colStart; j < colEnd; ++j)
+                    {
+                        dest[destOffset + j] += aValue * b[bOffset + j];
+                    }
+                }
+            }
+        }
+    }
+
+    public static void multiplyTransposeSecond(final double[] a, final double[] b, final double[] dest, int rows, int common, int cols)
+    {
+        // dest(rows x cols) = a(rows x common) * transpose(b(cols x common)), as dot products of contiguous rows
+        Arrays.fill(dest, 0, rows * cols, 0);
+
+        for(int kStart = 0; kStart < common; kStart += COL_BLOCK_SIZE)
+        {
+            int kEnd = min(kStart + COL_BLOCK_SIZE, common);
+
+            for(int i = 0; i < rows; ++i)
+            {
+                int aOffset = i * common;
+
+                for(int j = 0; j < cols; ++j)
+                {
+                    int bOffset = j * common;
+                    double total = 0;
+
+                    for(int k = kStart; k < kEnd; ++k)
+                    {
+                        total += a[aOffset + k] * b[bOffset + k];
+                    }
+
+                    dest[i * cols + j] += total;
+                }
+            }
+        }
+    }
+
+    public static double sumDiffSq(final double[] first, final double[] second, int count)
+    {
+        double total = 0;
+
+        for(int i = 0; i < count; ++i)
+        {
+            double diff = first[i] - second[i];
+            total += diff * diff;
+        }
+
+        return total;
+    }
+
+    public static boolean hasValidData(final double[] data, int count, boolean allowNegative)
+    {
+        for(int i = 0; i < count; ++i)
+        {
+            if(Double.isNaN(data[i]) || Double.isInfinite(data[i]))
+                return false;
+
+            if(!allowNegative && data[i] < 0)
+                return false;
+        }
+
+        return true;
+    }
+}
@@ -11,8 +11,14 @@ import static com.hartwig.hmftools.sigs.common.CssRoutines.getTopCssPairs;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hartwig.hmftools.common.utils.PerformanceCounter;
 import com.hartwig.hmftools.sigs.common.SigReporter;
 import com.hartwig.hmftools.common.utils.Matrix;
@@ -89,30 +95,53 @@ public class NmfRun {
 
         PerformanceCounter runPC = new PerformanceCounter("NMF Runs");
 
+        // each run has its own calculator, seeded by its index, and the runs are assessed in order once complete
+        // the first run is completed on its own and every other run exits early against its lowest cost, so that each run has the
+        // same inputs however many threads are used and however the runs are scheduled
+        int threads = max(mConfig.Threads, 1);
+        final ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("NmfRun-%d").build();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, namedThreadFactory);
+
+        List<Future<NmfCalculator>> runResults = Lists.newArrayListWithCapacity(mConfig.RunCount);
+        List<PerformanceCounter> runCounters = Lists.newArrayListWithCapacity(mConfig.RunCount);
+
         boolean hasValidRun = false;
 
+        submitRun(executorService, 0, 0, runResults, runCounters);
+
         for (int i = 0; i < mConfig.RunCount; ++i)
         {
-            runPC.start();
-            mCalculator.performRun(i);
-            runPC.stop();
+            // once the first run is assessed, keep the pool busy with the next runs, only a window of them at a time to bound the
+            // results held in memory - which has no effect on the results since all these runs use the same lowest cost
+            for (int runIndex = runResults.size(); i > 0 && runIndex < mConfig.RunCount && runIndex < i + threads; ++runIndex)
+            {
+                submitRun(executorService, runIndex, mCalculator.getLowestCost(), runResults, runCounters);
+            }
+
+            NmfCalculator calculator = getRunResult(runResults.get(i));
+            runResults.set(i, null);
 
-            if (!mCalculator.isValid()) {
+            if (calculator == null || !calculator.isValid()) {
                 LOGGER.warn("exiting on invalid NMF run");
                 mValid = false;
                 break;
             }
 
-            double newRunScore = mCalculator.getTotalResiduals();
-            final Matrix newSigs = mCalculator.getSignatures();
+            runPC.merge(runCounters.get(i));
 
+            if (i == 0)
+                mCalculator.setLowestCost(calculator.getLowestCost());
+
+            double newRunScore = calculator.getTotalResiduals();
+
+            // each calculator is discarded after its run, so its results can be kept without copying
             if (i == 0 || !hasValidRun)
             {
                 hasValidRun = true;
 
                 mLowestResidualCount = newRunScore;
-                mBestSignatures = new Matrix(newSigs);
-                mBestContributions = new Matrix(mCalculator.getContributions());
+                mBestSignatures = calculator.getSignatures();
+                mBestContributions = calculator.getContributions();
 
                 // mUniqueSignatures.add(new SigMatrix(newSigs));
             }
@@ -125,8 +154,8 @@ public class NmfRun {
                             i, mLowestResidualCount, newRunScore, residualsPercent));
 
                     mLowestResidualCount = newRunScore;
-                    mBestSignatures.setData(newSigs.getData());
-                    mBestContributions.setData(mCalculator.getContributions().getData());
+                    mBestSignatures = calculator.getSignatures();
+                    mBestContributions = calculator.getContributions();
                 }
 
                 // store if this new signature is significantly different
@@ -134,6 +163,8 @@ public class NmfRun {
             }
         }
 
+        executorService.shutdownNow();
+
         mPerfCounter.stop();
 
         if (!mValid)
@@ -158,6 +189,38 @@ public class NmfRun {
         return mValid;
     }
 
+    private void submitRun(
+            final ExecutorService executorService, int runIndex, double lowestCost,
+            final List<Future<NmfCalculator>> runResults, final List<PerformanceCounter> runCounters)
+    {
+        final NmfCalculator calculator = new NmfCalculator(mCalculator, NmfCalculator.RANDOM_SEED + runIndex);
+        calculator.setLowestCost(lowestCost);
+
+        final PerformanceCounter runCounter = new PerformanceCounter("NMF Runs");
+        runCounters.add(runCounter);
+
+        runResults.add(executorService.submit(() ->
+        {
+            runCounter.start();
+            calculator.performRun(runIndex);
+            runCounter.stop();
+            return calculator;
+        }));
+    }
+
+    private static NmfCalculator getRunResult(final Future<NmfCalculator> runResult)
+    {
+        try
+        {
+            return runResult.get();
+        }
+        catch(InterruptedException | ExecutionException e)
+        {
+            LOGGER.error("NMF run failed: {}", e.toString());
+            return null;
+        }
+    }
+
     private void cacheUniqueSignatures(final Matrix newSigs) {
         if (mUniqueSignatures.size() >= 10)
             return;
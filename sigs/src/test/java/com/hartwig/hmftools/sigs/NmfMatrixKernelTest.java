@@ -0,0 +1,205 @@
+package com.hartwig.hmftools.sigs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import com.hartwig.hmftools.common.utils.Matrix;
+import com.hartwig.hmftools.common.utils.MatrixUtils;
+import com.hartwig.hmftools.sigs.nmf.NmfCalculator;
+import com.hartwig.hmftools.sigs.nmf.NmfConfig;
+import com.hartwig.hmftools.sigs.nmf.NmfMatrixKernel;
+import com.hartwig.hmftools.sigs.nmf.NmfRun;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.junit.Test;
+
+public class NmfMatrixKernelTest
+{
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testBlockedMultiplyMatchesMatrixUtils()
+    {
+        Random random = new Random(1);
+
+        // dimensions chosen to cross the column block boundary
+        int buckets = 96;
+        int sigCount = 7;
+        int sampleCount = 600;
+
+        Matrix signatures = randomMatrix(random, buckets, sigCount);
+        Matrix contributions = randomMatrix(random, sigCount, sampleCount);
+        Matrix counts = randomMatrix(random, buckets, sampleCount);
+
+        double[] sigData = NmfMatrixKernel.toFlat(signatures);
+        double[] contribData = NmfMatrixKernel.toFlat(contributions);
+        double[] countsData = NmfMatrixKernel.toFlat(counts);
+
+        // W * H
+        double[] fit = new double[buckets * sampleCount];
+        NmfMatrixKernel.multiply(sigData, contribData, fit, buckets, sigCount, sampleCount);
+        assertMatches(MatrixUtils.multiply(signatures, contributions), fit);
+
+        // transpose(W) * V
+        double[] projected = new double[sigCount * sampleCount];
+        NmfMatrixKernel.multiplyTransposeFirst(sigData, countsData, projected, buckets, sigCount, sampleCount);
+        assertMatches(MatrixUtils.multiply(signatures.transpose(), counts), projected);
+
+        // V * transpose(H)
+        double[] sigNumerator = new double[buckets * sigCount];
+        NmfMatrixKernel.multiplyTransposeSecond(countsData, contribData, sigNumerator, buckets, sampleCount, sigCount);
+        assertMatches(MatrixUtils.multiply(counts, contributions.transpose()), sigNumerator);
+
+        Matrix fitMatrix = new Matrix(buckets, sampleCount);
+        NmfMatrixKernel.copyToMatrix(fit, fitMatrix);
+        assertEquals(MatrixUtils.sumDiffSq(counts, fitMatrix), NmfMatrixKernel.sumDiffSq(countsData, fit, fit.length), 1e-6);
+    }
+
+    @Test
+    public void testConcurrentRunsRecoverPlantedSignatures() throws ParseException
+    {
+        Random random = new Random(2);
+
+        int buckets = 96;
+        int sigCount = 3;
+        int sampleCount = 50;
+
+        Matrix signatures = randomMatrix(random, buckets, sigCount);
+        Matrix contributions = randomMatrix(random, sigCount, sampleCount);
+        Matrix counts = MatrixUtils.multiply(signatures, contributions);
+
+        Options options = new Options();
+        NmfConfig.addCmdLineArgs(options);
+
+        String[] args = { "-nmf_sig_count", String.valueOf(sigCount), "-nmf_run_count", "4", "-nmf_exit_level", "0.0001",
+                "-nmf_max_iterations", "2000", "-nmf_threads", "2" };
+
+        CommandLine cmd = new DefaultParser().parse(options, args);
+        NmfConfig config = new NmfConfig(cmd);
+
+        NmfCalculator calculator = new NmfCalculator(counts, config);
+        calculator.setSigCount(sigCount);
+
+        // independent runs off the same inputs, as performed concurrently by NmfRun
+        for(int runId = 0; runId < config.RunCount; ++runId)
+        {
+            NmfCalculator runCalculator = new NmfCalculator(calculator, NmfCalculator.RANDOM_SEED + runId);
+            runCalculator.performRun(runId);
+
+            assertTrue(runCalculator.isValid());
+            assertEquals(buckets, runCalculator.getSignatures().Rows);
+            assertEquals(sampleCount, runCalculator.getContributions().Cols);
+            assertTrue(runCalculator.getTotalResiduals() / runCalculator.getTotalCount() < 0.05);
+        }
+    }
+
+    @Test
+    public void testConcurrentRunsAreReproducible() throws ParseException
+    {
+        Random random = new Random(3);
+
+        int buckets = 96;
+        int sigCount = 3;
+        int sampleCount = 40;
+
+        Matrix counts = MatrixUtils.multiply(randomMatrix(random, buckets, sigCount), randomMatrix(random, sigCount, sampleCount));
+
+        Options options = new Options();
+        NmfConfig.addCmdLineArgs(options);
+
+        String[] args = { "-nmf_sig_count", String.valueOf(sigCount), "-nmf_run_count", "8", "-nmf_exit_level", "0.0001",
+                "-nmf_max_iterations", "500", "-nmf_threads", "3" };
+
+        NmfConfig config = new NmfConfig(new DefaultParser().parse(options, args));
+
+        // the early exits depend only on the first run, not on which runs finish first
+        NmfRun firstRun = new NmfRun(config, sigCount, new NmfCalculator(counts, config), null);
+        NmfRun secondRun = new NmfRun(config, sigCount, new NmfCalculator(counts, config), null);
+
+        assertTrue(firstRun.run());
+        assertTrue(secondRun.run());
+
+        assertEquals(firstRun.getLowestRunScore(), secondRun.getLowestRunScore(), 0);
+        assertTrue(MatrixUtils.sumDiffSq(firstRun.getBestSignatures(), secondRun.getBestSignatures()) == 0);
+    }
+
+    @Test
+    public void testRunsIndependentOfThreadCount() throws ParseException
+    {
+        Random random = new Random(4);
+
+        int buckets = 96;
+        int sigCount = 3;
+        int sampleCount = 40;
+
+        // fitting fewer signatures than planted, with noise and few iterations, keeps the runs from converging so that whether each
+        // run exits early or is extended depends on the lowest cost it is given
+        Matrix counts = MatrixUtils.multiply(randomMatrix(random, buckets, sigCount + 3), randomMatrix(random, sigCount + 3, sampleCount));
+        double[][] countsData = counts.getData();
+
+        for(int i = 0; i < buckets; ++i)
+        {
+            for(int j = 0; j < sampleCount; ++j)
+            {
+                countsData[i][j] = Math.round(countsData[i][j] * (0.5 + random.nextDouble()));
+            }
+        }
+
+        NmfRun singleThreadRun = runNmf(counts, sigCount, 1);
+        NmfRun multiThreadRun = runNmf(counts, sigCount, 6);
+
+        assertEquals(singleThreadRun.getLowestRunScore(), multiThreadRun.getLowestRunScore(), 0);
+        assertTrue(MatrixUtils.sumDiffSq(singleThreadRun.getBestSignatures(), multiThreadRun.getBestSignatures()) == 0);
+        assertTrue(MatrixUtils.sumDiffSq(singleThreadRun.getBestContributions(), multiThreadRun.getBestContributions()) == 0);
+    }
+
+    private static NmfRun runNmf(final Matrix counts, int sigCount, int threads) throws ParseException
+    {
+        Options options = new Options();
+        NmfConfig.addCmdLineArgs(options);
+
+        String[] args = { "-nmf_sig_count", String.valueOf(sigCount), "-nmf_run_count", "16", "-nmf_exit_level", "0.0001",
+                "-nmf_max_iterations", "100", "-nmf_threads", String.valueOf(threads) };
+
+        NmfConfig config = new NmfConfig(new DefaultParser().parse(options, args));
+
+        NmfRun nmfRun = new NmfRun(config, sigCount, new NmfCalculator(counts, config), null);
+        assertTrue(nmfRun.run());
+        return nmfRun;
+    }
+
+    private static Matrix randomMatrix(final Random random, int rows, int cols)
+    {
+        Matrix matrix = new Matrix(rows, cols);
+        double[][] data = matrix.getData();
+
+        for(int i = 0; i < rows; ++i)
+        {
+            for(int j = 0; j < cols; ++j)
+            {
+                // include zeros since the kernels skip them
+                data[i][j] = random.nextInt(4) == 0 ? 0 : random.nextDouble() * 100;
+            }
+        }
+
+        return matrix;
+    }
+
+    private static void assertMatches(final Matrix expected, final double[] actual)
+    {
+        final double[][] data = expected.getData();
+
+        for(int i = 0; i < expected.Rows; ++i)
+        {
+            for(int j = 0; j < expected.Cols; ++j)
+            {
+                assertEquals(data[i][j], actual[i * expected.Cols + j], EPSILON * Math.max(1, Math.abs(data[i][j])));
+            }
+        }
+    }
+}